@@ -9,14 +9,23 @@
  */
 package es.uam.eps.ir.relison.graph;
 
+import es.uam.eps.ir.ranksys.fast.preference.IdxPref;
 import es.uam.eps.ir.relison.graph.edges.EdgeOrientation;
+import es.uam.eps.ir.relison.graph.edges.EdgeType;
+import es.uam.eps.ir.relison.graph.edges.fast.CSRDirectedEdges;
+import es.uam.eps.ir.relison.graph.edges.fast.CSRUndirectedEdges;
+import es.uam.eps.ir.relison.graph.fast.*;
 import es.uam.eps.ir.relison.graph.generator.EmptyGraphGenerator;
 import es.uam.eps.ir.relison.graph.generator.GraphCloneGenerator;
 import es.uam.eps.ir.relison.graph.generator.GraphGenerator;
 import es.uam.eps.ir.relison.graph.generator.exception.GeneratorBadConfiguredException;
 import es.uam.eps.ir.relison.graph.generator.exception.GeneratorNotConfiguredException;
 import es.uam.eps.ir.relison.index.Index;
+import es.uam.eps.ir.relison.index.fast.FastIndex;
+import it.unimi.dsi.fastutil.doubles.DoubleArrayList;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
 
+import java.util.Iterator;
 import java.util.function.Function;
 import java.util.function.IntPredicate;
 
@@ -47,15 +56,16 @@ public class Adapters
             Graph<U> auxGraph = ggen.generate();
 
             graph.getAllNodes().forEach(auxGraph::addNode);
+            GraphBuilder<U> builder = new GraphBuilder<>(auxGraph);
             graph.getAllNodes().forEach(u ->
                 graph.getAdjacentNodesWeights(u).filter(v -> !u.equals(v.getIdx())).forEach(v ->
                 {
                     double weight = v.getValue();
                     int type = graph.getEdgeType(u, v.getIdx());
-                    auxGraph.addEdge(u, v.getIdx(), weight, type);
+                    builder.addEdge(u, v.getIdx(), weight, type, true);
                 }));
 
-            return graph;
+            return builder.build();
         }
         catch (GeneratorNotConfiguredException | GeneratorBadConfiguredException ex)
         {
@@ -80,20 +90,21 @@ public class Adapters
             ggen.configure(graph.isDirected(), graph.isWeighted());
             Graph<U> auxGraph = ggen.generate();
 
+            GraphBuilder<U> builder = new GraphBuilder<>(auxGraph);
             graph.getAllNodes().forEach(u ->
             {
                 auxGraph.addNode(u);
-                auxGraph.addEdge(u, u);
+                builder.addEdge(u, u);
             });
             graph.getAllNodes().forEach(u ->
                 graph.getAdjacentNodesWeights(u).forEach(v ->
                 {
                     double weight = v.getValue();
                     int type = graph.getEdgeType(u, v.getIdx());
-                    auxGraph.addEdge(u, v.getIdx(), weight, type);
+                    builder.addEdge(u, v.getIdx(), weight, type, true);
                 }));
 
-            return graph;
+            return builder.build();
         }
         catch (GeneratorNotConfiguredException | GeneratorBadConfiguredException ex)
         {
@@ -122,6 +133,7 @@ public class Adapters
 
             trainingGraph.getAllNodes().forEach(auxGraph::addNode);
 
+            GraphBuilder<U> builder = new GraphBuilder<>(auxGraph);
             graph.getAllNodes().forEach(u ->
             {
                 if (auxGraph.containsVertex(u))
@@ -130,13 +142,13 @@ public class Adapters
                     {
                         if (auxGraph.containsVertex(v.getIdx()))
                         {
-                            auxGraph.addEdge(u, v.getIdx(), v.getValue());
+                            builder.addEdge(u, v.getIdx(), v.getValue());
                         }
                     });
                 }
             });
 
-            return auxGraph;
+            return builder.build();
         }
         catch (GeneratorNotConfiguredException | GeneratorBadConfiguredException ex)
         {
@@ -161,8 +173,9 @@ public class Adapters
             Graph<U> auxGraph = ggen.generate();
 
             graph.getAllNodes().forEach(auxGraph::addNode);
-            graph.getAllNodes().forEach(u -> graph.getAdjacentNodes(u).forEach(v -> auxGraph.addEdge(u, v)));
-            return auxGraph;
+            GraphBuilder<U> builder = new GraphBuilder<>(auxGraph);
+            graph.getAllNodes().forEach(u -> graph.getAdjacentNodes(u).forEach(v -> builder.addEdge(u, v)));
+            return builder.build();
         }
         catch (GeneratorNotConfiguredException | GeneratorBadConfiguredException ex)
         {
@@ -195,8 +208,9 @@ public class Adapters
                 Graph<U> auxGraph = ggen.generate();
 
                 graph.getAllNodes().forEach(auxGraph::addNode);
-                graph.getAllNodes().forEach(u -> graph.getNeighbourhoodWeights(u, EdgeOrientation.UND).forEach(v -> auxGraph.addEdge(u, v.getIdx(), v.getValue())));
-                return auxGraph;
+                GraphBuilder<U> builder = new GraphBuilder<>(auxGraph);
+                graph.getAllNodes().forEach(u -> graph.getNeighbourhoodWeights(u, EdgeOrientation.UND).forEach(v -> builder.addEdge(u, v.getIdx(), v.getValue())));
+                return builder.build();
             }
         }
         catch (GeneratorNotConfiguredException | GeneratorBadConfiguredException ex)
@@ -223,6 +237,7 @@ public class Adapters
             graph.getAllNodes().forEach(auxGraph::addNode);
 
             Index<U> index = graph.getAdjacencyMatrixMap();
+            GraphBuilder<U> builder = new GraphBuilder<>(auxGraph);
             graph.getNodesWithAdjacentNeighbors().forEach(u ->
             {
                 IntPredicate pred = filter.apply(u);
@@ -230,15 +245,131 @@ public class Adapters
                 {
                     double weight = graph.getEdgeWeight(u,v);
                     int type = graph.getEdgeType(u, v);
-                    auxGraph.addEdge(u,v,weight,type);
+                    builder.addEdge(u, v, weight, type, true);
                 });
             });
 
-            return auxGraph;
+            return builder.build();
         }
         catch(GeneratorNotConfiguredException | GeneratorBadConfiguredException ex)
         {
             return null;
         }
     }
+
+    /**
+     * Given a graph, obtains an immutable copy of it, where edges are stored in compressed sparse row (CSR)
+     * format. The frozen graph keeps the same vertex identifiers as the original one (if it was a fast graph),
+     * and it can be used anywhere a fast graph is required, as long as it is not modified.
+     *
+     * @param graph the original graph. It cannot be a multigraph.
+     * @param <U>   type of the users.
+     *
+     * @return the frozen graph.
+     */
+    public static <U> FastGraph<U> freeze(Graph<U> graph)
+    {
+        if (graph.isMultigraph())
+        {
+            throw new IllegalArgumentException("Multigraphs cannot be frozen");
+        }
+
+        Index<U> index = new FastIndex<>();
+        if (graph instanceof FastGraph)
+        {
+            FastGraph<U> fastGraph = (FastGraph<U>) graph;
+            fastGraph.getAllNodesIds().forEach(uidx -> index.addObject(fastGraph.idx2object(uidx)));
+        }
+        else
+        {
+            graph.getAllNodes().forEach(index::addObject);
+        }
+
+        int numNodes = index.numObjects();
+        boolean weighted = graph.isWeighted();
+        int[] offsets = new int[numNodes + 1];
+        IntArrayList targets = new IntArrayList();
+        DoubleArrayList weights = new DoubleArrayList();
+        IntArrayList types = new IntArrayList();
+        boolean defaultTypes = true;
+
+        for (int uidx = 0; uidx < numNodes; ++uidx)
+        {
+            int start = targets.size();
+            if (graph instanceof FastGraph)
+            {
+                FastGraph<U> fastGraph = (FastGraph<U>) graph;
+                Iterator<IdxPref> wIterator = fastGraph.getNeighborhoodWeights(uidx, EdgeOrientation.OUT).iterator();
+                Iterator<EdgeType> tIterator = fastGraph.getNeighborhoodTypes(uidx, EdgeOrientation.OUT).iterator();
+                while (wIterator.hasNext())
+                {
+                    IdxPref w = wIterator.next();
+                    targets.add(w.v1);
+                    weights.add(w.v2);
+                    types.add(tIterator.next().getValue().intValue());
+                }
+            }
+            else
+            {
+                U u = index.idx2object(uidx);
+                graph.getAdjacentNodesWeights(u).forEach(w ->
+                {
+                    targets.add(index.object2idx(w.getIdx()));
+                    weights.add(w.getValue().doubleValue());
+                    types.add(graph.getEdgeType(u, w.getIdx()));
+                });
+            }
+            int end = targets.size();
+            sortNeighborhood(targets, weights, types, start, end);
+            offsets[uidx + 1] = end;
+
+            for (int j = start; j < end && defaultTypes; ++j)
+            {
+                defaultTypes = types.getInt(j) == EdgeType.getDefaultValue();
+            }
+        }
+
+        int[] targetArray = targets.toIntArray();
+        double[] weightArray = weighted ? weights.toDoubleArray() : null;
+        int[] typeArray = defaultTypes ? null : types.toIntArray();
+
+        if (graph.isDirected())
+        {
+            CSRDirectedEdges edges = CSRDirectedEdges.fromAdjacency(numNodes, offsets, targetArray, weightArray, typeArray);
+            return weighted ? new CSRDirectedWeightedGraph<>(index, edges) : new CSRDirectedUnweightedGraph<>(index, edges);
+        }
+        else
+        {
+            CSRUndirectedEdges edges = new CSRUndirectedEdges(numNodes, offsets, targetArray, weightArray, typeArray);
+            return weighted ? new CSRUndirectedWeightedGraph<>(index, edges) : new CSRUndirectedUnweightedGraph<>(index, edges);
+        }
+    }
+
+    /**
+     * Sorts a neighbourhood by the identifiers of the neighbours, moving their weights and types along with them.
+     *
+     * @param targets the identifiers of the neighbours.
+     * @param weights the weights of the edges.
+     * @param types   the types of the edges.
+     * @param start   the first position of the neighbourhood.
+     * @param end     the position after the last element of the neighbourhood.
+     */
+    private static void sortNeighborhood(IntArrayList targets, DoubleArrayList weights, IntArrayList types, int start, int end)
+    {
+        boolean sorted = true;
+        for (int j = start + 1; j < end && sorted; ++j)
+        {
+            sorted = targets.getInt(j - 1) < targets.getInt(j);
+        }
+
+        if (!sorted)
+        {
+            it.unimi.dsi.fastutil.Arrays.quickSort(start, end, (a, b) -> Integer.compare(targets.getInt(a), targets.getInt(b)), (a, b) ->
+            {
+                targets.set(a, targets.set(b, targets.getInt(a)));
+                weights.set(a, weights.set(b, weights.getDouble(a)));
+                types.set(a, types.set(b, types.getInt(a)));
+            });
+        }
+    }
 }
@@ -0,0 +1,196 @@
+/*
+ *  Copyright (C) 2021 Information Retrieval Group at Universidad Autónoma
+ *  de Madrid, http://ir.ii.uam.es
+ *
+ *  This Source Code Form is subject to the terms of the Mozilla Public
+ *  License, v. 2.0. If a copy of the MPL was not distributed with this
+ *  file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package es.uam.eps.ir.relison.graph;
+
+import es.uam.eps.ir.relison.graph.edges.EdgeType;
+import es.uam.eps.ir.relison.graph.edges.EdgeWeight;
+import es.uam.eps.ir.relison.graph.fast.FastGraph;
+import it.unimi.dsi.fastutil.doubles.DoubleArrayList;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+
+/**
+ * Builds a graph by adding its edges in bulk. Edges are buffered in primitive arrays, and they are inserted in the
+ * graph all at once when the graph is built (or the builder is flushed). When the graph is a simple {@link FastGraph},
+ * every neighborhood is sorted only once, so building a graph with E edges takes O(E log E) time, instead of the
+ * O(E d) time (with d the maximum degree) required for inserting the edges one by one in the sorted neighborhoods.
+ * For any other graph, edges are just added one by one.
+ *
+ * Nodes are added to the graph as soon as they are received. As it happens with the individual insertions, if an
+ * edge is added several times, only its first appearance is kept.
+ *
+ * @param <V> type of the vertices.
+ *
+ * @author Javier Sanz-Cruzado (javier.sanz-cruzado@uam.es)
+ * @author Pablo Castells (pablo.castells@uam.es)
+ */
+public class GraphBuilder<V>
+{
+    /**
+     * The graph to build.
+     */
+    private final Graph<V> graph;
+    /**
+     * The graph to build, if it is a fast graph (null otherwise).
+     */
+    private final FastGraph<V> fastGraph;
+    /**
+     * Identifiers of the first endpoints of the buffered edges.
+     */
+    private final IntArrayList origs = new IntArrayList();
+    /**
+     * Identifiers of the second endpoints of the buffered edges.
+     */
+    private final IntArrayList dests = new IntArrayList();
+    /**
+     * Weights of the buffered edges.
+     */
+    private final DoubleArrayList weights = new DoubleArrayList();
+    /**
+     * Types of the buffered edges.
+     */
+    private final IntArrayList types = new IntArrayList();
+
+    /**
+     * Constructor.
+     *
+     * @param graph the graph to build. It might already contain nodes and edges.
+     */
+    public GraphBuilder(Graph<V> graph)
+    {
+        this.graph = graph;
+        this.fastGraph = graph instanceof FastGraph && !graph.isMultigraph() ? (FastGraph<V>) graph : null;
+    }
+
+    /**
+     * Adds a node to the graph.
+     *
+     * @param node the node.
+     *
+     * @return true if the node has been added, false otherwise.
+     */
+    public boolean addNode(V node)
+    {
+        return this.graph.addNode(node);
+    }
+
+    /**
+     * Adds an edge (with default weight and type) to the graph. The nodes are inserted if they do not exist.
+     *
+     * @param nodeA the first node.
+     * @param nodeB the second node.
+     *
+     * @return this builder.
+     */
+    public GraphBuilder<V> addEdge(V nodeA, V nodeB)
+    {
+        return this.addEdge(nodeA, nodeB, EdgeWeight.getDefaultValue(), EdgeType.getDefaultValue(), true);
+    }
+
+    /**
+     * Adds an edge (with default type) to the graph. The nodes are inserted if they do not exist.
+     *
+     * @param nodeA  the first node.
+     * @param nodeB  the second node.
+     * @param weight the weight of the edge.
+     *
+     * @return this builder.
+     */
+    public GraphBuilder<V> addEdge(V nodeA, V nodeB, double weight)
+    {
+        return this.addEdge(nodeA, nodeB, weight, EdgeType.getDefaultValue(), true);
+    }
+
+    /**
+     * Adds an edge to the graph.
+     *
+     * @param nodeA       the first node.
+     * @param nodeB       the second node.
+     * @param weight      the weight of the edge.
+     * @param type        the type of the edge.
+     * @param insertNodes true if the nodes have to be inserted in the graph if they do not exist. Otherwise, edges
+     *                    with a missing endpoint are discarded.
+     *
+     * @return this builder.
+     */
+    public GraphBuilder<V> addEdge(V nodeA, V nodeB, double weight, int type, boolean insertNodes)
+    {
+        if (this.fastGraph == null)
+        {
+            this.graph.addEdge(nodeA, nodeB, weight, type, insertNodes);
+            return this;
+        }
+
+        if (insertNodes)
+        {
+            this.graph.addNode(nodeA);
+            this.graph.addNode(nodeB);
+        }
+        if (this.graph.containsVertex(nodeA) && this.graph.containsVertex(nodeB))
+        {
+            this.addEdge(this.fastGraph.object2idx(nodeA), this.fastGraph.object2idx(nodeB), weight, type);
+        }
+        return this;
+    }
+
+    /**
+     * Adds an edge to the graph, using the identifiers of the nodes. It can only be used when the graph is a simple
+     * {@link FastGraph}.
+     *
+     * @param nodeA  identifier of the first node.
+     * @param nodeB  identifier of the second node.
+     * @param weight the weight of the edge.
+     * @param type   the type of the edge.
+     *
+     * @return this builder.
+     */
+    public GraphBuilder<V> addEdge(int nodeA, int nodeB, double weight, int type)
+    {
+        if (this.fastGraph == null)
+        {
+            throw new UnsupportedOperationException("Only fast graphs allow adding edges by identifier");
+        }
+
+        this.origs.add(nodeA);
+        this.dests.add(nodeB);
+        this.weights.add(weight);
+        this.types.add(type);
+        return this;
+    }
+
+    /**
+     * Inserts the buffered edges in the graph.
+     *
+     * @return the number of edges which have been added to the graph.
+     */
+    public long flush()
+    {
+        if (this.fastGraph == null || this.origs.isEmpty())
+        {
+            return 0L;
+        }
+
+        long added = this.fastGraph.addEdges(this.origs.size(), this.origs.elements(), this.dests.elements(), this.weights.elements(), this.types.elements());
+        this.origs.clear();
+        this.dests.clear();
+        this.weights.clear();
+        this.types.clear();
+        return added;
+    }
+
+    /**
+     * Inserts the pending edges, and obtains the graph.
+     *
+     * @return the graph.
+     */
+    public Graph<V> build()
+    {
+        this.flush();
+        return this.graph;
+    }
+}
@@ -10,7 +10,9 @@
 package es.uam.eps.ir.relison.graph.edges;
 
 import es.uam.eps.ir.ranksys.fast.preference.IdxPref;
+import es.uam.eps.ir.relison.utils.functions.IntDoubleConsumer;
 
+import java.util.function.IntConsumer;
 import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
@@ -261,6 +263,33 @@ public interface Edges
      */
     boolean addEdge(int orig, int dest, double weight, int type);
 
+    /**
+     * Adds a batch of edges to the set. Edges which already exist, or which appear several times in the batch, are
+     * only added once (with the weight and type of their first appearance).
+     *
+     * @param numEdges Number of edges in the batch.
+     * @param origs    Source nodes.
+     * @param dests    Incoming nodes.
+     * @param weights  Weights of the edges (null if all of them take the default value).
+     * @param types    Types of the edges (null if all of them take the default value).
+     *
+     * @return the number of edges which have been added.
+     */
+    default long addEdges(int numEdges, int[] origs, int[] dests, double[] weights, int[] types)
+    {
+        long added = 0L;
+        for (int i = 0; i < numEdges; ++i)
+        {
+            double weight = weights != null ? weights[i] : EdgeWeight.getDefaultValue();
+            int type = types != null ? types[i] : EdgeType.getDefaultValue();
+            if (this.addEdge(origs[i], dests[i], weight, type))
+            {
+                ++added;
+            }
+        }
+        return added;
+    }
+
     /**
      * Removes an edge.
      *
@@ -380,4 +409,61 @@ public interface Edges
      */
     boolean hasMutualEdges(int idx);
 
+    /**
+     * Applies an action over the neighbours of a node, without boxing their identifiers.
+     *
+     * @param node        The identifier of the node.
+     * @param orientation The orientation of the neighbourhood.
+     * @param action      The action to apply over the identifiers of the neighbours.
+     */
+    default void forEachNeighbor(int node, EdgeOrientation orientation, IntConsumer action)
+    {
+        Stream<Integer> neighbors = switch (orientation)
+        {
+            case IN -> this.getIncidentNodes(node);
+            case OUT -> this.getAdjacentNodes(node);
+            case MUTUAL -> this.getMutualNodes(node);
+            default -> this.getNeighbourNodes(node);
+        };
+        neighbors.forEach(action::accept);
+    }
+
+    /**
+     * Applies an action over the neighbours of a node and the weights of the edges towards them,
+     * without boxing identifiers or weights.
+     *
+     * @param node        The identifier of the node.
+     * @param orientation The orientation of the neighbourhood.
+     * @param action      The action to apply over the identifiers of the neighbours and the weights.
+     */
+    default void forEachWeightedNeighbor(int node, EdgeOrientation orientation, IntDoubleConsumer action)
+    {
+        Stream<IdxPref> neighbors = switch (orientation)
+        {
+            case IN -> this.getIncidentWeights(node);
+            case OUT -> this.getAdjacentWeights(node);
+            case MUTUAL -> this.getMutualWeights(node);
+            default -> this.getNeighbourWeights(node);
+        };
+        neighbors.forEach(neigh -> action.accept(neigh.v1, neigh.v2));
+    }
+
+    /**
+     * Obtains the number of neighbours of a node.
+     *
+     * @param node        The identifier of the node.
+     * @param orientation The orientation of the neighbourhood.
+     *
+     * @return the size of the neighbourhood.
+     */
+    default long getNeighborCount(int node, EdgeOrientation orientation)
+    {
+        return switch (orientation)
+        {
+            case IN -> this.getIncidentCount(node);
+            case OUT -> this.getAdjacentCount(node);
+            case MUTUAL -> this.getMutualCount(node);
+            default -> this.getNeighbourCount(node);
+        };
+    }
 }
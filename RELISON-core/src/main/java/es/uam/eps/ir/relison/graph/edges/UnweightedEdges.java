@@ -10,6 +10,7 @@
 package es.uam.eps.ir.relison.graph.edges;
 
 import es.uam.eps.ir.ranksys.fast.preference.IdxPref;
+import es.uam.eps.ir.relison.utils.functions.IntDoubleConsumer;
 
 import java.util.stream.Stream;
 
@@ -54,4 +55,9 @@ public interface UnweightedEdges extends Edges
         return this.getNeighbourNodes(node).map(val -> new EdgeWeight(val, EdgeWeight.getDefaultValue()));
     }
 
+    @Override
+    default void forEachWeightedNeighbor(int node, EdgeOrientation orientation, IntDoubleConsumer action)
+    {
+        this.forEachNeighbor(node, orientation, neigh -> action.accept(neigh, EdgeWeight.getDefaultValue()));
+    }
 }
@@ -0,0 +1,258 @@
+/*
+ * Copyright (C) 2021 Information Retrieval Group at Universidad Autónoma
+ * de Madrid, http://ir.ii.uam.es and Terrier Team at University of Glasgow,
+ * http://terrierteam.dcs.gla.ac.uk/.
+ *
+ *  This Source Code Form is subject to the terms of the Mozilla Public
+ *  License, v. 2.0. If a copy of the MPL was not distributed with this
+ *  file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package es.uam.eps.ir.relison.graph.edges.fast;
+
+import es.uam.eps.ir.ranksys.fast.preference.IdxPref;
+import es.uam.eps.ir.relison.graph.edges.DirectedEdges;
+import es.uam.eps.ir.relison.graph.edges.EdgeOrientation;
+import es.uam.eps.ir.relison.graph.edges.EdgeWeight;
+import es.uam.eps.ir.relison.utils.functions.IntDoubleConsumer;
+
+import java.nio.DoubleBuffer;
+import java.nio.IntBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.IntConsumer;
+import java.util.stream.Stream;
+
+/**
+ * Immutable implementation of directed edges in compressed sparse row (CSR) format. Both the
+ * adjacent and the incident neighbourhoods of every node are stored.
+ *
+ * @author Javier Sanz-Cruzado (javier.sanz-cruzado@uam.es)
+ * @author Pablo Castells (pablo.castells@uam.es)
+ */
+public class CSRDirectedEdges extends CSREdges implements DirectedEdges
+{
+    /**
+     * Constructor.
+     *
+     * @param numNodes   number of nodes.
+     * @param outOffsets offsets of the adjacent neighbourhoods (length numNodes + 1).
+     * @param outTargets identifiers of the adjacent neighbours, sorted within each neighbourhood.
+     * @param outWeights weights of the adjacent edges (null if unweighted).
+     * @param outTypes   types of the adjacent edges (null if all of them are default).
+     * @param inOffsets  offsets of the incident neighbourhoods (length numNodes + 1).
+     * @param inTargets  identifiers of the incident neighbours, sorted within each neighbourhood.
+     * @param inWeights  weights of the incident edges (null if unweighted).
+     * @param inTypes    types of the incident edges (null if all of them are default).
+     */
+    public CSRDirectedEdges(int numNodes, int[] outOffsets, int[] outTargets, double[] outWeights, int[] outTypes, int[] inOffsets, int[] inTargets, double[] inWeights, int[] inTypes)
+    {
+        this(numNodes, wrap(outOffsets), wrap(outTargets), wrap(outWeights), wrap(outTypes), wrap(inOffsets), wrap(inTargets), wrap(inWeights), wrap(inTypes));
+    }
+
+    /**
+     * Constructor. The buffers might be stored either in the heap or outside it (e.g. memory-mapped from a file).
+     *
+     * @param numNodes   number of nodes.
+     * @param outOffsets offsets of the adjacent neighbourhoods (length numNodes + 1).
+     * @param outTargets identifiers of the adjacent neighbours, sorted within each neighbourhood.
+     * @param outWeights weights of the adjacent edges (null if unweighted).
+     * @param outTypes   types of the adjacent edges (null if all of them are default).
+     * @param inOffsets  offsets of the incident neighbourhoods (length numNodes + 1).
+     * @param inTargets  identifiers of the incident neighbours, sorted within each neighbourhood.
+     * @param inWeights  weights of the incident edges (null if unweighted).
+     * @param inTypes    types of the incident edges (null if all of them are default).
+     */
+    public CSRDirectedEdges(int numNodes, IntBuffer outOffsets, IntBuffer outTargets, DoubleBuffer outWeights, IntBuffer outTypes, IntBuffer inOffsets, IntBuffer inTargets, DoubleBuffer inWeights, IntBuffer inTypes)
+    {
+        super(numNodes, outOffsets, outTargets, outWeights, outTypes, inOffsets, inTargets, inWeights, inTypes, outTargets.limit());
+    }
+
+    /**
+     * Builds the directed edges from the adjacent neighbourhoods of the nodes. The incident neighbourhoods are obtained
+     * by transposing them.
+     *
+     * @param numNodes   number of nodes.
+     * @param outOffsets offsets of the adjacent neighbourhoods (length numNodes + 1).
+     * @param outTargets identifiers of the adjacent neighbours, sorted within each neighbourhood.
+     * @param outWeights weights of the adjacent edges (null if unweighted).
+     * @param outTypes   types of the adjacent edges (null if all of them are default).
+     *
+     * @return the directed edges.
+     */
+    public static CSRDirectedEdges fromAdjacency(int numNodes, int[] outOffsets, int[] outTargets, double[] outWeights, int[] outTypes)
+    {
+        int[] inOffsets = new int[numNodes + 1];
+        for (int target : outTargets)
+        {
+            inOffsets[target + 1]++;
+        }
+        for (int i = 0; i < numNodes; ++i)
+        {
+            inOffsets[i + 1] += inOffsets[i];
+        }
+
+        int[] inTargets = new int[outTargets.length];
+        double[] inWeights = outWeights != null ? new double[outTargets.length] : null;
+        int[] inTypes = outTypes != null ? new int[outTargets.length] : null;
+        int[] current = Arrays.copyOf(inOffsets, numNodes);
+
+        // As the sources are visited in order, the incident neighbourhoods are sorted.
+        for (int u = 0; u < numNodes; ++u)
+        {
+            for (int j = outOffsets[u]; j < outOffsets[u + 1]; ++j)
+            {
+                int pos = current[outTargets[j]]++;
+                inTargets[pos] = u;
+                if (inWeights != null)
+                {
+                    inWeights[pos] = outWeights[j];
+                }
+                if (inTypes != null)
+                {
+                    inTypes[pos] = outTypes[j];
+                }
+            }
+        }
+
+        return new CSRDirectedEdges(numNodes, outOffsets, outTargets, outWeights, outTypes, inOffsets, inTargets, inWeights, inTypes);
+    }
+
+    /**
+     * Builds the directed edges from a list of edges, in any order. If an edge appears several times in the list, only
+     * its first occurrence is kept.
+     *
+     * @param numNodes number of nodes.
+     * @param numEdges number of edges in the list.
+     * @param sources  source endpoints of the edges.
+     * @param targets  incoming endpoints of the edges.
+     * @param weights  weights of the edges (null if unweighted).
+     * @param types    types of the edges (null if all of them are default).
+     *
+     * @return the directed edges.
+     */
+    public static CSRDirectedEdges fromEdgeList(int numNodes, int numEdges, int[] sources, int[] targets, double[] weights, int[] types)
+    {
+        int[] outOffsets = new int[numNodes + 1];
+        int[] outTargets = new int[numEdges];
+        double[] outWeights = weights != null ? new double[numEdges] : null;
+        int[] outTypes = types != null ? new int[numEdges] : null;
+
+        int size = pack(numNodes, numEdges, sources, targets, weights, types, outOffsets, outTargets, outWeights, outTypes);
+        return fromAdjacency(numNodes, outOffsets, Arrays.copyOf(outTargets, size), outWeights != null ? Arrays.copyOf(outWeights, size) : null, outTypes != null ? Arrays.copyOf(outTypes, size) : null);
+    }
+
+    /**
+     * Traverses the union of the incident and adjacent neighbourhoods of a node. When a neighbour appears
+     * in both of them, the weights of both edges are added.
+     *
+     * @param node   the node.
+     * @param action the action to apply over the neighbours and the weights.
+     */
+    private void forEachUnion(int node, IntDoubleConsumer action)
+    {
+        int i = this.inOffsets.get(node);
+        int iEnd = this.inOffsets.get(node + 1);
+        int j = this.outOffsets.get(node);
+        int jEnd = this.outOffsets.get(node + 1);
+
+        while (i < iEnd || j < jEnd)
+        {
+            int a = i < iEnd ? this.inTargets.get(i) : Integer.MAX_VALUE;
+            int b = j < jEnd ? this.outTargets.get(j) : Integer.MAX_VALUE;
+            double value = 0.0;
+            if (a <= b)
+            {
+                value += this.inWeights == null ? EdgeWeight.getDefaultValue() : this.inWeights.get(i);
+                ++i;
+            }
+            if (b <= a)
+            {
+                value += this.outWeights == null ? EdgeWeight.getDefaultValue() : this.outWeights.get(j);
+                ++j;
+            }
+            action.accept(Math.min(a, b), value);
+        }
+    }
+
+    /**
+     * Traverses the intersection of the incident and adjacent neighbourhoods of a node. The weight
+     * of each reciprocal neighbour is the average of the weights of both edges.
+     *
+     * @param node   the node.
+     * @param action the action to apply over the neighbours and the weights.
+     */
+    private void forEachMutual(int node, IntDoubleConsumer action)
+    {
+        int i = this.inOffsets.get(node);
+        int iEnd = this.inOffsets.get(node + 1);
+        int j = this.outOffsets.get(node);
+        int jEnd = this.outOffsets.get(node + 1);
+
+        while (i < iEnd && j < jEnd)
+        {
+            int a = this.inTargets.get(i);
+            int b = this.outTargets.get(j);
+            if (a == b)
+            {
+                double inWeight = this.inWeights == null ? EdgeWeight.getDefaultValue() : this.inWeights.get(i);
+                double outWeight = this.outWeights == null ? EdgeWeight.getDefaultValue() : this.outWeights.get(j);
+                action.accept(a, (inWeight + outWeight) / 2.0);
+                ++i;
+                ++j;
+            }
+            else if (a < b)
+            {
+                ++i;
+            }
+            else
+            {
+                ++j;
+            }
+        }
+    }
+
+    @Override
+    public Stream<Integer> getNeighbourNodes(int node)
+    {
+        List<Integer> neighbors = new ArrayList<>();
+        this.forEachUnion(node, (neigh, value) -> neighbors.add(neigh));
+        return neighbors.stream();
+    }
+
+    @Override
+    public Stream<IdxPref> getNeighbourWeights(int node)
+    {
+        List<IdxPref> neighbors = new ArrayList<>();
+        this.forEachUnion(node, (neigh, value) -> neighbors.add(new EdgeWeight(neigh, value)));
+        return neighbors.stream();
+    }
+
+    @Override
+    public void forEachNeighbor(int node, EdgeOrientation orientation, IntConsumer action)
+    {
+        switch (orientation)
+        {
+            case UND -> this.forEachUnion(node, (neigh, value) -> action.accept(neigh));
+            case MUTUAL -> this.forEachMutual(node, (neigh, value) -> action.accept(neigh));
+            default -> super.forEachNeighbor(node, orientation, action);
+        }
+    }
+
+    @Override
+    public void forEachWeightedNeighbor(int node, EdgeOrientation orientation, IntDoubleConsumer action)
+    {
+        switch (orientation)
+        {
+            case UND -> this.forEachUnion(node, action);
+            case MUTUAL -> this.forEachMutual(node, action);
+            default -> super.forEachWeightedNeighbor(node, orientation, action);
+        }
+    }
+
+    @Override
+    public long getNeighbourCount(int node)
+    {
+        return this.getIncidentCount(node) + this.getAdjacentCount(node) - this.countMutual(node);
+    }
+}
@@ -0,0 +1,656 @@
+/*
+ * Copyright (C) 2021 Information Retrieval Group at Universidad Autónoma
+ * de Madrid, http://ir.ii.uam.es and Terrier Team at University of Glasgow,
+ * http://terrierteam.dcs.gla.ac.uk/.
+ *
+ *  This Source Code Form is subject to the terms of the Mozilla Public
+ *  License, v. 2.0. If a copy of the MPL was not distributed with this
+ *  file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package es.uam.eps.ir.relison.graph.edges.fast;
+
+import es.uam.eps.ir.ranksys.fast.preference.IdxPref;
+import es.uam.eps.ir.relison.graph.edges.EdgeOrientation;
+import es.uam.eps.ir.relison.graph.edges.EdgeType;
+import es.uam.eps.ir.relison.graph.edges.EdgeWeight;
+import es.uam.eps.ir.relison.graph.edges.Edges;
+import es.uam.eps.ir.relison.utils.functions.IntDoubleConsumer;
+import it.unimi.dsi.fastutil.Swapper;
+import it.unimi.dsi.fastutil.ints.IntComparator;
+
+import java.nio.DoubleBuffer;
+import java.nio.IntBuffer;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Immutable implementation of the edges of a graph, stored in compressed sparse row (CSR) format.
+ * For every node, its adjacent (outgoing) and incident (incoming) neighbours are stored in a contiguous
+ * slice of a single array of targets, sorted by identifier. Weights and types are stored in parallel arrays,
+ * which are omitted when the graph is unweighted, or when all edges have the default type.
+ *
+ * The arrays are accessed through NIO buffers, so they can either be stored in the Java heap or be
+ * memory-mapped from a file (see {@link es.uam.eps.ir.relison.io.graph.MappedGraphReader}).
+ *
+ * Edges cannot be added, modified or removed once built.
+ *
+ * @author Javier Sanz-Cruzado (javier.sanz-cruzado@uam.es)
+ * @author Pablo Castells (pablo.castells@uam.es)
+ */
+public abstract class CSREdges implements Edges
+{
+    /**
+     * Number of nodes.
+     */
+    protected final int numNodes;
+    /**
+     * Offsets of the adjacent neighbourhoods: the neighbours of node u are in positions outOffsets[u] to outOffsets[u+1]-1.
+     */
+    protected final IntBuffer outOffsets;
+    /**
+     * Identifiers of the adjacent neighbours.
+     */
+    protected final IntBuffer outTargets;
+    /**
+     * Weights of the adjacent edges (null if the edges are unweighted).
+     */
+    protected final DoubleBuffer outWeights;
+    /**
+     * Types of the adjacent edges (null if all of them have the default type).
+     */
+    protected final IntBuffer outTypes;
+    /**
+     * Offsets of the incident neighbourhoods: the neighbours of node u are in positions inOffsets[u] to inOffsets[u+1]-1.
+     */
+    protected final IntBuffer inOffsets;
+    /**
+     * Identifiers of the incident neighbours.
+     */
+    protected final IntBuffer inTargets;
+    /**
+     * Weights of the incident edges (null if the edges are unweighted).
+     */
+    protected final DoubleBuffer inWeights;
+    /**
+     * Types of the incident edges (null if all of them have the default type).
+     */
+    protected final IntBuffer inTypes;
+    /**
+     * Number of edges.
+     */
+    protected final long numEdges;
+
+    /**
+     * Constructor.
+     *
+     * @param numNodes   number of nodes.
+     * @param outOffsets offsets of the adjacent neighbourhoods (length numNodes + 1).
+     * @param outTargets identifiers of the adjacent neighbours, sorted within each neighbourhood.
+     * @param outWeights weights of the adjacent edges (null if unweighted).
+     * @param outTypes   types of the adjacent edges (null if all of them are default).
+     * @param inOffsets  offsets of the incident neighbourhoods (length numNodes + 1).
+     * @param inTargets  identifiers of the incident neighbours, sorted within each neighbourhood.
+     * @param inWeights  weights of the incident edges (null if unweighted).
+     * @param inTypes    types of the incident edges (null if all of them are default).
+     * @param numEdges   number of edges.
+     */
+    protected CSREdges(int numNodes, IntBuffer outOffsets, IntBuffer outTargets, DoubleBuffer outWeights, IntBuffer outTypes, IntBuffer inOffsets, IntBuffer inTargets, DoubleBuffer inWeights, IntBuffer inTypes, long numEdges)
+    {
+        this.numNodes = numNodes;
+        this.outOffsets = outOffsets;
+        this.outTargets = outTargets;
+        this.outWeights = outWeights;
+        this.outTypes = outTypes;
+        this.inOffsets = inOffsets;
+        this.inTargets = inTargets;
+        this.inWeights = inWeights;
+        this.inTypes = inTypes;
+        this.numEdges = numEdges;
+    }
+
+    /**
+     * Checks whether an identifier corresponds to a node in the structure.
+     *
+     * @param node the identifier of the node.
+     *
+     * @return true if the node exists, false otherwise.
+     */
+    protected boolean isValid(int node)
+    {
+        return node >= 0 && node < this.numNodes;
+    }
+
+    /**
+     * Finds the position of an edge in the adjacent neighbourhood arrays.
+     *
+     * @param orig the source endpoint.
+     * @param dest the incoming endpoint.
+     *
+     * @return the position if the edge exists, a negative value otherwise.
+     */
+    protected int findEdge(int orig, int dest)
+    {
+        if (!this.isValid(orig) || !this.isValid(dest))
+        {
+            return -1;
+        }
+
+        int low = this.outOffsets.get(orig);
+        int high = this.outOffsets.get(orig + 1) - 1;
+        while (low <= high)
+        {
+            int mid = (low + high) >>> 1;
+            int value = this.outTargets.get(mid);
+            if (value < dest)
+            {
+                low = mid + 1;
+            }
+            else if (value > dest)
+            {
+                high = mid - 1;
+            }
+            else
+            {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Wraps an array into a buffer.
+     *
+     * @param array the array (it might be null).
+     *
+     * @return the buffer wrapping the array, null if the array is null.
+     */
+    protected static IntBuffer wrap(int[] array)
+    {
+        return array == null ? null : IntBuffer.wrap(array);
+    }
+
+    /**
+     * Wraps an array into a buffer.
+     *
+     * @param array the array (it might be null).
+     *
+     * @return the buffer wrapping the array, null if the array is null.
+     */
+    protected static DoubleBuffer wrap(double[] array)
+    {
+        return array == null ? null : DoubleBuffer.wrap(array);
+    }
+
+    /**
+     * Packs a list of entries (row, column, weight, type) into CSR format: entries are grouped by row, and sorted by
+     * column within each row. When an entry appears several times, only its first occurrence is kept. The process
+     * takes O(numRows + numEntries log(maxRowLength)) time.
+     *
+     * @param numRows    number of rows.
+     * @param numEntries number of entries in the list.
+     * @param rows       rows of the entries.
+     * @param cols       columns of the entries.
+     * @param weights    weights of the entries (null if they are not stored).
+     * @param types      types of the entries (null if they are not stored).
+     * @param offsets    array (of length numRows + 1) where to store the offsets of the rows.
+     * @param outCols    array (of length numEntries) where to store the columns.
+     * @param outWeights array (of length numEntries) where to store the weights (null if they are not stored).
+     * @param outTypes   array (of length numEntries) where to store the types (null if they are not stored).
+     *
+     * @return the number of packed entries, once duplicates are removed.
+     */
+    protected static int pack(int numRows, int numEntries, int[] rows, int[] cols, double[] weights, int[] types, int[] offsets, int[] outCols, double[] outWeights, int[] outTypes)
+    {
+        // Counting sort over the rows, which keeps the original order of the entries within each row.
+        int[] current = new int[numRows + 1];
+        for (int i = 0; i < numEntries; ++i)
+        {
+            current[rows[i] + 1]++;
+        }
+        for (int u = 0; u < numRows; ++u)
+        {
+            current[u + 1] += current[u];
+        }
+        for (int i = 0; i < numEntries; ++i)
+        {
+            int pos = current[rows[i]]++;
+            outCols[pos] = cols[i];
+            if (outWeights != null)
+            {
+                outWeights[pos] = weights[i];
+            }
+            if (outTypes != null)
+            {
+                outTypes[pos] = types[i];
+            }
+        }
+
+        // Stable sort of each row, and removal of the duplicates.
+        IntComparator comparator = (a, b) -> Integer.compare(outCols[a], outCols[b]);
+        Swapper swapper = (a, b) ->
+        {
+            int col = outCols[a];
+            outCols[a] = outCols[b];
+            outCols[b] = col;
+            if (outWeights != null)
+            {
+                double weight = outWeights[a];
+                outWeights[a] = outWeights[b];
+                outWeights[b] = weight;
+            }
+            if (outTypes != null)
+            {
+                int type = outTypes[a];
+                outTypes[a] = outTypes[b];
+                outTypes[b] = type;
+            }
+        };
+
+        int size = 0;
+        int start = 0;
+        offsets[0] = 0;
+        for (int u = 0; u < numRows; ++u)
+        {
+            int end = current[u];
+            it.unimi.dsi.fastutil.Arrays.mergeSort(start, end, comparator, swapper);
+
+            for (int j = start; j < end; ++j)
+            {
+                if (j == start || outCols[j] != outCols[j - 1])
+                {
+                    outCols[size] = outCols[j];
+                    if (outWeights != null)
+                    {
+                        outWeights[size] = outWeights[j];
+                    }
+                    if (outTypes != null)
+                    {
+                        outTypes[size] = outTypes[j];
+                    }
+                    ++size;
+                }
+            }
+            offsets[u + 1] = size;
+            start = end;
+        }
+        return size;
+    }
+
+    /**
+     * Obtains the identifiers contained in a slice of a CSR structure.
+     *
+     * @param offsets the offsets.
+     * @param targets the targets.
+     * @param node    the node.
+     *
+     * @return a stream containing the identifiers.
+     */
+    protected Stream<Integer> nodes(IntBuffer offsets, IntBuffer targets, int node)
+    {
+        return IntStream.range(offsets.get(node), offsets.get(node + 1)).mapToObj(targets::get);
+    }
+
+    /**
+     * Obtains the edge weights contained in a slice of a CSR structure.
+     *
+     * @param offsets the offsets.
+     * @param targets the targets.
+     * @param weights the weights (null if unweighted).
+     * @param node    the node.
+     *
+     * @return a stream containing the weights.
+     */
+    protected Stream<IdxPref> weights(IntBuffer offsets, IntBuffer targets, DoubleBuffer weights, int node)
+    {
+        return IntStream.range(offsets.get(node), offsets.get(node + 1)).mapToObj(j -> new EdgeWeight(targets.get(j), weights == null ? EdgeWeight.getDefaultValue() : weights.get(j)));
+    }
+
+    /**
+     * Obtains the edge types contained in a slice of a CSR structure.
+     *
+     * @param offsets the offsets.
+     * @param targets the targets.
+     * @param types   the types (null if they are all default).
+     * @param node    the node.
+     *
+     * @return a stream containing the types.
+     */
+    protected Stream<EdgeType> types(IntBuffer offsets, IntBuffer targets, IntBuffer types, int node)
+    {
+        return IntStream.range(offsets.get(node), offsets.get(node + 1)).mapToObj(j -> new EdgeType(targets.get(j), types == null ? EdgeType.getDefaultValue() : types.get(j)));
+    }
+
+    /**
+     * Applies an action over the identifiers contained in a slice of a CSR structure.
+     *
+     * @param offsets the offsets.
+     * @param targets the targets.
+     * @param node    the node.
+     * @param action  the action to apply.
+     */
+    protected static void forEach(IntBuffer offsets, IntBuffer targets, int node, IntConsumer action)
+    {
+        int end = offsets.get(node + 1);
+        for (int j = offsets.get(node); j < end; ++j)
+        {
+            action.accept(targets.get(j));
+        }
+    }
+
+    /**
+     * Applies an action over the identifiers and weights contained in a slice of a CSR structure.
+     *
+     * @param offsets the offsets.
+     * @param targets the targets.
+     * @param weights the weights (null if unweighted).
+     * @param node    the node.
+     * @param action  the action to apply.
+     */
+    protected static void forEach(IntBuffer offsets, IntBuffer targets, DoubleBuffer weights, int node, IntDoubleConsumer action)
+    {
+        int end = offsets.get(node + 1);
+        for (int j = offsets.get(node); j < end; ++j)
+        {
+            action.accept(targets.get(j), weights == null ? EdgeWeight.getDefaultValue() : weights.get(j));
+        }
+    }
+
+    /**
+     * Counts the number of common identifiers in the adjacent and incident neighbourhoods of a node.
+     *
+     * @param node the node.
+     *
+     * @return the number of reciprocal neighbours.
+     */
+    protected int countMutual(int node)
+    {
+        int i = this.inOffsets.get(node);
+        int iEnd = this.inOffsets.get(node + 1);
+        int j = this.outOffsets.get(node);
+        int jEnd = this.outOffsets.get(node + 1);
+
+        int count = 0;
+        while (i < iEnd && j < jEnd)
+        {
+            int a = this.inTargets.get(i);
+            int b = this.outTargets.get(j);
+            if (a == b)
+            {
+                ++count;
+                ++i;
+                ++j;
+            }
+            else if (a < b)
+            {
+                ++i;
+            }
+            else
+            {
+                ++j;
+            }
+        }
+        return count;
+    }
+
+    @Override
+    public boolean containsEdge(int orig, int dest)
+    {
+        return this.findEdge(orig, dest) >= 0;
+    }
+
+    @Override
+    public double getEdgeWeight(int orig, int dest)
+    {
+        int pos = this.findEdge(orig, dest);
+        if (pos < 0)
+        {
+            return EdgeWeight.getErrorValue();
+        }
+        return this.outWeights == null ? EdgeWeight.getDefaultValue() : this.outWeights.get(pos);
+    }
+
+    @Override
+    public int getEdgeType(int orig, int dest)
+    {
+        int pos = this.findEdge(orig, dest);
+        if (pos < 0)
+        {
+            return EdgeType.getErrorType();
+        }
+        return this.outTypes == null ? EdgeType.getDefaultValue() : this.outTypes.get(pos);
+    }
+
+    @Override
+    public Stream<Integer> getIncidentNodes(int node)
+    {
+        return this.nodes(this.inOffsets, this.inTargets, node);
+    }
+
+    @Override
+    public Stream<Integer> getAdjacentNodes(int node)
+    {
+        return this.nodes(this.outOffsets, this.outTargets, node);
+    }
+
+    @Override
+    public Stream<EdgeType> getIncidentTypes(int node)
+    {
+        return this.types(this.inOffsets, this.inTargets, this.inTypes, node);
+    }
+
+    @Override
+    public Stream<EdgeType> getAdjacentTypes(int node)
+    {
+        return this.types(this.outOffsets, this.outTargets, this.outTypes, node);
+    }
+
+    @Override
+    public Stream<IdxPref> getIncidentWeights(int node)
+    {
+        return this.weights(this.inOffsets, this.inTargets, this.inWeights, node);
+    }
+
+    @Override
+    public Stream<IdxPref> getAdjacentWeights(int node)
+    {
+        return this.weights(this.outOffsets, this.outTargets, this.outWeights, node);
+    }
+
+    @Override
+    public long getAdjacentCount(int node)
+    {
+        return this.outOffsets.get(node + 1) - this.outOffsets.get(node);
+    }
+
+    @Override
+    public long getIncidentCount(int node)
+    {
+        return this.inOffsets.get(node + 1) - this.inOffsets.get(node);
+    }
+
+    @Override
+    public long getMutualCount(int node)
+    {
+        return this.countMutual(node);
+    }
+
+    @Override
+    public void forEachNeighbor(int node, EdgeOrientation orientation, IntConsumer action)
+    {
+        switch (orientation)
+        {
+            case IN -> forEach(this.inOffsets, this.inTargets, node, action);
+            case OUT -> forEach(this.outOffsets, this.outTargets, node, action);
+            default -> Edges.super.forEachNeighbor(node, orientation, action);
+        }
+    }
+
+    @Override
+    public void forEachWeightedNeighbor(int node, EdgeOrientation orientation, IntDoubleConsumer action)
+    {
+        switch (orientation)
+        {
+            case IN -> forEach(this.inOffsets, this.inTargets, this.inWeights, node, action);
+            case OUT -> forEach(this.outOffsets, this.outTargets, this.outWeights, node, action);
+            default -> Edges.super.forEachWeightedNeighbor(node, orientation, action);
+        }
+    }
+
+    @Override
+    public boolean addUser(int idx)
+    {
+        throw new UnsupportedOperationException("Frozen graph: no nodes can be added.");
+    }
+
+    @Override
+    public boolean addEdge(int orig, int dest, double weight, int type)
+    {
+        throw new UnsupportedOperationException("Frozen graph: no edges can be added.");
+    }
+
+    @Override
+    public boolean removeEdge(int orig, int dest)
+    {
+        throw new UnsupportedOperationException("Frozen graph: no edges can be removed.");
+    }
+
+    @Override
+    public boolean removeNode(int idx)
+    {
+        throw new UnsupportedOperationException("Frozen graph: no nodes can be removed.");
+    }
+
+    @Override
+    public boolean updateEdgeWeight(int orig, int dest, double weight)
+    {
+        throw new UnsupportedOperationException("Frozen graph: edge weights cannot be updated.");
+    }
+
+    @Override
+    public boolean updateEdgeType(int orig, int dest, int type)
+    {
+        throw new UnsupportedOperationException("Frozen graph: edge types cannot be updated.");
+    }
+
+    @Override
+    public long getNumEdges()
+    {
+        return this.numEdges;
+    }
+
+    @Override
+    public IntStream getIsolatedNodes()
+    {
+        return IntStream.range(0, this.numNodes).filter(u -> !this.hasEdges(u));
+    }
+
+    @Override
+    public IntStream getNodesWithIncidentEdges()
+    {
+        return IntStream.range(0, this.numNodes).filter(this::hasIncidentEdges);
+    }
+
+    @Override
+    public IntStream getNodesWithAdjacentEdges()
+    {
+        return IntStream.range(0, this.numNodes).filter(this::hasAdjacentEdges);
+    }
+
+    @Override
+    public IntStream getNodesWithEdges()
+    {
+        return IntStream.range(0, this.numNodes).filter(this::hasEdges);
+    }
+
+    @Override
+    public IntStream getNodesWithMutualEdges()
+    {
+        return IntStream.range(0, this.numNodes).filter(this::hasMutualEdges);
+    }
+
+    @Override
+    public boolean hasAdjacentEdges(int idx)
+    {
+        return this.isValid(idx) && this.outOffsets.get(idx + 1) > this.outOffsets.get(idx);
+    }
+
+    @Override
+    public boolean hasIncidentEdges(int idx)
+    {
+        return this.isValid(idx) && this.inOffsets.get(idx + 1) > this.inOffsets.get(idx);
+    }
+
+    @Override
+    public boolean hasEdges(int idx)
+    {
+        return this.hasAdjacentEdges(idx) || this.hasIncidentEdges(idx);
+    }
+
+    @Override
+    public boolean hasMutualEdges(int idx)
+    {
+        return this.isValid(idx) && this.countMutual(idx) > 0;
+    }
+
+    /**
+     * Obtains the offsets of the neighbourhoods of the nodes: the neighbours of node u are stored in positions
+     * offsets[u] to offsets[u+1]-1 of the targets buffer.
+     *
+     * @param orientation the orientation of the neighbourhoods (IN for incident, any other for adjacent).
+     *
+     * @return a read-only view of the offsets.
+     */
+    public IntBuffer getOffsets(EdgeOrientation orientation)
+    {
+        return (orientation == EdgeOrientation.IN ? this.inOffsets : this.outOffsets).asReadOnlyBuffer();
+    }
+
+    /**
+     * Obtains the identifiers of the neighbours of all the nodes, sorted within each neighbourhood.
+     *
+     * @param orientation the orientation of the neighbourhoods (IN for incident, any other for adjacent).
+     *
+     * @return a read-only view of the targets.
+     */
+    public IntBuffer getTargets(EdgeOrientation orientation)
+    {
+        return (orientation == EdgeOrientation.IN ? this.inTargets : this.outTargets).asReadOnlyBuffer();
+    }
+
+    /**
+     * Obtains the weights of the edges, in the same order as the targets.
+     *
+     * @param orientation the orientation of the neighbourhoods (IN for incident, any other for adjacent).
+     *
+     * @return a read-only view of the weights, null if the edges are unweighted.
+     */
+    public DoubleBuffer getWeights(EdgeOrientation orientation)
+    {
+        DoubleBuffer weights = orientation == EdgeOrientation.IN ? this.inWeights : this.outWeights;
+        return weights == null ? null : weights.asReadOnlyBuffer();
+    }
+
+    /**
+     * Obtains the types of the edges, in the same order as the targets.
+     *
+     * @param orientation the orientation of the neighbourhoods (IN for incident, any other for adjacent).
+     *
+     * @return a read-only view of the types, null if all the edges have the default type.
+     */
+    public IntBuffer getTypes(EdgeOrientation orientation)
+    {
+        IntBuffer types = orientation == EdgeOrientation.IN ? this.inTypes : this.outTypes;
+        return types == null ? null : types.asReadOnlyBuffer();
+    }
+
+    /**
+     * Obtains the number of nodes in the structure.
+     *
+     * @return the number of nodes.
+     */
+    public int getNumNodes()
+    {
+        return this.numNodes;
+    }
+}
@@ -0,0 +1,181 @@
+/*
+ * Copyright (C) 2021 Information Retrieval Group at Universidad Autónoma
+ * de Madrid, http://ir.ii.uam.es and Terrier Team at University of Glasgow,
+ * http://terrierteam.dcs.gla.ac.uk/.
+ *
+ *  This Source Code Form is subject to the terms of the Mozilla Public
+ *  License, v. 2.0. If a copy of the MPL was not distributed with this
+ *  file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package es.uam.eps.ir.relison.graph.edges.fast;
+
+import es.uam.eps.ir.ranksys.fast.preference.IdxPref;
+import es.uam.eps.ir.relison.graph.edges.EdgeOrientation;
+import es.uam.eps.ir.relison.graph.edges.EdgeType;
+import es.uam.eps.ir.relison.graph.edges.UndirectedEdges;
+import es.uam.eps.ir.relison.utils.functions.IntDoubleConsumer;
+
+import java.nio.DoubleBuffer;
+import java.nio.IntBuffer;
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+import java.util.stream.Stream;
+
+/**
+ * Immutable implementation of undirected edges in compressed sparse row (CSR) format. Every edge
+ * (u,v) with u != v is stored in the neighbourhoods of both u and v, whereas autoloops are stored only once.
+ *
+ * @author Javier Sanz-Cruzado (javier.sanz-cruzado@uam.es)
+ * @author Pablo Castells (pablo.castells@uam.es)
+ */
+public class CSRUndirectedEdges extends CSREdges implements UndirectedEdges
+{
+    /**
+     * Constructor.
+     *
+     * @param numNodes number of nodes.
+     * @param offsets  offsets of the neighbourhoods (length numNodes + 1).
+     * @param targets  identifiers of the neighbours, sorted within each neighbourhood.
+     * @param weights  weights of the edges (null if unweighted).
+     * @param types    types of the edges (null if all of them are default).
+     */
+    public CSRUndirectedEdges(int numNodes, int[] offsets, int[] targets, double[] weights, int[] types)
+    {
+        this(numNodes, wrap(offsets), wrap(targets), wrap(weights), wrap(types));
+    }
+
+    /**
+     * Constructor. The buffers might be stored either in the heap or outside it (e.g. memory-mapped from a file).
+     *
+     * @param numNodes number of nodes.
+     * @param offsets  offsets of the neighbourhoods (length numNodes + 1).
+     * @param targets  identifiers of the neighbours, sorted within each neighbourhood.
+     * @param weights  weights of the edges (null if unweighted).
+     * @param types    types of the edges (null if all of them are default).
+     */
+    public CSRUndirectedEdges(int numNodes, IntBuffer offsets, IntBuffer targets, DoubleBuffer weights, IntBuffer types)
+    {
+        super(numNodes, offsets, targets, weights, types, offsets, targets, weights, types, countEdges(numNodes, offsets, targets));
+    }
+
+    /**
+     * Builds the undirected edges from a list of edges, in any order. If an edge appears several times in the list
+     * (in any of its two directions), only its first occurrence is kept.
+     *
+     * @param numNodes number of nodes.
+     * @param numEdges number of edges in the list.
+     * @param sources  first endpoints of the edges.
+     * @param targets  second endpoints of the edges.
+     * @param weights  weights of the edges (null if unweighted).
+     * @param types    types of the edges (null if all of them are default).
+     *
+     * @return the undirected edges.
+     */
+    public static CSRUndirectedEdges fromEdgeList(int numNodes, int numEdges, int[] sources, int[] targets, double[] weights, int[] types)
+    {
+        // Every edge is stored in both directions (autoloops, only once).
+        int numEntries = 0;
+        int[] rows = new int[2 * numEdges];
+        int[] cols = new int[2 * numEdges];
+        double[] entryWeights = weights != null ? new double[2 * numEdges] : null;
+        int[] entryTypes = types != null ? new int[2 * numEdges] : null;
+        for (int i = 0; i < numEdges; ++i)
+        {
+            for (int k = 0; k < (sources[i] == targets[i] ? 1 : 2); ++k)
+            {
+                rows[numEntries] = k == 0 ? sources[i] : targets[i];
+                cols[numEntries] = k == 0 ? targets[i] : sources[i];
+                if (weights != null)
+                {
+                    entryWeights[numEntries] = weights[i];
+                }
+                if (types != null)
+                {
+                    entryTypes[numEntries] = types[i];
+                }
+                ++numEntries;
+            }
+        }
+
+        int[] offsets = new int[numNodes + 1];
+        int[] outTargets = new int[numEntries];
+        double[] outWeights = weights != null ? new double[numEntries] : null;
+        int[] outTypes = types != null ? new int[numEntries] : null;
+
+        int size = pack(numNodes, numEntries, rows, cols, entryWeights, entryTypes, offsets, outTargets, outWeights, outTypes);
+        return new CSRUndirectedEdges(numNodes, offsets, Arrays.copyOf(outTargets, size), outWeights != null ? Arrays.copyOf(outWeights, size) : null, outTypes != null ? Arrays.copyOf(outTypes, size) : null);
+    }
+
+    /**
+     * Counts the number of undirected edges in the structure.
+     *
+     * @param numNodes number of nodes.
+     * @param offsets  offsets of the neighbourhoods.
+     * @param targets  identifiers of the neighbours.
+     *
+     * @return the number of edges.
+     */
+    private static long countEdges(int numNodes, IntBuffer offsets, IntBuffer targets)
+    {
+        long autoloops = 0L;
+        for (int u = 0; u < numNodes; ++u)
+        {
+            for (int j = offsets.get(u); j < offsets.get(u + 1); ++j)
+            {
+                if (targets.get(j) == u)
+                {
+                    ++autoloops;
+                }
+            }
+        }
+        return (targets.limit() + autoloops) / 2;
+    }
+
+    @Override
+    public Stream<Integer> getNeighbourNodes(int node)
+    {
+        return this.getAdjacentNodes(node);
+    }
+
+    @Override
+    public Stream<EdgeType> getNeighbourTypes(int node)
+    {
+        return this.getAdjacentTypes(node);
+    }
+
+    @Override
+    public Stream<IdxPref> getNeighbourWeights(int node)
+    {
+        return this.getAdjacentWeights(node);
+    }
+
+    @Override
+    public long getNeighbourCount(int node)
+    {
+        return this.getAdjacentCount(node);
+    }
+
+    @Override
+    public long getMutualCount(int node)
+    {
+        return this.getAdjacentCount(node);
+    }
+
+    @Override
+    public boolean hasMutualEdges(int idx)
+    {
+        return this.hasAdjacentEdges(idx);
+    }
+
+    @Override
+    public void forEachNeighbor(int node, EdgeOrientation orientation, IntConsumer action)
+    {
+        forEach(this.outOffsets, this.outTargets, node, action);
+    }
+
+    @Override
+    public void forEachWeightedNeighbor(int node, EdgeOrientation orientation, IntDoubleConsumer action)
+    {
+        forEach(this.outOffsets, this.outTargets, this.outWeights, node, action);
+    }
+}
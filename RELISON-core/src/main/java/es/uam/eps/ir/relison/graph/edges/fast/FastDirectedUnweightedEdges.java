@@ -129,6 +129,14 @@ public class FastDirectedUnweightedEdges extends FastEdges implements DirectedEd
         return false;
     }
 
+    @Override
+    public long addEdges(int numEdges, int[] origs, int[] dests, double[] weights, int[] types)
+    {
+        long added = this.addPairs(numEdges, origs, dests, weights, types);
+        this.numEdges += added;
+        return added;
+    }
+
     @Override
     public boolean updateEdgeWeight(int orig, int dest, double weight)
     {
@@ -11,12 +11,14 @@ package es.uam.eps.ir.relison.graph.edges.fast;
 
 import es.uam.eps.ir.ranksys.fast.preference.IdxPref;
 import es.uam.eps.ir.relison.graph.edges.DirectedEdges;
+import es.uam.eps.ir.relison.graph.edges.EdgeOrientation;
 import es.uam.eps.ir.relison.graph.edges.EdgeType;
 import es.uam.eps.ir.relison.graph.edges.EdgeWeight;
 import es.uam.eps.ir.relison.graph.edges.WeightedEdges;
 import es.uam.eps.ir.relison.index.IdxValue;
 import es.uam.eps.ir.relison.index.fast.FastWeightedAutoRelation;
 import es.uam.eps.ir.relison.utils.datatypes.Tuple2oo;
+import es.uam.eps.ir.relison.utils.functions.IntDoubleConsumer;
 import es.uam.eps.ir.relison.utils.listcombiner.OrderedListCombiner;
 
 import java.util.*;
@@ -89,6 +91,14 @@ public class FastDirectedWeightedEdges extends FastEdges implements DirectedEdge
         return false;
     }
 
+    @Override
+    public long addEdges(int numEdges, int[] origs, int[] dests, double[] weights, int[] types)
+    {
+        long added = this.addPairs(numEdges, origs, dests, weights, types);
+        this.numEdges += added;
+        return added;
+    }
+
     @Override
     public boolean updateEdgeWeight(int orig, int dest, double weight)
     {
@@ -231,4 +241,15 @@ public class FastDirectedWeightedEdges extends FastEdges implements DirectedEdge
 
         return users.stream().mapToInt(x -> x);
     }
+
+    @Override
+    public void forEachWeightedNeighbor(int node, EdgeOrientation orientation, IntDoubleConsumer action)
+    {
+        switch (orientation)
+        {
+            case IN -> this.weights.forEachFirst(node, weight -> action.accept(weight.getIdx(), weight.getValue()));
+            case OUT -> this.weights.forEachSecond(node, weight -> action.accept(weight.getIdx(), weight.getValue()));
+            default -> DirectedEdges.super.forEachWeightedNeighbor(node, orientation, action);
+        }
+    }
 }
@@ -9,6 +9,7 @@
  */
 package es.uam.eps.ir.relison.graph.edges.fast;
 
+import es.uam.eps.ir.relison.graph.edges.EdgeOrientation;
 import es.uam.eps.ir.relison.graph.edges.EdgeType;
 import es.uam.eps.ir.relison.graph.edges.EdgeWeight;
 import es.uam.eps.ir.relison.graph.edges.Edges;
@@ -16,6 +17,7 @@ import es.uam.eps.ir.relison.index.AutoRelation;
 import es.uam.eps.ir.relison.utils.listcombiner.OrderedListCombiner;
 
 import java.util.Comparator;
+import java.util.function.IntConsumer;
 import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
@@ -157,4 +159,101 @@ public abstract class FastEdges implements Edges
 
         return OrderedListCombiner.intersectionHaslements(incident, adjacent, Comparator.naturalOrder());
     }
+
+    @Override
+    public void forEachNeighbor(int node, EdgeOrientation orientation, IntConsumer action)
+    {
+        switch (orientation)
+        {
+            case IN -> this.weights.forEachIdFirst(node, action);
+            case OUT -> this.weights.forEachIdSecond(node, action);
+            default -> Edges.super.forEachNeighbor(node, orientation, action);
+        }
+    }
+
+    /**
+     * Adds a batch of directed edges to the relations. Edges which already exist, or which appear several times in
+     * the batch, are only added once.
+     *
+     * @param numEdges Number of edges in the batch.
+     * @param origs    Source nodes.
+     * @param dests    Incoming nodes.
+     * @param weights  Weights of the edges (null if all of them take the default value).
+     * @param types    Types of the edges (null if all of them take the default value).
+     *
+     * @return the number of edges which have been added.
+     */
+    protected int addPairs(int numEdges, int[] origs, int[] dests, double[] weights, int[] types)
+    {
+        int added = this.weights.addRelations(numEdges, origs, dests, i -> weights != null ? weights[i] : EdgeWeight.getDefaultValue());
+        this.types.addRelations(numEdges, origs, dests, i -> types != null ? types[i] : EdgeType.getDefaultValue());
+        return added;
+    }
+
+    /**
+     * Adds a batch of undirected edges to the relations. Every edge (u,v) with u != v is stored in both directions,
+     * and autoloops are only stored once.
+     *
+     * @param numEdges Number of edges in the batch.
+     * @param origs    First endpoints of the edges.
+     * @param dests    Second endpoints of the edges.
+     * @param weights  Weights of the edges (null if all of them take the default value).
+     * @param types    Types of the edges (null if all of them take the default value).
+     *
+     * @return the number of edges which have been added.
+     */
+    protected long addUndirectedPairs(int numEdges, int[] origs, int[] dests, double[] weights, int[] types)
+    {
+        int numPairs = 0;
+        int numLoops = 0;
+        int[] firsts = new int[2 * numEdges];
+        int[] seconds = new int[2 * numEdges];
+        double[] pairWeights = weights != null ? new double[2 * numEdges] : null;
+        int[] pairTypes = types != null ? new int[2 * numEdges] : null;
+        int[] loops = new int[numEdges];
+        for (int i = 0; i < numEdges; ++i)
+        {
+            if (origs[i] == dests[i])
+            {
+                loops[numLoops++] = i;
+                continue;
+            }
+            for (int k = 0; k < 2; ++k)
+            {
+                firsts[numPairs] = k == 0 ? origs[i] : dests[i];
+                seconds[numPairs] = k == 0 ? dests[i] : origs[i];
+                if (weights != null)
+                {
+                    pairWeights[numPairs] = weights[i];
+                }
+                if (types != null)
+                {
+                    pairTypes[numPairs] = types[i];
+                }
+                ++numPairs;
+            }
+        }
+
+        // Both directions of an edge are either added or discarded together.
+        long added = this.addPairs(numPairs, firsts, seconds, pairWeights, pairTypes) / 2;
+
+        // Autoloops.
+        int[] loopNodes = new int[numLoops];
+        double[] loopWeights = weights != null ? new double[numLoops] : null;
+        int[] loopTypes = types != null ? new int[numLoops] : null;
+        for (int j = 0; j < numLoops; ++j)
+        {
+            loopNodes[j] = origs[loops[j]];
+            if (weights != null)
+            {
+                loopWeights[j] = weights[loops[j]];
+            }
+            if (types != null)
+            {
+                loopTypes[j] = types[loops[j]];
+            }
+        }
+        added += this.addPairs(numLoops, loopNodes, loopNodes, loopWeights, loopTypes);
+        return added;
+    }
 }
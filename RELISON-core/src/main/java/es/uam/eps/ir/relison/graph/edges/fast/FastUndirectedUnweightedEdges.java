@@ -10,6 +10,7 @@
 package es.uam.eps.ir.relison.graph.edges.fast;
 
 import es.uam.eps.ir.ranksys.fast.preference.IdxPref;
+import es.uam.eps.ir.relison.graph.edges.EdgeOrientation;
 import es.uam.eps.ir.relison.graph.edges.EdgeType;
 import es.uam.eps.ir.relison.graph.edges.EdgeWeight;
 import es.uam.eps.ir.relison.graph.edges.UndirectedEdges;
@@ -18,6 +19,7 @@ import es.uam.eps.ir.relison.index.IdxValue;
 import es.uam.eps.ir.relison.index.fast.FastUnweightedAutoRelation;
 import es.uam.eps.ir.relison.index.fast.FastWeightedAutoRelation;
 
+import java.util.function.IntConsumer;
 import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
@@ -94,6 +96,14 @@ public class FastUndirectedUnweightedEdges extends FastEdges implements Undirect
         return false;
     }
 
+    @Override
+    public long addEdges(int numEdges, int[] origs, int[] dests, double[] weights, int[] types)
+    {
+        long added = this.addUndirectedPairs(numEdges, origs, dests, weights, types);
+        this.numEdges += added;
+        return added;
+    }
+
     @Override
     public boolean updateEdgeWeight(int orig, int dest, double weight)
     {
@@ -168,4 +178,22 @@ public class FastUndirectedUnweightedEdges extends FastEdges implements Undirect
     {
         return this.weights.firstsWithSeconds();
     }
+
+    @Override
+    public long getNeighbourCount(int node)
+    {
+        return this.types.numFirst(node);
+    }
+
+    @Override
+    public long getMutualCount(int node)
+    {
+        return this.types.numFirst(node);
+    }
+
+    @Override
+    public void forEachNeighbor(int node, EdgeOrientation orientation, IntConsumer action)
+    {
+        this.weights.forEachIdFirst(node, action);
+    }
 }
@@ -10,13 +10,16 @@
 package es.uam.eps.ir.relison.graph.edges.fast;
 
 import es.uam.eps.ir.ranksys.fast.preference.IdxPref;
+import es.uam.eps.ir.relison.graph.edges.EdgeOrientation;
 import es.uam.eps.ir.relison.graph.edges.EdgeType;
 import es.uam.eps.ir.relison.graph.edges.EdgeWeight;
 import es.uam.eps.ir.relison.graph.edges.UndirectedEdges;
 import es.uam.eps.ir.relison.graph.edges.WeightedEdges;
 import es.uam.eps.ir.relison.index.IdxValue;
 import es.uam.eps.ir.relison.index.fast.FastWeightedAutoRelation;
+import es.uam.eps.ir.relison.utils.functions.IntDoubleConsumer;
 
+import java.util.function.IntConsumer;
 import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
@@ -94,6 +97,14 @@ public class FastUndirectedWeightedEdges extends FastEdges implements Undirected
         return false;
     }
 
+    @Override
+    public long addEdges(int numEdges, int[] origs, int[] dests, double[] weights, int[] types)
+    {
+        long added = this.addUndirectedPairs(numEdges, origs, dests, weights, types);
+        this.numEdges += added;
+        return added;
+    }
+
     @Override
     public boolean updateEdgeWeight(int orig, int dest, double weight)
     {
@@ -175,4 +186,28 @@ public class FastUndirectedWeightedEdges extends FastEdges implements Undirected
     {
         return this.weights.firstsWithSeconds();
     }
+
+    @Override
+    public long getNeighbourCount(int node)
+    {
+        return this.types.numFirst(node);
+    }
+
+    @Override
+    public long getMutualCount(int node)
+    {
+        return this.types.numFirst(node);
+    }
+
+    @Override
+    public void forEachNeighbor(int node, EdgeOrientation orientation, IntConsumer action)
+    {
+        this.weights.forEachIdFirst(node, action);
+    }
+
+    @Override
+    public void forEachWeightedNeighbor(int node, EdgeOrientation orientation, IntDoubleConsumer action)
+    {
+        this.weights.forEachFirst(node, weight -> action.accept(weight.getIdx(), weight.getValue()));
+    }
 }
@@ -0,0 +1,70 @@
+/*
+ * Copyright (C) 2021 Information Retrieval Group at Universidad Autónoma
+ * de Madrid, http://ir.ii.uam.es and Terrier Team at University of Glasgow,
+ * http://terrierteam.dcs.gla.ac.uk/.
+ *
+ *  This Source Code Form is subject to the terms of the Mozilla Public
+ *  License, v. 2.0. If a copy of the MPL was not distributed with this
+ *  file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package es.uam.eps.ir.relison.graph.fast;
+
+import es.uam.eps.ir.relison.graph.edges.EdgeOrientation;
+import es.uam.eps.ir.relison.graph.edges.fast.CSREdges;
+import es.uam.eps.ir.relison.index.Index;
+
+/**
+ * Immutable (frozen) fast graph, whose edges are stored in compressed sparse row (CSR) format. It is
+ * obtained from any other graph through {@link es.uam.eps.ir.relison.graph.Adapters#freeze(es.uam.eps.ir.relison.graph.Graph)}.
+ * Neither nodes nor edges can be added, modified or removed.
+ *
+ * @param <V> Type of the vertices.
+ *
+ * @author Javier Sanz-Cruzado (javier.sanz-cruzado@uam.es)
+ * @author Pablo Castells (pablo.castells@uam.es)
+ */
+public abstract class AbstractCSRGraph<V> extends AbstractFastGraph<V>
+{
+    /**
+     * Constructor.
+     *
+     * @param vertices an index for the vertices of the graph.
+     * @param edges    the edges of the graph, in CSR format.
+     */
+    public AbstractCSRGraph(Index<V> vertices, CSREdges edges)
+    {
+        super(vertices, edges);
+    }
+
+    @Override
+    public boolean addNode(V node)
+    {
+        throw new UnsupportedOperationException("Frozen graph: no nodes can be added.");
+    }
+
+    @Override
+    public boolean addEdge(V nodeA, V nodeB, double weight, int type, boolean insertNodes)
+    {
+        throw new UnsupportedOperationException("Frozen graph: no edges can be added.");
+    }
+
+    /**
+     * Obtains the edges of the graph, stored in CSR format.
+     *
+     * @return the edges of the graph.
+     */
+    public CSREdges getCSREdges()
+    {
+        return (CSREdges) this.edges;
+    }
+
+    @Override
+    public double[][] getAdjacencyMatrix(EdgeOrientation direction)
+    {
+        int numUsers = Long.valueOf(this.getVertexCount()).intValue();
+        double[][] matrix = new double[numUsers][numUsers];
+
+        this.getAllNodesIds().forEach(uidx -> this.getNeighborhoodWeights(uidx, direction).forEach(vidx -> matrix[uidx][vidx.v1] = vidx.v2));
+        return matrix;
+    }
+}
@@ -20,8 +20,10 @@ import es.uam.eps.ir.relison.graph.generator.GraphGenerator;
 import es.uam.eps.ir.relison.graph.generator.exception.GeneratorBadConfiguredException;
 import es.uam.eps.ir.relison.graph.generator.exception.GeneratorNotConfiguredException;
 import es.uam.eps.ir.relison.index.Index;
+import es.uam.eps.ir.relison.utils.functions.IntDoubleConsumer;
 
 import java.io.Serializable;
+import java.util.function.IntConsumer;
 import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
@@ -433,6 +435,24 @@ public abstract class AbstractFastGraph<V> implements FastGraph<V>, Serializable
         };
     }
 
+    @Override
+    public void forEachNeighbor(int uidx, EdgeOrientation orientation, IntConsumer action)
+    {
+        this.edges.forEachNeighbor(uidx, orientation, action);
+    }
+
+    @Override
+    public void forEachWeightedNeighbor(int uidx, EdgeOrientation orientation, IntDoubleConsumer action)
+    {
+        this.edges.forEachWeightedNeighbor(uidx, orientation, action);
+    }
+
+    @Override
+    public int getNeighborhoodSize(int uidx, EdgeOrientation orientation)
+    {
+        return (int) this.edges.getNeighborCount(uidx, orientation);
+    }
+
     @Override
     public Stream<EdgeType> getNeighborhoodTypes(int uidx, EdgeOrientation orientation)
     {
@@ -463,6 +483,12 @@ public abstract class AbstractFastGraph<V> implements FastGraph<V>, Serializable
         return this.edges.addEdge(nodeA, nodeB, weight, type);
     }
 
+    @Override
+    public long addEdges(int numEdges, int[] nodesA, int[] nodesB, double[] weights, int[] types)
+    {
+        return this.edges.addEdges(numEdges, nodesA, nodesB, weights, types);
+    }
+
     @Override
     public boolean updateEdgeWeight(int nodeA, int nodeB, double weight)
     {
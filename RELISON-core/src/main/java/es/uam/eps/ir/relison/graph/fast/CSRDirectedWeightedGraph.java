@@ -0,0 +1,36 @@
+/*
+ * Copyright (C) 2021 Information Retrieval Group at Universidad Autónoma
+ * de Madrid, http://ir.ii.uam.es and Terrier Team at University of Glasgow,
+ * http://terrierteam.dcs.gla.ac.uk/.
+ *
+ *  This Source Code Form is subject to the terms of the Mozilla Public
+ *  License, v. 2.0. If a copy of the MPL was not distributed with this
+ *  file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package es.uam.eps.ir.relison.graph.fast;
+
+import es.uam.eps.ir.relison.graph.DirectedWeightedGraph;
+import es.uam.eps.ir.relison.graph.edges.fast.CSRDirectedEdges;
+import es.uam.eps.ir.relison.index.Index;
+
+/**
+ * Immutable CSR implementation of a directed weighted graph.
+ *
+ * @param <V> Type of the vertices.
+ *
+ * @author Javier Sanz-Cruzado (javier.sanz-cruzado@uam.es)
+ * @author Pablo Castells (pablo.castells@uam.es)
+ */
+public class CSRDirectedWeightedGraph<V> extends AbstractCSRGraph<V> implements DirectedWeightedGraph<V>
+{
+    /**
+     * Constructor.
+     *
+     * @param vertices an index for the vertices of the graph.
+     * @param edges    the edges of the graph.
+     */
+    public CSRDirectedWeightedGraph(Index<V> vertices, CSRDirectedEdges edges)
+    {
+        super(vertices, edges);
+    }
+}
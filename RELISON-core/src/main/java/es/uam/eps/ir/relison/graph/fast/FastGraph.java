@@ -13,9 +13,12 @@ import es.uam.eps.ir.ranksys.fast.preference.IdxPref;
 import es.uam.eps.ir.relison.graph.Graph;
 import es.uam.eps.ir.relison.graph.edges.EdgeOrientation;
 import es.uam.eps.ir.relison.graph.edges.EdgeType;
+import es.uam.eps.ir.relison.graph.edges.EdgeWeight;
 import es.uam.eps.ir.relison.index.Index;
 import es.uam.eps.ir.relison.index.ReducedIndex;
+import es.uam.eps.ir.relison.utils.functions.IntDoubleConsumer;
 
+import java.util.function.IntConsumer;
 import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
@@ -64,6 +67,35 @@ public interface FastGraph<U> extends Graph<U>, ReducedIndex<U>
      * @return true if everything went ok, false otherwise.
      */
     boolean addEdge(int nodeA, int nodeB, double weight, int type);
+
+    /**
+     * Uncontrolled bulk edge addition method, using ids. Edges are added as if {@link #addEdge(int, int, double, int)}
+     * was called for each of them, in order: in simple graphs, edges which already exist, or which appear several
+     * times in the batch, are only added once (with the weight and type of their first appearance). Implementations
+     * might add the edges much faster than one by one (e.g. by sorting the neighborhoods only once per batch).
+     *
+     * @param numEdges Number of edges in the batch.
+     * @param nodesA   Identifiers of the first nodes.
+     * @param nodesB   Identifiers of the second nodes.
+     * @param weights  Weights of the links (null if all of them take the default value).
+     * @param types    Types of the links (null if all of them take the default value).
+     *
+     * @return the number of edges which have been added.
+     */
+    default long addEdges(int numEdges, int[] nodesA, int[] nodesB, double[] weights, int[] types)
+    {
+        long added = 0L;
+        for (int i = 0; i < numEdges; ++i)
+        {
+            double weight = weights != null ? weights[i] : EdgeWeight.getDefaultValue();
+            int type = types != null ? types[i] : EdgeType.getDefaultValue();
+            if (this.addEdge(nodesA[i], nodesB[i], weight, type))
+            {
+                ++added;
+            }
+        }
+        return added;
+    }
     /**
      * Uncontrolled edge update method, using ids.
      *
@@ -103,6 +135,42 @@ public interface FastGraph<U> extends Graph<U>, ReducedIndex<U>
      * @return an stream containing the edge types of the neighbors of the node.
      */
     Stream<EdgeType> getNeighborhoodTypes(int uidx, EdgeOrientation orientation);
+
+    /**
+     * Applies an action over the neighborhood of a node, given its identifier. Unlike
+     * {@link #getNeighborhood(int, EdgeOrientation)}, it does not box the identifiers of the neighbors.
+     * @param uidx the identifier of the node.
+     * @param orientation the orientation of the neighborhood to traverse.
+     * @param action the action to apply over the identifiers of the neighbors.
+     */
+    default void forEachNeighbor(int uidx, EdgeOrientation orientation, IntConsumer action)
+    {
+        this.getNeighborhood(uidx, orientation).forEach(action::accept);
+    }
+
+    /**
+     * Applies an action over the neighborhood of a node and the weights of the edges to each other, given its
+     * identifier. Unlike {@link #getNeighborhoodWeights(int, EdgeOrientation)}, it does not create any object
+     * for the neighbors.
+     * @param uidx the identifier of the node.
+     * @param orientation the orientation of the neighborhood to traverse.
+     * @param action the action to apply over the identifiers of the neighbors and the weights of the edges.
+     */
+    default void forEachWeightedNeighbor(int uidx, EdgeOrientation orientation, IntDoubleConsumer action)
+    {
+        this.getNeighborhoodWeights(uidx, orientation).forEach(neigh -> action.accept(neigh.v1, neigh.v2));
+    }
+
+    /**
+     * Obtains the number of neighbors of a node, given its identifier.
+     * @param uidx the identifier of the node.
+     * @param orientation the orientation of the neighborhood.
+     * @return the size of the neighborhood.
+     */
+    default int getNeighborhoodSize(int uidx, EdgeOrientation orientation)
+    {
+        return (int) this.getNeighborhood(uidx, orientation).count();
+    }
     /**
      * Obtains the index for the vertices.
      *
@@ -0,0 +1,65 @@
+/*
+ *  Copyright (C) 2021 Information Retrieval Group at Universidad Autónoma
+ *  de Madrid, http://ir.ii.uam.es
+ *
+ *  This Source Code Form is subject to the terms of the Mozilla Public
+ *  License, v. 2.0. If a copy of the MPL was not distributed with this
+ *  file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package es.uam.eps.ir.relison.graph.fast;
+
+import es.uam.eps.ir.relison.graph.Graph;
+import es.uam.eps.ir.relison.graph.edges.EdgeOrientation;
+import es.uam.eps.ir.relison.index.Index;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+
+import java.util.Arrays;
+
+/**
+ * Takes snapshots of the neighborhoods of the nodes of a graph as sorted arrays of integer identifiers, without
+ * repetitions (the parallel edges of multigraphs are merged). Sorted neighborhoods allow intersecting and merging
+ * them in linear time. For fast graphs, the neighbors are traversed without creating any object.
+ *
+ * @author Javier Sanz-Cruzado (javier.sanz-cruzado@uam.es)
+ * @author Pablo Castells (pablo.castells@uam.es)
+ */
+public class SortedNeighborhoods
+{
+    /**
+     * Obtains the sorted neighborhood of a node.
+     *
+     * @param graph  the graph.
+     * @param index  the index of the nodes. It is ignored (and it might be null) for fast graphs, which use their own
+     *               identifiers.
+     * @param uidx   the identifier of the node.
+     * @param orient the orientation of the neighborhood.
+     * @param loops  whether the node itself is kept in the neighborhood when it has a self-loop.
+     * @param <U>    type of the users.
+     *
+     * @return the identifiers of the neighbors, sorted in increasing order and without repetitions.
+     */
+    public static <U> int[] of(Graph<U> graph, Index<U> index, int uidx, EdgeOrientation orient, boolean loops)
+    {
+        IntArrayList list = new IntArrayList();
+        if (graph instanceof FastGraph)
+        {
+            ((FastGraph<U>) graph).forEachNeighbor(uidx, orient, list::add);
+        }
+        else
+        {
+            graph.getNeighbourhood(index.idx2object(uidx), orient).forEach(v -> list.add(index.object2idx(v)));
+        }
+
+        int[] elements = list.toIntArray();
+        Arrays.sort(elements);
+        int size = 0;
+        for (int element : elements)
+        {
+            if ((loops || element != uidx) && (size == 0 || element != elements[size - 1]))
+            {
+                elements[size++] = element;
+            }
+        }
+        return Arrays.copyOf(elements, size);
+    }
+}
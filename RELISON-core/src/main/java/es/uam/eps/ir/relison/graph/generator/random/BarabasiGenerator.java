@@ -9,6 +9,7 @@
 package es.uam.eps.ir.relison.graph.generator.random;
 
 import es.uam.eps.ir.relison.graph.Graph;
+import es.uam.eps.ir.relison.graph.GraphBuilder;
 import es.uam.eps.ir.relison.graph.generator.EmptyGraphGenerator;
 import es.uam.eps.ir.relison.graph.generator.GraphGenerator;
 import es.uam.eps.ir.relison.graph.generator.exception.GeneratorBadConfiguredException;
@@ -125,44 +126,36 @@ public class BarabasiGenerator<U> implements GraphGenerator<U>
 
         Random rand = new Random();
         Map<U, Integer> inDegrees = new HashMap<>();
+        List<U> initial = new ArrayList<>();
         //Generate the initial nodes for the random graph.
         for (int i = 0; i < initialNodes; ++i)
         {
             U node = generator.generate();
             graph.addNode(node);
+            initial.add(node);
             inDegrees.put(node, degreeIncrease * (initialNodes - 1));
         }
 
+        // Edges are inserted all at once at the end, so we keep track of the number of edges.
+        GraphBuilder<U> builder = new GraphBuilder<>(graph);
+        long numEdges = 0L;
+
         // Create the connected component of the graph
-        if (directed)
-        {
-            graph.getAllNodes().forEach((orig) -> graph.getAllNodes().forEach((dest) ->
-                                                                              {
-                                                                                  if (!orig.equals(dest))
-                                                                                  {
-                                                                                      graph.addEdge(orig, dest);
-                                                                                  }
-                                                                              }));
-        }
-        else
+        for (int i = 0; i < initialNodes; ++i)
         {
-            List<U> visited = new ArrayList<>();
-            graph.getAllNodes().forEach((orig) -> {
-                graph.getAllNodes().forEach((dest) -> {
-                    if (!orig.equals(dest) && !visited.contains(dest))
-                    {
-                        graph.addEdge(orig, dest);
-                    }
-                });
-                visited.add(orig);
-            });
+            for (int j = directed ? 0 : i + 1; j < initialNodes; ++j)
+            {
+                if (i != j)
+                {
+                    builder.addEdge(initial.get(i), initial.get(j));
+                    ++numEdges;
+                }
+            }
         }
 
-
         for (int i = 0; i < numIter; i++)
         {
             Set<U> newLinks = new HashSet<>();
-            long numEdges = graph.getEdgeCount();
             // Select the new edges
             while (newLinks.size() < numEdgesIter)
             {
@@ -184,15 +177,15 @@ public class BarabasiGenerator<U> implements GraphGenerator<U>
             graph.addNode(newNode);
             inDegrees.put(newNode, numEdgesIter);
 
-            newLinks.forEach((node) ->
-                             {
-                                 graph.addEdge(newNode, node);
-                                 inDegrees.put(node, inDegrees.get(node) + 1);
-
-                             });
+            for (U node : newLinks)
+            {
+                builder.addEdge(newNode, node);
+                inDegrees.put(node, inDegrees.get(node) + 1);
+            }
+            numEdges += newLinks.size();
         }
 
-        return graph;
+        return builder.build();
     }
 
 
@@ -9,10 +9,13 @@
 package es.uam.eps.ir.relison.graph.generator.random;
 
 import es.uam.eps.ir.relison.graph.Graph;
+import es.uam.eps.ir.relison.graph.GraphBuilder;
 import es.uam.eps.ir.relison.graph.generator.EmptyGraphGenerator;
 import es.uam.eps.ir.relison.graph.generator.GraphGenerator;
 import es.uam.eps.ir.relison.graph.generator.exception.GeneratorNotConfiguredException;
 import es.uam.eps.ir.relison.utils.generator.Generator;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import it.unimi.dsi.fastutil.longs.LongSet;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -112,21 +115,26 @@ public class ErdosGenerator<U> implements GraphGenerator<U>
         List<U> nodes = graph.getAllNodes().collect(Collectors.toCollection(ArrayList::new));
         double numEdges = directed ? Math.ceil(prob*numNodes*(numNodes-1)) : Math.ceil(prob*numNodes*(numNodes-1)/2.0);
 
+        // Edges are inserted all at once, so the selected pairs are kept to avoid repetitions.
+        GraphBuilder<U> builder = new GraphBuilder<>(graph);
+        LongSet selected = new LongOpenHashSet();
+        int n = nodes.size();
         for (int i = 0; i < numEdges; ++i)
         {
-            U node1 = nodes.get(rand.nextInt(nodes.size()));
-            U node2 = nodes.get(rand.nextInt(nodes.size()));
+            int idx1 = rand.nextInt(n);
+            int idx2 = rand.nextInt(n);
+            long pair = directed ? ((long) idx1) * n + idx2 : ((long) Math.min(idx1, idx2)) * n + Math.max(idx1, idx2);
 
-            if (!graph.containsEdge(node1, node2) && node1 != node2)
+            if (idx1 != idx2 && selected.add(pair))
             {
-                graph.addEdge(node1, node2);
+                builder.addEdge(nodes.get(idx1), nodes.get(idx2));
             }
             else
             {
                 --i;
             }
         }
-        return graph;
+        return builder.build();
     }
 
 
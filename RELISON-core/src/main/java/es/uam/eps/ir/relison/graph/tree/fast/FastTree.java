@@ -339,6 +339,12 @@ public abstract class FastTree<U> extends AbstractFastGraph<U> implements Tree<U
         throw new UnsupportedOperationException("Trees do not allow adding nodes this way");
     }
 
+    @Override
+    public long addEdges(int numEdges, int[] nodesA, int[] nodesB, double[] weights, int[] types)
+    {
+        throw new UnsupportedOperationException("Trees do not allow adding edges this way");
+    }
+
     @Override
     public Stream<Weight<U, Double>> getChildrenWeights(U u)
     {
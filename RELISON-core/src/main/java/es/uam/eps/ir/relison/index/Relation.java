@@ -9,6 +9,9 @@
  */
 package es.uam.eps.ir.relison.index;
 
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
+import java.util.function.IntFunction;
 import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
@@ -88,6 +91,50 @@ public interface Relation<W>
      */
     Stream<IdxValue<W>> getIdsSecond(int firstdIdx);
 
+    /**
+     * Applies an action over the identifiers of the items related to a second identifier.
+     *
+     * @param secondIdx Identifier of the second object.
+     * @param action    The action to apply.
+     */
+    default void forEachIdFirst(int secondIdx, IntConsumer action)
+    {
+        this.getIdsFirst(secondIdx).forEach(x -> action.accept(x.getIdx()));
+    }
+
+    /**
+     * Applies an action over the identifiers of the items related to a first identifier.
+     *
+     * @param firstIdx Identifier of the first object.
+     * @param action   The action to apply.
+     */
+    default void forEachIdSecond(int firstIdx, IntConsumer action)
+    {
+        this.getIdsSecond(firstIdx).forEach(x -> action.accept(x.getIdx()));
+    }
+
+    /**
+     * Applies an action over the items (and weights) related to a second identifier.
+     *
+     * @param secondIdx Identifier of the second object.
+     * @param action    The action to apply.
+     */
+    default void forEachFirst(int secondIdx, Consumer<IdxValue<W>> action)
+    {
+        this.getIdsFirst(secondIdx).forEach(action);
+    }
+
+    /**
+     * Applies an action over the items (and weights) related to a first identifier.
+     *
+     * @param firstIdx Identifier of the first object.
+     * @param action   The action to apply.
+     */
+    default void forEachSecond(int firstIdx, Consumer<IdxValue<W>> action)
+    {
+        this.getIdsSecond(firstIdx).forEach(action);
+    }
+
     /**
      * Adds a new item to the relation (if it does not previously exist).
      *
@@ -117,6 +164,30 @@ public interface Relation<W>
      */
     boolean addRelation(int firstIdx, int secondIdx, W weight);
 
+    /**
+     * Adds a batch of relations. Pairs which already exist, or which appear several times in the batch, are only
+     * added once (with the weight of their first appearance).
+     *
+     * @param numPairs Number of pairs in the batch.
+     * @param firsts   Identifiers of the first objects.
+     * @param seconds  Identifiers of the second objects.
+     * @param weights  Function that, given the position of a pair in the batch, provides its weight.
+     *
+     * @return the number of relations that have been added.
+     */
+    default int addRelations(int numPairs, int[] firsts, int[] seconds, IntFunction<W> weights)
+    {
+        int added = 0;
+        for (int i = 0; i < numPairs; ++i)
+        {
+            if (this.addRelation(firsts[i], seconds[i], weights.apply(i)))
+            {
+                ++added;
+            }
+        }
+        return added;
+    }
+
     /**
      * Obtains the weight of a relation.
      *
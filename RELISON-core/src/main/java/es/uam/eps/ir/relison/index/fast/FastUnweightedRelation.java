@@ -15,6 +15,8 @@ import es.uam.eps.ir.relison.index.Relation;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.function.IntConsumer;
+import java.util.function.IntFunction;
 import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
@@ -102,6 +104,24 @@ public abstract class FastUnweightedRelation<W> implements Relation<W>
         return this.secondIdxList.get(firstdIdx).stream().map(i -> new IdxValue<>(i, null));
     }
 
+    @Override
+    public void forEachIdFirst(int secondIdx, IntConsumer action)
+    {
+        for (int idx : this.firstIdxList.get(secondIdx))
+        {
+            action.accept(idx);
+        }
+    }
+
+    @Override
+    public void forEachIdSecond(int firstIdx, IntConsumer action)
+    {
+        for (int idx : this.secondIdxList.get(firstIdx))
+        {
+            action.accept(idx);
+        }
+    }
+
     @Override
     public boolean addFirstItem(int firstIdx)
     {
@@ -153,6 +173,28 @@ public abstract class FastUnweightedRelation<W> implements Relation<W>
         return true;
     }
 
+    @Override
+    public int addRelations(int numPairs, int[] firsts, int[] seconds, IntFunction<W> weights)
+    {
+        int[] selected = RelationBatch.select(this, this.secondIdxList.size(), this.firstIdxList.size(), numPairs, firsts, seconds);
+
+        boolean[] modifiedFirst = new boolean[this.firstIdxList.size()];
+        boolean[] modifiedSecond = new boolean[this.secondIdxList.size()];
+        for (int i : selected)
+        {
+            int first = firsts[i];
+            int second = seconds[i];
+            this.firstIdxList.get(second).add(first);
+            this.secondIdxList.get(first).add(second);
+            modifiedFirst[second] = true;
+            modifiedSecond[first] = true;
+        }
+
+        RelationBatch.sort(this.firstIdxList, modifiedFirst);
+        RelationBatch.sort(this.secondIdxList, modifiedSecond);
+        return selected.length;
+    }
+
     @Override
     public W getValue(int firstIdx, int secondIdx)
     {
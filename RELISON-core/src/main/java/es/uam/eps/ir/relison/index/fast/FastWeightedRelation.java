@@ -15,6 +15,9 @@ import es.uam.eps.ir.relison.index.Relation;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
+import java.util.function.IntFunction;
 import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
@@ -103,6 +106,36 @@ public abstract class FastWeightedRelation<W> implements Relation<W>
         return this.secondIdxList.get(firstIdx).stream();
     }
 
+    @Override
+    public void forEachIdFirst(int secondIdx, IntConsumer action)
+    {
+        for (IdxValue<W> value : this.firstIdxList.get(secondIdx))
+        {
+            action.accept(value.getIdx());
+        }
+    }
+
+    @Override
+    public void forEachIdSecond(int firstIdx, IntConsumer action)
+    {
+        for (IdxValue<W> value : this.secondIdxList.get(firstIdx))
+        {
+            action.accept(value.getIdx());
+        }
+    }
+
+    @Override
+    public void forEachFirst(int secondIdx, Consumer<IdxValue<W>> action)
+    {
+        this.firstIdxList.get(secondIdx).forEach(action);
+    }
+
+    @Override
+    public void forEachSecond(int firstIdx, Consumer<IdxValue<W>> action)
+    {
+        this.secondIdxList.get(firstIdx).forEach(action);
+    }
+
     @Override
     public boolean addFirstItem(int firstIdx)
     {
@@ -152,6 +185,29 @@ public abstract class FastWeightedRelation<W> implements Relation<W>
         return true;
     }
 
+    @Override
+    public int addRelations(int numPairs, int[] firsts, int[] seconds, IntFunction<W> weights)
+    {
+        int[] selected = RelationBatch.select(this, this.secondIdxList.size(), this.firstIdxList.size(), numPairs, firsts, seconds);
+
+        boolean[] modifiedFirst = new boolean[this.firstIdxList.size()];
+        boolean[] modifiedSecond = new boolean[this.secondIdxList.size()];
+        for (int i : selected)
+        {
+            int first = firsts[i];
+            int second = seconds[i];
+            W weight = weights.apply(i);
+            this.firstIdxList.get(second).add(new IdxValue<>(first, weight));
+            this.secondIdxList.get(first).add(new IdxValue<>(second, weight));
+            modifiedFirst[second] = true;
+            modifiedSecond[first] = true;
+        }
+
+        RelationBatch.sort(this.firstIdxList, modifiedFirst);
+        RelationBatch.sort(this.secondIdxList, modifiedSecond);
+        return selected.length;
+    }
+
     @Override
     public W getValue(int firstIdx, int secondIdx)
     {
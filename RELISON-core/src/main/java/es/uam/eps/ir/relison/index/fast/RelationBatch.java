@@ -0,0 +1,94 @@
+/*
+ *  Copyright (C) 2021 Information Retrieval Group at Universidad Autónoma
+ *  de Madrid, http://ir.ii.uam.es
+ *
+ *  This Source Code Form is subject to the terms of the Mozilla Public
+ *  License, v. 2.0. If a copy of the MPL was not distributed with this
+ *  file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package es.uam.eps.ir.relison.index.fast;
+
+import es.uam.eps.ir.relison.index.Relation;
+import it.unimi.dsi.fastutil.ints.IntArrays;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Auxiliary methods for adding batches of pairs to the fast relations. Instead of inserting every pair in its
+ * position of the sorted lists (which costs linear time in the length of the list), the new pairs are appended at
+ * the end of the lists, and every modified list is sorted once.
+ *
+ * @author Javier Sanz-Cruzado (javier.sanz-cruzado@uam.es)
+ * @author Pablo Castells (pablo.castells@uam.es)
+ */
+final class RelationBatch
+{
+    /**
+     * Private constructor, so the class cannot be instantiated.
+     */
+    private RelationBatch()
+    {
+    }
+
+    /**
+     * Selects the pairs of a batch which have to be added to a relation: those which are valid, do not exist in the
+     * relation, and have not appeared before in the batch.
+     *
+     * @param relation  the relation.
+     * @param numFirst  the number of first objects in the relation.
+     * @param numSecond the number of second objects in the relation.
+     * @param numPairs  the number of pairs in the batch.
+     * @param firsts    the identifiers of the first objects.
+     * @param seconds   the identifiers of the second objects.
+     *
+     * @return the positions (in the batch) of the selected pairs, sorted by first and second object.
+     */
+    static int[] select(Relation<?> relation, int numFirst, int numSecond, int numPairs, int[] firsts, int[] seconds)
+    {
+        // Stable sort, so repeated pairs are consecutive, and sorted by their position in the batch.
+        int[] order = new int[numPairs];
+        Arrays.setAll(order, i -> i);
+        IntArrays.mergeSort(order, (i, j) -> firsts[i] != firsts[j] ? Integer.compare(firsts[i], firsts[j]) : Integer.compare(seconds[i], seconds[j]));
+
+        int size = 0;
+        for (int k = 0; k < numPairs; ++k)
+        {
+            int i = order[k];
+            int first = firsts[i];
+            int second = seconds[i];
+            if (first < 0 || second < 0 || first >= numFirst || second >= numSecond)
+            {
+                continue;
+            }
+            if (size > 0 && firsts[order[size - 1]] == first && seconds[order[size - 1]] == second)
+            {
+                continue;
+            }
+            if (!relation.containsPair(first, second))
+            {
+                order[size++] = i;
+            }
+        }
+        return Arrays.copyOf(order, size);
+    }
+
+    /**
+     * Sorts the lists which have received new elements.
+     *
+     * @param lists    the lists (their elements must be comparable).
+     * @param modified indicates which lists have been modified.
+     * @param <T>      the type of the elements of the lists.
+     */
+    static <T> void sort(List<List<T>> lists, boolean[] modified)
+    {
+        for (int i = 0; i < modified.length; ++i)
+        {
+            if (modified[i])
+            {
+                // The new elements form a sorted run after the previous ones, so the sort is nearly linear.
+                lists.get(i).sort(null);
+            }
+        }
+    }
+}
@@ -9,6 +9,7 @@
 package es.uam.eps.ir.relison.io.graph;
 
 import es.uam.eps.ir.relison.graph.Graph;
+import es.uam.eps.ir.relison.graph.GraphBuilder;
 import es.uam.eps.ir.relison.graph.generator.EmptyGraphGenerator;
 import es.uam.eps.ir.relison.graph.generator.GraphGenerator;
 import es.uam.eps.ir.relison.graph.generator.exception.GeneratorBadConfiguredException;
@@ -113,6 +114,8 @@ public class BinaryGraphReader implements GraphReader<Long>
             ggen.configure(directed, weighted);
 
             Graph<Long> graph = ggen.generate();
+
+            GraphBuilder<Long> builder = new GraphBuilder<>(graph);
             long numUsers = input.readLong();
             for (int i = 0; i < numUsers; ++i)
             {
@@ -124,11 +127,11 @@ public class BinaryGraphReader implements GraphReader<Long>
                     double weight = (readWeights ? input.readDouble() : 1.0);
                     int type = (readTypes ? input.readInt() : 0);
 
-                    graph.addEdge(u, v, weight, type, true);
+                    builder.addEdge(u, v, weight, type, true);
                 }
             }
 
-            return graph;
+            return builder.build();
         }
         catch (GeneratorNotConfiguredException | GeneratorBadConfiguredException ex)
         {
@@ -215,6 +218,8 @@ public class BinaryGraphReader implements GraphReader<Long>
 
             Graph<Long> graph = ggen.generate();
 
+            GraphBuilder<Long> builder = new GraphBuilder<>(graph);
+
             users.getAllObjectsIds().sorted().forEach(i -> graph.addNode(users.idx2object(i)));
 
             long numUsers = input.readLong();
@@ -228,11 +233,11 @@ public class BinaryGraphReader implements GraphReader<Long>
                     double weight = (readWeights ? input.readDouble() : 1.0);
                     int type = (readTypes ? input.readInt() : 0);
 
-                    graph.addEdge(u, v, weight, type, false);
+                    builder.addEdge(u, v, weight, type, false);
                 }
             }
 
-            return graph;
+            return builder.build();
         }
         catch (GeneratorNotConfiguredException | GeneratorBadConfiguredException ex)
         {
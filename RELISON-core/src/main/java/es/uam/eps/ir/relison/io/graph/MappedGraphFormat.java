@@ -0,0 +1,90 @@
+/*
+ *  Copyright (C) 2021 Information Retrieval Group at Universidad Autónoma
+ *  de Madrid, http://ir.ii.uam.es
+ *
+ *  This Source Code Form is subject to the terms of the Mozilla Public
+ *  License, v. 2.0. If a copy of the MPL was not distributed with this
+ *  file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package es.uam.eps.ir.relison.io.graph;
+
+import java.nio.ByteOrder;
+
+/**
+ * Description of the memory-mappable binary graph format, shared by {@link MappedGraphReader} and
+ * {@link MappedGraphWriter}. All the values are stored in little-endian byte order.
+ *
+ * The file starts with a fixed-size header:
+ * <ul>
+ *     <li>magic number (long)</li>
+ *     <li>version of the format (int)</li>
+ *     <li>flags (int): directed, weighted, weights stored, types stored</li>
+ *     <li>number of nodes (int), followed by a reserved int</li>
+ *     <li>number of edges of the graph (long)</li>
+ *     <li>length of the adjacent neighbourhood arrays (long)</li>
+ *     <li>length of the incident neighbourhood arrays (long, 0 for undirected graphs)</li>
+ * </ul>
+ * After the header, the following sections are stored, each one of them starting at a multiple of 8 bytes:
+ * the identifiers of the vertices (long[numNodes]), the adjacent offsets (int[numNodes+1]), the adjacent
+ * targets (int[numOut]), the adjacent weights (double[numOut], if stored) and the adjacent types (int[numOut], if stored).
+ * For directed graphs, the same four sections are then stored for the incident neighbourhoods.
+ *
+ * @author Javier Sanz-Cruzado (javier.sanz-cruzado@uam.es)
+ * @author Pablo Castells (pablo.castells@uam.es)
+ */
+final class MappedGraphFormat
+{
+    /**
+     * Magic number identifying the format ("RELISONG" in ASCII).
+     */
+    static final long MAGIC = 0x52454C49534F4E47L;
+    /**
+     * Current version of the format.
+     */
+    static final int VERSION = 1;
+    /**
+     * Byte order of the file.
+     */
+    static final ByteOrder ORDER = ByteOrder.LITTLE_ENDIAN;
+    /**
+     * Size of the header (in bytes).
+     */
+    static final int HEADER_SIZE = 48;
+    /**
+     * Flag indicating that the graph is directed.
+     */
+    static final int DIRECTED = 1;
+    /**
+     * Flag indicating that the graph is weighted.
+     */
+    static final int WEIGHTED = 2;
+    /**
+     * Flag indicating that the file contains the weights of the edges.
+     */
+    static final int WEIGHTS = 4;
+    /**
+     * Flag indicating that the file contains the types of the edges.
+     */
+    static final int TYPES = 8;
+
+    /**
+     * Private constructor (the class cannot be instantiated).
+     */
+    private MappedGraphFormat()
+    {
+    }
+
+    /**
+     * Computes the number of bytes occupied by a section, including the padding needed to align the next one.
+     *
+     * @param length      number of elements in the section.
+     * @param elementSize size of each element (in bytes).
+     *
+     * @return the size of the section (in bytes).
+     */
+    static long sectionSize(long length, int elementSize)
+    {
+        long size = length * elementSize;
+        return (size + 7L) & ~7L;
+    }
+}
@@ -0,0 +1,305 @@
+/*
+ *  Copyright (C) 2021 Information Retrieval Group at Universidad Autónoma
+ *  de Madrid, http://ir.ii.uam.es
+ *
+ *  This Source Code Form is subject to the terms of the Mozilla Public
+ *  License, v. 2.0. If a copy of the MPL was not distributed with this
+ *  file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package es.uam.eps.ir.relison.io.graph;
+
+import es.uam.eps.ir.relison.graph.Graph;
+import es.uam.eps.ir.relison.graph.GraphBuilder;
+import es.uam.eps.ir.relison.graph.edges.EdgeOrientation;
+import es.uam.eps.ir.relison.graph.edges.fast.CSRDirectedEdges;
+import es.uam.eps.ir.relison.graph.edges.fast.CSRUndirectedEdges;
+import es.uam.eps.ir.relison.graph.fast.*;
+import es.uam.eps.ir.relison.graph.generator.EmptyGraphGenerator;
+import es.uam.eps.ir.relison.graph.generator.GraphGenerator;
+import es.uam.eps.ir.relison.graph.generator.exception.GeneratorBadConfiguredException;
+import es.uam.eps.ir.relison.graph.generator.exception.GeneratorNotConfiguredException;
+import es.uam.eps.ir.relison.index.Index;
+import es.uam.eps.ir.relison.index.fast.FastIndex;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.DoubleBuffer;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Reads graphs written by {@link MappedGraphWriter}. When the graph is read from a file, the edges are not
+ * loaded into the Java heap: the file is memory-mapped, and the resulting immutable CSR graph reads them directly from
+ * the mapped regions. Therefore, opening a graph just requires reading the vertex identifiers, the operating system
+ * shares the pages between the processes reading the same file, and the size of the graph is not limited by the size
+ * of the heap. The only limitation is that every array (section) of the file must be smaller than 2GB.
+ *
+ * When the graph is read from an input stream, the content of the stream is loaded into the heap.
+ *
+ * @author Javier Sanz-Cruzado (javier.sanz-cruzado@uam.es)
+ * @author Pablo Castells (pablo.castells@uam.es)
+ */
+public class MappedGraphReader implements GraphReader<Long>
+{
+    /**
+     * Provides the content of the different sections of the file.
+     */
+    @FunctionalInterface
+    private interface SectionProvider
+    {
+        /**
+         * Obtains the content of a region of the file.
+         *
+         * @param position the first byte of the region.
+         * @param size     the size of the region (in bytes).
+         *
+         * @return a buffer containing the region.
+         *
+         * @throws IOException if something fails while reading.
+         */
+        ByteBuffer get(long position, long size) throws IOException;
+    }
+
+    @Override
+    public Graph<Long> read(String file)
+    {
+        return this.read(file, true, false);
+    }
+
+    @Override
+    public Graph<Long> read(String file, boolean readWeights, boolean readTypes)
+    {
+        return this.read(file, readWeights, readTypes, null);
+    }
+
+    @Override
+    public Graph<Long> read(String file, boolean readWeights, boolean readTypes, Index<Long> nodes)
+    {
+        // The mapped regions remain valid after the channel is closed.
+        try (FileChannel channel = FileChannel.open(Paths.get(file), StandardOpenOption.READ))
+        {
+            return this.read((position, size) ->
+            {
+                if (size > Integer.MAX_VALUE)
+                {
+                    throw new IOException("Sections larger than 2GB cannot be mapped");
+                }
+                return channel.map(FileChannel.MapMode.READ_ONLY, position, size);
+            }, readWeights, readTypes, nodes);
+        }
+        catch (IOException ioe)
+        {
+            return null;
+        }
+    }
+
+    @Override
+    public Graph<Long> read(InputStream stream)
+    {
+        return this.read(stream, true, false);
+    }
+
+    @Override
+    public Graph<Long> read(InputStream stream, boolean readWeights, boolean readTypes)
+    {
+        return this.read(stream, readWeights, readTypes, null);
+    }
+
+    @Override
+    public Graph<Long> read(InputStream stream, boolean readWeights, boolean readTypes, Index<Long> nodes)
+    {
+        try
+        {
+            ByteBuffer content = ByteBuffer.wrap(stream.readAllBytes());
+            return this.read((position, size) -> content.duplicate().position((int) position).limit((int) (position + size)).slice(), readWeights, readTypes, nodes);
+        }
+        catch (IOException | IndexOutOfBoundsException ex)
+        {
+            return null;
+        }
+    }
+
+    /**
+     * Reads a graph.
+     *
+     * @param provider    provides the sections of the file.
+     * @param readWeights true if the weights have to be read (if the file contains them).
+     * @param readTypes   true if the types have to be read (if the file contains them).
+     * @param nodes       an index containing the nodes in the network (null if it has to be read from the file).
+     *
+     * @return the graph if everything goes ok, null otherwise.
+     *
+     * @throws IOException if something fails while reading.
+     */
+    private Graph<Long> read(SectionProvider provider, boolean readWeights, boolean readTypes, Index<Long> nodes) throws IOException
+    {
+        ByteBuffer header = provider.get(0, MappedGraphFormat.HEADER_SIZE).order(MappedGraphFormat.ORDER);
+        if (header.getLong() != MappedGraphFormat.MAGIC || header.getInt() != MappedGraphFormat.VERSION)
+        {
+            return null;
+        }
+
+        int flags = header.getInt();
+        int numNodes = header.getInt();
+        header.getInt();
+        header.getLong();
+        long numOut = header.getLong();
+        long numIn = header.getLong();
+
+        boolean directed = (flags & MappedGraphFormat.DIRECTED) != 0;
+        boolean weighted = (flags & MappedGraphFormat.WEIGHTED) != 0;
+        boolean hasWeights = (flags & MappedGraphFormat.WEIGHTS) != 0;
+        boolean hasTypes = (flags & MappedGraphFormat.TYPES) != 0;
+
+        long position = MappedGraphFormat.HEADER_SIZE;
+        LongBuffer ids = provider.get(position, (long) numNodes * Long.BYTES).order(MappedGraphFormat.ORDER).asLongBuffer();
+        position += MappedGraphFormat.sectionSize(numNodes, Long.BYTES);
+
+        Index<Long> index = new FastIndex<>();
+        for (int uidx = 0; uidx < numNodes; ++uidx)
+        {
+            index.addObject(ids.get(uidx));
+        }
+        if (index.numObjects() != numNodes)
+        {
+            return null;
+        }
+
+        IntBuffer outOffsets = ints(provider, position, numNodes + 1L);
+        position += MappedGraphFormat.sectionSize(numNodes + 1L, Integer.BYTES);
+        IntBuffer outTargets = ints(provider, position, numOut);
+        position += MappedGraphFormat.sectionSize(numOut, Integer.BYTES);
+        DoubleBuffer outWeights = null;
+        if (hasWeights)
+        {
+            outWeights = readWeights ? doubles(provider, position, numOut) : null;
+            position += MappedGraphFormat.sectionSize(numOut, Double.BYTES);
+        }
+        IntBuffer outTypes = null;
+        if (hasTypes)
+        {
+            outTypes = readTypes ? ints(provider, position, numOut) : null;
+            position += MappedGraphFormat.sectionSize(numOut, Integer.BYTES);
+        }
+
+        FastGraph<Long> graph;
+        if (directed)
+        {
+            IntBuffer inOffsets = ints(provider, position, numNodes + 1L);
+            position += MappedGraphFormat.sectionSize(numNodes + 1L, Integer.BYTES);
+            IntBuffer inTargets = ints(provider, position, numIn);
+            position += MappedGraphFormat.sectionSize(numIn, Integer.BYTES);
+            DoubleBuffer inWeights = null;
+            if (hasWeights)
+            {
+                inWeights = readWeights ? doubles(provider, position, numIn) : null;
+                position += MappedGraphFormat.sectionSize(numIn, Double.BYTES);
+            }
+            IntBuffer inTypes = null;
+            if (hasTypes)
+            {
+                inTypes = readTypes ? ints(provider, position, numIn) : null;
+            }
+
+            CSRDirectedEdges edges = new CSRDirectedEdges(numNodes, outOffsets, outTargets, outWeights, outTypes, inOffsets, inTargets, inWeights, inTypes);
+            graph = weighted ? new CSRDirectedWeightedGraph<>(index, edges) : new CSRDirectedUnweightedGraph<>(index, edges);
+        }
+        else
+        {
+            CSRUndirectedEdges edges = new CSRUndirectedEdges(numNodes, outOffsets, outTargets, outWeights, outTypes);
+            graph = weighted ? new CSRUndirectedWeightedGraph<>(index, edges) : new CSRUndirectedUnweightedGraph<>(index, edges);
+        }
+
+        if (nodes == null || this.sameIndex(index, nodes))
+        {
+            return graph;
+        }
+        return this.reindex(graph, nodes);
+    }
+
+    /**
+     * Obtains a section of integers.
+     *
+     * @param provider the section provider.
+     * @param position the first byte of the section.
+     * @param length   the number of elements in the section.
+     *
+     * @return the buffer containing the section.
+     *
+     * @throws IOException if something fails while reading.
+     */
+    private static IntBuffer ints(SectionProvider provider, long position, long length) throws IOException
+    {
+        return provider.get(position, length * Integer.BYTES).order(MappedGraphFormat.ORDER).asIntBuffer();
+    }
+
+    /**
+     * Obtains a section of doubles.
+     *
+     * @param provider the section provider.
+     * @param position the first byte of the section.
+     * @param length   the number of elements in the section.
+     *
+     * @return the buffer containing the section.
+     *
+     * @throws IOException if something fails while reading.
+     */
+    private static DoubleBuffer doubles(SectionProvider provider, long position, long length) throws IOException
+    {
+        return provider.get(position, length * Double.BYTES).order(MappedGraphFormat.ORDER).asDoubleBuffer();
+    }
+
+    /**
+     * Checks whether two indexes assign the same identifiers to the same nodes.
+     *
+     * @param index the index read from the file.
+     * @param nodes the index provided by the user.
+     *
+     * @return true if both indexes are equivalent, false otherwise.
+     */
+    private boolean sameIndex(Index<Long> index, Index<Long> nodes)
+    {
+        if (index.numObjects() != nodes.numObjects())
+        {
+            return false;
+        }
+        return index.getAllObjectsIds().allMatch(idx -> index.idx2object(idx).equals(nodes.idx2object(idx)));
+    }
+
+    /**
+     * Copies a graph into a new one, where the nodes follow the order of a given index. Edges containing nodes
+     * which are not in the index are discarded.
+     *
+     * @param graph the graph.
+     * @param nodes the index of the nodes.
+     *
+     * @return the new graph, null if it could not be built.
+     */
+    private Graph<Long> reindex(FastGraph<Long> graph, Index<Long> nodes)
+    {
+        try
+        {
+            GraphGenerator<Long> ggen = new EmptyGraphGenerator<>();
+            ggen.configure(graph.isDirected(), graph.isWeighted());
+            Graph<Long> newGraph = ggen.generate();
+            nodes.getAllObjectsIds().sorted().forEach(i -> newGraph.addNode(nodes.idx2object(i)));
+
+            GraphBuilder<Long> builder = new GraphBuilder<>(newGraph);
+            graph.getAllNodesIds().forEach(uidx ->
+            {
+                Long u = graph.idx2object(uidx);
+                graph.forEachWeightedNeighbor(uidx, EdgeOrientation.OUT, (vidx, weight) ->
+                        builder.addEdge(u, graph.idx2object(vidx), weight, graph.getEdgeType(u, graph.idx2object(vidx)), false));
+            });
+            return builder.build();
+        }
+        catch (GeneratorNotConfiguredException | GeneratorBadConfiguredException ex)
+        {
+            return null;
+        }
+    }
+}
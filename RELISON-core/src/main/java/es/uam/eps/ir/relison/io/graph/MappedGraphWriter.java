@@ -0,0 +1,234 @@
+/*
+ *  Copyright (C) 2021 Information Retrieval Group at Universidad Autónoma
+ *  de Madrid, http://ir.ii.uam.es
+ *
+ *  This Source Code Form is subject to the terms of the Mozilla Public
+ *  License, v. 2.0. If a copy of the MPL was not distributed with this
+ *  file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package es.uam.eps.ir.relison.io.graph;
+
+import es.uam.eps.ir.relison.graph.Adapters;
+import es.uam.eps.ir.relison.graph.Graph;
+import es.uam.eps.ir.relison.graph.edges.EdgeOrientation;
+import es.uam.eps.ir.relison.graph.edges.fast.CSREdges;
+import es.uam.eps.ir.relison.graph.fast.AbstractCSRGraph;
+import es.uam.eps.ir.relison.graph.fast.FastGraph;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.DoubleBuffer;
+import java.nio.IntBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Writes a graph into a binary file which can be memory-mapped by {@link MappedGraphReader}. The graph is
+ * stored in compressed sparse row (CSR) format, as described in {@link MappedGraphFormat}.
+ * Multigraphs are not supported.
+ *
+ * @author Javier Sanz-Cruzado (javier.sanz-cruzado@uam.es)
+ * @author Pablo Castells (pablo.castells@uam.es)
+ */
+public class MappedGraphWriter implements GraphWriter<Long>
+{
+    /**
+     * Size of the buffer used for writing the file (in bytes).
+     */
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    @Override
+    public boolean write(Graph<Long> graph, String file)
+    {
+        return this.write(graph, file, true, false);
+    }
+
+    @Override
+    public boolean write(Graph<Long> graph, OutputStream file)
+    {
+        return this.write(graph, file, true, false);
+    }
+
+    @Override
+    public boolean write(Graph<Long> graph, String file, boolean writeWeights, boolean writeTypes)
+    {
+        if (graph == null || file == null)
+        {
+            return false;
+        }
+
+        try (FileChannel channel = FileChannel.open(Paths.get(file), StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE))
+        {
+            return this.write(graph, channel, writeWeights, writeTypes);
+        }
+        catch (IOException ioe)
+        {
+            return false;
+        }
+    }
+
+    @Override
+    public boolean write(Graph<Long> graph, OutputStream file, boolean writeWeights, boolean writeTypes)
+    {
+        if (graph == null || file == null)
+        {
+            return false;
+        }
+
+        try
+        {
+            WritableByteChannel channel = Channels.newChannel(file);
+            return this.write(graph, channel, writeWeights, writeTypes);
+        }
+        catch (IOException ioe)
+        {
+            return false;
+        }
+    }
+
+    /**
+     * Writes a graph into a channel.
+     *
+     * @param graph        the graph.
+     * @param channel      the channel.
+     * @param writeWeights true if the weights have to be written.
+     * @param writeTypes   true if the types have to be written.
+     *
+     * @return true if everything went ok, false otherwise.
+     *
+     * @throws IOException if something fails while writing.
+     */
+    private boolean write(Graph<Long> graph, WritableByteChannel channel, boolean writeWeights, boolean writeTypes) throws IOException
+    {
+        if (graph.isMultigraph())
+        {
+            return false;
+        }
+
+        FastGraph<Long> csrGraph = graph instanceof AbstractCSRGraph ? (FastGraph<Long>) graph : Adapters.freeze(graph);
+        CSREdges edges = ((AbstractCSRGraph<Long>) csrGraph).getCSREdges();
+        int numNodes = edges.getNumNodes();
+
+        IntBuffer outTargets = edges.getTargets(EdgeOrientation.OUT);
+        DoubleBuffer outWeights = writeWeights ? edges.getWeights(EdgeOrientation.OUT) : null;
+        IntBuffer outTypes = writeTypes ? edges.getTypes(EdgeOrientation.OUT) : null;
+
+        int flags = 0;
+        flags |= graph.isDirected() ? MappedGraphFormat.DIRECTED : 0;
+        flags |= graph.isWeighted() ? MappedGraphFormat.WEIGHTED : 0;
+        flags |= outWeights != null ? MappedGraphFormat.WEIGHTS : 0;
+        flags |= outTypes != null ? MappedGraphFormat.TYPES : 0;
+
+        ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE).order(MappedGraphFormat.ORDER);
+        buffer.putLong(MappedGraphFormat.MAGIC);
+        buffer.putInt(MappedGraphFormat.VERSION);
+        buffer.putInt(flags);
+        buffer.putInt(numNodes);
+        buffer.putInt(0);
+        buffer.putLong(edges.getNumEdges());
+        buffer.putLong(outTargets.limit());
+        buffer.putLong(graph.isDirected() ? edges.getTargets(EdgeOrientation.IN).limit() : 0L);
+
+        // Identifiers of the vertices.
+        for (int uidx = 0; uidx < numNodes; ++uidx)
+        {
+            flushIfFull(channel, buffer, Long.BYTES);
+            buffer.putLong(csrGraph.idx2object(uidx));
+        }
+
+        this.writeNeighborhoods(channel, buffer, edges, EdgeOrientation.OUT, outWeights, outTypes);
+        if (graph.isDirected())
+        {
+            DoubleBuffer inWeights = outWeights != null ? edges.getWeights(EdgeOrientation.IN) : null;
+            IntBuffer inTypes = outTypes != null ? edges.getTypes(EdgeOrientation.IN) : null;
+            this.writeNeighborhoods(channel, buffer, edges, EdgeOrientation.IN, inWeights, inTypes);
+        }
+
+        buffer.flip();
+        while (buffer.hasRemaining())
+        {
+            channel.write(buffer);
+        }
+        return true;
+    }
+
+    /**
+     * Writes the sections corresponding to the neighbourhoods of a given orientation.
+     *
+     * @param channel     the channel.
+     * @param buffer      the buffer for writing into the channel.
+     * @param edges       the edges of the graph.
+     * @param orientation the orientation of the neighbourhoods.
+     * @param weights     the weights to write (null if they are not written).
+     * @param types       the types to write (null if they are not written).
+     *
+     * @throws IOException if something fails while writing.
+     */
+    private void writeNeighborhoods(WritableByteChannel channel, ByteBuffer buffer, CSREdges edges, EdgeOrientation orientation, DoubleBuffer weights, IntBuffer types) throws IOException
+    {
+        writeInts(channel, buffer, edges.getOffsets(orientation));
+        writeInts(channel, buffer, edges.getTargets(orientation));
+        if (weights != null)
+        {
+            while (weights.hasRemaining())
+            {
+                flushIfFull(channel, buffer, Double.BYTES);
+                buffer.putDouble(weights.get());
+            }
+        }
+        if (types != null)
+        {
+            writeInts(channel, buffer, types);
+        }
+    }
+
+    /**
+     * Writes a section of integers, padding it so the next section is aligned.
+     *
+     * @param channel the channel.
+     * @param buffer  the buffer for writing into the channel.
+     * @param values  the values to write.
+     *
+     * @throws IOException if something fails while writing.
+     */
+    private static void writeInts(WritableByteChannel channel, ByteBuffer buffer, IntBuffer values) throws IOException
+    {
+        boolean odd = values.remaining() % 2 != 0;
+        while (values.hasRemaining())
+        {
+            flushIfFull(channel, buffer, Integer.BYTES);
+            buffer.putInt(values.get());
+        }
+        if (odd)
+        {
+            flushIfFull(channel, buffer, Integer.BYTES);
+            buffer.putInt(0);
+        }
+    }
+
+    /**
+     * Writes the content of the buffer into the channel if it has not enough space for a new value.
+     *
+     * @param channel the channel.
+     * @param buffer  the buffer.
+     * @param bytes   the size of the value to add to the buffer.
+     *
+     * @throws IOException if something fails while writing.
+     */
+    private static void flushIfFull(WritableByteChannel channel, ByteBuffer buffer, int bytes) throws IOException
+    {
+        if (buffer.remaining() < bytes)
+        {
+            buffer.flip();
+            while (buffer.hasRemaining())
+            {
+                channel.write(buffer);
+            }
+            buffer.clear();
+        }
+    }
+}
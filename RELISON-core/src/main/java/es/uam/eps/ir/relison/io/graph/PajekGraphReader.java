@@ -9,6 +9,7 @@
 package es.uam.eps.ir.relison.io.graph;
 
 import es.uam.eps.ir.relison.graph.Graph;
+import es.uam.eps.ir.relison.graph.GraphBuilder;
 import es.uam.eps.ir.relison.graph.generator.EmptyGraphGenerator;
 import es.uam.eps.ir.relison.graph.generator.EmptyMultiGraphGenerator;
 import es.uam.eps.ir.relison.graph.generator.GraphGenerator;
@@ -136,6 +137,7 @@ public class PajekGraphReader<U extends Serializable> implements GraphReader<U>
             GraphGenerator<U> ggen = multigraph ? new EmptyMultiGraphGenerator<>() : new EmptyGraphGenerator<>();
             ggen.configure(directed, weighted);
             Graph<U> graph = ggen.generate();
+            GraphBuilder<U> builder = new GraphBuilder<>(graph);
 
             try (BufferedReader br = new BufferedReader(new InputStreamReader(stream)))
             {
@@ -179,11 +181,11 @@ public class PajekGraphReader<U extends Serializable> implements GraphReader<U>
 
                     if (uidx != vidx || selfloops)
                     {
-                        graph.addEdge(map.get(uidx), map.get(vidx), weight);
+                        builder.addEdge(map.get(uidx), map.get(vidx), weight);
                     }
                 }
             }
-            return graph;
+            return builder.build();
         }
         catch (IOException | GeneratorNotConfiguredException | GeneratorBadConfiguredException ex)
         {
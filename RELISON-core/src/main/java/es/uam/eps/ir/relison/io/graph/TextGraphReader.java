@@ -10,16 +10,34 @@
 package es.uam.eps.ir.relison.io.graph;
 
 import es.uam.eps.ir.relison.graph.Graph;
+import es.uam.eps.ir.relison.graph.GraphBuilder;
+import es.uam.eps.ir.relison.graph.edges.EdgeType;
+import es.uam.eps.ir.relison.graph.edges.EdgeWeight;
+import es.uam.eps.ir.relison.graph.fast.FastGraph;
 import es.uam.eps.ir.relison.graph.generator.EmptyGraphGenerator;
 import es.uam.eps.ir.relison.graph.generator.EmptyMultiGraphGenerator;
 import es.uam.eps.ir.relison.graph.generator.GraphGenerator;
 import es.uam.eps.ir.relison.graph.generator.exception.GeneratorBadConfiguredException;
 import es.uam.eps.ir.relison.graph.generator.exception.GeneratorNotConfiguredException;
 import es.uam.eps.ir.relison.index.Index;
+import it.unimi.dsi.fastutil.doubles.DoubleArrayList;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
 import org.ranksys.formats.parsing.Parser;
 import org.ranksys.formats.parsing.Parsers;
 
 import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 /**
  * Reads a graph from a file.
@@ -35,6 +53,13 @@ import java.io.*;
  * Every column apart from these ones will be ignored when loading
  * the graph. Columns are separated by a certain delimiter. By default, this delimiter
  * is a tab space.
+ * <p>
+ * When the reader is configured with more than one thread, graphs read from a file are loaded in parallel:
+ * the file is split into byte ranges that are parsed concurrently, and the edges are then inserted in bulk through
+ * a {@link GraphBuilder}. The parallel parser matches the delimiter literally, so it is only used when the delimiter
+ * contains no regular expression metacharacters, and therefore splits the lines as {@link String#split(String)} does
+ * in the sequential reader. Otherwise, the file is read sequentially. In both cases, the resulting graph is the same
+ * (and of the same type). The throughput of the last parallel read can be obtained through {@link #getThroughput()}.
  *
  * @param <V> The type of the vertices.
  *
@@ -45,6 +70,14 @@ import java.io.*;
  */
 public class TextGraphReader<V> implements GraphReader<V>
 {
+    /**
+     * Maximum size (in bytes) of the ranges in which a file is split for reading it in parallel.
+     */
+    private static final int MAX_RANGE_SIZE = 1 << 26;
+    /**
+     * Characters with a special meaning in regular expressions.
+     */
+    private static final String REGEX_METACHARACTERS = "\\^$.|?*+()[]{}";
     /**
      * Indicates if te graph to read is a multigraph (true) or not (false)
      */
@@ -69,6 +102,14 @@ public class TextGraphReader<V> implements GraphReader<V>
      * Field delimiter.
      */
     private final String delimiter;
+    /**
+     * Number of threads for reading the graph.
+     */
+    private final int numThreads;
+    /**
+     * Number of edges per second parsed during the last parallel read.
+     */
+    private double throughput = Double.NaN;
 
     /**
      * Constructor.
@@ -81,12 +122,22 @@ public class TextGraphReader<V> implements GraphReader<V>
      */
     public TextGraphReader(boolean directed, boolean weighted, boolean selfloops, String delimiter, Parser<V> uParser)
     {
-        this.multigraph = false;
-        this.directed = directed;
-        this.weighted = weighted;
-        this.selfloops = selfloops;
-        this.delimiter = delimiter;
-        this.uParser = uParser;
+        this(directed, weighted, selfloops, delimiter, uParser, 1);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param directed   Indicates if the graph to read is directed (true) or not (false).
+     * @param weighted   Indicates if the graph to read is weighted (true) or not (false).
+     * @param selfloops  Indicates if the graph to read allows autoloops (true) or not (false).
+     * @param delimiter  Field delimiter.
+     * @param uParser    Parser for reading the vertices.
+     * @param numThreads Number of threads for reading the graph files (if greater than one, files are read in parallel).
+     */
+    public TextGraphReader(boolean directed, boolean weighted, boolean selfloops, String delimiter, Parser<V> uParser, int numThreads)
+    {
+        this(false, directed, weighted, selfloops, delimiter, uParser, numThreads);
     }
 
     /**
@@ -100,6 +151,22 @@ public class TextGraphReader<V> implements GraphReader<V>
      * @param uParser    Parser for reading the vertices.
      */
     protected TextGraphReader(boolean multigraph, boolean directed, boolean weighted, boolean selfloops, String delimiter, Parser<V> uParser)
+    {
+        this(multigraph, directed, weighted, selfloops, delimiter, uParser, 1);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param multigraph Indicates if the graph to read is a multigraph (true) or not (false).
+     * @param directed   Indicates if the graph to read is directed (true) or not (false).
+     * @param weighted   Indicates if the graph to read is weighted (true) or not (false).
+     * @param selfloops  Indicates if the graph to read allows autoloops (true) or not (false).
+     * @param delimiter  Field delimiter.
+     * @param uParser    Parser for reading the vertices.
+     * @param numThreads Number of threads for reading the graph files (if greater than one, files are read in parallel).
+     */
+    protected TextGraphReader(boolean multigraph, boolean directed, boolean weighted, boolean selfloops, String delimiter, Parser<V> uParser, int numThreads)
     {
         this.multigraph = multigraph;
         this.directed = directed;
@@ -107,11 +174,17 @@ public class TextGraphReader<V> implements GraphReader<V>
         this.selfloops = selfloops;
         this.delimiter = delimiter;
         this.uParser = uParser;
+        this.numThreads = numThreads;
     }
 
     @Override
     public Graph<V> read(String file)
     {
+        if (this.isParallel())
+        {
+            return this.readParallel(file, false, null);
+        }
+
         try
         {
             InputStream ios = new FileInputStream(file);
@@ -127,6 +200,11 @@ public class TextGraphReader<V> implements GraphReader<V>
     @Override
     public Graph<V> read(String file, boolean readWeights, boolean readTypes)
     {
+        if (this.isParallel())
+        {
+            return this.readParallel(file, readTypes, null);
+        }
+
         try
         {
             InputStream ios = new FileInputStream(file);
@@ -153,6 +231,7 @@ public class TextGraphReader<V> implements GraphReader<V>
             GraphGenerator<V> gg = (multigraph ? new EmptyMultiGraphGenerator<>() : new EmptyGraphGenerator<>());
             gg.configure(directed, weighted);
             Graph<V> graph = gg.generate();
+            GraphBuilder<V> builder = new GraphBuilder<>(graph);
 
             try (BufferedReader br = new BufferedReader(new InputStreamReader(stream)))
             {
@@ -180,7 +259,7 @@ public class TextGraphReader<V> implements GraphReader<V>
                             type = Parsers.ip.parse(splits[2]);
                         }
 
-                        graph.addEdge(source, dest, weight, type, true);
+                        builder.addEdge(source, dest, weight, type, true);
                    }
                });
             }
@@ -191,7 +270,7 @@ public class TextGraphReader<V> implements GraphReader<V>
                 return null;
             }
 
-            return graph;
+            return builder.build();
         }
 
         catch (GeneratorNotConfiguredException | GeneratorBadConfiguredException ex)
@@ -204,6 +283,11 @@ public class TextGraphReader<V> implements GraphReader<V>
     @Override
     public Graph<V> read(String file, boolean readWeights, boolean readTypes, Index<V> nodes)
     {
+        if (this.isParallel())
+        {
+            return this.readParallel(file, readTypes, nodes);
+        }
+
         try
         {
             InputStream ios = new FileInputStream(file);
@@ -226,6 +310,8 @@ public class TextGraphReader<V> implements GraphReader<V>
 
             Graph<V> graph = gg.generate();
 
+            GraphBuilder<V> builder = new GraphBuilder<>(graph);
+
             nodes.getAllObjectsIds().sorted().forEach(i -> graph.addNode(nodes.idx2object(i)));
 
             try (BufferedReader br = new BufferedReader(new InputStreamReader(stream)))
@@ -254,7 +340,7 @@ public class TextGraphReader<V> implements GraphReader<V>
                             type = Parsers.ip.parse(splits[2]);
                         }
 
-                        graph.addEdge(source, dest, weight, type, false);
+                        builder.addEdge(source, dest, weight, type, false);
                     }
                 });
             }
@@ -265,7 +351,7 @@ public class TextGraphReader<V> implements GraphReader<V>
                 return null;
             }
 
-            return graph;
+            return builder.build();
         }
 
         catch (GeneratorNotConfiguredException ex)
@@ -274,4 +360,380 @@ public class TextGraphReader<V> implements GraphReader<V>
             return null;
         }
     }
+
+    /**
+     * Obtains the number of edges per second parsed during the last parallel read of a file.
+     *
+     * @return the throughput (in edges/second), NaN if no file has been read in parallel.
+     */
+    public double getThroughput()
+    {
+        return this.throughput;
+    }
+
+    /**
+     * Checks whether the files have to be read in parallel. This requires more than one thread, and a delimiter
+     * without regular expression metacharacters, which the parallel parser can match literally.
+     *
+     * @return true if the files are read in parallel, false otherwise.
+     */
+    private boolean isParallel()
+    {
+        return this.numThreads > 1 && this.delimiter.chars().noneMatch(c -> REGEX_METACHARACTERS.indexOf(c) >= 0);
+    }
+
+    /**
+     * Reads a graph from a file in parallel. The lines of the file are parsed concurrently, and the edges are
+     * inserted afterwards in the same order as the sequential reader would do, so the resulting graph is identical
+     * to the one obtained by reading the file sequentially. As in the sequential reader, the weights are read if
+     * and only if the graph is weighted.
+     *
+     * @param file      The file containing the graph.
+     * @param readTypes True if the file contains graph types.
+     * @param nodes     An index containing the nodes in the network (null if the nodes are taken from the file).
+     *
+     * @return the graph if everything goes ok, null otherwise.
+     */
+    private Graph<V> readParallel(String file, boolean readTypes, Index<V> nodes)
+    {
+        ForkJoinPool pool = new ForkJoinPool(this.numThreads);
+        try (FileChannel channel = FileChannel.open(Paths.get(file), StandardOpenOption.READ))
+        {
+            long start = System.nanoTime();
+            long[] ranges = this.split(channel);
+            List<EdgeChunk<V>> chunks = pool.submit(() -> IntStream.range(0, ranges.length - 1).parallel().mapToObj(i ->
+            {
+                try
+                {
+                    return this.parseRange(channel, ranges[i], ranges[i + 1], readTypes);
+                }
+                catch (IOException ioe)
+                {
+                    throw new UncheckedIOException(ioe);
+                }
+            }).collect(Collectors.toList())).get();
+
+            long numParsed = chunks.stream().mapToLong(chunk -> chunk.sources.size()).sum();
+            this.throughput = numParsed / ((System.nanoTime() - start) / 1.0E9);
+
+            // The graph is built as in the sequential reader, so both of them return graphs of the same type.
+            GraphGenerator<V> gg = (multigraph && nodes == null ? new EmptyMultiGraphGenerator<>() : new EmptyGraphGenerator<>());
+            gg.configure(directed, weighted);
+            Graph<V> graph = gg.generate();
+            GraphBuilder<V> builder = new GraphBuilder<>(graph);
+            if (nodes != null)
+            {
+                nodes.getAllObjectsIds().sorted().forEach(i -> graph.addNode(nodes.idx2object(i)));
+            }
+
+            // Simple fast graphs receive the edges by identifier, so their neighborhoods are sorted only once.
+            FastGraph<V> fastGraph = graph instanceof FastGraph && !graph.isMultigraph() ? (FastGraph<V>) graph : null;
+            for (EdgeChunk<V> chunk : chunks)
+            {
+                if (fastGraph == null)
+                {
+                    for (int j = 0; j < chunk.sources.size(); ++j)
+                    {
+                        V source = chunk.nodes.get(chunk.sources.getInt(j));
+                        V dest = chunk.nodes.get(chunk.targets.getInt(j));
+                        builder.addEdge(source, dest, chunk.getWeight(j), chunk.getType(j), nodes == null);
+                    }
+                }
+                else
+                {
+                    // Nodes are added in order of appearance, as if the file was read sequentially.
+                    int[] map = new int[chunk.nodes.size()];
+                    for (int k = 0; k < map.length; ++k)
+                    {
+                        V v = chunk.nodes.get(k);
+                        if (nodes == null)
+                        {
+                            graph.addNode(v);
+                        }
+                        map[k] = nodes == null || nodes.containsObject(v) ? fastGraph.object2idx(v) : -1;
+                    }
+
+                    for (int j = 0; j < chunk.sources.size(); ++j)
+                    {
+                        int uidx = map[chunk.sources.getInt(j)];
+                        int vidx = map[chunk.targets.getInt(j)];
+                        if (uidx >= 0 && vidx >= 0)
+                        {
+                            builder.addEdge(uidx, vidx, chunk.getWeight(j), chunk.getType(j));
+                        }
+                    }
+                }
+            }
+            return builder.build();
+        }
+        catch (ExecutionException ex)
+        {
+            // Malformed lines are reported as in the sequential reader.
+            if (ex.getCause() instanceof RuntimeException && !(ex.getCause() instanceof UncheckedIOException))
+            {
+                throw (RuntimeException) ex.getCause();
+            }
+            ex.printStackTrace();
+            return null;
+        }
+        catch (IOException | InterruptedException | GeneratorNotConfiguredException | GeneratorBadConfiguredException ex)
+        {
+            ex.printStackTrace();
+            return null;
+        }
+        finally
+        {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Splits a file into byte ranges, so that every line belongs to a single range.
+     *
+     * @param channel the channel for reading the file.
+     *
+     * @return an array containing the limits of the ranges: range i goes from position ranges[i] to ranges[i+1]-1.
+     *
+     * @throws IOException if something fails while reading the file.
+     */
+    private long[] split(FileChannel channel) throws IOException
+    {
+        long size = channel.size();
+        long numRanges = Math.max(this.numThreads, (size + MAX_RANGE_SIZE - 1) / MAX_RANGE_SIZE);
+
+        List<Long> limits = new ArrayList<>();
+        limits.add(0L);
+        ByteBuffer buffer = ByteBuffer.allocate(4096);
+        for (long i = 1; i < numRanges; ++i)
+        {
+            // Move the limit to the beginning of the next line.
+            long pos = Math.max(size * i / numRanges, limits.get(limits.size() - 1));
+            boolean found = false;
+            while (!found && pos < size)
+            {
+                buffer.clear();
+                int read = channel.read(buffer, pos);
+                for (int j = 0; j < read && !found; ++j)
+                {
+                    found = buffer.get(j) == '\n';
+                    ++pos;
+                }
+            }
+            if (pos < size && pos > limits.get(limits.size() - 1))
+            {
+                limits.add(pos);
+            }
+        }
+        limits.add(size);
+        return limits.stream().mapToLong(Long::longValue).toArray();
+    }
+
+    /**
+     * Parses the lines contained in a byte range of a file.
+     *
+     * @param channel   the channel for reading the file.
+     * @param from      the first byte of the range.
+     * @param to        the byte after the last one in the range.
+     * @param readTypes true if the types of the edges have to be read.
+     *
+     * @return the edges in the range.
+     *
+     * @throws IOException if something fails while reading the file.
+     */
+    private EdgeChunk<V> parseRange(FileChannel channel, long from, long to, boolean readTypes) throws IOException
+    {
+        byte[] data = new byte[(int) (to - from)];
+        ByteBuffer buffer = ByteBuffer.wrap(data);
+        while (buffer.hasRemaining() && channel.read(buffer, from + buffer.position()) >= 0)
+        {
+            // Keep reading until the range is complete.
+        }
+
+        byte[] delim = this.delimiter.getBytes(StandardCharsets.UTF_8);
+        int numFields = 2 + (weighted ? 1 : 0) + (readTypes ? 1 : 0);
+        int[] fieldStarts = new int[numFields];
+        int[] fieldEnds = new int[numFields];
+
+        EdgeChunk<V> chunk = new EdgeChunk<>(weighted, readTypes);
+        int lineStart = 0;
+        while (lineStart < data.length)
+        {
+            int lineEnd = lineStart;
+            while (lineEnd < data.length && data[lineEnd] != '\n')
+            {
+                ++lineEnd;
+            }
+            int end = (lineEnd > lineStart && data[lineEnd - 1] == '\r') ? lineEnd - 1 : lineEnd;
+
+            // Find the limits of the fields we need.
+            int field = 0;
+            int fieldStart = lineStart;
+            for (int j = lineStart; j <= end && field < numFields; ++j)
+            {
+                if (j == end || matches(data, j, end, delim))
+                {
+                    fieldStarts[field] = fieldStart;
+                    fieldEnds[field] = j;
+                    ++field;
+                    j += (j == end ? 0 : delim.length - 1);
+                    fieldStart = j + 1;
+                }
+            }
+
+            if (field < numFields)
+            {
+                throw new IllegalArgumentException("Malformed line: " + new String(data, lineStart, end - lineStart, StandardCharsets.UTF_8));
+            }
+            else
+            {
+                V source = uParser.parse(new String(data, fieldStarts[0], fieldEnds[0] - fieldStarts[0], StandardCharsets.UTF_8));
+                V dest = uParser.parse(new String(data, fieldStarts[1], fieldEnds[1] - fieldStarts[1], StandardCharsets.UTF_8));
+                if (!source.equals(dest) || selfloops)
+                {
+                    double weight = weighted ? Double.parseDouble(new String(data, fieldStarts[2], fieldEnds[2] - fieldStarts[2], StandardCharsets.UTF_8)) : 1.0;
+                    int type = readTypes ? Integer.parseInt(new String(data, fieldStarts[numFields - 1], fieldEnds[numFields - 1] - fieldStarts[numFields - 1], StandardCharsets.UTF_8)) : 0;
+                    chunk.add(source, dest, weight, type);
+                }
+            }
+            lineStart = lineEnd + 1;
+        }
+        return chunk;
+    }
+
+    /**
+     * Checks whether a delimiter starts at a given position of an array.
+     *
+     * @param data  the array.
+     * @param pos   the position.
+     * @param end   the position after the last valid one.
+     * @param delim the delimiter.
+     *
+     * @return true if the delimiter starts at the position, false otherwise.
+     */
+    private static boolean matches(byte[] data, int pos, int end, byte[] delim)
+    {
+        if (pos + delim.length > end)
+        {
+            return false;
+        }
+        for (int k = 0; k < delim.length; ++k)
+        {
+            if (data[pos + k] != delim[k])
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Edges read from a byte range of a file. Nodes are identified by local identifiers, assigned in order of appearance.
+     *
+     * @param <V> type of the vertices.
+     */
+    private static class EdgeChunk<V>
+    {
+        /**
+         * Nodes appearing in the range, sorted by local identifier.
+         */
+        private final List<V> nodes = new ArrayList<>();
+        /**
+         * Map from nodes to local identifiers.
+         */
+        private final Object2IntOpenHashMap<V> ids = new Object2IntOpenHashMap<>();
+        /**
+         * Local identifiers of the source endpoints of the edges.
+         */
+        private final IntArrayList sources = new IntArrayList();
+        /**
+         * Local identifiers of the incoming endpoints of the edges.
+         */
+        private final IntArrayList targets = new IntArrayList();
+        /**
+         * Weights of the edges (null if they are not read).
+         */
+        private final DoubleArrayList weights;
+        /**
+         * Types of the edges (null if they are not read).
+         */
+        private final IntArrayList types;
+
+        /**
+         * Constructor.
+         *
+         * @param weighted  true if the weights of the edges are read.
+         * @param readTypes true if the types of the edges are read.
+         */
+        EdgeChunk(boolean weighted, boolean readTypes)
+        {
+            this.ids.defaultReturnValue(-1);
+            this.weights = weighted ? new DoubleArrayList() : null;
+            this.types = readTypes ? new IntArrayList() : null;
+        }
+
+        /**
+         * Adds an edge.
+         *
+         * @param source the source endpoint.
+         * @param dest   the incoming endpoint.
+         * @param weight the weight.
+         * @param type   the type.
+         */
+        void add(V source, V dest, double weight, int type)
+        {
+            this.sources.add(this.id(source));
+            this.targets.add(this.id(dest));
+            if (this.weights != null)
+            {
+                this.weights.add(weight);
+            }
+            if (this.types != null)
+            {
+                this.types.add(type);
+            }
+        }
+
+        /**
+         * Obtains the weight of an edge.
+         *
+         * @param j the position of the edge in the chunk.
+         *
+         * @return the weight of the edge (the default one if weights are not read).
+         */
+        double getWeight(int j)
+        {
+            return this.weights != null ? this.weights.getDouble(j) : EdgeWeight.getDefaultValue();
+        }
+
+        /**
+         * Obtains the type of an edge.
+         *
+         * @param j the position of the edge in the chunk.
+         *
+         * @return the type of the edge (the default one if types are not read).
+         */
+        int getType(int j)
+        {
+            return this.types != null ? this.types.getInt(j) : EdgeType.getDefaultValue();
+        }
+
+        /**
+         * Obtains the local identifier of a node, assigning a new one if it has not appeared before.
+         *
+         * @param node the node.
+         *
+         * @return the local identifier.
+         */
+        private int id(V node)
+        {
+            int id = this.ids.getInt(node);
+            if (id < 0)
+            {
+                id = this.nodes.size();
+                this.ids.put(node, id);
+                this.nodes.add(node);
+            }
+            return id;
+        }
+    }
 }
@@ -37,4 +37,19 @@ public class TextMultiGraphReader<V> extends TextGraphReader<V>
     {
         super(true, directed, weighted, selfloops, delimiter, uParser);
     }
+
+    /**
+     * Constructor.
+     *
+     * @param directed   true if the graph is directed, false otherwise.
+     * @param weighted   true if the graph is weighted, false otherwise.
+     * @param selfloops  true if we allow self loops, false otherwise.
+     * @param delimiter  file delimiter.
+     * @param uParser    parser for reading the nodes.
+     * @param numThreads number of threads for reading the graph files (if greater than one, files are read in parallel).
+     */
+    public TextMultiGraphReader(boolean directed, boolean weighted, boolean selfloops, String delimiter, Parser<V> uParser, int numThreads)
+    {
+        super(true, directed, weighted, selfloops, delimiter, uParser, numThreads);
+    }
 }
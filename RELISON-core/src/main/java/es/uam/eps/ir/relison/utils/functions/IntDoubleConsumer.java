@@ -0,0 +1,29 @@
+/*
+ *  Copyright (C) 2021 Information Retrieval Group at Universidad Autónoma
+ *  de Madrid, http://ir.ii.uam.es
+ *
+ *  This Source Code Form is subject to the terms of the Mozilla Public
+ *  License, v. 2.0. If a copy of the MPL was not distributed with this
+ *  file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package es.uam.eps.ir.relison.utils.functions;
+
+/**
+ * Operation that accepts an integer and a double value, and returns no result. It is the
+ * primitive specialization of {@link java.util.function.BiConsumer} for (int, double) pairs,
+ * used, for instance, to traverse the neighbours of a node together with the weights of the edges.
+ *
+ * @author Javier Sanz-Cruzado (javier.sanz-cruzado@uam.es)
+ * @author Pablo Castells (pablo.castells@uam.es)
+ */
+@FunctionalInterface
+public interface IntDoubleConsumer
+{
+    /**
+     * Performs the operation.
+     *
+     * @param idx   the integer value (e.g. the identifier of a node).
+     * @param value the double value (e.g. the weight of an edge).
+     */
+    void accept(int idx, double value);
+}
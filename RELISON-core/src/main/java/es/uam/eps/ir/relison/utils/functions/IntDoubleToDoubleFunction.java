@@ -0,0 +1,31 @@
+/*
+ *  Copyright (C) 2021 Information Retrieval Group at Universidad Autónoma
+ *  de Madrid, http://ir.ii.uam.es
+ *
+ *  This Source Code Form is subject to the terms of the Mozilla Public
+ *  License, v. 2.0. If a copy of the MPL was not distributed with this
+ *  file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package es.uam.eps.ir.relison.utils.functions;
+
+/**
+ * Function that receives an integer and a double value, and produces a double value. It is the
+ * primitive specialization of {@link java.util.function.BiFunction} for (int, double) pairs,
+ * used, for instance, to transform the score of a node.
+ *
+ * @author Javier Sanz-Cruzado (javier.sanz-cruzado@uam.es)
+ * @author Pablo Castells (pablo.castells@uam.es)
+ */
+@FunctionalInterface
+public interface IntDoubleToDoubleFunction
+{
+    /**
+     * Applies the function.
+     *
+     * @param idx   the integer value (e.g. the identifier of a node).
+     * @param value the double value (e.g. the score of the node).
+     *
+     * @return the result of the function.
+     */
+    double apply(int idx, double value);
+}
@@ -0,0 +1,29 @@
+/*
+ *  Copyright (C) 2021 Information Retrieval Group at Universidad Autónoma
+ *  de Madrid, http://ir.ii.uam.es
+ *
+ *  This Source Code Form is subject to the terms of the Mozilla Public
+ *  License, v. 2.0. If a copy of the MPL was not distributed with this
+ *  file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package es.uam.eps.ir.relison.utils.functions;
+
+/**
+ * Operation that accepts two integer values, and returns no result. It is the primitive specialization
+ * of {@link java.util.function.BiConsumer} for (int, int) pairs, used, for instance, to traverse the nodes
+ * reached by a search together with their distance to the source.
+ *
+ * @author Javier Sanz-Cruzado (javier.sanz-cruzado@uam.es)
+ * @author Pablo Castells (pablo.castells@uam.es)
+ */
+@FunctionalInterface
+public interface IntIntConsumer
+{
+    /**
+     * Performs the operation.
+     *
+     * @param idx   the first value (e.g. the identifier of a node).
+     * @param value the second value (e.g. the distance to the node).
+     */
+    void accept(int idx, int value);
+}
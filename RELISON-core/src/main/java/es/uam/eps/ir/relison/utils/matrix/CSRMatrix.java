@@ -0,0 +1,290 @@
+/*
+ * Copyright (C) 2021 Information Retrieval Group at Universidad Autónoma
+ * de Madrid, http://ir.ii.uam.es
+ *
+ *  This Source Code Form is subject to the terms of the Mozilla Public
+ *  License, v. 2.0. If a copy of the MPL was not distributed with this
+ *  file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package es.uam.eps.ir.relison.utils.matrix;
+
+import es.uam.eps.ir.relison.graph.Graph;
+import es.uam.eps.ir.relison.graph.edges.EdgeOrientation;
+import es.uam.eps.ir.relison.graph.fast.FastGraph;
+import es.uam.eps.ir.relison.index.Index;
+import es.uam.eps.ir.relison.utils.functions.IntDoubleConsumer;
+import it.unimi.dsi.fastutil.doubles.DoubleArrayList;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+
+import java.util.Arrays;
+
+/**
+ * Immutable sparse matrix stored in compressed sparse row (CSR) format. It provides the
+ * matrix-vector products needed by iterative methods, without ever building a dense matrix.
+ *
+ * @author Javier Sanz-Cruzado (javier.sanz-cruzado@uam.es)
+ * @author Pablo Castells (pablo.castells@uam.es)
+ */
+public class CSRMatrix
+{
+    /**
+     * Number of rows of the matrix.
+     */
+    private final int numRows;
+    /**
+     * Number of columns of the matrix.
+     */
+    private final int numColumns;
+    /**
+     * Offsets of the rows in the columns and values arrays (length numRows + 1).
+     */
+    private final int[] offsets;
+    /**
+     * Columns of the non-zero cells.
+     */
+    private final int[] columns;
+    /**
+     * Values of the non-zero cells.
+     */
+    private final double[] values;
+
+    /**
+     * Constructor.
+     *
+     * @param numRows    number of rows of the matrix.
+     * @param numColumns number of columns of the matrix.
+     * @param offsets    offsets of the rows in the columns and values arrays (length numRows + 1).
+     * @param columns    columns of the non-zero cells.
+     * @param values     values of the non-zero cells.
+     */
+    public CSRMatrix(int numRows, int numColumns, int[] offsets, int[] columns, double[] values)
+    {
+        this.numRows = numRows;
+        this.numColumns = numColumns;
+        this.offsets = offsets;
+        this.columns = columns;
+        this.values = values;
+    }
+
+    /**
+     * Builds the adjacency matrix of a graph: the cell (u,v) contains the weight of the edge between u and
+     * v, when v is a neighbor of u in the given orientation. This is the sparse equivalent of
+     * {@link FastGraph#getAdjacencyMatrix(EdgeOrientation)}.
+     *
+     * @param graph  the graph.
+     * @param orient the orientation of the neighborhoods.
+     * @param <U>    type of the users.
+     *
+     * @return the adjacency matrix.
+     */
+    public static <U> CSRMatrix adjacency(FastGraph<U> graph, EdgeOrientation orient)
+    {
+        return adjacency((Graph<U>) graph, orient, true);
+    }
+
+    /**
+     * Builds the adjacency matrix of a graph: the cell (u,v) contains the weight of the edge between u and
+     * v (or one, if weights are not considered), when v is a neighbor of u in the given orientation. Rows and
+     * columns follow the index of {@link Graph#getAdjacencyMatrixMap()}, so this is the sparse equivalent of
+     * {@link Graph#getAdjacencyMatrix(EdgeOrientation)}.
+     *
+     * @param graph    the graph.
+     * @param orient   the orientation of the neighborhoods.
+     * @param weighted true if the weights of the edges are stored, false if every edge has value one.
+     * @param <U>      type of the users.
+     *
+     * @return the adjacency matrix.
+     */
+    public static <U> CSRMatrix adjacency(Graph<U> graph, EdgeOrientation orient, boolean weighted)
+    {
+        Index<U> index = graph.getAdjacencyMatrixMap();
+        int numNodes = index.numObjects();
+        int[] offsets = new int[numNodes + 1];
+        IntArrayList columns = new IntArrayList();
+        DoubleArrayList values = new DoubleArrayList();
+        for (int uidx = 0; uidx < numNodes; ++uidx)
+        {
+            if (graph instanceof FastGraph)
+            {
+                ((FastGraph<U>) graph).forEachWeightedNeighbor(uidx, orient, (vidx, weight) ->
+                {
+                    columns.add(vidx);
+                    values.add(weighted ? weight : 1.0);
+                });
+            }
+            else
+            {
+                graph.getNeighbourhoodWeights(index.idx2object(uidx), orient).forEach(w ->
+                {
+                    columns.add(index.object2idx(w.getIdx()));
+                    values.add(weighted ? w.getValue() : 1.0);
+                });
+            }
+            offsets[uidx + 1] = columns.size();
+        }
+        return new CSRMatrix(numNodes, numNodes, offsets, columns.toIntArray(), values.toDoubleArray());
+    }
+
+    /**
+     * Obtains the number of rows of the matrix.
+     *
+     * @return the number of rows.
+     */
+    public int numRows()
+    {
+        return this.numRows;
+    }
+
+    /**
+     * Obtains the number of columns of the matrix.
+     *
+     * @return the number of columns.
+     */
+    public int numColumns()
+    {
+        return this.numColumns;
+    }
+
+    /**
+     * Obtains the number of non-zero cells of the matrix.
+     *
+     * @return the number of non-zero cells.
+     */
+    public int numNonZeros()
+    {
+        return this.offsets[this.numRows];
+    }
+
+    /**
+     * Obtains the value of a cell.
+     *
+     * @param row    the row.
+     * @param column the column.
+     *
+     * @return the value of the cell.
+     */
+    public double get(int row, int column)
+    {
+        double value = 0.0;
+        for (int j = this.offsets[row]; j < this.offsets[row + 1]; ++j)
+        {
+            if (this.columns[j] == column)
+            {
+                value += this.values[j];
+            }
+        }
+        return value;
+    }
+
+    /**
+     * Applies an action over the non-zero cells of a row.
+     *
+     * @param row    the row.
+     * @param action the action, which receives the column and the value of each cell.
+     */
+    public void forEachInRow(int row, IntDoubleConsumer action)
+    {
+        for (int j = this.offsets[row]; j < this.offsets[row + 1]; ++j)
+        {
+            action.accept(this.columns[j], this.values[j]);
+        }
+    }
+
+    /**
+     * Obtains the sum of the values in each row.
+     *
+     * @return an array containing the sum of each row.
+     */
+    public double[] rowSums()
+    {
+        double[] sums = new double[this.numRows];
+        for (int i = 0; i < this.numRows; ++i)
+        {
+            for (int j = this.offsets[i]; j < this.offsets[i + 1]; ++j)
+            {
+                sums[i] += this.values[j];
+            }
+        }
+        return sums;
+    }
+
+    /**
+     * Obtains the sum of all the values in the matrix.
+     *
+     * @return the sum.
+     */
+    public double sum()
+    {
+        double sum = 0.0;
+        for (int j = 0; j < this.numNonZeros(); ++j)
+        {
+            sum += this.values[j];
+        }
+        return sum;
+    }
+
+    /**
+     * Computes the product y = Mx.
+     *
+     * @param x the vector to multiply (length numColumns).
+     * @param y the vector where the result is stored (length numRows).
+     */
+    public void multiply(double[] x, double[] y)
+    {
+        for (int i = 0; i < this.numRows; ++i)
+        {
+            double value = 0.0;
+            for (int j = this.offsets[i]; j < this.offsets[i + 1]; ++j)
+            {
+                value += this.values[j] * x[this.columns[j]];
+            }
+            y[i] = value;
+        }
+    }
+
+    /**
+     * Computes the product y = Mx, distributing the rows of the matrix between several threads.
+     *
+     * @param x the vector to multiply (length numColumns).
+     * @param y the vector where the result is stored (length numRows).
+     */
+    public void parallelMultiply(double[] x, double[] y)
+    {
+        PowerIteration.forEachRange(this.numRows, (begin, end) ->
+        {
+            for (int i = begin; i < end; ++i)
+            {
+                double value = 0.0;
+                for (int j = this.offsets[i]; j < this.offsets[i + 1]; ++j)
+                {
+                    value += this.values[j] * x[this.columns[j]];
+                }
+                y[i] = value;
+            }
+        });
+    }
+
+    /**
+     * Computes the product y = M<sup>T</sup>x, i.e. the transpose of the row vector x<sup>T</sup>M. Zero
+     * entries of x are skipped, so the product is cheap when x is sparse (e.g. in the first steps of a
+     * propagation from a single node).
+     *
+     * @param x the vector to multiply (length numRows).
+     * @param y the vector where the result is stored (length numColumns).
+     */
+    public void multiplyTranspose(double[] x, double[] y)
+    {
+        Arrays.fill(y, 0.0);
+        for (int i = 0; i < this.numRows; ++i)
+        {
+            double xi = x[i];
+            if (xi != 0.0)
+            {
+                for (int j = this.offsets[i]; j < this.offsets[i + 1]; ++j)
+                {
+                    y[this.columns[j]] += this.values[j] * xi;
+                }
+            }
+        }
+    }
+}
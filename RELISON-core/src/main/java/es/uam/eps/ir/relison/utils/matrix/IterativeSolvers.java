@@ -0,0 +1,293 @@
+/*
+ * Copyright (C) 2021 Information Retrieval Group at Universidad Autónoma
+ * de Madrid, http://ir.ii.uam.es
+ *
+ *  This Source Code Form is subject to the terms of the Mozilla Public
+ *  License, v. 2.0. If a copy of the MPL was not distributed with this
+ *  file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package es.uam.eps.ir.relison.utils.matrix;
+
+import java.util.Arrays;
+
+/**
+ * Iterative methods for solving sparse linear systems and eigenvalue problems. The matrices are never
+ * stored explicitly: the methods only need a way of multiplying them by a vector.
+ *
+ * <p>
+ * <b>References:</b>
+ * </p>
+ * <ol>
+ *     <li>Y. Saad. Iterative methods for sparse linear systems, 2nd edition. SIAM (2003)</li>
+ *     <li>H.A. van der Vorst. Bi-CGSTAB: a fast and smoothly converging variant of Bi-CG for the solution of nonsymmetric linear systems. SIAM Journal on Scientific and Statistical Computing 13(2), pp. 631-644 (1992)</li>
+ * </ol>
+ *
+ * @author Javier Sanz-Cruzado (javier.sanz-cruzado@uam.es)
+ * @author Pablo Castells (pablo.castells@uam.es)
+ */
+public class IterativeSolvers
+{
+    /**
+     * A linear operator, i.e. a matrix which is only accessed through matrix-vector products.
+     */
+    @FunctionalInterface
+    public interface LinearOperator
+    {
+        /**
+         * Computes the product y = Ax.
+         *
+         * @param x the vector to multiply.
+         * @param y the vector where the result is stored.
+         */
+        void apply(double[] x, double[] y);
+    }
+
+    /**
+     * Solves the system Ax = b using the conjugate gradient method. The matrix must be symmetric and positive definite.
+     *
+     * @param op        the matrix A.
+     * @param b         the right-hand side of the system.
+     * @param x         the initial solution, where the final solution is stored.
+     * @param tolerance the maximum relative norm of the residual (with respect to the norm of b).
+     * @param maxIter   the maximum number of iterations.
+     *
+     * @return the number of iterations.
+     */
+    public static int conjugateGradient(LinearOperator op, double[] b, double[] x, double tolerance, int maxIter)
+    {
+        int n = b.length;
+        double[] r = new double[n];
+        double[] p = new double[n];
+        double[] ap = new double[n];
+
+        op.apply(x, ap);
+        for (int i = 0; i < n; ++i)
+        {
+            r[i] = b[i] - ap[i];
+        }
+        System.arraycopy(r, 0, p, 0, n);
+
+        double threshold = tolerance * tolerance * dot(b, b);
+        double rr = dot(r, r);
+        int iter = 0;
+        while (iter < maxIter && rr > threshold)
+        {
+            op.apply(p, ap);
+            double pap = dot(p, ap);
+            if (pap == 0.0)
+            {
+                break;
+            }
+            double alpha = rr / pap;
+            for (int i = 0; i < n; ++i)
+            {
+                x[i] += alpha * p[i];
+                r[i] -= alpha * ap[i];
+            }
+            double newRR = dot(r, r);
+            double beta = newRR / rr;
+            for (int i = 0; i < n; ++i)
+            {
+                p[i] = r[i] + beta * p[i];
+            }
+            rr = newRR;
+            ++iter;
+        }
+        return iter;
+    }
+
+    /**
+     * Solves the system Ax = b using the stabilized bi-conjugate gradient method (BiCGSTAB), valid for
+     * general (non-symmetric) matrices.
+     *
+     * @param op        the matrix A.
+     * @param b         the right-hand side of the system.
+     * @param x         the initial solution, where the final solution is stored.
+     * @param tolerance the maximum relative norm of the residual (with respect to the norm of b).
+     * @param maxIter   the maximum number of iterations.
+     *
+     * @return the number of iterations.
+     */
+    public static int biCGStab(LinearOperator op, double[] b, double[] x, double tolerance, int maxIter)
+    {
+        int n = b.length;
+        double[] r = new double[n];
+        double[] rHat = new double[n];
+        double[] p = new double[n];
+        double[] v = new double[n];
+        double[] s = new double[n];
+        double[] t = new double[n];
+
+        op.apply(x, v);
+        for (int i = 0; i < n; ++i)
+        {
+            r[i] = b[i] - v[i];
+        }
+        System.arraycopy(r, 0, rHat, 0, n);
+        Arrays.fill(v, 0.0);
+
+        double threshold = tolerance * tolerance * dot(b, b);
+        double rho = 1.0;
+        double alpha = 1.0;
+        double omega = 1.0;
+        int iter = 0;
+        while (iter < maxIter && dot(r, r) > threshold)
+        {
+            double newRho = dot(rHat, r);
+            if (newRho == 0.0 || omega == 0.0)
+            {
+                // Breakdown: restart the method from the current solution.
+                System.arraycopy(r, 0, rHat, 0, n);
+                Arrays.fill(p, 0.0);
+                Arrays.fill(v, 0.0);
+                rho = 1.0;
+                alpha = 1.0;
+                omega = 1.0;
+                newRho = dot(r, r);
+            }
+            double beta = (newRho / rho) * (alpha / omega);
+            for (int i = 0; i < n; ++i)
+            {
+                p[i] = r[i] + beta * (p[i] - omega * v[i]);
+            }
+            op.apply(p, v);
+            alpha = newRho / dot(rHat, v);
+            for (int i = 0; i < n; ++i)
+            {
+                s[i] = r[i] - alpha * v[i];
+            }
+            if (dot(s, s) <= threshold)
+            {
+                for (int i = 0; i < n; ++i)
+                {
+                    x[i] += alpha * p[i];
+                }
+                return iter + 1;
+            }
+
+            op.apply(s, t);
+            double tt = dot(t, t);
+            omega = tt == 0.0 ? 0.0 : dot(t, s) / tt;
+            for (int i = 0; i < n; ++i)
+            {
+                x[i] += alpha * p[i] + omega * s[i];
+                r[i] = s[i] - omega * t[i];
+            }
+            rho = newRho;
+            ++iter;
+        }
+        return iter;
+    }
+
+    /**
+     * Computes a row of the matrix (I - bA)<sup>-1</sup> using its Neumann series, i.e. the row of
+     * &Sigma;<sub>t &ge; 0</sub> b<sup>t</sup>A<sup>t</sup>. The series converges when b is smaller
+     * than the inverse of the spectral radius of A. The terms are obtained by propagating the row
+     * through the non-zero cells of the matrix, so the first iterations only touch the neighborhood of the row.
+     *
+     * @param matrix    the square matrix A.
+     * @param row       the row to compute.
+     * @param b         the factor b.
+     * @param tolerance the maximum relative norm of the last term (with respect to the norm of the sum).
+     * @param maxIter   the maximum number of terms of the series.
+     *
+     * @return the row of the matrix.
+     */
+    public static double[] neumannRow(CSRMatrix matrix, int row, double b, double tolerance, int maxIter)
+    {
+        int n = matrix.numRows();
+        double[] sum = new double[n];
+        double[] term = new double[n];
+        double[] next = new double[n];
+        term[row] = 1.0;
+        sum[row] = 1.0;
+
+        for (int iter = 0; iter < maxIter; ++iter)
+        {
+            matrix.multiplyTranspose(term, next);
+            double termNorm = 0.0;
+            double sumNorm = 0.0;
+            for (int i = 0; i < n; ++i)
+            {
+                next[i] *= b;
+                sum[i] += next[i];
+                termNorm += Math.abs(next[i]);
+                sumNorm += Math.abs(sum[i]);
+            }
+
+            double[] aux = term;
+            term = next;
+            next = aux;
+            if (termNorm <= tolerance * sumNorm)
+            {
+                break;
+            }
+        }
+        return sum;
+    }
+
+    /**
+     * Finds the largest eigenvalue of a non-negative square matrix (its Perron root) using the power method. To
+     * guarantee the convergence on periodic matrices (e.g. bipartite graphs), the iteration is run over A + I.
+     *
+     * @param matrix    the matrix.
+     * @param tolerance the maximum difference between the estimations of two consecutive iterations.
+     * @param maxIter   the maximum number of iterations.
+     *
+     * @return the largest eigenvalue.
+     */
+    public static double largestEigenvalue(CSRMatrix matrix, double tolerance, int maxIter)
+    {
+        int n = matrix.numRows();
+        double[] x = new double[n];
+        double[] y = new double[n];
+        Arrays.fill(x, 1.0 / Math.sqrt(n));
+
+        double lambda = 0.0;
+        for (int iter = 0; iter < maxIter; ++iter)
+        {
+            matrix.multiply(x, y);
+            double norm = 0.0;
+            for (int i = 0; i < n; ++i)
+            {
+                y[i] += x[i];
+                norm += y[i] * y[i];
+            }
+            norm = Math.sqrt(norm);
+            if (norm == 0.0)
+            {
+                return 0.0;
+            }
+
+            double newLambda = norm - 1.0;
+            for (int i = 0; i < n; ++i)
+            {
+                x[i] = y[i] / norm;
+            }
+            if (Math.abs(newLambda - lambda) <= tolerance * Math.max(1.0, Math.abs(newLambda)))
+            {
+                return newLambda;
+            }
+            lambda = newLambda;
+        }
+        return lambda;
+    }
+
+    /**
+     * Computes the dot product of two vectors.
+     *
+     * @param x the first vector.
+     * @param y the second vector.
+     *
+     * @return the dot product.
+     */
+    private static double dot(double[] x, double[] y)
+    {
+        double sum = 0.0;
+        for (int i = 0; i < x.length; ++i)
+        {
+            sum += x[i] * y[i];
+        }
+        return sum;
+    }
+}
@@ -27,7 +27,12 @@ public enum MatrixLibrary
     /**
      * Identifier for the JBLAS library.
      */
-    JBLAS;
+    JBLAS,
+    /**
+     * Identifier for the sparse implementation, which relies on iterative methods over a sparse matrix,
+     * and never builds dense matrices.
+     */
+    SPARSE;
 
     @Override
     public String toString()
@@ -37,6 +42,7 @@ public enum MatrixLibrary
             case COLT -> "colt";
             case MTJ -> "mtj";
             case JBLAS -> "jblas";
+            case SPARSE -> "sparse";
         };
     }
 
@@ -52,6 +58,7 @@ public enum MatrixLibrary
             case "colt" -> COLT;
             case "mtj" -> MTJ;
             case "jblas" -> JBLAS;
+            case "sparse" -> SPARSE;
             default -> null;
         };
     }
@@ -0,0 +1,258 @@
+/*
+ * Copyright (C) 2021 Information Retrieval Group at Universidad Autónoma
+ * de Madrid, http://ir.ii.uam.es
+ *
+ *  This Source Code Form is subject to the terms of the Mozilla Public
+ *  License, v. 2.0. If a copy of the MPL was not distributed with this
+ *  file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package es.uam.eps.ir.relison.utils.matrix;
+
+import es.uam.eps.ir.relison.utils.functions.IntIntConsumer;
+
+import java.util.function.IntToDoubleFunction;
+import java.util.stream.IntStream;
+
+/**
+ * Engine for fixed-point (power) iterations x<sub>t+1</sub> = f(x<sub>t</sub>) over primitive vectors, such as
+ * those used for computing PageRank, HITS, eigenvector or Katz centralities. Only two vectors are kept in
+ * memory, and the iteration stops when the largest change of a single value between two consecutive
+ * iterations is smaller than a tolerance, or after a maximum number of iterations.
+ *
+ * @author Javier Sanz-Cruzado (javier.sanz-cruzado@uam.es)
+ * @author Pablo Castells (pablo.castells@uam.es)
+ */
+public class PowerIteration
+{
+    /**
+     * Minimum number of elements processed by a single thread.
+     */
+    private static final int MIN_CHUNK = 1024;
+
+    /**
+     * The maximum change of a single value between two iterations for considering that the iteration has converged.
+     */
+    private final double tolerance;
+    /**
+     * The maximum number of iterations.
+     */
+    private final int maxIter;
+
+    /**
+     * A single step of the iteration.
+     */
+    @FunctionalInterface
+    public interface Step
+    {
+        /**
+         * Computes the next vector of the iteration.
+         *
+         * @param current the current vector.
+         * @param next    the vector where the next values are stored.
+         */
+        void apply(double[] current, double[] next);
+    }
+
+    /**
+     * The outcome of an iteration.
+     */
+    public static class Result
+    {
+        /**
+         * The final vector.
+         */
+        private final double[] values;
+        /**
+         * The number of iterations run.
+         */
+        private final int iterations;
+        /**
+         * The maximum change of a single value in the last iteration.
+         */
+        private final double error;
+        /**
+         * Whether the iteration converged before reaching the maximum number of iterations.
+         */
+        private final boolean converged;
+
+        /**
+         * Constructor.
+         *
+         * @param values     the final vector.
+         * @param iterations the number of iterations run.
+         * @param error      the maximum change of a single value in the last iteration.
+         * @param converged  whether the iteration converged before reaching the maximum number of iterations.
+         */
+        public Result(double[] values, int iterations, double error, boolean converged)
+        {
+            this.values = values;
+            this.iterations = iterations;
+            this.error = error;
+            this.converged = converged;
+        }
+
+        /**
+         * Obtains the final vector.
+         *
+         * @return the final vector.
+         */
+        public double[] getValues()
+        {
+            return values;
+        }
+
+        /**
+         * Obtains the number of iterations run.
+         *
+         * @return the number of iterations.
+         */
+        public int getIterations()
+        {
+            return iterations;
+        }
+
+        /**
+         * Obtains the maximum change of a single value in the last iteration.
+         *
+         * @return the change.
+         */
+        public double getError()
+        {
+            return error;
+        }
+
+        /**
+         * Checks whether the iteration converged before reaching the maximum number of iterations.
+         *
+         * @return true if it converged, false otherwise.
+         */
+        public boolean hasConverged()
+        {
+            return converged;
+        }
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param tolerance the maximum change of a single value between two iterations for considering that
+     *                  the iteration has converged.
+     * @param maxIter   the maximum number of iterations.
+     */
+    public PowerIteration(double tolerance, int maxIter)
+    {
+        this.tolerance = tolerance;
+        this.maxIter = maxIter;
+    }
+
+    /**
+     * Runs the iteration.
+     *
+     * @param initial the initial vector. It might be modified.
+     * @param step    the function computing each step of the iteration.
+     *
+     * @return the outcome of the iteration.
+     */
+    public Result run(double[] initial, Step step)
+    {
+        int n = initial.length;
+        double[] current = initial;
+        double[] next = new double[n];
+        double error = Double.POSITIVE_INFINITY;
+        int iter = 0;
+        while (iter < this.maxIter && error >= this.tolerance)
+        {
+            step.apply(current, next);
+            error = maxDifference(current, next);
+
+            double[] aux = current;
+            current = next;
+            next = aux;
+            ++iter;
+        }
+        return new Result(current, iter, error, error < this.tolerance);
+    }
+
+    /**
+     * Finds the maximum absolute difference between the elements of two vectors.
+     *
+     * @param x the first vector.
+     * @param y the second vector.
+     *
+     * @return the maximum difference.
+     */
+    public static double maxDifference(double[] x, double[] y)
+    {
+        return IntStream.range(0, numChunks(x.length)).parallel().mapToDouble(chunk ->
+        {
+            int begin = chunkBegin(x.length, chunk);
+            int end = chunkBegin(x.length, chunk + 1);
+            double max = 0.0;
+            for (int i = begin; i < end; ++i)
+            {
+                max = Math.max(max, Math.abs(x[i] - y[i]));
+            }
+            return max;
+        }).max().orElse(0.0);
+    }
+
+    /**
+     * Sums a function over a range of elements [0, n), distributing the elements between several threads.
+     *
+     * @param n        the number of elements.
+     * @param function the function to sum. It might have side effects over the corresponding element.
+     *
+     * @return the sum.
+     */
+    public static double sum(int n, IntToDoubleFunction function)
+    {
+        return IntStream.range(0, numChunks(n)).parallel().mapToDouble(chunk ->
+        {
+            int end = chunkBegin(n, chunk + 1);
+            double sum = 0.0;
+            for (int i = chunkBegin(n, chunk); i < end; ++i)
+            {
+                sum += function.applyAsDouble(i);
+            }
+            return sum;
+        }).sum();
+    }
+
+    /**
+     * Distributes a range of elements [0, n) in consecutive chunks, which are processed by different threads.
+     *
+     * @param n      the number of elements.
+     * @param action the action to apply over each chunk. It receives the first element of the chunk, and the
+     *               element after the last one.
+     */
+    public static void forEachRange(int n, IntIntConsumer action)
+    {
+        IntStream.range(0, numChunks(n)).parallel().forEach(chunk -> action.accept(chunkBegin(n, chunk), chunkBegin(n, chunk + 1)));
+    }
+
+    /**
+     * Obtains the number of chunks in which a range of elements is divided.
+     *
+     * @param n the number of elements.
+     *
+     * @return the number of chunks.
+     */
+    private static int numChunks(int n)
+    {
+        int threads = Runtime.getRuntime().availableProcessors();
+        return Math.max(1, Math.min(4 * threads, n / MIN_CHUNK));
+    }
+
+    /**
+     * Obtains the first element of a chunk.
+     *
+     * @param n     the number of elements.
+     * @param chunk the chunk.
+     *
+     * @return the first element of the chunk.
+     */
+    private static int chunkBegin(int n, int chunk)
+    {
+        return (int) ((long) n * chunk / numChunks(n));
+    }
+}
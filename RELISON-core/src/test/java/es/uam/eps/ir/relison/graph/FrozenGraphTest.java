@@ -0,0 +1,159 @@
+package es.uam.eps.ir.relison.graph;
+
+/*
+ *  Copyright (C) 2021 Information Retrieval Group at Universidad Autónoma
+ *  de Madrid, http://ir.ii.uam.es
+ *
+ *  This Source Code Form is subject to the terms of the Mozilla Public
+ *  License, v. 2.0. If a copy of the MPL was not distributed with this
+ *  file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+
+import es.uam.eps.ir.ranksys.fast.preference.IdxPref;
+import es.uam.eps.ir.relison.graph.edges.EdgeOrientation;
+import es.uam.eps.ir.relison.graph.fast.FastDirectedWeightedGraph;
+import es.uam.eps.ir.relison.graph.fast.FastGraph;
+import es.uam.eps.ir.relison.graph.fast.FastUndirectedUnweightedGraph;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.*;
+
+/**
+ * Class for testing the immutable CSR graphs obtained by freezing other graphs.
+ *
+ * @author Javier Sanz-Cruzado (javier.sanz-cruzado@uam.es)
+ * @author Pablo Castells (pablo.castells@uam.es)
+ */
+public class FrozenGraphTest
+{
+    /**
+     * Checks that the primitive traversal of the neighborhoods of a graph is equivalent to the stream-based one.
+     *
+     * @param graph the graph.
+     */
+    private static void checkTraversal(FastGraph<Integer> graph)
+    {
+        graph.getAllNodesIds().forEach(uidx ->
+        {
+            for (EdgeOrientation orient : EdgeOrientation.values())
+            {
+                List<Integer> neighbors = new ArrayList<>();
+                graph.forEachNeighbor(uidx, orient, neighbors::add);
+                assertEquals(graph.getNeighborhood(uidx, orient).collect(Collectors.toList()), neighbors);
+                assertEquals(neighbors.size(), graph.getNeighborhoodSize(uidx, orient));
+
+                List<IdxPref> expected = graph.getNeighborhoodWeights(uidx, orient).collect(Collectors.toList());
+                List<IdxPref> weights = new ArrayList<>();
+                graph.forEachWeightedNeighbor(uidx, orient, (vidx, weight) -> weights.add(new IdxPref(vidx, weight)));
+                assertEquals(expected.size(), weights.size());
+                for (int i = 0; i < expected.size(); ++i)
+                {
+                    assertEquals(expected.get(i).v1, weights.get(i).v1);
+                    assertEquals(expected.get(i).v2, weights.get(i).v2, 0.00001);
+                }
+            }
+        });
+    }
+
+    /**
+     * Checks that a frozen graph contains exactly the same information as the original one.
+     *
+     * @param graph  the original graph.
+     * @param frozen the frozen graph.
+     */
+    private static void check(FastGraph<Integer> graph, FastGraph<Integer> frozen)
+    {
+        assertEquals(graph.isDirected(), frozen.isDirected());
+        assertEquals(graph.isWeighted(), frozen.isWeighted());
+        assertEquals(graph.getVertexCount(), frozen.getVertexCount());
+        assertEquals(graph.getEdgeCount(), frozen.getEdgeCount());
+
+        graph.getAllNodes().forEach(u ->
+        {
+            int uidx = graph.object2idx(u);
+            assertEquals(uidx, frozen.object2idx(u));
+            for (EdgeOrientation orient : EdgeOrientation.values())
+            {
+                List<Integer> expected = graph.getNeighborhood(uidx, orient).collect(Collectors.toList());
+                List<Integer> actual = frozen.getNeighborhood(uidx, orient).collect(Collectors.toList());
+                assertEquals(expected, actual);
+                assertEquals(graph.degree(u, orient), frozen.degree(u, orient));
+            }
+
+            graph.getAdjacentNodesWeights(u).forEach(w ->
+            {
+                assertTrue(frozen.containsEdge(u, w.getIdx()));
+                assertEquals(w.getValue(), frozen.getEdgeWeight(u, w.getIdx()), 0.00001);
+                assertEquals(graph.getEdgeType(u, w.getIdx()), frozen.getEdgeType(u, w.getIdx()));
+            });
+            assertEquals(graph.hasMutualNeighbors(u), frozen.hasMutualNeighbors(u));
+        });
+
+        checkTraversal(graph);
+        checkTraversal(frozen);
+
+        assertEquals(graph.getIsolatedNodeIds().boxed().collect(Collectors.toList()), frozen.getIsolatedNodeIds().boxed().collect(Collectors.toList()));
+    }
+
+    @Test
+    public void directed()
+    {
+        Random rnd = new Random(0);
+        int n = 500;
+        FastGraph<Integer> graph = new FastDirectedWeightedGraph<>();
+        for (int i = 0; i < n; ++i)
+        {
+            graph.addNode(n - i);
+        }
+        for (int i = 0; i < 5000; ++i)
+        {
+            graph.addEdge(1 + rnd.nextInt(n), 1 + rnd.nextInt(n), rnd.nextDouble(), rnd.nextInt(3));
+        }
+
+        FastGraph<Integer> frozen = Adapters.freeze(graph);
+        check(graph, frozen);
+
+        try
+        {
+            frozen.addEdge(1, 2);
+            fail();
+        }
+        catch (UnsupportedOperationException ignored)
+        {
+        }
+    }
+
+    @Test
+    public void undirected()
+    {
+        Random rnd = new Random(1);
+        int n = 500;
+        FastGraph<Integer> graph = new FastUndirectedUnweightedGraph<>();
+        for (int i = 0; i < n + 10; ++i)
+        {
+            graph.addNode(i);
+        }
+        for (int i = 0; i < 3000; ++i)
+        {
+            graph.addEdge(rnd.nextInt(n), rnd.nextInt(n));
+        }
+
+        FastGraph<Integer> frozen = Adapters.freeze(graph);
+        check(graph, frozen);
+
+        try
+        {
+            frozen.addNode(n + 20);
+            fail();
+        }
+        catch (UnsupportedOperationException ignored)
+        {
+        }
+        assertEquals(n + 10, frozen.getVertexCount());
+    }
+}
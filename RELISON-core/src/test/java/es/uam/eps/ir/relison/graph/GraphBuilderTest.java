@@ -0,0 +1,102 @@
+package es.uam.eps.ir.relison.graph;
+
+/*
+ *  Copyright (C) 2021 Information Retrieval Group at Universidad Autónoma
+ *  de Madrid, http://ir.ii.uam.es
+ *
+ *  This Source Code Form is subject to the terms of the Mozilla Public
+ *  License, v. 2.0. If a copy of the MPL was not distributed with this
+ *  file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+
+import es.uam.eps.ir.relison.graph.edges.EdgeOrientation;
+import es.uam.eps.ir.relison.graph.fast.*;
+import org.junit.Test;
+
+import java.util.Random;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.*;
+
+/**
+ * Class for testing the bulk construction of graphs.
+ *
+ * @author Javier Sanz-Cruzado (javier.sanz-cruzado@uam.es)
+ * @author Pablo Castells (pablo.castells@uam.es)
+ */
+public class GraphBuilderTest
+{
+    /**
+     * Builds the same graph by adding the edges one by one and in bulk, and checks that both are equal.
+     *
+     * @param supplier provides empty graphs.
+     * @param seed     random seed.
+     */
+    private static void check(Supplier<FastGraph<Integer>> supplier, long seed)
+    {
+        Random rnd = new Random(seed);
+        int n = 200;
+        FastGraph<Integer> expected = supplier.get();
+        FastGraph<Integer> actual = supplier.get();
+        GraphBuilder<Integer> builder = new GraphBuilder<>(actual);
+
+        // Some nodes and edges exist before the bulk insertion.
+        for (int i = 0; i < n / 2; ++i)
+        {
+            expected.addNode(n - i);
+            actual.addNode(n - i);
+        }
+        for (int i = 0; i < 300; ++i)
+        {
+            Integer u = n - rnd.nextInt(n / 2);
+            Integer v = n - rnd.nextInt(n / 2);
+            double weight = rnd.nextDouble();
+            int type = rnd.nextInt(3);
+            expected.addEdge(u, v, weight, type);
+            actual.addEdge(u, v, weight, type);
+        }
+
+        // Repeated edges, reversed edges and autoloops.
+        for (int i = 0; i < 5000; ++i)
+        {
+            Integer u = rnd.nextInt(n);
+            Integer v = rnd.nextInt(20) == 0 ? u : rnd.nextInt(n);
+            double weight = rnd.nextDouble();
+            int type = rnd.nextInt(3);
+            expected.addEdge(u, v, weight, type);
+            builder.addEdge(u, v, weight, type, true);
+        }
+        assertSame(actual, builder.build());
+
+        assertEquals(expected.getVertexCount(), actual.getVertexCount());
+        assertEquals(expected.getEdgeCount(), actual.getEdgeCount());
+        expected.getAllNodes().forEach(u ->
+        {
+            assertEquals(expected.object2idx(u), actual.object2idx(u));
+            for (EdgeOrientation orient : EdgeOrientation.values())
+            {
+                assertEquals(expected.getNeighbourhood(u, orient).collect(Collectors.toList()), actual.getNeighbourhood(u, orient).collect(Collectors.toList()));
+            }
+            expected.getAdjacentNodes(u).forEach(v ->
+            {
+                assertEquals(expected.getEdgeWeight(u, v), actual.getEdgeWeight(u, v), 0.00001);
+                assertEquals(expected.getEdgeType(u, v), actual.getEdgeType(u, v));
+            });
+        });
+    }
+
+    @Test
+    public void directed()
+    {
+        check(FastDirectedWeightedGraph::new, 0);
+        check(FastDirectedUnweightedGraph::new, 1);
+    }
+
+    @Test
+    public void undirected()
+    {
+        check(FastUndirectedWeightedGraph::new, 2);
+        check(FastUndirectedUnweightedGraph::new, 3);
+    }
+}
@@ -0,0 +1,125 @@
+package es.uam.eps.ir.relison.io.graph;
+
+/*
+ *  Copyright (C) 2021 Information Retrieval Group at Universidad Autónoma
+ *  de Madrid, http://ir.ii.uam.es
+ *
+ *  This Source Code Form is subject to the terms of the Mozilla Public
+ *  License, v. 2.0. If a copy of the MPL was not distributed with this
+ *  file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+
+import es.uam.eps.ir.relison.graph.Graph;
+import es.uam.eps.ir.relison.graph.edges.EdgeOrientation;
+import es.uam.eps.ir.relison.graph.fast.FastDirectedWeightedGraph;
+import es.uam.eps.ir.relison.graph.fast.FastGraph;
+import es.uam.eps.ir.relison.graph.fast.FastUndirectedUnweightedGraph;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.*;
+
+/**
+ * Class for testing the memory-mapped binary graph format.
+ *
+ * @author Javier Sanz-Cruzado (javier.sanz-cruzado@uam.es)
+ * @author Pablo Castells (pablo.castells@uam.es)
+ */
+public class MappedGraphTest
+{
+    /**
+     * Temporary folder for storing the graphs.
+     */
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    /**
+     * Checks that two graphs contain the same nodes and edges.
+     *
+     * @param graph      the original graph.
+     * @param read       the graph read from the file.
+     * @param checkTypes whether the types of the edges have to be compared.
+     */
+    private static void check(Graph<Long> graph, Graph<Long> read, boolean checkTypes)
+    {
+        assertNotNull(read);
+        assertEquals(graph.isDirected(), read.isDirected());
+        assertEquals(graph.isWeighted(), read.isWeighted());
+        assertEquals(graph.getVertexCount(), read.getVertexCount());
+        assertEquals(graph.getEdgeCount(), read.getEdgeCount());
+
+        graph.getAllNodes().forEach(u ->
+        {
+            for (EdgeOrientation orient : EdgeOrientation.values())
+            {
+                assertEquals(graph.getNeighbourhood(u, orient).sorted().collect(Collectors.toList()), read.getNeighbourhood(u, orient).sorted().collect(Collectors.toList()));
+            }
+            graph.getAdjacentNodes(u).forEach(v ->
+            {
+                assertEquals(graph.getEdgeWeight(u, v), read.getEdgeWeight(u, v), 0.00001);
+                if (checkTypes)
+                {
+                    assertEquals(graph.getEdgeType(u, v), read.getEdgeType(u, v));
+                }
+            });
+        });
+    }
+
+    @Test
+    public void directed() throws IOException
+    {
+        Random rnd = new Random(0);
+        int n = 300;
+        FastGraph<Long> graph = new FastDirectedWeightedGraph<>();
+        for (long i = 0; i < n; ++i)
+        {
+            graph.addNode(1000L - i);
+        }
+        for (int i = 0; i < 3000; ++i)
+        {
+            graph.addEdge(1000L - rnd.nextInt(n), 1000L - rnd.nextInt(n), rnd.nextDouble(), rnd.nextInt(3));
+        }
+
+        File file = folder.newFile();
+        assertTrue(new MappedGraphWriter().write(graph, file.getAbsolutePath(), true, true));
+        check(graph, new MappedGraphReader().read(file.getAbsolutePath(), true, true), true);
+
+        // Without weights, the weights take the default value.
+        Graph<Long> unweighted = new MappedGraphReader().read(file.getAbsolutePath(), false, false);
+        assertNotNull(unweighted);
+        assertTrue(unweighted.isWeighted());
+        graph.getAllNodes().forEach(u -> graph.getAdjacentNodes(u).forEach(v -> assertEquals(1.0, unweighted.getEdgeWeight(u, v), 0.00001)));
+
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        assertTrue(new MappedGraphWriter().write(graph, output));
+        check(graph, new MappedGraphReader().read(new ByteArrayInputStream(output.toByteArray())), false);
+    }
+
+    @Test
+    public void undirected() throws IOException
+    {
+        Random rnd = new Random(1);
+        int n = 300;
+        FastGraph<Long> graph = new FastUndirectedUnweightedGraph<>();
+        for (long i = 0; i < n + 5; ++i)
+        {
+            graph.addNode(i);
+        }
+        for (int i = 0; i < 2000; ++i)
+        {
+            graph.addEdge((long) rnd.nextInt(n), (long) rnd.nextInt(n));
+        }
+
+        File file = folder.newFile();
+        assertTrue(new MappedGraphWriter().write(graph, file.getAbsolutePath()));
+        check(graph, new MappedGraphReader().read(file.getAbsolutePath()), true);
+    }
+}
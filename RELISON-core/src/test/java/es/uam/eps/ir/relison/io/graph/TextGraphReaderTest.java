@@ -0,0 +1,193 @@
+package es.uam.eps.ir.relison.io.graph;
+
+/*
+ *  Copyright (C) 2021 Information Retrieval Group at Universidad Autónoma
+ *  de Madrid, http://ir.ii.uam.es
+ *
+ *  This Source Code Form is subject to the terms of the Mozilla Public
+ *  License, v. 2.0. If a copy of the MPL was not distributed with this
+ *  file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+
+import es.uam.eps.ir.relison.graph.Graph;
+import es.uam.eps.ir.relison.graph.edges.EdgeOrientation;
+import es.uam.eps.ir.relison.graph.fast.FastGraph;
+import es.uam.eps.ir.relison.index.Index;
+import es.uam.eps.ir.relison.index.fast.FastIndex;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.ranksys.formats.parsing.Parsers;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.*;
+
+/**
+ * Class for testing the parallel reading of graphs from text files.
+ *
+ * @author Javier Sanz-Cruzado (javier.sanz-cruzado@uam.es)
+ * @author Pablo Castells (pablo.castells@uam.es)
+ */
+public class TextGraphReaderTest
+{
+    /**
+     * Temporary folder for storing the graphs.
+     */
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    /**
+     * Writes a random edge list (including repeated edges and autoloops) into a file.
+     *
+     * @param seed the random seed.
+     * @param n    the number of nodes.
+     * @param m    the number of lines.
+     *
+     * @return the file.
+     *
+     * @throws IOException if something fails while writing the file.
+     */
+    private File write(long seed, int n, int m) throws IOException
+    {
+        Random rnd = new Random(seed);
+        File file = folder.newFile();
+        try (PrintWriter pw = new PrintWriter(file))
+        {
+            for (int i = 0; i < m; ++i)
+            {
+                pw.print(rnd.nextInt(n) + "\t" + rnd.nextInt(n) + "\t" + rnd.nextDouble() + "\t" + rnd.nextInt(3));
+                pw.print(i % 7 == 0 ? "\r\n" : "\n");
+            }
+        }
+        return file;
+    }
+
+    /**
+     * Checks that two graphs contain the same nodes (with the same identifiers) and edges.
+     *
+     * @param expected   the graph read sequentially.
+     * @param actual     the graph read in parallel.
+     * @param checkTypes whether the types of the edges have to be compared.
+     */
+    private static void check(Graph<Long> expected, Graph<Long> actual, boolean checkTypes)
+    {
+        assertNotNull(actual);
+        assertEquals(expected.getClass(), actual.getClass());
+        assertEquals(expected.isDirected(), actual.isDirected());
+        assertEquals(expected.isWeighted(), actual.isWeighted());
+        assertEquals(expected.getVertexCount(), actual.getVertexCount());
+        assertEquals(expected.getEdgeCount(), actual.getEdgeCount());
+
+        expected.getAllNodes().forEach(u ->
+        {
+            assertEquals(((FastGraph<Long>) expected).object2idx(u), ((FastGraph<Long>) actual).object2idx(u));
+            for (EdgeOrientation orient : EdgeOrientation.values())
+            {
+                assertEquals(expected.getNeighbourhood(u, orient).sorted().collect(Collectors.toList()), actual.getNeighbourhood(u, orient).sorted().collect(Collectors.toList()));
+            }
+            expected.getAdjacentNodes(u).forEach(v ->
+            {
+                assertEquals(expected.getEdgeWeight(u, v), actual.getEdgeWeight(u, v), 0.00001);
+                if (checkTypes)
+                {
+                    assertEquals(expected.getEdgeType(u, v), actual.getEdgeType(u, v));
+                }
+            });
+        });
+    }
+
+    @Test
+    public void directed() throws IOException
+    {
+        File file = this.write(0, 500, 20000);
+        TextGraphReader<Long> sequential = new TextGraphReader<>(true, true, false, "\t", Parsers.lp);
+        TextGraphReader<Long> parallel = new TextGraphReader<>(true, true, false, "\t", Parsers.lp, 4);
+
+        check(sequential.read(file.getAbsolutePath(), true, true), parallel.read(file.getAbsolutePath(), true, true), true);
+        assertTrue(parallel.getThroughput() > 0.0);
+        assertTrue(Double.isNaN(sequential.getThroughput()));
+
+        // Nodes given by an index: edges with unknown endpoints are discarded.
+        Index<Long> nodes = new FastIndex<>();
+        for (long i = 600; i >= 100; --i)
+        {
+            nodes.addObject(i);
+        }
+        check(sequential.read(file.getAbsolutePath(), true, false, nodes), parallel.read(file.getAbsolutePath(), true, false, nodes), false);
+    }
+
+    @Test
+    public void undirected() throws IOException
+    {
+        File file = this.write(1, 300, 10000);
+        TextGraphReader<Long> sequential = new TextGraphReader<>(false, false, true, "\t", Parsers.lp);
+        TextGraphReader<Long> parallel = new TextGraphReader<>(false, false, true, "\t", Parsers.lp, 3);
+
+        check(sequential.read(file.getAbsolutePath()), parallel.read(file.getAbsolutePath()), true);
+    }
+
+    @Test
+    public void mutable() throws IOException
+    {
+        File file = this.write(2, 100, 1000);
+        TextGraphReader<Long> parallel = new TextGraphReader<>(true, true, false, "\t", Parsers.lp, 4);
+
+        Graph<Long> graph = parallel.read(file.getAbsolutePath(), true, false);
+        long numEdges = graph.getEdgeCount();
+        assertTrue(graph.addEdge(1000L, 1001L));
+        assertEquals(numEdges + 1, graph.getEdgeCount());
+    }
+
+    @Test
+    public void multigraph() throws IOException
+    {
+        File file = this.write(3, 50, 5000);
+        TextGraphReader<Long> sequential = new TextMultiGraphReader<>(true, true, false, "\t", Parsers.lp);
+        TextGraphReader<Long> parallel = new TextMultiGraphReader<>(true, true, false, "\t", Parsers.lp, 4);
+
+        Graph<Long> expected = sequential.read(file.getAbsolutePath(), true, false);
+        Graph<Long> actual = parallel.read(file.getAbsolutePath(), true, false);
+        assertTrue(actual.isMultigraph());
+        check(expected, actual, false);
+    }
+
+    @Test
+    public void regexDelimiter() throws IOException
+    {
+        Random rnd = new Random(4);
+        File file = folder.newFile();
+        try (PrintWriter pw = new PrintWriter(file))
+        {
+            for (int i = 0; i < 2000; ++i)
+            {
+                pw.println(rnd.nextInt(100) + " ".repeat(1 + rnd.nextInt(3)) + rnd.nextInt(100) + " ".repeat(1 + rnd.nextInt(3)) + rnd.nextDouble());
+            }
+        }
+
+        // The delimiter is a regular expression, so the file is read sequentially.
+        TextGraphReader<Long> sequential = new TextGraphReader<>(true, true, false, " +", Parsers.lp);
+        TextGraphReader<Long> parallel = new TextGraphReader<>(true, true, false, " +", Parsers.lp, 4);
+        check(sequential.read(file.getAbsolutePath()), parallel.read(file.getAbsolutePath()), false);
+        assertTrue(Double.isNaN(parallel.getThroughput()));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void malformed() throws IOException
+    {
+        File file = folder.newFile();
+        try (PrintWriter pw = new PrintWriter(file))
+        {
+            pw.println("1\t2\t0.5");
+            pw.println("3");
+            pw.println("4\t5\t0.5");
+        }
+
+        TextGraphReader<Long> parallel = new TextGraphReader<>(true, true, false, "\t", Parsers.lp, 2);
+        parallel.read(file.getAbsolutePath());
+    }
+}
@@ -0,0 +1,228 @@
+package es.uam.eps.ir.relison.utils.matrix;
+
+/*
+ *  Copyright (C) 2021 Information Retrieval Group at Universidad Autónoma
+ *  de Madrid, http://ir.ii.uam.es
+ *
+ *  This Source Code Form is subject to the terms of the Mozilla Public
+ *  License, v. 2.0. If a copy of the MPL was not distributed with this
+ *  file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+
+import es.uam.eps.ir.relison.graph.edges.EdgeOrientation;
+import es.uam.eps.ir.relison.graph.fast.FastDirectedWeightedGraph;
+import es.uam.eps.ir.relison.graph.fast.FastGraph;
+import es.uam.eps.ir.relison.graph.fast.FastUndirectedUnweightedGraph;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Class for testing the sparse matrices and the iterative methods.
+ *
+ * @author Javier Sanz-Cruzado (javier.sanz-cruzado@uam.es)
+ * @author Pablo Castells (pablo.castells@uam.es)
+ */
+public class IterativeSolversTest
+{
+    /**
+     * Builds a random graph.
+     *
+     * @param graph an empty graph.
+     * @param seed  the seed of the random number generator.
+     *
+     * @return the graph.
+     */
+    private static FastGraph<Integer> random(FastGraph<Integer> graph, long seed)
+    {
+        Random rnd = new Random(seed);
+        int n = 50;
+        for (int i = 0; i < n; ++i)
+        {
+            graph.addNode(i);
+        }
+        for (int i = 0; i < 200; ++i)
+        {
+            graph.addEdge(rnd.nextInt(n), rnd.nextInt(n), 0.5 + rnd.nextDouble(), 0);
+        }
+        return graph;
+    }
+
+    /**
+     * Solves a dense linear system Mx = b by Gaussian elimination with partial pivoting.
+     *
+     * @param m the matrix.
+     * @param b the right-hand side of the system.
+     *
+     * @return the solution.
+     */
+    private static double[] solve(double[][] m, double[] b)
+    {
+        int n = b.length;
+        double[][] a = new double[n][n + 1];
+        for (int i = 0; i < n; ++i)
+        {
+            System.arraycopy(m[i], 0, a[i], 0, n);
+            a[i][n] = b[i];
+        }
+        for (int c = 0; c < n; ++c)
+        {
+            int pivot = c;
+            for (int r = c + 1; r < n; ++r)
+            {
+                if (Math.abs(a[r][c]) > Math.abs(a[pivot][c]))
+                {
+                    pivot = r;
+                }
+            }
+            double[] aux = a[c];
+            a[c] = a[pivot];
+            a[pivot] = aux;
+            for (int r = 0; r < n; ++r)
+            {
+                if (r != c)
+                {
+                    double factor = a[r][c] / a[c][c];
+                    for (int j = c; j <= n; ++j)
+                    {
+                        a[r][j] -= factor * a[c][j];
+                    }
+                }
+            }
+        }
+        double[] x = new double[n];
+        for (int i = 0; i < n; ++i)
+        {
+            x[i] = a[i][n] / a[i][i];
+        }
+        return x;
+    }
+
+    /**
+     * Checks the iterative methods over the adjacency matrix of a graph.
+     *
+     * @param graph     the graph.
+     * @param symmetric whether the adjacency matrix is symmetric.
+     */
+    private static void check(FastGraph<Integer> graph, boolean symmetric)
+    {
+        double[][] dense = graph.getAdjacencyMatrix(EdgeOrientation.OUT);
+        CSRMatrix adj = CSRMatrix.adjacency(graph, EdgeOrientation.OUT);
+        int n = dense.length;
+        double[] degrees = adj.rowSums();
+
+        // Products.
+        Random rnd = new Random(0);
+        double[] x = new double[n];
+        for (int i = 0; i < n; ++i)
+        {
+            x[i] = rnd.nextDouble();
+        }
+        double[] y = new double[n];
+        double[] yt = new double[n];
+        adj.multiply(x, y);
+        adj.multiplyTranspose(x, yt);
+        for (int i = 0; i < n; ++i)
+        {
+            double expected = 0.0;
+            double expectedT = 0.0;
+            for (int j = 0; j < n; ++j)
+            {
+                expected += dense[i][j] * x[j];
+                expectedT += dense[j][i] * x[j];
+                assertEquals(dense[i][j], adj.get(i, j), 0.00001);
+            }
+            assertEquals(expected, y[i], 0.00001);
+            assertEquals(expectedT, yt[i], 0.00001);
+        }
+
+        // Linear systems: (I + L)^T x = e_u, with L the Laplacian matrix.
+        double[][] m = new double[n][n];
+        for (int i = 0; i < n; ++i)
+        {
+            for (int j = 0; j < n; ++j)
+            {
+                m[j][i] = (i == j ? 1.0 + degrees[i] : 0.0) - dense[i][j];
+            }
+        }
+        IterativeSolvers.LinearOperator op = (v, w) ->
+        {
+            adj.multiplyTranspose(v, w);
+            for (int i = 0; i < n; ++i)
+            {
+                w[i] = v[i] + degrees[i] * v[i] - w[i];
+            }
+        };
+
+        double[] b = new double[n];
+        b[7] = 1.0;
+        double[] expected = solve(m, b);
+        double[] bicg = new double[n];
+        IterativeSolvers.biCGStab(op, b, bicg, 1E-10, 1000);
+        assertArrayEquals(expected, bicg, 0.00001);
+        if (symmetric)
+        {
+            double[] cg = new double[n];
+            IterativeSolvers.conjugateGradient(op, b, cg, 1E-10, 1000);
+            assertArrayEquals(expected, cg, 0.00001);
+        }
+
+        // Neumann series: (I - bA)^T x = e_u, with b smaller than the inverse of the largest eigenvalue.
+        double lambda = IterativeSolvers.largestEigenvalue(adj, 1E-12, 10000);
+        double factor = 0.5 / lambda;
+        for (int i = 0; i < n; ++i)
+        {
+            for (int j = 0; j < n; ++j)
+            {
+                m[j][i] = (i == j ? 1.0 : 0.0) - factor * dense[i][j];
+            }
+        }
+        assertArrayEquals(solve(m, b), IterativeSolvers.neumannRow(adj, 7, factor, 1E-12, 1000), 0.00001);
+
+        // The eigenvalue satisfies Ax = lambda x for some non-negative vector.
+        double[] z = new double[n];
+        Arrays.fill(z, 1.0);
+        double[] az = new double[n];
+        for (int iter = 0; iter < 5000; ++iter)
+        {
+            adj.multiply(z, az);
+            double norm = 0.0;
+            for (int i = 0; i < n; ++i)
+            {
+                az[i] += z[i];
+                norm = Math.max(norm, az[i]);
+            }
+            for (int i = 0; i < n; ++i)
+            {
+                z[i] = az[i] / norm;
+            }
+        }
+        adj.multiply(z, az);
+        double max = 0.0;
+        int argmax = 0;
+        for (int i = 0; i < n; ++i)
+        {
+            if (z[i] > max)
+            {
+                max = z[i];
+                argmax = i;
+            }
+        }
+        assertEquals(az[argmax] / z[argmax], lambda, 0.0001);
+    }
+
+    @Test
+    public void directed()
+    {
+        check(random(new FastDirectedWeightedGraph<>(), 0), false);
+    }
+
+    @Test
+    public void undirected()
+    {
+        check(random(new FastUndirectedUnweightedGraph<>(), 1), true);
+    }
+}
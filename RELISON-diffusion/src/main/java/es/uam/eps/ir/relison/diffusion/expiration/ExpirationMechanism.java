@@ -9,6 +9,7 @@
 package es.uam.eps.ir.relison.diffusion.expiration;
 
 import es.uam.eps.ir.relison.diffusion.data.Data;
+import es.uam.eps.ir.relison.diffusion.simulation.SimulationRandom;
 import es.uam.eps.ir.relison.diffusion.simulation.UserState;
 
 import java.io.Serializable;
@@ -36,4 +37,12 @@ public interface ExpirationMechanism<U extends Serializable,I extends Serializab
      * that have expired.
      */
     Stream<Integer> expire(UserState<U> user, Data<U, I, P> data, int numIter, Long timestamp);
+
+    /**
+     * Sets the source of randomness of the mechanism. By default, mechanisms do not use randomness.
+     * @param random the source of randomness of the simulation.
+     */
+    default void setRandom(SimulationRandom random)
+    {
+    }
 }
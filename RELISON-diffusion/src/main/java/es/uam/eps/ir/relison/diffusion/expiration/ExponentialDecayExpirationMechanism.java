@@ -10,10 +10,11 @@ package es.uam.eps.ir.relison.diffusion.expiration;
 
 import es.uam.eps.ir.relison.diffusion.data.Data;
 import es.uam.eps.ir.relison.diffusion.data.Information;
+import es.uam.eps.ir.relison.diffusion.simulation.SimulationRandom;
 import es.uam.eps.ir.relison.diffusion.simulation.UserState;
 
 import java.io.Serializable;
-import java.util.Random;
+import java.util.SplittableRandom;
 import java.util.stream.Stream;
 
 /**
@@ -34,9 +35,9 @@ public class ExponentialDecayExpirationMechanism<U extends Serializable,I extend
      */
     private final double decay;
     /**
-     * Random number generator.
+     * Source of randomness of the simulation.
      */
-    private final Random rng;
+    private SimulationRandom random;
 
     /**
      * Constructor.
@@ -44,7 +45,7 @@ public class ExponentialDecayExpirationMechanism<U extends Serializable,I extend
      */
     public ExponentialDecayExpirationMechanism(double halfLife)
     {
-        this.rng = new Random();
+        this.random = new SimulationRandom();
         
         this.decay = halfLife >= 0.0 ? Math.log(2.0)/halfLife : Double.POSITIVE_INFINITY;
     }
@@ -52,6 +53,7 @@ public class ExponentialDecayExpirationMechanism<U extends Serializable,I extend
     @Override
     public Stream<Integer> expire(UserState<U> user, Data<U,I,P> data, int numIter, Long timestamp)
     {
+        SplittableRandom rng = this.random.getRandom(numIter, SimulationRandom.EXPIRATION, data.getUserIndex().object2idx(user.getUserId()));
         return user.getReceivedInformation().filter(piece -> 
         {
             long time = numIter - piece.getTimestamp();
@@ -60,6 +62,12 @@ public class ExponentialDecayExpirationMechanism<U extends Serializable,I extend
         }).map(Information::getInfoId);
     }
     
+    @Override
+    public void setRandom(SimulationRandom random)
+    {
+        this.random = random;
+    }
+
     /**
      * Computes the probability that the information piece stays in the received list.
      * @param time the difference between creation time and current time.
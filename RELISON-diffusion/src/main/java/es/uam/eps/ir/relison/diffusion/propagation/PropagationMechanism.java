@@ -10,6 +10,7 @@ package es.uam.eps.ir.relison.diffusion.propagation;
 
 import es.uam.eps.ir.relison.diffusion.data.Data;
 import es.uam.eps.ir.relison.diffusion.data.PropagatedInformation;
+import es.uam.eps.ir.relison.diffusion.simulation.SimulationRandom;
 import es.uam.eps.ir.relison.diffusion.simulation.UserState;
 
 import java.io.Serializable;
@@ -49,5 +50,12 @@ public interface PropagationMechanism<U extends Serializable,I extends Serializa
      * @return true if it depends on the information piece, false if it does not.
      */
     boolean dependsOnInformationPiece();
-    
+
+    /**
+     * Sets the source of randomness of the mechanism. By default, mechanisms do not use randomness.
+     * @param random the source of randomness of the simulation.
+     */
+    default void setRandom(SimulationRandom random)
+    {
+    }
 }
@@ -10,6 +10,7 @@ package es.uam.eps.ir.relison.diffusion.propagation;
 
 import es.uam.eps.ir.relison.diffusion.data.Data;
 import es.uam.eps.ir.relison.diffusion.data.PropagatedInformation;
+import es.uam.eps.ir.relison.diffusion.simulation.SimulationRandom;
 import es.uam.eps.ir.relison.diffusion.simulation.UserState;
 import es.uam.eps.ir.relison.graph.edges.EdgeOrientation;
 
@@ -54,6 +55,10 @@ public class PullPushStrategyPropagationMechanism<U extends Serializable,I exten
      * The list of users in the last iterations.
      */
     private final Map<U, List<U>> lastIterations;
+    /**
+     * Source of randomness of the simulation.
+     */
+    private SimulationRandom random;
     
      /**
      * Constructor.
@@ -73,6 +78,7 @@ public class PullPushStrategyPropagationMechanism<U extends Serializable,I exten
     {
         this.waitTime = waitTime;
         this.orientation = orientation;
+        this.random = new SimulationRandom();
         this.lastIterations = new HashMap<>();
         this.propagationList = new HashMap<>();
     }
@@ -88,11 +94,12 @@ public class PullPushStrategyPropagationMechanism<U extends Serializable,I exten
     @Override
     public void resetSelections(Data<U,I,P> data)
     {
-        Random rng = new Random();
         propagationList.clear();
 
         data.getAllUsers().forEach((u)-> 
         {
+            SplittableRandom rng = this.random.getRandom(SimulationRandom.PROPAGATION, data.getUserIndex().object2idx(u));
+
             // We first obtain the set of neighbors of a given user:
             List<U> neighbours = data.getGraph().getNeighbourhood(u, orientation).collect(Collectors.toCollection(ArrayList::new));
 
@@ -149,6 +156,12 @@ public class PullPushStrategyPropagationMechanism<U extends Serializable,I exten
         
     }
 
+    @Override
+    public void setRandom(SimulationRandom random)
+    {
+        this.random = random;
+    }
+
     @Override
     public boolean dependsOnInformationPiece() 
     {
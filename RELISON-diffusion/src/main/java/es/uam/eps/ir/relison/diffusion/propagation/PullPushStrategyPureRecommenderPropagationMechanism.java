@@ -11,6 +11,7 @@ package es.uam.eps.ir.relison.diffusion.propagation;
 import es.uam.eps.ir.relison.diffusion.data.Data;
 import es.uam.eps.ir.relison.diffusion.data.PropagatedInformation;
 import es.uam.eps.ir.relison.diffusion.simulation.SimulationEdgeTypes;
+import es.uam.eps.ir.relison.diffusion.simulation.SimulationRandom;
 import es.uam.eps.ir.relison.diffusion.simulation.UserState;
 import es.uam.eps.ir.relison.graph.edges.EdgeOrientation;
 
@@ -52,6 +53,10 @@ public class PullPushStrategyPureRecommenderPropagationMechanism<U extends Seria
      * The list of users in the last iterations
      */
     private final Map<U, List<U>> lastIterations;
+    /**
+     * Source of randomness of the simulation.
+     */
+    private SimulationRandom random;
 
     /**
      * The orientation for selecting the neighborhood.
@@ -68,6 +73,7 @@ public class PullPushStrategyPureRecommenderPropagationMechanism<U extends Seria
         this.waitTime = waitTime;
         this.lastIterations = new HashMap<>();
         this.orientation = orientation;
+        this.random = new SimulationRandom();
     }
 
     @Override
@@ -81,12 +87,13 @@ public class PullPushStrategyPureRecommenderPropagationMechanism<U extends Seria
     @Override
     public void resetSelections(Data<U,I,P> data)
     {
-        Random rng = new Random();
         propagationList = new HashMap<>();
 
         // For all the users in the system:
         data.getAllUsers().forEach((u)-> 
         {
+            SplittableRandom rng = this.random.getRandom(SimulationRandom.PROPAGATION, data.getUserIndex().object2idx(u));
+
             // We first select a list of neighbors:
             List<U> neighbours = data.getGraph().getNeighbourhood(u, orientation).filter(v ->
             {
@@ -160,6 +167,12 @@ public class PullPushStrategyPureRecommenderPropagationMechanism<U extends Seria
         
     }
 
+    @Override
+    public void setRandom(SimulationRandom random)
+    {
+        this.random = random;
+    }
+
     @Override
     public boolean dependsOnInformationPiece()
     {
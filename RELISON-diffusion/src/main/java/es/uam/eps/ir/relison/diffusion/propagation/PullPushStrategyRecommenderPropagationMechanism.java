@@ -11,6 +11,7 @@ package es.uam.eps.ir.relison.diffusion.propagation;
 import es.uam.eps.ir.relison.diffusion.data.Data;
 import es.uam.eps.ir.relison.diffusion.data.PropagatedInformation;
 import es.uam.eps.ir.relison.diffusion.simulation.SimulationEdgeTypes;
+import es.uam.eps.ir.relison.diffusion.simulation.SimulationRandom;
 import es.uam.eps.ir.relison.diffusion.simulation.UserState;
 import es.uam.eps.ir.relison.graph.edges.EdgeOrientation;
 
@@ -61,9 +62,9 @@ public class PullPushStrategyRecommenderPropagationMechanism<U extends Serializa
      */
     private final double recProb;
     /**
-     * Random number generator.
+     * Source of randomness of the simulation.
      */
-    private final Random rng;
+    private SimulationRandom random;
     
      /**
      * Constructor.
@@ -88,7 +89,7 @@ public class PullPushStrategyRecommenderPropagationMechanism<U extends Serializa
         this.lastIterations = new HashMap<>();
         this.propagationList = new HashMap<>();
         this.recProb = recProb;
-        this.rng = new Random();
+        this.random = new SimulationRandom();
     }
 
     @Override
@@ -107,6 +108,8 @@ public class PullPushStrategyRecommenderPropagationMechanism<U extends Serializa
         // For each user in the network:
         data.getAllUsers().forEach((u)-> 
         {
+            SplittableRandom rng = this.random.getRandom(SimulationRandom.PROPAGATION, data.getUserIndex().object2idx(u));
+
             // We first obtain the list of neighbors obtained through recommendation (and the rest of them).
             List<U> recNeighs = new ArrayList<>();
             List<U> nonRecNeighs = new ArrayList<>();
@@ -234,6 +237,12 @@ public class PullPushStrategyRecommenderPropagationMechanism<U extends Serializa
         
     }
 
+    @Override
+    public void setRandom(SimulationRandom random)
+    {
+        this.random = random;
+    }
+
     @Override
     public boolean dependsOnInformationPiece() 
     {
@@ -10,6 +10,7 @@ package es.uam.eps.ir.relison.diffusion.propagation;
 
 import es.uam.eps.ir.relison.diffusion.data.Data;
 import es.uam.eps.ir.relison.diffusion.data.PropagatedInformation;
+import es.uam.eps.ir.relison.diffusion.simulation.SimulationRandom;
 import es.uam.eps.ir.relison.diffusion.simulation.UserState;
 import es.uam.eps.ir.relison.graph.edges.EdgeOrientation;
 
@@ -50,6 +51,10 @@ public class PushStrategyPropagationMechanism<U extends Serializable,I extends S
      * The list of users in the last iterations.
      */
     private final Map<U, List<U>> lastIterations;
+    /**
+     * Source of randomness of the simulation.
+     */
+    private SimulationRandom random;
     /**
      * The orientation for selecting the neighbors.
      */
@@ -64,6 +69,7 @@ public class PushStrategyPropagationMechanism<U extends Serializable,I extends S
         this.waitTime = waitTime;
         this.lastIterations = new HashMap<>();
         this.orientation = orientation;
+        this.random = new SimulationRandom();
     }
 
     @Override
@@ -77,10 +83,11 @@ public class PushStrategyPropagationMechanism<U extends Serializable,I extends S
     @Override
     public void resetSelections(Data<U,I,P> data)
     {
-        Random rng = new Random();
         propagationList = new HashMap<>();
         data.getAllUsers().forEach((u)->
         {
+            SplittableRandom rng = this.random.getRandom(SimulationRandom.PROPAGATION, data.getUserIndex().object2idx(u));
+
             // We first get the list of neighbors of the user:
             List<U> neighbours = data.getGraph().getNeighbourhood(u, orientation).collect(Collectors.toCollection(ArrayList::new));
 
@@ -136,6 +143,12 @@ public class PushStrategyPropagationMechanism<U extends Serializable,I extends S
         
     }
 
+    @Override
+    public void setRandom(SimulationRandom random)
+    {
+        this.random = random;
+    }
+
     @Override
     public boolean dependsOnInformationPiece() 
     {
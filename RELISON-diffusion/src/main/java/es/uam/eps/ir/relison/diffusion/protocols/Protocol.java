@@ -12,6 +12,7 @@ import es.uam.eps.ir.relison.diffusion.expiration.ExpirationMechanism;
 import es.uam.eps.ir.relison.diffusion.propagation.PropagationMechanism;
 import es.uam.eps.ir.relison.diffusion.selections.SelectionMechanism;
 import es.uam.eps.ir.relison.diffusion.sight.SightMechanism;
+import es.uam.eps.ir.relison.diffusion.simulation.SimulationRandom;
 import es.uam.eps.ir.relison.diffusion.update.UpdateMechanism;
 
 import java.io.Serializable;
@@ -109,6 +110,16 @@ public abstract class Protocol<U extends Serializable,I extends Serializable, F>
     {
         return sight;
     }
-    
-    
+
+    /**
+     * Sets the source of randomness of the selection, expiration, propagation and sight mechanisms.
+     * @param random the source of randomness of the simulation.
+     */
+    public void setRandom(SimulationRandom random)
+    {
+        this.selection.setRandom(random);
+        this.expiration.setRandom(random);
+        this.prop.setRandom(random);
+        this.sight.setRandom(random);
+    }
 }
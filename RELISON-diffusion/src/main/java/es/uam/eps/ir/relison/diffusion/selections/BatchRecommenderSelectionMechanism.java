@@ -19,6 +19,7 @@ import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
+import java.util.SplittableRandom;
 
 /**
  * Selects a set of information pieces to propagate depending on the recommendations. When the user has to propagate
@@ -96,6 +97,7 @@ public class BatchRecommenderSelectionMechanism<U extends Serializable,I extends
             
         U u = user.getUserId();
         int userId = data.getUserIndex().object2idx(u);
+        SplittableRandom rng = this.getRandom(numIter, userId, RECEIVED);
         user.getReceivedInformation().forEach(info -> 
         {
             List<Integer> creators = new ArrayList<>(info.getCreators());
@@ -71,6 +71,6 @@ public class CountRealPropagatedSelectionMechanism<U extends Serializable,I exte
         });
 
         // we obtain a selection of such pieces.
-        return this.getPropagatedInformation(userId, this.getNumReceived(), numIter, realProp);
+        return this.getPropagatedInformation(userId, this.getNumReceived(), numIter, realProp, this.getRandom(numIter, userId, RECEIVED));
     }
 }
@@ -10,6 +10,7 @@ package es.uam.eps.ir.relison.diffusion.selections;
 
 import es.uam.eps.ir.relison.diffusion.data.Data;
 import es.uam.eps.ir.relison.diffusion.data.PropagatedInformation;
+import es.uam.eps.ir.relison.diffusion.simulation.SimulationRandom;
 import es.uam.eps.ir.relison.diffusion.simulation.SimulationState;
 import es.uam.eps.ir.relison.diffusion.simulation.UserState;
 
@@ -43,9 +44,21 @@ public class CountSelectionMechanism<U extends Serializable,I extends Serializab
      */
     private final int numRepropagate;
     /**
-     * Random number generator
+     * Key of the random number generator for selecting own information pieces.
      */
-    protected final Random rng;
+    protected static final int OWN = 0;
+    /**
+     * Key of the random number generator for selecting received information pieces.
+     */
+    protected static final int RECEIVED = 1;
+    /**
+     * Key of the random number generator for selecting information pieces to repropagate.
+     */
+    protected static final int REPROPAGATED = 2;
+    /**
+     * Source of randomness of the simulation.
+     */
+    private SimulationRandom random;
     
     /**
      * Constructor.
@@ -58,7 +71,7 @@ public class CountSelectionMechanism<U extends Serializable,I extends Serializab
         this.numOwn = numOwn;
         this.numPropagate = numPropagate;
         this.numRepropagate = numRepropagate;
-        this.rng = new Random();
+        this.random = new SimulationRandom();
     }
     
     /**
@@ -77,7 +90,7 @@ public class CountSelectionMechanism<U extends Serializable,I extends Serializab
         List<PropagatedInformation> ownInfo = user.getOwnInformation().collect(Collectors.toCollection(ArrayList::new));
         int userId = data.getUserIndex().object2idx(user.getUserId());
         
-        return this.getPropagatedInformation(userId, this.numOwn, numIter, ownInfo);
+        return this.getPropagatedInformation(userId, this.numOwn, numIter, ownInfo, this.getRandom(numIter, userId, OWN));
     }
 
     @Override
@@ -86,7 +99,7 @@ public class CountSelectionMechanism<U extends Serializable,I extends Serializab
         List<PropagatedInformation> recInfo = user.getReceivedInformation().collect(Collectors.toCollection(ArrayList::new));
         int userId = data.getUserIndex().object2idx(user.getUserId());
         
-        return this.getPropagatedInformation(userId, this.numPropagate, numIter, recInfo);    
+        return this.getPropagatedInformation(userId, this.numPropagate, numIter, recInfo, this.getRandom(numIter, userId, RECEIVED));    
     }
 
     @Override
@@ -95,7 +108,7 @@ public class CountSelectionMechanism<U extends Serializable,I extends Serializab
         List<PropagatedInformation> repInfo = user.getPropagatedInformation().collect(Collectors.toCollection(ArrayList::new));
         int userId = data.getUserIndex().object2idx(user.getUserId());
         
-        return this.getPropagatedInformation(userId, this.numRepropagate, numIter, repInfo);        
+        return this.getPropagatedInformation(userId, this.numRepropagate, numIter, repInfo, this.getRandom(numIter, userId, REPROPAGATED));        
     }
     
     /**
@@ -104,9 +117,10 @@ public class CountSelectionMechanism<U extends Serializable,I extends Serializab
      * @param count     the (maximum) number of information pieces to retrieve from that list.
      * @param numIter   the current iteration number.
      * @param propInfo  the list of propagated information we want to obtain some pieces from.
+     * @param rng       the random number generator for the selection.
      * @return the list of information pieces to propagate.
      */
-    protected List<PropagatedInformation> getPropagatedInformation(int userId, int count, int numIter, List<PropagatedInformation> propInfo)
+    protected List<PropagatedInformation> getPropagatedInformation(int userId, int count, int numIter, List<PropagatedInformation> propInfo, SplittableRandom rng)
     {
         List<PropagatedInformation> propagatedPieces = new ArrayList<>();
         Set<Integer> setInfo = new HashSet<>();
@@ -132,6 +146,24 @@ public class CountSelectionMechanism<U extends Serializable,I extends Serializab
         return propagatedPieces;
     }
 
+    @Override
+    public void setRandom(SimulationRandom random)
+    {
+        this.random = random;
+    }
+
+    /**
+     * Obtains the random number generator for a user in an iteration.
+     * @param numIter the current iteration number.
+     * @param userId  the identifier of the user.
+     * @param key     the key of the generator ({@link #OWN}, {@link #RECEIVED} or {@link #REPROPAGATED}).
+     * @return the random number generator.
+     */
+    protected SplittableRandom getRandom(int numIter, int userId, int key)
+    {
+        return this.random.getRandom(numIter, SimulationRandom.SELECTION, userId, key);
+    }
+
     /**
      * Gets the number of own information pieces to propagate.
      * @return the number of own information pieces to propagate
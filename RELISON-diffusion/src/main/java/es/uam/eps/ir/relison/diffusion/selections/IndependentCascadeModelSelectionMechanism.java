@@ -18,6 +18,7 @@ import es.uam.eps.ir.relison.graph.edges.EdgeOrientation;
 import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.SplittableRandom;
 
 /**
  * Selects the information pieces to propagate according to the independent cascade protocol, i.e. given an information
@@ -138,6 +139,7 @@ public class IndependentCascadeModelSelectionMechanism<U extends Serializable,I
     {
         List<PropagatedInformation> toPropagate = new ArrayList<>();
         int userId = data.getUserIndex().object2idx(user.getUserId());
+        SplittableRandom rng = this.getRandom(numIter, userId, RECEIVED);
 
         U u = user.getUserId();
 
@@ -217,6 +219,7 @@ public class IndependentCascadeModelSelectionMechanism<U extends Serializable,I
     {
         List<PropagatedInformation> toPropagate = new ArrayList<>();
         int userId = data.getUserIndex().object2idx(user.getUserId());
+        SplittableRandom rng = this.getRandom(numIter, userId, RECEIVED);
 
         user.getReceivedInformation().forEach(info -> 
         {
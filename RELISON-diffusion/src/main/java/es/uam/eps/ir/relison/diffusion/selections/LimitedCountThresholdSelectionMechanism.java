@@ -94,6 +94,6 @@ public class LimitedCountThresholdSelectionMechanism<U extends Serializable,I ex
         });
 
         // We do randomly select the information pieces to propagate among the ones received earlier.
-        return this.getPropagatedInformation(userId, this.getNumReceived(), numIter, aux);
+        return this.getPropagatedInformation(userId, this.getNumReceived(), numIter, aux, this.getRandom(numIter, userId, RECEIVED));
     }    
 }
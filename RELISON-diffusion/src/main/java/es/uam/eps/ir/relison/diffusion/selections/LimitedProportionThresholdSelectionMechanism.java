@@ -97,7 +97,7 @@ public class LimitedProportionThresholdSelectionMechanism<U extends Serializable
         });
 
         // We do randomly select the information pieces to propagate among the ones received earlier.
-        receivedToPropagate = this.getPropagatedInformation(userId, this.getNumReceived(), numIter, aux);
+        receivedToPropagate = this.getPropagatedInformation(userId, this.getNumReceived(), numIter, aux, this.getRandom(numIter, userId, RECEIVED));
         return receivedToPropagate;
     }    
 }
@@ -109,6 +109,6 @@ public class PureRecommenderSelectionMechanism<U extends Serializable,I extends
             }
         });
 
-        return this.getPropagatedInformation(userId, this.getNumReceived(), numIter, fromRec);
+        return this.getPropagatedInformation(userId, this.getNumReceived(), numIter, fromRec, this.getRandom(numIter, userId, RECEIVED));
     }
 }
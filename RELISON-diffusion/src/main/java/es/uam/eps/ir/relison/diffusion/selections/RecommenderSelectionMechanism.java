@@ -11,6 +11,7 @@ package es.uam.eps.ir.relison.diffusion.selections;
 import es.uam.eps.ir.relison.diffusion.data.Data;
 import es.uam.eps.ir.relison.diffusion.data.PropagatedInformation;
 import es.uam.eps.ir.relison.diffusion.simulation.SimulationEdgeTypes;
+import es.uam.eps.ir.relison.diffusion.simulation.SimulationRandom;
 import es.uam.eps.ir.relison.diffusion.simulation.SimulationState;
 import es.uam.eps.ir.relison.diffusion.simulation.UserState;
 import es.uam.eps.ir.relison.graph.edges.EdgeOrientation;
@@ -58,6 +59,10 @@ public class RecommenderSelectionMechanism<U extends Serializable,I extends Seri
      * It indicates the neighborhood that sends the information pieces.
      */
     private final EdgeOrientation orientation;
+    /**
+     * Source of randomness of the simulation.
+     */
+    private SimulationRandom random;
     
     /**
      * Constructor.
@@ -73,6 +78,7 @@ public class RecommenderSelectionMechanism<U extends Serializable,I extends Seri
         this.prob = prob;
         this.orientation = orientation;
         this.numRepropagate = SelectionConstants.NONE;
+        this.random = new SimulationRandom();
     }
 
     /**
@@ -90,6 +96,7 @@ public class RecommenderSelectionMechanism<U extends Serializable,I extends Seri
         this.prob = prob;
         this.orientation = orientation;
         this.numRepropagate = numRepr;
+        this.random = new SimulationRandom();
     }
 
     @Override
@@ -98,7 +105,7 @@ public class RecommenderSelectionMechanism<U extends Serializable,I extends Seri
         // Variables for generating the selection
         int userId = data.getUserIndex().object2idx(user.getUserId());
         
-        Random rng = new Random();
+        SplittableRandom rng = this.random.getRandom(numIter, SimulationRandom.SELECTION, userId);
         List<PropagatedInformation> ownToPropagate = new ArrayList<>();
         List<PropagatedInformation> receivedToPropagate = new ArrayList<>();
         
@@ -242,4 +249,10 @@ public class RecommenderSelectionMechanism<U extends Serializable,I extends Seri
     {
         return data.getAllUsers();
     }
+
+    @Override
+    public void setRandom(SimulationRandom random)
+    {
+        this.random = random;
+    }
 }
@@ -9,6 +9,7 @@
 package es.uam.eps.ir.relison.diffusion.selections;
 
 import es.uam.eps.ir.relison.diffusion.data.Data;
+import es.uam.eps.ir.relison.diffusion.simulation.SimulationRandom;
 import es.uam.eps.ir.relison.diffusion.simulation.SimulationState;
 import es.uam.eps.ir.relison.diffusion.simulation.UserState;
 
@@ -48,4 +49,12 @@ public interface SelectionMechanism<U extends Serializable,I extends Serializabl
      * @return a stream containing the users who can propagate information.
      */
     Stream<U> getSelectableUsers(Data<U, I, P> data, SimulationState<U, I, P> state, int numIter, Long timestamp);
+
+    /**
+     * Sets the source of randomness of the mechanism. By default, mechanisms do not use randomness.
+     * @param random the source of randomness of the simulation.
+     */
+    default void setRandom(SimulationRandom random)
+    {
+    }
 }
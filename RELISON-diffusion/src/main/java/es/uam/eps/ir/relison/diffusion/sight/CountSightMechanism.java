@@ -10,6 +10,7 @@ package es.uam.eps.ir.relison.diffusion.sight;
 
 import es.uam.eps.ir.relison.diffusion.data.Data;
 import es.uam.eps.ir.relison.diffusion.data.PropagatedInformation;
+import es.uam.eps.ir.relison.diffusion.simulation.SimulationRandom;
 import es.uam.eps.ir.relison.diffusion.simulation.UserState;
 
 import java.io.Serializable;
@@ -33,6 +34,10 @@ public class CountSightMechanism<U extends Serializable,I extends Serializable,P
      * Number of pieces of information that a user sees in a single iteration.
      */
     private final int numSight;
+    /**
+     * Source of randomness of the simulation.
+     */
+    private SimulationRandom random;
 
     /**
      * Constructor.
@@ -41,6 +46,7 @@ public class CountSightMechanism<U extends Serializable,I extends Serializable,P
     public CountSightMechanism(int numSight)
     {
         this.numSight = numSight;
+        this.random = new SimulationRandom();
     }
 
 
@@ -68,7 +74,7 @@ public class CountSightMechanism<U extends Serializable,I extends Serializable,P
         }
         else
         {
-            Collections.shuffle(pieces);
+            SimulationRandom.shuffle(pieces, this.random.getRandom(SimulationRandom.SIGHT, data.getUserIndex().object2idx(user.getUserId())));
             pieces.subList(0, this.numSight).forEach(id -> defList.addAll(info.get(id)));
         }
 
@@ -79,5 +85,10 @@ public class CountSightMechanism<U extends Serializable,I extends Serializable,P
     public void resetSelections(Data<U,I,P> data)
     {
     }
-    
+
+    @Override
+    public void setRandom(SimulationRandom random)
+    {
+        this.random = random;
+    }
 }
@@ -11,12 +11,14 @@ package es.uam.eps.ir.relison.diffusion.sight;
 import es.uam.eps.ir.relison.diffusion.data.Data;
 import es.uam.eps.ir.relison.diffusion.data.PropagatedInformation;
 import es.uam.eps.ir.relison.diffusion.simulation.SimulationEdgeTypes;
+import es.uam.eps.ir.relison.diffusion.simulation.SimulationRandom;
 import es.uam.eps.ir.relison.diffusion.simulation.UserState;
 import es.uam.eps.ir.relison.graph.Graph;
 import es.uam.eps.ir.relison.graph.edges.EdgeOrientation;
 
 import java.io.Serializable;
 import java.util.*;
+import java.util.stream.Collectors;
 
 /**
  * This mechanism applies two different probabilities: one for observing information
@@ -50,9 +52,9 @@ public class RecommendedSightMechanism<U extends Serializable,I extends Serializ
      */
     private final double probTrain;
     /**
-     * Random number generator
+     * Source of randomness of the simulation.
      */
-    private final Random rng;
+    private SimulationRandom random;
 
     /**
      * Orientation for indicating whih neighbors of the user propagate the information.
@@ -69,7 +71,7 @@ public class RecommendedSightMechanism<U extends Serializable,I extends Serializ
         this.neighbors = new HashMap<>();
         this.probRec = probRec;
         this.probTrain = probTrain;
-        this.rng = new Random();
+        this.random = new SimulationRandom();
         this.orientation = orient;
     }
     
@@ -99,8 +101,29 @@ public class RecommendedSightMechanism<U extends Serializable,I extends Serializ
         }
     }
     
+    @Override
+    public List<PropagatedInformation> seesInformation(UserState<U> user, Data<U,I,P> data, List<PropagatedInformation> prop)
+    {
+        // A single random number generator is used for all the pieces received by the user.
+        SplittableRandom rng = this.random.getRandom(SimulationRandom.SIGHT, data.getUserIndex().object2idx(user.getUserId()));
+        return prop.stream().filter(info -> this.seesInformation(user, data, info, rng)).collect(Collectors.toCollection(ArrayList::new));
+    }
+
     @Override
     public boolean seesInformation(UserState<U> user, Data<U,I,P> data, PropagatedInformation prop)
+    {
+        return this.seesInformation(user, data, prop, this.random.getRandom(SimulationRandom.SIGHT, data.getUserIndex().object2idx(user.getUserId())));
+    }
+
+    /**
+     * Determines whether the user sees a propagated information piece.
+     * @param user the current state of the user.
+     * @param data the simulation data.
+     * @param prop the propagated information piece.
+     * @param rng  the random number generator.
+     * @return true if the user sees the piece, false otherwise.
+     */
+    private boolean seesInformation(UserState<U> user, Data<U,I,P> data, PropagatedInformation prop, SplittableRandom rng)
     {
         boolean propagate = prop.getCreators().stream().map(creator -> 
         {
@@ -118,4 +141,10 @@ public class RecommendedSightMechanism<U extends Serializable,I extends Serializ
             
         return propagate && !user.containsPropagatedInformation(prop.getInfoId());
     }
+
+    @Override
+    public void setRandom(SimulationRandom random)
+    {
+        this.random = random;
+    }
 }
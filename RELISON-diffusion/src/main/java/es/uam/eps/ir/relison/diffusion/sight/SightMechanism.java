@@ -10,6 +10,7 @@ package es.uam.eps.ir.relison.diffusion.sight;
 
 import es.uam.eps.ir.relison.diffusion.data.Data;
 import es.uam.eps.ir.relison.diffusion.data.PropagatedInformation;
+import es.uam.eps.ir.relison.diffusion.simulation.SimulationRandom;
 import es.uam.eps.ir.relison.diffusion.simulation.UserState;
 
 import java.io.Serializable;
@@ -44,4 +45,12 @@ public interface SightMechanism<U extends Serializable,I extends Serializable,P>
      * @return a list containing all the information that the user pays attention to from the list of received pieces.
      */
     List<PropagatedInformation> seesInformation(UserState<U> user, Data<U,I,P> data, List<PropagatedInformation> prop);
+
+    /**
+     * Sets the source of randomness of the mechanism. By default, mechanisms do not use randomness.
+     * @param random the source of randomness of the simulation.
+     */
+    default void setRandom(SimulationRandom random)
+    {
+    }
 }
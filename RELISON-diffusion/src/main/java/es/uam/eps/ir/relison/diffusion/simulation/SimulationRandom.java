@@ -0,0 +1,173 @@
+/*
+ *  Copyright (C) 2020 Information Retrieval Group at Universidad Autónoma
+ *  de Madrid, http://ir.ii.uam.es
+ *
+ *  This Source Code Form is subject to the terms of the Mozilla Public
+ *  License, v. 2.0. If a copy of the MPL was not distributed with this
+ *  file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package es.uam.eps.ir.relison.diffusion.simulation;
+
+import java.io.Serializable;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Source of randomness for the mechanisms of a simulation. Instead of sharing a single random number generator,
+ * every mechanism obtains an independent generator for each combination of (seed, iteration, phase, user). The
+ * generator is seeded by hashing that key, so the numbers drawn for a user in an iteration do not depend on the order
+ * in which users are processed, nor on the number of threads. Therefore, two simulations with the same seed produce
+ * the same cascades.
+ *
+ * @author Javier Sanz-Cruzado (javier.sanz-cruzado@uam.es)
+ * @author Pablo Castells (pablo.castells@uam.es)
+ */
+public class SimulationRandom implements Serializable
+{
+    /**
+     * Identifier for the selection phase.
+     */
+    public static final int SELECTION = 0;
+    /**
+     * Identifier for the expiration phase.
+     */
+    public static final int EXPIRATION = 1;
+    /**
+     * Identifier for the propagation phase.
+     */
+    public static final int PROPAGATION = 2;
+    /**
+     * Identifier for the sight phase.
+     */
+    public static final int SIGHT = 3;
+
+    /**
+     * Increment of the SplitMix64 generator.
+     */
+    private static final long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;
+
+    /**
+     * The seed of the simulation.
+     */
+    private final long seed;
+    /**
+     * The current iteration of the simulation.
+     */
+    private int iteration;
+
+    /**
+     * Constructor. The seed is chosen at random.
+     */
+    public SimulationRandom()
+    {
+        this(new SplittableRandom().nextLong());
+    }
+
+    /**
+     * Constructor.
+     * @param seed the seed of the simulation.
+     */
+    public SimulationRandom(long seed)
+    {
+        this.seed = seed;
+        this.iteration = 0;
+    }
+
+    /**
+     * Obtains the seed of the simulation.
+     * @return the seed.
+     */
+    public long getSeed()
+    {
+        return this.seed;
+    }
+
+    /**
+     * Sets the current iteration of the simulation. It must not be changed while the phases of an iteration are
+     * being executed.
+     * @param iteration the current iteration.
+     */
+    public void setIteration(int iteration)
+    {
+        this.iteration = iteration;
+    }
+
+    /**
+     * Obtains the current iteration of the simulation.
+     * @return the current iteration.
+     */
+    public int getIteration()
+    {
+        return this.iteration;
+    }
+
+    /**
+     * Obtains the random number generator for a user in a phase of the current iteration.
+     * @param phase the phase of the iteration.
+     * @param user  the index of the user.
+     * @return the random number generator.
+     */
+    public SplittableRandom getRandom(int phase, int user)
+    {
+        return this.getRandom(this.iteration, phase, user, 0);
+    }
+
+    /**
+     * Obtains the random number generator for a user in a phase of an iteration.
+     * @param numIter the iteration.
+     * @param phase   the phase of the iteration.
+     * @param user    the index of the user.
+     * @return the random number generator.
+     */
+    public SplittableRandom getRandom(int numIter, int phase, int user)
+    {
+        return this.getRandom(numIter, phase, user, 0);
+    }
+
+    /**
+     * Obtains the random number generator for a user in a phase of an iteration. The key allows a mechanism to
+     * use several independent generators for the same user and phase.
+     * @param numIter the iteration.
+     * @param phase   the phase of the iteration.
+     * @param user    the index of the user.
+     * @param key     an additional key.
+     * @return the random number generator.
+     */
+    public SplittableRandom getRandom(int numIter, int phase, int user, int key)
+    {
+        long h = mix(this.seed + GOLDEN_GAMMA * (numIter + 1L));
+        h = mix(h + GOLDEN_GAMMA * (phase + 1L));
+        h = mix(h + GOLDEN_GAMMA * (user + 1L));
+        h = mix(h + GOLDEN_GAMMA * (key + 1L));
+        return new SplittableRandom(h);
+    }
+
+    /**
+     * Randomly permutes a list.
+     * @param list the list.
+     * @param rng  the random number generator.
+     * @param <T>  the type of the elements in the list.
+     */
+    public static <T> void shuffle(List<T> list, SplittableRandom rng)
+    {
+        for(int i = list.size() - 1; i > 0; --i)
+        {
+            int j = rng.nextInt(i + 1);
+            T aux = list.get(i);
+            list.set(i, list.get(j));
+            list.set(j, aux);
+        }
+    }
+
+    /**
+     * Finalization step of the SplitMix64 generator.
+     * @param z the value to mix.
+     * @return the mixed value.
+     */
+    private static long mix(long z)
+    {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -18,11 +18,32 @@ import es.uam.eps.ir.relison.diffusion.stop.StopCondition;
 
 import java.io.Serializable;
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.BiFunction;
+import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
 /**
  * Class for the execution of information propagation simulations.
  *
+ * <p>
+ * Optionally, each iteration can be executed in parallel. In that case, every phase of the iteration (selection,
+ * expiration, propagation, sight and reception) is applied over contiguous partitions of the users (sorted by their
+ * index in the data) on a {@link ForkJoinPool}. Each partition only modifies the state of its own users and, in
+ * the propagation phase, fills its own receive buffer. The outcomes of the partitions are then merged in order, so
+ * the result of the simulation does not depend on the number of threads (as long as the mechanisms of the protocol
+ * only draw random numbers from the {@link SimulationRandom} object). The throughput of the last simulation can be obtained through {@link #getThroughput()}.
+ * </p>
+ *
+ * <p>
+ * The randomness of the mechanisms is provided by a {@link SimulationRandom} object, which derives an independent
+ * random number generator for each user and phase of an iteration from a single seed. Therefore, two executions
+ * with the same seed produce the same cascades, regardless of whether they are run sequentially or in parallel.
+ * </p>
+ *
  * @author Javier Sanz-Cruzado (javier.sanz-cruzado@uam.es)
  * @author Pablo Castells (pablo.castells@uam.es)
  *
@@ -40,6 +61,14 @@ public class Simulator<U extends Serializable,I extends Serializable,P> implemen
      * Communication protocol.
      */
     private final Protocol<U,I,P> protocol;
+    /**
+     * Number of threads for executing each iteration (if greater than one, the users are processed in parallel).
+     */
+    private final int numThreads;
+    /**
+     * Number of partitions of the users per thread in the parallel execution.
+     */
+    private static final int PARTITIONS_PER_THREAD = 4;
     /**
      * The data to use in the simulation.
      */
@@ -70,16 +99,73 @@ public class Simulator<U extends Serializable,I extends Serializable,P> implemen
      */
     private Long currentTimestamp;
     /**
-     * Full constructor.
+     * Number of user updates per second during the last simulation.
+     */
+    private double throughput = Double.NaN;
+    /**
+     * The seed of the simulation (null if a random seed is chosen every time the simulation is initialized).
+     */
+    private Long seed;
+    /**
+     * Source of randomness of the simulation.
+     */
+    private SimulationRandom random;
+
+    /**
+     * Constructor. The simulation is executed sequentially, with a random seed.
      * @param protocol the communication protocol to apply.
      * @param stop     the stop condition of the simulation.
      */
     public Simulator(Protocol<U,I,P> protocol, StopCondition<U,I,P> stop)
+    {
+        this(protocol, stop, 1);
+    }
+
+    /**
+     * Constructor. A random seed is chosen every time the simulation is initialized.
+     * @param protocol   the communication protocol to apply.
+     * @param stop       the stop condition of the simulation.
+     * @param numThreads number of threads for executing each iteration (if greater than one, users are processed in parallel).
+     */
+    public Simulator(Protocol<U,I,P> protocol, StopCondition<U,I,P> stop, int numThreads)
+    {
+        this(protocol, stop, numThreads, null);
+    }
+
+    /**
+     * Full constructor.
+     * @param protocol   the communication protocol to apply.
+     * @param stop       the stop condition of the simulation.
+     * @param numThreads number of threads for executing each iteration (if greater than one, users are processed in parallel).
+     * @param seed       the seed of the simulation (null if a random seed has to be chosen every time the simulation is initialized).
+     */
+    public Simulator(Protocol<U,I,P> protocol, StopCondition<U,I,P> stop, int numThreads, Long seed)
     {
         this.protocol = protocol;
         this.stop = stop;
+        this.numThreads = numThreads;
+        this.seed = seed;
+        this.random = seed == null ? new SimulationRandom() : new SimulationRandom(seed);
         this.state = new SimulationState<>();
     }
+
+    /**
+     * Sets the seed of the simulation. It has to be set before initializing the simulation.
+     * @param seed the seed of the simulation (null if a random seed has to be chosen every time the simulation is initialized).
+     */
+    public void setSeed(Long seed)
+    {
+        this.seed = seed;
+    }
+
+    /**
+     * Obtains the seed of the last initialized simulation.
+     * @return the seed of the simulation.
+     */
+    public long getSeed()
+    {
+        return this.random.getSeed();
+    }
     
     /**
      * Initializes and prepares the data.
@@ -89,8 +175,11 @@ public class Simulator<U extends Serializable,I extends Serializable,P> implemen
     {
         this.data = data;
         this.state.initialize(this.data);
+        this.random = this.seed == null ? new SimulationRandom() : new SimulationRandom(this.seed);
+        this.protocol.setRandom(this.random);
         System.out.println("Filtering done");
         System.out.println(this.data.dataSummary());
+        System.out.println("Random seed: " + this.random.getSeed());
         this.numIter = 0;
         this.currentTimestamp = data.getTimestamps().first();
     }
@@ -104,8 +193,11 @@ public class Simulator<U extends Serializable,I extends Serializable,P> implemen
     {
         this.data = data;
         this.state = simulation.getFinalState(this.protocol.getUpdate());
+        this.random = this.seed == null ? new SimulationRandom() : new SimulationRandom(this.seed);
+        this.protocol.setRandom(this.random);
         System.out.println("Filtering done");
         System.out.println(this.data.dataSummary());
+        System.out.println("Random seed: " + this.random.getSeed());
         this.numIter = simulation.getInitialNumber() + simulation.getNumIterations();
         long timestamp = data.getTimestamps().first();
         for(int i = 0; i < simulation.getInitialNumber() + simulation.getNumIterations(); ++i)
@@ -136,6 +228,8 @@ public class Simulator<U extends Serializable,I extends Serializable,P> implemen
         long initTime = System.currentTimeMillis();
         long alarmTime = 0L;
         long totalpropagated = 0L;
+        long startTime = System.nanoTime();
+        long userUpdates = 0L;
 
         Map<U, Long> receivedCount = new HashMap<>();
         this.state.getAllUsers().forEach(u -> 
@@ -145,6 +239,8 @@ public class Simulator<U extends Serializable,I extends Serializable,P> implemen
                 receivedCount.put(u.getUserId(), count);
         });
 
+        ForkJoinPool pool = this.isParallel() ? new ForkJoinPool(this.numThreads) : null;
+
         // Start propagation
         do
         {
@@ -155,230 +251,531 @@ public class Simulator<U extends Serializable,I extends Serializable,P> implemen
             Iteration<U,I,P> iteration = new SimpleIteration<>(this.numIter);
             
             long initialTime = System.currentTimeMillis();
+            this.random.setIteration(this.numIter);
 
-            // As a first step, we indicate that no user has propagated information during the current iteration.
-            this.currentPropagated = 0;
-            this.currentPropagatingUsers = 0;
-
-            // Then, for each user in the network, we select the users towards whom they might propagate their information
-            // pieces.
+            if(pool == null)
+            {
+                userUpdates += this.runSequentialIteration(iteration, receivedCount);
+            }
+            else
+            {
+                userUpdates += this.runParallelIteration(iteration, receivedCount, pool);
+            }
 
-            // We reset the selections, i.e. if the propagation model has to select, for each user, a fixed set of users
-            // towards whom propagate information, this method does it.
-            this.protocol.getProp().resetSelections(data);
+            totalpropagated += this.currentPropagated;
+            simulation.addIteration(iteration);
 
-            // Map containing the information propagated by each user:
-            Map<U, Selection> allPropInfo = new HashMap<>();
+            // Move all the newly observed pieces to the received set.
+            
+            alarmTime += (System.currentTimeMillis() - initialTime);
+            this.throughput = userUpdates / ((System.nanoTime() - startTime) / 1.0E9);
             
-            // We first select the set of users in the system that will propagate information:
-            this.protocol.getSelection().getSelectableUsers(data, state, numIter, this.currentTimestamp).forEach(u ->
+            if(numIter%100 == 0)
             {
-                // We get the current state of the user.
-                UserState<U> user = state.getUser(u);
-                // Select which information pieces that the user will propagat.
-                Selection sel = this.protocol.getSelection().select(user, data, state, numIter, this.currentTimestamp);
-
-                // If any...
-                int numProp = sel.numPropagated();
-                if(numProp > 0)
-                {
-                    // a) we add it to the list
-                    ++this.currentPropagatingUsers;
-                    this.currentPropagated += sel.numPropagated();
-                    allPropInfo.put(user.getUserId(), sel);
-
-                    // b) we move the given pieces to the propagated list.
-                    user.updateReceivedToPropagated(sel.getPropagateSelection().map(Information::getInfoId));
-                    user.updateOwnToPropagated(sel.getOwnSelection().map(Information::getInfoId));
-
-                    // c) we update the list of users who have information which can expire
-                    long propCount = sel.getPropagateSelection().count();
-                    if(propCount > 0)
-                    {
-                        long c = receivedCount.getOrDefault(u, 0L) - propCount;
-                        if(c <= 0) receivedCount.remove(u);
-                        else receivedCount.put(u, c);
-                    }
-                }
-            });
+                System.out.println("Iteration " + numIter + " finished (" + alarmTime + " ms., " + String.format("%.1f", this.throughput) + " user updates/s)");
+            }
+            
+            numIter++;
+            this.currentTimestamp = this.data.getTimestamps().higher(this.currentTimestamp);
+            
+            long endTime = System.currentTimeMillis();
+            if(backup != null && (endTime - initTime) > 3600 * 1000) // Each hour of simulation, store a backup
+            {
+                BinarySimulationWriter<U,I,P> bsw = new BinarySimulationWriter<>();
+                bsw.initialize(backup);
+                bsw.writeSimulation(simulation);
+                initTime = System.currentTimeMillis();
+            }
+                
+        } // Checks whether the simulation has finished.
+        while(!this.stop.stop(numIter, currentPropagated, currentPropagatingUsers, this.newlyPropagatedInfo, totalpropagated, data, currentTimestamp));
 
-            List<U> toRemove = new ArrayList<>();
+        if(pool != null)
+        {
+            pool.shutdown();
+        }
 
-            // Once we have selected the information pieces that are going to be propagated, we can then select which
-            // of them shall not be propagated in the future.
+        return simulation;
+    }
 
-            // We run over the set of users who have information in the received list.
-            receivedCount.keySet().forEach(u ->
-            {
-                // We get the actual state of the user.
-                UserState<U> user = state.getUser(u);
+    /**
+     * Obtains the number of user updates per second during the last execution of the simulation. Each time the
+     * selection, expiration, propagation, sight or reception phases are applied to a single user counts as an update.
+     * @return the throughput (in user updates/second), NaN if no simulation has been executed.
+     */
+    public double getThroughput()
+    {
+        return this.throughput;
+    }
 
-                // Expire the information
+    /**
+     * Checks whether the iterations of the simulation are executed in parallel.
+     * @return true if the iterations are executed in parallel, false otherwise.
+     */
+    private boolean isParallel()
+    {
+        return this.numThreads > 1;
+    }
 
-                // Apply the expiration of the received information pieces.
-                List<Integer> deleted = this.protocol.getExpiration().expire(user, data, numIter, this.currentTimestamp)
-                        .collect(Collectors.toCollection(ArrayList::new));
-              
-                // Store the information about the discarded pieces this iteration.
-                List<I> discardedInfo = new ArrayList<>();
-                deleted.forEach(i -> discardedInfo.add(this.data.getInformationPiecesIndex().idx2object(i)));
+    /**
+     * Executes a single iteration of the simulation, processing the users one at a time.
+     * @param iteration     the iteration in which to store the changes.
+     * @param receivedCount for each user with received information pieces, the number of such pieces.
+     * @return the number of user updates performed in the iteration.
+     */
+    private long runSequentialIteration(Iteration<U,I,P> iteration, Map<U, Long> receivedCount)
+    {
+        // As a first step, we indicate that no user has propagated information during the current iteration.
+        this.currentPropagated = 0;
+        this.currentPropagatingUsers = 0;
+
+        // Then, for each user in the network, we select the users towards whom they might propagate their information
+        // pieces.
 
-                // If we can discard information:
-                if(!discardedInfo.isEmpty())
+        // We reset the selections, i.e. if the propagation model has to select, for each user, a fixed set of users
+        // towards whom propagate information, this method does it.
+        this.protocol.getProp().resetSelections(data);
+
+        // Map containing the information propagated by each user:
+        Map<U, Selection> allPropInfo = new LinkedHashMap<>();
+        
+        // We first select the set of users in the system that will propagate information (in the order of the user
+        // index, so that the outcome is the same as in the parallel execution):
+        List<U> selectable = this.sortUsers(this.protocol.getSelection().getSelectableUsers(data, state, numIter, this.currentTimestamp));
+        selectable.forEach(u ->
+        {
+            // We get the current state of the user.
+            UserState<U> user = state.getUser(u);
+            // Select which information pieces that the user will propagat.
+            Selection sel = this.protocol.getSelection().select(user, data, state, numIter, this.currentTimestamp);
+
+            // If any...
+            int numProp = sel.numPropagated();
+            if(numProp > 0)
+            {
+                // a) we add it to the list
+                ++this.currentPropagatingUsers;
+                this.currentPropagated += sel.numPropagated();
+                allPropInfo.put(user.getUserId(), sel);
+
+                // b) we move the given pieces to the propagated list.
+                user.updateReceivedToPropagated(sel.getPropagateSelection().map(Information::getInfoId));
+                user.updateOwnToPropagated(sel.getOwnSelection().map(Information::getInfoId));
+
+                // c) we update the list of users who have information which can expire
+                long propCount = sel.getPropagateSelection().count();
+                if(propCount > 0)
                 {
-                    iteration.addDiscardingUser(user.getUserId(), discardedInfo);
-                    long c = receivedCount.get(u) - discardedInfo.size();
-                    if(c <= 0) toRemove.add(u);
-                    receivedCount.put(u, receivedCount.get(u) - discardedInfo.size());
+                    long c = receivedCount.getOrDefault(u, 0L) - propCount;
+                    if(c <= 0) receivedCount.remove(u);
+                    else receivedCount.put(u, c);
                 }
+            }
+        });
 
-                user.discardReceivedInformation(deleted.stream());
-            });
-            
-            toRemove.forEach(receivedCount::remove);
-            
-            this.newlyPropagatedInfo = 0;
+        List<U> toRemove = new ArrayList<>();
 
-            // If users can only observe information pieces from some users, then, we update these values.
-            this.protocol.getSight().resetSelections(data);
+        // Once we have selected the information pieces that are going to be propagated, we can then select which
+        // of them shall not be propagated in the future.
 
-            Set<U> receivedUsers = new HashSet<>();
-            Map<U, List<PropagatedInformation>> receivedInfo = new HashMap<>();
+        // We run over the set of users who have information in the received list.
+        List<U> expirable = this.sortUsers(receivedCount.keySet().stream());
+        expirable.forEach(u ->
+        {
+            // We get the actual state of the user.
+            UserState<U> user = state.getUser(u);
+
+            // Expire the information
 
-            // First, we identify the propagated information that reaches each user.
-            allPropInfo.keySet().forEach(u ->
+            // Apply the expiration of the received information pieces.
+            List<Integer> deleted = this.protocol.getExpiration().expire(user, data, numIter, this.currentTimestamp)
+                    .collect(Collectors.toCollection(ArrayList::new));
+          
+            // Store the information about the discarded pieces this iteration.
+            List<I> discardedInfo = new ArrayList<>();
+            deleted.forEach(i -> discardedInfo.add(this.data.getInformationPiecesIndex().idx2object(i)));
+
+            // If we can discard information:
+            if(!discardedInfo.isEmpty())
             {
-                Selection sel = allPropInfo.get(u);
-                List<I> propInfo = new ArrayList<>();
+                iteration.addDiscardingUser(user.getUserId(), discardedInfo);
+                long c = receivedCount.get(u) - discardedInfo.size();
+                if(c <= 0) toRemove.add(u);
+                receivedCount.put(u, receivedCount.get(u) - discardedInfo.size());
+            }
 
-                if(!this.protocol.getProp().dependsOnInformationPiece())
+            user.discardReceivedInformation(deleted.stream());
+        });
+        
+        toRemove.forEach(receivedCount::remove);
+        
+        this.newlyPropagatedInfo = 0;
+
+        // If users can only observe information pieces from some users, then, we update these values.
+        this.protocol.getSight().resetSelections(data);
+
+        Set<U> receivedUsers = new LinkedHashSet<>();
+        Map<U, List<PropagatedInformation>> receivedInfo = new LinkedHashMap<>();
+
+        // First, we identify the propagated information that reaches each user.
+        allPropInfo.keySet().forEach(u ->
+        {
+            Selection sel = allPropInfo.get(u);
+            List<I> propInfo = new ArrayList<>();
+
+            if(!this.protocol.getProp().dependsOnInformationPiece())
+            {
+                sel.getAll().forEach(piece -> propInfo.add(this.data.getInformationPiecesIndex().idx2object(piece.getInfoId())));
+                PropagatedInformation auxpp = new PropagatedInformation(-1,0,0);
+                this.protocol.getProp().getUsersToPropagate(auxpp, state.getUser(u), data).forEach(v ->
                 {
-                    sel.getAll().forEach(piece -> propInfo.add(this.data.getInformationPiecesIndex().idx2object(piece.getInfoId())));
-                    PropagatedInformation auxpp = new PropagatedInformation(-1,0,0);
-                    this.protocol.getProp().getUsersToPropagate(auxpp, state.getUser(u), data).forEach(v ->
-                    {
-                        if(!receivedInfo.containsKey(v)) receivedInfo.put(v, new ArrayList<>());
-                        sel.getAll().forEach(piece -> receivedInfo.get(v).add(piece));
-                    });
-                }
-                else
+                    if(!receivedInfo.containsKey(v)) receivedInfo.put(v, new ArrayList<>());
+                    sel.getAll().forEach(piece -> receivedInfo.get(v).add(this.copy(piece)));
+                });
+            }
+            else
+            {
+                sel.getAll().forEach(info ->
                 {
-                    sel.getAll().forEach(info ->
+                    this.protocol.getProp().getUsersToPropagate(info, state.getUser(u), data).forEach(v ->
                     {
-                        this.protocol.getProp().getUsersToPropagate(info, state.getUser(u), data).forEach(v ->
-                        {
-                            if(!receivedInfo.containsKey(v)) receivedInfo.put(v, new ArrayList<>());
-                            receivedInfo.get(v).add(info);
-                        });
-                        propInfo.add(this.data.getInformationPiecesIndex().idx2object(info.getInfoId()));
+                        if(!receivedInfo.containsKey(v)) receivedInfo.put(v, new ArrayList<>());
+                        receivedInfo.get(v).add(this.copy(info));
                     });
-                }
+                    propInfo.add(this.data.getInformationPiecesIndex().idx2object(info.getInfoId()));
+                });
+            }
 
-                if(!propInfo.isEmpty())
-                {
-                    iteration.addPropagatingUser(u, propInfo);
-                }
-            });
+            if(!propInfo.isEmpty())
+            {
+                iteration.addPropagatingUser(u, propInfo);
+            }
+        });
 
-            // As a second step, for each receiving user, we determine which information is seen and which is not
-            receivedInfo.keySet().forEach(u ->
+        // As a second step, for each receiving user, we determine which information is seen and which is not
+        receivedInfo.keySet().forEach(u ->
+        {
+            UserState<U> uState = this.state.getUser(u);
+            List<PropagatedInformation> prop = this.protocol.getSight().seesInformation(uState, data, receivedInfo.get(u));
+            if(!prop.isEmpty())
             {
-                UserState<U> uState = this.state.getUser(u);
-                List<PropagatedInformation> prop = this.protocol.getSight().seesInformation(uState, data, receivedInfo.get(u));
-                if(!prop.isEmpty())
+                this.newlyPropagatedInfo += prop.size();
+                receivedUsers.add(u);
+                prop.forEach(uState::updateSeen);
+            }
+        });
+
+
+        // Then, for each received users...
+        receivedUsers.forEach(user -> this.addReception(iteration, receivedCount, user, this.receive(user)));
+
+        return selectable.size() + expirable.size() + allPropInfo.size() + receivedInfo.size() + receivedUsers.size();
+    }
+
+    /**
+     * Executes a single iteration of the simulation, dividing the users in partitions which are processed in parallel.
+     * Each partition only modifies the state of its own users, and the changes are merged in the order of the user
+     * index, so the outcome of the iteration does not depend on the number of threads.
+     * @param iteration     the iteration in which to store the changes.
+     * @param receivedCount for each user with received information pieces, the number of such pieces.
+     * @param pool          the pool in which to execute the partitions.
+     * @return the number of user updates performed in the iteration.
+     */
+    private long runParallelIteration(Iteration<U,I,P> iteration, Map<U, Long> receivedCount, ForkJoinPool pool)
+    {
+        // As a first step, we indicate that no user has propagated information during the current iteration.
+        this.currentPropagated = 0;
+        this.currentPropagatingUsers = 0;
+
+        // We reset the selections of the propagation mechanism (sequentially, since it is shared by all the users).
+        this.protocol.getProp().resetSelections(data);
+
+        // Selection: each user selects (in parallel) the information pieces to propagate.
+        List<U> selectable = this.sortUsers(this.protocol.getSelection().getSelectableUsers(data, state, numIter, this.currentTimestamp));
+        List<Selection> selections = this.runPartitioned(pool, selectable, u ->
+        {
+            UserState<U> user = state.getUser(u);
+            Selection sel = this.protocol.getSelection().select(user, data, state, numIter, this.currentTimestamp);
+            if(sel.numPropagated() > 0)
+            {
+                user.updateReceivedToPropagated(sel.getPropagateSelection().map(Information::getInfoId));
+                user.updateOwnToPropagated(sel.getOwnSelection().map(Information::getInfoId));
+            }
+            return sel;
+        });
+
+        Map<U, Selection> allPropInfo = new LinkedHashMap<>();
+        for(int i = 0; i < selectable.size(); ++i)
+        {
+            U u = selectable.get(i);
+            Selection sel = selections.get(i);
+            if(sel.numPropagated() > 0)
+            {
+                ++this.currentPropagatingUsers;
+                this.currentPropagated += sel.numPropagated();
+                allPropInfo.put(u, sel);
+
+                long propCount = sel.getPropagateSelection().count();
+                if(propCount > 0)
                 {
-                    this.newlyPropagatedInfo += prop.size();
-                    receivedUsers.add(u);
-                    prop.forEach(uState::updateSeen);
+                    long c = receivedCount.getOrDefault(u, 0L) - propCount;
+                    if(c <= 0) receivedCount.remove(u);
+                    else receivedCount.put(u, c);
                 }
-            });
+            }
+        }
+
+        // Expiration: each user with received information discards (in parallel) part of it.
+        List<U> expirable = this.sortUsers(receivedCount.keySet().stream());
+        List<List<Integer>> expired = this.runPartitioned(pool, expirable, u ->
+        {
+            UserState<U> user = state.getUser(u);
+            List<Integer> deleted = this.protocol.getExpiration().expire(user, data, numIter, this.currentTimestamp)
+                    .collect(Collectors.toCollection(ArrayList::new));
+            user.discardReceivedInformation(deleted.stream());
+            return deleted;
+        });
 
-            // Then, for each received users...
-            receivedUsers.forEach(user -> 
+        for(int i = 0; i < expirable.size(); ++i)
+        {
+            U u = expirable.get(i);
+            List<Integer> deleted = expired.get(i);
+            if(!deleted.isEmpty())
             {
-                // We identify which information
-                Map<I, Set<U>> seenInfo = new HashMap<>();
-                Map<I, Set<U>> rereceivedInfo = new HashMap<>();
-                
-                UserState<U> uState = state.getUser(user);
+                List<I> discardedInfo = new ArrayList<>();
+                deleted.forEach(info -> discardedInfo.add(this.data.getInformationPiecesIndex().idx2object(info)));
+                iteration.addDiscardingUser(u, discardedInfo);
+                long c = receivedCount.get(u) - discardedInfo.size();
+                if(c <= 0) receivedCount.remove(u);
+                else receivedCount.put(u, c);
+            }
+        }
 
-                // Now:
-                int numRec = uState.getSeenInformation().mapToInt(propInfo -> 
-                {
-                    int numRereceived = 0;
-                    int info = propInfo.getInfoId();
-                    Set<U> authors = new HashSet<>();
-                    propInfo.getCreators().forEach(cidx -> authors.add(data.getUserIndex().idx2object(cidx)));
+        this.newlyPropagatedInfo = 0;
 
-                    // We check whether the information is new or it has been re-received.
-                    if(!uState.containsDiscardedInformation(info) && !uState.containsOwnInformation(info) && !uState.containsPropagatedInformation(info) && !uState.containsReceivedInformation(info))
-                    {
-                        // The information is new:
-                        numRereceived++;
-                        seenInfo.put(data.getInformationPiecesIndex().idx2object(info), authors);
-                    }
-                    else
-                    {
-                        if(!uState.containsReceivedInformation(info)) numRereceived++;
-                        rereceivedInfo.put(data.getInformationPiecesIndex().idx2object(info), authors);
-                    }
-
-                    // We move from seen to received the information piece, using the update mechanism.
-                    uState.updateSeenToReceived(info, this.protocol.getUpdate());
-                    
-                    return numRereceived;
-                }).sum();
-                
-                uState.clearSeenInformation();
+        // If users can only observe information pieces from some users, then, we update these values.
+        this.protocol.getSight().resetSelections(data);
 
-                // We add to the iteration the set of information pieces that the user has seen:
-                if(!seenInfo.isEmpty())
-                {
-                    iteration.addReceivingUser(user, seenInfo);
-                }
-                
-                if(!rereceivedInfo.isEmpty())
-                {
-                    iteration.addReReceivingUser(user, rereceivedInfo);
-                }
-                
-                if(receivedCount.containsKey(user))
+        // Propagation: each partition of propagating users fills its own receive buffer. Then, the buffers are merged
+        // in partition order.
+        List<U> propagating = new ArrayList<>(allPropInfo.keySet());
+        List<Map<U, List<PropagatedInformation>>> buffers = this.runPartitions(pool, propagating.size(), (from, to) ->
+        {
+            Map<U, List<PropagatedInformation>> buffer = new LinkedHashMap<>();
+            for(int i = from; i < to; ++i)
+            {
+                U u = propagating.get(i);
+                Selection sel = allPropInfo.get(u);
+                if(!this.protocol.getProp().dependsOnInformationPiece())
                 {
-                    receivedCount.put(user, numRec + receivedCount.get(user));
+                    PropagatedInformation auxpp = new PropagatedInformation(-1,0,0);
+                    this.protocol.getProp().getUsersToPropagate(auxpp, state.getUser(u), data).forEach(v ->
+                        sel.getAll().forEach(piece -> buffer.computeIfAbsent(v, x -> new ArrayList<>()).add(this.copy(piece))));
                 }
                 else
                 {
-                    receivedCount.put(user, (long) numRec);
+                    sel.getAll().forEach(info -> this.protocol.getProp().getUsersToPropagate(info, state.getUser(u), data).forEach(v ->
+                        buffer.computeIfAbsent(v, x -> new ArrayList<>()).add(this.copy(info))));
                 }
-            });
+            }
+            return buffer;
+        });
 
-            totalpropagated += this.currentPropagated;
-            simulation.addIteration(iteration);
+        allPropInfo.forEach((u, sel) ->
+        {
+            List<I> propInfo = new ArrayList<>();
+            sel.getAll().forEach(piece -> propInfo.add(this.data.getInformationPiecesIndex().idx2object(piece.getInfoId())));
+            if(!propInfo.isEmpty())
+            {
+                iteration.addPropagatingUser(u, propInfo);
+            }
+        });
 
-            // Move all the newly observed pieces to the received set.
-            
-            alarmTime += (System.currentTimeMillis() - initialTime);
-            
-            if(numIter%100 == 0)
+        Map<U, List<PropagatedInformation>> receivedInfo = new LinkedHashMap<>();
+        buffers.forEach(buffer -> buffer.forEach((v, list) -> receivedInfo.computeIfAbsent(v, x -> new ArrayList<>()).addAll(list)));
+
+        // Sight: each receiving user determines (in parallel) which information is seen and which is not.
+        List<U> receiving = new ArrayList<>(receivedInfo.keySet());
+        List<Integer> numSeen = this.runPartitioned(pool, receiving, u ->
+        {
+            UserState<U> uState = this.state.getUser(u);
+            List<PropagatedInformation> prop = this.protocol.getSight().seesInformation(uState, data, receivedInfo.get(u));
+            prop.forEach(uState::updateSeen);
+            return prop.size();
+        });
+
+        List<U> receivedUsers = new ArrayList<>();
+        for(int i = 0; i < receiving.size(); ++i)
+        {
+            if(numSeen.get(i) > 0)
             {
-                System.out.println("Iteration " + numIter + " finished (" + alarmTime + " ms.)");
+                this.newlyPropagatedInfo += numSeen.get(i);
+                receivedUsers.add(receiving.get(i));
             }
-            
-            numIter++;
-            this.currentTimestamp = this.data.getTimestamps().higher(this.currentTimestamp);
-            
-            long endTime = System.currentTimeMillis();
-            if(backup != null && (endTime - initTime) > 3600 * 1000) // Each hour of simulation, store a backup
+        }
+
+        // Reception: the seen pieces are moved (in parallel) to the received ones.
+        List<Reception> receptions = this.runPartitioned(pool, receivedUsers, this::receive);
+        for(int i = 0; i < receivedUsers.size(); ++i)
+        {
+            this.addReception(iteration, receivedCount, receivedUsers.get(i), receptions.get(i));
+        }
+
+        return selectable.size() + expirable.size() + propagating.size() + receiving.size() + receivedUsers.size();
+    }
+
+    /**
+     * Sorts a set of users by their index in the simulation data.
+     * @param users the users.
+     * @return the list of users, sorted by index.
+     */
+    private List<U> sortUsers(Stream<U> users)
+    {
+        return users.sorted(Comparator.comparingInt(u -> this.data.getUserIndex().object2idx(u)))
+                    .collect(Collectors.toCollection(ArrayList::new));
+    }
+
+    /**
+     * Copies a propagated information piece, so that each receiving user gets its own copy (the update mechanisms
+     * modify the pieces when they are received).
+     * @param info the information piece.
+     * @return the copy of the information piece.
+     */
+    private PropagatedInformation copy(PropagatedInformation info)
+    {
+        return new PropagatedInformation(info.getInfoId(), info.getTimestamp(), info.getCreators());
+    }
+
+    /**
+     * Applies a function to every user in a list, dividing the list in contiguous partitions which are processed in
+     * parallel.
+     * @param pool  the pool in which to execute the partitions.
+     * @param users the list of users.
+     * @param func  the function to apply to each user.
+     * @param <T>   the type of the results.
+     * @return the results of the function, in the same order as the users.
+     */
+    private <T> List<T> runPartitioned(ForkJoinPool pool, List<U> users, Function<U, T> func)
+    {
+        List<List<T>> results = this.runPartitions(pool, users.size(), (from, to) ->
+        {
+            List<T> partial = new ArrayList<>(to - from);
+            for(int i = from; i < to; ++i)
             {
-                BinarySimulationWriter<U,I,P> bsw = new BinarySimulationWriter<>();
-                bsw.initialize(backup);
-                bsw.writeSimulation(simulation);
-                initTime = System.currentTimeMillis();
+                partial.add(func.apply(users.get(i)));
             }
-                
-        } // Checks whether the simulation has finished.
-        while(!this.stop.stop(numIter, currentPropagated, currentPropagatingUsers, this.newlyPropagatedInfo, totalpropagated, data, currentTimestamp));
+            return partial;
+        });
 
-        return simulation;
+        List<T> list = new ArrayList<>(users.size());
+        results.forEach(list::addAll);
+        return list;
+    }
+
+    /**
+     * Divides a range of positions in contiguous partitions, and processes them in parallel.
+     * @param pool      the pool in which to execute the partitions.
+     * @param size      the number of positions.
+     * @param partition the function processing the partition between two positions (the last one excluded).
+     * @param <T>       the type of the results.
+     * @return the results of the partitions, in order.
+     */
+    private <T> List<T> runPartitions(ForkJoinPool pool, int size, BiFunction<Integer, Integer, T> partition)
+    {
+        int numParts = Math.max(1, Math.min(size, this.numThreads * PARTITIONS_PER_THREAD));
+        return pool.invoke(ForkJoinTask.adapt(() -> IntStream.range(0, numParts).parallel()
+                .mapToObj(p -> partition.apply((int) ((long) size * p / numParts), (int) ((long) size * (p + 1) / numParts)))
+                .collect(Collectors.toList())));
+    }
+
+    /**
+     * Moves the information pieces seen by a user during the iteration to the received ones. This only modifies the
+     * state of the given user.
+     * @param user the user.
+     * @return the changes, to be stored in the iteration.
+     */
+    private Reception receive(U user)
+    {
+        Reception reception = new Reception();
+        UserState<U> uState = state.getUser(user);
+
+        // Now:
+        reception.numRec = uState.getSeenInformation().mapToInt(propInfo -> 
+        {
+            int numRereceived = 0;
+            int info = propInfo.getInfoId();
+            Set<U> authors = new HashSet<>();
+            propInfo.getCreators().forEach(cidx -> authors.add(data.getUserIndex().idx2object(cidx)));
+
+            // We check whether the information is new or it has been re-received.
+            if(!uState.containsDiscardedInformation(info) && !uState.containsOwnInformation(info) && !uState.containsPropagatedInformation(info) && !uState.containsReceivedInformation(info))
+            {
+                // The information is new:
+                numRereceived++;
+                reception.seenInfo.put(data.getInformationPiecesIndex().idx2object(info), authors);
+            }
+            else
+            {
+                if(!uState.containsReceivedInformation(info)) numRereceived++;
+                reception.rereceivedInfo.put(data.getInformationPiecesIndex().idx2object(info), authors);
+            }
+
+            // We move from seen to received the information piece, using the update mechanism.
+            uState.updateSeenToReceived(info, this.protocol.getUpdate());
+            
+            return numRereceived;
+        }).sum();
+        
+        uState.clearSeenInformation();
+        return reception;
+    }
+
+    /**
+     * Stores the information pieces received by a user in the iteration.
+     * @param iteration     the iteration.
+     * @param receivedCount for each user with received information pieces, the number of such pieces.
+     * @param user          the user.
+     * @param reception     the information pieces received by the user.
+     */
+    private void addReception(Iteration<U,I,P> iteration, Map<U, Long> receivedCount, U user, Reception reception)
+    {
+        // We add to the iteration the set of information pieces that the user has seen:
+        if(!reception.seenInfo.isEmpty())
+        {
+            iteration.addReceivingUser(user, reception.seenInfo);
+        }
+        
+        if(!reception.rereceivedInfo.isEmpty())
+        {
+            iteration.addReReceivingUser(user, reception.rereceivedInfo);
+        }
+        
+        if(receivedCount.containsKey(user))
+        {
+            receivedCount.put(user, reception.numRec + receivedCount.get(user));
+        }
+        else
+        {
+            receivedCount.put(user, (long) reception.numRec);
+        }
+    }
+
+    /**
+     * Information pieces received by a single user in an iteration.
+     */
+    private class Reception
+    {
+        /**
+         * New information pieces, along with their authors.
+         */
+        private final Map<I, Set<U>> seenInfo = new HashMap<>();
+        /**
+         * Information pieces which had already been received, along with their authors.
+         */
+        private final Map<I, Set<U>> rereceivedInfo = new HashMap<>();
+        /**
+         * Number of information pieces which have been added to the received list.
+         */
+        private int numRec;
     }
 }
@@ -0,0 +1,146 @@
+/*
+ *  Copyright (C) 2021 Information Retrieval Group at Universidad Autónoma
+ *  de Madrid, http://ir.ii.uam.es
+ *
+ *  This Source Code Form is subject to the terms of the Mozilla Public
+ *  License, v. 2.0. If a copy of the MPL was not distributed with this
+ *  file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package es.uam.eps.ir.relison.diffusion.simulation;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.*;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.*;
+
+/**
+ * Class for testing the source of randomness of the simulations, and that the diffusion mechanisms take all their
+ * randomness from it.
+ *
+ * @author Javier Sanz-Cruzado (javier.sanz-cruzado@uam.es)
+ * @author Pablo Castells (pablo.castells@uam.es)
+ */
+public class SimulationRandomTest
+{
+    /**
+     * Directory containing the sources of the diffusion module.
+     */
+    private static final Path SOURCES = Paths.get("src", "main", "java", "es", "uam", "eps", "ir", "relison", "diffusion");
+    /**
+     * Ways of obtaining random numbers which do not depend on the seed of the simulation.
+     */
+    private static final Pattern UNSEEDED = Pattern.compile("new\\s+(java\\.util\\.)?(Random|SplittableRandom)\\s*\\(|Math\\.random\\s*\\(|ThreadLocalRandom|Collections\\.shuffle\\s*\\(");
+
+    /**
+     * Draws some numbers from a random number generator.
+     *
+     * @param rng the random number generator.
+     *
+     * @return the numbers.
+     */
+    private static List<Long> draw(SplittableRandom rng)
+    {
+        return rng.longs(10).boxed().collect(Collectors.toList());
+    }
+
+    @Test
+    public void sameKey()
+    {
+        SimulationRandom first = new SimulationRandom(42L);
+        SimulationRandom second = new SimulationRandom(42L);
+        assertEquals(42L, first.getSeed());
+        for (int iter = 0; iter < 5; ++iter)
+        {
+            for (int phase = SimulationRandom.SELECTION; phase <= SimulationRandom.SIGHT; ++phase)
+            {
+                for (int user = 0; user < 20; ++user)
+                {
+                    assertEquals(draw(first.getRandom(iter, phase, user, 3)), draw(second.getRandom(iter, phase, user, 3)));
+                }
+            }
+        }
+
+        // The generators of the current iteration.
+        first.setIteration(3);
+        assertEquals(3, first.getIteration());
+        assertEquals(draw(second.getRandom(3, SimulationRandom.SIGHT, 7)), draw(first.getRandom(SimulationRandom.SIGHT, 7)));
+        assertEquals(draw(second.getRandom(3, SimulationRandom.SIGHT, 7, 0)), draw(first.getRandom(3, SimulationRandom.SIGHT, 7)));
+    }
+
+    @Test
+    public void differentKeys()
+    {
+        // Changing any component of the key gives a different stream of numbers.
+        SimulationRandom random = new SimulationRandom(42L);
+        Set<List<Long>> streams = new HashSet<>();
+        int count = 0;
+        for (int iter = 0; iter < 5; ++iter)
+        {
+            for (int phase = SimulationRandom.SELECTION; phase <= SimulationRandom.SIGHT; ++phase)
+            {
+                for (int user = 0; user < 20; ++user)
+                {
+                    for (int key = 0; key < 3; ++key)
+                    {
+                        streams.add(draw(random.getRandom(iter, phase, user, key)));
+                        ++count;
+                    }
+                }
+            }
+        }
+        assertEquals(count, streams.size());
+
+        // And so does changing the seed.
+        assertNotEquals(draw(random.getRandom(0, SimulationRandom.SELECTION, 0, 0)), draw(new SimulationRandom(43L).getRandom(0, SimulationRandom.SELECTION, 0, 0)));
+    }
+
+    @Test
+    public void shuffle()
+    {
+        List<Integer> list = new ArrayList<>();
+        for (int i = 0; i < 50; ++i)
+        {
+            list.add(i);
+        }
+        List<Integer> first = new ArrayList<>(list);
+        List<Integer> second = new ArrayList<>(list);
+        SimulationRandom random = new SimulationRandom(42L);
+        SimulationRandom.shuffle(first, random.getRandom(0, SimulationRandom.SIGHT, 5));
+        SimulationRandom.shuffle(second, random.getRandom(0, SimulationRandom.SIGHT, 5));
+        assertEquals(first, second);
+        assertNotEquals(list, first);
+        assertEquals(list, first.stream().sorted().collect(Collectors.toList()));
+    }
+
+    @Test
+    public void noUnseededRandomness() throws IOException
+    {
+        // Every mechanism has to draw its random numbers from the simulation, so that the cascades are reproducible.
+        assertTrue(Files.isDirectory(SOURCES));
+        List<String> found = new ArrayList<>();
+        try (Stream<Path> files = Files.walk(SOURCES))
+        {
+            for (Path file : files.filter(f -> f.toString().endsWith(".java") && !f.endsWith("SimulationRandom.java")).collect(Collectors.toList()))
+            {
+                List<String> lines = Files.readAllLines(file);
+                for (int i = 0; i < lines.size(); ++i)
+                {
+                    String line = lines.get(i);
+                    if (UNSEEDED.matcher(line).find())
+                    {
+                        found.add(file + ":" + (i + 1) + ": " + line.trim());
+                    }
+                }
+            }
+        }
+        assertTrue(String.join("\n", found), found.isEmpty());
+    }
+}
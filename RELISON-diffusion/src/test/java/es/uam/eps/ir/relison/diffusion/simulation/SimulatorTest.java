@@ -0,0 +1,267 @@
+/*
+ *  Copyright (C) 2021 Information Retrieval Group at Universidad Autónoma
+ *  de Madrid, http://ir.ii.uam.es
+ *
+ *  This Source Code Form is subject to the terms of the Mozilla Public
+ *  License, v. 2.0. If a copy of the MPL was not distributed with this
+ *  file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package es.uam.eps.ir.relison.diffusion.simulation;
+
+import es.uam.eps.ir.relison.diffusion.data.Data;
+import es.uam.eps.ir.relison.diffusion.data.Information;
+import es.uam.eps.ir.relison.diffusion.expiration.ExponentialDecayExpirationMechanism;
+import es.uam.eps.ir.relison.diffusion.propagation.AllNeighborsPropagationMechanism;
+import es.uam.eps.ir.relison.diffusion.protocols.*;
+import es.uam.eps.ir.relison.diffusion.selections.CountSelectionMechanism;
+import es.uam.eps.ir.relison.diffusion.sight.CountSightMechanism;
+import es.uam.eps.ir.relison.diffusion.stop.NumIterStopCondition;
+import es.uam.eps.ir.relison.diffusion.update.NewestUpdateMechanism;
+import es.uam.eps.ir.relison.graph.Graph;
+import es.uam.eps.ir.relison.graph.edges.EdgeOrientation;
+import es.uam.eps.ir.relison.graph.fast.FastDirectedUnweightedGraph;
+import es.uam.eps.ir.relison.index.Index;
+import es.uam.eps.ir.relison.index.fast.FastIndex;
+import es.uam.eps.ir.relison.index.fast.FastWeightedPairwiseRelation;
+import es.uam.eps.ir.relison.utils.datatypes.Tuple2oo;
+import org.junit.Test;
+
+import java.util.*;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks that simulations are reproducible: for a fixed seed, running a simulation again, or with several threads,
+ * produces the same cascade (in every iteration, the same users propagate, see, re-receive and discard the same
+ * information pieces), whereas a different seed produces a different cascade.
+ *
+ * @author Javier Sanz-Cruzado (javier.sanz-cruzado@uam.es)
+ * @author Pablo Castells (pablo.castells@uam.es)
+ */
+public class SimulatorTest
+{
+    /**
+     * Number of users in the network.
+     */
+    private static final int NUM_USERS = 600;
+    /**
+     * Number of information pieces.
+     */
+    private static final int NUM_PIECES = 200;
+    /**
+     * Number of iterations of the simulation.
+     */
+    private static final int NUM_ITER = 20;
+    /**
+     * Numbers of threads to compare with the sequential execution.
+     */
+    private static final int[] NUM_THREADS = {2, 3, 8};
+
+    /**
+     * The information propagated, seen, re-received and discarded by each user in every iteration of a simulation.
+     */
+    private static class Cascade
+    {
+        /**
+         * Propagated pieces of each user, for each iteration.
+         */
+        private final List<Map<Long, Set<Long>>> propagated = new ArrayList<>();
+        /**
+         * Seen pieces (and the users from whom they were received) of each user, for each iteration.
+         */
+        private final List<Map<Long, Map<Long, Set<Long>>>> seen = new ArrayList<>();
+        /**
+         * Re-received pieces (and the users from whom they were received) of each user, for each iteration.
+         */
+        private final List<Map<Long, Map<Long, Set<Long>>>> rereceived = new ArrayList<>();
+        /**
+         * Discarded pieces of each user, for each iteration.
+         */
+        private final List<Map<Long, Set<Long>>> discarded = new ArrayList<>();
+
+        /**
+         * Constructor.
+         *
+         * @param simulation the simulation.
+         */
+        Cascade(Simulation<Long, Long, Long> simulation)
+        {
+            for (int i = 0; i < simulation.getNumIterations(); ++i)
+            {
+                Iteration<Long, Long, Long> iteration = simulation.getIteration(i);
+                propagated.add(iteration.getPropagatingUsers().collect(Collectors.toMap(u -> u, u -> iteration.getPropagatedInformation(u).collect(Collectors.toSet()))));
+                seen.add(iteration.getReceivingUsers().collect(Collectors.toMap(u -> u, u -> iteration.getSeenInformation(u).collect(Collectors.toMap(Tuple2oo::v1, Tuple2oo::v2)))));
+                rereceived.add(iteration.getReReceivingUsers().collect(Collectors.toMap(u -> u, u -> iteration.getReReceivedInformation(u).collect(Collectors.toMap(Tuple2oo::v1, Tuple2oo::v2)))));
+                discarded.add(iteration.getDiscardingUsers().collect(Collectors.toMap(u -> u, u -> iteration.getDiscardedInformation(u).collect(Collectors.toSet()))));
+            }
+        }
+
+        /**
+         * Obtains the number of iterations.
+         *
+         * @return the number of iterations.
+         */
+        int getNumIterations()
+        {
+            return propagated.size();
+        }
+
+        /**
+         * Obtains the total number of pieces seen by the users, over all the iterations.
+         *
+         * @return the number of seen pieces.
+         */
+        long getNumSeen()
+        {
+            return seen.stream().flatMap(iter -> iter.values().stream()).mapToLong(Map::size).sum();
+        }
+
+        /**
+         * Checks that two cascades are identical, iteration by iteration.
+         *
+         * @param message  the message to show if they differ.
+         * @param expected the expected cascade.
+         * @param actual   the actual cascade.
+         */
+        static void check(String message, Cascade expected, Cascade actual)
+        {
+            assertEquals(message, expected.getNumIterations(), actual.getNumIterations());
+            for (int i = 0; i < expected.getNumIterations(); ++i)
+            {
+                assertEquals(message + ", iteration " + i + ", propagated", expected.propagated.get(i), actual.propagated.get(i));
+                assertEquals(message + ", iteration " + i + ", seen", expected.seen.get(i), actual.seen.get(i));
+                assertEquals(message + ", iteration " + i + ", re-received", expected.rereceived.get(i), actual.rereceived.get(i));
+                assertEquals(message + ", iteration " + i + ", discarded", expected.discarded.get(i), actual.discarded.get(i));
+            }
+        }
+
+        @Override
+        public boolean equals(Object obj)
+        {
+            if (!(obj instanceof Cascade))
+            {
+                return false;
+            }
+            Cascade other = (Cascade) obj;
+            return propagated.equals(other.propagated) && seen.equals(other.seen) && rereceived.equals(other.rereceived) && discarded.equals(other.discarded);
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return Objects.hash(propagated, seen, rereceived, discarded);
+        }
+    }
+
+    /**
+     * Builds the data for a simulation: a random directed network, where each information piece is created by a
+     * random user.
+     *
+     * @return the data.
+     */
+    private static Data<Long, Long, Long> data()
+    {
+        Random rnd = new Random(0);
+        Graph<Long> graph = new FastDirectedUnweightedGraph<>();
+        Index<Long> users = new FastIndex<>();
+        for (long u = 0; u < NUM_USERS; ++u)
+        {
+            graph.addNode(u);
+            users.addObject(u);
+        }
+        for (int i = 0; i < 8 * NUM_USERS; ++i)
+        {
+            long u = rnd.nextInt(NUM_USERS);
+            long v = rnd.nextInt(NUM_USERS);
+            if (u != v && !graph.containsEdge(u, v))
+            {
+                graph.addEdge(u, v);
+            }
+        }
+
+        Index<Long> pieces = new FastIndex<>();
+        Map<Integer, Information<Long>> information = new HashMap<>();
+        FastWeightedPairwiseRelation<Integer> creators = new FastWeightedPairwiseRelation<>();
+        for (int u = 0; u < NUM_USERS; ++u)
+        {
+            creators.addFirstItem(u);
+        }
+        for (long i = 0; i < NUM_PIECES; ++i)
+        {
+            int idx = pieces.addObject(i);
+            information.put(idx, new Information<>(i, i));
+            creators.addSecondItem(idx);
+            creators.addRelation(rnd.nextInt(NUM_USERS), idx, 1);
+        }
+        return new Data<>(graph, users, pieces, information, creators);
+    }
+
+    /**
+     * Runs a simulation.
+     *
+     * @param protocol   the protocol.
+     * @param numThreads the number of threads.
+     * @param seed       the seed.
+     *
+     * @return the resulting cascade.
+     */
+    private static Cascade simulate(Protocol<Long, Long, Long> protocol, int numThreads, long seed)
+    {
+        Simulator<Long, Long, Long> simulator = new Simulator<>(protocol, new NumIterStopCondition<>(NUM_ITER), numThreads, seed);
+        simulator.initialize(data());
+        return new Cascade(simulator.simulate());
+    }
+
+    /**
+     * Obtains the protocols to check. Each call of a supplier builds a new protocol, since protocols keep their own
+     * state during a simulation.
+     *
+     * @return the protocols, by name.
+     */
+    private static Map<String, Supplier<Protocol<Long, Long, Long>>> protocols()
+    {
+        Map<String, Supplier<Protocol<Long, Long, Long>>> protocols = new LinkedHashMap<>();
+        protocols.put("simple", () -> new SimpleProtocol<>(1, 2));
+        protocols.put("independent cascade", () -> new IndependentCascadeModelProtocol<>(0.1, 1));
+        protocols.put("push", () -> new PushModelProtocol<>(1, 1, 3));
+        protocols.put("pull", () -> new PullModelProtocol<>(1, 1, 3));
+        protocols.put("rumor", () -> new RumorSpreadingModelProtocol<>(1, 1, 3));
+        protocols.put("bidirectional rumor", () -> new BidirectionalRumorSpreadingModelProtocol<>(1, 1, 3));
+        protocols.put("custom", () -> new CustomProtocol<>(new CountSelectionMechanism<>(1, 2), new ExponentialDecayExpirationMechanism<>(3.0),
+                new NewestUpdateMechanism(), new AllNeighborsPropagationMechanism<>(EdgeOrientation.IN), new CountSightMechanism<>(2)));
+        return protocols;
+    }
+
+    @Test
+    public void parallel()
+    {
+        protocols().forEach((name, protocol) ->
+        {
+            Cascade sequential = simulate(protocol.get(), 1, 42L);
+            // The information spreads beyond its creators.
+            assertTrue(name, sequential.getNumSeen() > NUM_PIECES);
+
+            for (int numThreads : NUM_THREADS)
+            {
+                Cascade.check(name + ", " + numThreads + " threads", sequential, simulate(protocol.get(), numThreads, 42L));
+            }
+        });
+    }
+
+    @Test
+    public void seed()
+    {
+        protocols().forEach((name, protocol) ->
+        {
+            // The same seed reproduces the cascade, and a different one changes it.
+            Cascade cascade = simulate(protocol.get(), 1, 7L);
+            Cascade.check(name + ", same seed", cascade, simulate(protocol.get(), 1, 7L));
+            Cascade.check(name + ", same seed, 4 threads", cascade, simulate(protocol.get(), 4, 7L));
+            assertNotEquals(name + ", different seed", cascade, simulate(protocol.get(), 1, 8L));
+        });
+    }
+}
@@ -22,6 +22,8 @@ import org.ranksys.formats.rec.SimpleRecommendationFormat;
 import java.io.*;
 import java.util.*;
 import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
 
 /**
  * Class containing auxiliar methods for the Main functions.
@@ -47,7 +49,8 @@ public class AuxiliarMethods
     }
 
     /**
-     * Computes a recommendation and evaluates it using nDCG metric.
+     * Computes a recommendation and evaluates it using nDCG metric. The recommendations are evaluated as soon as they
+     * are generated, while they are written. The format of the file is selected by {@link #getWriter(String)}.
      *
      * @param output      Route of the file in which to store the recommendation.
      * @param recommender The recommender to apply.
@@ -56,33 +59,20 @@ public class AuxiliarMethods
      *
      * @return the value of the metric.
      *
-     * @throws IOException if something fails during the writing / reading of the recommendation file.
+     * @throws IOException if something fails during the writing of the recommendation file.
      */
     public static double computeAndEvaluate(String output, Recommender<Long, Long> recommender, RecommenderRunner<Long, Long> runner, SystemMetric<Long, Long> metric) throws IOException
     {
-        RecommendationFormat<Long, Long> format = new SimpleRecommendationFormat<>(Parsers.lp, Parsers.lp);
-        RecommendationFormat.Writer<Long, Long> writer;
-        RecommendationFormat.Reader<Long, Long> reader;
-
-        metric.reset();
-
-        writer = format.getWriter(output);
-        runner.run(recommender, writer);
-        writer.close();
-
-        reader = format.getReader(output);
-        reader.readAll().forEach(rec ->
+        try (EvaluationWriter<Long, Long> writer = new EvaluationWriter<>(Collections.singletonList(metric), getWriter(output)))
         {
-            if (rec != null && rec.getItems() != null && !rec.getItems().isEmpty())
-            {
-                metric.add(rec);
-            }
-        });
+            runner.run(recommender, writer);
+        }
         return metric.evaluate();
     }
 
     /**
-     * Writes and evaluates a recommendation.
+     * Writes and evaluates a recommendation. The recommendations are evaluated as soon as they are written. The
+     * format of the file is selected by {@link #getWriter(String)}.
      *
      * @param output      Route of the file in which to store the recommendation.
      * @param recs        the recommendations to read and evaluate.
@@ -90,51 +80,28 @@ public class AuxiliarMethods
      *
      * @return the value of the metric.
      *
-     * @throws IOException if something fails during the writing / reading of the recommendation file.
+     * @throws IOException if something fails during the writing of the recommendation file.
      */
     public static Map<String, Double> writeAndEvaluate(String output, Stream<Recommendation<Long,Long>> recs, Map<String, SystemMetric<Long, Long>> metrics) throws IOException
     {
-        RecommendationFormat<Long, Long> format = new SimpleRecommendationFormat<>(Parsers.lp, Parsers.lp);
-        RecommendationFormat.Writer<Long, Long> writer = format.getWriter(output);
-        RecommendationFormat.Reader<Long, Long> reader;
-
-        Map<String, Double> values = new HashMap<>();
-
-        boolean wentright = recs.map(recommendation ->
+        try (EvaluationWriter<Long, Long> writer = new EvaluationWriter<>(metrics.values(), getWriter(output)))
         {
-            try
-            {
-                writer.write(recommendation);
-                return true;
-            }
-            catch (IOException e)
-            {
-                return false;
-            }
-        }).reduce(true, (x,y) -> x && y);
-
-        if(!wentright)
-        {
-            throw new IOException("Something failed while writing the recommendation in file " + output);
+            recs.forEach(writer);
         }
-
-        reader = format.getReader(output);
-        reader.readAll().forEach(rec ->
+        catch (UncheckedIOException e)
         {
-            if (rec != null && rec.getItems() != null && !rec.getItems().isEmpty())
-            {
-                metrics.values().forEach(metric -> metric.add(rec));
-            }
-        });
+            throw new IOException("Something failed while writing the recommendation in file " + output, e.getCause());
+        }
 
+        Map<String, Double> values = new HashMap<>();
         metrics.forEach((key, value) -> values.put(key, value.evaluate()));
         return values;
     }
 
-
-
     /**
-     * Computes a recommendation and evaluates it using metrics.
+     * Computes a recommendation and evaluates it using metrics. If the recommendation file already exists, the
+     * recommendation is read from it. Otherwise, the recommendations are evaluated as soon as they are generated,
+     * while they are written. The format of the file is selected by {@link #getWriter(String)}.
      *
      * @param output      Route of the file in which to store the recommendation.
      * @param recommender The recommender to apply.
@@ -143,53 +110,43 @@ public class AuxiliarMethods
      *
      * @return the value of the metrics.
      *
-     * @throws IOException if something fails during the writing / reading of the recommendation file.
+     * @throws IOException if something fails during the writing of the recommendation file.
      */
     public static Map<String, Double> computeAndEvaluate(String output, Recommender<Long, Long> recommender, RecommenderRunner<Long, Long> runner, Map<String, SystemMetric<Long, Long>> metrics) throws IOException
     {
-        RecommendationFormat<Long, Long> format = new SimpleRecommendationFormat<>(Parsers.lp, Parsers.lp);
-        RecommendationFormat.Writer<Long, Long> writer;
-        RecommendationFormat.Reader<Long, Long> reader;
-
         Map<String, Double> values = new HashMap<>();
 
+        boolean recovered = false;
         File f = new File(output);
         if(f.exists()) // Recover the all recommendation.
         {
-            try
+            try (EvaluationWriter<Long, Long> writer = new EvaluationWriter<>(metrics.values());
+                 Stream<Recommendation<Long, Long>> recs = getReader(output).readAll())
             {
-                reader = format.getReader(output);
-                Stream<Recommendation<Long, Long>> stream = reader.readAll();
+                recs.forEach(writer);
+                recovered = true;
             }
             catch(Exception ioe) // if something fails while reading, execute again:
             {
-                writer = format.getWriter(output);
-                runner.run(recommender, writer);
-                writer.close();
+                recovered = false;
             }
         }
-        else
-        {
-            writer = format.getWriter(output);
-            runner.run(recommender, writer);
-            writer.close();
-        }
 
-        reader = format.getReader(output);
-        reader.readAll().forEach(rec ->
+        if(!recovered)
         {
-            if (rec != null && rec.getItems() != null && !rec.getItems().isEmpty())
+            try (EvaluationWriter<Long, Long> writer = new EvaluationWriter<>(metrics.values(), getWriter(output)))
             {
-                metrics.values().forEach(metric -> metric.add(rec));
+                runner.run(recommender, writer);
             }
-        });
+        }
 
         metrics.forEach((key, value) -> values.put(key, value.evaluate()));
         return values;
     }
 
     /**
-     * Computes a recommendation and evaluates it using nDCG metric. It does not write the recommendation.
+     * Computes a recommendation and evaluates it using nDCG metric. It does not write the recommendation: each
+     * recommendation is evaluated as soon as it is generated.
      *
      * @param recommender The recommender to apply.
      * @param runner      The recommender runner.
@@ -199,23 +156,13 @@ public class AuxiliarMethods
      */
     public static double computeAndEvaluate(Recommender<Long, Long> recommender, RecommenderRunner<Long, Long> runner, SystemMetric<Long, Long> metric)
     {
-        EmptyWriter<Long, Long> writer = new EmptyWriter<>();
-        runner.run(recommender, writer);
-
-        metric.reset();
-        writer.readAll().forEach(rec ->
-        {
-            if (rec != null && rec.getItems() != null && !rec.getItems().isEmpty())
-            {
-                metric.add(rec);
-            }
-        });
-
+        runner.run(recommender, new EvaluationWriter<>(Collections.singletonList(metric)));
         return metric.evaluate();
     }
 
     /**
-     * Computes a recommendation and evaluates it using some metrics. It does not write the recommendation.
+     * Computes a recommendation and evaluates it using some metrics. It does not write the recommendation: each
+     * recommendation is evaluated as soon as it is generated.
      *
      * @param recommender The recommender to apply.
      * @param runner      The recommender runner.
@@ -225,23 +172,56 @@ public class AuxiliarMethods
      */
     public static Map<String, Double> computeAndEvaluate(Recommender<Long, Long> recommender, RecommenderRunner<Long, Long> runner, Map<String, SystemMetric<Long, Long>> metrics)
     {
-        EmptyWriter<Long, Long> writer = new EmptyWriter<>();
-        runner.run(recommender, writer);
+        runner.run(recommender, new EvaluationWriter<>(metrics.values()));
 
         Map<String, Double> values = new HashMap<>();
-        metrics.values().forEach(SystemMetric::reset);
-        writer.readAll().forEach(rec ->
-        {
-            if (rec != null && rec.getItems() != null && !rec.getItems().isEmpty())
-            {
-                metrics.values().forEach(metric -> metric.add(rec));
-            }
-        });
-
         metrics.forEach((key, value) -> values.put(key, value.evaluate()));
         return values;
     }
 
+    /**
+     * Obtains a writer for a recommendation file. The format depends on the extension of the file: binary files
+     * ({@link BinaryRecommendationFormat#EXTENSION}, or {@link BinaryRecommendationFormat#COMPRESSED_EXTENSION} for
+     * compressed blocks) use the {@link BinaryRecommendationFormat}, and the rest use the simple text format
+     * (compressed if the name ends in ".gz").
+     *
+     * @param output the route of the file.
+     *
+     * @return the writer.
+     *
+     * @throws IOException if something fails while opening the file.
+     */
+    static RecommendationFormat.Writer<Long, Long> getWriter(String output) throws IOException
+    {
+        if (BinaryRecommendationFormat.isBinary(output))
+        {
+            return new BinaryRecommendationFormat(output.endsWith(BinaryRecommendationFormat.COMPRESSED_EXTENSION)).getWriter(output);
+        }
+        RecommendationFormat<Long, Long> format = new SimpleRecommendationFormat<>(Parsers.lp, Parsers.lp);
+        return output.endsWith(".gz") ? format.getWriter(new GZIPOutputStream(new FileOutputStream(output))) : format.getWriter(output);
+    }
+
+    /**
+     * Obtains a reader for a recommendation file. The format depends on the extension of the file, as in
+     * {@link #getWriter(String)}. It is public because the evaluation and reranking programs, in other packages,
+     * read the recommendation files through it.
+     *
+     * @param input the route of the file.
+     *
+     * @return the reader.
+     *
+     * @throws IOException if something fails while opening the file.
+     */
+    public static RecommendationFormat.Reader<Long, Long> getReader(String input) throws IOException
+    {
+        if (BinaryRecommendationFormat.isBinary(input))
+        {
+            return new BinaryRecommendationFormat().getReader(input);
+        }
+        RecommendationFormat<Long, Long> format = new SimpleRecommendationFormat<>(Parsers.lp, Parsers.lp);
+        return input.endsWith(".gz") ? format.getReader(new GZIPInputStream(new FileInputStream(input))) : format.getReader(input);
+    }
+
     /**
      * Given two maps with the same keys, generates a new file that prints the nDCG values for both.
      *
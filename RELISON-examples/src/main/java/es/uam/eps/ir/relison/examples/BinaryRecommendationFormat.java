@@ -0,0 +1,700 @@
+/*
+ * Copyright (C) 2021 Information Retrieval Group at Universidad Autónoma
+ * de Madrid, http://ir.ii.uam.es and Terrier Team at University of Glasgow,
+ * http://terrierteam.dcs.gla.ac.uk/.
+ *
+ *  This Source Code Form is subject to the terms of the Mozilla Public
+ *  License, v. 2.0. If a copy of the MPL was not distributed with this
+ *  file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package es.uam.eps.ir.relison.examples;
+
+import es.uam.eps.ir.ranksys.core.Recommendation;
+import it.unimi.dsi.fastutil.io.FastByteArrayOutputStream;
+import it.unimi.dsi.fastutil.longs.Long2LongOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import org.ranksys.core.util.tuples.Tuple2od;
+import org.ranksys.formats.rec.RecommendationFormat;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Compact binary format for recommendations of long identifiers. The file contains:
+ * <ul>
+ *     <li>A header: the {@link #MAGIC} bytes, and a byte of flags (indicating whether blocks are compressed).</li>
+ *     <li>One block per user: the length of the block (and, if compressed, the length of the uncompressed block),
+ *     followed by the user, the number of items, and, for each item, the difference with the previous item and the
+ *     score (as a float). Identifiers and lengths are stored as variable-length integers.</li>
+ *     <li>An empty block, marking the end of the recommendations.</li>
+ *     <li>An index with the position of the block of each user, followed by the position of the index and the
+ *     {@link #MAGIC} bytes.</li>
+ * </ul>
+ *
+ * <p>The recommendations can be read sequentially from any stream ({@link #getReader(InputStream)}), or, thanks to
+ * the index, individually by user from a file ({@link #getRandomAccessReader(File)}).</p>
+ *
+ * <p>Scores are narrowed from double to float when they are written, so the scores read from the file are the
+ * written ones rounded to single precision. Almost equal scores may become tied, but the order of the items in
+ * each recommendation is stored as it is.</p>
+ *
+ * @author Javier Sanz-Cruzado (javier.sanz-cruzado@uam.es)
+ * @author Craig Macdonald (craig.macdonald@glasgow.ac.uk)
+ * @author Iadh Ounis (iadh.ounis@glasgow.ac.uk)
+ * @author Pablo Castells (pablo.castells@uam.es)
+ */
+public class BinaryRecommendationFormat implements RecommendationFormat<Long, Long>
+{
+    /**
+     * Extension of the binary recommendation files.
+     */
+    public final static String EXTENSION = ".bin";
+    /**
+     * Extension of the binary recommendation files with compressed blocks.
+     */
+    public final static String COMPRESSED_EXTENSION = ".zbin";
+    /**
+     * Bytes identifying the format.
+     */
+    private final static byte[] MAGIC = "RLSNREC1".getBytes(StandardCharsets.US_ASCII);
+    /**
+     * Flag indicating that the blocks are compressed.
+     */
+    private final static int COMPRESSED = 1;
+    /**
+     * Size of the header.
+     */
+    private final static int HEADER_SIZE = MAGIC.length + 1;
+    /**
+     * Size of the footer.
+     */
+    private final static int FOOTER_SIZE = Long.BYTES + MAGIC.length;
+    /**
+     * Maximum length of a variable-length integer.
+     */
+    private final static int MAX_VARINT = 10;
+
+    /**
+     * Whether the blocks of each user are compressed or not.
+     */
+    private final boolean compress;
+
+    /**
+     * Constructor.
+     *
+     * @param compress whether to compress the block of each user (only affects the writers: readers find it in the
+     *                 file).
+     */
+    public BinaryRecommendationFormat(boolean compress)
+    {
+        this.compress = compress;
+    }
+
+    /**
+     * Constructor. Blocks are not compressed.
+     */
+    public BinaryRecommendationFormat()
+    {
+        this(false);
+    }
+
+    /**
+     * Checks whether a file uses this format, by its extension.
+     *
+     * @param file the route of the file.
+     *
+     * @return true if the file has a binary recommendation extension, false otherwise.
+     */
+    public static boolean isBinary(String file)
+    {
+        return file.endsWith(EXTENSION) || file.endsWith(COMPRESSED_EXTENSION);
+    }
+
+    @Override
+    public RecommendationFormat.Writer<Long, Long> getWriter(OutputStream out) throws IOException
+    {
+        return new Writer(out, compress);
+    }
+
+    @Override
+    public RecommendationFormat.Reader<Long, Long> getReader(InputStream in)
+    {
+        return new Reader(in);
+    }
+
+    /**
+     * Obtains a reader for finding the recommendation of individual users in a file.
+     *
+     * @param file the file.
+     *
+     * @return the reader.
+     *
+     * @throws IOException if something fails while reading the index of the file.
+     */
+    public RandomAccessReader getRandomAccessReader(File file) throws IOException
+    {
+        return new RandomAccessReader(file);
+    }
+
+    /**
+     * Obtains a reader for finding the recommendation of individual users in a file.
+     *
+     * @param file the route of the file.
+     *
+     * @return the reader.
+     *
+     * @throws IOException if something fails while reading the index of the file.
+     */
+    public RandomAccessReader getRandomAccessReader(String file) throws IOException
+    {
+        return getRandomAccessReader(new File(file));
+    }
+
+    /**
+     * Writes a variable-length long, using zig-zag encoding.
+     *
+     * @param out   the output.
+     * @param value the value.
+     *
+     * @return the number of written bytes.
+     *
+     * @throws IOException if something fails while writing.
+     */
+    private static int writeVarLong(OutputStream out, long value) throws IOException
+    {
+        long v = (value << 1) ^ (value >> 63);
+        int count = 1;
+        while ((v & ~0x7FL) != 0)
+        {
+            out.write((int) ((v & 0x7F) | 0x80));
+            v >>>= 7;
+            count++;
+        }
+        out.write((int) v);
+        return count;
+    }
+
+    /**
+     * Reads a variable-length long, using zig-zag encoding.
+     *
+     * @param in the input.
+     *
+     * @return the value.
+     *
+     * @throws IOException if the input ends before the value.
+     */
+    private static long readVarLong(InputStream in) throws IOException
+    {
+        long v = 0;
+        for (int shift = 0; shift < 64; shift += 7)
+        {
+            int b = in.read();
+            if (b < 0)
+            {
+                throw new EOFException("Unexpected end of the binary recommendation file");
+            }
+            v |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0)
+            {
+                return (v >>> 1) ^ -(v & 1);
+            }
+        }
+        throw new IOException("Malformed binary recommendation file");
+    }
+
+    /**
+     * Reads a variable-length long, using zig-zag encoding.
+     *
+     * @param buffer the input.
+     *
+     * @return the value.
+     */
+    private static long readVarLong(ByteBuffer buffer)
+    {
+        long v = 0;
+        for (int shift = 0; ; shift += 7)
+        {
+            int b = buffer.get();
+            v |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0)
+            {
+                return (v >>> 1) ^ -(v & 1);
+            }
+        }
+    }
+
+    /**
+     * Reads exactly the given number of bytes.
+     *
+     * @param in    the input.
+     * @param bytes the array to fill.
+     *
+     * @throws IOException if the input ends before.
+     */
+    private static void readFully(InputStream in, byte[] bytes) throws IOException
+    {
+        new DataInputStream(in).readFully(bytes);
+    }
+
+    /**
+     * Decodes the block of a user.
+     *
+     * @param block      the block (uncompressed).
+     * @param length     the length of the block.
+     *
+     * @return the recommendation.
+     */
+    private static Recommendation<Long, Long> decode(byte[] block, int length)
+    {
+        ByteBuffer buffer = ByteBuffer.wrap(block, 0, length);
+        long u = readVarLong(buffer);
+        int numItems = (int) readVarLong(buffer);
+        List<Tuple2od<Long>> items = new ArrayList<>(numItems);
+        long item = 0;
+        for (int i = 0; i < numItems; ++i)
+        {
+            item += readVarLong(buffer);
+            items.add(new Tuple2od<>(item, buffer.getFloat()));
+        }
+        return new Recommendation<>(u, items);
+    }
+
+    /**
+     * Uncompresses a block, if needed.
+     *
+     * @param stored    the stored block.
+     * @param rawLength the length of the uncompressed block (-1 if the block is not compressed).
+     *
+     * @return the uncompressed block.
+     *
+     * @throws IOException if the block is malformed.
+     */
+    private static byte[] inflate(byte[] stored, int rawLength) throws IOException
+    {
+        if (rawLength < 0)
+        {
+            return stored;
+        }
+        Inflater inflater = new Inflater();
+        try
+        {
+            inflater.setInput(stored);
+            byte[] raw = new byte[rawLength];
+            int read = 0;
+            while (read < rawLength && !inflater.finished())
+            {
+                read += inflater.inflate(raw, read, rawLength - read);
+            }
+            return raw;
+        }
+        catch (DataFormatException e)
+        {
+            throw new IOException("Malformed binary recommendation file", e);
+        }
+        finally
+        {
+            inflater.end();
+        }
+    }
+
+    /**
+     * Writer for the binary format. Different threads can write recommendations at the same time.
+     */
+    private static class Writer implements RecommendationFormat.Writer<Long, Long>
+    {
+        /**
+         * The output.
+         */
+        private final OutputStream out;
+        /**
+         * Whether to compress the blocks or not.
+         */
+        private final boolean compress;
+        /**
+         * Buffer for encoding the blocks.
+         */
+        private final FastByteArrayOutputStream block;
+        /**
+         * Buffer for compressing the blocks.
+         */
+        private final FastByteArrayOutputStream compressed;
+        /**
+         * Compressor.
+         */
+        private final Deflater deflater;
+        /**
+         * Users, in the order they have been written.
+         */
+        private final LongArrayList users;
+        /**
+         * Positions of the blocks of the users.
+         */
+        private final LongArrayList positions;
+        /**
+         * Current position in the output.
+         */
+        private long position;
+
+        /**
+         * Constructor.
+         *
+         * @param out      the output.
+         * @param compress whether to compress the blocks or not.
+         *
+         * @throws IOException if something fails while writing the header.
+         */
+        Writer(OutputStream out, boolean compress) throws IOException
+        {
+            this.out = new BufferedOutputStream(out);
+            this.compress = compress;
+            this.block = new FastByteArrayOutputStream();
+            this.compressed = new FastByteArrayOutputStream();
+            this.deflater = compress ? new Deflater(Deflater.BEST_SPEED) : null;
+            this.users = new LongArrayList();
+            this.positions = new LongArrayList();
+
+            this.out.write(MAGIC);
+            this.out.write(compress ? COMPRESSED : 0);
+            this.position = HEADER_SIZE;
+        }
+
+        @Override
+        public synchronized void write(Recommendation<Long, Long> recommendation) throws IOException
+        {
+            block.reset();
+            writeVarLong(block, recommendation.getUser());
+            List<Tuple2od<Long>> items = recommendation.getItems();
+            writeVarLong(block, items.size());
+            long previous = 0;
+            for (Tuple2od<Long> item : items)
+            {
+                writeVarLong(block, item.v1 - previous);
+                previous = item.v1;
+                int bits = Float.floatToIntBits((float) item.v2);
+                block.write(bits >>> 24);
+                block.write(bits >>> 16);
+                block.write(bits >>> 8);
+                block.write(bits);
+            }
+
+            users.add(recommendation.getUser().longValue());
+            positions.add(position);
+            if (compress)
+            {
+                deflater.reset();
+                deflater.setInput(block.array, 0, block.length);
+                deflater.finish();
+                compressed.reset();
+                byte[] buffer = new byte[4096];
+                while (!deflater.finished())
+                {
+                    int length = deflater.deflate(buffer);
+                    compressed.write(buffer, 0, length);
+                }
+                position += writeVarLong(out, compressed.length);
+                position += writeVarLong(out, block.length);
+                out.write(compressed.array, 0, compressed.length);
+                position += compressed.length;
+            }
+            else
+            {
+                position += writeVarLong(out, block.length);
+                out.write(block.array, 0, block.length);
+                position += block.length;
+            }
+        }
+
+        @Override
+        public synchronized void close() throws IOException
+        {
+            // End of the blocks.
+            writeVarLong(out, 0);
+            long indexPosition = position + 1;
+
+            writeVarLong(out, users.size());
+            for (int i = 0; i < users.size(); ++i)
+            {
+                writeVarLong(out, users.getLong(i));
+                writeVarLong(out, positions.getLong(i));
+            }
+
+            DataOutputStream data = new DataOutputStream(out);
+            data.writeLong(indexPosition);
+            data.write(MAGIC);
+            data.close();
+            if (deflater != null)
+            {
+                deflater.end();
+            }
+        }
+    }
+
+    /**
+     * Sequential reader for the binary format.
+     */
+    private static class Reader implements RecommendationFormat.Reader<Long, Long>
+    {
+        /**
+         * The input.
+         */
+        private final InputStream in;
+
+        /**
+         * Constructor.
+         *
+         * @param in the input.
+         */
+        Reader(InputStream in)
+        {
+            this.in = in;
+        }
+
+        @Override
+        public Stream<Recommendation<Long, Long>> readAll() throws IOException
+        {
+            InputStream input = new BufferedInputStream(in);
+            byte[] header = new byte[HEADER_SIZE];
+            readFully(input, header);
+            if (!Arrays.equals(Arrays.copyOf(header, MAGIC.length), MAGIC))
+            {
+                throw new IOException("The input does not contain binary recommendations");
+            }
+            boolean compressed = (header[MAGIC.length] & COMPRESSED) != 0;
+
+            Iterator<Recommendation<Long, Long>> iterator = new Iterator<>()
+            {
+                /**
+                 * The next recommendation (null if it has not been read yet).
+                 */
+                private Recommendation<Long, Long> next;
+                /**
+                 * Whether the end of the blocks has been reached.
+                 */
+                private boolean finished;
+
+                @Override
+                public boolean hasNext()
+                {
+                    if (next == null && !finished)
+                    {
+                        try
+                        {
+                            int length = (int) readVarLong(input);
+                            if (length == 0)
+                            {
+                                finished = true;
+                            }
+                            else
+                            {
+                                int rawLength = compressed ? (int) readVarLong(input) : -1;
+                                byte[] stored = new byte[length];
+                                readFully(input, stored);
+                                byte[] raw = inflate(stored, rawLength);
+                                next = decode(raw, raw.length);
+                            }
+                        }
+                        catch (IOException e)
+                        {
+                            throw new UncheckedIOException(e);
+                        }
+                    }
+                    return next != null;
+                }
+
+                @Override
+                public Recommendation<Long, Long> next()
+                {
+                    if (!hasNext())
+                    {
+                        throw new NoSuchElementException();
+                    }
+                    Recommendation<Long, Long> rec = next;
+                    next = null;
+                    return rec;
+                }
+            };
+
+            return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED | Spliterator.NONNULL), false).onClose(() ->
+            {
+                try
+                {
+                    input.close();
+                }
+                catch (IOException e)
+                {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        }
+    }
+
+    /**
+     * Reader which finds the recommendation of individual users in a file, using its index. Different threads can
+     * read recommendations at the same time.
+     */
+    public static class RandomAccessReader implements RecommendationFormat.Reader<Long, Long>, Closeable
+    {
+        /**
+         * The file.
+         */
+        private final FileChannel channel;
+        /**
+         * Whether the blocks are compressed or not.
+         */
+        private final boolean compressed;
+        /**
+         * The users, in the order they appear in the file.
+         */
+        private final LongArrayList users;
+        /**
+         * Position of the block of each user.
+         */
+        private final Long2LongOpenHashMap positions;
+
+        /**
+         * Constructor.
+         *
+         * @param file the file.
+         *
+         * @throws IOException if something fails while reading the index.
+         */
+        RandomAccessReader(File file) throws IOException
+        {
+            this.channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+            long size = channel.size();
+            if (size < HEADER_SIZE + 1 + FOOTER_SIZE)
+            {
+                channel.close();
+                throw new IOException("The file " + file + " does not contain binary recommendations");
+            }
+            ByteBuffer header = this.read(0, HEADER_SIZE);
+            ByteBuffer footer = this.read(size - FOOTER_SIZE, FOOTER_SIZE);
+            byte[] magic = new byte[MAGIC.length];
+            header.get(magic);
+            boolean valid = Arrays.equals(magic, MAGIC);
+            this.compressed = (header.get() & COMPRESSED) != 0;
+            long indexPosition = footer.getLong();
+            footer.get(magic);
+            if (!valid || !Arrays.equals(magic, MAGIC) || indexPosition < HEADER_SIZE || indexPosition > size - FOOTER_SIZE)
+            {
+                channel.close();
+                throw new IOException("The file " + file + " does not contain binary recommendations");
+            }
+
+            ByteBuffer index = this.read(indexPosition, (int) (size - FOOTER_SIZE - indexPosition));
+            int numUsers = (int) readVarLong(index);
+            this.users = new LongArrayList(numUsers);
+            this.positions = new Long2LongOpenHashMap(numUsers);
+            this.positions.defaultReturnValue(-1L);
+            for (int i = 0; i < numUsers; ++i)
+            {
+                long u = readVarLong(index);
+                users.add(u);
+                positions.put(u, readVarLong(index));
+            }
+        }
+
+        /**
+         * Reads a fragment of the file.
+         *
+         * @param position the position of the fragment.
+         * @param length   the length of the fragment.
+         *
+         * @return a buffer containing the fragment.
+         *
+         * @throws IOException if something fails while reading.
+         */
+        private ByteBuffer read(long position, int length) throws IOException
+        {
+            ByteBuffer buffer = ByteBuffer.allocate(length);
+            while (buffer.hasRemaining())
+            {
+                if (channel.read(buffer, position + buffer.position()) < 0)
+                {
+                    break;
+                }
+            }
+            buffer.flip();
+            return buffer;
+        }
+
+        /**
+         * Obtains the users in the file.
+         *
+         * @return the users, in the order they appear in the file.
+         */
+        public LongStream getUsers()
+        {
+            return Arrays.stream(users.elements(), 0, users.size());
+        }
+
+        /**
+         * Checks whether the file contains the recommendation for a user.
+         *
+         * @param u the user.
+         *
+         * @return true if the file contains the recommendation for the user, false otherwise.
+         */
+        public boolean containsUser(long u)
+        {
+            return positions.containsKey(u);
+        }
+
+        /**
+         * Reads the recommendation for a user.
+         *
+         * @param u the user.
+         *
+         * @return the recommendation, or null if the file does not contain it.
+         *
+         * @throws IOException if something fails while reading.
+         */
+        public Recommendation<Long, Long> read(long u) throws IOException
+        {
+            long position = positions.get(u);
+            if (position < 0)
+            {
+                return null;
+            }
+
+            ByteBuffer lengths = this.read(position, Math.min(2 * MAX_VARINT, (int) (channel.size() - position)));
+            int length = (int) readVarLong(lengths);
+            int rawLength = compressed ? (int) readVarLong(lengths) : -1;
+            ByteBuffer stored = this.read(position + lengths.position(), length);
+            byte[] raw = inflate(stored.array(), rawLength);
+            return decode(raw, raw.length);
+        }
+
+        @Override
+        public Stream<Recommendation<Long, Long>> readAll()
+        {
+            return users.stream().map(u ->
+            {
+                try
+                {
+                    return this.read(u);
+                }
+                catch (IOException e)
+                {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        }
+
+        @Override
+        public void close() throws IOException
+        {
+            channel.close();
+        }
+    }
+}
@@ -0,0 +1,101 @@
+/*
+ * Copyright (C) 2021 Information Retrieval Group at Universidad Autónoma
+ * de Madrid, http://ir.ii.uam.es and Terrier Team at University of Glasgow,
+ * http://terrierteam.dcs.gla.ac.uk/.
+ *
+ *  This Source Code Form is subject to the terms of the Mozilla Public
+ *  License, v. 2.0. If a copy of the MPL was not distributed with this
+ *  file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package es.uam.eps.ir.relison.examples;
+
+import es.uam.eps.ir.ranksys.core.Recommendation;
+import es.uam.eps.ir.ranksys.metrics.SystemMetric;
+import org.ranksys.formats.rec.RecommendationFormat;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Writer which, instead of storing the recommendations, adds them to a set of metrics as soon as they are received.
+ * Optionally, it also passes them to another writer (for instance, one that stores them in a file).
+ *
+ * <p>Different threads can write recommendations at the same time: each metric is updated under its own lock, so
+ * that different metrics can be updated concurrently by different threads.</p>
+ *
+ * @param <U> Type of the users.
+ * @param <I> Type of the items.
+ *
+ * @author Javier Sanz-Cruzado (javier.sanz-cruzado@uam.es)
+ * @author Craig Macdonald (craig.macdonald@glasgow.ac.uk)
+ * @author Iadh Ounis (iadh.ounis@glasgow.ac.uk)
+ * @author Pablo Castells (pablo.castells@uam.es)
+ */
+public class EvaluationWriter<U, I> implements RecommendationFormat.Writer<U, I>
+{
+    /**
+     * The metrics to update.
+     */
+    private final List<SystemMetric<U, I>> metrics;
+    /**
+     * Writer which also receives the recommendations (null if there is none).
+     */
+    private final RecommendationFormat.Writer<U, I> writer;
+
+    /**
+     * Constructor.
+     *
+     * @param metrics the metrics to update.
+     * @param writer  a writer which also receives the recommendations (null if there is none).
+     */
+    public EvaluationWriter(Collection<? extends SystemMetric<U, I>> metrics, RecommendationFormat.Writer<U, I> writer)
+    {
+        this.metrics = new ArrayList<>(metrics);
+        this.writer = writer;
+        this.metrics.forEach(SystemMetric::reset);
+    }
+
+    /**
+     * Constructor. The recommendations are not passed to any other writer.
+     *
+     * @param metrics the metrics to update.
+     */
+    public EvaluationWriter(Collection<? extends SystemMetric<U, I>> metrics)
+    {
+        this(metrics, null);
+    }
+
+    @Override
+    public void write(Recommendation<U, I> recommendation) throws IOException
+    {
+        if (writer != null)
+        {
+            synchronized (writer)
+            {
+                writer.write(recommendation);
+            }
+        }
+
+        if (recommendation != null && recommendation.getItems() != null && !recommendation.getItems().isEmpty())
+        {
+            for (SystemMetric<U, I> metric : metrics)
+            {
+                synchronized (metric)
+                {
+                    metric.add(recommendation);
+                }
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException
+    {
+        if (writer != null)
+        {
+            writer.close();
+        }
+    }
+}
@@ -46,6 +46,8 @@ public class Diffusion
     private final static String TESTGRAPH = "-test-graph";
     private final static String BACKUP = "-previous";
     private final static String REALPROP = "-realprop";
+    private final static String THREADS = "-threads";
+    private final static String SEED = "-seed";
 
     /**
      * Executes the information diffusion through a social network.
@@ -72,6 +74,8 @@ public class Diffusion
      *          <li><b>-infofeats file1,file2,...,fileN:</b> a comma-separated list of files containing the features for the information pieces (e.g. hashtags).</li>
      *          <li><b>-realprop file:</b> a file indicating which information pieces have been repropagated by users in another information diffusion process.</li>
      *          <li><b>-previous folder:</b> file containing the result of a previous diffusion procedure.</li>
+     *          <li><b>-threads numThreads:</b> the number of threads for executing each iteration of the simulations (users are processed in parallel if greater than one). By default: 1</li>
+     *          <li><b>-seed seed:</b> the seed of the simulations, for reproducing them. The j-th execution of each simulation uses seed + j. By default, a random seed is chosen for each execution.</li>
      *      </ul></li>
      * </ol>
      * @throws IOException if something fails while reading / writing.
@@ -102,6 +106,8 @@ public class Diffusion
             System.err.println("\t" + INFOFEATS + " file1,file2,...,fileN: a comma-separated list of files containing the features for the information pieces (e.g. hashtags).");
             System.err.println("\t" + REALPROP + " file: a file indicating which information pieces have been repropagated by users in another information diffusion process.");
             System.err.println("\t" + BACKUP + " folder: file containing the result of a previous diffusion procedure.");
+            System.err.println("\t" + THREADS + " numThreads: the number of threads for executing each iteration of the simulations (users are processed in parallel if greater than one). By default: 1");
+            System.err.println("\t" + SEED + " seed: the seed of the simulations, for reproducing them. The j-th execution of each simulation uses seed + j. By default, a random seed is chosen for each execution.");
             return;
         }
 
@@ -131,6 +137,8 @@ public class Diffusion
         int topN = Integer.MAX_VALUE;
         String realProp = null;
         String testGraphFile = null;
+        int numThreads = 1;
+        Long seed = null;
 
         for(int i = 12; i < args.length; ++i)
         {
@@ -162,6 +170,14 @@ public class Diffusion
             {
                 testGraphFile = args[++i];
             }
+            else if(args[i].equalsIgnoreCase(THREADS))
+            {
+                numThreads = Parsers.ip.parse(args[++i]);
+            }
+            else if(args[i].equalsIgnoreCase(SEED))
+            {
+                seed = Parsers.lp.parse(args[++i]);
+            }
         }
 
 
@@ -220,7 +236,7 @@ public class Diffusion
         SimulationParameterReader simReader = new SimulationParameterReader();
         Map<String, Object> sims = AuxiliarMethods.readYAML(config);
         simReader.read(sims);
-        SimulatorSelector<Long, Long, Long> simSel = new SimulatorSelector<>(Parsers.lp);
+        SimulatorSelector<Long, Long, Long> simSel = new SimulatorSelector<>(Parsers.lp, numThreads);
         
         // For each simulator
         for(int i = 0; i < simReader.numberSimulations(); ++i)
@@ -256,6 +272,10 @@ public class Diffusion
             {
                 // Initialize the simulation
                 timea = System.currentTimeMillis();
+                if(seed != null)
+                {
+                    sim.setSeed(seed + j);
+                }
                 if(backupSim != null)
                 {
                     sim.initialize(filteredData, backupSim);
@@ -269,6 +289,7 @@ public class Diffusion
 
                 // Execute the simulation.
                 Simulation<Long,Long,Long> simulation = sim.simulate();
+                System.out.println("Simulation " + j + " executed (" + String.format("%.1f", sim.getThroughput()) + " user updates/s)");
 
                 String rec = null;
                 if(recFile != null)
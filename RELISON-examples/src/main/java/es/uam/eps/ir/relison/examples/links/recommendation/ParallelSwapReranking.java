@@ -0,0 +1,170 @@
+/*
+ *  Copyright (C) 2021 Information Retrieval Group at Universidad Autónoma
+ *  de Madrid, http://ir.ii.uam.es
+ *
+ *  This Source Code Form is subject to the terms of the Mozilla Public
+ *  License, v. 2.0. If a copy of the MPL was not distributed with this
+ *  file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package es.uam.eps.ir.relison.examples.links.recommendation;
+
+import es.uam.eps.ir.ranksys.core.Recommendation;
+import es.uam.eps.ir.relison.examples.AuxiliarMethods;
+import es.uam.eps.ir.relison.graph.Graph;
+import es.uam.eps.ir.relison.io.graph.TextGraphReader;
+import es.uam.eps.ir.relison.links.recommendation.reranking.global.GlobalReranker;
+import es.uam.eps.ir.relison.links.recommendation.reranking.global.swap.edge.EmbedednessReranker;
+import es.uam.eps.ir.relison.links.recommendation.reranking.global.swap.edge.HeuristicEmbedednessReranker;
+import es.uam.eps.ir.relison.links.recommendation.reranking.global.swap.edge.HeuristicWeaknessReranker;
+import es.uam.eps.ir.relison.links.recommendation.reranking.global.swap.edge.WeaknessReranker;
+import es.uam.eps.ir.relison.links.recommendation.reranking.normalizer.Normalizer;
+import es.uam.eps.ir.relison.links.recommendation.reranking.normalizer.Normalizers;
+import org.ranksys.core.util.tuples.Tuple2od;
+import org.ranksys.formats.parsing.Parsers;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import static es.uam.eps.ir.relison.examples.AuxiliarVariables.TRUE;
+
+/**
+ * Program for comparing the sequential and the parallel (batched) execution of a swap reranker. It reranks a
+ * recommendation in both ways, and prints the running time of each execution, and how similar the outcomes are.
+ *
+ * @author Javier Sanz-Cruzado (javier.sanz-cruzado@uam.es)
+ * @author Pablo Castells (pablo.castells@uam.es)
+ */
+public class ParallelSwapReranking
+{
+    /**
+     * Compares the sequential and the parallel execution of a swap reranker.
+     * @param args Execution arguments:
+     *             <ol>
+     *                  <li><b>Train:</b> Route to the file containing the training graph.</li>
+     *                  <li><b>Directed:</b> true if the network is directed, false otherwise.</li>
+     *                  <li><b>Recommendation:</b> Route to the recommendation to rerank.</li>
+     *                  <li><b>Reranker:</b> the reranker: embeddedness, weakness, heuristic-embeddedness or heuristic-weakness.</li>
+     *                  <li><b>Lambda:</b> trade-off between the original score and the global metric.</li>
+     *                  <li><b>Cutoff:</b> Number of recommended users to return.</li>
+     *                  <li><b>Max. length:</b> the number of recommended users to consider.</li>
+     *                  <li><b>Normalize:</b> the normalization function: ranksim, zscore, minmax or none.</li>
+     *                  <li><b>Batch size:</b> maximum number of users to rerank in parallel.</li>
+     *                  <li>Optional arguments:
+     *                      <ul>
+     *                          <li><b>-mode value:</b> the execution mode of the heuristic rerankers (by default, 1).</li>
+     *                      </ul>
+     *                  </li>
+     *             </ol>
+     *
+     * @throws IOException if something fails while reading the data.
+     */
+    public static void main(String[] args) throws IOException
+    {
+        if(args.length < 9)
+        {
+            System.err.println("Invalid arguments.");
+            System.err.println("Usage:");
+            System.err.println("\tTrain: Route to the file containing the training graph.");
+            System.err.println("\tDirected: true if the network is directed, false otherwise.");
+            System.err.println("\tRecommendation: Route to the recommendation to rerank.");
+            System.err.println("\tReranker: the reranker: embeddedness, weakness, heuristic-embeddedness or heuristic-weakness.");
+            System.err.println("\tLambda: trade-off between the original score and the global metric.");
+            System.err.println("\tCutoff: Number of recommended users to return");
+            System.err.println("\tMax. length: the number of recommended users to consider.");
+            System.err.println("\tNormalize: the normalization function: ranksim, zscore, minmax or none");
+            System.err.println("\tBatch size: maximum number of users to rerank in parallel.");
+            System.err.println("\tOptional arguments:");
+            System.err.println("\t\t-mode value: the execution mode of the heuristic rerankers (by default, 1)");
+            return;
+        }
+
+        String trainPath = args[0];
+        boolean directed = args[1].equalsIgnoreCase(TRUE);
+        String recPath = args[2];
+        String rerankerName = args[3];
+        double lambda = Parsers.dp.parse(args[4]);
+        int cutoff = Parsers.ip.parse(args[5]);
+        int maxLength = Parsers.ip.parse(args[6]);
+        String normalizer = args[7];
+        int batchSize = Parsers.ip.parse(args[8]);
+
+        int mode = 1;
+        for(int i = 9; i < args.length; ++i)
+        {
+            switch (args[i])
+            {
+                case "-mode" -> mode = Parsers.ip.parse(args[++i]);
+            }
+        }
+
+        long timea = System.currentTimeMillis();
+        TextGraphReader<Long> greader = new TextGraphReader<>(directed, false, false, "\t", Parsers.lp);
+        Graph<Long> graph = greader.read(trainPath, false, false);
+        List<Recommendation<Long, Long>> recommendations = AuxiliarMethods.getReader(recPath).readAll().collect(Collectors.toCollection(ArrayList::new));
+        long timeb = System.currentTimeMillis();
+        System.out.println("Data read (" + (timeb - timea) + " ms.)");
+
+        Supplier<Normalizer<Long>> norm = switch(normalizer.toLowerCase())
+        {
+            case "minmax" -> Normalizers.minmax();
+            case "zscore" -> Normalizers.zscore();
+            case "ranksim" -> Normalizers.ranksim();
+            default -> Normalizers.noNorm();
+        };
+
+        Map<Long, Set<Long>> sequential = null;
+        for(int batch : new int[]{1, batchSize})
+        {
+            int auxMode = mode;
+            GlobalReranker<Long, Long> reranker = switch(rerankerName.toLowerCase())
+            {
+                case "embeddedness" -> new EmbedednessReranker<>(lambda, cutoff, norm, graph, batch);
+                case "weakness" -> new WeaknessReranker<>(lambda, cutoff, norm, graph, batch);
+                case "heuristic-embeddedness" -> new HeuristicEmbedednessReranker<>(lambda, cutoff, norm, graph, auxMode, batch);
+                case "heuristic-weakness" -> new HeuristicWeaknessReranker<>(lambda, cutoff, norm, graph, auxMode, batch);
+                default -> null;
+            };
+            if(reranker == null)
+            {
+                System.err.println("ERROR: Unknown reranker " + rerankerName);
+                return;
+            }
+
+            long startTime = System.nanoTime();
+            List<Recommendation<Long, Long>> reranked = reranker.rerankRecommendations(recommendations.stream(), maxLength).collect(Collectors.toList());
+            long difference = System.nanoTime() - startTime;
+
+            // The top-cutoff users recommended to each user.
+            Map<Long, Set<Long>> tops = reranked.stream().collect(Collectors.toMap(Recommendation::getUser, rec ->
+                rec.getItems().stream().limit(cutoff).map(Tuple2od::v1).collect(Collectors.toCollection(HashSet::new))));
+
+            System.out.println((batch > 1 ? "Parallel (batch size " + batch + ")" : "Sequential") + ": " + (difference / 1000000L) + " ms.");
+            if(sequential == null)
+            {
+                sequential = tops;
+            }
+            else
+            {
+                // Fidelity: fraction of the recommended pairs, and of the complete top-cutoff sets, shared by both executions.
+                long common = 0;
+                long total = 0;
+                long equal = 0;
+                for(Map.Entry<Long, Set<Long>> entry : sequential.entrySet())
+                {
+                    Set<Long> other = tops.getOrDefault(entry.getKey(), new HashSet<>());
+                    common += entry.getValue().stream().filter(other::contains).count();
+                    total += entry.getValue().size();
+                    equal += entry.getValue().equals(other) ? 1 : 0;
+                }
+                System.out.println("Shared recommended pairs: " + (total > 0 ? common / (total + 0.0) : 1.0));
+                System.out.println("Users with the same top-" + cutoff + ": " + (sequential.isEmpty() ? 1.0 : equal / (sequential.size() + 0.0)));
+            }
+        }
+    }
+}
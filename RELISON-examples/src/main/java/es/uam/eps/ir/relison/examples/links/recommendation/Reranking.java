@@ -17,6 +17,7 @@ import es.uam.eps.ir.ranksys.rec.runner.fast.FastFilters;
 import es.uam.eps.ir.relison.sna.community.Communities;
 import es.uam.eps.ir.relison.sna.community.io.TextCommunitiesReader;
 import es.uam.eps.ir.relison.examples.AuxiliarMethods;
+import es.uam.eps.ir.relison.examples.BinaryRecommendationFormat;
 import es.uam.eps.ir.relison.graph.Adapters;
 import es.uam.eps.ir.relison.graph.Graph;
 import es.uam.eps.ir.relison.graph.fast.FastGraph;
@@ -38,8 +39,6 @@ import es.uam.eps.ir.relison.links.recommendation.reranking.normalizer.Normalize
 import es.uam.eps.ir.relison.links.recommendation.reranking.normalizer.Normalizers;
 import org.ranksys.formats.feature.SimpleFeaturesReader;
 import org.ranksys.formats.parsing.Parsers;
-import org.ranksys.formats.rec.RecommendationFormat;
-import org.ranksys.formats.rec.SimpleRecommendationFormat;
 
 import java.io.File;
 import java.io.IOException;
@@ -301,7 +300,6 @@ public class Reranking
         testData = GraphSimpleFastPreferenceData.load(testGraph);
 
         // Perform the reranking.
-        RecommendationFormat<Long,Long> format = new SimpleRecommendationFormat<>(lp, lp);
         recFiles.forEach(rec ->
         {
             File f = new File(rec);
@@ -314,11 +312,12 @@ public class Reranking
                 {
                     System.out.println("Starting algorithm " + recName);
 
-                    List<Recommendation<Long, Long>> recommendations = format.getReader(rec).readAll().collect(Collectors.toCollection(ArrayList::new));
+                    String extension = BinaryRecommendationFormat.isBinary(rec) ? rec.substring(rec.lastIndexOf('.')) : ".txt";
+                    List<Recommendation<Long, Long>> recommendations = AuxiliarMethods.getReader(rec).readAll().collect(Collectors.toCollection(ArrayList::new));
                     rerankerMap.forEach((name, rerankerSupplier) ->
                     {
                         System.out.println("Running " + name);
-                        String recOut = String.format("%s_%s", output + recName, name + ".txt");
+                        String recOut = String.format("%s_%s", output + recName, name + extension);
 
                         // First, create the nDCG metric (for measuring accuracy)
                         Map<String, SystemMetric<Long, Long>> metrics = new HashMap<>();
@@ -32,8 +32,6 @@ import es.uam.eps.ir.relison.links.recommendation.SocialFastFilters;
 import es.uam.eps.ir.relison.links.recommendation.features.LuceneTfIdfFeaturesReader;
 import org.ranksys.formats.feature.SimpleFeaturesReader;
 import org.ranksys.formats.parsing.Parsers;
-import org.ranksys.formats.rec.RecommendationFormat;
-import org.ranksys.formats.rec.SimpleRecommendationFormat;
 
 import java.io.File;
 import java.io.IOException;
@@ -47,7 +45,6 @@ import java.util.function.IntPredicate;
 import java.util.stream.Stream;
 
 import static es.uam.eps.ir.relison.examples.AuxiliarVariables.TRUE;
-import static org.ranksys.formats.parsing.Parsers.lp;
 
 /**
  * Program for applying a given reranking algorithm to the outcome of a contact recommendation algorithm.
@@ -277,7 +274,6 @@ public class Evaluation
         testData = GraphSimpleFastPreferenceData.load(testGraph);
 
         // Perform the reranking.
-        RecommendationFormat<Long,Long> format = new SimpleRecommendationFormat<>(lp, lp);
         recFiles.forEach(rec ->
         {
             File f = new File(rec);
@@ -293,7 +289,7 @@ public class Evaluation
                     Map<String, SystemMetric<Long, Long>> metrics = new HashMap<>();
                     recMetricMap.forEach((key, value) -> metrics.put(key, value.apply(graph, testGraph, trainData, testData, featureData, comms)));
 
-                    format.getReader(rec).readAll().forEach(r ->
+                    AuxiliarMethods.getReader(rec).readAll().forEach(r ->
                     {
                         if (r != null && r.getItems() != null && !r.getItems().isEmpty())
                         {
@@ -38,8 +38,6 @@ import es.uam.eps.ir.relison.sna.metrics.distance.DistanceCalculator;
 import es.uam.eps.ir.relison.utils.datatypes.Pair;
 import org.ranksys.core.util.tuples.Tuple2od;
 import org.ranksys.formats.parsing.Parsers;
-import org.ranksys.formats.rec.RecommendationFormat;
-import org.ranksys.formats.rec.SimpleRecommendationFormat;
 
 import java.io.*;
 import java.util.*;
@@ -262,7 +260,6 @@ public class GraphMetricsEvaluation
         
         // Configure the graph cloner
         GraphGenerator<Long> generator = new GraphCloneGenerator<>();
-        RecommendationFormat<Long, Long> format = new SimpleRecommendationFormat<>(Parsers.lp, Parsers.lp);
         LinkPredictionFormat<Long> lpFormat = new SimpleLinkPredictionFormat<>(Parsers.lp);
         generator.configure(graph);
 
@@ -293,7 +290,7 @@ public class GraphMetricsEvaluation
                     if(!isPrediction)
                     {
                         // Read the recommendation and add the edges
-                        format.getReader(recRoute + recFile).readAll().forEach(rec ->
+                        AuxiliarMethods.getReader(recRoute + recFile).readAll().forEach(rec ->
                         {
                             long u = rec.getUser();
                             List<Tuple2od<Long>> items = rec.getItems();
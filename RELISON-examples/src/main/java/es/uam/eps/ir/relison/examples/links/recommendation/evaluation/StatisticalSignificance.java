@@ -14,13 +14,13 @@ import es.uam.eps.ir.ranksys.metrics.basic.NDCG;
 import es.uam.eps.ir.ranksys.metrics.basic.Precision;
 import es.uam.eps.ir.ranksys.metrics.basic.Recall;
 import es.uam.eps.ir.ranksys.metrics.rel.BinaryRelevanceModel;
+import es.uam.eps.ir.relison.examples.AuxiliarMethods;
 import es.uam.eps.ir.relison.links.data.GraphSimplePreferenceData;
 import es.uam.eps.ir.relison.links.recommendation.metrics.accuracy.TRECAveragePrecision;
 import org.apache.commons.math3.stat.inference.TTest;
 import org.ranksys.formats.parsing.Parsers;
 import org.ranksys.formats.preference.SimpleRatingPreferencesReader;
 import org.ranksys.formats.rec.RecommendationFormat;
-import org.ranksys.formats.rec.SimpleRecommendationFormat;
 import org.ranksys.formats.rec.TRECRecommendationFormat;
 
 import java.io.*;
@@ -124,7 +124,7 @@ public class StatisticalSignificance
         // FILE FORMAT:
         // "user"\"Algorithm1"\"Algorithm2"\t...\t"AlgorithmN".
         // user\tmetricAlg1\tmetricAlg2\tmetricAlg3\t...\tmetricAlgN
-        RecommendationFormat<Long, Long> format = formatax.equals("trec") ? new TRECRecommendationFormat<>(lp, lp) : new SimpleRecommendationFormat<>(lp, lp);
+        RecommendationFormat<Long, Long> format = formatax.equals("trec") ? new TRECRecommendationFormat<>(lp, lp) : null;
         String[] files = directory.list();
         
         List<String> recomms = new ArrayList<>();
@@ -137,7 +137,7 @@ public class StatisticalSignificance
         {           
             values.put(file, new double[userList.size()]);
             Map<Long, Double> indiv = new HashMap<>();
-            format.getReader(recPath + file).readAll().forEach(rec -> 
+            (format != null ? format.getReader(recPath + file) : AuxiliarMethods.getReader(recPath + file)).readAll().forEach(rec -> 
             {
                 if(userList.containsKey(rec.getUser()))
                 {
@@ -35,6 +35,14 @@ public class CommunityDetectionIdentifiers
      * Identifier of the Louvain community detection approach.
      */
     public final static String LOUVAIN = "Louvain";
+    /**
+     * Identifier of the fast (integer array-based) Louvain community detection approach.
+     */
+    public final static String FASTLOUVAIN = "Fast Louvain";
+    /**
+     * Identifier of the Leiden community detection approach.
+     */
+    public final static String LEIDEN = "Leiden";
     /**
      * Identifier of the InfoMap community detection approach.
      */
@@ -89,6 +97,8 @@ public class CommunityDetectionIdentifiers
         System.out.println("Modularity-based algorithms:");
         System.out.println("\t" + FASTGREEDY);
         System.out.println("\t" + LOUVAIN);
+        System.out.println("\t" + FASTLOUVAIN);
+        System.out.println("\t" + LEIDEN);
         System.out.println("\t" + INFOMAP);
         System.out.println("\t" + LABELPROP);
         System.out.println();
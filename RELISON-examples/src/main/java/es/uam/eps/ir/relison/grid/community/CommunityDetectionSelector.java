@@ -66,8 +66,10 @@ public class CommunityDetectionSelector<U extends Serializable>
             case WCC -> new WeaklyConnectedComponentsConfigurator<>();
             // Modularity
             case FASTGREEDY -> new FastGreedyConfigurator<>();
-            case INFOMAP -> new InfomapConfigurator<>(tempFolder);
+            case INFOMAP -> new InfomapConfigurator<>();
             case LOUVAIN -> new LouvainConfigurator<>();
+            case FASTLOUVAIN -> new FastLouvainConfigurator<>();
+            case LEIDEN -> new LeidenConfigurator<>();
             case LABELPROP -> new LabelPropagationConfigurator<>();
             // Edge metrics:
             case GIRVANNEWMAN, EDGEBETWENNESS -> new GirvanNewmanConfigurator<>();
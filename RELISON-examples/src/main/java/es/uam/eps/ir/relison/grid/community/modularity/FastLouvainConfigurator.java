@@ -0,0 +1,63 @@
+/*
+ *  Copyright (C) 2021 Information Retrieval Group at Universidad Autónoma
+ *  de Madrid, http://ir.ii.uam.es
+ * 
+ *  This Source Code Form is subject to the terms of the Mozilla Public
+ *  License, v. 2.0. If a copy of the MPL was not distributed with this
+ *  file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package es.uam.eps.ir.relison.grid.community.modularity;
+
+import es.uam.eps.ir.relison.sna.community.detection.CommunityDetectionAlgorithm;
+import es.uam.eps.ir.relison.sna.community.detection.modularity.FastLouvain;
+import es.uam.eps.ir.relison.grid.Grid;
+import es.uam.eps.ir.relison.grid.community.CommunityDetectionConfigurator;
+
+import java.io.Serializable;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import static es.uam.eps.ir.relison.grid.community.CommunityDetectionIdentifiers.FASTLOUVAIN;
+
+/**
+ * Configurator for the fast (integer array-based) Louvain community detection algorithm.
+ *
+ * @author Javier Sanz-Cruzado (javier.sanz-cruzado@uam.es)
+ * @author Pablo Castells (pablo.castells@uam.es)
+ *
+ * @param <U> type of the users.
+ *
+ * @see FastLouvain
+ */
+public class FastLouvainConfigurator<U extends Serializable> implements CommunityDetectionConfigurator<U>
+{
+    /**
+     * The parameter identifier for the threshold value.
+     */
+    private final static String THRESHOLD = "threshold";
+    /**
+     * The parameter identifier for the resolution (optional, 1.0 by default).
+     */
+    private final static String RESOLUTION = "resolution";
+    /**
+     * The parameter identifier for running the local moving phase in parallel (optional, false by default).
+     */
+    private final static String PARALLEL = "parallel";
+
+    @Override
+    public Map<String, Supplier<CommunityDetectionAlgorithm<U>>> configure(Grid grid)
+    {
+        Map<String, Supplier<CommunityDetectionAlgorithm<U>>> map = new HashMap<>();
+        List<Double> thresholds = grid.getDoubleValues(THRESHOLD);
+        List<Double> resolutions = grid.getDoubleValues(RESOLUTION).isEmpty() ? Collections.singletonList(1.0) : grid.getDoubleValues(RESOLUTION);
+        List<Boolean> parallels = grid.getBooleanValues(PARALLEL).isEmpty() ? Collections.singletonList(false) : grid.getBooleanValues(PARALLEL);
+        thresholds.forEach(threshold ->
+            resolutions.forEach(resolution ->
+                parallels.forEach(parallel ->
+                    map.put(FASTLOUVAIN + "_" + threshold + (resolution != 1.0 ? "_" + resolution : "") + (parallel ? "_parallel" : ""), () -> new FastLouvain<>(0, threshold, resolution, parallel)))));
+        return map;
+    }
+}
@@ -14,7 +14,9 @@ import es.uam.eps.ir.relison.grid.Grid;
 import es.uam.eps.ir.relison.grid.community.CommunityDetectionConfigurator;
 
 import java.io.Serializable;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.function.Supplier;
 
@@ -33,11 +35,30 @@ import static es.uam.eps.ir.relison.grid.community.CommunityDetectionIdentifiers
  */
 public class GirvanNewmanConfigurator<U extends Serializable> implements CommunityDetectionConfigurator<U>
 {
+    /**
+     * Identifier for the number of edges to remove before recomputing the betweenness (optional, 1 by default).
+     */
+    private final static String BATCH = "batch";
+    /**
+     * Identifier for the number of sampled source nodes for estimating the betweenness (optional, all by default).
+     */
+    private final static String SAMPLES = "samples";
+    /**
+     * Identifier for the random seed (optional).
+     */
+    private final static String SEED = "seed";
+
     @Override
     public Map<String, Supplier<CommunityDetectionAlgorithm<U>>> configure(Grid grid)
     {
         Map<String, Supplier<CommunityDetectionAlgorithm<U>>> map = new HashMap<>();
-        map.put(GIRVANNEWMAN, GirvanNewman::new);
+        List<Integer> batches = grid.getIntegerValues(BATCH).isEmpty() ? Collections.singletonList(1) : grid.getIntegerValues(BATCH);
+        List<Integer> samples = grid.getIntegerValues(SAMPLES).isEmpty() ? Collections.singletonList(0) : grid.getIntegerValues(SAMPLES);
+        List<Integer> seeds = grid.getIntegerValues(SEED).isEmpty() ? Collections.singletonList(0) : grid.getIntegerValues(SEED);
+        batches.forEach(batch ->
+            samples.forEach(sample ->
+                seeds.forEach(seed ->
+                    map.put(GIRVANNEWMAN + (batch != 1 ? "_" + batch : "") + (sample > 0 ? "_" + sample + "_" + seed : ""), () -> new GirvanNewman<>(batch, sample, seed)))));
         return map;
     }
 }
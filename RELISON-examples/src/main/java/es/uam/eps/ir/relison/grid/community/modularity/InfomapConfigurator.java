@@ -34,23 +34,14 @@ import static es.uam.eps.ir.relison.grid.community.CommunityDetectionIdentifiers
 public class InfomapConfigurator<U extends Serializable> implements CommunityDetectionConfigurator<U>
 {
     /**
-     * A temporary folder for intermediate files.
+     * Identifier for the maximum number of iterations of the most external loop.
      */
-    private final String tempFolder;
-
+    private final static String NUMTRIALS = "trials";
     /**
-     * Constructor
-     * @param tempFolder a folder for storing temporary files.
+     * Identifier for the random seed (optional).
      */
-    public InfomapConfigurator(String tempFolder)
-    {
-        this.tempFolder = tempFolder;
-    }
+    private final static String SEED = "seed";
 
-    /**
-     * Identifier for the maximum number of iterations of the most external loop.
-     */
-    private final static String NUMTRIALS = "trials";
     @Override
     public Map<String, Supplier<CommunityDetectionAlgorithm<U>>> configure(Grid grid)
     {
@@ -58,11 +49,19 @@ public class InfomapConfigurator<U extends Serializable> implements CommunityDet
         if(grid.getIntegerValues().containsKey(NUMTRIALS))
         {
             List<Integer> trials = grid.getIntegerValues(NUMTRIALS);
-            trials.forEach(trial -> map.put(INFOMAP+"_" + trial, () -> new Infomap<>(tempFolder, trial)));
+            if(grid.getIntegerValues().containsKey(SEED))
+            {
+                List<Integer> seeds = grid.getIntegerValues(SEED);
+                trials.forEach(trial -> seeds.forEach(seed -> map.put(INFOMAP + "_" + trial + "_" + seed, () -> new Infomap<>(trial, seed))));
+            }
+            else
+            {
+                trials.forEach(trial -> map.put(INFOMAP + "_" + trial, () -> new Infomap<>(trial, Infomap.RANDOMSEED)));
+            }
         }
         else
         {
-            map.put(INFOMAP, () -> new Infomap<>(tempFolder));
+            map.put(INFOMAP, Infomap::new);
         }
         return map;
     }
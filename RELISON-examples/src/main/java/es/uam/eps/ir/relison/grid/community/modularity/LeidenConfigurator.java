@@ -0,0 +1,69 @@
+/*
+ *  Copyright (C) 2021 Information Retrieval Group at Universidad Autónoma
+ *  de Madrid, http://ir.ii.uam.es
+ * 
+ *  This Source Code Form is subject to the terms of the Mozilla Public
+ *  License, v. 2.0. If a copy of the MPL was not distributed with this
+ *  file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package es.uam.eps.ir.relison.grid.community.modularity;
+
+import es.uam.eps.ir.relison.sna.community.detection.CommunityDetectionAlgorithm;
+import es.uam.eps.ir.relison.sna.community.detection.modularity.Leiden;
+import es.uam.eps.ir.relison.grid.Grid;
+import es.uam.eps.ir.relison.grid.community.CommunityDetectionConfigurator;
+
+import java.io.Serializable;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import static es.uam.eps.ir.relison.grid.community.CommunityDetectionIdentifiers.LEIDEN;
+
+/**
+ * Configurator for the Leiden community detection algorithm.
+ *
+ * @author Javier Sanz-Cruzado (javier.sanz-cruzado@uam.es)
+ * @author Pablo Castells (pablo.castells@uam.es)
+ *
+ * @param <U> type of the users.
+ *
+ * @see Leiden
+ */
+public class LeidenConfigurator<U extends Serializable> implements CommunityDetectionConfigurator<U>
+{
+    /**
+     * The parameter identifier for the threshold value.
+     */
+    private final static String THRESHOLD = "threshold";
+    /**
+     * The parameter identifier for the resolution (optional, 1.0 by default).
+     */
+    private final static String RESOLUTION = "resolution";
+    /**
+     * The parameter identifier for the randomness of the refinement phase (optional).
+     */
+    private final static String RANDOMNESS = "randomness";
+    /**
+     * The parameter identifier for running the local moving phase in parallel (optional, false by default).
+     */
+    private final static String PARALLEL = "parallel";
+
+    @Override
+    public Map<String, Supplier<CommunityDetectionAlgorithm<U>>> configure(Grid grid)
+    {
+        Map<String, Supplier<CommunityDetectionAlgorithm<U>>> map = new HashMap<>();
+        List<Double> thresholds = grid.getDoubleValues(THRESHOLD);
+        List<Double> resolutions = grid.getDoubleValues(RESOLUTION).isEmpty() ? Collections.singletonList(1.0) : grid.getDoubleValues(RESOLUTION);
+        List<Double> randomness = grid.getDoubleValues(RANDOMNESS).isEmpty() ? Collections.singletonList(Leiden.DEFAULT_RANDOMNESS) : grid.getDoubleValues(RANDOMNESS);
+        List<Boolean> parallels = grid.getBooleanValues(PARALLEL).isEmpty() ? Collections.singletonList(false) : grid.getBooleanValues(PARALLEL);
+        thresholds.forEach(threshold ->
+            resolutions.forEach(resolution ->
+                randomness.forEach(theta ->
+                    parallels.forEach(parallel ->
+                        map.put(LEIDEN + "_" + threshold + (resolution != 1.0 ? "_" + resolution : "") + (theta != Leiden.DEFAULT_RANDOMNESS ? "_" + theta : "") + (parallel ? "_parallel" : ""), () -> new Leiden<>(0, threshold, resolution, theta, parallel))))));
+        return map;
+    }
+}
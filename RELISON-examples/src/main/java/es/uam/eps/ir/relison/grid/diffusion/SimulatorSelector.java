@@ -42,14 +42,29 @@ public class SimulatorSelector<U extends Serializable,I extends Serializable, F>
      * Parameter parser (for the filter)
      */
     private final Parser<F> parser;
+    /**
+     * Number of threads for executing each iteration of the simulations.
+     */
+    private final int numThreads;
     
     /**
-     * Constructor.
+     * Constructor. Simulations are executed sequentially.
      * @param parser Parameter parser (for the filter) 
      */
     public SimulatorSelector(Parser<F> parser)
+    {
+        this(parser, 1);
+    }
+
+    /**
+     * Constructor.
+     * @param parser     Parameter parser (for the filter)
+     * @param numThreads number of threads for executing each iteration of the simulations (if greater than one, users are processed in parallel).
+     */
+    public SimulatorSelector(Parser<F> parser, int numThreads)
     {
         this.parser = parser;
+        this.numThreads = numThreads;
     }
     
     /**
@@ -111,7 +126,7 @@ public class SimulatorSelector<U extends Serializable,I extends Serializable, F>
             return null;
         StopCondition<U,I, F> stop = stopPair.v2();
                 
-        Simulator<U,I, F> simulator = new Simulator<>(protocol, stop);
+        Simulator<U,I, F> simulator = new Simulator<>(protocol, stop, this.numThreads);
         return new Tuple2oo<>(simulator, filter);
     }
 }
@@ -18,6 +18,7 @@ import es.uam.eps.ir.relison.grid.links.recommendation.algorithms.AlgorithmGridS
 import es.uam.eps.ir.relison.links.recommendation.algorithms.RecommendationAlgorithmFunction;
 import es.uam.eps.ir.relison.links.recommendation.algorithms.standalone.foaf.AdamicAdar;
 
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -52,6 +53,10 @@ public class AdamicAdarGridSearch<U> implements AlgorithmGridSearch<U>
      * Identifier for the orientation of the intersection user neighborhood.
      */
     private static final String WSEL = "wSel";
+    /**
+     * Identifier for the maximum number of neighbours expanded per intermediate user (optional).
+     */
+    private static final String MAXEXPANSION = "maxExpansion";
 
     @Override
     public Map<String, RecommendationAlgorithmFunction<U>> grid(Grid grid)
@@ -61,11 +66,13 @@ public class AdamicAdarGridSearch<U> implements AlgorithmGridSearch<U>
         List<EdgeOrientation> uSels = grid.getOrientationValues(USEL);
         List<EdgeOrientation> vSels = grid.getOrientationValues(VSEL);
         List<EdgeOrientation> wSels = grid.getOrientationValues(WSEL);
+        List<Integer> maxExpansions = grid.getIntegerValues(MAXEXPANSION).isEmpty() ? Collections.singletonList(0) : grid.getIntegerValues(MAXEXPANSION);
 
         uSels.forEach(uSel ->
             vSels.forEach(vSel ->
                 wSels.forEach(wSel ->
-                    recs.put(ADAMIC + "_" + uSel + "_" + vSel + "_" + wSel, (graph, prefData) -> new AdamicAdar<>(graph, uSel, vSel, wSel)))));
+                    maxExpansions.forEach(maxExpansion ->
+                        recs.put(ADAMIC + "_" + uSel + "_" + vSel + "_" + wSel + (maxExpansion > 0 ? "_" + maxExpansion : ""), (graph, prefData) -> new AdamicAdar<>(graph, uSel, vSel, wSel, maxExpansion))))));
 
         return recs;
     }
@@ -78,11 +85,13 @@ public class AdamicAdarGridSearch<U> implements AlgorithmGridSearch<U>
         List<EdgeOrientation> uSels = grid.getOrientationValues(USEL);
         List<EdgeOrientation> vSels = grid.getOrientationValues(VSEL);
         List<EdgeOrientation> wSels = grid.getOrientationValues(WSEL);
+        List<Integer> maxExpansions = grid.getIntegerValues(MAXEXPANSION).isEmpty() ? Collections.singletonList(0) : grid.getIntegerValues(MAXEXPANSION);
 
         uSels.forEach(uSel ->
                 vSels.forEach(vSel ->
                         wSels.forEach(wSel ->
-                                recs.put(ADAMIC + "_" + uSel + "_" + vSel + "_" + wSel, () -> new AdamicAdar<>(graph, uSel, vSel, wSel)))));
+                                maxExpansions.forEach(maxExpansion ->
+                                        recs.put(ADAMIC + "_" + uSel + "_" + vSel + "_" + wSel + (maxExpansion > 0 ? "_" + maxExpansion : ""), () -> new AdamicAdar<>(graph, uSel, vSel, wSel, maxExpansion))))));
 
         return recs;
     }
@@ -18,6 +18,7 @@ import es.uam.eps.ir.relison.grid.links.recommendation.algorithms.AlgorithmGridS
 import es.uam.eps.ir.relison.links.recommendation.algorithms.RecommendationAlgorithmFunction;
 import es.uam.eps.ir.relison.links.recommendation.algorithms.standalone.foaf.Cosine;
 
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -52,6 +53,10 @@ public class CosineGridSearch<U> implements AlgorithmGridSearch<U>
      * Identifier for the orientation of the candidate user neighborhood.
      */
     private static final String VSEL = "vSel";
+    /**
+     * Identifier for the maximum number of neighbours expanded per intermediate user (optional).
+     */
+    private static final String MAXEXPANSION = "maxExpansion";
 
     @Override
     public Map<String, RecommendationAlgorithmFunction<U>> grid(Grid grid)
@@ -60,26 +65,28 @@ public class CosineGridSearch<U> implements AlgorithmGridSearch<U>
 
         List<EdgeOrientation> uSels = grid.getOrientationValues(USEL);
         List<EdgeOrientation> vSels = grid.getOrientationValues(VSEL);
+        List<Integer> maxExpansions = grid.getIntegerValues(MAXEXPANSION).isEmpty() ? Collections.singletonList(0) : grid.getIntegerValues(MAXEXPANSION);
         List<Boolean> weighted = grid.getBooleanValues(WEIGHTED);
 
         if(weighted.isEmpty()) // We assume unweighted
         {
             uSels.forEach(uSel ->
                 vSels.forEach(vSel ->
-                    recs.put(COSINE + "_" + uSel + "_" + vSel, (graph, prefData) -> new Cosine<>(graph, uSel, vSel))));
+                    maxExpansions.forEach(maxExpansion ->
+                        recs.put(COSINE + "_" + uSel + "_" + vSel + (maxExpansion > 0 ? "_" + maxExpansion : ""), (graph, prefData) -> new Cosine<>(graph, uSel, vSel, maxExpansion)))));
         }
         else
         {
             uSels.forEach(uSel ->
                 vSels.forEach(vSel ->
-                    weighted.forEach(weight ->
-                        recs.put(COSINE + "_" + (weight ? "wei" : "unw") + "_" + uSel + "_" + vSel,
+                    weighted.forEach(weight -> maxExpansions.forEach(maxExpansion ->
+                        recs.put(COSINE + "_" + (weight ? "wei" : "unw") + "_" + uSel + "_" + vSel + (maxExpansion > 0 ? "_" + maxExpansion : ""),
                              new RecommendationAlgorithmFunction<>()
                              {
                                  @Override
                                  public Recommender<U, U> apply(FastGraph<U> graph, FastPreferenceData<U, U> prefData)
                                  {
-                                     return new Cosine<>(graph, uSel, vSel);
+                                     return new Cosine<>(graph, uSel, vSel, maxExpansion);
                                  }
 
                                  @Override
@@ -89,7 +96,7 @@ public class CosineGridSearch<U> implements AlgorithmGridSearch<U>
                                  }
                              }
                          )
-                    )
+                    ))
                 )
             );
 
@@ -106,10 +113,12 @@ public class CosineGridSearch<U> implements AlgorithmGridSearch<U>
 
         List<EdgeOrientation> uSels = grid.getOrientationValues(USEL);
         List<EdgeOrientation> vSels = grid.getOrientationValues(VSEL);
+        List<Integer> maxExpansions = grid.getIntegerValues(MAXEXPANSION).isEmpty() ? Collections.singletonList(0) : grid.getIntegerValues(MAXEXPANSION);
 
         uSels.forEach(uSel ->
             vSels.forEach(vSel ->
-                recs.put(COSINE + "_" + uSel + "_" + vSel, () -> new Cosine<>(graph, uSel, vSel))));
+                maxExpansions.forEach(maxExpansion ->
+                    recs.put(COSINE + "_" + uSel + "_" + vSel + (maxExpansion > 0 ? "_" + maxExpansion : ""), () -> new Cosine<>(graph, uSel, vSel, maxExpansion)))));
 
         return recs;
     }
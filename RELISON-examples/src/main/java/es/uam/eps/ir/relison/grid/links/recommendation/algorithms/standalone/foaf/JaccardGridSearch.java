@@ -18,6 +18,7 @@ import es.uam.eps.ir.relison.grid.links.recommendation.algorithms.AlgorithmGridS
 import es.uam.eps.ir.relison.links.recommendation.algorithms.RecommendationAlgorithmFunction;
 import es.uam.eps.ir.relison.links.recommendation.algorithms.standalone.foaf.Jaccard;
 
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -48,6 +49,10 @@ public class JaccardGridSearch<U> implements AlgorithmGridSearch<U>
      * Identifier for the orientation of the candidate user neighborhood.
      */
     private static final String VSEL = "vSel";
+    /**
+     * Identifier for the maximum number of neighbours expanded per intermediate user (optional).
+     */
+    private static final String MAXEXPANSION = "maxExpansion";
 
     @Override
     public Map<String, RecommendationAlgorithmFunction<U>> grid(Grid grid)
@@ -56,10 +61,12 @@ public class JaccardGridSearch<U> implements AlgorithmGridSearch<U>
 
         List<EdgeOrientation> uSels = grid.getOrientationValues(USEL);
         List<EdgeOrientation> vSels = grid.getOrientationValues(VSEL);
+        List<Integer> maxExpansions = grid.getIntegerValues(MAXEXPANSION).isEmpty() ? Collections.singletonList(0) : grid.getIntegerValues(MAXEXPANSION);
 
         uSels.forEach(uSel ->
             vSels.forEach(vSel ->
-                recs.put(JACCARD + "_" + uSel + "_" + vSel, (graph, prefData) -> new Jaccard<>(graph, uSel, vSel))));
+                maxExpansions.forEach(maxExpansion ->
+                    recs.put(JACCARD + "_" + uSel + "_" + vSel + (maxExpansion > 0 ? "_" + maxExpansion : ""), (graph, prefData) -> new Jaccard<>(graph, uSel, vSel, maxExpansion)))));
 
         return recs;
     }
@@ -71,10 +78,12 @@ public class JaccardGridSearch<U> implements AlgorithmGridSearch<U>
 
         List<EdgeOrientation> uSels = grid.getOrientationValues(USEL);
         List<EdgeOrientation> vSels = grid.getOrientationValues(VSEL);
+        List<Integer> maxExpansions = grid.getIntegerValues(MAXEXPANSION).isEmpty() ? Collections.singletonList(0) : grid.getIntegerValues(MAXEXPANSION);
 
         uSels.forEach(uSel ->
             vSels.forEach(vSel ->
-                recs.put(JACCARD + "_" + uSel + "_" + vSel, () -> new Jaccard<>(graph, uSel, vSel))));
+                maxExpansions.forEach(maxExpansion ->
+                    recs.put(JACCARD + "_" + uSel + "_" + vSel + (maxExpansion > 0 ? "_" + maxExpansion : ""), () -> new Jaccard<>(graph, uSel, vSel, maxExpansion)))));
 
         return recs;
     }
@@ -39,6 +39,10 @@ public class PersonalizedPageRankGridSearch<U> implements AlgorithmGridSearch<U>
      * Identifier for the teleport parameter
      */
     private final static String R = "r";
+    /**
+     * Identifier for the maximum residual of the approximation
+     */
+    private final static String EPSILON = "epsilon";
 
     @Override
     public Map<String, RecommendationAlgorithmFunction<U>> grid(Grid grid)
@@ -46,7 +50,15 @@ public class PersonalizedPageRankGridSearch<U> implements AlgorithmGridSearch<U>
         Map<String, RecommendationAlgorithmFunction<U>> recs = new HashMap<>();
         
         List<Double> rs = grid.getDoubleValues(R);
-        rs.forEach(r -> recs.put(PERSPAGERANK + "_" + r, (graph, prefData) -> new PersonalizedPageRank<>(graph, r)));
+        List<Double> epsilons = grid.getDoubleValues(EPSILON);
+        if (epsilons.isEmpty())
+        {
+            rs.forEach(r -> recs.put(PERSPAGERANK + "_" + r, (graph, prefData) -> new PersonalizedPageRank<>(graph, r)));
+        }
+        else
+        {
+            rs.forEach(r -> epsilons.forEach(epsilon -> recs.put(PERSPAGERANK + "_" + r + "_" + epsilon, (graph, prefData) -> new PersonalizedPageRank<>(graph, r, epsilon))));
+        }
         return recs;   
     }
 
@@ -56,7 +68,15 @@ public class PersonalizedPageRankGridSearch<U> implements AlgorithmGridSearch<U>
         Map<String, Supplier<Recommender<U,U>>> recs = new HashMap<>();
         
         List<Double> rs = grid.getDoubleValues(R);
-        rs.forEach(r -> recs.put(PERSPAGERANK + "_" + r, () -> new PersonalizedPageRank<>(graph, r)));
+        List<Double> epsilons = grid.getDoubleValues(EPSILON);
+        if (epsilons.isEmpty())
+        {
+            rs.forEach(r -> recs.put(PERSPAGERANK + "_" + r, () -> new PersonalizedPageRank<>(graph, r)));
+        }
+        else
+        {
+            rs.forEach(r -> epsilons.forEach(epsilon -> recs.put(PERSPAGERANK + "_" + r + "_" + epsilon, () -> new PersonalizedPageRank<>(graph, r, epsilon))));
+        }
         return recs;
     }
     
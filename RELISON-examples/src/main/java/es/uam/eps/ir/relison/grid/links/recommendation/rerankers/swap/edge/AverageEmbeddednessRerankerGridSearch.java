@@ -17,7 +17,9 @@ import es.uam.eps.ir.relison.links.recommendation.reranking.global.GlobalReranke
 import es.uam.eps.ir.relison.links.recommendation.reranking.global.swap.edge.EmbedednessReranker;
 import es.uam.eps.ir.relison.links.recommendation.reranking.normalizer.Normalizer;
 
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.function.Supplier;
 
@@ -38,15 +40,22 @@ public class AverageEmbeddednessRerankerGridSearch<U> implements RerankerGridSea
      * Identifier for the parameter that takes the trade-off between relevance and diversity.
      */
     private final static String LAMBDA = "lambda";
+
+    /**
+     * Identifier for the maximum number of users to rerank in parallel (optional, 1 by default).
+     */
+    private final static String BATCH = "batch";
     
     @Override
     public Map<String, Supplier<GlobalReranker<U, U>>> grid(Grid grid, int cutoff, Supplier<Normalizer<U>> norm, Graph<U> graph, Communities<U> comms)
     {
         Map<String, Supplier<GlobalReranker<U,U>>> rerankers = new HashMap<>();
+        List<Integer> batches = grid.getIntegerValues(BATCH).isEmpty() ? Collections.singletonList(1) : grid.getIntegerValues(BATCH);
         
         grid.getDoubleValues(LAMBDA).forEach(lambda ->
-            rerankers.put(AVGEMBEDDEDNESS + "-" + lambda, () ->
-                new EmbedednessReranker<>(lambda, cutoff, norm, graph)));
+            batches.forEach(batch ->
+                rerankers.put(AVGEMBEDDEDNESS + "-" + lambda + (batch > 1 ? "-" + batch : ""), () ->
+                    new EmbedednessReranker<>(lambda, cutoff, norm, graph, batch))));
         
         return rerankers;
     }
@@ -55,10 +64,12 @@ public class AverageEmbeddednessRerankerGridSearch<U> implements RerankerGridSea
     public Map<String, GlobalRerankerFunction<U>> grid(Grid grid)
     {
         Map<String, GlobalRerankerFunction<U>> rerankers = new HashMap<>();
+        List<Integer> batches = grid.getIntegerValues(BATCH).isEmpty() ? Collections.singletonList(1) : grid.getIntegerValues(BATCH);
 
         grid.getDoubleValues(LAMBDA).forEach(lambda ->
-            rerankers.put(AVGEMBEDDEDNESS + "-" + lambda, (cutoff, norm, graph, comms) ->
-                new EmbedednessReranker<>(lambda, cutoff, norm, graph)));
+            batches.forEach(batch ->
+                rerankers.put(AVGEMBEDDEDNESS + "-" + lambda + (batch > 1 ? "-" + batch : ""), (cutoff, norm, graph, comms) ->
+                    new EmbedednessReranker<>(lambda, cutoff, norm, graph, batch))));
 
         return rerankers;
     }
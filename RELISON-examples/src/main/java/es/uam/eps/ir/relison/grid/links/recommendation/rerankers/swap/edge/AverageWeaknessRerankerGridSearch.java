@@ -17,7 +17,9 @@ import es.uam.eps.ir.relison.links.recommendation.reranking.global.GlobalReranke
 import es.uam.eps.ir.relison.links.recommendation.reranking.global.swap.edge.WeaknessReranker;
 import es.uam.eps.ir.relison.links.recommendation.reranking.normalizer.Normalizer;
 
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.function.Supplier;
 
@@ -38,14 +40,22 @@ public class AverageWeaknessRerankerGridSearch<U> implements RerankerGridSearch<
      */
     private final static String LAMBDA = "lambda";
 
+    /**
+     * Identifier for the maximum number of users to rerank in parallel (optional, 1 by default).
+     */
+    private final static String BATCH = "batch";
+
     @Override
     public Map<String, Supplier<GlobalReranker<U, U>>> grid(Grid grid, int cutoff, Supplier<Normalizer<U>> norm, Graph<U> graph, Communities<U> comms)
     {
         Map<String, Supplier<GlobalReranker<U,U>>> rerankers = new HashMap<>();
+        List<Integer> batches = grid.getIntegerValues(BATCH).isEmpty() ? Collections.singletonList(1) : grid.getIntegerValues(BATCH);
         
         grid.getDoubleValues(LAMBDA).forEach(lambda ->
-            rerankers.put(AVGWEAKNESS + "-" + lambda, () ->
-                new WeaknessReranker<>(lambda, cutoff, norm, graph))
+            batches.forEach(batch ->
+                rerankers.put(AVGWEAKNESS + "-" + lambda + (batch > 1 ? "-" + batch : ""), () ->
+                    new WeaknessReranker<>(lambda, cutoff, norm, graph, batch))
+            )
         );
         
         return rerankers;
@@ -55,10 +65,13 @@ public class AverageWeaknessRerankerGridSearch<U> implements RerankerGridSearch<
     public Map<String, GlobalRerankerFunction<U>> grid(Grid grid)
     {
         Map<String, GlobalRerankerFunction<U>> rerankers = new HashMap<>();
+        List<Integer> batches = grid.getIntegerValues(BATCH).isEmpty() ? Collections.singletonList(1) : grid.getIntegerValues(BATCH);
 
         grid.getDoubleValues(LAMBDA).forEach(lambda ->
-            rerankers.put(AVGWEAKNESS + "-" + lambda, (cutoff, norm, graph, comms) ->
-                new WeaknessReranker<>(lambda, cutoff, norm, graph))
+            batches.forEach(batch ->
+                rerankers.put(AVGWEAKNESS + "-" + lambda + (batch > 1 ? "-" + batch : ""), (cutoff, norm, graph, comms) ->
+                    new WeaknessReranker<>(lambda, cutoff, norm, graph, batch))
+            )
         );
 
         return rerankers;
@@ -18,7 +18,9 @@ import es.uam.eps.ir.relison.links.recommendation.reranking.global.GlobalReranke
 import es.uam.eps.ir.relison.links.recommendation.reranking.global.swap.edge.HeuristicEmbedednessReranker;
 import es.uam.eps.ir.relison.links.recommendation.reranking.normalizer.Normalizer;
 
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.function.Supplier;
 
@@ -45,15 +47,23 @@ public class HeuristicAverageEmbeddednessRerankerGridSearch<U> implements Rerank
      */
     private final String MODE = "mode";
 
+    /**
+     * Identifier for the maximum number of users to rerank in parallel (optional, 1 by default).
+     */
+    private final static String BATCH = "batch";
+
     @Override
     public Map<String, Supplier<GlobalReranker<U, U>>> grid(Grid grid, int cutoff, Supplier<Normalizer<U>> norm, Graph<U> graph, Communities<U> comms)
     {
         Map<String, Supplier<GlobalReranker<U,U>>> rerankers = new HashMap<>();
+        List<Integer> batches = grid.getIntegerValues(BATCH).isEmpty() ? Collections.singletonList(1) : grid.getIntegerValues(BATCH);
         
         grid.getDoubleValues(LAMBDA).forEach(lambda ->
             grid.getIntegerValues(MODE).forEach(mode ->
-                rerankers.put(HEURISTICAVGEMBEDDEDNESS + "-" + mode + "-" + lambda, () ->
-                    new HeuristicEmbedednessReranker<>(lambda, cutoff, norm, graph, mode)
+                batches.forEach(batch ->
+                    rerankers.put(HEURISTICAVGEMBEDDEDNESS + "-" + mode + "-" + lambda + (batch > 1 ? "-" + batch : ""), () ->
+                        new HeuristicEmbedednessReranker<>(lambda, cutoff, norm, graph, mode, batch)
+                    )
                 )
             )
         );
@@ -65,11 +75,14 @@ public class HeuristicAverageEmbeddednessRerankerGridSearch<U> implements Rerank
     public Map<String, GlobalRerankerFunction<U>> grid(Grid grid)
     {
         Map<String, GlobalRerankerFunction<U>> rerankers = new HashMap<>();
+        List<Integer> batches = grid.getIntegerValues(BATCH).isEmpty() ? Collections.singletonList(1) : grid.getIntegerValues(BATCH);
 
         grid.getDoubleValues(LAMBDA).forEach(lambda ->
             grid.getIntegerValues(MODE).forEach(mode ->
-                rerankers.put(HEURISTICAVGEMBEDDEDNESS + "-" + mode + "-" + lambda, (cutoff, norm, graph, comms) ->
-                    new HeuristicEmbedednessReranker<>(lambda, cutoff, norm, graph, mode)
+                batches.forEach(batch ->
+                    rerankers.put(HEURISTICAVGEMBEDDEDNESS + "-" + mode + "-" + lambda + (batch > 1 ? "-" + batch : ""), (cutoff, norm, graph, comms) ->
+                        new HeuristicEmbedednessReranker<>(lambda, cutoff, norm, graph, mode, batch)
+                    )
                 )
             )
         );
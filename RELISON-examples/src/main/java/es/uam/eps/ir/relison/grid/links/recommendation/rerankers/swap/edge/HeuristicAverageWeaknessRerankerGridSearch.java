@@ -17,7 +17,9 @@ import es.uam.eps.ir.relison.links.recommendation.reranking.global.GlobalReranke
 import es.uam.eps.ir.relison.links.recommendation.reranking.global.swap.edge.HeuristicWeaknessReranker;
 import es.uam.eps.ir.relison.links.recommendation.reranking.normalizer.Normalizer;
 
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.function.Supplier;
 
@@ -44,15 +46,23 @@ public class HeuristicAverageWeaknessRerankerGridSearch<U> implements RerankerGr
      */
     private final static String MODE = "mode";
 
+    /**
+     * Identifier for the maximum number of users to rerank in parallel (optional, 1 by default).
+     */
+    private final static String BATCH = "batch";
+
     @Override
     public Map<String, Supplier<GlobalReranker<U, U>>> grid(Grid grid, int cutoff, Supplier<Normalizer<U>> norm, Graph<U> graph, Communities<U> comms)
     {
         Map<String, Supplier<GlobalReranker<U,U>>> rerankers = new HashMap<>();
+        List<Integer> batches = grid.getIntegerValues(BATCH).isEmpty() ? Collections.singletonList(1) : grid.getIntegerValues(BATCH);
         
         grid.getDoubleValues(LAMBDA).forEach(lambda ->
             grid.getIntegerValues(MODE).forEach(mode ->
-                rerankers.put(HEURISTICAVGWEAKNESS + "-" + mode + "-" + lambda, () ->
-                    new HeuristicWeaknessReranker<>(lambda, cutoff, norm, graph, mode)
+                batches.forEach(batch ->
+                    rerankers.put(HEURISTICAVGWEAKNESS + "-" + mode + "-" + lambda + (batch > 1 ? "-" + batch : ""), () ->
+                        new HeuristicWeaknessReranker<>(lambda, cutoff, norm, graph, mode, batch)
+                    )
                 )
             )
         );
@@ -64,11 +74,14 @@ public class HeuristicAverageWeaknessRerankerGridSearch<U> implements RerankerGr
     public Map<String, GlobalRerankerFunction<U>> grid(Grid grid)
     {
         Map<String, GlobalRerankerFunction<U>> rerankers = new HashMap<>();
+        List<Integer> batches = grid.getIntegerValues(BATCH).isEmpty() ? Collections.singletonList(1) : grid.getIntegerValues(BATCH);
 
         grid.getDoubleValues(LAMBDA).forEach(lambda ->
             grid.getIntegerValues(MODE).forEach(mode ->
-                rerankers.put(HEURISTICAVGWEAKNESS + "-" + mode + "-" + lambda, (cutoff, norm, graph, comms) ->
-                    new HeuristicWeaknessReranker<>(lambda, cutoff, norm, graph, mode)
+                batches.forEach(batch ->
+                    rerankers.put(HEURISTICAVGWEAKNESS + "-" + mode + "-" + lambda + (batch > 1 ? "-" + batch : ""), (cutoff, norm, graph, comms) ->
+                        new HeuristicWeaknessReranker<>(lambda, cutoff, norm, graph, mode, batch)
+                    )
                 )
             )
         );
@@ -0,0 +1,270 @@
+/*
+ *  Copyright (C) 2021 Information Retrieval Group at Universidad Autónoma
+ *  de Madrid, http://ir.ii.uam.es
+ *
+ *  This Source Code Form is subject to the terms of the Mozilla Public
+ *  License, v. 2.0. If a copy of the MPL was not distributed with this
+ *  file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package es.uam.eps.ir.relison.examples;
+
+import es.uam.eps.ir.ranksys.core.Recommendation;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.ranksys.core.util.tuples.Tuple2od;
+import org.ranksys.formats.rec.RecommendationFormat;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.util.*;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.*;
+
+/**
+ * Class for testing the writing and reading of recommendations in the binary format.
+ *
+ * @author Javier Sanz-Cruzado (javier.sanz-cruzado@uam.es)
+ * @author Pablo Castells (pablo.castells@uam.es)
+ */
+public class BinaryRecommendationFormatTest
+{
+    /**
+     * Temporary folder for storing the recommendations.
+     */
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    /**
+     * Generates random recommendations. Identifiers are not sorted (and some are negative or very large), and some
+     * users receive empty recommendations.
+     *
+     * @param seed     the random seed.
+     * @param numUsers the number of users.
+     *
+     * @return the recommendations.
+     */
+    private static List<Recommendation<Long, Long>> recommendations(long seed, int numUsers)
+    {
+        Random rnd = new Random(seed);
+        List<Recommendation<Long, Long>> recs = new ArrayList<>();
+        for (int i = 0; i < numUsers; ++i)
+        {
+            long u = i % 7 == 0 ? Long.MAX_VALUE - i : (i % 11 == 0 ? -i : 3L * i);
+            int numItems = i % 4 == 0 ? 0 : rnd.nextInt(60);
+            List<Tuple2od<Long>> items = new ArrayList<>();
+            for (int j = 0; j < numItems; ++j)
+            {
+                long v = rnd.nextBoolean() ? rnd.nextInt(1000) : rnd.nextLong();
+                items.add(new Tuple2od<>(v, rnd.nextGaussian() * 10.0));
+            }
+            recs.add(new Recommendation<>(u, items));
+        }
+        return recs;
+    }
+
+    /**
+     * Writes the recommendations in a file.
+     *
+     * @param format the format.
+     * @param recs   the recommendations.
+     *
+     * @return the file.
+     *
+     * @throws IOException if something fails while writing.
+     */
+    private File write(RecommendationFormat<Long, Long> format, List<Recommendation<Long, Long>> recs) throws IOException
+    {
+        File file = folder.newFile();
+        try (RecommendationFormat.Writer<Long, Long> writer = format.getWriter(file.getPath()))
+        {
+            for (Recommendation<Long, Long> rec : recs)
+            {
+                writer.write(rec);
+            }
+        }
+        return file;
+    }
+
+    /**
+     * Checks that a recommendation has been read as written. Scores are stored as floats, so the read scores are the
+     * written ones, rounded to single precision.
+     *
+     * @param expected the written recommendation.
+     * @param actual   the read recommendation.
+     */
+    private static void check(Recommendation<Long, Long> expected, Recommendation<Long, Long> actual)
+    {
+        assertNotNull(actual);
+        assertEquals(expected.getUser(), actual.getUser());
+        assertEquals(expected.getItems().size(), actual.getItems().size());
+        for (int i = 0; i < expected.getItems().size(); ++i)
+        {
+            Tuple2od<Long> exp = expected.getItems().get(i);
+            Tuple2od<Long> act = actual.getItems().get(i);
+            assertEquals(exp.v1, act.v1);
+            assertEquals((float) exp.v2, act.v2, 0.0);
+        }
+    }
+
+    /**
+     * Checks that the recommendations are read as written, both sequentially and by user.
+     *
+     * @param compress whether to compress the blocks or not.
+     *
+     * @throws IOException if something fails while writing or reading.
+     */
+    private void roundTrip(boolean compress) throws IOException
+    {
+        List<Recommendation<Long, Long>> recs = recommendations(compress ? 1 : 0, 500);
+        BinaryRecommendationFormat format = new BinaryRecommendationFormat(compress);
+        File file = write(format, recs);
+
+        // Sequential reading, from a stream.
+        try (Stream<Recommendation<Long, Long>> stream = new BinaryRecommendationFormat().getReader(new FileInputStream(file)).readAll())
+        {
+            List<Recommendation<Long, Long>> read = stream.collect(Collectors.toList());
+            assertEquals(recs.size(), read.size());
+            for (int i = 0; i < recs.size(); ++i)
+            {
+                check(recs.get(i), read.get(i));
+            }
+        }
+
+        // Reading all the recommendations through the index.
+        try (BinaryRecommendationFormat.RandomAccessReader reader = format.getRandomAccessReader(file))
+        {
+            assertArrayEquals(recs.stream().mapToLong(Recommendation::getUser).toArray(), reader.getUsers().toArray());
+            List<Recommendation<Long, Long>> read = reader.readAll().collect(Collectors.toList());
+            assertEquals(recs.size(), read.size());
+            for (int i = 0; i < recs.size(); ++i)
+            {
+                check(recs.get(i), read.get(i));
+            }
+        }
+    }
+
+    @Test
+    public void uncompressed() throws IOException
+    {
+        roundTrip(false);
+    }
+
+    @Test
+    public void compressed() throws IOException
+    {
+        roundTrip(true);
+    }
+
+    @Test
+    public void randomAccess() throws IOException
+    {
+        for (boolean compress : new boolean[]{false, true})
+        {
+            List<Recommendation<Long, Long>> recs = recommendations(2, 300);
+            BinaryRecommendationFormat format = new BinaryRecommendationFormat(compress);
+            File file = write(format, recs);
+
+            List<Recommendation<Long, Long>> shuffled = new ArrayList<>(recs);
+            Collections.shuffle(shuffled, new Random(3));
+            try (BinaryRecommendationFormat.RandomAccessReader reader = format.getRandomAccessReader(file))
+            {
+                for (Recommendation<Long, Long> rec : shuffled)
+                {
+                    assertTrue(reader.containsUser(rec.getUser()));
+                    check(rec, reader.read(rec.getUser()));
+                }
+
+                // Users without a recommendation.
+                assertFalse(reader.containsUser(1L));
+                assertNull(reader.read(1L));
+            }
+        }
+    }
+
+    @Test
+    public void empty() throws IOException
+    {
+        for (boolean compress : new boolean[]{false, true})
+        {
+            BinaryRecommendationFormat format = new BinaryRecommendationFormat(compress);
+
+            // A file without recommendations.
+            File file = write(format, Collections.emptyList());
+            assertEquals(0, format.getReader(file.getPath()).readAll().count());
+            try (BinaryRecommendationFormat.RandomAccessReader reader = format.getRandomAccessReader(file))
+            {
+                assertEquals(0, reader.getUsers().count());
+                assertNull(reader.read(0L));
+            }
+
+            // A file with empty recommendations only.
+            List<Recommendation<Long, Long>> recs = Arrays.asList(new Recommendation<>(5L, new ArrayList<>()), new Recommendation<>(2L, new ArrayList<>()));
+            file = write(format, recs);
+            List<Recommendation<Long, Long>> read = format.getReader(file.getPath()).readAll().collect(Collectors.toList());
+            assertEquals(2, read.size());
+            check(recs.get(0), read.get(0));
+            check(recs.get(1), read.get(1));
+            try (BinaryRecommendationFormat.RandomAccessReader reader = format.getRandomAccessReader(file))
+            {
+                check(recs.get(1), reader.read(2L));
+                check(recs.get(0), reader.read(5L));
+            }
+        }
+    }
+
+    @Test
+    public void notBinary() throws IOException
+    {
+        File file = folder.newFile();
+        try (RecommendationFormat.Writer<Long, Long> writer = AuxiliarMethods.getWriter(file.getPath()))
+        {
+            writer.write(new Recommendation<>(1L, Collections.singletonList(new Tuple2od<>(2L, 1.0))));
+        }
+
+        try
+        {
+            new BinaryRecommendationFormat().getRandomAccessReader(file).close();
+            fail("A text file has been read as a binary one");
+        }
+        catch (IOException ignored)
+        {
+        }
+
+        try
+        {
+            new BinaryRecommendationFormat().getReader(file.getPath()).readAll().count();
+            fail("A text file has been read as a binary one");
+        }
+        catch (IOException ignored)
+        {
+        }
+    }
+
+    @Test
+    public void byExtension() throws IOException
+    {
+        List<Recommendation<Long, Long>> recs = recommendations(4, 100);
+        for (String extension : new String[]{BinaryRecommendationFormat.EXTENSION, BinaryRecommendationFormat.COMPRESSED_EXTENSION})
+        {
+            String path = new File(folder.getRoot(), "recs" + extension).getPath();
+            try (RecommendationFormat.Writer<Long, Long> writer = AuxiliarMethods.getWriter(path))
+            {
+                for (Recommendation<Long, Long> rec : recs)
+                {
+                    writer.write(rec);
+                }
+            }
+
+            List<Recommendation<Long, Long>> read = AuxiliarMethods.getReader(path).readAll().collect(Collectors.toList());
+            assertEquals(recs.size(), read.size());
+            for (int i = 0; i < recs.size(); ++i)
+            {
+                check(recs.get(i), read.get(i));
+            }
+        }
+    }
+}
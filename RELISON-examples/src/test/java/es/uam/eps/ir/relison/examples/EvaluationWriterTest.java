@@ -0,0 +1,241 @@
+/*
+ *  Copyright (C) 2021 Information Retrieval Group at Universidad Autónoma
+ *  de Madrid, http://ir.ii.uam.es
+ *
+ *  This Source Code Form is subject to the terms of the Mozilla Public
+ *  License, v. 2.0. If a copy of the MPL was not distributed with this
+ *  file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package es.uam.eps.ir.relison.examples;
+
+import es.uam.eps.ir.ranksys.core.Recommendation;
+import es.uam.eps.ir.ranksys.metrics.AbstractSystemMetric;
+import es.uam.eps.ir.ranksys.metrics.SystemMetric;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.ranksys.core.util.tuples.Tuple2od;
+
+import java.io.*;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.Assert.*;
+
+/**
+ * Class for testing the evaluation of recommendations while they are written, from several threads, and the
+ * compressed text recommendation files.
+ *
+ * @author Javier Sanz-Cruzado (javier.sanz-cruzado@uam.es)
+ * @author Pablo Castells (pablo.castells@uam.es)
+ */
+public class EvaluationWriterTest
+{
+    /**
+     * Number of users.
+     */
+    private static final int NUM_USERS = 2000;
+    /**
+     * Number of threads.
+     */
+    private static final int NUM_THREADS = 8;
+
+    /**
+     * Temporary folder for storing the recommendations.
+     */
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    /**
+     * Metric which sums the scores of the recommended items. It is not thread-safe: it relies on the writer for
+     * not losing updates.
+     */
+    private static class ScoreSum extends AbstractSystemMetric<Long, Long>
+    {
+        /**
+         * The sum of the scores.
+         */
+        private double sum = 0.0;
+
+        @Override
+        public void add(Recommendation<Long, Long> recommendation)
+        {
+            for (Tuple2od<Long> item : recommendation.getItems())
+            {
+                double value = sum;
+                Thread.yield();
+                sum = value + item.v2;
+            }
+        }
+
+        @Override
+        public double evaluate()
+        {
+            return sum;
+        }
+
+        @Override
+        public void combine(SystemMetric<Long, Long> other)
+        {
+            sum += ((ScoreSum) other).sum;
+        }
+
+        @Override
+        public void reset()
+        {
+            sum = 0.0;
+        }
+    }
+
+    /**
+     * Generates random recommendations. Scores are integers, so that their sum does not depend on the order.
+     *
+     * @param seed the random seed.
+     *
+     * @return the recommendations.
+     */
+    private static List<Recommendation<Long, Long>> recommendations(long seed)
+    {
+        Random rnd = new Random(seed);
+        List<Recommendation<Long, Long>> recs = new ArrayList<>();
+        for (long u = 0; u < NUM_USERS; ++u)
+        {
+            int numItems = 1 + rnd.nextInt(30);
+            List<Tuple2od<Long>> items = new ArrayList<>();
+            for (int j = 0; j < numItems; ++j)
+            {
+                items.add(new Tuple2od<>((long) rnd.nextInt(NUM_USERS), numItems - j));
+            }
+            recs.add(new Recommendation<>(u, items));
+        }
+        return recs;
+    }
+
+    /**
+     * Writes and evaluates the recommendations from several threads.
+     *
+     * @param output the route of the file.
+     * @param recs   the recommendations.
+     * @param metric the metric.
+     *
+     * @throws Exception if something fails while writing.
+     */
+    private static void writeConcurrently(String output, List<Recommendation<Long, Long>> recs, SystemMetric<Long, Long> metric) throws Exception
+    {
+        ExecutorService executor = Executors.newFixedThreadPool(NUM_THREADS);
+        try (EvaluationWriter<Long, Long> writer = new EvaluationWriter<>(Collections.singletonList(metric), AuxiliarMethods.getWriter(output)))
+        {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < NUM_THREADS; ++t)
+            {
+                int thread = t;
+                futures.add(executor.submit(() ->
+                {
+                    for (int i = thread; i < recs.size(); i += NUM_THREADS)
+                    {
+                        writer.write(recs.get(i));
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures)
+            {
+                future.get();
+            }
+        }
+        finally
+        {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * Checks that a file contains, complete, each of the recommendations: every line is well formed, and the lines
+     * of the same user are contiguous and in the written order.
+     *
+     * @param output the route of the file.
+     * @param in     the input of the file.
+     * @param recs   the recommendations.
+     *
+     * @throws IOException if something fails while reading.
+     */
+    private static void check(String output, InputStream in, List<Recommendation<Long, Long>> recs) throws IOException
+    {
+        int numLines = 0;
+        try (BufferedReader br = new BufferedReader(new InputStreamReader(in)))
+        {
+            String line;
+            while ((line = br.readLine()) != null)
+            {
+                String[] split = line.split("\t");
+                assertEquals(line, 3, split.length);
+                Long.parseLong(split[0]);
+                Long.parseLong(split[1]);
+                Double.parseDouble(split[2]);
+                ++numLines;
+            }
+        }
+        assertEquals(recs.stream().mapToInt(rec -> rec.getItems().size()).sum(), numLines);
+
+        Map<Long, Recommendation<Long, Long>> read = AuxiliarMethods.getReader(output).readAll().collect(Collectors.toMap(Recommendation::getUser, rec -> rec));
+        assertEquals(recs.size(), read.size());
+        for (Recommendation<Long, Long> rec : recs)
+        {
+            Recommendation<Long, Long> other = read.get(rec.getUser());
+            assertNotNull(other);
+            assertEquals(rec.getItems().size(), other.getItems().size());
+            for (int i = 0; i < rec.getItems().size(); ++i)
+            {
+                assertEquals(rec.getItems().get(i).v1, other.getItems().get(i).v1);
+                assertEquals(rec.getItems().get(i).v2, other.getItems().get(i).v2, 0.0);
+            }
+        }
+    }
+
+    @Test
+    public void concurrent() throws Exception
+    {
+        List<Recommendation<Long, Long>> recs = recommendations(0);
+        double expected = recs.stream().flatMap(rec -> rec.getItems().stream()).mapToDouble(item -> item.v2).sum();
+
+        String output = new File(folder.getRoot(), "recs.txt").getPath();
+        ScoreSum metric = new ScoreSum();
+        writeConcurrently(output, recs, metric);
+        assertEquals(expected, metric.evaluate(), 0.0);
+        check(output, new FileInputStream(output), recs);
+
+        // The same, through a parallel stream.
+        metric = new ScoreSum();
+        Map<String, Double> values = AuxiliarMethods.writeAndEvaluate(output, recs.parallelStream(), Collections.singletonMap("sum", metric));
+        assertEquals(expected, values.get("sum"), 0.0);
+        check(output, new FileInputStream(output), recs);
+    }
+
+    @Test
+    public void compressed() throws Exception
+    {
+        List<Recommendation<Long, Long>> recs = recommendations(1);
+        double expected = recs.stream().flatMap(rec -> rec.getItems().stream()).mapToDouble(item -> item.v2).sum();
+
+        String output = new File(folder.getRoot(), "recs.txt.gz").getPath();
+        ScoreSum metric = new ScoreSum();
+        writeConcurrently(output, recs, metric);
+        assertEquals(expected, metric.evaluate(), 0.0);
+
+        // The file is compressed with gzip.
+        try (InputStream in = new FileInputStream(output))
+        {
+            assertEquals(0x1f, in.read());
+            assertEquals(0x8b, in.read());
+        }
+        check(output, new GZIPInputStream(new FileInputStream(output)), recs);
+
+        // An existing file is recovered, instead of generating the recommendations again.
+        Map<String, Double> values = AuxiliarMethods.computeAndEvaluate(output, null, null, Collections.singletonMap("sum", new ScoreSum()));
+        assertEquals(expected, values.get("sum"), 0.0);
+    }
+}
@@ -0,0 +1,215 @@
+/*
+ *  Copyright (C) 2021 Information Retrieval Group at Universidad Autónoma
+ *  de Madrid, http://ir.ii.uam.es
+ *
+ *  This Source Code Form is subject to the terms of the Mozilla Public
+ *  License, v. 2.0. If a copy of the MPL was not distributed with this
+ *  file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package es.uam.eps.ir.relison.links.recommendation;
+
+import es.uam.eps.ir.relison.utils.functions.IntDoubleConsumer;
+import es.uam.eps.ir.relison.utils.functions.IntDoubleToDoubleFunction;
+import it.unimi.dsi.fastutil.ints.Int2DoubleMap;
+import it.unimi.dsi.fastutil.ints.Int2DoubleOpenHashMap;
+import org.ranksys.core.util.tuples.Tuple2id;
+
+import java.util.List;
+import java.util.function.IntPredicate;
+
+/**
+ * Dense accumulator for the scores of the candidate users of a recommendation. It stores the scores in an array
+ * indexed by the identifiers of the users, and keeps the list of users which have received a score, so it can be
+ * traversed and cleared in time proportional to the number of scored users. It is intended to be reused between
+ * target users (by a single thread), so no memory is allocated once it reaches its steady state.
+ *
+ * @author Javier Sanz-Cruzado (javier.sanz-cruzado@uam.es)
+ * @author Pablo Castells (pablo.castells@uam.es)
+ */
+public class ScoreAccumulator
+{
+    /**
+     * The scores of the users.
+     */
+    private final double[] scores;
+    /**
+     * Whether each user has received a score.
+     */
+    private final boolean[] touched;
+    /**
+     * The list of users which have received a score.
+     */
+    private final int[] touchedList;
+    /**
+     * The number of users which have received a score.
+     */
+    private int size;
+    /**
+     * Heap for selecting the top-k users.
+     */
+    private final TopNHeap heap;
+
+    /**
+     * Constructor.
+     *
+     * @param numItems the number of candidate users.
+     */
+    public ScoreAccumulator(int numItems)
+    {
+        this.scores = new double[numItems];
+        this.touched = new boolean[numItems];
+        this.touchedList = new int[numItems];
+        this.size = 0;
+        this.heap = new TopNHeap(0);
+    }
+
+    /**
+     * Adds a value to the score of a user.
+     *
+     * @param idx   the identifier of the user.
+     * @param value the value to add.
+     */
+    public void add(int idx, double value)
+    {
+        this.touch(idx);
+        this.scores[idx] += value;
+    }
+
+    /**
+     * Sets the score of a user.
+     *
+     * @param idx   the identifier of the user.
+     * @param value the score.
+     */
+    public void set(int idx, double value)
+    {
+        this.touch(idx);
+        this.scores[idx] = value;
+    }
+
+    /**
+     * Marks a user as scored.
+     *
+     * @param idx the identifier of the user.
+     */
+    private void touch(int idx)
+    {
+        if (!this.touched[idx])
+        {
+            this.touched[idx] = true;
+            this.touchedList[this.size++] = idx;
+        }
+    }
+
+    /**
+     * Obtains the score of a user.
+     *
+     * @param idx the identifier of the user.
+     *
+     * @return the score of the user (0.0 if the user has not been scored).
+     */
+    public double get(int idx)
+    {
+        return this.scores[idx];
+    }
+
+    /**
+     * Checks whether a user has received a score.
+     *
+     * @param idx the identifier of the user.
+     *
+     * @return true if the user has been scored, false otherwise.
+     */
+    public boolean contains(int idx)
+    {
+        return this.touched[idx];
+    }
+
+    /**
+     * Obtains the number of scored users.
+     *
+     * @return the number of scored users.
+     */
+    public int size()
+    {
+        return this.size;
+    }
+
+    /**
+     * Applies an action over the scored users, in the order they received their first score.
+     *
+     * @param action the action. It receives the identifier of the user and its score.
+     */
+    public void forEach(IntDoubleConsumer action)
+    {
+        for (int i = 0; i < this.size; ++i)
+        {
+            int idx = this.touchedList[i];
+            action.accept(idx, this.scores[idx]);
+        }
+    }
+
+    /**
+     * Replaces the score of every scored user.
+     *
+     * @param function function receiving the identifier of the user and its score, and returning the new score.
+     */
+    public void replaceAll(IntDoubleToDoubleFunction function)
+    {
+        for (int i = 0; i < this.size; ++i)
+        {
+            int idx = this.touchedList[i];
+            this.scores[idx] = function.apply(idx, this.scores[idx]);
+        }
+    }
+
+    /**
+     * Removes all the scores.
+     */
+    public void clear()
+    {
+        for (int i = 0; i < this.size; ++i)
+        {
+            int idx = this.touchedList[i];
+            this.scores[idx] = 0.0;
+            this.touched[idx] = false;
+        }
+        this.size = 0;
+    }
+
+    /**
+     * Copies the scores into a map.
+     *
+     * @return a map containing the scored users and their scores.
+     */
+    public Int2DoubleMap toMap()
+    {
+        Int2DoubleOpenHashMap map = new Int2DoubleOpenHashMap(this.size);
+        map.defaultReturnValue(0.0);
+        this.forEach(map::put);
+        return map;
+    }
+
+    /**
+     * Selects the scored users with the highest scores, by means of a bounded min-heap. Ties are broken
+     * as in RankSys: the user with the greatest identifier goes first.
+     *
+     * @param maxLength the maximum number of users to select.
+     * @param filter    the filter the selected users have to satisfy.
+     *
+     * @return the list of selected users, sorted by decreasing score.
+     */
+    public List<Tuple2id> topN(int maxLength, IntPredicate filter)
+    {
+        this.heap.reset(Math.min(maxLength, this.size));
+        for (int i = 0; i < this.size; ++i)
+        {
+            int idx = this.touchedList[i];
+            if (filter.test(idx))
+            {
+                this.heap.add(idx, this.scores[idx]);
+            }
+        }
+        return this.heap.toList();
+    }
+}
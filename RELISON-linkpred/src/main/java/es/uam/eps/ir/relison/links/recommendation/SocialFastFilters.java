@@ -9,11 +9,12 @@
  */
 package es.uam.eps.ir.relison.links.recommendation;
 
-import es.uam.eps.ir.relison.graph.Adapters;
-import es.uam.eps.ir.relison.graph.Graph;
+import es.uam.eps.ir.relison.graph.edges.EdgeOrientation;
 import es.uam.eps.ir.relison.graph.fast.FastGraph;
 import es.uam.eps.ir.relison.links.data.GraphIndex;
-import es.uam.eps.ir.relison.sna.metrics.distance.FastDistanceCalculator;
+import es.uam.eps.ir.relison.sna.metrics.distance.BreadthFirstSearch;
+import it.unimi.dsi.fastutil.ints.IntOpenHashSet;
+import it.unimi.dsi.fastutil.ints.IntSet;
 
 import java.util.function.Function;
 import java.util.function.IntPredicate;
@@ -98,7 +99,8 @@ public class SocialFastFilters
 
     /**
      * Prevents recommenders from recommending links to nodes farther than a given distance from the target
-     * user.
+     * user. Distances are computed on demand for each target user, with a breadth-first search limited to the
+     * maximum distance, so the distances between all pairs of users are never stored.
      * @param trainGraph    the training network.
      * @param directed      true if we want to limit distance based on directed (true) or undirected (false) links.
      * @param maxDistance   the maximum possible distance.
@@ -109,18 +111,18 @@ public class SocialFastFilters
     {
         if(maxDistance < 0) return uidx -> iidx -> true;
 
-        FastDistanceCalculator<U> distanceCalculator = new FastDistanceCalculator<>();
-        Graph<U> aux;
-        if(!directed && trainGraph.isDirected())
-        {
-            aux = Adapters.undirected(trainGraph);
-        }
-        else
-        {
-            aux = trainGraph;
-        }
-        distanceCalculator.computeDistances(aux);
+        EdgeOrientation orientation = (!directed && trainGraph.isDirected()) ? EdgeOrientation.UND : EdgeOrientation.OUT;
+        BreadthFirstSearch<U> bfs = new BreadthFirstSearch<>(trainGraph, orientation);
 
-        return uidx -> iidx -> distanceCalculator.getDistances(uidx, trainGraph.getIndex().idx2object(iidx)) <= maxDistance;
+        return uidx ->
+        {
+            int idx = trainGraph.object2idx(uidx);
+            if (idx < 0)
+            {
+                return iidx -> false;
+            }
+            IntSet reachable = new IntOpenHashSet(bfs.reachable(idx, maxDistance));
+            return reachable::contains;
+        };
     }
 }
@@ -0,0 +1,208 @@
+/*
+ *  Copyright (C) 2021 Information Retrieval Group at Universidad Autónoma
+ *  de Madrid, http://ir.ii.uam.es
+ *
+ *  This Source Code Form is subject to the terms of the Mozilla Public
+ *  License, v. 2.0. If a copy of the MPL was not distributed with this
+ *  file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package es.uam.eps.ir.relison.links.recommendation;
+
+import org.ranksys.core.util.tuples.Tuple2id;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.ranksys.core.util.tuples.Tuples.tuple;
+
+/**
+ * Bounded min-heap for selecting the users with the highest scores. Users are compared as in the
+ * top-n selection of RankSys: by score and, in case of tie, by identifier (the greatest identifier goes first).
+ * The arrays of the heap are reused after {@link #reset(int)}, so a single heap can serve many target users.
+ *
+ * @author Javier Sanz-Cruzado (javier.sanz-cruzado@uam.es)
+ * @author Pablo Castells (pablo.castells@uam.es)
+ */
+public class TopNHeap
+{
+    /**
+     * Identifiers of the users in the heap.
+     */
+    private int[] keys;
+    /**
+     * Scores of the users in the heap.
+     */
+    private double[] values;
+    /**
+     * Maximum number of users in the heap.
+     */
+    private int capacity;
+    /**
+     * Current number of users in the heap.
+     */
+    private int size;
+
+    /**
+     * Constructor.
+     *
+     * @param capacity the maximum number of users to select.
+     */
+    public TopNHeap(int capacity)
+    {
+        this.keys = new int[0];
+        this.values = new double[0];
+        this.reset(capacity);
+    }
+
+    /**
+     * Empties the heap, and changes its capacity.
+     *
+     * @param capacity the maximum number of users to select.
+     */
+    public void reset(int capacity)
+    {
+        if (this.keys.length < capacity)
+        {
+            this.keys = Arrays.copyOf(this.keys, capacity);
+            this.values = Arrays.copyOf(this.values, capacity);
+        }
+        this.capacity = capacity;
+        this.size = 0;
+    }
+
+    /**
+     * Tries to add a user to the heap. If the heap is full, the user replaces the minimum one, if it goes
+     * before it in the ranking.
+     *
+     * @param idx   the identifier of the user.
+     * @param value the score of the user.
+     *
+     * @return true if the user has been added, false otherwise.
+     */
+    public boolean add(int idx, double value)
+    {
+        if (this.size < this.capacity)
+        {
+            int pos = this.size++;
+            while (pos > 0)
+            {
+                int parent = (pos - 1) >>> 1;
+                if (compare(this.keys[parent], this.values[parent], idx, value) <= 0)
+                {
+                    break;
+                }
+                this.keys[pos] = this.keys[parent];
+                this.values[pos] = this.values[parent];
+                pos = parent;
+            }
+            this.keys[pos] = idx;
+            this.values[pos] = value;
+            return true;
+        }
+        else if (this.size > 0 && compare(idx, value, this.keys[0], this.values[0]) > 0)
+        {
+            this.siftDown(this.size, idx, value);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Checks whether the heap has reached its capacity.
+     *
+     * @return true if the heap is full, false otherwise.
+     */
+    public boolean isFull()
+    {
+        return this.size >= this.capacity;
+    }
+
+    /**
+     * Obtains the minimum score in the heap.
+     *
+     * @return the minimum score, or negative infinity if the heap is empty.
+     */
+    public double minValue()
+    {
+        return this.size > 0 ? this.values[0] : Double.NEGATIVE_INFINITY;
+    }
+
+    /**
+     * Obtains the number of users in the heap.
+     *
+     * @return the number of users.
+     */
+    public int size()
+    {
+        return this.size;
+    }
+
+    /**
+     * Empties the heap, obtaining its users.
+     *
+     * @return the users in the heap, sorted by decreasing score.
+     */
+    public List<Tuple2id> toList()
+    {
+        Tuple2id[] top = new Tuple2id[this.size];
+        for (int last = this.size - 1; last >= 0; --last)
+        {
+            top[last] = tuple(this.keys[0], this.values[0]);
+            this.siftDown(last, this.keys[last], this.values[last]);
+        }
+        this.size = 0;
+        return new ArrayList<>(Arrays.asList(top));
+    }
+
+    /**
+     * Places an element in the heap, starting from the root and moving it down.
+     *
+     * @param heapSize the size of the heap.
+     * @param idx      the identifier of the user.
+     * @param value    the score of the user.
+     */
+    private void siftDown(int heapSize, int idx, double value)
+    {
+        if (heapSize == 0)
+        {
+            return;
+        }
+
+        int pos = 0;
+        int child;
+        while ((child = 2 * pos + 1) < heapSize)
+        {
+            if (child + 1 < heapSize && compare(this.keys[child + 1], this.values[child + 1], this.keys[child], this.values[child]) < 0)
+            {
+                ++child;
+            }
+            if (compare(this.keys[child], this.values[child], idx, value) >= 0)
+            {
+                break;
+            }
+            this.keys[pos] = this.keys[child];
+            this.values[pos] = this.values[child];
+            pos = child;
+        }
+        this.keys[pos] = idx;
+        this.values[pos] = value;
+    }
+
+    /**
+     * Compares two scored users.
+     *
+     * @param idx1   the identifier of the first user.
+     * @param value1 the score of the first user.
+     * @param idx2   the identifier of the second user.
+     * @param value2 the score of the second user.
+     *
+     * @return a negative value if the first user goes after the second one in the ranking, a positive value if it
+     * goes before, zero if they are equal.
+     */
+    private static int compare(int idx1, double value1, int idx2, double value2)
+    {
+        int cmp = Double.compare(value1, value2);
+        return cmp != 0 ? cmp : Integer.compare(idx1, idx2);
+    }
+}
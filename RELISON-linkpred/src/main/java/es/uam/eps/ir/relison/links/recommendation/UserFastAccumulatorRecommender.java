@@ -0,0 +1,87 @@
+/*
+ *  Copyright (C) 2021 Information Retrieval Group at Universidad Autónoma
+ *  de Madrid, http://ir.ii.uam.es
+ *
+ *  This Source Code Form is subject to the terms of the Mozilla Public
+ *  License, v. 2.0. If a copy of the MPL was not distributed with this
+ *  file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package es.uam.eps.ir.relison.links.recommendation;
+
+import es.uam.eps.ir.ranksys.fast.FastRecommendation;
+import es.uam.eps.ir.relison.graph.fast.FastGraph;
+import it.unimi.dsi.fastutil.ints.Int2DoubleMap;
+
+import java.util.ArrayList;
+import java.util.function.IntPredicate;
+
+/**
+ * Abstract class for user recommendation in social networks, where the scores of the candidate users are
+ * accumulated in a dense array instead of a map. The array is reused between the target users of a thread, and
+ * the recommendation is obtained by selecting the top-k users with a bounded heap, applying the filters on the fly.
+ * Therefore, the cost of recommending to a user is proportional to the number of scored candidates, and no map is
+ * allocated.
+ *
+ * @param <U> type of the users
+ *
+ * @author Javier Sanz-Cruzado (javier.sanz-cruzado@uam.es)
+ * @author Pablo Castells (pablo.castells@uam.es)
+ */
+public abstract class UserFastAccumulatorRecommender<U> extends UserFastRankingRecommender<U>
+{
+    /**
+     * Score accumulators for each thread.
+     */
+    private final ThreadLocal<ScoreAccumulator> accumulators;
+
+    /**
+     * Constructor.
+     *
+     * @param graph a fast graph representing the social network.
+     */
+    public UserFastAccumulatorRecommender(FastGraph<U> graph)
+    {
+        super(graph);
+        this.accumulators = ThreadLocal.withInitial(() -> new ScoreAccumulator(this.numItems()));
+    }
+
+    @Override
+    public FastRecommendation getRecommendation(int uidx, int maxLength, IntPredicate filter)
+    {
+        if (uidx == -1)
+        {
+            return new FastRecommendation(uidx, new ArrayList<>(0));
+        }
+
+        ScoreAccumulator scores = this.accumulators.get();
+        scores.clear();
+        this.fillScores(uidx, scores);
+        return new FastRecommendation(uidx, scores.topN(maxLength, filter));
+    }
+
+    /**
+     * Obtains the scores of the candidate users for a target user, from the scores accumulated by
+     * {@link #fillScores(int, ScoreAccumulator)}.
+     *
+     * @param uidx the identifier of the target user.
+     *
+     * @return a map containing the scores of the candidate users.
+     */
+    @Override
+    public Int2DoubleMap getScoresMap(int uidx)
+    {
+        ScoreAccumulator scores = this.accumulators.get();
+        scores.clear();
+        this.fillScores(uidx, scores);
+        return scores.toMap();
+    }
+
+    /**
+     * Accumulates the scores of the candidate users for a target user. Only those candidates receiving
+     * a score are considered for recommendation.
+     *
+     * @param uidx   the identifier of the target user.
+     * @param scores an empty accumulator, where the scores are stored.
+     */
+    protected abstract void fillScores(int uidx, ScoreAccumulator scores);
+}
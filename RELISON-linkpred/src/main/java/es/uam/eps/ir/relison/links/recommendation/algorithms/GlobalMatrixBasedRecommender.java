@@ -21,6 +21,15 @@ import es.uam.eps.ir.relison.utils.matrix.MatrixLibrary;
  */
 public abstract class GlobalMatrixBasedRecommender<U> extends MatrixBasedRecommender<U>
 {
+    /**
+     * Maximum relative error of the iterative methods used by the sparse implementations.
+     */
+    protected static final double SPARSE_TOLERANCE = 1E-10;
+    /**
+     * Maximum number of iterations of the iterative methods used by the sparse implementations.
+     */
+    protected static final int SPARSE_MAX_ITER = 1000;
+
     /**
      * The matrix.
      */
@@ -47,7 +56,8 @@ public abstract class GlobalMatrixBasedRecommender<U> extends MatrixBasedRecomme
     }
 
     /**
-     * Obtains the unique matrix for the system.
+     * Obtains the unique matrix for the system. When the sparse library is used, no global matrix is
+     * built, and this method returns null.
      * @return the matrix.
      */
     protected double[][] getMatrix()
@@ -59,6 +69,7 @@ public abstract class GlobalMatrixBasedRecommender<U> extends MatrixBasedRecomme
                 case JBLAS -> matrix = getJBLASMatrix();
                 case MTJ -> matrix = getMTJMatrix();
                 case COLT -> matrix = getCOLTMatrix();
+                case SPARSE -> null;
             };
         }
         return matrix;
@@ -76,7 +76,8 @@ public abstract class MatrixBasedRecommender<U> extends UserFastRankingRecommend
      *
      * @param uidx the target user.
      *
-     * @return the matrix containing the item scores in the uidx row.
+     * @return the matrix containing the item scores in the uidx row (when the sparse library is used,
+     *         the rest of rows are null).
      */
     public double[][] getMatrix(int uidx)
     {
@@ -85,9 +86,29 @@ public abstract class MatrixBasedRecommender<U> extends UserFastRankingRecommend
             case JBLAS -> this.getJBLASMatrix(uidx);
             case MTJ -> this.getMTJMatrix(uidx);
             case COLT -> this.getCOLTMatrix(uidx);
+            case SPARSE ->
+            {
+                double[][] matrix = new double[numUsers()][];
+                matrix[uidx] = this.getSparseScores(uidx);
+                yield matrix;
+            }
         };
     }
 
+    /**
+     * Obtains the scores of the candidate users for the target user, without building dense matrices.
+     * Only the row of the target user is computed, so different target users can be processed in parallel.
+     * By default, algorithms without a sparse implementation use the COLT library.
+     *
+     * @param uidx the target user.
+     *
+     * @return an array containing the scores of the candidate users.
+     */
+    protected double[] getSparseScores(int uidx)
+    {
+        return this.getCOLTMatrix(uidx)[uidx];
+    }
+
     /**
      * Obtains the matrix that provides the ratings given
      * the target user, using the JBLAS library.
@@ -11,7 +11,8 @@ package es.uam.eps.ir.relison.links.recommendation.algorithms.standalone.foaf;
 
 import es.uam.eps.ir.relison.graph.edges.EdgeOrientation;
 import es.uam.eps.ir.relison.graph.fast.FastGraph;
-import es.uam.eps.ir.relison.links.recommendation.UserFastRankingRecommender;
+import es.uam.eps.ir.relison.links.recommendation.ScoreAccumulator;
+import es.uam.eps.ir.relison.links.recommendation.UserFastAccumulatorRecommender;
 import it.unimi.dsi.fastutil.ints.Int2DoubleMap;
 import it.unimi.dsi.fastutil.ints.Int2DoubleOpenHashMap;
 
@@ -30,7 +31,7 @@ import it.unimi.dsi.fastutil.ints.Int2DoubleOpenHashMap;
  * @author Iadh Ounis (iadh.ounis@glasgow.ac.uk)
  * @author Pablo Castells (pablo.castells@uam.es)
  */
-public class AdamicAdar<U> extends UserFastRankingRecommender<U>
+public class AdamicAdar<U> extends UserFastAccumulatorRecommender<U>
 {
     /**
      * Map containing the length of the common neighborhoods between target and candidate users.
@@ -44,6 +45,10 @@ public class AdamicAdar<U> extends UserFastRankingRecommender<U>
      * Neighborhood selection for the candidate users.
      */
     private final EdgeOrientation vSel;
+    /**
+     * Sampler for the neighbourhoods of the intermediate users.
+     */
+    private final NeighborhoodSampler<U> sampler;
     /**
      * Neighborhood selection for the intermediate users
      */
@@ -58,29 +63,58 @@ public class AdamicAdar<U> extends UserFastRankingRecommender<U>
      * @param wSel  the neighborhood selection for the users in the intersection
      */
     public AdamicAdar(FastGraph<U> graph, EdgeOrientation uSel, EdgeOrientation vSel, EdgeOrientation wSel)
+    {
+        this(graph, uSel, vSel, wSel, 0);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param graph        the graph.
+     * @param uSel         the neighborhood selection for the target user.
+     * @param vSel         the neighborhood selection for the candidate user.
+     * @param wSel         the neighborhood selection for the users in the intersection
+     * @param maxExpansion the maximum number of neighbours expanded per intermediate user (hubs are sampled). If it
+     *                     is not positive, neighbourhoods are fully expanded.
+     */
+    public AdamicAdar(FastGraph<U> graph, EdgeOrientation uSel, EdgeOrientation vSel, EdgeOrientation wSel, int maxExpansion)
     {
         super(graph);
 
         wSizes = new Int2DoubleOpenHashMap();
         this.uSel = uSel;
         this.vSel = vSel.invertSelection();
+        this.sampler = maxExpansion > 0 ? new NeighborhoodSampler<>(graph, this.vSel, false, maxExpansion, NeighborhoodSampler.DEFAULT_SEED) : null;
         this.wSel = wSel;
 
-        this.getAllUidx().forEach(widx -> wSizes.put(widx, graph.getNeighborhood(widx, wSel).count() + 0.0));
+        this.getAllUidx().forEach(widx -> wSizes.put(widx, graph.getNeighborhoodSize(widx, wSel) + 0.0));
     }
 
     @Override
-    public Int2DoubleMap getScoresMap(int uidx)
+    protected void fillScores(int uidx, ScoreAccumulator scores)
     {
-        Int2DoubleOpenHashMap scoresMap = new Int2DoubleOpenHashMap();
-        scoresMap.defaultReturnValue(0.0);
-
-        graph.getNeighborhood(uidx, uSel).forEach(widx ->
+        graph.forEachNeighbor(uidx, uSel, widx ->
         {
-            double weight = Math.log(2.0) / Math.log(wSizes.get((int) widx) + 2.0);
-            graph.getNeighborhood(widx, vSel).forEach(vidx -> scoresMap.addTo(vidx, weight));
+            double weight = Math.log(2.0) / Math.log(wSizes.get(widx) + 2.0);
+            if (sampler == null)
+            {
+                graph.forEachNeighbor(widx, vSel, vidx -> scores.add(vidx, weight));
+            }
+            else
+            {
+                sampler.expand(widx, (vidx, scale) -> scores.add(vidx, weight * scale));
+            }
         });
+    }
 
-        return scoresMap;
+    /**
+     * Obtains the sampler for the neighbourhoods of the intermediate users, which counts the expanded and
+     * skipped edges.
+     *
+     * @return the sampler, or null if the neighbourhoods are fully expanded.
+     */
+    public NeighborhoodSampler<U> getSampler()
+    {
+        return this.sampler;
     }
 }
@@ -11,9 +11,8 @@ package es.uam.eps.ir.relison.links.recommendation.algorithms.standalone.foaf;
 
 import es.uam.eps.ir.relison.graph.edges.EdgeOrientation;
 import es.uam.eps.ir.relison.graph.fast.FastGraph;
-import es.uam.eps.ir.relison.links.recommendation.UserFastRankingRecommender;
-import it.unimi.dsi.fastutil.ints.Int2DoubleMap;
-import it.unimi.dsi.fastutil.ints.Int2DoubleOpenHashMap;
+import es.uam.eps.ir.relison.links.recommendation.ScoreAccumulator;
+import es.uam.eps.ir.relison.links.recommendation.UserFastAccumulatorRecommender;
 
 import java.util.HashMap;
 import java.util.Map;
@@ -33,7 +32,7 @@ import java.util.Map;
  * @author Iadh Ounis (iadh.ounis@glasgow.ac.uk)
  * @author Pablo Castells (pablo.castells@uam.es)
  */
-public class Cosine<U> extends UserFastRankingRecommender<U>
+public class Cosine<U> extends UserFastAccumulatorRecommender<U>
 {
     /**
      * Map containing the length of the neighborhoods of the target users.
@@ -51,6 +50,10 @@ public class Cosine<U> extends UserFastRankingRecommender<U>
      * Neighborhood selection for the candidate users.
      */
     private final EdgeOrientation vSel;
+    /**
+     * Sampler for the neighbourhoods of the intermediate users.
+     */
+    private final NeighborhoodSampler<U> sampler;
 
     /**
      * Constructor.
@@ -60,23 +63,38 @@ public class Cosine<U> extends UserFastRankingRecommender<U>
      * @param vSel  the neighborhood selection for the candidate user.
      */
     public Cosine(FastGraph<U> graph, EdgeOrientation uSel, EdgeOrientation vSel)
+    {
+        this(graph, uSel, vSel, 0);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param graph        the graph.
+     * @param uSel         the neighborhood selection for the target user.
+     * @param vSel         the neighborhood selection for the candidate user.
+     * @param maxExpansion the maximum number of neighbours expanded per intermediate user (hubs are sampled). If it
+     *                     is not positive, neighbourhoods are fully expanded.
+     */
+    public Cosine(FastGraph<U> graph, EdgeOrientation uSel, EdgeOrientation vSel, int maxExpansion)
     {
         super(graph);
         this.uSel = uSel;
         this.vSel = vSel.invertSelection();
+        this.sampler = maxExpansion > 0 ? new NeighborhoodSampler<>(graph, this.vSel, true, maxExpansion, NeighborhoodSampler.DEFAULT_SEED) : null;
         uSizes = new HashMap<>();
         vSizes = new HashMap<>();
 
         if (!graph.isWeighted())
         {
-            graph.getAllNodes().forEach(u -> uSizes.put(graph.object2idx(u), graph.getNeighbourhoodSize(u, uSel) + 0.0));
+            graph.getAllNodesIds().forEach(uidx -> uSizes.put(uidx, graph.getNeighborhoodSize(uidx, uSel) + 0.0));
             if (uSel.equals(vSel) || !graph.isDirected())
             {
                 vSizes.putAll(uSizes);
             }
             else
             {
-                graph.getAllNodes().forEach(v -> vSizes.put(graph.object2idx(v), graph.getNeighbourhoodSize(v, vSel) + 0.0));
+                graph.getAllNodesIds().forEach(vidx -> vSizes.put(vidx, graph.getNeighborhoodSize(vidx, vSel) + 0.0));
             }
         }
         else
@@ -94,20 +112,36 @@ public class Cosine<U> extends UserFastRankingRecommender<U>
     }
 
     @Override
-    public Int2DoubleMap getScoresMap(int uidx)
+    protected void fillScores(int uidx, ScoreAccumulator scores)
     {
-        Int2DoubleOpenHashMap scoresMap = new Int2DoubleOpenHashMap();
-        scoresMap.defaultReturnValue(0.0);
-
-        graph.getNeighborhoodWeights(uidx, uSel).forEach(widx ->
-                graph.getNeighborhoodWeights(widx.v1, vSel).forEach(vidx ->
-                        scoresMap.put(vidx.v1(), scoresMap.getOrDefault(vidx.v1, 0.0) + widx.v2 * vidx.v2)
-                )
-        );
+        if (sampler == null)
+        {
+            graph.forEachWeightedNeighbor(uidx, uSel, (widx, uwWeight) ->
+                    graph.forEachWeightedNeighbor(widx, vSel, (vidx, wvWeight) ->
+                            scores.add(vidx, uwWeight * wvWeight)
+                    )
+            );
+        }
+        else
+        {
+            graph.forEachWeightedNeighbor(uidx, uSel, (widx, uwWeight) ->
+                    sampler.expand(widx, (vidx, wvWeight) ->
+                            scores.add(vidx, uwWeight * wvWeight)
+                    )
+            );
+        }
 
-        scoresMap.replaceAll((vidx, sim) -> sim / (Math.sqrt(this.vSizes.get(vidx) * this.uSizes.get(uidx))+1.0));
-        return scoresMap;
+        scores.replaceAll((vidx, sim) -> sim / (Math.sqrt(this.vSizes.get(vidx) * this.uSizes.get(uidx))+1.0));
     }
 
-
+    /**
+     * Obtains the sampler for the neighbourhoods of the intermediate users, which counts the expanded and
+     * skipped edges.
+     *
+     * @return the sampler, or null if the neighbourhoods are fully expanded.
+     */
+    public NeighborhoodSampler<U> getSampler()
+    {
+        return this.sampler;
+    }
 }
@@ -10,7 +10,8 @@ package es.uam.eps.ir.relison.links.recommendation.algorithms.standalone.foaf;
 
 import es.uam.eps.ir.relison.graph.edges.EdgeOrientation;
 import es.uam.eps.ir.relison.graph.fast.FastGraph;
-import es.uam.eps.ir.relison.links.recommendation.UserFastRankingRecommender;
+import es.uam.eps.ir.relison.links.recommendation.ScoreAccumulator;
+import es.uam.eps.ir.relison.links.recommendation.UserFastAccumulatorRecommender;
 import it.unimi.dsi.fastutil.ints.Int2DoubleMap;
 import it.unimi.dsi.fastutil.ints.Int2DoubleOpenHashMap;
 
@@ -22,7 +23,7 @@ import it.unimi.dsi.fastutil.ints.Int2DoubleOpenHashMap;
  * @author Javier Sanz-Cruzado (javier.sanz-cruzado@uam.es)
  * @author Pablo Castells (pablo.castells@uam.es)
  */
-public class Dist2Popularity<U> extends UserFastRankingRecommender<U>
+public class Dist2Popularity<U> extends UserFastAccumulatorRecommender<U>
 {
     /**
      * Map containing the popularity of the candidate users.
@@ -50,17 +51,14 @@ public class Dist2Popularity<U> extends UserFastRankingRecommender<U>
         this.vSel = vSel.invertSelection();
         vSizes = new Int2DoubleOpenHashMap();
         
-        this.getAllUidx().forEach(vidx -> vSizes.put(vidx, graph.getNeighborhood(vidx, EdgeOrientation.IN).count() + 0.0));
+        this.getAllUidx().forEach(vidx -> vSizes.put(vidx, graph.getNeighborhoodSize(vidx, EdgeOrientation.IN) + 0.0));
     }
     
     @Override
-    public Int2DoubleMap getScoresMap(int uidx) 
+    protected void fillScores(int uidx, ScoreAccumulator scores)
     {
-        Int2DoubleOpenHashMap scoresMap = new Int2DoubleOpenHashMap();
-        scoresMap.defaultReturnValue(0.0);
-        graph.getNeighborhood(uidx, uSel).forEach(widx -> graph.getNeighborhood(widx, vSel).forEach(vidx -> scoresMap.addTo(vidx, 1.0)));
+        graph.forEachNeighbor(uidx, uSel, widx -> graph.forEachNeighbor(widx, vSel, vidx -> scores.add(vidx, 1.0)));
         
-        scoresMap.replaceAll((vidx, sim) -> sim/(this.vSizes.get((int)vidx)));
-        return scoresMap;
+        scores.replaceAll((vidx, sim) -> sim/(this.vSizes.get(vidx)));
     }
 }
@@ -10,7 +10,8 @@ package es.uam.eps.ir.relison.links.recommendation.algorithms.standalone.foaf;
 
 import es.uam.eps.ir.relison.graph.edges.EdgeOrientation;
 import es.uam.eps.ir.relison.graph.fast.FastGraph;
-import es.uam.eps.ir.relison.links.recommendation.UserFastRankingRecommender;
+import es.uam.eps.ir.relison.links.recommendation.ScoreAccumulator;
+import es.uam.eps.ir.relison.links.recommendation.UserFastAccumulatorRecommender;
 import it.unimi.dsi.fastutil.ints.Int2DoubleMap;
 import it.unimi.dsi.fastutil.ints.Int2DoubleOpenHashMap;
 
@@ -32,7 +33,7 @@ import it.unimi.dsi.fastutil.ints.Int2DoubleOpenHashMap;
  * @author Javier Sanz-Cruzado (javier.sanz-cruzado@uam.es)
  * @author Pablo Castells (pablo.castells@uam.es)
  */
-public class HubDepressedIndex<U> extends UserFastRankingRecommender<U>
+public class HubDepressedIndex<U> extends UserFastAccumulatorRecommender<U>
 {
     /**
      * Map containing the length of the neighborhoods of the target users.
@@ -66,7 +67,7 @@ public class HubDepressedIndex<U> extends UserFastRankingRecommender<U>
         
         if(uSel.equals(vSel) || !graph.isDirected())
         {
-            graph.getAllNodesIds().forEach(uidx -> uSizes.put(uidx, graph.getNeighborhood(uidx, uSel).count()+0.0));
+            graph.getAllNodesIds().forEach(uidx -> uSizes.put(uidx, graph.getNeighborhoodSize(uidx, uSel) + 0.0));
             vSizes = uSizes;
         }
         else
@@ -74,21 +75,17 @@ public class HubDepressedIndex<U> extends UserFastRankingRecommender<U>
             vSizes = new Int2DoubleOpenHashMap();
             this.getAllUidx().forEach(uidx -> 
             {
-               uSizes.put(uidx, graph.getNeighborhood(uidx, uSel).count()+0.0);
-               vSizes.put(uidx, graph.getNeighborhood(uidx, vSel).count()+0.0);
+               uSizes.put(uidx, graph.getNeighborhoodSize(uidx, uSel) + 0.0);
+               vSizes.put(uidx, graph.getNeighborhoodSize(uidx, vSel) + 0.0);
             });
         }
     }
     
     @Override
-    public Int2DoubleMap getScoresMap(int uidx) 
+    protected void fillScores(int uidx, ScoreAccumulator scores)
     {
-        Int2DoubleOpenHashMap scoresMap = new Int2DoubleOpenHashMap();
-        scoresMap.defaultReturnValue(0.0);
-
-        graph.getNeighborhood(uidx, uSel).forEach(widx -> graph.getNeighborhood(widx, vSel).forEach(vidx -> scoresMap.addTo(vidx, 1.0)));
+        graph.forEachNeighbor(uidx, uSel, widx -> graph.forEachNeighbor(widx, vSel, vidx -> scores.add(vidx, 1.0)));
         
-        scoresMap.replaceAll((vidx, sim) -> sim/(Math.max(this.vSizes.get((int) vidx), this.uSizes.get(uidx))+1.0));
-        return scoresMap;
+        scores.replaceAll((vidx, sim) -> sim/(Math.max(this.vSizes.get(vidx), this.uSizes.get(uidx))+1.0));
     }
 }
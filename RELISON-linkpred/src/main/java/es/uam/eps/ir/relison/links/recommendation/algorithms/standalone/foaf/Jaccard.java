@@ -11,7 +11,8 @@ package es.uam.eps.ir.relison.links.recommendation.algorithms.standalone.foaf;
 
 import es.uam.eps.ir.relison.graph.edges.EdgeOrientation;
 import es.uam.eps.ir.relison.graph.fast.FastGraph;
-import es.uam.eps.ir.relison.links.recommendation.UserFastRankingRecommender;
+import es.uam.eps.ir.relison.links.recommendation.ScoreAccumulator;
+import es.uam.eps.ir.relison.links.recommendation.UserFastAccumulatorRecommender;
 import it.unimi.dsi.fastutil.ints.Int2DoubleMap;
 import it.unimi.dsi.fastutil.ints.Int2DoubleOpenHashMap;
 
@@ -29,7 +30,7 @@ import it.unimi.dsi.fastutil.ints.Int2DoubleOpenHashMap;
  * @author Iadh Ounis (iadh.ounis@glasgow.ac.uk)
  * @author Pablo Castells (pablo.castells@uam.es)
  */
-public class Jaccard<U> extends UserFastRankingRecommender<U>
+public class Jaccard<U> extends UserFastAccumulatorRecommender<U>
 {
     /**
      * Map containing the length of the neighborhoods of the target users.
@@ -47,6 +48,10 @@ public class Jaccard<U> extends UserFastRankingRecommender<U>
      * Neighborhood selection for the candidate users.
      */
     private final EdgeOrientation vSel;
+    /**
+     * Sampler for the neighbourhoods of the intermediate users.
+     */
+    private final NeighborhoodSampler<U> sampler;
 
     /**
      * Constructor.
@@ -56,15 +61,30 @@ public class Jaccard<U> extends UserFastRankingRecommender<U>
      * @param vSel  the neighborhood selection for the candidate user.
      */
     public Jaccard(FastGraph<U> graph, EdgeOrientation uSel, EdgeOrientation vSel)
+    {
+        this(graph, uSel, vSel, 0);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param graph        the graph.
+     * @param uSel         the neighborhood selection for the target user.
+     * @param vSel         the neighborhood selection for the candidate user.
+     * @param maxExpansion the maximum number of neighbours expanded per intermediate user (hubs are sampled). If it
+     *                     is not positive, neighbourhoods are fully expanded.
+     */
+    public Jaccard(FastGraph<U> graph, EdgeOrientation uSel, EdgeOrientation vSel, int maxExpansion)
     {
         super(graph);
         uSizes = new Int2DoubleOpenHashMap();
         this.uSel = uSel;
         this.vSel = vSel.invertSelection();
+        this.sampler = maxExpansion > 0 ? new NeighborhoodSampler<>(graph, this.vSel, false, maxExpansion, NeighborhoodSampler.DEFAULT_SEED) : null;
 
         if (uSel.equals(vSel) || !graph.isDirected())
         {
-            this.getAllUidx().forEach(uidx -> uSizes.put(uidx, graph.getNeighborhood(uidx, uSel).count() + 0.0));
+            this.getAllUidx().forEach(uidx -> uSizes.put(uidx, graph.getNeighborhoodSize(uidx, uSel) + 0.0));
             vSizes = uSizes;
         }
         else
@@ -72,23 +92,38 @@ public class Jaccard<U> extends UserFastRankingRecommender<U>
             vSizes = new Int2DoubleOpenHashMap();
             this.getAllUidx().forEach(uidx ->
             {
-                uSizes.put(uidx, graph.getNeighborhood(uidx, uSel).count() + 0.0);
-                vSizes.put(uidx, graph.getNeighborhood(uidx, vSel).count() + 0.0);
+                uSizes.put(uidx, graph.getNeighborhoodSize(uidx, uSel) + 0.0);
+                vSizes.put(uidx, graph.getNeighborhoodSize(uidx, vSel) + 0.0);
             });
         }
     }
 
     @Override
-    public Int2DoubleMap getScoresMap(int uidx)
+    protected void fillScores(int uidx, ScoreAccumulator scores)
     {
-        Int2DoubleOpenHashMap scoresMap = new Int2DoubleOpenHashMap();
-        scoresMap.defaultReturnValue(0.0);
-
         double uSize = this.uSizes.get(uidx);
-        graph.getNeighborhood(uidx, uSel).forEach(widx ->
-            graph.getNeighborhood(widx, vSel).forEach(vidx -> scoresMap.addTo(vidx, 1.0)));
+        if (sampler == null)
+        {
+            graph.forEachNeighbor(uidx, uSel, widx ->
+                graph.forEachNeighbor(widx, vSel, vidx -> scores.add(vidx, 1.0)));
+        }
+        else
+        {
+            graph.forEachNeighbor(uidx, uSel, widx ->
+                sampler.expand(widx, scores::add));
+        }
+
+        scores.replaceAll((vidx, sim) -> sim / (uSize + this.vSizes.get(vidx) - sim));
+    }
 
-        scoresMap.replaceAll((vidx, sim) -> sim / (uSize + this.vSizes.get((int) vidx) - sim));
-        return scoresMap;
+    /**
+     * Obtains the sampler for the neighbourhoods of the intermediate users, which counts the expanded and
+     * skipped edges.
+     *
+     * @return the sampler, or null if the neighbourhoods are fully expanded.
+     */
+    public NeighborhoodSampler<U> getSampler()
+    {
+        return this.sampler;
     }
 }
@@ -11,9 +11,8 @@ package es.uam.eps.ir.relison.links.recommendation.algorithms.standalone.foaf;
 
 import es.uam.eps.ir.relison.graph.edges.EdgeOrientation;
 import es.uam.eps.ir.relison.graph.fast.FastGraph;
-import es.uam.eps.ir.relison.links.recommendation.UserFastRankingRecommender;
-import it.unimi.dsi.fastutil.ints.Int2DoubleMap;
-import it.unimi.dsi.fastutil.ints.Int2DoubleOpenHashMap;
+import es.uam.eps.ir.relison.links.recommendation.ScoreAccumulator;
+import es.uam.eps.ir.relison.links.recommendation.UserFastAccumulatorRecommender;
 
 /**
  * Recommended that sorts candidate users according to the number of neighbors in common with the target one.
@@ -33,7 +32,7 @@ import it.unimi.dsi.fastutil.ints.Int2DoubleOpenHashMap;
  * @author Iadh Ounis (iadh.ounis@glasgow.ac.uk)
  * @author Pablo Castells (pablo.castells@uam.es)
  */
-public class MostCommonNeighbors<U> extends UserFastRankingRecommender<U>
+public class MostCommonNeighbors<U> extends UserFastAccumulatorRecommender<U>
 {
     /**
      * Neighborhood selection for the target users.
@@ -43,6 +42,10 @@ public class MostCommonNeighbors<U> extends UserFastRankingRecommender<U>
      * Neighborhood selection for the candidate users.
      */
     private final EdgeOrientation vSel;
+    /**
+     * Sampler for the neighbourhoods of the intermediate users.
+     */
+    private final NeighborhoodSampler<U> sampler;
 
     /**
      * Constructor.
@@ -52,22 +55,50 @@ public class MostCommonNeighbors<U> extends UserFastRankingRecommender<U>
      * @param vSel  link orientation for the candidate users.
      */
     public MostCommonNeighbors(FastGraph<U> graph, EdgeOrientation uSel, EdgeOrientation vSel)
+    {
+        this(graph, uSel, vSel, 0);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param graph        user graph.
+     * @param uSel         link orientation for the target users.
+     * @param vSel         link orientation for the candidate users.
+     * @param maxExpansion the maximum number of neighbours expanded per intermediate user (hubs are sampled). If it
+     *                     is not positive, neighbourhoods are fully expanded.
+     */
+    public MostCommonNeighbors(FastGraph<U> graph, EdgeOrientation uSel, EdgeOrientation vSel, int maxExpansion)
     {
         super(graph);
         this.uSel = uSel;
         this.vSel = vSel.invertSelection();
+        this.sampler = maxExpansion > 0 ? new NeighborhoodSampler<>(graph, this.vSel, false, maxExpansion, NeighborhoodSampler.DEFAULT_SEED) : null;
     }
 
     @Override
-    public Int2DoubleMap getScoresMap(int uidx)
+    protected void fillScores(int uidx, ScoreAccumulator scores)
     {
-        Int2DoubleOpenHashMap scoresMap = new Int2DoubleOpenHashMap();
-        scoresMap.defaultReturnValue(0.0);
-
-        graph.getNeighborhood(uidx, uSel).forEach(widx ->
-            graph.getNeighborhood(widx, vSel).forEach(vidx ->
-                scoresMap.addTo(vidx, 1.0)));
+        if (sampler == null)
+        {
+            graph.forEachNeighbor(uidx, uSel, widx ->
+                graph.forEachNeighbor(widx, vSel, vidx -> scores.add(vidx, 1.0)));
+        }
+        else
+        {
+            graph.forEachNeighbor(uidx, uSel, widx ->
+                sampler.expand(widx, scores::add));
+        }
+    }
 
-        return scoresMap;
+    /**
+     * Obtains the sampler for the neighbourhoods of the intermediate users, which counts the expanded and
+     * skipped edges.
+     *
+     * @return the sampler, or null if the neighbourhoods are fully expanded.
+     */
+    public NeighborhoodSampler<U> getSampler()
+    {
+        return this.sampler;
     }
 }
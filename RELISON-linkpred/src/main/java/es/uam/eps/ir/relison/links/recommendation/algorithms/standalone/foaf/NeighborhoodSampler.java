@@ -0,0 +1,290 @@
+/*
+ *  Copyright (C) 2021 Information Retrieval Group at Universidad Autónoma
+ *  de Madrid, http://ir.ii.uam.es
+ *
+ *  This Source Code Form is subject to the terms of the Mozilla Public
+ *  License, v. 2.0. If a copy of the MPL was not distributed with this
+ *  file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package es.uam.eps.ir.relison.links.recommendation.algorithms.standalone.foaf;
+
+import es.uam.eps.ir.relison.graph.edges.EdgeOrientation;
+import es.uam.eps.ir.relison.graph.fast.FastGraph;
+import es.uam.eps.ir.relison.utils.functions.IntDoubleConsumer;
+import it.unimi.dsi.fastutil.ints.IntOpenHashSet;
+import it.unimi.dsi.fastutil.ints.IntSet;
+import org.ranksys.core.util.tuples.Tuple2id;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Budgeted expansion of the neighbourhoods of the intermediate users in friends-of-friends recommenders. The
+ * neighbourhood of a user with more than a given number of neighbours (a hub) is replaced by a uniform sample of
+ * that size, drawn once by reservoir sampling. As every neighbour of a hub is sampled with the same probability,
+ * the contributions of the sampled neighbours are multiplied by the inverse of that probability, so the sums of
+ * contributions over the common neighbours are unbiased estimates of the exhaustive ones.
+ *
+ * <p>
+ * The sampler counts the number of edges it expands and the number of edges it skips, and it provides a measure
+ * of the overlap between the sampled and the exhaustive rankings, so the cost and the accuracy of the budget
+ * can be compared.
+ * </p>
+ *
+ * <p>
+ * <b>Reference:</b> J.S. Vitter. Random Sampling with a Reservoir. ACM Transactions on Mathematical Software 11(1), pp. 37-57 (1985).
+ * </p>
+ *
+ * @param <U> type of the users.
+ *
+ * @author Javier Sanz-Cruzado (javier.sanz-cruzado@uam.es)
+ * @author Pablo Castells (pablo.castells@uam.es)
+ */
+public class NeighborhoodSampler<U>
+{
+    /**
+     * Default seed for the random number generator.
+     */
+    public static final long DEFAULT_SEED = 0L;
+    /**
+     * The network.
+     */
+    private final FastGraph<U> graph;
+    /**
+     * Orientation of the expanded neighbourhoods.
+     */
+    private final EdgeOrientation orient;
+    /**
+     * Whether the weights of the edges are used.
+     */
+    private final boolean weighted;
+    /**
+     * Maximum number of neighbours expanded per intermediate user.
+     */
+    private final int maxExpansion;
+    /**
+     * Sampled neighbours of each hub (null for the rest of users).
+     */
+    private final int[][] samples;
+    /**
+     * Weights of the edges towards the sampled neighbours of each hub (null for the rest of users).
+     */
+    private final double[][] sampleWeights;
+    /**
+     * Factor for the contributions of the sampled neighbours of each hub (1.0 for the rest of users).
+     */
+    private final double[] scales;
+    /**
+     * Number of expanded edges.
+     */
+    private final LongAdder expanded;
+    /**
+     * Number of skipped edges.
+     */
+    private final LongAdder skipped;
+
+    /**
+     * Constructor.
+     *
+     * @param graph        the network.
+     * @param orient       the orientation of the expanded neighbourhoods.
+     * @param weighted     whether the weights of the edges are used.
+     * @param maxExpansion the maximum number of neighbours expanded per intermediate user. If it is not positive,
+     *                     neighbourhoods are fully expanded.
+     * @param seed         the seed for the random number generator.
+     */
+    public NeighborhoodSampler(FastGraph<U> graph, EdgeOrientation orient, boolean weighted, int maxExpansion, long seed)
+    {
+        this.graph = graph;
+        this.orient = orient;
+        this.weighted = weighted;
+        this.maxExpansion = maxExpansion > 0 ? maxExpansion : Integer.MAX_VALUE;
+        this.expanded = new LongAdder();
+        this.skipped = new LongAdder();
+
+        int numUsers = Math.toIntExact(graph.getVertexCount());
+        this.samples = new int[numUsers][];
+        this.sampleWeights = new double[numUsers][];
+        this.scales = new double[numUsers];
+        Arrays.fill(this.scales, 1.0);
+
+        Random rng = new Random(seed);
+        for (int widx = 0; widx < numUsers && maxExpansion > 0; ++widx)
+        {
+            int size = graph.getNeighborhoodSize(widx, orient);
+            if (size > this.maxExpansion)
+            {
+                this.sample(widx, size, rng);
+            }
+        }
+    }
+
+    /**
+     * Draws the sample of the neighbourhood of a hub, by reservoir sampling. The sampled neighbours keep the
+     * order of the neighbourhood.
+     *
+     * @param widx the identifier of the hub.
+     * @param size the size of its neighbourhood.
+     * @param rng  the random number generator.
+     */
+    private void sample(int widx, int size, Random rng)
+    {
+        int[] positions = new int[this.maxExpansion];
+        for (int i = 0; i < this.maxExpansion; ++i)
+        {
+            positions[i] = i;
+        }
+        for (int i = this.maxExpansion; i < size; ++i)
+        {
+            int j = rng.nextInt(i + 1);
+            if (j < this.maxExpansion)
+            {
+                positions[j] = i;
+            }
+        }
+        Arrays.sort(positions);
+
+        int[] neighs = new int[this.maxExpansion];
+        double[] weights = new double[this.maxExpansion];
+        int[] counters = new int[2];
+        this.forEachNeighbor(widx, (vidx, weight) ->
+        {
+            int pos = counters[0]++;
+            int next = counters[1];
+            if (next < positions.length && positions[next] == pos)
+            {
+                neighs[next] = vidx;
+                weights[next] = weight;
+                counters[1]++;
+            }
+        });
+
+        // Protects from neighbourhoods whose size differs from the number of neighbours they contain.
+        int num = counters[1];
+        this.samples[widx] = Arrays.copyOf(neighs, num);
+        this.sampleWeights[widx] = Arrays.copyOf(weights, num);
+        this.scales[widx] = num > 0 ? (counters[0] + 0.0) / num : 1.0;
+    }
+
+    /**
+     * Traverses the complete neighbourhood of a user.
+     *
+     * @param widx   the identifier of the user.
+     * @param action the action. It receives the identifier of the neighbour and the weight of the edge (1.0 if the
+     *               weights are not used).
+     */
+    private void forEachNeighbor(int widx, IntDoubleConsumer action)
+    {
+        if (this.weighted)
+        {
+            graph.forEachWeightedNeighbor(widx, orient, action);
+        }
+        else
+        {
+            graph.forEachNeighbor(widx, orient, vidx -> action.accept(vidx, 1.0));
+        }
+    }
+
+    /**
+     * Expands the neighbourhood of an intermediate user. If the user is a hub, only the sampled neighbours are
+     * visited, and their weights are multiplied by the inverse of the sampling probability.
+     *
+     * @param widx   the identifier of the intermediate user.
+     * @param action the action. It receives the identifier of the neighbour and the (scaled) weight of the edge
+     *               (1.0, scaled, if the weights are not used).
+     */
+    public void expand(int widx, IntDoubleConsumer action)
+    {
+        int[] neighs = this.samples[widx];
+        if (neighs == null)
+        {
+            this.expanded.add(graph.getNeighborhoodSize(widx, orient));
+            this.forEachNeighbor(widx, action);
+        }
+        else
+        {
+            double[] weights = this.sampleWeights[widx];
+            double scale = this.scales[widx];
+            this.expanded.add(neighs.length);
+            this.skipped.add(graph.getNeighborhoodSize(widx, orient) - neighs.length);
+            for (int i = 0; i < neighs.length; ++i)
+            {
+                action.accept(neighs[i], weights[i] * scale);
+            }
+        }
+    }
+
+    /**
+     * Obtains the maximum number of neighbours expanded per intermediate user.
+     *
+     * @return the maximum number of neighbours (Integer.MAX_VALUE if neighbourhoods are fully expanded).
+     */
+    public int getMaxExpansion()
+    {
+        return this.maxExpansion;
+    }
+
+    /**
+     * Obtains the number of edges expanded since the creation of the sampler (or the last reset).
+     *
+     * @return the number of expanded edges.
+     */
+    public long getExpandedEdges()
+    {
+        return this.expanded.sum();
+    }
+
+    /**
+     * Obtains the number of edges skipped by the sampling since the creation of the sampler (or the last reset).
+     *
+     * @return the number of skipped edges.
+     */
+    public long getSkippedEdges()
+    {
+        return this.skipped.sum();
+    }
+
+    /**
+     * Obtains the fraction of the edges of the exhaustive expansion which have been skipped.
+     *
+     * @return the fraction of skipped edges (0.0 if no edge has been visited).
+     */
+    public double getSkippedRatio()
+    {
+        long skip = this.getSkippedEdges();
+        long total = skip + this.getExpandedEdges();
+        return total > 0 ? (skip + 0.0) / total : 0.0;
+    }
+
+    /**
+     * Resets the counters of expanded and skipped edges.
+     */
+    public void resetCounters()
+    {
+        this.expanded.reset();
+        this.skipped.reset();
+    }
+
+    /**
+     * Measures the accuracy of a sampled ranking with respect to the exhaustive one, as the fraction of users in the
+     * exhaustive ranking which also appear in the sampled one.
+     *
+     * @param exhaustive the exhaustive ranking.
+     * @param sampled    the sampled ranking.
+     *
+     * @return the overlap between the rankings (1.0 if the exhaustive ranking is empty).
+     */
+    public static double overlap(List<Tuple2id> exhaustive, List<Tuple2id> sampled)
+    {
+        if (exhaustive.isEmpty())
+        {
+            return 1.0;
+        }
+
+        IntSet set = new IntOpenHashSet();
+        sampled.forEach(t -> set.add(t.v1));
+        return exhaustive.stream().filter(t -> set.contains(t.v1)).count() / (exhaustive.size() + 0.0);
+    }
+}
@@ -78,13 +78,11 @@ public class PreferentialAttachment<U> extends UserFastRankingRecommender<U>
     @Override
     public Int2DoubleMap getScoresMap(int uidx) 
     {
-        U u = this.uidx2user(uidx);
-        
         Int2DoubleMap scoresMap = new Int2DoubleOpenHashMap();
         scoresMap.defaultReturnValue(-1.0);
-        double uNeigh = this.getGraph().getNeighbourhoodSize(this.uidx2user(uidx), uSel);
+        double uNeigh = this.getGraph().getNeighborhoodSize(uidx, uSel);
         
-        this.getAllUsers().forEach(v -> scoresMap.put(this.item2iidx(v), (linkprediction ? uNeigh*this.getGraph().getNeighbourhoodSize(v, vSel)+0.0 : this.getGraph().getNeighbourhoodSize(v, vSel)+0.0)));
+        this.getAllIidx().forEach(vidx -> scoresMap.put(vidx, (linkprediction ? uNeigh*this.getGraph().getNeighborhoodSize(vidx, vSel)+0.0 : this.getGraph().getNeighborhoodSize(vidx, vSel)+0.0)));
         return scoresMap;
     }
 
@@ -10,9 +10,8 @@ package es.uam.eps.ir.relison.links.recommendation.algorithms.standalone.foaf;
 
 import es.uam.eps.ir.relison.graph.edges.EdgeOrientation;
 import es.uam.eps.ir.relison.graph.fast.FastGraph;
-import es.uam.eps.ir.relison.links.recommendation.UserFastRankingRecommender;
-import it.unimi.dsi.fastutil.ints.Int2DoubleMap;
-import it.unimi.dsi.fastutil.ints.Int2DoubleOpenHashMap;
+import es.uam.eps.ir.relison.links.recommendation.ScoreAccumulator;
+import es.uam.eps.ir.relison.links.recommendation.UserFastAccumulatorRecommender;
 
 import java.util.HashMap;
 import java.util.Map;
@@ -29,7 +28,7 @@ import java.util.Map;
  * @author Javier Sanz-Cruzado (javier.sanz-cruzado@uam.es)
  * @author Pablo Castells (pablo.castells@uam.es)
  */
-public class Sorensen<U> extends UserFastRankingRecommender<U>
+public class Sorensen<U> extends UserFastAccumulatorRecommender<U>
 {
 /**
      * Map containing the length of the neighborhoods of the target users.
@@ -62,27 +61,23 @@ public class Sorensen<U> extends UserFastRankingRecommender<U>
         uSizes = new HashMap<>();
         vSizes = new HashMap<>();
         
-        graph.getAllNodes().forEach(u -> uSizes.put(graph.object2idx(u), graph.getNeighbourhoodSize(u, uSel) + 0.0));
+        graph.getAllNodesIds().forEach(uidx -> uSizes.put(uidx, graph.getNeighborhoodSize(uidx, uSel) + 0.0));
         if(uSel.equals(vSel) || !graph.isDirected())
         {
             vSizes.putAll(uSizes);
         }
         else
         {
-            graph.getAllNodes().forEach(v -> vSizes.put(graph.object2idx(v), graph.getNeighbourhoodSize(v, vSel)+0.0));           
+            graph.getAllNodesIds().forEach(vidx -> vSizes.put(vidx, graph.getNeighborhoodSize(vidx, vSel) + 0.0));           
         }
     }
 
     @Override
-    public Int2DoubleMap getScoresMap(int uidx) 
+    protected void fillScores(int uidx, ScoreAccumulator scores)
     {
-        Int2DoubleOpenHashMap scoresMap = new Int2DoubleOpenHashMap();
-        scoresMap.defaultReturnValue(0.0);
-
-        graph.getNeighborhood(uidx, uSel).forEach(widx -> graph.getNeighborhood(widx, vSel).forEach(vidx -> scoresMap.addTo(vidx, 2.0)));
+        graph.forEachNeighbor(uidx, uSel, widx -> graph.forEachNeighbor(widx, vSel, vidx -> scores.add(vidx, 2.0)));
         
-        scoresMap.replaceAll((vidx, sim) -> sim/(this.vSizes.get(vidx)+this.uSizes.get(uidx)));
-        return scoresMap;
+        scores.replaceAll((vidx, sim) -> sim/(this.vSizes.get(vidx)+this.uSizes.get(uidx)));
     }
 
     
@@ -11,7 +11,8 @@ package es.uam.eps.ir.relison.links.recommendation.algorithms.standalone.foaf;
 
 import es.uam.eps.ir.relison.graph.edges.EdgeOrientation;
 import es.uam.eps.ir.relison.graph.fast.FastGraph;
-import es.uam.eps.ir.relison.links.recommendation.UserFastRankingRecommender;
+import es.uam.eps.ir.relison.links.recommendation.ScoreAccumulator;
+import es.uam.eps.ir.relison.links.recommendation.UserFastAccumulatorRecommender;
 import it.unimi.dsi.fastutil.ints.Int2DoubleMap;
 import it.unimi.dsi.fastutil.ints.Int2DoubleOpenHashMap;
 
@@ -23,7 +24,7 @@ import it.unimi.dsi.fastutil.ints.Int2DoubleOpenHashMap;
  * @author Javier Sanz-Cruzado (javier.sanz-cruzado@uam.es)
  * @author Pablo Castells (pablo.castells@uam.es)
  */
-public class TotalNeighbors<U> extends UserFastRankingRecommender<U>
+public class TotalNeighbors<U> extends UserFastAccumulatorRecommender<U>
 {
     /**
      * Map containing the length of the neighborhoods of the target users.
@@ -58,7 +59,7 @@ public class TotalNeighbors<U> extends UserFastRankingRecommender<U>
 
         if (uSel.equals(vSel) || !graph.isDirected())
         {
-            this.getAllUidx().forEach(uidx -> uSizes.put(uidx, graph.getNeighborhood(uidx, uSel).count() + 0.0));
+            this.getAllUidx().forEach(uidx -> uSizes.put(uidx, graph.getNeighborhoodSize(uidx, uSel) + 0.0));
             vSizes = uSizes;
         }
         else
@@ -66,23 +67,19 @@ public class TotalNeighbors<U> extends UserFastRankingRecommender<U>
             vSizes = new Int2DoubleOpenHashMap();
             this.getAllUidx().forEach(uidx ->
             {
-                uSizes.put(uidx, graph.getNeighborhood(uidx, uSel).count() + 0.0);
-                vSizes.put(uidx, graph.getNeighborhood(uidx, vSel).count() + 0.0);
+                uSizes.put(uidx, graph.getNeighborhoodSize(uidx, uSel) + 0.0);
+                vSizes.put(uidx, graph.getNeighborhoodSize(uidx, vSel) + 0.0);
             });
         }
     }
 
     @Override
-    public Int2DoubleMap getScoresMap(int uidx)
+    protected void fillScores(int uidx, ScoreAccumulator scores)
     {
-        Int2DoubleOpenHashMap scoresMap = new Int2DoubleOpenHashMap();
-        scoresMap.defaultReturnValue(0.0);
-
         double uSize = this.uSizes.get(uidx);
-        graph.getNeighborhood(uidx, uSel).forEach(widx ->
-            graph.getNeighborhood(widx, vSel).forEach(vidx -> scoresMap.addTo(vidx, 1.0)));
+        graph.forEachNeighbor(uidx, uSel, widx ->
+            graph.forEachNeighbor(widx, vSel, vidx -> scores.add(vidx, 1.0)));
 
-        scoresMap.replaceAll((vidx, sim) -> uSize + this.vSizes.get((int) vidx) - sim);
-        return scoresMap;
+        scores.replaceAll((vidx, sim) -> uSize + this.vSizes.get(vidx) - sim);
     }
 }
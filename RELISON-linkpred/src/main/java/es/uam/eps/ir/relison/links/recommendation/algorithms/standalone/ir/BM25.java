@@ -11,8 +11,7 @@ package es.uam.eps.ir.relison.links.recommendation.algorithms.standalone.ir;
 
 import es.uam.eps.ir.relison.graph.edges.EdgeOrientation;
 import es.uam.eps.ir.relison.graph.fast.FastGraph;
-import es.uam.eps.ir.relison.links.recommendation.UserFastRankingRecommender;
-import it.unimi.dsi.fastutil.ints.Int2DoubleMap;
+import es.uam.eps.ir.relison.utils.functions.IntDoubleConsumer;
 import it.unimi.dsi.fastutil.ints.Int2DoubleOpenHashMap;
 
 import java.util.OptionalDouble;
@@ -31,7 +30,7 @@ import java.util.OptionalDouble;
  * @author Iadh Ounis (iadh.ounis@glasgow.ac.uk)
  * @author Pablo Castells (pablo.castells@uam.es)
  */
-public class BM25<U> extends UserFastRankingRecommender<U>
+public class BM25<U> extends MaxScoreRecommender<U>
 {
     /**
      * Parameter that tunes the effect of the neighborhood size. Between 0 and 1
@@ -41,14 +40,6 @@ public class BM25<U> extends UserFastRankingRecommender<U>
      * Parameter that tunes the effect of the term frequency on the formula.
      */
     private final double k;
-    /**
-     * Neighborhood selection for the target users.
-     */
-    private final EdgeOrientation uSel;
-    /**
-     * Neighborhood selection for the candidate users.
-     */
-    private final EdgeOrientation vSel;
     /**
      * Neighbour selection for the document length
      */
@@ -86,7 +77,7 @@ public class BM25<U> extends UserFastRankingRecommender<U>
      */
     public BM25(FastGraph<U> graph, EdgeOrientation uSel, EdgeOrientation vSel, EdgeOrientation dlSel, double b, double k)
     {
-        super(graph);
+        super(graph, uSel, vSel.invertSelection());
 
         this.dlSel = dlSel;
         this.b = b;
@@ -95,9 +86,6 @@ public class BM25<U> extends UserFastRankingRecommender<U>
         this.size = new Int2DoubleOpenHashMap();
         this.wLengths = new Int2DoubleOpenHashMap();
         this.numUsers = graph.getVertexCount();
-
-        this.uSel = uSel;
-        this.vSel = vSel.invertSelection();
         OptionalDouble opt = this.getAllUidx().mapToDouble(vidx ->
         {
             // Compute RSJ
@@ -106,7 +94,6 @@ public class BM25<U> extends UserFastRankingRecommender<U>
             rsjV = Math.log((numUsers - rsjV + 0.5) / (rsjV + 0.5));
             this.rsj.put(vidx, rsjV);
 
-
             // Compute size
             double val = graph.getNeighborhoodWeights(vidx, dlSel).mapToDouble(widx -> widx.v2).sum();
 
@@ -118,47 +105,48 @@ public class BM25<U> extends UserFastRankingRecommender<U>
     }
 
     @Override
-    public Int2DoubleMap getScoresMap(int uidx)
+    protected double contribution(int uidx, int widx, double uWeight, int vidx, double vWeight)
     {
-        Int2DoubleOpenHashMap scoresMap = new Int2DoubleOpenHashMap();
-        scoresMap.defaultReturnValue(0.0);
-
-
+        double rsjW = this.rsj.get(widx);
+        double s = this.size.get(vidx);
         if (Double.isFinite(this.k))
         {
-            graph.getNeighborhood(uidx, uSel).forEach(widx ->
-            {
-                double rsjW = this.rsj.get((int) widx);
-                graph.getNeighborhoodWeights(widx, vSel).forEach(vidx ->
-                {
-                    double weight = vidx.v2;
-                    double s = this.size.get(vidx.v1);
-
-                    double num = (this.k + 1.0) * weight * rsjW;
-                    double den = this.k * (1 - b + (b * s / avgSize)) + weight;
-
-                    scoresMap.addTo(vidx.v1, num / den);
-                });
-            });
+            double num = (this.k + 1.0) * vWeight * rsjW;
+            double den = this.k * (1 - b + (b * s / avgSize)) + vWeight;
+            return num / den;
         }
         else
         {
-            graph.getNeighborhood(uidx, uSel).forEach(widx ->
-            {
-                double rsjW = this.rsj.get((int) widx);
-                graph.getNeighborhoodWeights(widx, vSel).forEach(vidx ->
-                {
-                    double weight = vidx.v2;
-                    double s = this.size.get(vidx.v1);
+            double num = vWeight * rsjW;
+            double den = (1 - b + (b * s / avgSize));
+            return num / den;
+        }
+    }
 
-                    double num = weight * rsjW;
-                    double den = (1 - b + (b * s / avgSize));
+    @Override
+    protected void forEachQueryTerm(int uidx, IntDoubleConsumer action)
+    {
+        // The weights of the target user are not used: only its neighbourhood.
+        graph.forEachNeighbor(uidx, uSel, widx -> action.accept(widx, 1.0));
+    }
 
-                    scoresMap.addTo(vidx.v1, num / den);
-                });
-            });
-        }
+    @Override
+    protected double targetFactor(int uidx, int widx, double uWeight)
+    {
+        return this.rsj.get(widx);
+    }
 
-        return scoresMap;
+    @Override
+    protected double candidateFactor(int widx, int vidx, double vWeight)
+    {
+        double s = this.size.get(vidx);
+        if (Double.isFinite(this.k))
+        {
+            return (this.k + 1.0) * vWeight / (this.k * (1 - b + (b * s / avgSize)) + vWeight);
+        }
+        else
+        {
+            return vWeight / (1 - b + (b * s / avgSize));
+        }
     }
 }
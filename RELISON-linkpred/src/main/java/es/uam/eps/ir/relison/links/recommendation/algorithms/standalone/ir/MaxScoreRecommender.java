@@ -0,0 +1,597 @@
+/*
+ *  Copyright (C) 2021 Information Retrieval Group at Universidad Autónoma
+ *  de Madrid, http://ir.ii.uam.es
+ *
+ *  This Source Code Form is subject to the terms of the Mozilla Public
+ *  License, v. 2.0. If a copy of the MPL was not distributed with this
+ *  file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package es.uam.eps.ir.relison.links.recommendation.algorithms.standalone.ir;
+
+import es.uam.eps.ir.ranksys.fast.FastRecommendation;
+import es.uam.eps.ir.relison.graph.edges.EdgeOrientation;
+import es.uam.eps.ir.relison.graph.fast.FastGraph;
+import es.uam.eps.ir.relison.links.recommendation.ScoreAccumulator;
+import es.uam.eps.ir.relison.links.recommendation.TopNHeap;
+import es.uam.eps.ir.relison.links.recommendation.UserFastAccumulatorRecommender;
+import es.uam.eps.ir.relison.utils.functions.IntDoubleConsumer;
+import it.unimi.dsi.fastutil.doubles.DoubleArrayList;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.ints.IntArrays;
+
+import java.util.Arrays;
+import java.util.function.IntPredicate;
+
+/**
+ * Abstract class for IR-based contact recommendation algorithms whose scores are sums of the contributions of the
+ * common neighbours between the target and the candidate users (the terms shared by the query and the document),
+ * followed by a final normalization of the score of each candidate. These algorithms are able to find the top-k
+ * candidates without scoring all of them, by means of the MaxScore dynamic pruning strategy, which returns exactly
+ * the same ranking as the exhaustive computation.
+ *
+ * <p>
+ * The network is treated as an inverted index, where the posting list of each user w contains the neighbours of w
+ * which have w as a neighbour in the candidate selection. The posting lists are sorted by the upper bound of their
+ * contributions, and, once the k-th best score exceeds the sum of the bounds of the smallest lists, those lists are
+ * only used for completing the scores of candidates found in the rest, and candidates whose score cannot reach the
+ * top-k are discarded as soon as possible. Candidates are processed in increasing order of identifier, by windows:
+ * the postings of the essential lists in each window are accumulated term-at-a-time, and then, the candidates found
+ * in the window are completed and scored one by one.
+ * </p>
+ *
+ * <p>
+ * For computing the bounds, each contribution is decomposed as the product of a factor which only depends on the
+ * target user and the common neighbour, and a factor which only depends on the common neighbour and the candidate.
+ * The final score of a candidate cannot exceed the sum of these products over the common neighbours (so the final
+ * normalization can divide the score by a positive value, or add a non-positive prior).
+ * </p>
+ *
+ * <p>
+ * <b>Reference:</b> H. Turtle, J. Flood. Query Evaluation: Strategies and Optimizations. Information Processing and Management 31(6), pp. 831-850 (1995).
+ * </p>
+ *
+ * @param <U> type of the users.
+ *
+ * @author Javier Sanz-Cruzado (javier.sanz-cruzado@uam.es)
+ * @author Pablo Castells (pablo.castells@uam.es)
+ */
+public abstract class MaxScoreRecommender<U> extends UserFastAccumulatorRecommender<U>
+{
+    /**
+     * Relative tolerance for the comparison of upper bounds, which protects the pruning from rounding errors.
+     */
+    private static final double TOLERANCE = 1E-9;
+    /**
+     * Number of consecutive candidates whose essential postings are accumulated at once.
+     */
+    private static final int WINDOW = 4096;
+
+    /**
+     * Neighborhood selection for the target users.
+     */
+    protected final EdgeOrientation uSel;
+    /**
+     * Neighborhood selection for the candidate users (the orientation of the posting lists).
+     */
+    protected final EdgeOrientation vSel;
+
+    /**
+     * Offsets of the posting lists of the users (null until the lists are built).
+     */
+    private volatile int[] offsets;
+    /**
+     * Candidate users in the posting lists, sorted by identifier within each list.
+     */
+    private int[] postings;
+    /**
+     * Weights of the edges in the posting lists.
+     */
+    private double[] weights;
+    /**
+     * Candidate factors of the postings.
+     */
+    private double[] factors;
+    /**
+     * Maximum candidate factor in the posting list of each user.
+     */
+    private double[] maxFactors;
+    /**
+     * Minimum candidate factor in the posting list of each user.
+     */
+    private double[] minFactors;
+    /**
+     * Buffers for processing the windows of candidates, for each thread.
+     */
+    private final ThreadLocal<Window> windows;
+
+    /**
+     * Constructor.
+     *
+     * @param graph the training network.
+     * @param uSel  neighborhood selection for the target users.
+     * @param vSel  neighborhood selection for the candidate users (the orientation of the posting lists).
+     */
+    public MaxScoreRecommender(FastGraph<U> graph, EdgeOrientation uSel, EdgeOrientation vSel)
+    {
+        super(graph);
+        this.uSel = uSel;
+        this.vSel = vSel;
+        this.windows = ThreadLocal.withInitial(() -> new Window(Math.min(WINDOW, this.numItems())));
+    }
+
+    /**
+     * Computes the contribution of a common neighbour to the score of a candidate user.
+     *
+     * @param uidx    the identifier of the target user.
+     * @param widx    the identifier of the common neighbour.
+     * @param uWeight the weight of the edge between the target user and the common neighbour.
+     * @param vidx    the identifier of the candidate user.
+     * @param vWeight the weight of the edge between the common neighbour and the candidate user.
+     *
+     * @return the contribution.
+     */
+    protected abstract double contribution(int uidx, int widx, double uWeight, int vidx, double vWeight);
+
+    /**
+     * Computes the factor of the contribution of a common neighbour which only depends on the target user.
+     *
+     * @param uidx    the identifier of the target user.
+     * @param widx    the identifier of the common neighbour.
+     * @param uWeight the weight of the edge between the target user and the common neighbour.
+     *
+     * @return the factor.
+     */
+    protected abstract double targetFactor(int uidx, int widx, double uWeight);
+
+    /**
+     * Computes the factor of the contribution of a common neighbour which only depends on the candidate user.
+     * The product of the target and candidate factors is the contribution of the neighbour to the final
+     * (normalized) score.
+     *
+     * @param widx    the identifier of the common neighbour.
+     * @param vidx    the identifier of the candidate user.
+     * @param vWeight the weight of the edge between the common neighbour and the candidate user.
+     *
+     * @return the factor.
+     */
+    protected abstract double candidateFactor(int widx, int vidx, double vWeight);
+
+    /**
+     * Normalizes the sum of the contributions of the common neighbours (identity, by default).
+     *
+     * @param uidx  the identifier of the target user.
+     * @param vidx  the identifier of the candidate user.
+     * @param score the sum of the contributions.
+     *
+     * @return the final score.
+     */
+    protected double normalize(int uidx, int vidx, double score)
+    {
+        return score;
+    }
+
+    /**
+     * Applies an action over the common neighbour candidates of the target user (the query terms), i.e. its
+     * neighbours in the uSel orientation, and the weights of the corresponding edges.
+     *
+     * @param uidx   the identifier of the target user.
+     * @param action the action. It receives the identifier of the neighbour and the weight of the edge.
+     */
+    protected void forEachQueryTerm(int uidx, IntDoubleConsumer action)
+    {
+        graph.forEachWeightedNeighbor(uidx, uSel, action);
+    }
+
+    /**
+     * Applies the final normalization to an upper bound of the sum of the contributions of the common neighbours of a
+     * candidate, so it can be compared with the final scores. It must be non-decreasing, and it must not exceed its
+     * argument. By default, the bound is not modified.
+     *
+     * @param uidx  the identifier of the target user.
+     * @param vidx  the identifier of the candidate user.
+     * @param bound the upper bound.
+     *
+     * @return the normalized upper bound.
+     */
+    protected double normalizeBound(int uidx, int vidx, double bound)
+    {
+        return bound;
+    }
+
+    @Override
+    protected void fillScores(int uidx, ScoreAccumulator scores)
+    {
+        this.forEachQueryTerm(uidx, (widx, uWeight) ->
+                graph.forEachWeightedNeighbor(widx, vSel, (vidx, vWeight) ->
+                        scores.add(vidx, this.contribution(uidx, widx, uWeight, vidx, vWeight))));
+
+        scores.replaceAll((vidx, score) -> this.normalize(uidx, vidx, score));
+    }
+
+    @Override
+    public FastRecommendation getRecommendation(int uidx, int maxLength, IntPredicate filter)
+    {
+        if (uidx == -1 || maxLength >= this.numItems())
+        {
+            return super.getRecommendation(uidx, maxLength, filter);
+        }
+        if (this.offsets == null)
+        {
+            this.buildPostings();
+        }
+
+        // Query terms: the neighbours of the target user.
+        IntArrayList terms = new IntArrayList();
+        DoubleArrayList termWeights = new DoubleArrayList();
+        this.forEachQueryTerm(uidx, (widx, weight) ->
+        {
+            terms.add(widx);
+            termWeights.add(weight);
+        });
+        int m = terms.size();
+
+        double[] queryFactors = new double[m];
+        double[] bounds = new double[m];
+        int[] cursors = new int[m];
+        int[] ends = new int[m];
+        int[] order = new int[m];
+        for (int t = 0; t < m; ++t)
+        {
+            int widx = terms.getInt(t);
+            queryFactors[t] = this.targetFactor(uidx, widx, termWeights.getDouble(t));
+            bounds[t] = upperBound(queryFactors[t], this.maxFactors[widx], this.minFactors[widx]);
+            cursors[t] = this.offsets[widx];
+            ends[t] = this.offsets[widx + 1];
+            order[t] = t;
+        }
+
+        // Sort the terms by increasing upper bound.
+        IntArrays.quickSort(order, (t1, t2) -> Double.compare(bounds[t1], bounds[t2]));
+        double[] prefix = new double[m];
+        double total = 0.0;
+        for (int j = 0; j < m; ++j)
+        {
+            total += bounds[order[j]];
+            prefix[j] = total;
+        }
+
+        TopNHeap heap = new TopNHeap(maxLength);
+        double threshold = Double.NEGATIVE_INFINITY;
+        double margin = 0.0;
+        int firstEssential = 0;
+
+        // Positions of the posting lists for the computation of the exact scores.
+        int[] exact = Arrays.copyOf(cursors, m);
+        int numItems = this.numItems();
+        Window buffers = this.windows.get();
+        int window = buffers.partials.length;
+        double[] partials = buffers.partials;
+        double[] absolutes = buffers.absolutes;
+        boolean[] found = buffers.found;
+        int[] touched = buffers.touched;
+
+        for (int first = 0; first < numItems && firstEssential < m; first += window)
+        {
+            int last = Math.min(first + window, numItems);
+
+            // Process the essential lists term-at-a-time over the window. The essential lists do not change
+            // until the next window.
+            int windowEssential = firstEssential;
+            int numTouched = 0;
+            for (int j = windowEssential; j < m; ++j)
+            {
+                int t = order[j];
+                while (cursors[t] < ends[t] && this.postings[cursors[t]] < last)
+                {
+                    int pos = this.postings[cursors[t]] - first;
+                    double partial = bound(queryFactors[t] * this.factors[cursors[t]]);
+                    partials[pos] += partial;
+                    absolutes[pos] += Math.abs(partial);
+                    if (!found[pos])
+                    {
+                        found[pos] = true;
+                        touched[numTouched++] = pos;
+                    }
+                    ++cursors[t];
+                }
+            }
+
+            IntArrays.quickSort(touched, 0, numTouched);
+            for (int i = 0; i < numTouched; ++i)
+            {
+                int pos = touched[i];
+                int vidx = first + pos;
+                double bound = partials[pos] + (windowEssential > 0 ? prefix[windowEssential - 1] : 0.0);
+                double absolute = absolutes[pos];
+                found[pos] = false;
+                partials[pos] = 0.0;
+                absolutes[pos] = 0.0;
+
+                if (!filter.test(vidx))
+                {
+                    continue;
+                }
+
+                // Complete the bound with the non-essential lists, while the candidate can reach the top-k.
+                boolean pruned = false;
+                for (int j = windowEssential - 1; j >= 0 && !pruned; --j)
+                {
+                    if (heap.isFull() && this.isPruned(uidx, vidx, bound + margin + TOLERANCE * absolute, threshold))
+                    {
+                        pruned = true;
+                    }
+                    else
+                    {
+                        int t = order[j];
+                        bound -= bounds[t];
+                        cursors[t] = this.advance(cursors[t], ends[t], vidx);
+                        while (cursors[t] < ends[t] && this.postings[cursors[t]] == vidx)
+                        {
+                            double partial = bound(queryFactors[t] * this.factors[cursors[t]]);
+                            bound += partial;
+                            absolute += Math.abs(partial);
+                            ++cursors[t];
+                        }
+                    }
+                }
+                if (pruned || (heap.isFull() && this.isPruned(uidx, vidx, bound + margin + TOLERANCE * absolute, threshold)))
+                {
+                    continue;
+                }
+
+                // Exact score: the contributions are added in the same order as in the exhaustive computation.
+                double score = 0.0;
+                for (int t = 0; t < m; ++t)
+                {
+                    exact[t] = this.advance(exact[t], ends[t], vidx);
+                    while (exact[t] < ends[t] && this.postings[exact[t]] == vidx)
+                    {
+                        score += this.contribution(uidx, terms.getInt(t), termWeights.getDouble(t), vidx, this.weights[exact[t]]);
+                        ++exact[t];
+                    }
+                }
+                score = this.normalize(uidx, vidx, score);
+
+                if (heap.add(vidx, score) && heap.isFull())
+                {
+                    threshold = heap.minValue();
+                    margin = TOLERANCE * (Math.abs(threshold) + Math.abs(total));
+                    while (firstEssential < m && prefix[firstEssential] + margin < threshold)
+                    {
+                        ++firstEssential;
+                    }
+                }
+            }
+        }
+
+        return new FastRecommendation(uidx, heap.toList());
+    }
+
+    /**
+     * Checks whether a candidate cannot enter the top-k.
+     *
+     * @param uidx      the identifier of the target user.
+     * @param vidx      the identifier of the candidate user.
+     * @param bound     the upper bound of the sum of the contributions of the common neighbours of the candidate.
+     * @param threshold the minimum score in the top-k.
+     *
+     * @return true if the normalized bound is smaller than the threshold, false otherwise.
+     */
+    private boolean isPruned(int uidx, int vidx, double bound, double threshold)
+    {
+        double normalized = this.normalizeBound(uidx, vidx, bound);
+        return normalized + TOLERANCE * Math.abs(normalized - bound) < threshold;
+    }
+
+    /**
+     * Finds the first position of a posting list containing a candidate equal or greater than a given one,
+     * by galloping search.
+     *
+     * @param from the current position in the posting list.
+     * @param to   the end of the posting list.
+     * @param vidx the candidate.
+     *
+     * @return the position.
+     */
+    private int advance(int from, int to, int vidx)
+    {
+        if (from >= to || this.postings[from] >= vidx)
+        {
+            return from;
+        }
+
+        // Exponential search for an interval containing the position, followed by a binary search.
+        int low = from;
+        int step = 1;
+        int high = from + step;
+        while (high < to && this.postings[high] < vidx)
+        {
+            low = high;
+            step <<= 1;
+            high = from + step;
+        }
+        high = Math.min(high, to);
+
+        // Invariant: postings[low] < vidx, and postings[high] >= vidx (or high == to).
+        while (high - low > 1)
+        {
+            int mid = (low + high) >>> 1;
+            if (this.postings[mid] < vidx)
+            {
+                low = mid;
+            }
+            else
+            {
+                high = mid;
+            }
+        }
+        return high;
+    }
+
+    /**
+     * Builds the posting lists, and finds the bounds of the candidate factors in each of them.
+     */
+    private synchronized void buildPostings()
+    {
+        if (this.offsets != null)
+        {
+            return;
+        }
+
+        int numUsers = this.numUsers();
+        int[] offs = new int[numUsers + 1];
+        IntArrayList lists = new IntArrayList();
+        DoubleArrayList listWeights = new DoubleArrayList();
+        for (int widx = 0; widx < numUsers; ++widx)
+        {
+            int begin = lists.size();
+            graph.forEachWeightedNeighbor(widx, vSel, (vidx, weight) ->
+            {
+                lists.add(vidx);
+                listWeights.add(weight);
+            });
+            offs[widx + 1] = lists.size();
+            sort(lists.elements(), listWeights.elements(), begin, lists.size());
+        }
+
+        int[] elems = lists.toIntArray();
+        double[] ws = listWeights.toDoubleArray();
+        double[] facts = new double[elems.length];
+        double[] max = new double[numUsers];
+        double[] min = new double[numUsers];
+        for (int widx = 0; widx < numUsers; ++widx)
+        {
+            max[widx] = Double.NEGATIVE_INFINITY;
+            min[widx] = Double.POSITIVE_INFINITY;
+            for (int i = offs[widx]; i < offs[widx + 1]; ++i)
+            {
+                double factor = this.candidateFactor(widx, elems[i], ws[i]);
+                facts[i] = factor;
+                if (factor > max[widx])
+                {
+                    max[widx] = factor;
+                }
+                if (factor < min[widx])
+                {
+                    min[widx] = factor;
+                }
+                if (Double.isNaN(factor))
+                {
+                    max[widx] = Double.POSITIVE_INFINITY;
+                    min[widx] = Double.NEGATIVE_INFINITY;
+                }
+            }
+        }
+
+        this.postings = elems;
+        this.weights = ws;
+        this.factors = facts;
+        this.maxFactors = max;
+        this.minFactors = min;
+        this.offsets = offs;
+    }
+
+    /**
+     * Sorts a posting list by candidate. The sort is stable, so repeated candidates keep their relative order.
+     *
+     * @param elems   the candidates.
+     * @param weights the weights of the postings.
+     * @param begin   the first position of the posting list.
+     * @param end     the end of the posting list.
+     */
+    private static void sort(int[] elems, double[] weights, int begin, int end)
+    {
+        boolean sorted = true;
+        for (int i = begin + 1; i < end && sorted; ++i)
+        {
+            sorted = elems[i - 1] <= elems[i];
+        }
+        if (sorted)
+        {
+            return;
+        }
+
+        int[] perm = new int[end - begin];
+        for (int i = 0; i < perm.length; ++i)
+        {
+            perm[i] = begin + i;
+        }
+        IntArrays.mergeSort(perm, (i, j) -> Integer.compare(elems[i], elems[j]));
+
+        int[] auxElems = new int[perm.length];
+        double[] auxWeights = new double[perm.length];
+        for (int i = 0; i < perm.length; ++i)
+        {
+            auxElems[i] = elems[perm[i]];
+            auxWeights[i] = weights[perm[i]];
+        }
+        System.arraycopy(auxElems, 0, elems, begin, perm.length);
+        System.arraycopy(auxWeights, 0, weights, begin, perm.length);
+    }
+
+    /**
+     * Finds an upper bound for the contribution of a common neighbour to the score of any candidate.
+     *
+     * @param targetFactor the target factor of the neighbour.
+     * @param max          the maximum candidate factor in the posting list of the neighbour.
+     * @param min          the minimum candidate factor in the posting list of the neighbour.
+     *
+     * @return the upper bound.
+     */
+    private static double upperBound(double targetFactor, double max, double min)
+    {
+        if (max < min)
+        {
+            return 0.0;
+        }
+        return Math.max(0.0, Math.max(bound(targetFactor * max), bound(targetFactor * min)));
+    }
+
+    /**
+     * Replaces undefined bounds by positive infinity, so they never cause a candidate to be discarded.
+     *
+     * @param value the bound.
+     *
+     * @return the value if it is defined, positive infinity otherwise.
+     */
+    private static double bound(double value)
+    {
+        return Double.isNaN(value) ? Double.POSITIVE_INFINITY : value;
+    }
+
+    /**
+     * Buffers for processing a window of candidates. They are cleared after each window.
+     */
+    private static class Window
+    {
+        /**
+         * Sum of the contributions of the essential lists for each candidate in the window.
+         */
+        private final double[] partials;
+        /**
+         * Sum of the absolute values of the contributions of the essential lists for each candidate in the window.
+         */
+        private final double[] absolutes;
+        /**
+         * Whether each candidate in the window appears in the essential lists.
+         */
+        private final boolean[] found;
+        /**
+         * Positions of the candidates which appear in the essential lists.
+         */
+        private final int[] touched;
+
+        /**
+         * Constructor.
+         *
+         * @param size the size of the window.
+         */
+        Window(int size)
+        {
+            this.partials = new double[size];
+            this.absolutes = new double[size];
+            this.found = new boolean[size];
+            this.touched = new int[size];
+        }
+    }
+}
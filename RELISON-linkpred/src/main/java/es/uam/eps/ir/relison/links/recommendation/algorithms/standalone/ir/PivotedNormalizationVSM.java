@@ -11,7 +11,6 @@ package es.uam.eps.ir.relison.links.recommendation.algorithms.standalone.ir;
 
 import es.uam.eps.ir.relison.graph.edges.EdgeOrientation;
 import es.uam.eps.ir.relison.graph.fast.FastGraph;
-import es.uam.eps.ir.relison.links.recommendation.UserFastRankingRecommender;
 import it.unimi.dsi.fastutil.ints.Int2DoubleMap;
 import it.unimi.dsi.fastutil.ints.Int2DoubleOpenHashMap;
 
@@ -29,23 +28,13 @@ import java.util.OptionalDouble;
  * @author Iadh Ounis (iadh.ounis@glasgow.ac.uk)
  * @author Pablo Castells (pablo.castells@uam.es)
  */
-public class PivotedNormalizationVSM<U> extends UserFastRankingRecommender<U>
+public class PivotedNormalizationVSM<U> extends MaxScoreRecommender<U>
 {
     /**
      * Value that balances the importance of the document length.
      */
     private final double s;
 
-    /**
-     * Neighborhood orientation selected for the target user.
-     */
-    private final EdgeOrientation uSel;
-
-    /**
-     * Neighborhood orientation selected for the candidate user.
-     */
-    private final EdgeOrientation vSel;
-
     /**
      * Average length of the candidate users.
      */
@@ -71,10 +60,7 @@ public class PivotedNormalizationVSM<U> extends UserFastRankingRecommender<U>
      */
     public PivotedNormalizationVSM(FastGraph<U> graph, EdgeOrientation uSel, EdgeOrientation vSel, double s)
     {
-        super(graph);
-
-        this.uSel = uSel;
-        this.vSel = vSel.invertSelection();
+        super(graph, uSel, vSel.invertSelection());
         this.s = s;
 
         this.lengths = new Int2DoubleOpenHashMap();
@@ -97,26 +83,27 @@ public class PivotedNormalizationVSM<U> extends UserFastRankingRecommender<U>
     }
 
     @Override
-    public Int2DoubleMap getScoresMap(int uidx)
+    protected double contribution(int uidx, int widx, double uWeight, int vidx, double vWeight)
     {
-        Int2DoubleOpenHashMap scoresMap = new Int2DoubleOpenHashMap();
-        scoresMap.defaultReturnValue(0.0);
-
-        graph.getNeighborhoodWeights(uidx, uSel).forEach(w ->
-        {
-            int widx = w.v1;
-            double uW = w.v2;
-            double idf = this.idfs.get(w.v1);
+        return this.targetFactor(uidx, widx, uWeight);
+    }
 
-            graph.getNeighborhoodWeights(widx, vSel).forEach(v ->
-            {
-                double val = (1 + Math.log(1 + Math.log(w.v2))) * uW * Math.log(idf);
-                scoresMap.addTo(v.v1, val);
-            });
-        });
+    @Override
+    protected double targetFactor(int uidx, int widx, double uWeight)
+    {
+        double idf = this.idfs.get(widx);
+        return (1 + Math.log(1 + Math.log(uWeight))) * uWeight * Math.log(idf);
+    }
 
-        scoresMap.replaceAll((vidx, val) -> val / (1 - s + s * lengths.get(vidx.intValue()) / avgSize));
+    @Override
+    protected double candidateFactor(int widx, int vidx, double vWeight)
+    {
+        return 1.0 / (1 - s + s * lengths.get(vidx) / avgSize);
+    }
 
-        return scoresMap;
+    @Override
+    protected double normalize(int uidx, int vidx, double score)
+    {
+        return score / (1 - s + s * lengths.get(vidx) / avgSize);
     }
 }
\ No newline at end of file
@@ -11,7 +11,6 @@ package es.uam.eps.ir.relison.links.recommendation.algorithms.standalone.ir;
 
 import es.uam.eps.ir.relison.graph.edges.EdgeOrientation;
 import es.uam.eps.ir.relison.graph.fast.FastGraph;
-import es.uam.eps.ir.relison.links.recommendation.UserFastRankingRecommender;
 import it.unimi.dsi.fastutil.ints.Int2DoubleMap;
 import it.unimi.dsi.fastutil.ints.Int2DoubleOpenHashMap;
 import org.ranksys.core.util.tuples.Tuple2id;
@@ -31,7 +30,7 @@ import org.ranksys.core.util.tuples.Tuple2id;
  * @author Iadh Ounis (iadh.ounis@glasgow.ac.uk)
  * @author Pablo Castells (pablo.castells@uam.es)
  */
-public class QLD<U> extends UserFastRankingRecommender<U>
+public class QLD<U> extends MaxScoreRecommender<U>
 {
     /**
      * Parameter which controls the trade-off between the regularization term and the original term
@@ -54,14 +53,6 @@ public class QLD<U> extends UserFastRankingRecommender<U>
      * Sum of the neighborhood sizes
      */
     private final double fullSize;
-    /**
-     * Neighborhood selection for the target users.
-     */
-    private final EdgeOrientation uSel;
-    /**
-     * Neighborhood selection for the candidate users.
-     */
-    private final EdgeOrientation vSel;
 
     /**
      * Constructor.
@@ -73,10 +64,7 @@ public class QLD<U> extends UserFastRankingRecommender<U>
      */
     public QLD(FastGraph<U> graph, EdgeOrientation uSel, EdgeOrientation vSel, double mu)
     {
-        super(graph);
-
-        this.uSel = uSel;
-        this.vSel = vSel.invertSelection();
+        super(graph, uSel, vSel.invertSelection());
         this.mu = mu;
         this.uSize = new Int2DoubleOpenHashMap();
 
@@ -149,30 +137,37 @@ public class QLD<U> extends UserFastRankingRecommender<U>
     }
 
     @Override
-    public Int2DoubleMap getScoresMap(int uidx)
+    protected double contribution(int uidx, int widx, double uWeight, int vidx, double vWeight)
     {
-        Int2DoubleOpenHashMap scoresMap = new Int2DoubleOpenHashMap();
-        scoresMap.defaultReturnValue(0.0);
-
-        double norm = this.uSize.get(uidx);
-        graph.getNeighborhoodWeights(uidx, uSel).forEach(w ->
-        {
-            double uWeight = w.v2;
-            int widx = w.v1;
-            double wPc = this.fullSize / (this.mu * this.pc.get(widx));
+        double wPc = this.fullSize / (this.mu * this.pc.get(widx));
+        double val = uWeight * Math.log(vWeight * wPc + 1.0);
+        return (Double.isNaN(val) || Double.isInfinite(val)) ? Double.NEGATIVE_INFINITY : val;
+    }
 
-            graph.getNeighborhoodWeights(widx, vSel).forEach(v ->
-            {
-                double vWeight = v.v2;
+    @Override
+    protected double targetFactor(int uidx, int widx, double uWeight)
+    {
+        return uWeight;
+    }
 
-                double val = uWeight * Math.log(vWeight * wPc + 1.0);
-                if (Double.isNaN(val) || Double.isInfinite(val)) scoresMap.addTo(v.v1, Double.NEGATIVE_INFINITY);
-                else scoresMap.addTo(v.v1, val);
-            });
-        });
+    @Override
+    protected double candidateFactor(int widx, int vidx, double vWeight)
+    {
+        double wPc = this.fullSize / (this.mu * this.pc.get(widx));
+        double val = Math.log(vWeight * wPc + 1.0);
+        return (Double.isNaN(val) || Double.isInfinite(val)) ? Double.NEGATIVE_INFINITY : val;
+    }
 
-        scoresMap.replaceAll((vidx, val) -> val - norm * Math.log(1.0 + this.vSize.get((int) vidx) / mu));
+    @Override
+    protected double normalize(int uidx, int vidx, double score)
+    {
+        // The document length prior is never positive, so it does not invalidate the bounds of the scores.
+        return score - this.uSize.get(uidx) * Math.log(1.0 + this.vSize.get(vidx) / mu);
+    }
 
-        return scoresMap;
+    @Override
+    protected double normalizeBound(int uidx, int vidx, double bound)
+    {
+        return this.normalize(uidx, vidx, bound);
     }
 }
@@ -11,7 +11,6 @@ package es.uam.eps.ir.relison.links.recommendation.algorithms.standalone.ir;
 
 import es.uam.eps.ir.relison.graph.edges.EdgeOrientation;
 import es.uam.eps.ir.relison.graph.fast.FastGraph;
-import es.uam.eps.ir.relison.links.recommendation.UserFastRankingRecommender;
 import it.unimi.dsi.fastutil.ints.Int2DoubleMap;
 import it.unimi.dsi.fastutil.ints.Int2DoubleOpenHashMap;
 import org.ranksys.core.util.tuples.Tuple2id;
@@ -31,7 +30,7 @@ import org.ranksys.core.util.tuples.Tuple2id;
  * @author Iadh Ounis (iadh.ounis@glasgow.ac.uk)
  * @author Pablo Castells (pablo.castells@uam.es)
  */
-public class QLJM<U> extends UserFastRankingRecommender<U>
+public class QLJM<U> extends MaxScoreRecommender<U>
 {
     /**
      * Parameter which controls the trade-off between the regularization term and the original term
@@ -50,14 +49,6 @@ public class QLJM<U> extends UserFastRankingRecommender<U>
      * Sum of the neighborhood sizes
      */
     private final double fullSize;
-    /**
-     * Neighborhood selection for the target users.
-     */
-    private final EdgeOrientation uSel;
-    /**
-     * Neighborhood selection for the candidate users.
-     */
-    private final EdgeOrientation vSel;
 
     /**
      * Constructor.
@@ -69,9 +60,7 @@ public class QLJM<U> extends UserFastRankingRecommender<U>
      */
     public QLJM(FastGraph<U> graph, EdgeOrientation uSel, EdgeOrientation vSel, double lambda)
     {
-        super(graph);
-        this.uSel = uSel;
-        this.vSel = vSel.invertSelection();
+        super(graph, uSel, vSel.invertSelection());
         this.lambda = lambda / (1 - lambda);
         this.size = new Int2DoubleOpenHashMap();
 
@@ -102,26 +91,39 @@ public class QLJM<U> extends UserFastRankingRecommender<U>
     }
 
     @Override
-    public Int2DoubleMap getScoresMap(int uidx)
+    protected double contribution(int uidx, int widx, double uWeight, int vidx, double vWeight)
     {
-        Int2DoubleOpenHashMap scoresMap = new Int2DoubleOpenHashMap();
-        scoresMap.defaultReturnValue(0.0);
+        double val = this.probability(widx, vidx, vWeight);
+        return (Double.isNaN(val) || Double.isInfinite(val)) ? Double.NEGATIVE_INFINITY : uWeight * Math.log(val + 1.0);
+    }
 
-        graph.getNeighborhoodWeights(uidx, uSel).forEach(w ->
-        {
-            double uW = w.v2;
-            int widx = w.v1;
-            double wPc = this.fullSize / (this.pc.get(widx));
+    @Override
+    protected double targetFactor(int uidx, int widx, double uWeight)
+    {
+        return uWeight;
+    }
 
-            graph.getNeighborhoodWeights(widx, vSel).forEach(v ->
-            {
-                double s = this.size.getOrDefault(v.v1, 0.0);
-                double val = lambda * wPc * (v.v2 / s);
-                if (Double.isNaN(val) || Double.isInfinite(val)) scoresMap.addTo(v.v1, Double.NEGATIVE_INFINITY);
-                else scoresMap.addTo(v.v1, uW * Math.log(val + 1.0));
-            });
-        });
+    @Override
+    protected double candidateFactor(int widx, int vidx, double vWeight)
+    {
+        double val = this.probability(widx, vidx, vWeight);
+        return (Double.isNaN(val) || Double.isInfinite(val)) ? Double.NEGATIVE_INFINITY : Math.log(val + 1.0);
+    }
 
-        return scoresMap;
+    /**
+     * Computes the ratio between the smoothed probability of a neighbour for the candidate user and its
+     * probability in the collection.
+     *
+     * @param widx    the identifier of the neighbour.
+     * @param vidx    the identifier of the candidate user.
+     * @param vWeight the weight of the edge between the neighbour and the candidate user.
+     *
+     * @return the ratio.
+     */
+    private double probability(int widx, int vidx, double vWeight)
+    {
+        double wPc = this.fullSize / (this.pc.get(widx));
+        double s = this.size.getOrDefault(vidx, 0.0);
+        return lambda * wPc * (vWeight / s);
     }
 }
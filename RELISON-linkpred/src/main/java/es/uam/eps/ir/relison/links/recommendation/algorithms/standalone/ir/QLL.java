@@ -11,7 +11,6 @@ package es.uam.eps.ir.relison.links.recommendation.algorithms.standalone.ir;
 
 import es.uam.eps.ir.relison.graph.edges.EdgeOrientation;
 import es.uam.eps.ir.relison.graph.fast.FastGraph;
-import es.uam.eps.ir.relison.links.recommendation.UserFastRankingRecommender;
 import it.unimi.dsi.fastutil.ints.Int2DoubleMap;
 import it.unimi.dsi.fastutil.ints.Int2DoubleOpenHashMap;
 import org.ranksys.core.util.tuples.Tuple2id;
@@ -31,7 +30,7 @@ import org.ranksys.core.util.tuples.Tuple2id;
  * @author Iadh Ounis (iadh.ounis@glasgow.ac.uk)
  * @author Pablo Castells (pablo.castells@uam.es)
  */
-public class QLL<U> extends UserFastRankingRecommender<U>
+public class QLL<U> extends MaxScoreRecommender<U>
 {
     /**
      * Parameter which controls the trade-off between the regularization term and the original term
@@ -46,14 +45,6 @@ public class QLL<U> extends UserFastRankingRecommender<U>
      * Candidate users neighborhood sizes
      */
     private final Int2DoubleMap vSize;
-    /**
-     * Neighborhood selection for the target users.
-     */
-    private final EdgeOrientation uSel;
-    /**
-     * Neighborhood selection for the candidate users.
-     */
-    private final EdgeOrientation vSel;
     /**
      * The sum of the user lengths.
      */
@@ -69,9 +60,7 @@ public class QLL<U> extends UserFastRankingRecommender<U>
      */
     public QLL(FastGraph<U> graph, EdgeOrientation uSel, EdgeOrientation vSel, double gamma)
     {
-        super(graph);
-        this.uSel = uSel;
-        this.vSel = vSel.invertSelection();
+        super(graph, uSel, vSel.invertSelection());
         this.gamma = gamma;
 
         this.uSize = new Int2DoubleOpenHashMap();
@@ -102,29 +91,33 @@ public class QLL<U> extends UserFastRankingRecommender<U>
     }
 
     @Override
-    public Int2DoubleMap getScoresMap(int uidx)
+    protected double contribution(int uidx, int widx, double uWeight, int vidx, double vWeight)
     {
-        Int2DoubleOpenHashMap scoresMap = new Int2DoubleOpenHashMap();
-        scoresMap.defaultReturnValue(0.0);
+        return uWeight * Math.log((vWeight + this.gamma) / this.gamma);
+    }
 
-        double uS = this.uSize.get(uidx);
-        graph.getNeighborhoodWeights(uidx, uSel).forEach(w ->
-        {
-            double uW = w.v2;
-            int widx = w.v1;
+    @Override
+    protected double targetFactor(int uidx, int widx, double uWeight)
+    {
+        return uWeight;
+    }
 
-            graph.getNeighborhoodWeights(widx, vSel).forEach(v ->
-            {
-                double val = uW * Math.log((v.v2 + this.gamma) / this.gamma);
-                scoresMap.addTo(v.v1, val);
-            });
-        });
+    @Override
+    protected double candidateFactor(int widx, int vidx, double vWeight)
+    {
+        return Math.log((vWeight + this.gamma) / this.gamma);
+    }
 
-        for (int vidx : scoresMap.keySet())
-        {
-            scoresMap.replace(vidx, scoresMap.get(vidx) + uS * Math.log(this.gamma / (this.vSize.get(vidx) + gamma * this.numUsers())));
-        }
+    @Override
+    protected double normalize(int uidx, int vidx, double score)
+    {
+        // The document length prior is never positive, so it does not invalidate the bounds of the scores.
+        return score + this.uSize.get(uidx) * Math.log(this.gamma / (this.vSize.get(vidx) + gamma * this.numUsers()));
+    }
 
-        return scoresMap;
+    @Override
+    protected double normalizeBound(int uidx, int vidx, double bound)
+    {
+        return this.normalize(uidx, vidx, bound);
     }
 }
@@ -9,10 +9,8 @@
  */
 package es.uam.eps.ir.relison.links.recommendation.algorithms.standalone.ir;
 
-
 import es.uam.eps.ir.relison.graph.edges.EdgeOrientation;
 import es.uam.eps.ir.relison.graph.fast.FastGraph;
-import es.uam.eps.ir.relison.links.recommendation.UserFastRankingRecommender;
 import it.unimi.dsi.fastutil.ints.Int2DoubleMap;
 import it.unimi.dsi.fastutil.ints.Int2DoubleOpenHashMap;
 
@@ -29,7 +27,7 @@ import it.unimi.dsi.fastutil.ints.Int2DoubleOpenHashMap;
  * @author Iadh Ounis (iadh.ounis@glasgow.ac.uk)
  * @author Pablo Castells (pablo.castells@uam.es)
  */
-public class VSM<U> extends UserFastRankingRecommender<U>
+public class VSM<U> extends MaxScoreRecommender<U>
 {   
     /**
      * Target users' inverse document frequency
@@ -43,14 +41,6 @@ public class VSM<U> extends UserFastRankingRecommender<U>
      * tf-idf vector modules for each user
      */
     private final Int2DoubleMap mod;
-    /**
-     * Neighborhood selection for the target users.
-     */
-    private final EdgeOrientation uSel;
-    /**
-     * Neighborhood selection for the candidate users.
-     */
-    private final EdgeOrientation vSel;
     /**
      * Constructor.
      * @param graph The original social network graph.
@@ -59,10 +49,7 @@ public class VSM<U> extends UserFastRankingRecommender<U>
      */
     public VSM(FastGraph<U> graph, EdgeOrientation uSel, EdgeOrientation vSel)
     {
-        super(graph);
-              
-        this.uSel = uSel;
-        this.vSel = vSel.invertSelection();
+        super(graph, uSel, vSel.invertSelection());
         this.uIdf = new Int2DoubleOpenHashMap();
         this.mod = new Int2DoubleOpenHashMap();
         EdgeOrientation uAuxOrient = uSel.invertSelection();
@@ -117,28 +104,28 @@ public class VSM<U> extends UserFastRankingRecommender<U>
     }
         
     @Override
-    public Int2DoubleMap getScoresMap(int uidx) 
+    protected double contribution(int uidx, int widx, double uWeight, int vidx, double vWeight)
     {
-        Int2DoubleOpenHashMap scoresMap = new Int2DoubleOpenHashMap();
-        scoresMap.defaultReturnValue(0.0);
+        double uW = this.calculateTf(uWeight)*this.uIdf.get(widx);
+        double vW = this.vIdf.get(widx);
+        return uW*this.calculateTf(vWeight)*vW;
+    }
 
-        
-        graph.getNeighborhoodWeights(uidx, uSel).forEach(w -> 
-        {            
-            int widx = w.v1;
-            double uW = this.calculateTf(w.v2)*this.uIdf.get(widx);
-            double vW = this.vIdf.get(widx);
-            
-            graph.getNeighborhoodWeights(widx, vSel).forEach(v -> 
-            {
-                if(v.v2 == 0) System.err.println(v.v1 + " " + widx + " " + v.v2);
-                double val = uW*this.calculateTf(v.v2)*vW;
-                scoresMap.addTo(v.v1, val);
-            });
-        });
-                
-        scoresMap.replaceAll((vidx, val) -> val/ Math.sqrt(this.mod.get((int) vidx)));
-        
-        return scoresMap;
+    @Override
+    protected double targetFactor(int uidx, int widx, double uWeight)
+    {
+        return this.calculateTf(uWeight)*this.uIdf.get(widx);
+    }
+
+    @Override
+    protected double candidateFactor(int widx, int vidx, double vWeight)
+    {
+        return this.calculateTf(vWeight)*this.vIdf.get(widx)/Math.sqrt(this.mod.get(vidx));
+    }
+
+    @Override
+    protected double normalize(int uidx, int vidx, double score)
+    {
+        return score/ Math.sqrt(this.mod.get(vidx));
     }
 }
@@ -19,6 +19,9 @@ import cern.colt.matrix.linalg.LUDecompositionQuick;
 import es.uam.eps.ir.relison.graph.edges.EdgeOrientation;
 import es.uam.eps.ir.relison.graph.fast.FastGraph;
 import es.uam.eps.ir.relison.links.recommendation.algorithms.GlobalMatrixBasedRecommender;
+import es.uam.eps.ir.relison.utils.matrix.CSRMatrix;
+import es.uam.eps.ir.relison.utils.matrix.IterativeSolvers;
+import es.uam.eps.ir.relison.utils.matrix.MatrixLibrary;
 import no.uib.cipr.matrix.*;
 import org.jblas.DoubleMatrix;
 import org.jblas.Eigen;
@@ -47,6 +50,19 @@ public class GlobalLHNIndex<U> extends GlobalMatrixBasedRecommender<U>
      */
     private final EdgeOrientation orient;
 
+    /**
+     * Sparse adjacency matrix (only when the sparse library is used).
+     */
+    private final CSRMatrix adj;
+    /**
+     * Degrees of the nodes (only when the sparse library is used).
+     */
+    private final double[] degrees;
+    /**
+     * Largest eigenvalue of the adjacency matrix (only when the sparse library is used).
+     */
+    private final double lambda;
+
     /**
      * Constructor. By default, considers networks as undirected.
      *
@@ -55,10 +71,7 @@ public class GlobalLHNIndex<U> extends GlobalMatrixBasedRecommender<U>
      */
     public GlobalLHNIndex(FastGraph<U> graph, double phi)
     {
-        super(graph);
-        this.phi = phi;
-        this.matrix = this.getMatrix();
-        this.orient = EdgeOrientation.UND;
+        this(graph, phi, EdgeOrientation.UND);
     }
 
     /**
@@ -72,8 +85,50 @@ public class GlobalLHNIndex<U> extends GlobalMatrixBasedRecommender<U>
     {
         super(graph);
         this.phi = phi;
+        this.orient = orient;
+        this.adj = null;
+        this.degrees = null;
+        this.lambda = 0.0;
         this.matrix = this.getMatrix();
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param graph     a fast graph representing the social network.
+     * @param phi       the decay factor for the similarity.
+     * @param orient    the orientation for selecting the adjacency matrix.
+     * @param library   the matrix library to use.
+     */
+    public GlobalLHNIndex(FastGraph<U> graph, double phi, EdgeOrientation orient, MatrixLibrary library)
+    {
+        super(graph, library);
+        this.phi = phi;
         this.orient = orient;
+        this.adj = library == MatrixLibrary.SPARSE ? CSRMatrix.adjacency(graph, orient) : null;
+        this.degrees = adj != null ? adj.rowSums() : null;
+        this.lambda = adj != null ? IterativeSolvers.largestEigenvalue(adj, SPARSE_TOLERANCE, SPARSE_MAX_ITER) : 0.0;
+        this.matrix = this.getMatrix();
+    }
+
+    /**
+     * Obtains the scores for a target user. The row of the target user in (I - phi/lambda*A)^-1 is computed
+     * by truncating the series of its powers, and then normalized by the degrees of the users.
+     *
+     * @param uidx the target user.
+     *
+     * @return the scores of the candidate users.
+     */
+    @Override
+    protected double[] getSparseScores(int uidx)
+    {
+        double[] scores = IterativeSolvers.neumannRow(adj, uidx, phi / lambda, SPARSE_TOLERANCE, SPARSE_MAX_ITER);
+        double factor = adj.sum() * lambda / degrees[uidx];
+        for (int vidx = 0; vidx < scores.length; ++vidx)
+        {
+            scores[vidx] *= factor / degrees[vidx];
+        }
+        return scores;
     }
 
     @Override
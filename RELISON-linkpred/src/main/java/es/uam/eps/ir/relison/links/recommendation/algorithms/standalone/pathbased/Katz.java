@@ -15,6 +15,9 @@ import cern.colt.matrix.linalg.LUDecompositionQuick;
 import es.uam.eps.ir.relison.graph.edges.EdgeOrientation;
 import es.uam.eps.ir.relison.graph.fast.FastGraph;
 import es.uam.eps.ir.relison.links.recommendation.algorithms.GlobalMatrixBasedRecommender;
+import es.uam.eps.ir.relison.utils.matrix.CSRMatrix;
+import es.uam.eps.ir.relison.utils.matrix.IterativeSolvers;
+import es.uam.eps.ir.relison.utils.matrix.MatrixLibrary;
 import no.uib.cipr.matrix.DenseMatrix;
 import no.uib.cipr.matrix.Matrices;
 import no.uib.cipr.matrix.Matrix;
@@ -50,6 +53,11 @@ public class Katz<U> extends GlobalMatrixBasedRecommender<U>
      */
     private final EdgeOrientation orient;
 
+    /**
+     * Sparse adjacency matrix (only when the sparse library is used).
+     */
+    private final CSRMatrix adj;
+
     /**
      * Constructor. Uses, by default, the classical orientation (OUT).
      *
@@ -58,10 +66,7 @@ public class Katz<U> extends GlobalMatrixBasedRecommender<U>
      */
     public Katz(FastGraph<U> graph, double b)
     {
-        super(graph);
-        this.b = b;
-        this.matrix = this.getMatrix();
-        this.orient = EdgeOrientation.OUT;
+        this(graph, b, EdgeOrientation.OUT);
     }
 
     /**
@@ -75,8 +80,40 @@ public class Katz<U> extends GlobalMatrixBasedRecommender<U>
     {
         super(graph);
         this.b = b;
+        this.orient = orient;
+        this.adj = null;
         this.matrix = this.getMatrix();
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param graph     a fast graph representing the social network.
+     * @param b         the dampening factor.
+     * @param orient    the orientation for the adjacency matrix.
+     * @param library   the matrix library to use.
+     */
+    public Katz(FastGraph<U> graph, double b, EdgeOrientation orient, MatrixLibrary library)
+    {
+        super(graph, library);
+        this.b = b;
         this.orient = orient;
+        this.adj = library == MatrixLibrary.SPARSE ? CSRMatrix.adjacency(graph, orient) : null;
+        this.matrix = this.getMatrix();
+    }
+
+    /**
+     * Obtains the scores for a target user, as the row of the target user in (I - bA)^-1. It is computed
+     * by truncating the series of the powers of bA.
+     *
+     * @param uidx the target user.
+     *
+     * @return the scores of the candidate users.
+     */
+    @Override
+    protected double[] getSparseScores(int uidx)
+    {
+        return IterativeSolvers.neumannRow(adj, uidx, b, SPARSE_TOLERANCE, SPARSE_MAX_ITER);
     }
 
     /**
@@ -15,6 +15,8 @@ import cern.colt.matrix.linalg.Algebra;
 import es.uam.eps.ir.relison.graph.edges.EdgeOrientation;
 import es.uam.eps.ir.relison.graph.fast.FastGraph;
 import es.uam.eps.ir.relison.links.recommendation.algorithms.GlobalMatrixBasedRecommender;
+import es.uam.eps.ir.relison.utils.matrix.CSRMatrix;
+import es.uam.eps.ir.relison.utils.matrix.MatrixLibrary;
 import no.uib.cipr.matrix.DenseMatrix;
 import no.uib.cipr.matrix.Matrix;
 import no.uib.cipr.matrix.sparse.LinkedSparseMatrix;
@@ -51,6 +53,11 @@ public class LocalPathIndex<U> extends GlobalMatrixBasedRecommender<U>
      */
     private final EdgeOrientation orient;
 
+    /**
+     * Sparse adjacency matrix (only when the sparse library is used).
+     */
+    private final CSRMatrix adj;
+
     /**
      * Constructor. Takes the outgoing orientation by default.
      *
@@ -59,11 +66,25 @@ public class LocalPathIndex<U> extends GlobalMatrixBasedRecommender<U>
      * @param k     the maximum distance between the target and candidate users (k greater or equal than 2)
      */
     public LocalPathIndex(FastGraph<U> graph, double beta, int k)
+    {
+        this(graph, beta, k, EdgeOrientation.OUT);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param graph     a fast graph representing the social network.
+     * @param beta      the dampening factor.
+     * @param k         the maximum distance between the target and candidate users (k greater or equal than 2)
+     * @param orient    the orientation for selecting the adjacency matrix.
+     */
+    public LocalPathIndex(FastGraph<U> graph, double beta, int k, EdgeOrientation orient)
     {
         super(graph);
         this.beta = beta;
         this.k = k;
-        this.orient = EdgeOrientation.OUT;
+        this.orient = orient;
+        this.adj = null;
         this.matrix = getMatrix();
     }
 
@@ -74,16 +95,52 @@ public class LocalPathIndex<U> extends GlobalMatrixBasedRecommender<U>
      * @param beta      the dampening factor.
      * @param k         the maximum distance between the target and candidate users (k greater or equal than 2)
      * @param orient    the orientation for selecting the adjacency matrix.
+     * @param library   the matrix library to use.
      */
-    public LocalPathIndex(FastGraph<U> graph, double beta, int k, EdgeOrientation orient)
+    public LocalPathIndex(FastGraph<U> graph, double beta, int k, EdgeOrientation orient, MatrixLibrary library)
     {
-        super(graph);
+        super(graph, library);
         this.beta = beta;
         this.k = k;
         this.orient = orient;
+        this.adj = library == MatrixLibrary.SPARSE ? CSRMatrix.adjacency(graph, orient) : null;
         this.matrix = getMatrix();
     }
 
+    /**
+     * Obtains the scores for a target user, by propagating its row of the adjacency matrix through the
+     * paths of length 2 to k.
+     *
+     * @param uidx the target user.
+     *
+     * @return the scores of the candidate users.
+     */
+    @Override
+    protected double[] getSparseScores(int uidx)
+    {
+        int n = adj.numRows();
+        double[] scores = new double[n];
+        double[] paths = new double[n];
+        double[] next = new double[n];
+        paths[uidx] = 1.0;
+        adj.multiplyTranspose(paths, next);
+
+        double auxBeta = 1.0;
+        for (int i = 2; i <= k; ++i)
+        {
+            double[] aux = paths;
+            paths = next;
+            next = aux;
+            adj.multiplyTranspose(paths, next);
+            for (int vidx = 0; vidx < n; ++vidx)
+            {
+                scores[vidx] += auxBeta * next[vidx];
+            }
+            auxBeta *= beta;
+        }
+        return scores;
+    }
+
     @Override
     protected double[][] getJBLASMatrix()
     {
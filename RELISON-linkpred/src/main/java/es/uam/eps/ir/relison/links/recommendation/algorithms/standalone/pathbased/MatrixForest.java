@@ -18,6 +18,9 @@ import cern.colt.matrix.linalg.LUDecompositionQuick;
 import es.uam.eps.ir.relison.graph.edges.EdgeOrientation;
 import es.uam.eps.ir.relison.graph.fast.FastGraph;
 import es.uam.eps.ir.relison.links.recommendation.algorithms.GlobalMatrixBasedRecommender;
+import es.uam.eps.ir.relison.utils.matrix.CSRMatrix;
+import es.uam.eps.ir.relison.utils.matrix.IterativeSolvers;
+import es.uam.eps.ir.relison.utils.matrix.MatrixLibrary;
 import no.uib.cipr.matrix.DenseMatrix;
 import no.uib.cipr.matrix.Matrices;
 import no.uib.cipr.matrix.Matrix;
@@ -54,6 +57,15 @@ public class MatrixForest<U> extends GlobalMatrixBasedRecommender<U>
      */
     private final EdgeOrientation orient;
 
+    /**
+     * Sparse adjacency matrix (only when the sparse library is used).
+     */
+    private final CSRMatrix adj;
+    /**
+     * Degrees of the nodes (only when the sparse library is used).
+     */
+    private final double[] degrees;
+
     /**
      * Constructor. By default, considers the network as undirected.
      *
@@ -62,10 +74,7 @@ public class MatrixForest<U> extends GlobalMatrixBasedRecommender<U>
      */
     public MatrixForest(FastGraph<U> graph, double alpha)
     {
-        super(graph);
-        this.alpha = alpha;
-        this.orient = EdgeOrientation.UND;
-        this.matrix = this.getMatrix();
+        this(graph, alpha, EdgeOrientation.UND);
     }
 
 
@@ -81,9 +90,67 @@ public class MatrixForest<U> extends GlobalMatrixBasedRecommender<U>
         super(graph);
         this.alpha = alpha;
         this.orient = orient;
+        this.adj = null;
+        this.degrees = null;
         this.matrix = this.getMatrix();
     }
 
+    /**
+     * Constructor.
+     *
+     * @param graph     A fast graph representing the social network.
+     * @param alpha     parameter controlling the importance of the Laplacian matrix (greater than 0)
+     * @param orient    orientation selection for the adjacency and Laplacian matrices.
+     * @param library   the matrix library to use.
+     */
+    public MatrixForest(FastGraph<U> graph, double alpha, EdgeOrientation orient, MatrixLibrary library)
+    {
+        super(graph, library);
+        this.alpha = alpha;
+        this.orient = orient;
+        this.adj = library == MatrixLibrary.SPARSE ? CSRMatrix.adjacency(graph, orient) : null;
+        this.degrees = adj != null ? adj.rowSums() : null;
+        this.matrix = this.getMatrix();
+    }
+
+    /**
+     * Obtains the scores for a target user, as the row of the target user in (I + alpha*L)^-1. The row is
+     * found by solving the transposed linear system, with the conjugate gradient method when the Laplacian
+     * matrix is symmetric, and with BiCGSTAB otherwise.
+     *
+     * @param uidx the target user.
+     *
+     * @return the scores of the candidate users.
+     */
+    @Override
+    protected double[] getSparseScores(int uidx)
+    {
+        int n = adj.numRows();
+        double[] b = new double[n];
+        b[uidx] = 1.0;
+        double[] x = new double[n];
+
+        IterativeSolvers.LinearOperator op = (v, y) ->
+        {
+            // (I + alpha*(D - A))^T v
+            adj.multiplyTranspose(v, y);
+            for (int i = 0; i < n; ++i)
+            {
+                y[i] = v[i] + alpha * (degrees[i] * v[i] - y[i]);
+            }
+        };
+
+        if (!graph.isDirected() || orient == EdgeOrientation.UND || orient == EdgeOrientation.MUTUAL)
+        {
+            IterativeSolvers.conjugateGradient(op, b, x, SPARSE_TOLERANCE, SPARSE_MAX_ITER);
+        }
+        else
+        {
+            IterativeSolvers.biCGStab(op, b, x, SPARSE_TOLERANCE, SPARSE_MAX_ITER);
+        }
+        return x;
+    }
+
     @Override
     protected double[][] getJBLASMatrix()
     {
@@ -18,12 +18,17 @@ import cern.colt.matrix.linalg.LUDecompositionQuick;
 import es.uam.eps.ir.relison.graph.edges.EdgeOrientation;
 import es.uam.eps.ir.relison.graph.fast.FastGraph;
 import es.uam.eps.ir.relison.links.recommendation.algorithms.GlobalMatrixBasedRecommender;
+import es.uam.eps.ir.relison.utils.matrix.CSRMatrix;
+import es.uam.eps.ir.relison.utils.matrix.IterativeSolvers;
+import es.uam.eps.ir.relison.utils.matrix.MatrixLibrary;
 import no.uib.cipr.matrix.DenseMatrix;
 import no.uib.cipr.matrix.Matrices;
 import no.uib.cipr.matrix.Matrix;
 import org.jblas.DoubleMatrix;
 import org.jblas.Solve;
 
+import java.util.stream.IntStream;
+
 /**
  * Implementation of the pseudo inverse cosine algorithm for contact recommendation. This algorithm first computes the
  * pseudo inverse of the Laplacian matrix (obtaining, for each user, a vector representation).
@@ -49,6 +54,19 @@ public class PseudoInverseCosine<U> extends GlobalMatrixBasedRecommender<U>
      */
     private final EdgeOrientation orient;
 
+    /**
+     * Sparse adjacency matrix (only when the sparse library is used).
+     */
+    private final CSRMatrix adj;
+    /**
+     * Degrees of the nodes (only when the sparse library is used).
+     */
+    private final double[] degrees;
+    /**
+     * Diagonal of the pseudo-inverse of the Laplacian matrix (only when the sparse library is used).
+     */
+    private double[] diagonal;
+
     /**
      * Constructor. By default, considers network as undirected.
      *
@@ -56,9 +74,7 @@ public class PseudoInverseCosine<U> extends GlobalMatrixBasedRecommender<U>
      */
     public PseudoInverseCosine(FastGraph<U> graph)
     {
-        super(graph);
-        this.orient = EdgeOrientation.UND;
-        this.matrix = this.getMatrix();
+        this(graph, EdgeOrientation.UND);
     }
 
     /**
@@ -71,9 +87,112 @@ public class PseudoInverseCosine<U> extends GlobalMatrixBasedRecommender<U>
     {
         super(graph);
         this.orient = orient;
+        this.adj = null;
+        this.degrees = null;
         this.matrix = this.getMatrix();
     }
 
+    /**
+     * Constructor.
+     *
+     * @param graph   a fast graph representing the social network.
+     * @param orient  the orientation selection for the adjacency and Laplacian matrices.
+     * @param library the matrix library to use.
+     */
+    public PseudoInverseCosine(FastGraph<U> graph, EdgeOrientation orient, MatrixLibrary library)
+    {
+        super(graph, library);
+        this.orient = orient;
+        this.adj = library == MatrixLibrary.SPARSE ? CSRMatrix.adjacency(graph, orient) : null;
+        this.degrees = adj != null ? adj.rowSums() : null;
+        this.matrix = this.getMatrix();
+    }
+
+    /**
+     * Obtains the scores for a target user, as the cosine similarity between the target user and the
+     * candidates in the pseudo-inverse of the Laplacian matrix. The normalization needs the whole diagonal
+     * of the pseudo-inverse, which is computed (in parallel) the first time it is needed.
+     *
+     * @param uidx the target user.
+     *
+     * @return the scores of the candidate users.
+     */
+    @Override
+    protected double[] getSparseScores(int uidx)
+    {
+        double[] diag = this.getDiagonal();
+        double[] row = this.getPseudoInverseRow(uidx);
+        for (int vidx = 0; vidx < row.length; ++vidx)
+        {
+            row[vidx] /= Math.sqrt(diag[uidx] * diag[vidx]);
+        }
+        return row;
+    }
+
+    /**
+     * Obtains the diagonal of the pseudo-inverse of the Laplacian matrix.
+     *
+     * @return the diagonal.
+     */
+    private synchronized double[] getDiagonal()
+    {
+        if (diagonal == null)
+        {
+            diagonal = IntStream.range(0, adj.numRows()).parallel().mapToDouble(vidx -> this.getPseudoInverseRow(vidx)[vidx]).toArray();
+        }
+        return diagonal;
+    }
+
+    /**
+     * Obtains a row of the pseudo-inverse of the Laplacian matrix L, which is equal to (L - J/n)^-1 + J/n
+     * (where J is the matrix of ones). When L is symmetric, it is also equal to (L + J/n)^-1 - J/n, whose
+     * inverse matrix is positive definite, so it is found with the conjugate gradient method. Otherwise,
+     * BiCGSTAB is used.
+     *
+     * @param uidx the row.
+     *
+     * @return the row of the pseudo-inverse.
+     */
+    private double[] getPseudoInverseRow(int uidx)
+    {
+        int n = adj.numRows();
+        double[] b = new double[n];
+        b[uidx] = 1.0;
+        double[] x = new double[n];
+
+        boolean symmetric = !graph.isDirected() || orient == EdgeOrientation.UND || orient == EdgeOrientation.MUTUAL;
+        double sign = symmetric ? 1.0 : -1.0;
+        IterativeSolvers.LinearOperator op = (v, y) ->
+        {
+            // (L + sign*J/n)^T v
+            adj.multiplyTranspose(v, y);
+            double sum = 0.0;
+            for (int i = 0; i < n; ++i)
+            {
+                sum += v[i];
+            }
+            for (int i = 0; i < n; ++i)
+            {
+                y[i] = degrees[i] * v[i] - y[i] + sign * sum / n;
+            }
+        };
+
+        if (symmetric)
+        {
+            IterativeSolvers.conjugateGradient(op, b, x, SPARSE_TOLERANCE, SPARSE_MAX_ITER);
+        }
+        else
+        {
+            IterativeSolvers.biCGStab(op, b, x, SPARSE_TOLERANCE, SPARSE_MAX_ITER);
+        }
+
+        for (int i = 0; i < n; ++i)
+        {
+            x[i] -= sign / n;
+        }
+        return x;
+    }
+
     @Override
     protected double[][] getJBLASMatrix()
     {
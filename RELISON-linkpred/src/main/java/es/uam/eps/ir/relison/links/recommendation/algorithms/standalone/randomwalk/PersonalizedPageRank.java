@@ -10,16 +10,19 @@ package es.uam.eps.ir.relison.links.recommendation.algorithms.standalone.randomw
 
 import es.uam.eps.ir.relison.graph.fast.FastGraph;
 import es.uam.eps.ir.relison.links.recommendation.UserFastRankingRecommender;
-import es.uam.eps.ir.relison.sna.metrics.vertex.PageRank;
+import es.uam.eps.ir.relison.sna.metrics.vertex.ForwardPushPageRank;
 import it.unimi.dsi.fastutil.ints.Int2DoubleMap;
-import it.unimi.dsi.fastutil.ints.Int2DoubleOpenHashMap;
-
-import java.util.Map;
 
 /**
- * Recommends an user by her personalized PageRank score.
+ * Recommends an user by her personalized PageRank score. The scores are approximated by pushing
+ * the probability mass from the target user to its vicinity, so only the surroundings of the target
+ * user are explored. When the random walker reaches a sink, it restarts from the target user.
  *
- * <p><b>Reference: </b> S. White, P. Smyth. Algorithms for Estimating Relative Importance in Networks. 9th Annual ACM SIGKDD International Conference on Knowledge Discovery and Data Mining (KDD 2003)</p>
+ * <p><b>References: </b></p>
+ * <ol>
+ *     <li>S. White, P. Smyth. Algorithms for Estimating Relative Importance in Networks. 9th Annual ACM SIGKDD International Conference on Knowledge Discovery and Data Mining (KDD 2003)</li>
+ *     <li>R. Andersen, F. Chung, K. Lang. Local graph partitioning using PageRank vectors. 47th Annual IEEE Symposium on Foundations of Computer Science (FOCS 2006)</li>
+ * </ol>
  *
  * @author Javier Sanz-Cruzado (javier.sanz-cruzado@uam.es)
  * @author Pablo Castells (pablo.castells@uam.es)
@@ -28,31 +31,41 @@ import java.util.Map;
  */
 public class PersonalizedPageRank<U> extends UserFastRankingRecommender<U>
 {
+    /**
+     * Default maximum residual per out-edge of the approximation.
+     */
+    public static final double DEFAULT_EPSILON = 1E-6;
 
     /**
-     * Teleport rate.
+     * Algorithm for computing the personalized PageRank values.
      */
-    private final double r;
-    
+    private final ForwardPushPageRank<U> pageRank;
+
     /**
      * Constructor.
      * @param graph     the training graph.
      * @param r         teleport rate.
      */
     public PersonalizedPageRank(FastGraph<U> graph, double r)
+    {
+        this(graph, r, DEFAULT_EPSILON);
+    }
+
+    /**
+     * Constructor.
+     * @param graph     the training graph.
+     * @param r         teleport rate.
+     * @param epsilon   maximum residual per out-edge of the approximation (the smaller, the more accurate).
+     */
+    public PersonalizedPageRank(FastGraph<U> graph, double r, double epsilon)
     {
         super(graph);
-        this.r = r;
+        this.pageRank = new ForwardPushPageRank<>(graph, r, epsilon);
     }
 
     @Override
     public Int2DoubleMap getScoresMap(int i)
     {
-        U u = this.uIndex.uidx2user(i);
-        Int2DoubleMap scores = new Int2DoubleOpenHashMap();
-        PageRank<U> pageRank = new PageRank<>(this.r, u);
-        Map<U, Double> pageRanks = pageRank.compute(this.getGraph());
-        pageRanks.forEach((key, value) -> scores.put(uIndex.user2uidx(key), value.doubleValue()));
-        return scores;
-    }    
+        return this.pageRank.compute(i);
+    }
 }
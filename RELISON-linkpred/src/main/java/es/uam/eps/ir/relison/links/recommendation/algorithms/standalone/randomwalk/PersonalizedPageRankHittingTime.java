@@ -16,17 +16,33 @@ import cern.colt.matrix.impl.SparseDoubleMatrix2D;
 import cern.colt.matrix.linalg.Algebra;
 import es.uam.eps.ir.relison.graph.edges.EdgeOrientation;
 import es.uam.eps.ir.relison.graph.fast.FastGraph;
+import es.uam.eps.ir.relison.sna.metrics.vertex.ForwardPushPageRank;
+import es.uam.eps.ir.relison.utils.functions.IntDoubleConsumer;
 import es.uam.eps.ir.relison.utils.matrix.MatrixLibrary;
+import it.unimi.dsi.fastutil.ints.Int2DoubleMap;
+import it.unimi.dsi.fastutil.ints.Int2DoubleOpenHashMap;
 import no.uib.cipr.matrix.DenseMatrix;
 import no.uib.cipr.matrix.DenseVector;
 import no.uib.cipr.matrix.Matrix;
 import no.uib.cipr.matrix.Vector;
 import org.jblas.DoubleMatrix;
 
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
 /**
  * Implementation of the Hitting time (using the personalized
  * PageRank transition matrix)
  *
+ * <p>
+ * With the sparse library, no matrix is built. The random walk restarts from the target user u
+ * every time it teleports (or reaches a sink), so the hitting time of a candidate v is
+ * l(u)/q(v) - l(v), where l(w) is the expected number of steps before the first restart of a walk
+ * starting at w, and q(v) = p_u(v)/p_v(v) is the probability of reaching v before restarting, with p_w
+ * the personalized PageRank of w (without restarts on sinks). These values are approximated by pushing
+ * the probability mass from the target user to its vicinity, and only the reached candidates are scored.
+ * </p>
+ *
  * @param <U> type of the users.
  *
  * @author Javier Sanz-Cruzado (javier.sanz-cruzado@uam.es)
@@ -38,6 +54,19 @@ public class PersonalizedPageRankHittingTime<U> extends AbstractHittingTime<U>
      * Teleport probability.
      */
     private final double r;
+    /**
+     * Algorithm for computing the personalized PageRank values (only when the sparse library is used).
+     */
+    private final ForwardPushPageRank<U> pageRank;
+    /**
+     * Personalized PageRank value of each user for itself (only when the sparse library is used).
+     */
+    private double[] selfValues;
+    /**
+     * Expected number of steps of a walk starting at each user before teleporting (only when the sparse
+     * library is used).
+     */
+    private double[] lengths;
 
     /**
      * Constructor.
@@ -49,6 +78,7 @@ public class PersonalizedPageRankHittingTime<U> extends AbstractHittingTime<U>
     {
         super(graph);
         this.r = r;
+        this.pageRank = null;
     }
 
     /**
@@ -59,9 +89,107 @@ public class PersonalizedPageRankHittingTime<U> extends AbstractHittingTime<U>
      * @param r         teleport probability.
      */
     public PersonalizedPageRankHittingTime(FastGraph<U> graph, MatrixLibrary library, double r)
+    {
+        this(graph, library, r, PersonalizedPageRank.DEFAULT_EPSILON);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param graph     a fast graph representing the social network.
+     * @param library   the matrix library to use.
+     * @param r         teleport probability.
+     * @param epsilon   maximum residual per out-edge of the personalized PageRank approximation (only used
+     *                  with the sparse library).
+     */
+    public PersonalizedPageRankHittingTime(FastGraph<U> graph, MatrixLibrary library, double r, double epsilon)
     {
         super(graph, library);
         this.r = r;
+        this.pageRank = library == MatrixLibrary.SPARSE ? new ForwardPushPageRank<>(graph, r, epsilon, 1.0, false) : null;
+    }
+
+    @Override
+    public Int2DoubleMap getScoresMap(int uidx)
+    {
+        if (library != MatrixLibrary.SPARSE)
+        {
+            return super.getScoresMap(uidx);
+        }
+
+        Int2DoubleMap scoresMap = new Int2DoubleOpenHashMap();
+        this.computeHittingTimes(uidx, scoresMap::put);
+        return scoresMap;
+    }
+
+    /**
+     * Obtains the hitting times from the target user to the candidate users. Unreached users have an infinite hitting time.
+     *
+     * @param uidx the target user.
+     *
+     * @return an array containing the hitting times.
+     */
+    @Override
+    protected double[] getSparseScores(int uidx)
+    {
+        double[] scores = new double[numUsers()];
+        Arrays.fill(scores, Double.POSITIVE_INFINITY);
+        this.computeHittingTimes(uidx, (vidx, value) -> scores[vidx] = value);
+        return scores;
+    }
+
+    /**
+     * Computes the hitting times from the target user to the users reached by the random walk.
+     *
+     * @param uidx     the target user.
+     * @param consumer receives each reached user along with its hitting time.
+     */
+    private void computeHittingTimes(int uidx, IntDoubleConsumer consumer)
+    {
+        double[] self = this.getSelfValues();
+        double[] length = this.getLengths();
+        this.pageRank.compute(uidx, (vidx, value) ->
+        {
+            if (vidx == uidx)
+            {
+                // Expected return time: the length of the walk divided by the expected number of visits.
+                consumer.accept(vidx, length[uidx] * r / value);
+            }
+            else
+            {
+                consumer.accept(vidx, length[uidx] * self[vidx] / value - length[vidx]);
+            }
+        });
+    }
+
+    /**
+     * Obtains the personalized PageRank value of every user for itself. They are computed (in parallel)
+     * the first time they are needed.
+     *
+     * @return the values.
+     */
+    private synchronized double[] getSelfValues()
+    {
+        if (selfValues == null)
+        {
+            selfValues = IntStream.range(0, this.numUsers()).parallel().mapToDouble(pageRank::computeSelf).toArray();
+        }
+        return selfValues;
+    }
+
+    /**
+     * Obtains the expected number of steps of a walk starting at every user before teleporting (or reaching
+     * a sink). They are computed the first time they are needed.
+     *
+     * @return the lengths.
+     */
+    private synchronized double[] getLengths()
+    {
+        if (lengths == null)
+        {
+            lengths = pageRank.walkLengths(1E-10, 10000);
+        }
+        return lengths;
     }
 
     @Override
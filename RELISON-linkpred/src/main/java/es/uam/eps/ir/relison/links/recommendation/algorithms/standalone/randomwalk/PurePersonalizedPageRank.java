@@ -10,6 +10,7 @@ package es.uam.eps.ir.relison.links.recommendation.algorithms.standalone.randomw
 
 import es.uam.eps.ir.relison.graph.fast.FastGraph;
 import es.uam.eps.ir.relison.links.recommendation.UserFastRankingRecommender;
+import es.uam.eps.ir.relison.sna.metrics.vertex.ForwardPushPageRank;
 import it.unimi.dsi.fastutil.ints.Int2DoubleMap;
 import it.unimi.dsi.fastutil.ints.Int2DoubleOpenHashMap;
 
@@ -20,7 +21,10 @@ import java.util.Set;
 import java.util.stream.Collectors;
 
 /**
- * Recommender algorithm based in a modified Personalized PageRank.
+ * Recommender algorithm based in a modified Personalized PageRank. When teleports
+ * always go to the origin node, the scores are approximated by pushing the probability
+ * mass from the target user to its vicinity, so only the surroundings of the target user
+ * are explored.
  *
  * @param <U> type of the users.
  *
@@ -54,6 +58,10 @@ public class PurePersonalizedPageRank<U> extends UserFastRankingRecommender<U>
      * Maximum number of iterations.
      */
     private final static int MAXITER = 50;
+    /**
+     * Algorithm for computing the scores when teleports always go to the origin node (null otherwise).
+     */
+    private final ForwardPushPageRank<U> pageRank;
 
     /**
      * Constructor
@@ -63,16 +71,36 @@ public class PurePersonalizedPageRank<U> extends UserFastRankingRecommender<U>
      * @param S2U       Indicates if teleports always go to the origin node.
      */
     public PurePersonalizedPageRank(FastGraph<U> graph, double lambda, boolean simple, boolean S2U) {
+        this(graph, lambda, simple, S2U, PersonalizedPageRank.DEFAULT_EPSILON);
+    }
+
+    /**
+     * Constructor
+     * @param graph     the original graph.
+     * @param lambda    the teleport rate.
+     * @param simple    indicates if the target node can only be accessed via teleport or not.
+     * @param S2U       Indicates if teleports always go to the origin node.
+     * @param epsilon   maximum residual per out-edge of the approximation (only used if teleports always go
+     *                  to the origin node).
+     */
+    public PurePersonalizedPageRank(FastGraph<U> graph, double lambda, boolean simple, boolean S2U, double epsilon) {
         super(graph);
         this.lambda = lambda;
         this.simple = simple;
         this.S2U = S2U;
+        // Edges pointing to the origin node are ignored in the simple version, and have weight lambda otherwise.
+        this.pageRank = S2U ? new ForwardPushPageRank<>(graph, lambda, epsilon, simple ? 0.0 : lambda, true) : null;
     }
     
     
     @Override
     public Int2DoubleMap getScoresMap(int i) 
     {
+        if (S2U)
+        {
+            return this.pageRank.compute(i);
+        }
+
         U u = this.uIndex.uidx2user(i);
         Int2DoubleMap scores = new Int2DoubleOpenHashMap();
         Map<U, Double> pageRanks = calculatePagerank(u);
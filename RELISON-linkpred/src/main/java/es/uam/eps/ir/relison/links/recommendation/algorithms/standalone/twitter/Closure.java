@@ -9,9 +9,8 @@
 package es.uam.eps.ir.relison.links.recommendation.algorithms.standalone.twitter;
 
 import es.uam.eps.ir.relison.graph.fast.FastGraph;
-import es.uam.eps.ir.relison.links.recommendation.UserFastRankingRecommender;
-import it.unimi.dsi.fastutil.ints.Int2DoubleMap;
-import it.unimi.dsi.fastutil.ints.Int2DoubleOpenHashMap;
+import es.uam.eps.ir.relison.links.recommendation.ScoreAccumulator;
+import es.uam.eps.ir.relison.links.recommendation.UserFastAccumulatorRecommender;
 
 import java.util.HashSet;
 import java.util.Set;
@@ -28,7 +27,7 @@ import java.util.stream.Collectors;
  * @author Javier Sanz-Cruzado (javier.sanz-cruzado@uam.es)
  * @author Pablo Castells (pablo.castells@uam.es)
  */
-public class Closure<U> extends UserFastRankingRecommender<U>
+public class Closure<U> extends UserFastAccumulatorRecommender<U>
 {
     
     /**
@@ -42,10 +41,8 @@ public class Closure<U> extends UserFastRankingRecommender<U>
     }
 
     @Override
-    public Int2DoubleMap getScoresMap(int uidx) 
+    protected void fillScores(int uidx, ScoreAccumulator scores)
     {
-        Int2DoubleMap scoresMap = new Int2DoubleOpenHashMap();
-        
         U u = this.uidx2user(uidx);
         Set<U> uWs = this.getGraph().getAdjacentNodes(u).collect(Collectors.toCollection(HashSet::new));
         this.uIndex.getAllUidx().forEach(iidx -> 
@@ -57,19 +54,17 @@ public class Closure<U> extends UserFastRankingRecommender<U>
                 if(!uWs.isEmpty() && !vWs.isEmpty())
                 {
                     vWs.retainAll(uWs);
-                    scoresMap.put(iidx, vWs.size() + 0.0);
+                    scores.set(iidx, vWs.size() + 0.0);
                 }
                 else
                 {
-                    scoresMap.put(iidx, 0.0);
+                    scores.set(iidx, 0.0);
                 }
             }
             else
             {
-                scoresMap.put(iidx, 0.0);
+                scores.set(iidx, 0.0);
             }
         });
-
-        return scoresMap;
     }
 }
@@ -12,11 +12,12 @@ import es.uam.eps.ir.relison.graph.Graph;
 import es.uam.eps.ir.relison.graph.fast.FastGraph;
 import es.uam.eps.ir.relison.graph.generator.EmptyGraphGenerator;
 import es.uam.eps.ir.relison.graph.generator.exception.GeneratorNotConfiguredException;
+import es.uam.eps.ir.relison.links.recommendation.ScoreAccumulator;
+import es.uam.eps.ir.relison.links.recommendation.UserFastAccumulatorRecommender;
 import es.uam.eps.ir.relison.links.recommendation.UserFastRankingRecommender;
 import es.uam.eps.ir.relison.links.recommendation.algorithms.RecommenderSupplier;
 import es.uam.eps.ir.relison.sna.metrics.vertex.PageRank;
 import it.unimi.dsi.fastutil.ints.Int2DoubleMap;
-import it.unimi.dsi.fastutil.ints.Int2DoubleOpenHashMap;
 import org.ranksys.core.util.tuples.Tuple2od;
 
 import java.util.*;
@@ -40,7 +41,7 @@ import java.util.stream.Collectors;
  *
  * @param <U> type of the users.
  */
-public abstract class TwitterRecommender<U> extends UserFastRankingRecommender<U>
+public abstract class TwitterRecommender<U> extends UserFastAccumulatorRecommender<U>
 {
     /**
      * Size of the circle of trust
@@ -168,28 +169,25 @@ public abstract class TwitterRecommender<U> extends UserFastRankingRecommender<U
     }
 
     @Override
-    public Int2DoubleMap getScoresMap(int uIdx)
+    protected void fillScores(int uIdx, ScoreAccumulator scores)
     {
-        Int2DoubleMap output = new Int2DoubleOpenHashMap();
         U u = uIndex.uidx2user(uIdx);
 
         FastGraph<U> graph = this.circles.get(u);
         UserFastRankingRecommender<U> rec = supplier.get(graph);
-        Int2DoubleMap scores = rec.getScoresMap(rec.user2uidx(u));
+        Int2DoubleMap recScores = rec.getScoresMap(rec.user2uidx(u));
 
         iIndex.getAllIidx().forEach(iIdx ->
         {
-            if(scores.containsKey(iIdx))
+            if(recScores.containsKey(iIdx))
             {
-                output.put(iIdx, scores.get(iIdx));
+                scores.set(iIdx, recScores.get(iIdx));
             }
             else
             {
-                output.put(iIdx, 0.0);
+                scores.set(iIdx, 0.0);
             }
         });
-
-        return output;
     }
     
     
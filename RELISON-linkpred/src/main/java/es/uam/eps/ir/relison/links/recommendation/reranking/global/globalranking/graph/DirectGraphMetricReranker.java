@@ -8,7 +8,6 @@
  */
 package es.uam.eps.ir.relison.links.recommendation.reranking.global.globalranking.graph;
 
-import com.rits.cloning.Cloner;
 import es.uam.eps.ir.relison.graph.Graph;
 import es.uam.eps.ir.relison.links.recommendation.reranking.normalizer.Normalizer;
 import es.uam.eps.ir.relison.sna.metrics.GraphMetric;
@@ -42,12 +41,7 @@ public class DirectGraphMetricReranker<U> extends GraphMetricReranker<U>
     @Override
     protected double nov(U user, Tuple2od<U> iv)
     {
-        U item = iv.v1;
-            
-        Cloner cloner = new Cloner();
-        Graph<U> cloneGraph = cloner.deepClone(this.graph);
-        cloneGraph.addEdge(user, item);
-        return metric.compute(cloneGraph);
+        return this.value(user, iv.v1);
     }    
     
 }
@@ -8,10 +8,12 @@
  */
 package es.uam.eps.ir.relison.links.recommendation.reranking.global.globalranking.graph;
 
+import com.rits.cloning.Cloner;
 import es.uam.eps.ir.relison.graph.Graph;
 import es.uam.eps.ir.relison.links.recommendation.reranking.global.globalranking.GlobalRankingLambdaReranker;
 import es.uam.eps.ir.relison.links.recommendation.reranking.normalizer.Normalizer;
 import es.uam.eps.ir.relison.sna.metrics.GraphMetric;
+import es.uam.eps.ir.relison.sna.metrics.IncrementalGraphMetric;
 import org.ranksys.core.util.tuples.Tuple2od;
 
 import java.util.function.Supplier;
@@ -20,6 +22,10 @@ import java.util.function.Supplier;
  * Global reranker strategy that reorders the candidate users according to
  * a graph metric.
  *
+ * <p>If the metric is an {@link IncrementalGraphMetric}, its value is maintained as edges are added, and
+ * the value after adding each candidate edge is found by visiting only the surroundings of the edge. Otherwise,
+ * the metric is computed from scratch over a copy of the graph.</p>
+ *
  * @param <U> type of the users.
  *
  * @author Javier Sanz-Cruzado (javier.sanz-cruzado@uam.es)
@@ -36,6 +42,10 @@ public abstract class GraphMetricReranker<U> extends GlobalRankingLambdaReranker
      * The selected metric
      */
     protected final GraphMetric<U> metric;
+    /**
+     * The structure maintaining the value of the metric (null if the metric cannot be incrementally maintained).
+     */
+    protected final IncrementalGraphMetric.State<U> state;
 
     /**
      * Constructor.
@@ -50,6 +60,26 @@ public abstract class GraphMetricReranker<U> extends GlobalRankingLambdaReranker
         super(lambda, cutoff, norm);
         this.graph = graph;
         this.metric = metric;
+        this.state = metric instanceof IncrementalGraphMetric ? ((IncrementalGraphMetric<U>) metric).initialize(graph) : null;
+    }
+
+    /**
+     * Obtains the value of the metric if an edge is added to the graph.
+     * @param user  the origin of the edge.
+     * @param item  the destination of the edge.
+     * @return the value of the metric.
+     */
+    protected double value(U user, U item)
+    {
+        if(this.state != null)
+        {
+            return this.state.getValue() + this.state.addEdgeDelta(user, item);
+        }
+
+        Cloner cloner = new Cloner();
+        Graph<U> cloneGraph = cloner.deepClone(this.graph);
+        cloneGraph.addEdge(user, item);
+        return metric.compute(cloneGraph);
     }
 
     @Override
@@ -57,5 +87,9 @@ public abstract class GraphMetricReranker<U> extends GlobalRankingLambdaReranker
     {
         U item = bestItemValue.v1;
         this.graph.addEdge(user, item);
+        if(this.state != null)
+        {
+            this.state.addEdge(user, item);
+        }
     }    
 }
@@ -8,7 +8,6 @@
  */
 package es.uam.eps.ir.relison.links.recommendation.reranking.global.local.graph;
 
-import com.rits.cloning.Cloner;
 import es.uam.eps.ir.ranksys.core.Recommendation;
 import es.uam.eps.ir.relison.graph.Graph;
 import es.uam.eps.ir.relison.links.recommendation.reranking.normalizer.Normalizer;
@@ -43,18 +42,7 @@ public class DirectGraphMetricReranker<U> extends GraphMetricReranker<U>
     @Override
     protected double nov(U u, Tuple2od<U> iv)
     {
-        U item = iv.v1;
-        Graph<U> cloneGraph;
-        if(graph.isDirected() || !graph.containsEdge(u, item))
-        {
-            Cloner cloner = new Cloner();
-            cloneGraph = cloner.deepClone(graph);
-            cloneGraph.addEdge(u, item);
-        }
-        else
-            cloneGraph = graph;
-
-        return metric.compute(cloneGraph);
+        return this.value(u, iv.v1);
     }
 
     @Override
@@ -8,10 +8,12 @@
  */
 package es.uam.eps.ir.relison.links.recommendation.reranking.global.local.graph;
 
+import com.rits.cloning.Cloner;
 import es.uam.eps.ir.relison.graph.Graph;
 import es.uam.eps.ir.relison.links.recommendation.reranking.global.local.GraphLocalReranker;
 import es.uam.eps.ir.relison.links.recommendation.reranking.normalizer.Normalizer;
 import es.uam.eps.ir.relison.sna.metrics.GraphMetric;
+import es.uam.eps.ir.relison.sna.metrics.IncrementalGraphMetric;
 import org.ranksys.core.util.tuples.Tuple2od;
 
 import java.util.function.Supplier;
@@ -20,6 +22,10 @@ import java.util.function.Supplier;
  * Reranker strategy that reorders the candidate users according to
  * a graph metric.
  *
+ * <p>If the metric is an {@link IncrementalGraphMetric}, its value is maintained as edges are added, and
+ * the value after adding each candidate edge is found by visiting only the surroundings of the edge. Otherwise,
+ * the metric is computed from scratch over a copy of the graph.</p>
+ *
  * @param <U> type of the users.
  *
  * @author Javier Sanz-Cruzado (javier.sanz-cruzado@uam.es)
@@ -31,6 +37,10 @@ public abstract class GraphMetricReranker<U> extends GraphLocalReranker<U>
      * The selected metric
      */
     protected final GraphMetric<U> metric;
+    /**
+     * The structure maintaining the value of the metric (null if the metric cannot be incrementally maintained).
+     */
+    protected final IncrementalGraphMetric.State<U> state;
 
     /**
      * Constructor.
@@ -44,6 +54,33 @@ public abstract class GraphMetricReranker<U> extends GraphLocalReranker<U>
     {
         super(cutoff, lambda, norm, graph);
         this.metric = metric;
+        this.state = metric instanceof IncrementalGraphMetric ? ((IncrementalGraphMetric<U>) metric).initialize(this.graph) : null;
+    }
+
+    /**
+     * Obtains the value of the metric if an edge is added to the graph.
+     * @param u     the origin of the edge.
+     * @param item  the destination of the edge.
+     * @return the value of the metric.
+     */
+    protected double value(U u, U item)
+    {
+        if(this.state != null)
+        {
+            return this.state.getValue() + this.state.addEdgeDelta(u, item);
+        }
+
+        Graph<U> cloneGraph;
+        if(graph.isDirected() || !graph.containsEdge(u, item))
+        {
+            Cloner cloner = new Cloner();
+            cloneGraph = cloner.deepClone(graph);
+            cloneGraph.addEdge(u, item);
+        }
+        else
+            cloneGraph = graph;
+
+        return metric.compute(cloneGraph);
     }
     
     
@@ -52,6 +89,10 @@ public abstract class GraphMetricReranker<U> extends GraphLocalReranker<U>
     {
         U item = bestItemValue.v1;
         this.graph.addEdge(user, item);
+        if(this.state != null)
+        {
+            this.state.addEdge(user, item);
+        }
     }
     
 }
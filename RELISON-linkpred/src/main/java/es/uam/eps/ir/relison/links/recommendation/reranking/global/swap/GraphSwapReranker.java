@@ -50,7 +50,29 @@ public abstract class GraphSwapReranker<U> extends SwapLambdaReranker<U,U>
      */
     public GraphSwapReranker(double lambda, int cutOff, Supplier<Normalizer<U>> norm, Graph<U> graph)
     {
-        super(lambda, cutOff, norm);
+        this(lambda, cutOff, norm, graph, 1);
+    }
+
+    /**
+     * Constructor
+     * @param cutOff    length of the definitive recommendation rankings.
+     * @param lambda    trade-off between relevance and the global metric.
+     * @param norm      the normalization strategy.
+     * @param graph     the original graph.
+     * @param batchSize maximum number of users to rerank in parallel (1 for reranking the users one at a time).
+     *                  Parallel reranking requires that the novelty of a swap can be computed concurrently, and
+     *                  that the footprints of the recommendations contain everything it depends on. It is only
+     *                  available for directed graphs: in undirected ones, the novelty also depends on whether the
+     *                  candidates recommend the target user, which might change the number of edges in the graph.
+     * @throws IllegalArgumentException if the users are reranked in parallel and the graph is undirected.
+     */
+    public GraphSwapReranker(double lambda, int cutOff, Supplier<Normalizer<U>> norm, Graph<U> graph, int batchSize)
+    {
+        super(lambda, cutOff, norm, batchSize);
+        if(batchSize > 1 && !graph.isDirected())
+        {
+            throw new IllegalArgumentException("Users can only be reranked in parallel over directed graphs");
+        }
         Graph<U> graph1;
         GraphCloneGenerator<U> cloner = new GraphCloneGenerator<>();
         cloner.configure(graph);
@@ -167,7 +189,7 @@ public abstract class GraphSwapReranker<U> extends SwapLambdaReranker<U,U>
             if(!this.recs.get(old.v1).contains(user))
                 this.graph.removeEdge(user, old.v1);
             if(!this.recs.get(updated.v1).contains(user))
-                this.graph.addEdge(user, old.v1);
+                this.graph.addEdge(user, updated.v1);
         }
         
     }
@@ -48,6 +48,17 @@ public abstract class SwapGreedyReranker<U,I> extends SwapReranker<U,I>
         super();
         this.cutOff = cutOff;
     }
+
+    /**
+     * Constructor.
+     * @param cutOff    the definitive size of the recommendation ranking.
+     * @param batchSize maximum number of users to rerank in parallel (1 for reranking the users one at a time).
+     */
+    public SwapGreedyReranker(int cutOff, int batchSize)
+    {
+        super(0, batchSize);
+        this.cutOff = cutOff;
+    }
     
     @Override
     protected Recommendation<U, I> rerankRecommendation(Recommendation<U, I> rec, int maxLength)
@@ -64,38 +75,61 @@ public abstract class SwapGreedyReranker<U,I> extends SwapReranker<U,I>
      */
     protected int[] rerankPermutation(Recommendation<U, I> rec, int maxLength)
     {
-        List<Tuple2od<I>> list = rec.getItems();
-
-        //Top k recommendation
-        IntList perm = new IntArrayList();
-        IntLinkedOpenHashSet remainingI = new IntLinkedOpenHashSet();
-    
-        int length = list.size();
-        length = Math.min(maxLength, length);
-        int permSize = Math.min(length, cutOff);
-
-        // Generate the top k and the remaining list recommendation
-        IntStream.range(permSize, length).forEach(remainingI::add);
-        IntStream.range(0, permSize).forEach(perm::add);
+        Permutation permutation = new Permutation(rec, maxLength);
 
         // We run over the top-k items.
-        for(int i = 0; i < permSize; ++i)
+        for(int i = 0; i < permutation.permSize; ++i)
         {
-            Tuple2od<I> compared = list.get(perm.getInt(i));
-            int bestI = selectItem(rec.getUser(), remainingI, compared, list);
+            int bestI = permutation.select(i);
             if(bestI != -1) // If bestI == -1, then, we do not change anything.
             {
-                //Swap the elements in the ranking
-                remainingI.add(perm.getInt(i));
-                remainingI.remove(bestI);
-                perm.set(i, bestI);
-                
-                //Update values
-                update(rec.getUser(), list.get(bestI), compared);
+                permutation.swap(i, bestI);
             }
         }
-        
-        return perm.toIntArray();
+
+        return permutation.perm.toIntArray();
+    }
+
+    /**
+     * Reranks a batch of users whose footprints are disjoint, in parallel. The users advance together over the
+     * positions of their top-k: for each position, the items to swap are selected in parallel (without modifying the
+     * state of the reranker), and the swaps are applied afterwards, in the order of the batch. Therefore, each user
+     * sees all its own previous swaps, and the swaps of the rest of the users in the batch up to the previous position.
+     * @param batch     the recommendations of the users in the batch.
+     * @param maxLength maximum length of the definitive ranking.
+     * @return the new rankings, in the order of the batch.
+     */
+    @Override
+    protected List<Recommendation<U, I>> rerankBatch(List<Recommendation<U, I>> batch, int maxLength)
+    {
+        List<Permutation> permutations = new ArrayList<>();
+        int maxPermSize = 0;
+        for(Recommendation<U, I> rec : batch)
+        {
+            Permutation permutation = new Permutation(rec, maxLength);
+            permutations.add(permutation);
+            maxPermSize = Math.max(maxPermSize, permutation.permSize);
+        }
+
+        for(int i = 0; i < maxPermSize; ++i)
+        {
+            int pos = i;
+            int[] bestI = permutations.parallelStream().mapToInt(permutation -> pos < permutation.permSize ? permutation.select(pos) : -1).toArray();
+            for(int j = 0; j < bestI.length; ++j)
+            {
+                if(bestI[j] != -1)
+                {
+                    permutations.get(j).swap(pos, bestI[j]);
+                }
+            }
+        }
+
+        List<Recommendation<U, I>> reranked = new ArrayList<>();
+        for(Permutation permutation : permutations)
+        {
+            reranked.add(this.permuteRecommendation(permutation.rec, permutation.perm.toIntArray()));
+        }
+        return reranked;
     }
 
     /**
@@ -182,4 +216,79 @@ public abstract class SwapGreedyReranker<U,I> extends SwapReranker<U,I>
      */
     protected abstract double valuetop(Tuple2od<I> get);
     
+
+    /**
+     * Permutation of the top-k items of a recommendation, built by swapping them with the rest of the items.
+     */
+    private class Permutation
+    {
+        /**
+         * The recommendation.
+         */
+        private final Recommendation<U, I> rec;
+        /**
+         * The items in the recommendation.
+         */
+        private final List<Tuple2od<I>> list;
+        /**
+         * The indexes of the items in the top k.
+         */
+        private final IntList perm;
+        /**
+         * The indexes of the remaining items.
+         */
+        private final IntLinkedOpenHashSet remainingI;
+        /**
+         * The number of items in the top k.
+         */
+        private final int permSize;
+
+        /**
+         * Constructor.
+         * @param rec       the recommendation.
+         * @param maxLength the maximum number of items to consider.
+         */
+        Permutation(Recommendation<U, I> rec, int maxLength)
+        {
+            this.rec = rec;
+            this.list = rec.getItems();
+            this.perm = new IntArrayList();
+            this.remainingI = new IntLinkedOpenHashSet();
+
+            int length = Math.min(maxLength, list.size());
+            this.permSize = Math.min(length, cutOff);
+
+            // Generate the top k and the remaining list recommendation
+            IntStream.range(permSize, length).forEach(remainingI::add);
+            IntStream.range(0, permSize).forEach(perm::add);
+        }
+
+        /**
+         * Selects the item to swap with the one in a position of the top k.
+         * @param i the position.
+         * @return the index of the selected item, -1 if the item in the position is kept.
+         */
+        int select(int i)
+        {
+            return selectItem(rec.getUser(), remainingI, list.get(perm.getInt(i)), list);
+        }
+
+        /**
+         * Swaps the item in a position of the top k with another one, and updates the reranker.
+         * @param i     the position.
+         * @param bestI the index of the new item.
+         */
+        void swap(int i, int bestI)
+        {
+            Tuple2od<I> compared = list.get(perm.getInt(i));
+
+            //Swap the elements in the ranking
+            remainingI.add(perm.getInt(i));
+            remainingI.remove(bestI);
+            perm.set(i, bestI);
+
+            //Update values
+            update(rec.getUser(), list.get(bestI), compared);
+        }
+    }
 }
@@ -17,6 +17,7 @@ import org.ranksys.core.util.tuples.Tuple2od;
 
 import java.util.List;
 import java.util.function.Supplier;
+import java.util.stream.Collectors;
 
 /**
  * Abstract implementation of the greedy swap strategy that allows to optimize
@@ -53,6 +54,14 @@ public abstract class SwapLambdaReranker<U,I> extends SwapGreedyReranker<U,I>
      * The normalization algorithm to apply.
      */
     private final Supplier<Normalizer<I>> norm;
+    /**
+     * Whether users are reranked in parallel.
+     */
+    private final boolean batched;
+    /**
+     * Statistics of the user reranked by each thread, when users are reranked in parallel.
+     */
+    private final ThreadLocal<Stats> batchStats = new ThreadLocal<>();
 
     /**
      * Constructor.
@@ -65,26 +74,55 @@ public abstract class SwapLambdaReranker<U,I> extends SwapGreedyReranker<U,I>
         super(cutOff);
         this.lambda = lambda;
         this.norm = norm;
+        this.batched = false;
+    }
+
+    /**
+     * Constructor.
+     * @param cutOff    maximum length of the recommendation ranking.
+     * @param lambda    trade-off between original and novelty scores.
+     * @param norm      the normalization scheme to apply.
+     * @param batchSize maximum number of users to rerank in parallel (1 for reranking the users one at a time).
+     *                  When users are reranked in parallel, the statistics of each thread are kept apart, and the
+     *                  {@link #relStats}, {@link #novStats} and {@link #novMap} fields are not filled.
+     */
+    public SwapLambdaReranker(double lambda, int cutOff, Supplier<Normalizer<I>> norm, int batchSize)
+    {
+        super(cutOff, batchSize);
+        this.lambda = lambda;
+        this.norm = norm;
+        this.batched = batchSize > 1;
     }
 
     @Override
     protected int selectItem(U u, IntSortedSet remainingI, Tuple2od<I> oldValue, List<Tuple2od<I>> list)
     {
-        novMap = new Object2DoubleOpenHashMap<>();
-        relStats = norm.get();
-        novStats = norm.get();
-                
+        Object2DoubleMap<I> novelties = new Object2DoubleOpenHashMap<>();
+        Normalizer<I> rel = norm.get();
+        Normalizer<I> novel = norm.get();
+
         remainingI.intStream().forEach(i ->
         {
             Tuple2od<I> itemValue = list.get(i);
             double nov = this.nov(u, itemValue, oldValue);
-            novMap.put(itemValue.v1, nov);
-            relStats.add(itemValue.v1, itemValue.v2);
-            novStats.add(itemValue.v1, nov);
+            novelties.put(itemValue.v1, nov);
+            rel.add(itemValue.v1, itemValue.v2);
+            novel.add(itemValue.v1, nov);
         });
-        
-        relStats.add(oldValue.v1, oldValue.v2);
-        novStats.add(oldValue.v1, this.globalvalue);
+
+        rel.add(oldValue.v1, oldValue.v2);
+        novel.add(oldValue.v1, this.globalvalue);
+
+        if(batched)
+        {
+            batchStats.set(new Stats(rel, novel, novelties));
+        }
+        else
+        {
+            novMap = novelties;
+            relStats = rel;
+            novStats = novel;
+        }
 
         return super.selectItem(u, remainingI, oldValue, list);
     }
@@ -97,16 +135,34 @@ public abstract class SwapLambdaReranker<U,I> extends SwapGreedyReranker<U,I>
         else
             return super.rerankPermutation(rec, maxLength);
     }
+
+    @Override
+    protected List<Recommendation<U, I>> rerankBatch(List<Recommendation<U, I>> batch, int maxLength)
+    {
+        if(lambda == 0.0) return batch.stream().map(rec -> this.rerankRecommendation(rec, maxLength)).collect(Collectors.toList());
+        else
+            return super.rerankBatch(batch, maxLength);
+    }
     
     @Override
     protected double value(Tuple2od<I> iv)
     {
+        if(batched)
+        {
+            Stats stats = batchStats.get();
+            return (1.0-lambda) * stats.rel.norm(iv.v1, iv.v2) + lambda*stats.nov.norm(iv.v1, stats.novelties.getDouble(iv.v1));
+        }
         return (1.0-lambda) * relStats.norm(iv.v1, iv.v2) + lambda*novStats.norm(iv.v1, novMap.getDouble(iv.v1));
     }
 
     @Override
     protected double valuetop(Tuple2od<I> iv)
     {
+        if(batched)
+        {
+            Stats stats = batchStats.get();
+            return (1.0-lambda) * stats.rel.norm(iv.v1, iv.v2) + lambda * stats.nov.norm(iv.v1, this.globalvalue);
+        }
         return (1.0-lambda) * relStats.norm(iv.v1, iv.v2) + lambda * novStats.norm(iv.v1, this.globalvalue);
     }
 
@@ -118,4 +174,36 @@ public abstract class SwapLambdaReranker<U,I> extends SwapGreedyReranker<U,I>
      * @return the novelty value
      */
     protected abstract double nov(U u, Tuple2od<I> newValue, Tuple2od<I> oldValue);
+
+    /**
+     * Statistics for selecting the item to swap with a given one.
+     */
+    private class Stats
+    {
+        /**
+         * Statistics for the original scores.
+         */
+        private final Normalizer<I> rel;
+        /**
+         * Statistics for the novelty scores.
+         */
+        private final Normalizer<I> nov;
+        /**
+         * Novelty of the items.
+         */
+        private final Object2DoubleMap<I> novelties;
+
+        /**
+         * Constructor.
+         * @param rel       statistics for the original scores.
+         * @param nov       statistics for the novelty scores.
+         * @param novelties novelty of the items.
+         */
+        Stats(Normalizer<I> rel, Normalizer<I> nov, Object2DoubleMap<I> novelties)
+        {
+            this.rel = rel;
+            this.nov = nov;
+            this.novelties = novelties;
+        }
+    }
 }
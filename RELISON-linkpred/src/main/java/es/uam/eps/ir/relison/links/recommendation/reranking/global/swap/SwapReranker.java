@@ -1,7 +1,7 @@
-/* 
+/*
  *  Copyright (C) 2016 Information Retrieval Group at Universidad Autónoma
  *  de Madrid, http://ir.ii.uam.es
- * 
+ *
  *  This Source Code Form is subject to the terms of the Mozilla Public
  *  License, v. 2.0. If a copy of the MPL was not distributed with this
  *  file, You can obtain one at http://mozilla.org/MPL/2.0/.
@@ -10,6 +10,10 @@ package es.uam.eps.ir.relison.links.recommendation.reranking.global.swap;
 
 import es.uam.eps.ir.ranksys.core.Recommendation;
 import es.uam.eps.ir.relison.links.recommendation.reranking.global.GlobalReranker;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.ints.IntList;
+import it.unimi.dsi.fastutil.objects.Object2IntMap;
+import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
 
 import java.util.ArrayList;
 import java.util.Collections;
@@ -30,6 +34,14 @@ import java.util.stream.Stream;
  * to keep this item in the ranking, or choose one of the remaining (the not recommended ones) instead.
  * If we decide that it is better to change them, we swap them, and update the global property accordingly.
  *
+ * Optionally, users can be reranked in parallel. In that case, users are divided into batches, so that
+ * the state read or modified when reranking the users in a batch is disjoint (their footprints are disjoint),
+ * and users whose footprints overlap keep their original relative order. Each batch is reranked by
+ * {@link #rerankBatch(List, int)}, which, by default, reranks its users one at a time. Rerankers whose
+ * global property depends on the whole set of recommendations (and not only on the footprints) must not be
+ * run in parallel. The rankings are the same as the sequential ones, but the degree of parallelism depends on
+ * how much the footprints overlap: when most users share some candidate, batches contain few users.
+ *
  * @author Javier Sanz-Cruzado (javier.sanz-cruzado@uam.es)
  * @author Pablo Castells (pablo.castells@uam.es)
  *
@@ -42,37 +54,56 @@ public abstract class SwapReranker<U,I> implements GlobalReranker<U,I>
      * Seed for the order of the users
      */
     private final long seed;
+    /**
+     * Maximum number of users to rerank in parallel (1 for reranking the users one at a time).
+     */
+    private final int batchSize;
     /**
      * Current global value of the metric.
      */
     protected double globalvalue = 0.0;
-    
+
     /**
      * Constructor. Default seed, not randomly chosen.
      */
     public SwapReranker()
     {
-        seed = 0;
+        this(0);
     }
-    
+
     /**
      * Constructor.
      * @param seed random seed for establishing the order in which we run over the users.
      */
     public SwapReranker(long seed)
+    {
+        this(seed, 1);
+    }
+
+    /**
+     * Constructor.
+     * @param seed      random seed for establishing the order in which we run over the users.
+     * @param batchSize maximum number of users to rerank in parallel (1 for reranking the users one at a time).
+     */
+    public SwapReranker(long seed, int batchSize)
     {
         this.seed = seed;
+        this.batchSize = Math.max(batchSize, 1);
     }
-    
+
     @Override
     public Stream<Recommendation<U, I>> rerankRecommendations(Stream<Recommendation<U, I>> recommendation, int maxLength)
     {
         List<Recommendation<U,I>> recommendations = recommendation.collect(Collectors.toCollection(ArrayList::new));
-        
+
         // Randomly reorders the recommendations
         Collections.shuffle(recommendations, new Random(seed));
-        
-        
+
+        if(batchSize > 1)
+        {
+            return this.rerankBatches(recommendations, maxLength);
+        }
+
         List<Recommendation<U,I>> output = new ArrayList<>();
         // Reranks every recommendation.
         for(Recommendation<U,I> rec : recommendations)
@@ -81,11 +112,101 @@ public abstract class SwapReranker<U,I> implements GlobalReranker<U,I>
             output.add(reranked);
             this.update(reranked);
         }
-        
+
         // returns the new rankings
         return output.stream();
     }
 
+    /**
+     * Reranks the recommendations in batches of users with disjoint footprints, in parallel.
+     * @param recommendations   the (already shuffled) recommendations.
+     * @param maxLength         maximum length of the definitive ranking.
+     * @return the new rankings, in the same order as the original ones.
+     */
+    private Stream<Recommendation<U, I>> rerankBatches(List<Recommendation<U,I>> recommendations, int maxLength)
+    {
+        // Each user is placed in the first batch after the last one sharing a user or item with it.
+        List<IntList> batches = new ArrayList<>();
+        Object2IntMap<Object> lastBatch = new Object2IntOpenHashMap<>();
+        lastBatch.defaultReturnValue(-1);
+        for(int i = 0; i < recommendations.size(); ++i)
+        {
+            Recommendation<U,I> rec = recommendations.get(i);
+            List<Object> footprint = this.footprint(rec, maxLength);
+
+            int batch = 0;
+            for(Object key : footprint)
+            {
+                batch = Math.max(batch, lastBatch.getInt(key) + 1);
+            }
+            while(batch < batches.size() && batches.get(batch).size() >= batchSize)
+            {
+                ++batch;
+            }
+            if(batch == batches.size())
+            {
+                batches.add(new IntArrayList());
+            }
+
+            batches.get(batch).add(i);
+            for(Object key : footprint)
+            {
+                lastBatch.put(key, batch);
+            }
+        }
+
+        List<Recommendation<U,I>> output = new ArrayList<>(Collections.nCopies(recommendations.size(), null));
+        for(IntList batch : batches)
+        {
+            List<Recommendation<U,I>> reranked = this.rerankBatch(batch.intStream().mapToObj(recommendations::get).collect(Collectors.toList()), maxLength);
+
+            // Update the reranker in the original order.
+            for(int j = 0; j < batch.size(); ++j)
+            {
+                Recommendation<U,I> rec = reranked.get(j);
+                this.update(rec);
+                output.set(batch.getInt(j), rec);
+            }
+        }
+
+        return output.stream();
+    }
+
+    /**
+     * Reranks a batch of users whose footprints are disjoint. By default, the users are reranked one at a time,
+     * in the order of the batch. Subclasses might rerank them in parallel, as long as the outcome does not depend
+     * on the number of threads. The update of the reranker with each whole recommendation is done afterwards.
+     * @param batch     the recommendations of the users in the batch.
+     * @param maxLength maximum length of the definitive ranking.
+     * @return the new rankings, in the order of the batch.
+     */
+    protected List<Recommendation<U,I>> rerankBatch(List<Recommendation<U,I>> batch, int maxLength)
+    {
+        List<Recommendation<U,I>> reranked = new ArrayList<>();
+        for(Recommendation<U,I> rec : batch)
+        {
+            reranked.add(this.rerankRecommendation(rec, maxLength));
+        }
+        return reranked;
+    }
+
+    /**
+     * Obtains the keys of every piece of state which might be read or modified when reranking a recommendation.
+     * Two recommendations can be reranked in parallel if their footprints are disjoint. By default, it contains
+     * the target user and the items among the first maxLength ones in the ranking, so it is only valid for
+     * rerankers which only read or modify the state of those users and items.
+     * @param rec       the recommendation.
+     * @param maxLength maximum length of the definitive ranking.
+     * @return the footprint of the recommendation.
+     */
+    protected List<Object> footprint(Recommendation<U, I> rec, int maxLength)
+    {
+        List<Object> footprint = new ArrayList<>();
+        footprint.add(rec.getUser());
+        rec.getItems().stream().limit(maxLength).forEach(item -> footprint.add(item.v1));
+        return footprint;
+    }
+
     /**
      * Updates the reranking algorithm values, using a certain recommendation.
      * @param reranked the recommendation.
@@ -99,5 +220,5 @@ public abstract class SwapReranker<U,I> implements GlobalReranker<U,I>
      * @return the new recommendation.
      */
     protected abstract Recommendation<U, I> rerankRecommendation(Recommendation<U, I> rec, int maxLength);
-    
+
 }
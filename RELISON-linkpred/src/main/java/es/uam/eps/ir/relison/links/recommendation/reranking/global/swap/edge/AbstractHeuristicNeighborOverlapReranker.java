@@ -14,16 +14,14 @@ import es.uam.eps.ir.relison.links.recommendation.reranking.global.swap.GraphSwa
 import es.uam.eps.ir.relison.links.recommendation.reranking.normalizer.Normalizer;
 import org.ranksys.core.util.tuples.Tuple2od;
 
-import java.util.HashMap;
-import java.util.HashSet;
-import java.util.Map;
-import java.util.Set;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.function.Supplier;
-import java.util.stream.Collectors;
 
 /**
  * Swap reranker that modifies the rankings according to the average embeddedness of the network.
- * It uses heuristics to improve the execution times.
+ * It uses heuristics to improve the execution times: the effect of a swap is estimated by considering only the
+ * embeddedness of the removed and the added edges.
  *
  * @author Javier Sanz-Cruzado (javier.sanz-cruzado@uam.es)
  * @author Pablo Castells (pablo.castells@uam.es)
@@ -33,24 +31,23 @@ import java.util.stream.Collectors;
 public abstract class AbstractHeuristicNeighborOverlapReranker<U> extends GraphSwapReranker<U>
 {
     /**
-     * Map containing the intersections between two nodes in the network (CN)
+     * Structure containing the neighbor overlap of the edges in the network.
      */
-    private Map<U, Map<U, Double>> intersection;
+    private NeighborOverlapIndex<U> overlap;
     /**
-     * Map containing the unions of two nodes in the network (TN)
+     * Estimation of the sum of the neighbor overlaps of the edges.
      */
-    private Map<U, Map<U, Double>> union;
+    private double estimate;
     /**
      * Execution mode: 1) Embededness is corrected any time a swap is done. 2) Embededness is corrected every time a user has finished its reranking.
      * 3) Embededness is never corrected (only use the heuristic)
      */
     private final int mode;
-    
     /**
      * True if we want edges with greater embeddedness, false if we want edges with smaller embeddedness (more weakness)
      */
     private final boolean promote;
-    
+
     /**
      * Constructor
      * @param cutOff    the definitive length of the recommendation rankings.
@@ -65,509 +62,131 @@ public abstract class AbstractHeuristicNeighborOverlapReranker<U> extends GraphS
      */
     public AbstractHeuristicNeighborOverlapReranker(double lambda, int cutOff, Supplier<Normalizer<U>> norm, Graph<U> graph, int mode, boolean promote)
     {
-        super(lambda, cutOff, norm, graph);
-        this.mode = mode;
-        this.promote = promote;
+        this(lambda, cutOff, norm, graph, mode, promote, 1);
     }
 
-    @Override
-    protected void computeGlobalValue() 
+    /**
+     * Constructor
+     * @param cutOff    the definitive length of the recommendation rankings.
+     * @param lambda    trade-off between the average embeddedness and the original score
+     * @param norm      the normalization scheme.
+     * @param graph     the original graph
+     * @param mode      the execution mode:
+     *                  1) Embededness is corrected any time a swap is done.
+     *                  2) Embededness is corrected every time a user has finished its reranking.
+     *                  3) Embededness is never corrected (only use the heuristic)
+     * @param promote   true if we want edges with greater embeddedness, false if we want edges with smaller embeddedness (more weakness)
+     * @param batchSize maximum number of users to rerank in parallel (1 for reranking the users one at a time).
+     */
+    public AbstractHeuristicNeighborOverlapReranker(double lambda, int cutOff, Supplier<Normalizer<U>> norm, Graph<U> graph, int mode, boolean promote, int batchSize)
     {
-        intersection = new HashMap<>();
-        union = new HashMap<>();
-        
-        this.globalvalue = this.graph.getAllNodes().mapToDouble(u -> 
-        {
-            Set<U> uNodes = this.graph.getAdjacentNodes(u).collect(Collectors.toCollection(HashSet::new));
-            intersection.put(u, new HashMap<>());
-            union.put(u, new HashMap<>());
-            
-            // Store the intersection and the union, and compute the embeddedness of the graph.
-            return this.graph.getAdjacentNodes(u).mapToDouble(v -> 
-            {
-                Set<U> vNodes = this.graph.getIncidentNodes(v).collect(Collectors.toCollection(HashSet::new));
-                Set<U> inter = new HashSet<>(vNodes);
-                Set<U> uni = new HashSet<>(vNodes);
-                inter.retainAll(uNodes);
-                uni.addAll(uNodes);
-                
-                double interSc = inter.size() + 0.0;
-                double unionSc = uni.size();
-                this.intersection.get(u).put(v, interSc);
-                this.union.get(u).put(v, unionSc);
-                
-                if(unionSc > 2.0)
-                {
-                    return interSc/(unionSc + 2.0);
-                }
-                return 0.0;
-            }).sum();
-        }).sum();
-               
-        if(this.graph.isDirected())
-        {
-            this.globalvalue /= this.graph.getEdgeCount() + 0.0;
-        }
-        else
-        {
-            this.globalvalue /= (2.0*this.graph.getEdgeCount() + 0.0);
-        }
-        
-        if(!promote)
-        {
-            this.globalvalue = 1.0 - this.globalvalue;
-        }
+        super(lambda, cutOff, norm, graph, batchSize);
+        this.mode = mode;
+        this.promote = promote;
     }
-    
+
     @Override
-    protected double novAddDelete(U u, Tuple2od<U> itemValue, Tuple2od<U> compared)
+    protected void computeGlobalValue()
     {
-        if(this.graph.isDirected())
-            return this.novAddDeleteDirected(u, itemValue, compared);
-        else
-            return this.novAddDeleteUndirected(u, itemValue, compared);
+        this.overlap = new NeighborOverlapIndex<>(this.graph);
+        this.estimate = this.overlap.getSum();
+        this.globalvalue = this.value(this.estimate, this.overlap.getNumEdges());
     }
-    
+
     /**
-     * Computes the embededness in a directed graph (adding and deleting an edge)
-     * @param u the target user.
-     * @param itemValue The new candidate user
-     * @param compared The old candidate user
-     * @return the new novelty score.
+     * Obtains the footprint of a recommendation: the neighborhoods which are read or modified when the edges from the
+     * target user to its candidates are swapped. As the heuristic only considers the overlap of the swapped edges, it
+     * is much smaller than the footprint of the exact rerankers.
+     * @param rec       the recommendation.
+     * @param maxLength maximum length of the definitive ranking.
+     * @return the footprint of the recommendation.
      */
-    private double novAddDeleteDirected(U u, Tuple2od<U> itemValue, Tuple2od<U> compared)
+    @Override
+    protected List<Object> footprint(Recommendation<U, U> rec, int maxLength)
     {
-        U v = compared.v1();
-        U w = itemValue.v1();
-        
-        
-        if(!intersection.get(u).containsKey(w) || !union.get(u).containsKey(w))
-        {
-            Set<U> uSet = graph.getAdjacentNodes(u).collect(Collectors.toCollection(HashSet::new));
-            Set<U> wSet = graph.getAdjacentNodes(w).collect(Collectors.toCollection(HashSet::new));
-            Set<U> inter = new HashSet<>(uSet);
-            inter.retainAll(wSet);
-            
-            Set<U> uni = new HashSet<>(uSet);
-            uni.addAll(wSet);
-            
-            this.intersection.get(u).put(w, inter.size() + 0.0);
-            this.union.get(u).put(w, uni.size() + 0.0);
-        }
-        
-        double value = this.graph.getEdgeCount()*(1.0 - this.globalvalue);
-        
-        value -= this.intersection.get(u).get(v)/this.union.get(u).get(v);
-        
-        boolean contains = this.graph.containsEdge(v,w);
-        double interScUW = this.intersection.get(u).get(w) - (contains ? 1.0 : 0.0);
-        double unionScUW = this.union.get(u).get(w) - (contains ? 0.0 : 1.0) + 2.0;
-        
-        value += interScUW / unionScUW;
-        
-        if(promote)
-        {
-            return value/this.graph.getEdgeCount();
-        }
-        else
-        {
-            return 1.0 - value/this.graph.getEdgeCount();
-        }
+        return new ArrayList<>(this.overlap.localFootprint(rec.getUser(), rec.getItems().stream().limit(maxLength).map(Tuple2od::v1)));
     }
-    
-    
-    
-    /**
-     * Computes the embededness in a directed graph (adding and deleting an edge)
-     * @param u the target user.
-     * @param itemValue The new candidate user
-     * @param compared The old candidate user
-     * @return the new novelty score.
-     */
-    private double novAddDeleteUndirected(U u, Tuple2od<U> itemValue, Tuple2od<U> compared)
-    {
-        U v = compared.v1();
-        U w = itemValue.v1();
-        
-        
-        if(!intersection.get(u).containsKey(w) || !union.get(u).containsKey(w))
-        {
-            Set<U> uSet = graph.getAdjacentNodes(u).collect(Collectors.toCollection(HashSet::new));
-            Set<U> wSet = graph.getAdjacentNodes(w).collect(Collectors.toCollection(HashSet::new));
-            Set<U> inter = new HashSet<>(uSet);
-            inter.retainAll(wSet);
-            
-            Set<U> uni = new HashSet<>(uSet);
-            uni.addAll(wSet);
-            
-            this.intersection.get(u).put(w, inter.size() + 0.0);
-            this.union.get(u).put(w, uni.size() + 0.0);
-        }
-        
-        double value = 2.0*this.graph.getEdgeCount()*(1.0 - this.globalvalue);
-        
-        value -= 2.0*this.intersection.get(u).get(v)/this.union.get(u).get(v);
-        
-        boolean contains = this.graph.containsEdge(v,w);
-        double interScUW = this.intersection.get(u).get(w) - (contains ? 1.0 : 0.0);
-        double unionScUW = this.union.get(u).get(w) - (contains ? 0.0 : 1.0) + 2.0;
-        
-        value += 2.0*interScUW / unionScUW;
-
-        if(promote)
-        {
-            return value/(2.0*this.graph.getEdgeCount());
-        }
-        else
-        {
-            return 1.0 - value/(2.0*this.graph.getEdgeCount());
-        }
 
+    @Override
+    protected double novAddDelete(U u, Tuple2od<U> itemValue, Tuple2od<U> compared)
+    {
+        return this.novelty(u, compared.v1, itemValue.v1);
     }
-    
+
     @Override
     protected double novAdd(U u, Tuple2od<U> itemValue, Tuple2od<U> compared)
     {
-        U v = compared.v1();
-        U w = itemValue.v1();
-        
-        
-        if(!intersection.get(u).containsKey(w) || !union.get(u).containsKey(w))
-        {
-            Set<U> uSet = graph.getAdjacentNodes(u).collect(Collectors.toCollection(HashSet::new));
-            Set<U> wSet = graph.getAdjacentNodes(w).collect(Collectors.toCollection(HashSet::new));
-            Set<U> inter = new HashSet<>(uSet);
-            inter.retainAll(wSet);
-            
-            Set<U> uni = new HashSet<>(uSet);
-            uni.addAll(wSet);
-            
-            this.intersection.get(u).put(w, inter.size() + 0.0);
-            this.union.get(u).put(w, uni.size() + 0.0);
-        }
-        
-        double value = 2.0*this.graph.getEdgeCount()*(1.0 - this.globalvalue);
-        
-        value -= 2.0*this.intersection.get(u).get(v)/this.union.get(u).get(v);
-        
-        boolean contains = this.graph.containsEdge(w,v);
-        double interScUV = this.intersection.get(u).get(v) + (contains ? 1.0 : 0.0);
-        double unionScUV = this.union.get(u).get(v) + (contains ? 0.0 : 1.0) + 2.0;
-        value += 2.0*interScUV/unionScUV;
-        
-        double interScUW = this.intersection.get(u).get(w) - (contains ? 1.0 : 0.0);
-        double unionScUW = this.union.get(u).get(w) - (contains ? 0.0 : 1.0) + 2.0;
-        value += 2.0*interScUW / unionScUW;
-
-        if(promote)
-        {
-            return value/(2.0*this.graph.getEdgeCount()+2.0);
-        }
-        else
-        {
-            return 1.0 - value/(2.0*this.graph.getEdgeCount()+2.0);
-        }
+        return this.novelty(u, null, itemValue.v1);
     }
 
     @Override
     protected double novDelete(U u, Tuple2od<U> itemValue, Tuple2od<U> compared)
     {
-        U v = compared.v1();
-        U w = itemValue.v1();
-        
-        
-        if(!intersection.get(u).containsKey(w) || !union.get(u).containsKey(w))
-        {
-            Set<U> uSet = graph.getAdjacentNodes(u).collect(Collectors.toCollection(HashSet::new));
-            Set<U> wSet = graph.getAdjacentNodes(w).collect(Collectors.toCollection(HashSet::new));
-            Set<U> inter = new HashSet<>(uSet);
-            inter.retainAll(wSet);
-            
-            Set<U> uni = new HashSet<>(uSet);
-            uni.addAll(wSet);
-            
-            this.intersection.get(u).put(w, inter.size() + 0.0);
-            this.union.get(u).put(w, uni.size() + 0.0);
-        }
-        
-        double value = 2.0*this.graph.getEdgeCount()*(1.0 - this.globalvalue);
-        
-        value -= 2.0*this.intersection.get(u).get(v)/this.union.get(u).get(v);
-        value -= 2.0*this.intersection.get(u).get(w)/this.union.get(u).get(w);
-        
-        boolean contains = this.graph.containsEdge(v,w);
-        double interScUW = this.intersection.get(u).get(w) - (contains ? 1.0 : 0.0);
-        double unionScUW = this.union.get(u).get(w) - (contains ? 0.0 : 1.0) + 2.0;
-        
-        value += 2.0*interScUW / unionScUW;
-
-        if(promote)
-        {
-            return value/(2.0*this.graph.getEdgeCount()-2.0);
-        }
-        else
-        {
-            return 1.0 - value/(2.0*this.graph.getEdgeCount()-2.0);
-        }
+        return this.novelty(u, compared.v1, null);
     }
 
-    @Override
-    protected void innerUpdate(U user, Tuple2od<U> updated, Tuple2od<U> old)
-    {         
-        if(this.graph.isDirected())
-        {
-            updateAddDeleteDirected(user, updated, old);
-        }
-        else if(this.recs.get(old.v1).contains(user))
-        {
-            updateAdd(user, updated, old);
-        }
-        else if(this.recs.get(updated.v1).contains(user))
-        {
-            updateDelete(user, updated, old);
-        }
-        else
-        {
-            updateAddDeleteUndirected(user, updated, old);
-        }
-        
-
-    }
-    
     /**
-     * Updates the statistics for a directed graph (adding the reranked edge and deleting the previous one).
-     * @param u target user
-     * @param updated new recommended user
-     * @param old the old recommended user
+     * Estimates the novelty score if the edge (u,del) is replaced by (u,add).
+     * @param u     the target user.
+     * @param del   the user whose edge is removed (null if none).
+     * @param add   the user whose edge is added (null if none).
+     * @return the estimated novelty score.
      */
-    private void updateAddDeleteDirected(U u, Tuple2od<U> updated, Tuple2od<U> old)
+    private double novelty(U u, U del, U add)
     {
-        if(this.mode % 3 == 1)
-        {
-            super.update(u, updated, old);
-            this.computeGlobalValue();
-        }
-        else
-        {
-            U v = old.v1();
-            U w = updated.v1();
-        
-            double value = this.graph.getEdgeCount()*(1.0 - this.globalvalue);
-
-            value -= this.intersection.get(u).get(v)/this.union.get(u).get(v);
-
-            boolean contains = this.graph.containsEdge(v,w);
-            if(contains)
-            {
-                this.intersection.get(u).put(w, this.intersection.get(u).get(w)-1.0);
-            }
-            else
-            {
-                this.union.get(u).put(w, this.union.get(u).get(w)-1.0);
-            }
-            
-            double interScUW = this.intersection.get(u).get(w) - (contains ? 1.0 : 0.0);
-            double unionScUW = this.union.get(u).get(w) - (contains ? 0.0 : 1.0) + 2.0;
-
-            value += interScUW / unionScUW;
-            
-            contains = this.graph.containsEdge(w, v);
-            if(contains)
-            {
-                this.intersection.get(u).put(v, this.intersection.get(u).get(w)+1.0);
-            }
-            else
-            {
-                this.union.get(u).put(w, this.union.get(u).get(w)+1.0);
-            }
-            
-            if(promote)
-            {
-                this.globalvalue = value/(this.graph.getEdgeCount());
-            }
-            else
-            {
-                this.globalvalue = 1.0 - value/(this.graph.getEdgeCount());
-            }
-            
-            
-        }
+        int uIdx = this.overlap.getIdx(u);
+        int delIdx = this.overlap.getIdx(del);
+        int addIdx = this.overlap.getIdx(add);
+        return this.value(this.estimate + this.overlap.localDelta(uIdx, delIdx, addIdx), this.overlap.getNumEdges() + this.overlap.edgeDelta(uIdx, delIdx, addIdx));
     }
-    
-    /**
-     * Updates the statistics for an undirected graph (adding the reranked edge and deleting the previous one).
-     * @param u target user
-     * @param updated new recommended user
-     * @param old the old recommended user
-     */
-    private void updateAddDeleteUndirected(U u, Tuple2od<U> updated, Tuple2od<U> old)
-    {
-        if(this.mode % 3 == 1)
-        {
-            //super.update(u, updated, old);
-            this.computeGlobalValue();
-        }
-        else
-        {
-            U v = old.v1();
-            U w = updated.v1();
-        
-            double value = this.graph.getEdgeCount()*(1.0 - this.globalvalue);
-
-            value -= 2.0*this.intersection.get(u).get(v)/this.union.get(u).get(v);
 
-            boolean contains = this.graph.containsEdge(v,w);
-            if(contains)
-            {
-                this.intersection.get(u).put(w, this.intersection.get(u).get(w)-1.0);
-                this.intersection.get(w).put(u, this.intersection.get(u).get(w));
-                this.intersection.get(u).put(v, this.intersection.get(u).get(w)+1.0);
-                this.intersection.get(v).put(u, this.intersection.get(u).get(v));
-            }
-            else
-            {
-                this.union.get(u).put(w, this.union.get(u).get(w)-1.0);
-                this.union.get(w).put(u, this.union.get(u).get(w));
-                this.union.get(u).put(v, this.union.get(u).get(v)+1.0);
-                this.union.get(v).put(u, this.union.get(u).get(v));
-            }
-            
-            double interScUW = this.intersection.get(u).get(w) - (contains ? 1.0 : 0.0);
-            double unionScUW = this.union.get(u).get(w) - (contains ? 0.0 : 1.0) + 2.0;
-
-            value += 2.0 * interScUW / unionScUW;
-            if(promote)
-            {
-                this.globalvalue = value/(2.0*this.graph.getEdgeCount());
-            }
-            else
-            {
-                this.globalvalue = 1.0 - value/(2.0*this.graph.getEdgeCount());
-            }
-        }
-    }
-    
     /**
-     * Updates the statistics for an undirected graph (adding the reranked edge and not deleting anyone).
-     * @param u target user
-     * @param updated new recommended user
-     * @param old old recommended user
+     * Obtains the value of the metric from the sum of the neighbor overlaps.
+     * @param sum       the sum of the neighbor overlaps of the edges.
+     * @param numEdges  the number of edges (twice the number of edges if the graph is undirected).
+     * @return the value of the metric.
      */
-    private void updateAdd(U u, Tuple2od<U> updated, Tuple2od<U> old)
+    private double value(double sum, long numEdges)
     {
-        if(this.mode % 3 == 1)
-        {
-            super.update(u, updated, old);
-            this.computeGlobalValue();
-        }
-        else
-        {
-            U v = old.v1();
-            U w = updated.v1();
-        
-            double value = 2.0*this.graph.getEdgeCount()*(1.0 - this.globalvalue);
-
-            value -= 2.0*this.intersection.get(u).get(v)/this.union.get(u).get(v);
+        double avg = numEdges > 0 ? sum / numEdges : 0.0;
+        return promote ? avg : 1.0 - avg;
+    }
 
-            boolean contains = this.graph.containsEdge(w,v);
-            double interScUV = this.intersection.get(u).get(v) + (contains ? 1.0 : 0.0);
-            double unionScUV = this.union.get(u).get(v) + (contains ? 0.0 : 1.0) + 2.0;
-            value += 2.0*interScUV/unionScUV;
+    @Override
+    protected void innerUpdate(U user, Tuple2od<U> updated, Tuple2od<U> old)
+    {
+        int uIdx = this.overlap.getIdx(user);
+        int delIdx = this.overlap.getIdx(old.v1);
+        int addIdx = this.overlap.getIdx(updated.v1);
 
-            double interScUW = this.intersection.get(u).get(w) - (contains ? 1.0 : 0.0);
-            double unionScUW = this.union.get(u).get(w) - (contains ? 0.0 : 1.0) + 2.0;
-            value += 2.0*interScUW / unionScUW;
-            
-            if(contains)
-            {
-                this.intersection.get(u).put(v, this.intersection.get(u).get(v) + 1.0);
-                this.intersection.get(v).put(u, this.intersection.get(u).get(v));
-                this.intersection.get(u).put(w, this.intersection.get(u).get(w) - 1.0);
-                this.intersection.get(w).put(u, this.intersection.get(u).get(w));
-            }
-            else
+        if(!this.graph.isDirected())
+        {
+            if(this.recs.get(old.v1).contains(user) && this.recs.get(updated.v1).contains(user))
             {
-                this.intersection.get(u).put(v, this.intersection.get(u).get(v) + 1.0);
-                this.intersection.get(v).put(u, this.intersection.get(u).get(v));
-                this.intersection.get(u).put(w, this.intersection.get(u).get(w) - 1.0);
-                this.intersection.get(w).put(u, this.intersection.get(u).get(w));
+                return;
             }
-
-            if(promote)
+            else if(this.recs.get(old.v1).contains(user))
             {
-                this.globalvalue = value/(2.0*this.graph.getEdgeCount()+2.0);
+                delIdx = -1;
             }
-            else
+            else if(this.recs.get(updated.v1).contains(user))
             {
-                this.globalvalue = 1.0 - value/(2.0*this.graph.getEdgeCount()+2.0);
+                addIdx = -1;
             }
         }
-    }
-    
-    
-    /**
-     * Updates the statistics for an undirected graph (deleting the old edge and not adding anyone).
-     * @param u target user
-     * @param updated new recommended user
-     * @param old the old recommended user
-     */
-    private void updateDelete(U u, Tuple2od<U> updated, Tuple2od<U> old)
-    {
+
+        // The stored overlaps are always kept exact, so that the heuristic uses the current values.
+        double local = this.overlap.localDelta(uIdx, delIdx, addIdx);
+        this.overlap.update(uIdx, delIdx, addIdx);
         if(this.mode % 3 == 1)
         {
-            super.update(u, updated, old);
-            this.computeGlobalValue();
+            this.estimate = this.overlap.getSum();
         }
         else
         {
-            U v = old.v1();
-            U w = updated.v1();
-
-
-            if(!intersection.get(u).containsKey(w) || !union.get(u).containsKey(w))
-            {
-                Set<U> uSet = graph.getAdjacentNodes(u).collect(Collectors.toCollection(HashSet::new));
-                Set<U> wSet = graph.getAdjacentNodes(w).collect(Collectors.toCollection(HashSet::new));
-                Set<U> inter = new HashSet<>(uSet);
-                inter.retainAll(wSet);
-
-                Set<U> uni = new HashSet<>(uSet);
-                uni.addAll(wSet);
-
-                this.intersection.get(u).put(w, inter.size() + 0.0);
-                this.union.get(u).put(w, uni.size() + 0.0);
-            }
-
-            double value = 2.0*this.graph.getEdgeCount()*(1.0 - this.globalvalue);
-
-            value -= 2.0*this.intersection.get(u).get(v)/this.union.get(u).get(v);
-            value -= 2.0*this.intersection.get(u).get(w)/this.union.get(u).get(w);
-
-            boolean contains = this.graph.containsEdge(v,w);
-            double interScUW = this.intersection.get(u).get(w) - (contains ? 1.0 : 0.0);
-            double unionScUW = this.union.get(u).get(w) - (contains ? 0.0 : 1.0) + 2.0;
-
-            value += 2.0*interScUW / unionScUW;
-
-            if(contains)
-            {
-                this.intersection.get(u).put(w, this.intersection.get(u).get(w) - 1.0);
-                this.intersection.get(w).put(u, this.intersection.get(u).get(w));
-            }
-            else
-            {
-                this.union.get(u).put(w, this.union.get(u).get(w) - 1.0);
-                this.union.get(w).put(u, this.union.get(u).get(w));
-            }
-            if(promote)
-            {
-                this.globalvalue = value/(2.0*this.graph.getEdgeCount()-2.0);
-            }
-            else
-            {
-                this.globalvalue = 1.0 - value/(2.0*this.graph.getEdgeCount()-2.0);
-            }
+            this.estimate += local;
         }
+        this.globalvalue = this.value(this.estimate, this.overlap.getNumEdges());
     }
 
     @Override
@@ -575,10 +194,8 @@ public abstract class AbstractHeuristicNeighborOverlapReranker<U> extends GraphS
     {
         if(this.mode % 3 == 2)
         {
-            this.computeGlobalValue();
+            this.estimate = this.overlap.getSum();
+            this.globalvalue = this.value(this.estimate, this.overlap.getNumEdges());
         }
-        
     }
-
- 
 }
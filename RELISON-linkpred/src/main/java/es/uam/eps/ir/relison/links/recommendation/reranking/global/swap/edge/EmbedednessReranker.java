@@ -36,4 +36,17 @@ public class EmbedednessReranker<U> extends AbstractNeighborOverlapReranker<U>
         super(lambda, cutOff, norm, graph, true);
     }
 
+    /**
+     * Constructor
+     * @param cutOff    the maximum length of the definitive recommendation rankings.
+     * @param lambda    trade-off between the average embeddedness and the original score.
+     * @param norm      the normalization scheme.
+     * @param graph     the original graph
+     * @param batchSize maximum number of users to rerank in parallel (1 for reranking the users one at a time).
+     */
+    public EmbedednessReranker(double lambda, int cutOff, Supplier<Normalizer<U>> norm, Graph<U> graph, int batchSize)
+    {
+        super(lambda, cutOff, norm, graph, true, batchSize);
+    }
+
 }
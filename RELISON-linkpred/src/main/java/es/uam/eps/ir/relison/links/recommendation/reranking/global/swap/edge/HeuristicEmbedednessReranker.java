@@ -40,4 +40,21 @@ public class HeuristicEmbedednessReranker<U> extends AbstractHeuristicNeighborOv
         super(lambda, cutOff, norm, graph, mode, true);
     }
 
+    /**
+     * Constructor
+     * @param cutOff    the definitive length of the recommendation rankings.
+     * @param lambda    trade-off between the average embeddedness and the original score
+     * @param norm      the normalization scheme.
+     * @param graph     the original graph
+     * @param mode      the execution mode:
+     *                  1) Embededness is corrected any time a swap is done.
+     *                  2) Embededness is corrected every time a user has finished its reranking.
+     *                  3) Embededness is never corrected (only use the heuristic)
+     * @param batchSize maximum number of users to rerank in parallel (1 for reranking the users one at a time).
+     */
+    public HeuristicEmbedednessReranker(double lambda, int cutOff, Supplier<Normalizer<U>> norm, Graph<U> graph, int mode, int batchSize)
+    {
+        super(lambda, cutOff, norm, graph, mode, true, batchSize);
+    }
+
 }
@@ -0,0 +1,631 @@
+/*
+ *  Copyright (C) 2021 Information Retrieval Group at Universidad Autónoma
+ *  de Madrid, http://ir.ii.uam.es
+ *
+ *  This Source Code Form is subject to the terms of the Mozilla Public
+ *  License, v. 2.0. If a copy of the MPL was not distributed with this
+ *  file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package es.uam.eps.ir.relison.links.recommendation.reranking.global.swap.edge;
+
+import es.uam.eps.ir.relison.graph.Graph;
+import it.unimi.dsi.fastutil.ints.IntOpenHashSet;
+import it.unimi.dsi.fastutil.ints.IntSet;
+import it.unimi.dsi.fastutil.longs.Long2IntMap;
+import it.unimi.dsi.fastutil.longs.Long2IntOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import it.unimi.dsi.fastutil.longs.LongSet;
+import it.unimi.dsi.fastutil.objects.Object2IntMap;
+import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
+
+import java.util.stream.Stream;
+
+/**
+ * Int-indexed structure for computing the average neighbor overlap of the edges in a network, and how it changes when
+ * a recommended edge is swapped by another one. For each (ordered) edge (x,y), it stores the number of common neighbors
+ * of the edge (nodes z such that x &rarr; z and z &rarr; y), from which its neighbor overlap is obtained as:
+ * <br>
+ * NO(x,y) = |&Gamma;_out(x) &cap; &Gamma;_in(y)| / (|&Gamma;_out(x) &cup; &Gamma;_in(y)| - 2)
+ * <br>
+ * where the two nodes of the edge are removed from the union. Undirected edges are considered twice, once in each
+ * direction.
+ *
+ * <p>When an edge (a,b) is added or removed, only the overlap of the edges leaving a and the edges entering b
+ * changes, so the effect of a swap is computed by visiting only those edges, in time proportional to the degree of
+ * the involved nodes, instead of the number of edges in the network.</p>
+ *
+ * <p>Evaluating a swap does not modify the structure, so it can be done concurrently, as long as the structure is not
+ * updated at the same time.</p>
+ *
+ * @param <U> type of the users.
+ *
+ * @author Javier Sanz-Cruzado (javier.sanz-cruzado@uam.es)
+ * @author Pablo Castells (pablo.castells@uam.es)
+ */
+class NeighborOverlapIndex<U>
+{
+    /**
+     * Maximum number of arcs modified by a swap.
+     */
+    private static final int MAX_ARCS = 4;
+    /**
+     * Map from users to their identifiers.
+     */
+    private final Object2IntMap<U> uIndex;
+    /**
+     * Whether the network is directed or not.
+     */
+    private final boolean directed;
+    /**
+     * Number of nodes in the network.
+     */
+    private final int numNodes;
+    /**
+     * The outgoing neighborhood of each node.
+     */
+    private final IntSet[] out;
+    /**
+     * The incoming neighborhood of each node (the same sets as the outgoing ones if the network is undirected).
+     */
+    private final IntSet[] in;
+    /**
+     * Number of common neighbors of each (ordered) edge in the network.
+     */
+    private final Long2IntMap intersection;
+    /**
+     * The sum of the neighbor overlap of all the (ordered) edges in the network.
+     */
+    private double sum;
+    /**
+     * The number of (ordered) edges in the network.
+     */
+    private long numEdges;
+
+    /**
+     * Constructor.
+     *
+     * @param graph the network.
+     */
+    NeighborOverlapIndex(Graph<U> graph)
+    {
+        this.directed = graph.isDirected();
+        this.numNodes = Math.toIntExact(graph.getVertexCount());
+        this.uIndex = new Object2IntOpenHashMap<>();
+        this.uIndex.defaultReturnValue(-1);
+        graph.getAllNodes().forEach(u -> uIndex.put(u, uIndex.size()));
+
+        this.out = new IntSet[numNodes];
+        this.in = directed ? new IntSet[numNodes] : out;
+        for (int i = 0; i < numNodes; ++i)
+        {
+            out[i] = new IntOpenHashSet();
+            if (directed)
+            {
+                in[i] = new IntOpenHashSet();
+            }
+        }
+
+        graph.getAllNodes().forEach(u ->
+        {
+            int uIdx = uIndex.getInt(u);
+            graph.getAdjacentNodes(u).forEach(v ->
+            {
+                int vIdx = uIndex.getInt(v);
+                if (uIdx != vIdx)
+                {
+                    out[uIdx].add(vIdx);
+                    in[vIdx].add(uIdx);
+                }
+            });
+        });
+
+        this.intersection = new Long2IntOpenHashMap();
+        this.sum = 0.0;
+        this.numEdges = 0L;
+        for (int x = 0; x < numNodes; ++x)
+        {
+            for (int y : out[x])
+            {
+                int inter = this.count(x, y);
+                intersection.put(this.key(x, y), inter);
+                sum += this.overlap(inter, out[x].size(), in[y].size());
+                ++numEdges;
+            }
+        }
+    }
+
+    /**
+     * Obtains the identifier of a user.
+     *
+     * @param u the user.
+     *
+     * @return the identifier of the user, -1 if it is null or it is not in the network.
+     */
+    int getIdx(U u)
+    {
+        return u == null ? -1 : uIndex.getInt(u);
+    }
+
+    /**
+     * Obtains the neighborhoods which are read or modified when the edges from a user to a set of candidates are
+     * swapped: the outgoing neighborhood of the user, the incoming and outgoing neighborhoods of the candidates, the
+     * incoming neighborhoods of the current neighbors of the user, and the outgoing neighborhoods of the nodes reaching
+     * the candidates. Each neighborhood is identified by a key (2x for the outgoing neighborhood of the node x, 2x+1
+     * for its incoming neighborhood, or 2x for both if the network is undirected).
+     *
+     * @param u          the target user.
+     * @param candidates the candidates.
+     *
+     * @return the keys of the neighborhoods.
+     */
+    LongSet footprint(U u, Stream<U> candidates)
+    {
+        LongSet footprint = new LongOpenHashSet();
+        int uIdx = this.getIdx(u);
+        footprint.add(this.outKey(uIdx));
+        for (int y : out[uIdx])
+        {
+            footprint.add(this.inKey(y));
+        }
+        candidates.mapToInt(this::getIdx).filter(c -> c >= 0).forEach(c ->
+        {
+            footprint.add(this.outKey(c));
+            footprint.add(this.inKey(c));
+            for (int x : in[c])
+            {
+                footprint.add(this.outKey(x));
+            }
+        });
+        return footprint;
+    }
+
+    /**
+     * Obtains the neighborhoods which are read or modified when the edges from a user to a set of candidates are
+     * swapped, and the effect of the swaps is estimated by {@link #localDelta(int, int, int)}: the outgoing
+     * neighborhood of the user and the incoming neighborhoods of the candidates. The rest of the overlaps modified by
+     * a swap are only read by the users sharing some of these neighborhoods.
+     *
+     * @param u          the target user.
+     * @param candidates the candidates.
+     *
+     * @return the keys of the neighborhoods.
+     */
+    LongSet localFootprint(U u, Stream<U> candidates)
+    {
+        LongSet footprint = new LongOpenHashSet();
+        footprint.add(this.outKey(this.getIdx(u)));
+        candidates.mapToInt(this::getIdx).filter(c -> c >= 0).forEach(c -> footprint.add(this.inKey(c)));
+        return footprint;
+    }
+
+    /**
+     * Obtains the key of the outgoing neighborhood of a node.
+     *
+     * @param x the node.
+     *
+     * @return the key.
+     */
+    private long outKey(int x)
+    {
+        return 2L * x;
+    }
+
+    /**
+     * Obtains the key of the incoming neighborhood of a node.
+     *
+     * @param x the node.
+     *
+     * @return the key.
+     */
+    private long inKey(int x)
+    {
+        return directed ? 2L * x + 1 : 2L * x;
+    }
+
+    /**
+     * Obtains the sum of the neighbor overlap of all the edges in the network.
+     *
+     * @return the sum.
+     */
+    double getSum()
+    {
+        return sum;
+    }
+
+    /**
+     * Obtains the number of edges in the network (twice the number of edges if the network is undirected).
+     *
+     * @return the number of edges.
+     */
+    long getNumEdges()
+    {
+        return numEdges;
+    }
+
+    /**
+     * Finds the variation in the number of edges if the edge (u,del) is replaced by (u,add).
+     *
+     * @param u   the target user.
+     * @param del the user whose edge is removed (-1 if none).
+     * @param add the user whose edge is added (-1 if none).
+     *
+     * @return the variation in the number of edges.
+     */
+    int edgeDelta(int u, int del, int add)
+    {
+        Arcs arcs = new Arcs(u, del, add);
+        int delta = 0;
+        for (int i = 0; i < arcs.size; ++i)
+        {
+            delta += arcs.added[i] ? 1 : -1;
+        }
+        return delta;
+    }
+
+    /**
+     * Finds the exact variation of the sum of the neighbor overlaps if the edge (u,del) is replaced by (u,add). Only
+     * the edges leaving or reaching the nodes involved in the swap are visited.
+     *
+     * @param u   the target user.
+     * @param del the user whose edge is removed (-1 if none).
+     * @param add the user whose edge is added (-1 if none).
+     *
+     * @return the variation of the sum.
+     */
+    double delta(int u, int del, int add)
+    {
+        return this.process(new Arcs(u, del, add), false);
+    }
+
+    /**
+     * Estimates the variation of the sum of the neighbor overlaps if the edge (u,del) is replaced by (u,add),
+     * considering only the overlap of the removed and the added edges (i.e. ignoring the changes in the overlap of the
+     * rest of the edges).
+     *
+     * @param u   the target user.
+     * @param del the user whose edge is removed (-1 if none).
+     * @param add the user whose edge is added (-1 if none).
+     *
+     * @return the estimated variation of the sum.
+     */
+    double localDelta(int u, int del, int add)
+    {
+        Arcs arcs = new Arcs(u, del, add);
+        double delta = 0.0;
+        for (int i = 0; i < arcs.size; ++i)
+        {
+            int a = arcs.src[i];
+            int b = arcs.dst[i];
+            if (arcs.added[i])
+            {
+                delta += this.overlap(this.count(a, b), out[a].size() + 1, in[b].size() + 1);
+            }
+            else
+            {
+                delta -= this.overlap(intersection.get(this.key(a, b)), out[a].size(), in[b].size());
+            }
+        }
+        return delta;
+    }
+
+    /**
+     * Replaces the edge (u,del) by the edge (u,add), and updates the stored values.
+     *
+     * @param u   the target user.
+     * @param del the user whose edge is removed (-1 if none).
+     * @param add the user whose edge is added (-1 if none).
+     */
+    void update(int u, int del, int add)
+    {
+        Arcs arcs = new Arcs(u, del, add);
+        this.sum += this.process(arcs, true);
+        for (int i = 0; i < arcs.size; ++i)
+        {
+            int a = arcs.src[i];
+            int b = arcs.dst[i];
+            if (arcs.added[i])
+            {
+                out[a].add(b);
+                in[b].add(a);
+                ++numEdges;
+            }
+            else
+            {
+                out[a].remove(b);
+                in[b].remove(a);
+                --numEdges;
+            }
+        }
+    }
+
+    /**
+     * Computes the variation of the sum of the neighbor overlaps when a set of arcs is modified. Optionally, it stores
+     * the new number of common neighbors of the affected edges (the neighborhoods are not modified).
+     *
+     * @param arcs   the modified arcs.
+     * @param commit true if the stored intersections have to be updated.
+     *
+     * @return the variation of the sum.
+     */
+    private double process(Arcs arcs, boolean commit)
+    {
+        // Find the edges whose overlap changes: those leaving the origin and reaching the destination of a modified arc.
+        LongSet affected = new LongOpenHashSet();
+        for (int i = 0; i < arcs.size; ++i)
+        {
+            int a = arcs.src[i];
+            int b = arcs.dst[i];
+            for (int y : out[a])
+            {
+                affected.add(this.key(a, y));
+            }
+            for (int x : in[b])
+            {
+                affected.add(this.key(x, b));
+            }
+            if (arcs.added[i])
+            {
+                affected.add(this.key(a, b));
+            }
+        }
+
+        Long2IntMap updated = commit ? new Long2IntOpenHashMap() : null;
+        double delta = 0.0;
+        for (long key : affected)
+        {
+            int x = (int) (key / numNodes);
+            int y = (int) (key % numNodes);
+            boolean before = out[x].contains(y);
+            boolean after = arcs.contains(x, y, before);
+            if (before)
+            {
+                delta -= this.overlap(intersection.get(key), out[x].size(), in[y].size());
+            }
+            if (after)
+            {
+                int inter = (before ? intersection.get(key) : this.count(x, y)) + this.correction(arcs, x, y);
+                delta += this.overlap(inter, out[x].size() + arcs.outDelta(x), in[y].size() + arcs.inDelta(y));
+                if (commit)
+                {
+                    updated.put(key, inter);
+                }
+            }
+            else if (commit)
+            {
+                intersection.remove(key);
+            }
+        }
+
+        if (commit)
+        {
+            intersection.putAll(updated);
+        }
+        return delta;
+    }
+
+    /**
+     * Finds the variation in the number of common neighbors of the edge (x,y) after modifying a set of arcs.
+     *
+     * @param arcs the modified arcs.
+     * @param x    the origin of the edge.
+     * @param y    the destination of the edge.
+     *
+     * @return the variation in the number of common neighbors.
+     */
+    private int correction(Arcs arcs, int x, int y)
+    {
+        // Only the nodes z such that (x,z) or (z,y) are modified can change.
+        int[] visited = new int[2 * arcs.size];
+        int numVisited = 0;
+        int delta = 0;
+        for (int i = 0; i < 2 * arcs.size; ++i)
+        {
+            int z = i % 2 == 0 ? (arcs.src[i / 2] == x ? arcs.dst[i / 2] : -1) : (arcs.dst[i / 2] == y ? arcs.src[i / 2] : -1);
+            boolean found = z < 0 || z == x || z == y;
+            for (int j = 0; j < numVisited && !found; ++j)
+            {
+                found = visited[j] == z;
+            }
+
+            if (!found)
+            {
+                visited[numVisited++] = z;
+                boolean xz = out[x].contains(z);
+                boolean zy = out[z].contains(y);
+                boolean before = xz && zy;
+                boolean after = arcs.contains(x, z, xz) && arcs.contains(z, y, zy);
+                delta += (after ? 1 : 0) - (before ? 1 : 0);
+            }
+        }
+        return delta;
+    }
+
+    /**
+     * Counts the number of common neighbors of a pair of nodes in the current network.
+     *
+     * @param x the first node.
+     * @param y the second node.
+     *
+     * @return the number of nodes z such that x &rarr; z and z &rarr; y.
+     */
+    private int count(int x, int y)
+    {
+        IntSet xSet = out[x];
+        IntSet ySet = in[y];
+        if (xSet.size() > ySet.size())
+        {
+            xSet = in[y];
+            ySet = out[x];
+        }
+
+        int count = 0;
+        for (int z : xSet)
+        {
+            if (ySet.contains(z))
+            {
+                ++count;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Computes the neighbor overlap of an edge.
+     *
+     * @param inter  the number of common neighbors of the edge.
+     * @param outDeg the out-degree of the origin of the edge.
+     * @param inDeg  the in-degree of the destination of the edge.
+     *
+     * @return the neighbor overlap of the edge.
+     */
+    private double overlap(int inter, int outDeg, int inDeg)
+    {
+        int union = outDeg + inDeg - inter;
+        return union > 2 ? inter / (union - 2.0) : 0.0;
+    }
+
+    /**
+     * Obtains the key of an ordered pair of nodes.
+     *
+     * @param x the first node.
+     * @param y the second node.
+     *
+     * @return the key.
+     */
+    private long key(int x, int y)
+    {
+        return ((long) x) * numNodes + y;
+    }
+
+    /**
+     * Set of arcs that are added or removed when an edge is swapped. Arcs which are already present in the network are
+     * not added, and arcs which are not present are not removed.
+     */
+    private class Arcs
+    {
+        /**
+         * Origins of the arcs.
+         */
+        private final int[] src = new int[MAX_ARCS];
+        /**
+         * Destinations of the arcs.
+         */
+        private final int[] dst = new int[MAX_ARCS];
+        /**
+         * Whether each arc is added (true) or removed (false).
+         */
+        private final boolean[] added = new boolean[MAX_ARCS];
+        /**
+         * Number of arcs.
+         */
+        private int size = 0;
+
+        /**
+         * Constructor.
+         *
+         * @param u   the target user.
+         * @param del the user whose edge is removed (-1 if none).
+         * @param add the user whose edge is added (-1 if none).
+         */
+        Arcs(int u, int del, int add)
+        {
+            // Replacing an edge by itself does not modify the network.
+            if (u < 0 || (del >= 0 && del == add))
+            {
+                return;
+            }
+            if (del >= 0 && out[u].contains(del))
+            {
+                this.add(u, del, false);
+                if (!directed)
+                {
+                    this.add(del, u, false);
+                }
+            }
+            if (add >= 0 && add != u && !out[u].contains(add))
+            {
+                this.add(u, add, true);
+                if (!directed)
+                {
+                    this.add(add, u, true);
+                }
+            }
+        }
+
+        /**
+         * Adds an arc to the set.
+         *
+         * @param a     the origin of the arc.
+         * @param b     the destination of the arc.
+         * @param isAdd whether the arc is added (true) or removed (false).
+         */
+        private void add(int a, int b, boolean isAdd)
+        {
+            src[size] = a;
+            dst[size] = b;
+            added[size] = isAdd;
+            ++size;
+        }
+
+        /**
+         * Checks whether an arc exists after the modification.
+         *
+         * @param a      the origin of the arc.
+         * @param b      the destination of the arc.
+         * @param before whether the arc exists before the modification.
+         *
+         * @return true if the arc exists after the modification, false otherwise.
+         */
+        private boolean contains(int a, int b, boolean before)
+        {
+            for (int i = 0; i < size; ++i)
+            {
+                if (src[i] == a && dst[i] == b)
+                {
+                    return added[i];
+                }
+            }
+            return before;
+        }
+
+        /**
+         * Finds the variation of the out-degree of a node.
+         *
+         * @param x the node.
+         *
+         * @return the variation of the out-degree.
+         */
+        private int outDelta(int x)
+        {
+            int delta = 0;
+            for (int i = 0; i < size; ++i)
+            {
+                if (src[i] == x)
+                {
+                    delta += added[i] ? 1 : -1;
+                }
+            }
+            return delta;
+        }
+
+        /**
+         * Finds the variation of the in-degree of a node.
+         *
+         * @param y the node.
+         *
+         * @return the variation of the in-degree.
+         */
+        private int inDelta(int y)
+        {
+            int delta = 0;
+            for (int i = 0; i < size; ++i)
+            {
+                if (dst[i] == y)
+                {
+                    delta += added[i] ? 1 : -1;
+                }
+            }
+            return delta;
+        }
+    }
+}
@@ -37,4 +37,17 @@ public class WeaknessReranker<U> extends AbstractNeighborOverlapReranker<U>
         super(lambda, cutOff, norm, graph, false);
     }
 
+    /**
+     * Constructor
+     * @param cutOff    maximum number of edges to consider
+     * @param lambda    trade-off between the average embeddedness and the original score
+     * @param norm      normalization strategy.
+     * @param graph     the original graph
+     * @param batchSize maximum number of users to rerank in parallel (1 for reranking the users one at a time).
+     */
+    public WeaknessReranker(double lambda, int cutOff, Supplier<Normalizer<U>> norm, Graph<U> graph, int batchSize)
+    {
+        super(lambda, cutOff, norm, graph, false, batchSize);
+    }
+
 }
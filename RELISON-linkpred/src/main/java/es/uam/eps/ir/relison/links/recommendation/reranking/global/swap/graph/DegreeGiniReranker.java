@@ -14,19 +14,20 @@ import es.uam.eps.ir.relison.graph.Graph;
 import es.uam.eps.ir.relison.graph.edges.EdgeOrientation;
 import es.uam.eps.ir.relison.links.recommendation.reranking.global.swap.GraphSwapReranker;
 import es.uam.eps.ir.relison.links.recommendation.reranking.normalizer.Normalizer;
-import es.uam.eps.ir.relison.utils.indexes.GiniIndex;
+import it.unimi.dsi.fastutil.objects.Object2IntMap;
+import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
 import org.ranksys.core.util.tuples.Tuple2od;
 
-import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
 import java.util.function.Supplier;
 
-
 /**
  * Optimizes the degree Gini of a graph.
  *
+ * <p>The nodes are kept sorted by degree in int arrays, together with the first position and the number of nodes
+ * with each degree value. When the degree of a node grows (or decreases) by one, it is exchanged with the last (or
+ * first) node with its same degree, so the position of the node, and the variation of the Gini index, are found in
+ * constant time.</p>
+ *
  * @param <U> type of the users.
  *
  * @author Javier Sanz-Cruzado (javier.sanz-cruzado@uam.es)
@@ -35,28 +36,48 @@ import java.util.function.Supplier;
 public class DegreeGiniReranker<U> extends GraphSwapReranker<U>
 {
     /**
-     * Sorted list that contains the degrees of the nodes.
+     * Selected orientation for the Degree Gini
      */
-    private final List<Tuple2od<U>> degrees = new ArrayList<>();
+    private final EdgeOrientation orient;
     /**
-     * Map that contains the positions of the nodes in the degrees list.
+     * Map from users to their identifiers.
      */
-    private final Map<U, Integer> map = new HashMap<>();
+    private Object2IntMap<U> uIndex;
     /**
-     * Selected orientation for the Degree Gini
+     * The degree of each node.
      */
-    private final EdgeOrientation orient;
+    private int[] degrees;
+    /**
+     * The position of each node in the sorted list of nodes.
+     */
+    private int[] positions;
+    /**
+     * The nodes, sorted by degree.
+     */
+    private int[] sorted;
+    /**
+     * The first position of the nodes with each degree value in the sorted list.
+     */
+    private int[] first;
+    /**
+     * The number of nodes with each degree value.
+     */
+    private int[] size;
     /**
      * The total sum of the degrees. Equal to the number of edges in the network
      * if both the graph and the selected orientation are directed, equal to the
      * double in other case.
      */
-    private double sum;
+    private long sum;
+    /**
+     * The value of \sum_{i=1}^|U| (2i - |U| - 1) |\Gamma(u_i)|, where the nodes are sorted by degree.
+     */
+    private long weighted;
     /**
      * Number of nodes.
      */
-    private long count;
-    
+    private int count;
+
     /**
      * Constructor
      * @param lambda    trade-off between the original and novelty score (clustering coefficient).
@@ -68,473 +89,235 @@ public class DegreeGiniReranker<U> extends GraphSwapReranker<U>
     public DegreeGiniReranker(double lambda, int cutOff, Supplier<Normalizer<U>> norm, Graph<U> graph, EdgeOrientation orient)
     {
         super(lambda, cutOff, norm, graph);
-        
         this.orient = orient;
     }
 
     @Override
     protected double novAddDelete(U u, Tuple2od<U> newUser, Tuple2od<U> oldUser)
     {
-        // The out-degree of the node is not modified, so reranking the out-degree will 
+        // The out-degree of the node is not modified, so reranking the out-degree will
         // give the same ranking as a result. It is equivalent to adding 0 to a sum.
-        if(!this.graph.isDirected() || this.orient != EdgeOrientation.OUT)
-        {
-            int userToAdd = this.map.get(newUser.v1);
-            int userToDel = this.map.get(oldUser.v1);
-         
-            // we obtain \sum_{i=1}^|U| (2i - |U| - 1) |\Gamma(u_i)|
-            double value = (1.0-this.globalvalue)*(this.count - 1)*this.sum;
-            
-            // Obtain the updated degree.
-            double degreeToAdd = this.degrees.get(userToAdd).v2 + 1.0;
-            double degreeToDelete = this.degrees.get(userToDel).v2 - 1.0;
-
-            if(degreeToAdd == degreeToDelete + 1.0)
-            {
-                return this.globalvalue;
-            }
-            // Select the position of the new destination node
-            int i;
-            for(i = userToAdd + 1; i < this.degrees.size(); ++i)
-            {
-                if(this.degrees.get(i).v2 >= degreeToAdd)
-                    break;
-            }
-            
-            int posAdd = i-1;
-            
-            // Select the position of the old destination node
-            for(i = userToDel - 1; i >= 0; --i)
-            {
-                if(this.degrees.get(i).v2 <= degreeToDelete)
-                    break;
-            }
-            
-            int posDel = i+1;
-            // We add 1 to posAdd and posDel, since sum starts with 1, not 0
-            return 1.0 - (value + 2.0*((posAdd+1 + this.count - 1)-(posDel+1 + this.count - 1)))/(this.sum*(this.count - 1));          
-        }
-        else // if(this.graph.isDirected() && this.orient == EdgeOrientation.OUT
+        if(this.graph.isDirected() && this.orient == EdgeOrientation.OUT)
         {
             return this.globalvalue;
         }
+        return this.evaluate(this.uIndex.getInt(newUser.v1), 1, this.uIndex.getInt(oldUser.v1), -1);
     }
-    
-    
+
     @Override
     protected double novAdd(U u, Tuple2od<U> newUser, Tuple2od<U> oldUser)
     {
-        int candidate = this.map.get(newUser.v1);
-        int target = this.map.get(u);
-
-        // we obtain \sum_{i=1}^|U| (2i - |U| - 1) |\Gamma(u_i)|
-        double value = (1.0-this.globalvalue)*(this.graph.getVertexCount() - 1)*this.sum;
-
-        // Obtain the updated degree.
-        double candidateDegree = this.degrees.get(candidate).v2 + 1.0;
-        double targetDegree = this.degrees.get(target).v2 + 1.0;
-
-        int i;
-        for(i = candidate + 1; i < this.degrees.size(); ++i)
-        {
-            if(this.degrees.get(i).v2 >= candidateDegree)
-            {
-                break;
-            }
-        }
-
-        int candidateAdd = i - 1;
-        int targetAdd;
-        if(candidateDegree == targetDegree)
-        {
-            targetAdd = i - 2;
-        }
-        else
-        {
-            for(i = target + 1; i < this.degrees.size(); ++i)
-            {
-                if(this.degrees.get(i).v2 >= targetDegree)
-                    break;
-            }
-
-            targetAdd = i - 1;
-        }
-
-        // We add 1 to posAdd and posDel, since sum starts with 1, not 0
-        return 1.0 - (value + 2.0*((targetAdd+1)+(candidateAdd+1)))/((this.sum+2.0)*(this.graph.getVertexCount() - 1));
+        return this.evaluate(this.uIndex.getInt(newUser.v1), 1, this.uIndex.getInt(u), 1);
     }
 
     @Override
     protected double novDelete(U u, Tuple2od<U> newUser, Tuple2od<U> oldUser)
     {
-        int candidate = this.map.get(newUser.v1);
-        int target = this.map.get(u);
-
-        // we obtain \sum_{i=1}^|U| (2i - |U| - 1) |\Gamma(u_i)|
-        double value = (1.0-this.globalvalue)*(this.graph.getVertexCount() - 1)*this.sum;
-
-        // Obtain the updated degree.
-        double candidateDegree = this.degrees.get(candidate).v2 - 1.0;
-        double targetDegree = this.degrees.get(target).v2 - 1.0;
-
-        int i;
-        for(i = candidate - 1; i >= 0; --i)
-        {
-            if(this.degrees.get(i).v2 <= candidateDegree)
-            {
-                break;
-            }
-        }
-
-        int candidateAdd = i + 1;
-        int targetAdd;
-        if(candidateDegree == targetDegree)
-        {
-            targetAdd = i + 2;
-        }
-        else
-        {
-            for(i = target - 1; i >= 0; --i)
-            {
-                if(this.degrees.get(i).v2 <= targetDegree)
-                    break;
-            }
-
-            targetAdd = i + 1;
-        }
-
-        // We add 1 to posAdd and posDel, since sum starts with 1, not 0
-        return 1.0 - (value - 2.0*((targetAdd+1)+(candidateAdd+1)))/((this.sum-2.0)*(this.graph.getVertexCount() - 1));
+        return this.evaluate(this.uIndex.getInt(oldUser.v1), -1, this.uIndex.getInt(u), -1);
     }
 
     @Override
-    protected void computeGlobalValue() 
+    protected void computeGlobalValue()
     {
+        this.count = Math.toIntExact(graph.getVertexCount());
+        this.uIndex = new Object2IntOpenHashMap<>();
+        this.uIndex.defaultReturnValue(-1);
+        graph.getAllNodes().forEach(u -> uIndex.put(u, uIndex.size()));
+
+        this.degrees = new int[count];
         if(graph.isDirected())
         {
             DirectedGraph<U> dgraph = (DirectedGraph<U>) graph;
             switch (this.orient)
             {
-                case IN -> graph.getAllNodes().forEach(u -> degrees.add(new Tuple2od<>(u, dgraph.inDegree(u))));
-                case OUT -> graph.getAllNodes().forEach(u -> degrees.add(new Tuple2od<>(u, dgraph.outDegree(u))));
-                default -> graph.getAllNodes().forEach(u -> degrees.add(new Tuple2od<>(u, dgraph.inDegree(u) + dgraph.outDegree(u))));
+                case IN -> graph.getAllNodes().forEach(u -> degrees[uIndex.getInt(u)] = dgraph.inDegree(u));
+                case OUT -> graph.getAllNodes().forEach(u -> degrees[uIndex.getInt(u)] = dgraph.outDegree(u));
+                default -> graph.getAllNodes().forEach(u -> degrees[uIndex.getInt(u)] = dgraph.inDegree(u) + dgraph.outDegree(u));
             }
         }
         else
         {
-            graph.getAllNodes().forEach(u -> degrees.add(new Tuple2od<>(u, graph.degree(u))));
+            graph.getAllNodes().forEach(u -> degrees[uIndex.getInt(u)] = graph.degree(u));
         }
-        
-        
-        /*
-         * We sort the list containing the degrees.
-         */
-        degrees.sort((x,y) -> 
-        {
-            Double x1 = x.v2;
-            Double y1 = y.v2;
-            return x1.compareTo(y1);
-        });
-        
-        /*
-         * The number of elements is equal to the number of nodes in the network.
-         */
-        this.count = graph.getVertexCount();
-        
 
         /*
-         * store the positions of each user in the list.
+         * Sort the nodes by degree (counting sort). Degrees cannot exceed twice the number of nodes.
          */
-        for(int i = 0; i < degrees.size(); ++i)
+        this.first = new int[2 * count + 2];
+        this.size = new int[2 * count + 2];
+        for(int d : degrees)
         {
-            map.put(degrees.get(i).v1, i);
+            size[d]++;
         }
-        
-        // If the graph is undirected, or the selected orientation is undirected, 
-        // then, each edge in the network is computed twice.
-        if(!this.graph.isDirected() || this.orient.equals(EdgeOrientation.UND))
+        for(int d = 1; d < size.length; ++d)
         {
-            this.sum = 2.0*graph.getEdgeCount();
+            first[d] = first[d - 1] + size[d - 1];
         }
-        else
+
+        this.sorted = new int[count];
+        this.positions = new int[count];
+        int[] next = first.clone();
+        this.sum = 0L;
+        this.weighted = 0L;
+        for(int u = 0; u < count; ++u)
         {
-            this.sum = graph.getEdgeCount();
+            int q = next[degrees[u]]++;
+            sorted[q] = u;
+            positions[u] = q;
+            sum += degrees[u];
+            weighted += (2L * q + 1 - count) * degrees[u];
         }
 
-        GiniIndex gi = new GiniIndex();
-        this.globalvalue =  1.0 - gi.compute(degrees.stream().map(Tuple2od::v2), false, this.count, this.sum);
+        this.globalvalue = this.value(this.weighted, this.sum);
     }
 
     @Override
     protected void update(Recommendation<U, U> reranked)
     {
-        
     }
-    
+
     @Override
     protected void innerUpdate(U user, Tuple2od<U> updated, Tuple2od<U> old)
     {
+        int uIdx = this.uIndex.getInt(user);
+        int updIdx = this.uIndex.getInt(updated.v1);
+        int oldIdx = this.uIndex.getInt(old.v1);
+
         if(this.graph.isDirected())
         {
-            this.globalvalue = newcoef(user, updated, old);
+            if(this.orient == EdgeOrientation.OUT)
+            {
+                return;
+            }
+            this.apply(updIdx, 1);
+            this.apply(oldIdx, -1);
         }
         else if(this.recs.get(old.v1).contains(user) && this.recs.get(updated.v1).contains(user))
         {
-            // do nothing
+            return;
         }
         else if(this.recs.get(old.v1).contains(user))
         {
-            this.globalvalue = newcoefadd(user, updated);
+            this.apply(updIdx, 1);
+            this.apply(uIdx, 1);
         }
-        else if(this.recs   .get(updated.v1).contains(user))
+        else if(this.recs.get(updated.v1).contains(user))
         {
-            this.globalvalue = newcoefdel(user, old);
+            this.apply(oldIdx, -1);
+            this.apply(uIdx, -1);
         }
         else
         {
-            this.globalvalue = newcoef(user, updated, old);
+            this.apply(updIdx, 1);
+            this.apply(oldIdx, -1);
         }
+
+        this.globalvalue = this.value(this.weighted, this.sum);
     }
 
     /**
-     * Updates the parameters, considering that a only new edge is added. Every
-     * edge that enters this function is considered to be undirected.
-     * @param user      the target user.
-     * @param updated   the new candidate user.
-     * @return the new global value.
+     * Computes the value of the metric if the degree of two different nodes changes by one, without modifying
+     * the stored values.
+     * @param a     the first node.
+     * @param da    the variation of the degree of the first node (1 or -1).
+     * @param b     the second node.
+     * @param db    the variation of the degree of the second node (1 or -1).
+     * @return the new value of the metric.
      */
-    private double newcoefadd(U user, Tuple2od<U> updated)
+    private double evaluate(int a, int da, int b, int db)
     {
-        int candidate = this.map.get(updated.v1);
-        int target = this.map.get(user);
-
-        
-        // we obtain \sum_{i=1}^|U| (2i - |U| - 1) |\Gamma(u_i)|
-        double value = (1.0-this.globalvalue)*(this.graph.getVertexCount() - 1)*this.sum;
-
-        // Obtain the updated degree.
-        double candidateDegree = this.degrees.get(candidate).v2 + 1.0;
-        double targetDegree = this.degrees.get(target).v2 + 1.0;
-
-        int i;
-        for(i = candidate + 1; i < this.degrees.size(); ++i)
+        int d = this.degrees[a];
+        int lastD = this.first[d] + this.size[d] - 1;
+        long value = this.weighted + (da > 0 ? (2L * lastD + 1 - count) : -(2L * first[d] + 1 - count));
+
+        // The position where the second node moves takes into account the movement of the first one.
+        int e = this.degrees[b];
+        int q;
+        if(db > 0)
         {
-            if(this.degrees.get(i).v2 >= candidateDegree)
+            q = this.first[e] + this.size[e] - 1;
+            if(da > 0 && e == d)
             {
-                break;
+                q = lastD - 1;
             }
-        }
-
-        int candidateAdd = i - 1;
-        int targetAdd;
-        if(candidateDegree == targetDegree)
-        {
-            targetAdd = i - 2;
+            else if(da < 0 && e == d - 1)
+            {
+                q = this.first[d];
+            }
+            value += 2L * q + 1 - count;
         }
         else
         {
-            for(i = target + 1; i < this.degrees.size(); ++i)
+            q = this.first[e];
+            if(da > 0 && e == d + 1)
             {
-                if(this.degrees.get(i).v2 >= targetDegree)
-                    break;
+                q = lastD;
             }
-
-            targetAdd = i - 1;
+            else if(da < 0 && e == d)
+            {
+                q = this.first[d] + 1;
+            }
+            value -= 2L * q + 1 - count;
         }
-        
-        Tuple2od<U> candidateTuple = new Tuple2od<>(updated.v1, candidateDegree);
-        Tuple2od<U> targetTuple = new Tuple2od<>(user, targetDegree);
-        
-        // Change the position of the old destination node
-        Tuple2od<U> aux = this.degrees.get(candidateAdd);
-        this.degrees.set(candidateAdd, candidateTuple);
-        this.degrees.set(candidate, aux);
-        this.map.put(aux.v1, candidate);
-        this.map.put(updated.v1, candidateAdd);
-        
-        // Change the position of the target user
-        target = this.map.get(user);
-        aux = this.degrees.get(targetAdd);
-        this.degrees.set(targetAdd, targetTuple);
-        this.degrees.set(target, aux);
-        
-        this.map.put(aux.v1, target);
-        this.map.put(user, targetAdd);
 
-        this.sum += 2.0;
-        // We add 1 to posAdd and posDel, since sum starts with 1, not 0
-        return 1.0 - (value + 2.0*((targetAdd+1)+(candidateAdd+1)))/((this.sum)*(this.graph.getVertexCount() - 1));   
+        return this.value(value, this.sum + da + db);
     }
 
     /**
-     * Updates the parameters, considering that a new edge is added, and the old edge is removed.
-     * @param user      the target user.
-     * @param updated   the new candidate user.
-     * @param old       the old candidate user.
-     * @return the new global value.
+     * Changes the degree of a node by one, and updates the sorted list of nodes.
+     * @param a     the node.
+     * @param da    the variation of the degree (1 or -1).
      */
-    private double newcoef(U user, Tuple2od<U> updated, Tuple2od<U> old)
+    private void apply(int a, int da)
     {
-        // The out-degree of the node is not modified, so reranking the out-degree will 
-        // give the same ranking as a result. It is equivalent to adding 0 to a sum.
-        if(!this.graph.isDirected() || this.orient != EdgeOrientation.OUT)
+        int d = this.degrees[a];
+        int q;
+        if(da > 0)
         {
-            int userToAdd = this.map.get(updated.v1);
-            int userToDel = this.map.get(old.v1);
-         
-            // we obtain \sum_{i=1}^|U| (2i - |U| - 1) |\Gamma(u_i)|
-            double value = (1.0-this.globalvalue)*(this.count - 1);
-            
-            // Obtain the updated degree.
-            double degreeToAdd = this.degrees.get(userToAdd).v2 + 1.0;
-            double degreeToDelete = this.degrees.get(userToDel).v2 - 1.0;
-            
-            // Swap the new and old, in case they both occupy the same position.
-            if(degreeToAdd == degreeToDelete + 1)
+            // The node takes the last position of the nodes with its degree.
+            q = this.first[d] + this.size[d] - 1;
+            this.weighted += 2L * q + 1 - count;
+            this.size[d]--;
+            this.first[d + 1] = q;
+            this.size[d + 1]++;
+        }
+        else
+        {
+            // The node takes the first position of the nodes with its degree.
+            q = this.first[d];
+            this.weighted -= 2L * q + 1 - count;
+            this.first[d]++;
+            this.size[d]--;
+            if(this.size[d - 1] == 0)
             {
-                Tuple2od<U> tupleToAdd = new Tuple2od<>(updated.v1, degreeToAdd);
-                Tuple2od<U> tupleToDel = new Tuple2od<>(old.v1, degreeToDelete);
-                
-                this.degrees.set(userToAdd, tupleToDel);
-                this.degrees.set(userToDel, tupleToAdd);
-                
-                this.map.put(updated.v1, userToDel);
-                this.map.put(old.v1, userToAdd);
-                
-                return this.globalvalue;
+                this.first[d - 1] = q;
             }
-            else
-            {
-                int i;
-                // Select the position of the new destination node
-                for(i = userToAdd + 1; i < this.degrees.size(); ++i)
-                {
-                    if(this.degrees.get(i).v2 >= degreeToAdd)
-                        break;
-                }
-                      
-                int posAdd = i-1;
-            
-                // Select the position of the old destination node
-                for(i = userToDel - 1; i >= 0; --i)
-                {
-                    if(this.degrees.get(i).v2 <= degreeToDelete)
-                        break;
-                }
+            this.size[d - 1]++;
+        }
 
-                int posDel = i+1;
-                
+        int p = this.positions[a];
+        int other = this.sorted[q];
+        this.sorted[p] = other;
+        this.positions[other] = p;
+        this.sorted[q] = a;
+        this.positions[a] = q;
 
-                Tuple2od<U> toAddTuple = new Tuple2od<>(updated.v1, degreeToAdd);
-                Tuple2od<U> toDeleteTuple = new Tuple2od<>(old.v1, degreeToDelete);
-                
-                
-                // Change the position of the new destination node
-                
-                if(userToAdd == posAdd)
-                {
-                    this.degrees.set(userToAdd, toAddTuple);
-                }
-                else
-                {
-                    Tuple2od<U> aux = this.degrees.get(posAdd);
-                    this.degrees.set(userToAdd, aux);
-                    this.map.put(aux.v1, userToAdd);
-                    this.degrees.set(posAdd, toAddTuple);
-                    this.map.put(updated.v1, posAdd);
-                }
-                
-                if(userToDel == posDel)
-                {
-                    this.degrees.set(userToDel, toDeleteTuple);
-                }
-                else
-                {
-                    userToDel = this.map.get(old.v1);
-                    Tuple2od<U> aux = this.degrees.get(posDel);
-                    this.degrees.set(userToDel, aux);
-                    this.map.put(aux.v1, userToDel);
-                    this.degrees.set(posDel, toDeleteTuple);
-                    this.map.put(old.v1, posDel);
-                }
-                                
-                // We add 1 to posAdd and posDel, since sum starts with 1, not 0
-                value = 1.0 - (value + 2.0*((posAdd+1)-(posDel+1))/this.sum)/(this.count - 1);
-                return value;
-            }
-        }
-        else // if(this.graph.isDirected() && this.orient == EdgeOrientation.OUT
-        {
-            return this.globalvalue;
-        }  
+        this.degrees[a] += da;
+        this.sum += da;
     }
-    
+
     /**
-     * Updates the parameters, considering that the new edge is not added (only the old is removed.)
-     * @param user  the target user.
-     * @param old   the old candidate user.
-     * @return the new global value.
+     * Obtains the value of the metric (the complement of the degree Gini index).
+     * @param weighted  the value of \sum_{i=1}^|U| (2i - |U| - 1) |\Gamma(u_i)|.
+     * @param sum       the sum of the degrees.
+     * @return the value of the metric.
      */
-    private double newcoefdel(U user, Tuple2od<U> old)
+    private double value(long weighted, long sum)
     {
-        int candidate = this.map.get(old.v1);
-        int target = this.map.get(user);
-
-        // we obtain \sum_{i=1}^|U| (2i - |U| - 1) |\Gamma(u_i)|
-        double value = (1.0-this.globalvalue)*(this.graph.getVertexCount() - 1)*this.sum;
-
-        // Obtain the updated degree.
-        double candidateDegree = this.degrees.get(candidate).v2 - 1.0;
-        double targetDegree = this.degrees.get(target).v2 - 1.0;
-
-        int i;
-        for(i = candidate + 1; i >= 0; --i)
+        if(this.count <= 1 || sum == 0L)
         {
-            if(this.degrees.get(i).v2 <= candidateDegree)
-            {
-                break;
-            }
+            return 1.0;
         }
-
-        int candidateAdd = i + 1;
-        int targetAdd;
-        if(candidateDegree == targetDegree)
-        {
-            targetAdd = i + 2;
-        }
-        else
-        {
-            for(i = target + 1; i >= 0; --i)
-            {
-                if(this.degrees.get(i).v2 <= targetDegree)
-                    break;
-            }
-
-            targetAdd = i + 1;
-        }
-        
-        Tuple2od<U> candidateTuple = new Tuple2od<>(old.v1, candidateDegree);
-        Tuple2od<U> targetTuple = new Tuple2od<>(user, targetDegree);
-        
-        // Change the position of the old destination node
-        Tuple2od<U> aux = this.degrees.get(candidateAdd);
-        this.degrees.set(candidateAdd, candidateTuple);
-        this.degrees.set(candidate, aux);
-        this.map.put(aux.v1, candidate);
-        this.map.put(old.v1, candidateAdd);
-        
-        // Change the position of the target user
-        target = this.map.get(user);
-        aux = this.degrees.get(targetAdd);
-        this.degrees.set(targetAdd, targetTuple);
-        this.degrees.set(target, aux);
-        
-        this.map.put(aux.v1, target);
-        this.map.put(user, targetAdd);
-
-        this.sum -= 2.0;
-        // We add 1 to posAdd and posDel, since sum starts with 1, not 0
-        return 1.0 - (value + 2.0*((targetAdd+1)+(candidateAdd+1)))/((this.sum)*(this.graph.getVertexCount() - 1));    
+        return 1.0 - weighted / ((this.count - 1.0) * sum);
     }
-    
 }
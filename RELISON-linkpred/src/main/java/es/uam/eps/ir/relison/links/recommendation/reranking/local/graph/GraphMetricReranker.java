@@ -8,11 +8,13 @@
  */
 package es.uam.eps.ir.relison.links.recommendation.reranking.local.graph;
 
+import com.rits.cloning.Cloner;
 import es.uam.eps.ir.ranksys.core.Recommendation;
 import es.uam.eps.ir.relison.graph.Graph;
 import es.uam.eps.ir.relison.links.recommendation.reranking.local.LambdaReranker;
 import es.uam.eps.ir.relison.links.recommendation.reranking.normalizer.Normalizer;
 import es.uam.eps.ir.relison.sna.metrics.GraphMetric;
+import es.uam.eps.ir.relison.sna.metrics.IncrementalGraphMetric;
 import org.ranksys.core.util.tuples.Tuple2od;
 
 import java.util.function.Supplier;
@@ -21,6 +23,10 @@ import java.util.function.Supplier;
  * Individual reranker, which reorders a recommendation according to
  * a graph metric.
  *
+ * <p>If the metric is an {@link IncrementalGraphMetric}, the reranker of each user maintains its value as edges are
+ * added, and the value after adding each candidate edge is found by visiting only the surroundings of the edge.
+ * Otherwise, the metric is computed from scratch over a copy of the graph.</p>
+ *
  * @param <U> type of the users
  *
  * @author Javier Sanz-Cruzado (javier.sanz-cruzado@uam.es)
@@ -53,6 +59,15 @@ public abstract class GraphMetricReranker<U> extends LambdaReranker<U,U>
         this.metric = metric;
     }
 
+    /**
+     * Builds the structure maintaining the value of the metric for the reranking of a user.
+     * @return the structure, or null if the metric cannot be incrementally maintained.
+     */
+    protected IncrementalGraphMetric.State<U> initializeState()
+    {
+        return metric instanceof IncrementalGraphMetric ? ((IncrementalGraphMetric<U>) metric).initialize(this.graph) : null;
+    }
+
     /**
      * The user reranker.
      */
@@ -67,6 +82,11 @@ public abstract class GraphMetricReranker<U> extends LambdaReranker<U,U>
          * The graph metric
          */
         protected final GraphMetric<U> metric;
+        /**
+         * The structure maintaining the value of the metric (null if the metric cannot be incrementally maintained).
+         */
+        protected final IncrementalGraphMetric.State<U> state;
+
         /**
          * Constructor.
          * @param recommendation    the recommendation to rerank.
@@ -75,11 +95,44 @@ public abstract class GraphMetricReranker<U> extends LambdaReranker<U,U>
          * @param metric            the metric to promote.
          */
         public GraphMetricUserReranker(Recommendation<U, U> recommendation, int maxLength, Graph<U> graph, GraphMetric<U> metric)
+        {
+            this(recommendation, maxLength, graph, metric, null);
+        }
+
+        /**
+         * Constructor.
+         * @param recommendation    the recommendation to rerank.
+         * @param maxLength         the maximum length of the definitive ranking.
+         * @param graph             the network.
+         * @param metric            the metric to promote.
+         * @param state             the structure maintaining the value of the metric (null if the metric is computed
+         *                          over the network, which is then modified by the reranker).
+         */
+        public GraphMetricUserReranker(Recommendation<U, U> recommendation, int maxLength, Graph<U> graph, GraphMetric<U> metric, IncrementalGraphMetric.State<U> state)
         {
             super(recommendation, maxLength);
             this.graph = graph;
             this.metric = metric;
-            
+            this.state = state;
+        }
+
+        /**
+         * Obtains the value of the metric if an edge from the target user is added to the graph.
+         * @param item the destination of the edge.
+         * @return the value of the metric.
+         */
+        protected double value(U item)
+        {
+            U user = recommendation.getUser();
+            if(this.state != null)
+            {
+                return this.state.getValue() + this.state.addEdgeDelta(user, item);
+            }
+
+            Cloner cloner = new Cloner();
+            Graph<U> cloneGraph = cloner.deepClone(this.graph);
+            cloneGraph.addEdge(user, item);
+            return metric.compute(cloneGraph);
         }
 
         @Override
@@ -87,8 +140,15 @@ public abstract class GraphMetricReranker<U> extends LambdaReranker<U,U>
         {
             U user = recommendation.getUser();
             U item = bestItemValue.v1;
-            
-            this.graph.addEdge(user, item);
+
+            if(this.state != null)
+            {
+                this.state.addEdge(user, item);
+            }
+            else
+            {
+                this.graph.addEdge(user, item);
+            }
         }
         
     }
@@ -13,6 +13,7 @@ import es.uam.eps.ir.ranksys.core.Recommendation;
 import es.uam.eps.ir.relison.graph.Graph;
 import es.uam.eps.ir.relison.links.recommendation.reranking.normalizer.Normalizer;
 import es.uam.eps.ir.relison.sna.metrics.GraphMetric;
+import es.uam.eps.ir.relison.sna.metrics.IncrementalGraphMetric;
 import org.ranksys.core.util.tuples.Tuple2od;
 
 import java.util.function.Supplier;
@@ -43,8 +44,14 @@ public class InverseGraphMetricReranker<U> extends GraphMetricReranker<U>
 
     @Override
     protected GreedyUserReranker<U, U> getUserReranker(Recommendation<U, U> recommendation, int maxLength) {
+        // With an incremental metric, the graph is only read, so it does not need to be copied.
+        IncrementalGraphMetric.State<U> state = this.initializeState();
+        if(state != null)
+        {
+            return new DirectGraphMetricUserReranker(recommendation, maxLength, this.graph, this.metric, state);
+        }
         Cloner cloner = new Cloner();
-        return new DirectGraphMetricUserReranker(recommendation, maxLength, cloner.deepClone(this.graph), this.metric);
+        return new DirectGraphMetricUserReranker(recommendation, maxLength, cloner.deepClone(this.graph), this.metric, null);
     }
 
     /**
@@ -58,21 +65,17 @@ public class InverseGraphMetricReranker<U> extends GraphMetricReranker<U>
          * @param maxLength         the maximum length of the definitive ranking.
          * @param graph             the network.
          * @param metric            the metric to promote.
+         * @param state             the structure maintaining the value of the metric (null if the metric is computed
+         *                          over the network, which is then modified by the reranker).
          */
-        public DirectGraphMetricUserReranker(Recommendation<U, U> recommendation, int maxLength, Graph<U> graph, GraphMetric<U> metric) 
+        public DirectGraphMetricUserReranker(Recommendation<U, U> recommendation, int maxLength, Graph<U> graph, GraphMetric<U> metric, IncrementalGraphMetric.State<U> state)
         {
-            super(recommendation, maxLength, graph, metric);
+            super(recommendation, maxLength, graph, metric, state);
         }
 
         @Override
         protected double nov(Tuple2od<U> iv) {
-            U user = recommendation.getUser();
-            U item = iv.v1;
-            
-            Cloner cloner = new Cloner();
-            Graph<U> cloneGraph = cloner.deepClone(this.graph);
-            cloneGraph.addEdge(user, item);
-            return -metric.compute(cloneGraph);
+            return -this.value(iv.v1);
         }
         
     }
@@ -0,0 +1,193 @@
+/*
+ *  Copyright (C) 2021 Information Retrieval Group at Universidad Autónoma
+ *  de Madrid, http://ir.ii.uam.es
+ *
+ *  This Source Code Form is subject to the terms of the Mozilla Public
+ *  License, v. 2.0. If a copy of the MPL was not distributed with this
+ *  file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package es.uam.eps.ir.relison.links.recommendation.reranking.global.swap;
+
+import es.uam.eps.ir.ranksys.core.Recommendation;
+import es.uam.eps.ir.relison.links.recommendation.reranking.normalizer.Normalizers;
+import org.junit.Test;
+import org.ranksys.core.util.tuples.Tuple2od;
+
+import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks that reranking the users in parallel batches produces the same rankings as reranking them one at a time,
+ * when the metric only depends on the footprints of the users, and these are disjoint.
+ *
+ * @author Javier Sanz-Cruzado (javier.sanz-cruzado@uam.es)
+ * @author Pablo Castells (pablo.castells@uam.es)
+ */
+public class SwapRerankerTest
+{
+    /**
+     * Number of users.
+     */
+    private static final int NUM_USERS = 300;
+    /**
+     * Number of candidate items for each user.
+     */
+    private static final int NUM_ITEMS = 20;
+    /**
+     * Number of recommended items for each user.
+     */
+    private static final int CUTOFF = 5;
+    /**
+     * Number of classes of items.
+     */
+    private static final int NUM_CLASSES = 4;
+
+    /**
+     * Reranker which maximizes the number of different classes of items in the top-k of each user, so the novelty of
+     * a swap only depends on the previous swaps of the same user (its footprint).
+     */
+    private static class DiversityReranker extends SwapLambdaReranker<Long, Long>
+    {
+        /**
+         * The current top-k items of each user.
+         */
+        private final Map<Long, Set<Long>> tops = new HashMap<>();
+        /**
+         * Number of applied swaps.
+         */
+        private final AtomicInteger numSwaps = new AtomicInteger();
+        /**
+         * Number of applied swaps for each user.
+         */
+        private final Map<Long, Integer> swapsPerUser = new HashMap<>();
+
+        /**
+         * Constructor.
+         *
+         * @param recs      the recommendations to rerank.
+         * @param batchSize maximum number of users to rerank in parallel.
+         */
+        DiversityReranker(List<Recommendation<Long, Long>> recs, int batchSize)
+        {
+            super(0.5, CUTOFF, Normalizers.noNorm(), batchSize);
+            for (Recommendation<Long, Long> rec : recs)
+            {
+                tops.put(rec.getUser(), rec.getItems().stream().limit(CUTOFF).map(Tuple2od::v1).collect(Collectors.toCollection(HashSet::new)));
+            }
+        }
+
+        /**
+         * Counts the different classes of items in a set.
+         *
+         * @param items the items.
+         *
+         * @return the number of classes.
+         */
+        private static long classes(Collection<Long> items)
+        {
+            return items.stream().mapToLong(item -> item % NUM_CLASSES).distinct().count();
+        }
+
+        @Override
+        protected double nov(Long u, Tuple2od<Long> newValue, Tuple2od<Long> oldValue)
+        {
+            // Variation of the number of classes (keeping the item has novelty globalvalue = 0).
+            Set<Long> top = new HashSet<>(tops.get(u));
+            long before = classes(top);
+            top.remove(oldValue.v1);
+            top.add(newValue.v1);
+            return classes(top) - before;
+        }
+
+        @Override
+        protected void update(Long user, Tuple2od<Long> updated, Tuple2od<Long> old)
+        {
+            tops.get(user).remove(old.v1);
+            tops.get(user).add(updated.v1);
+            numSwaps.incrementAndGet();
+            swapsPerUser.merge(user, 1, Integer::sum);
+        }
+
+        @Override
+        protected void update(Recommendation<Long, Long> reranked)
+        {
+        }
+    }
+
+    /**
+     * Generates the recommendations. The candidates of each user are not recommended to any other user, so the
+     * footprints are disjoint. The top-k items tend to belong to few classes.
+     *
+     * @param seed the random seed.
+     *
+     * @return the recommendations.
+     */
+    private static List<Recommendation<Long, Long>> recommendations(long seed)
+    {
+        Random rnd = new Random(seed);
+        List<Recommendation<Long, Long>> recs = new ArrayList<>();
+        for (long u = 0; u < NUM_USERS; ++u)
+        {
+            List<Tuple2od<Long>> items = new ArrayList<>();
+            for (int j = 0; j < NUM_ITEMS; ++j)
+            {
+                int itemClass = j < CUTOFF ? rnd.nextInt(2) : rnd.nextInt(NUM_CLASSES);
+                long item = NUM_USERS + NUM_CLASSES * (u * NUM_ITEMS + j) + itemClass;
+                items.add(new Tuple2od<>(item, 1.0 - j * 0.01 + rnd.nextDouble() * 0.01));
+            }
+            recs.add(new Recommendation<>(u, items));
+        }
+        return recs;
+    }
+
+    /**
+     * Reranks the recommendations.
+     *
+     * @param reranker the reranker.
+     * @param recs     the recommendations.
+     *
+     * @return the reranked top-k items of each user, in order.
+     */
+    private static Map<Long, List<Long>> rerank(SwapReranker<Long, Long> reranker, List<Recommendation<Long, Long>> recs)
+    {
+        return reranker.rerankRecommendations(recs.stream(), NUM_ITEMS).collect(Collectors.toMap(Recommendation::getUser, rec ->
+                rec.getItems().stream().map(Tuple2od::v1).collect(Collectors.toList())));
+    }
+
+    @Test
+    public void disjointFootprints()
+    {
+        List<Recommendation<Long, Long>> recs = recommendations(0);
+        DiversityReranker sequential = new DiversityReranker(recs, 1);
+        Map<Long, List<Long>> expected = rerank(sequential, recs);
+
+        // Users swap several items, so later swaps depend on the previous ones.
+        assertTrue(sequential.swapsPerUser.values().stream().filter(count -> count > 1).count() > NUM_USERS / 10);
+
+        for (int batchSize : new int[]{2, 7, 64, NUM_USERS})
+        {
+            DiversityReranker batched = new DiversityReranker(recs, batchSize);
+            assertEquals("batch size " + batchSize, expected, rerank(batched, recs));
+            assertEquals("batch size " + batchSize, sequential.numSwaps.get(), batched.numSwaps.get());
+            assertEquals("batch size " + batchSize, sequential.tops, batched.tops);
+        }
+    }
+
+    @Test
+    public void deterministic()
+    {
+        // Users share candidates, so they are divided into more batches. The outcome does not depend on the threads.
+        List<Recommendation<Long, Long>> recs = recommendations(1).stream().map(rec -> new Recommendation<>(rec.getUser(),
+                rec.getItems().stream().map(item -> new Tuple2od<>(item.v1 % (NUM_CLASSES * 50), item.v2)).collect(Collectors.toList())))
+                .collect(Collectors.toList());
+
+        Map<Long, List<Long>> first = rerank(new DiversityReranker(recs, 16), recs);
+        for (int i = 0; i < 5; ++i)
+        {
+            assertEquals(first, rerank(new DiversityReranker(recs, 16), recs));
+        }
+    }
+}
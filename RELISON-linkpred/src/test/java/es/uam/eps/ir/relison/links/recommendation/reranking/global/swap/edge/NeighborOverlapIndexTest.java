@@ -0,0 +1,181 @@
+/*
+ *  Copyright (C) 2021 Information Retrieval Group at Universidad Autónoma
+ *  de Madrid, http://ir.ii.uam.es
+ *
+ *  This Source Code Form is subject to the terms of the Mozilla Public
+ *  License, v. 2.0. If a copy of the MPL was not distributed with this
+ *  file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package es.uam.eps.ir.relison.links.recommendation.reranking.global.swap.edge;
+
+import es.uam.eps.ir.relison.graph.Graph;
+import es.uam.eps.ir.relison.graph.edges.EdgeOrientation;
+import es.uam.eps.ir.relison.graph.fast.FastDirectedUnweightedGraph;
+import es.uam.eps.ir.relison.graph.fast.FastUndirectedUnweightedGraph;
+import es.uam.eps.ir.relison.sna.metrics.pair.Embededness;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Checks the incremental computation of the neighbor overlap of the edges in a network against its computation from
+ * scratch, over random networks and random swaps of edges.
+ *
+ * @author Javier Sanz-Cruzado (javier.sanz-cruzado@uam.es)
+ * @author Pablo Castells (pablo.castells@uam.es)
+ */
+public class NeighborOverlapIndexTest
+{
+    /**
+     * Number of users in the network.
+     */
+    private static final int NUM_USERS = 40;
+    /**
+     * Number of swaps to check.
+     */
+    private static final int NUM_SWAPS = 400;
+    /**
+     * Tolerance for the comparison of sums of overlaps.
+     */
+    private static final double EPSILON = 1E-9;
+
+    /**
+     * Builds a random network.
+     *
+     * @param seed     the random seed.
+     * @param directed whether the network is directed.
+     *
+     * @return the network.
+     */
+    private static Graph<Long> graph(long seed, boolean directed)
+    {
+        Random rnd = new Random(seed);
+        Graph<Long> graph = directed ? new FastDirectedUnweightedGraph<>() : new FastUndirectedUnweightedGraph<>();
+        for (long i = 0; i < NUM_USERS; ++i)
+        {
+            graph.addNode(i);
+        }
+        for (int i = 0; i < 4 * NUM_USERS; ++i)
+        {
+            long u = rnd.nextInt(NUM_USERS);
+            long v = rnd.nextInt(NUM_USERS);
+            if (u != v && !graph.containsEdge(u, v))
+            {
+                graph.addEdge(u, v);
+            }
+        }
+        return graph;
+    }
+
+    /**
+     * Computes, from scratch, the sum of the neighbor overlap of all the edges in the network (each undirected edge,
+     * once in each direction). The overlap of each edge is the embeddedness metric, which removes the two nodes of
+     * the edge from their neighborhoods, except for edges whose nodes have no other neighbor, whose overlap is zero.
+     *
+     * @param graph the network.
+     *
+     * @return the sum of the neighbor overlaps.
+     */
+    private static double sum(Graph<Long> graph)
+    {
+        Embededness<Long> emb = new Embededness<>(EdgeOrientation.OUT, EdgeOrientation.IN);
+        double sum = 0.0;
+        for (long x : graph.getAllNodes().collect(Collectors.toList()))
+        {
+            for (long y : graph.getNeighbourhood(x, EdgeOrientation.OUT).collect(Collectors.toList()))
+            {
+                boolean isolated = graph.getNeighbourhood(x, EdgeOrientation.OUT).allMatch(z -> z == y) && graph.getNeighbourhood(y, EdgeOrientation.IN).allMatch(z -> z == x);
+                sum += isolated ? 0.0 : emb.compute(graph, x, y);
+            }
+        }
+        return sum;
+    }
+
+    /**
+     * Counts the edges in the network (each undirected edge, once in each direction).
+     *
+     * @param graph the network.
+     *
+     * @return the number of edges.
+     */
+    private static long numEdges(Graph<Long> graph)
+    {
+        return graph.isDirected() ? graph.getEdgeCount() : 2L * graph.getEdgeCount();
+    }
+
+    /**
+     * Applies random swaps to a network, and checks, before each one, the predicted variations, and, after it, the
+     * updated values.
+     *
+     * @param seed     the random seed.
+     * @param directed whether the network is directed.
+     */
+    private static void check(long seed, boolean directed)
+    {
+        Random rnd = new Random(seed);
+        Graph<Long> graph = graph(seed, directed);
+        NeighborOverlapIndex<Long> index = new NeighborOverlapIndex<>(graph);
+        assertEquals(sum(graph), index.getSum(), EPSILON);
+        assertEquals(numEdges(graph), index.getNumEdges());
+
+        for (int i = 0; i < NUM_SWAPS; ++i)
+        {
+            long u = rnd.nextInt(NUM_USERS);
+            List<Long> neighbors = graph.getNeighbourhood(u, EdgeOrientation.OUT).collect(Collectors.toList());
+
+            // Mostly, existing edges are replaced by new ones, but there are also pure additions and removals, and
+            // swaps which do not modify the network.
+            Long del = neighbors.isEmpty() || rnd.nextInt(10) == 0 ? null : neighbors.get(rnd.nextInt(neighbors.size()));
+            Long add = rnd.nextInt(10) == 0 ? null : (long) rnd.nextInt(NUM_USERS);
+
+            int uIdx = index.getIdx(u);
+            int delIdx = index.getIdx(del);
+            int addIdx = index.getIdx(add);
+
+            double before = sum(graph);
+            long edgesBefore = numEdges(graph);
+            double delta = index.delta(uIdx, delIdx, addIdx);
+            int edgeDelta = index.edgeDelta(uIdx, delIdx, addIdx);
+
+            if (del != null)
+            {
+                graph.removeEdge(u, del);
+            }
+            if (add != null && add != u && !graph.containsEdge(u, add))
+            {
+                graph.addEdge(u, add);
+            }
+            double after = sum(graph);
+
+            String message = "swap " + i + ": " + u + " (" + del + " -> " + add + ")";
+            assertEquals(message, after - before, delta, EPSILON);
+            assertEquals(message, numEdges(graph) - edgesBefore, edgeDelta);
+
+            index.update(uIdx, delIdx, addIdx);
+            assertEquals(message, after, index.getSum(), EPSILON);
+            assertEquals(message, numEdges(graph), index.getNumEdges());
+        }
+    }
+
+    @Test
+    public void directed()
+    {
+        for (long seed = 0; seed < 3; ++seed)
+        {
+            check(seed, true);
+        }
+    }
+
+    @Test
+    public void undirected()
+    {
+        for (long seed = 0; seed < 3; ++seed)
+        {
+            check(seed, false);
+        }
+    }
+}
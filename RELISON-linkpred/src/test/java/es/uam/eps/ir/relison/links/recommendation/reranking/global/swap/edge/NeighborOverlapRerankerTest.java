@@ -0,0 +1,170 @@
+/*
+ *  Copyright (C) 2021 Information Retrieval Group at Universidad Autónoma
+ *  de Madrid, http://ir.ii.uam.es
+ *
+ *  This Source Code Form is subject to the terms of the Mozilla Public
+ *  License, v. 2.0. If a copy of the MPL was not distributed with this
+ *  file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package es.uam.eps.ir.relison.links.recommendation.reranking.global.swap.edge;
+
+import es.uam.eps.ir.ranksys.core.Recommendation;
+import es.uam.eps.ir.relison.graph.Graph;
+import es.uam.eps.ir.relison.graph.fast.FastDirectedUnweightedGraph;
+import es.uam.eps.ir.relison.graph.fast.FastUndirectedUnweightedGraph;
+import es.uam.eps.ir.relison.links.recommendation.reranking.global.swap.GraphSwapReranker;
+import es.uam.eps.ir.relison.links.recommendation.reranking.normalizer.Normalizers;
+import org.junit.Test;
+import org.ranksys.core.util.tuples.Tuple2od;
+
+import java.util.*;
+import java.util.function.BiFunction;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks that reranking the users of a directed network in parallel batches with the neighbor overlap rerankers
+ * produces the same rankings as reranking them one at a time, even when the candidates of the users are shared.
+ *
+ * @author Javier Sanz-Cruzado (javier.sanz-cruzado@uam.es)
+ * @author Pablo Castells (pablo.castells@uam.es)
+ */
+public class NeighborOverlapRerankerTest
+{
+    /**
+     * Number of users in the network.
+     */
+    private static final int NUM_USERS = 100;
+    /**
+     * Number of candidates for each user.
+     */
+    private static final int NUM_ITEMS = 15;
+    /**
+     * Number of recommended users for each user.
+     */
+    private static final int CUTOFF = 5;
+    /**
+     * Batch sizes to compare with the sequential execution.
+     */
+    private static final int[] BATCH_SIZES = {2, 8, 64};
+
+    /**
+     * Builds a random network.
+     *
+     * @param directed whether the network is directed.
+     *
+     * @return the network.
+     */
+    private static Graph<Long> graph(boolean directed)
+    {
+        Random rnd = new Random(0);
+        Graph<Long> graph = directed ? new FastDirectedUnweightedGraph<>() : new FastUndirectedUnweightedGraph<>();
+        for (long i = 0; i < NUM_USERS; ++i)
+        {
+            graph.addNode(i);
+        }
+        for (int i = 0; i < 8 * NUM_USERS; ++i)
+        {
+            long u = rnd.nextInt(NUM_USERS);
+            long v = rnd.nextInt(NUM_USERS);
+            if (u != v && !graph.containsEdge(u, v))
+            {
+                graph.addEdge(u, v);
+            }
+        }
+        return graph;
+    }
+
+    /**
+     * Generates, for each user, a ranking of users it is not connected to, scored at random.
+     *
+     * @param graph the network.
+     *
+     * @return the recommendations.
+     */
+    private static List<Recommendation<Long, Long>> recommendations(Graph<Long> graph)
+    {
+        Random rnd = new Random(1);
+        List<Recommendation<Long, Long>> recs = new ArrayList<>();
+        for (long u = 0; u < NUM_USERS; ++u)
+        {
+            Set<Long> candidates = new LinkedHashSet<>();
+            while (candidates.size() < NUM_ITEMS)
+            {
+                long v = rnd.nextInt(NUM_USERS);
+                if (v != u && !graph.containsEdge(u, v))
+                {
+                    candidates.add(v);
+                }
+            }
+            List<Tuple2od<Long>> items = new ArrayList<>();
+            for (long v : candidates)
+            {
+                items.add(new Tuple2od<>(v, rnd.nextDouble()));
+            }
+            items.sort((x, y) -> Double.compare(y.v2, x.v2));
+            recs.add(new Recommendation<>(u, items));
+        }
+        return recs;
+    }
+
+    /**
+     * Reranks the recommendations over a fresh copy of the network, since rerankers modify it.
+     *
+     * @param reranker  builds the reranker from the network and the batch size.
+     * @param batchSize maximum number of users to rerank in parallel.
+     *
+     * @return the reranked top-k users of each user, in order.
+     */
+    private static Map<Long, List<Long>> rerank(BiFunction<Graph<Long>, Integer, GraphSwapReranker<Long>> reranker, int batchSize)
+    {
+        Graph<Long> graph = graph(true);
+        List<Recommendation<Long, Long>> recs = recommendations(graph);
+        return reranker.apply(graph, batchSize).rerankRecommendations(recs.stream(), NUM_ITEMS).collect(Collectors.toMap(Recommendation::getUser, rec ->
+                rec.getItems().stream().limit(CUTOFF).map(Tuple2od::v1).collect(Collectors.toList())));
+    }
+
+    /**
+     * Checks that a reranker produces the same rankings when the users are reranked in parallel.
+     *
+     * @param name     the name of the reranker.
+     * @param reranker builds the reranker from the network and the batch size.
+     */
+    private static void check(String name, BiFunction<Graph<Long>, Integer, GraphSwapReranker<Long>> reranker)
+    {
+        Map<Long, List<Long>> sequential = rerank(reranker, 1);
+
+        // The reranker modifies a good number of the rankings.
+        Graph<Long> graph = graph(true);
+        Map<Long, List<Long>> original = recommendations(graph).stream().collect(Collectors.toMap(Recommendation::getUser, rec ->
+                rec.getItems().stream().limit(CUTOFF).map(Tuple2od::v1).collect(Collectors.toList())));
+        assertTrue(name, original.keySet().stream().filter(u -> !original.get(u).equals(sequential.get(u))).count() > NUM_USERS / 10);
+
+        for (int batchSize : BATCH_SIZES)
+        {
+            assertEquals(name + ", batch size " + batchSize, sequential, rerank(reranker, batchSize));
+        }
+    }
+
+    @Test
+    public void directed()
+    {
+        check("embeddedness", (graph, batch) -> new EmbedednessReranker<>(0.5, CUTOFF, Normalizers.zscore(), graph, batch));
+        check("weakness", (graph, batch) -> new WeaknessReranker<>(0.5, CUTOFF, Normalizers.zscore(), graph, batch));
+        for (int mode = 1; mode <= 3; ++mode)
+        {
+            int auxMode = mode;
+            check("heuristic embeddedness, mode " + mode, (graph, batch) -> new HeuristicEmbedednessReranker<>(0.5, CUTOFF, Normalizers.zscore(), graph, auxMode, batch));
+            check("heuristic weakness, mode " + mode, (graph, batch) -> new HeuristicWeaknessReranker<>(0.5, CUTOFF, Normalizers.zscore(), graph, auxMode, batch));
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void undirected()
+    {
+        // In undirected networks, the novelty of a swap depends on the rankings of the candidates.
+        new EmbedednessReranker<>(0.5, CUTOFF, Normalizers.zscore(), graph(false), 8);
+    }
+}
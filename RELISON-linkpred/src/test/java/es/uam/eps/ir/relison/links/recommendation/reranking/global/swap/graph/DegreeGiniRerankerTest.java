@@ -0,0 +1,265 @@
+/*
+ *  Copyright (C) 2021 Information Retrieval Group at Universidad Autónoma
+ *  de Madrid, http://ir.ii.uam.es
+ *
+ *  This Source Code Form is subject to the terms of the Mozilla Public
+ *  License, v. 2.0. If a copy of the MPL was not distributed with this
+ *  file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package es.uam.eps.ir.relison.links.recommendation.reranking.global.swap.graph;
+
+import es.uam.eps.ir.relison.graph.Graph;
+import es.uam.eps.ir.relison.graph.edges.EdgeOrientation;
+import es.uam.eps.ir.relison.graph.fast.FastDirectedUnweightedGraph;
+import es.uam.eps.ir.relison.graph.fast.FastUndirectedUnweightedGraph;
+import org.junit.Test;
+import org.ranksys.core.util.tuples.Tuple2od;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Checks the incremental computation of the degree Gini complement in the swap reranker against its computation from
+ * scratch, over random networks and random swaps of recommended edges.
+ *
+ * @author Javier Sanz-Cruzado (javier.sanz-cruzado@uam.es)
+ * @author Pablo Castells (pablo.castells@uam.es)
+ */
+public class DegreeGiniRerankerTest
+{
+    /**
+     * Number of users in the network.
+     */
+    private static final int NUM_USERS = 30;
+    /**
+     * Number of recommended users for each target user.
+     */
+    private static final int CUTOFF = 3;
+    /**
+     * Number of swaps to check.
+     */
+    private static final int NUM_SWAPS = 500;
+
+    /**
+     * Reranker which gives access to the swaps and the state of the degree Gini reranker.
+     */
+    private static class TestReranker extends DegreeGiniReranker<Long>
+    {
+        /**
+         * Constructor.
+         *
+         * @param graph  the network.
+         * @param orient the orientation for selecting the degree.
+         */
+        TestReranker(Graph<Long> graph, EdgeOrientation orient)
+        {
+            super(0.5, CUTOFF, null, graph, orient);
+        }
+
+        /**
+         * Adds the recommended edges to the network, and computes the initial value of the metric, as it is done
+         * before reranking.
+         *
+         * @param recommended the recommended users for each target user.
+         */
+        void init(Map<Long, List<Long>> recommended)
+        {
+            recommended.forEach((u, vs) ->
+            {
+                recs.put(u, new HashSet<>());
+                for (long v : vs)
+                {
+                    graph.addEdge(u, v);
+                    recs.get(u).add(v);
+                }
+            });
+            this.computeGlobalValue();
+        }
+
+        /**
+         * Predicts the value of the metric after a swap.
+         *
+         * @param u   the target user.
+         * @param add the user which enters the recommendation.
+         * @param del the user which leaves the recommendation.
+         *
+         * @return the predicted value.
+         */
+        double predict(long u, long add, long del)
+        {
+            return this.nov(u, new Tuple2od<>(add, 0.0), new Tuple2od<>(del, 0.0));
+        }
+
+        /**
+         * Applies a swap.
+         *
+         * @param u   the target user.
+         * @param add the user which enters the recommendation.
+         * @param del the user which leaves the recommendation.
+         */
+        void swap(long u, long add, long del)
+        {
+            this.update(u, new Tuple2od<>(add, 0.0), new Tuple2od<>(del, 0.0));
+        }
+
+        /**
+         * Obtains the current value of the metric.
+         *
+         * @return the value.
+         */
+        double getValue()
+        {
+            return this.globalvalue;
+        }
+
+        /**
+         * Obtains the current network (the original one plus the recommended edges).
+         *
+         * @return the network.
+         */
+        Graph<Long> getGraph()
+        {
+            return this.graph;
+        }
+
+        /**
+         * Obtains the recommended users for a target user.
+         *
+         * @param u the target user.
+         *
+         * @return the recommended users.
+         */
+        Set<Long> getRecs(long u)
+        {
+            return this.recs.get(u);
+        }
+    }
+
+    /**
+     * Computes, from scratch, the complement of the Gini index of the degree distribution, sorting the degrees.
+     *
+     * @param graph  the network.
+     * @param orient the orientation for selecting the degree.
+     *
+     * @return the value of the metric.
+     */
+    private static double gini(Graph<Long> graph, EdgeOrientation orient)
+    {
+        long[] degrees = graph.getAllNodes().mapToLong(u -> graph.isDirected() ? graph.degree(u, orient) : graph.degree(u)).sorted().toArray();
+        int n = degrees.length;
+        long sum = 0L;
+        long weighted = 0L;
+        for (int i = 0; i < n; ++i)
+        {
+            sum += degrees[i];
+            weighted += (2L * (i + 1) - n - 1) * degrees[i];
+        }
+        if (n <= 1 || sum == 0L)
+        {
+            return 1.0;
+        }
+        return 1.0 - weighted / ((n - 1.0) * sum);
+    }
+
+    /**
+     * Applies random swaps, and checks, before each one, the predicted value, and, after it, the updated value.
+     *
+     * @param seed     the random seed.
+     * @param directed whether the network is directed.
+     * @param orient   the orientation for selecting the degree.
+     */
+    private static void check(long seed, boolean directed, EdgeOrientation orient)
+    {
+        Random rnd = new Random(seed);
+        Graph<Long> graph = directed ? new FastDirectedUnweightedGraph<>() : new FastUndirectedUnweightedGraph<>();
+        for (long i = 0; i < NUM_USERS; ++i)
+        {
+            graph.addNode(i);
+        }
+        // A skewed network, so there are long runs of nodes with the same degree, and very different degrees.
+        for (int i = 0; i < 2 * NUM_USERS; ++i)
+        {
+            long u = rnd.nextInt(NUM_USERS);
+            long v = rnd.nextInt(1 + rnd.nextInt(NUM_USERS));
+            if (u != v && !graph.containsEdge(u, v))
+            {
+                graph.addEdge(u, v);
+            }
+        }
+
+        // Candidates: users which are not neighbors of the target user in the original network. In undirected
+        // networks, some pairs of users recommend each other.
+        Map<Long, List<Long>> candidates = new HashMap<>();
+        Map<Long, List<Long>> recommended = new HashMap<>();
+        for (long u = 0; u < NUM_USERS; ++u)
+        {
+            long user = u;
+            List<Long> cands = graph.getAllNodes().filter(v -> v != user && !graph.containsEdge(user, v)).collect(Collectors.toCollection(ArrayList::new));
+            Collections.shuffle(cands, rnd);
+            candidates.put(u, cands);
+            recommended.put(u, new ArrayList<>(cands.subList(0, Math.min(CUTOFF, cands.size()))));
+        }
+        if (!directed)
+        {
+            for (long u = 0; u < NUM_USERS; u += 3)
+            {
+                for (long v : new ArrayList<>(recommended.get(u)))
+                {
+                    List<Long> vRecs = recommended.get(v);
+                    if (!vRecs.contains(u) && !vRecs.isEmpty())
+                    {
+                        vRecs.set(0, u);
+                    }
+                }
+            }
+        }
+
+        TestReranker reranker = new TestReranker(graph, orient);
+        reranker.init(recommended);
+        assertEquals(gini(reranker.getGraph(), orient), reranker.getValue(), 0.0);
+
+        for (int i = 0; i < NUM_SWAPS; ++i)
+        {
+            long u = rnd.nextInt(NUM_USERS);
+            Set<Long> uRecs = reranker.getRecs(u);
+            List<Long> remaining = candidates.get(u).stream().filter(v -> !uRecs.contains(v)).collect(Collectors.toList());
+            if (uRecs.isEmpty() || remaining.isEmpty())
+            {
+                continue;
+            }
+            List<Long> current = new ArrayList<>(uRecs);
+            long del = current.get(rnd.nextInt(current.size()));
+            long add = remaining.get(rnd.nextInt(remaining.size()));
+
+            String message = "swap " + i + ": " + u + " (" + del + " -> " + add + ")";
+            double predicted = reranker.predict(u, add, del);
+            reranker.swap(u, add, del);
+            double expected = gini(reranker.getGraph(), orient);
+            assertEquals(message, expected, predicted, 0.0);
+            assertEquals(message, expected, reranker.getValue(), 0.0);
+        }
+    }
+
+    @Test
+    public void directed()
+    {
+        for (EdgeOrientation orient : new EdgeOrientation[]{EdgeOrientation.IN, EdgeOrientation.OUT, EdgeOrientation.UND})
+        {
+            for (long seed = 0; seed < 3; ++seed)
+            {
+                check(seed, true, orient);
+            }
+        }
+    }
+
+    @Test
+    public void undirected()
+    {
+        for (long seed = 0; seed < 3; ++seed)
+        {
+            check(seed, false, EdgeOrientation.UND);
+        }
+    }
+}
@@ -0,0 +1,202 @@
+/*
+ *  Copyright (C) 2021 Information Retrieval Group at Universidad Autónoma
+ *  de Madrid, http://ir.ii.uam.es
+ *
+ *  This Source Code Form is subject to the terms of the Mozilla Public
+ *  License, v. 2.0. If a copy of the MPL was not distributed with this
+ *  file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package es.uam.eps.relison.links.recommendation.test;
+
+import es.uam.eps.ir.relison.graph.edges.EdgeOrientation;
+import es.uam.eps.ir.relison.graph.fast.FastDirectedUnweightedGraph;
+import es.uam.eps.ir.relison.graph.fast.FastDirectedWeightedGraph;
+import es.uam.eps.ir.relison.graph.fast.FastGraph;
+import es.uam.eps.ir.relison.graph.fast.FastUndirectedUnweightedGraph;
+import es.uam.eps.ir.relison.links.recommendation.algorithms.standalone.ir.*;
+import org.junit.Test;
+import org.ranksys.core.util.tuples.Tuple2id;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.function.IntPredicate;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks that the MaxScore dynamic pruning of the IR-based recommenders returns exactly the same top-k users,
+ * scores and tie order as the exhaustive computation of the scores.
+ *
+ * @author Javier Sanz-Cruzado (javier.sanz-cruzado@uam.es)
+ * @author Pablo Castells (pablo.castells@uam.es)
+ */
+public class MaxScoreRecommenderTest
+{
+    /**
+     * Sizes of the recommendation rankings to check.
+     */
+    private static final int[] CUTOFFS = new int[]{1, 3, 10, 25};
+
+    /**
+     * Builds a random network. Weights take few different values, so there are many ties between the scores, and
+     * some users are isolated, so they do not have any candidate.
+     *
+     * @param seed     the random seed.
+     * @param n        the number of users.
+     * @param m        the number of edges to try to add.
+     * @param directed whether the network is directed.
+     * @param weighted whether the network is weighted.
+     *
+     * @return the network.
+     */
+    private static FastGraph<Long> graph(long seed, int n, int m, boolean directed, boolean weighted)
+    {
+        Random rnd = new Random(seed);
+        FastGraph<Long> graph = directed ? (weighted ? new FastDirectedWeightedGraph<>() : new FastDirectedUnweightedGraph<>()) : new FastUndirectedUnweightedGraph<>();
+        for (long i = 0; i < n; ++i)
+        {
+            graph.addNode(i);
+        }
+        for (int i = 0; i < m; ++i)
+        {
+            // The last tenth of the users are isolated.
+            long u = rnd.nextInt(n - n / 10);
+            long v = rnd.nextInt(n - n / 10);
+            if (u != v)
+            {
+                graph.addEdge(u, v, weighted ? 1.0 + rnd.nextInt(3) : 1.0);
+            }
+        }
+        return graph;
+    }
+
+    /**
+     * Obtains the recommenders using MaxScore.
+     *
+     * @param graph the network.
+     * @param uSel  neighborhood selection for the target users.
+     * @param vSel  neighborhood selection for the candidate users.
+     *
+     * @return the recommenders.
+     */
+    private static List<MaxScoreRecommender<Long>> recommenders(FastGraph<Long> graph, EdgeOrientation uSel, EdgeOrientation vSel)
+    {
+        List<MaxScoreRecommender<Long>> recs = new ArrayList<>();
+        recs.add(new BM25<>(graph, uSel, vSel, EdgeOrientation.OUT, 0.75, 1.2));
+        recs.add(new BIR<>(graph, uSel, vSel));
+        recs.add(new EBM25<>(graph, uSel, vSel, EdgeOrientation.IN, 0.5));
+        recs.add(new VSM<>(graph, uSel, vSel));
+        recs.add(new PivotedNormalizationVSM<>(graph, uSel, vSel, 0.2));
+        recs.add(new QLD<>(graph, uSel, vSel, 50.0));
+        recs.add(new QLJM<>(graph, uSel, vSel, 0.3));
+        recs.add(new QLL<>(graph, uSel, vSel, 0.5));
+        return recs;
+    }
+
+    /**
+     * Checks that the pruned and the exhaustive computations obtain the same rankings for a set of target users.
+     *
+     * @param graph the network.
+     * @param users the target users.
+     *
+     * @return the number of checked rankings where the last user is tied with the first user left out.
+     */
+    private static int check(FastGraph<Long> graph, int[] users)
+    {
+        int ties = 0;
+        for (EdgeOrientation uSel : EdgeOrientation.values())
+        {
+            for (EdgeOrientation vSel : EdgeOrientation.values())
+            {
+                for (MaxScoreRecommender<Long> rec : recommenders(graph, uSel, vSel))
+                {
+                    for (int uidx : users)
+                    {
+                        // Exclude the target user and its neighbours, as it is done for contact recommendation.
+                        IntPredicate filter = vidx -> vidx != uidx && !graph.containsEdge(graph.idx2object(uidx), graph.idx2object(vidx));
+                        String name = rec.getClass().getSimpleName() + " " + uSel + "/" + vSel;
+                        ties += check(name, rec, uidx, filter);
+                        ties += check(name, rec, uidx, vidx -> true);
+                    }
+                }
+            }
+        }
+        return ties;
+    }
+
+    /**
+     * Checks that the pruned and the exhaustive computations obtain the same rankings for a target user.
+     *
+     * @param name   the name of the recommender.
+     * @param rec    the recommender.
+     * @param uidx   the target user.
+     * @param filter the filter for the candidate users.
+     *
+     * @return the number of checked rankings where the last user is tied with the first user left out.
+     */
+    private static int check(String name, MaxScoreRecommender<Long> rec, int uidx, IntPredicate filter)
+    {
+        int ties = 0;
+        // Rankings containing every user are computed exhaustively.
+        List<Tuple2id> exhaustive = rec.getRecommendation(uidx, rec.numItems(), filter).getIidxs();
+        for (int cutoff : CUTOFFS)
+        {
+            List<Tuple2id> pruned = rec.getRecommendation(uidx, cutoff, filter).getIidxs();
+            String message = name + " user " + uidx + " top " + cutoff;
+            assertEquals(message, Math.min(cutoff, exhaustive.size()), pruned.size());
+            for (int i = 0; i < pruned.size(); ++i)
+            {
+                assertEquals(message, exhaustive.get(i).v1, pruned.get(i).v1);
+                assertEquals(message, exhaustive.get(i).v2, pruned.get(i).v2, 0.0);
+            }
+            if (cutoff < exhaustive.size() && exhaustive.get(cutoff - 1).v2 == exhaustive.get(cutoff).v2)
+            {
+                ++ties;
+            }
+        }
+        return ties;
+    }
+
+    @Test
+    public void directed()
+    {
+        FastGraph<Long> graph = graph(0, 150, 900, true, false);
+        assertTrue(check(graph, new int[]{0, 1, 2, 3, 4, 5, 6, 7, 8, 9, 145, 149}) > 0);
+    }
+
+    @Test
+    public void weighted()
+    {
+        FastGraph<Long> graph = graph(1, 150, 900, true, true);
+        assertTrue(check(graph, new int[]{0, 1, 2, 3, 4, 5, 6, 7, 8, 9, 145, 149}) > 0);
+    }
+
+    @Test
+    public void undirected()
+    {
+        FastGraph<Long> graph = graph(2, 150, 600, false, false);
+        assertTrue(check(graph, new int[]{0, 1, 2, 3, 4, 5, 6, 7, 8, 9, 145, 149}) > 0);
+    }
+
+    @Test
+    public void severalWindows()
+    {
+        // More users than the size of the window of candidates.
+        FastGraph<Long> graph = graph(3, 10000, 60000, true, true);
+        assertTrue(check(graph, new int[]{0, 17, 4242, 8999, 9999}) > 0);
+    }
+
+    @Test
+    public void noCandidates()
+    {
+        FastGraph<Long> graph = graph(4, 150, 900, true, false);
+        for (MaxScoreRecommender<Long> rec : recommenders(graph, EdgeOrientation.OUT, EdgeOrientation.IN))
+        {
+            // Isolated users and filters rejecting every candidate produce empty rankings.
+            assertTrue(rec.getRecommendation(149, 10, vidx -> true).getIidxs().isEmpty());
+            assertTrue(rec.getRecommendation(0, 10, vidx -> false).getIidxs().isEmpty());
+        }
+    }
+}
@@ -0,0 +1,210 @@
+/*
+ *  Copyright (C) 2021 Information Retrieval Group at Universidad Autónoma
+ *  de Madrid, http://ir.ii.uam.es
+ *
+ *  This Source Code Form is subject to the terms of the Mozilla Public
+ *  License, v. 2.0. If a copy of the MPL was not distributed with this
+ *  file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package es.uam.eps.relison.links.recommendation.test;
+
+import es.uam.eps.ir.relison.graph.edges.EdgeOrientation;
+import es.uam.eps.ir.relison.graph.fast.FastDirectedWeightedGraph;
+import es.uam.eps.ir.relison.graph.fast.FastGraph;
+import es.uam.eps.ir.relison.links.recommendation.UserFastRankingRecommender;
+import es.uam.eps.ir.relison.links.recommendation.algorithms.standalone.foaf.*;
+import it.unimi.dsi.fastutil.ints.Int2DoubleMap;
+import it.unimi.dsi.fastutil.ints.Int2DoubleOpenHashMap;
+import org.junit.Test;
+import org.ranksys.core.util.tuples.Tuple2id;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks the hub sampling of the friends-of-friends recommenders: without a budget, scores must be those of the
+ * exhaustive computation, and, with a budget, the sampler must count the expanded and skipped edges, and the
+ * accuracy of the sampled rankings can be measured against the exhaustive ones.
+ *
+ * @author Javier Sanz-Cruzado (javier.sanz-cruzado@uam.es)
+ * @author Pablo Castells (pablo.castells@uam.es)
+ */
+public class NeighborhoodSamplerTest
+{
+    /**
+     * Number of users in the network.
+     */
+    private static final int NUM_USERS = 300;
+    /**
+     * Number of hubs in the network.
+     */
+    private static final int NUM_HUBS = 5;
+    /**
+     * Number of users in the top-k rankings used for measuring the accuracy.
+     */
+    private static final int CUTOFF = 10;
+
+    /**
+     * The network: a random weighted network where a few users (the hubs) receive many links.
+     */
+    private final FastGraph<Long> graph;
+
+    /**
+     * Constructor.
+     */
+    public NeighborhoodSamplerTest()
+    {
+        Random rnd = new Random(0);
+        graph = new FastDirectedWeightedGraph<>();
+        for (long i = 0; i < NUM_USERS; ++i)
+        {
+            graph.addNode(i);
+        }
+        for (int i = 0; i < 4000; ++i)
+        {
+            long u = rnd.nextInt(NUM_USERS);
+            long v = rnd.nextInt(5) == 0 ? rnd.nextInt(NUM_HUBS) : rnd.nextInt(NUM_USERS);
+            if (u != v)
+            {
+                graph.addEdge(u, v, 1.0 + rnd.nextInt(3));
+            }
+        }
+    }
+
+    /**
+     * Builds the friends-of-friends recommenders.
+     *
+     * @param maxExpansion the maximum number of neighbours expanded per intermediate user.
+     *
+     * @return the recommenders.
+     */
+    private UserFastRankingRecommender<?>[] recommenders(int maxExpansion)
+    {
+        return new UserFastRankingRecommender<?>[]{
+                new AdamicAdar<>(graph, EdgeOrientation.OUT, EdgeOrientation.IN, EdgeOrientation.IN, maxExpansion),
+                new MostCommonNeighbors<>(graph, EdgeOrientation.OUT, EdgeOrientation.IN, maxExpansion),
+                new Jaccard<>(graph, EdgeOrientation.OUT, EdgeOrientation.IN, maxExpansion),
+                new Cosine<>(graph, EdgeOrientation.OUT, EdgeOrientation.IN, maxExpansion),
+                new ResourceAllocation<>(graph, EdgeOrientation.OUT, EdgeOrientation.IN, EdgeOrientation.IN, maxExpansion)
+        };
+    }
+
+    /**
+     * Obtains the sampler of a friends-of-friends recommender.
+     *
+     * @param rec the recommender.
+     *
+     * @return the sampler (null if the neighbourhoods are fully expanded).
+     */
+    private static NeighborhoodSampler<?> sampler(UserFastRankingRecommender<?> rec)
+    {
+        if (rec instanceof AdamicAdar)
+        {
+            return ((AdamicAdar<?>) rec).getSampler();
+        }
+        else if (rec instanceof MostCommonNeighbors)
+        {
+            return ((MostCommonNeighbors<?>) rec).getSampler();
+        }
+        else if (rec instanceof Jaccard)
+        {
+            return ((Jaccard<?>) rec).getSampler();
+        }
+        else if (rec instanceof Cosine)
+        {
+            return ((Cosine<?>) rec).getSampler();
+        }
+        return ((ResourceAllocation<?>) rec).getSampler();
+    }
+
+    @Test
+    public void disabled()
+    {
+        UserFastRankingRecommender<?>[] disabled = recommenders(0);
+        UserFastRankingRecommender<?>[] unlimited = recommenders(NUM_USERS);
+        for (int i = 0; i < disabled.length; ++i)
+        {
+            // Without a budget, no sampler is built.
+            assertNull(sampler(disabled[i]));
+            for (int uidx = 0; uidx < NUM_USERS; ++uidx)
+            {
+                assertEquals(unlimited[i].getScoresMap(uidx), disabled[i].getScoresMap(uidx));
+            }
+        }
+
+        // Common neighbours, computed by brute force.
+        UserFastRankingRecommender<?> mcn = disabled[1];
+        for (int uidx = 0; uidx < NUM_USERS; ++uidx)
+        {
+            Int2DoubleMap expected = new Int2DoubleOpenHashMap();
+            graph.forEachNeighbor(uidx, EdgeOrientation.OUT, widx ->
+                    graph.forEachNeighbor(widx, EdgeOrientation.OUT, vidx -> expected.put(vidx, expected.get(vidx) + 1.0)));
+            assertEquals(expected, mcn.getScoresMap(uidx));
+        }
+    }
+
+    @Test
+    public void counters()
+    {
+        int maxExpansion = 20;
+        MostCommonNeighbors<Long> rec = new MostCommonNeighbors<>(graph, EdgeOrientation.OUT, EdgeOrientation.IN, maxExpansion);
+        NeighborhoodSampler<Long> sampler = rec.getSampler();
+        assertEquals(maxExpansion, sampler.getMaxExpansion());
+        assertEquals(0L, sampler.getExpandedEdges());
+        assertEquals(0L, sampler.getSkippedEdges());
+
+        long[] expected = new long[2];
+        for (int uidx = 0; uidx < NUM_USERS; ++uidx)
+        {
+            rec.getScoresMap(uidx);
+            graph.forEachNeighbor(uidx, EdgeOrientation.OUT, widx ->
+            {
+                int size = graph.getNeighborhoodSize(widx, EdgeOrientation.OUT);
+                expected[0] += Math.min(size, maxExpansion);
+                expected[1] += Math.max(0, size - maxExpansion);
+            });
+        }
+
+        assertTrue(expected[1] > 0);
+        assertEquals(expected[0], sampler.getExpandedEdges());
+        assertEquals(expected[1], sampler.getSkippedEdges());
+        assertEquals(expected[1] / (expected[0] + expected[1] + 0.0), sampler.getSkippedRatio(), 1E-12);
+
+        sampler.resetCounters();
+        assertEquals(0L, sampler.getExpandedEdges());
+        assertEquals(0L, sampler.getSkippedEdges());
+        assertEquals(0.0, sampler.getSkippedRatio(), 0.0);
+    }
+
+    @Test
+    public void accuracy()
+    {
+        UserFastRankingRecommender<?>[] exhaustive = recommenders(0);
+        UserFastRankingRecommender<?>[] unlimited = recommenders(NUM_USERS);
+        UserFastRankingRecommender<?>[] sampled = recommenders(20);
+        for (int i = 0; i < exhaustive.length; ++i)
+        {
+            double sameOverlap = 0.0;
+            double sampledOverlap = 0.0;
+            for (int uidx = 0; uidx < NUM_USERS; ++uidx)
+            {
+                List<Tuple2id> reference = exhaustive[i].getRecommendation(uidx, CUTOFF, vidx -> true).getIidxs();
+                sameOverlap += NeighborhoodSampler.overlap(reference, unlimited[i].getRecommendation(uidx, CUTOFF, vidx -> true).getIidxs());
+                sampledOverlap += NeighborhoodSampler.overlap(reference, sampled[i].getRecommendation(uidx, CUTOFF, vidx -> true).getIidxs());
+            }
+            sameOverlap /= NUM_USERS;
+            sampledOverlap /= NUM_USERS;
+
+            // A budget which no user exceeds does not change the rankings; sampling the hubs degrades them,
+            // but only partially.
+            String name = exhaustive[i].getClass().getSimpleName();
+            assertEquals(name, 1.0, sameOverlap, 0.0);
+            assertTrue(name, sampledOverlap < 1.0);
+            assertTrue(name, sampledOverlap > 0.5);
+            assertEquals(0L, sampler(unlimited[i]).getSkippedEdges());
+            assertTrue(sampler(sampled[i]).getSkippedEdges() > 0L);
+        }
+    }
+}
@@ -0,0 +1,191 @@
+/*
+ *  Copyright (C) 2021 Information Retrieval Group at Universidad Autónoma
+ *  de Madrid, http://ir.ii.uam.es
+ *
+ *  This Source Code Form is subject to the terms of the Mozilla Public
+ *  License, v. 2.0. If a copy of the MPL was not distributed with this
+ *  file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package es.uam.eps.relison.links.recommendation.test;
+
+import es.uam.eps.ir.ranksys.fast.FastRecommendation;
+import es.uam.eps.ir.relison.graph.fast.FastDirectedUnweightedGraph;
+import es.uam.eps.ir.relison.graph.fast.FastGraph;
+import es.uam.eps.ir.relison.links.recommendation.ScoreAccumulator;
+import es.uam.eps.ir.relison.links.recommendation.UserFastAccumulatorRecommender;
+import es.uam.eps.ir.relison.links.recommendation.UserFastRankingRecommender;
+import es.uam.eps.ir.relison.utils.functions.IntDoubleConsumer;
+import it.unimi.dsi.fastutil.ints.Int2DoubleMap;
+import it.unimi.dsi.fastutil.ints.Int2DoubleOpenHashMap;
+import org.junit.Test;
+import org.ranksys.core.util.tuples.Tuple2id;
+
+import java.util.List;
+import java.util.Random;
+import java.util.function.IntPredicate;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks that recommending through a {@link ScoreAccumulator} (and its bounded heap) produces the same rankings as
+ * the map-based path of RankSys (which selects the top-k users with an IntDoubleTopN).
+ *
+ * @author Javier Sanz-Cruzado (javier.sanz-cruzado@uam.es)
+ * @author Pablo Castells (pablo.castells@uam.es)
+ */
+public class ScoreAccumulatorTest
+{
+    /**
+     * Number of users in the network.
+     */
+    private static final int NUM_USERS = 300;
+
+    /**
+     * Builds a network without edges.
+     *
+     * @return the network.
+     */
+    private static FastGraph<Long> graph()
+    {
+        FastGraph<Long> graph = new FastDirectedUnweightedGraph<>();
+        for (long i = 0; i < NUM_USERS; ++i)
+        {
+            graph.addNode(i);
+        }
+        return graph;
+    }
+
+    /**
+     * Generates random scores for a target user. Scores take few different values, so there are many ties, and
+     * some candidates receive several contributions. Every fifth user has no candidates.
+     *
+     * @param uidx   the target user.
+     * @param action the action to apply over each contribution.
+     */
+    private static void generate(int uidx, IntDoubleConsumer action)
+    {
+        if (uidx % 5 == 0)
+        {
+            return;
+        }
+
+        Random rnd = new Random(uidx);
+        int numContributions = rnd.nextInt(2 * NUM_USERS);
+        for (int i = 0; i < numContributions; ++i)
+        {
+            action.accept(rnd.nextInt(NUM_USERS), rnd.nextInt(4) / 2.0);
+        }
+    }
+
+    /**
+     * Recommender which fills the score accumulator.
+     */
+    private static class AccumulatorRecommender extends UserFastAccumulatorRecommender<Long>
+    {
+        AccumulatorRecommender(FastGraph<Long> graph)
+        {
+            super(graph);
+        }
+
+        @Override
+        protected void fillScores(int uidx, ScoreAccumulator scores)
+        {
+            generate(uidx, scores::add);
+        }
+    }
+
+    /**
+     * Recommender which provides its scores as a map, so the RankSys path is used.
+     */
+    private static class MapRecommender extends UserFastRankingRecommender<Long>
+    {
+        MapRecommender(FastGraph<Long> graph)
+        {
+            super(graph);
+        }
+
+        @Override
+        public Int2DoubleMap getScoresMap(int uidx)
+        {
+            Int2DoubleOpenHashMap map = new Int2DoubleOpenHashMap();
+            generate(uidx, map::addTo);
+            return map;
+        }
+    }
+
+    /**
+     * Checks that two rankings contain the same users, with the same scores, in the same order.
+     *
+     * @param expected the expected ranking.
+     * @param actual   the actual ranking.
+     */
+    private static void check(List<Tuple2id> expected, List<Tuple2id> actual)
+    {
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); ++i)
+        {
+            assertEquals(expected.get(i).v1, actual.get(i).v1);
+            assertEquals(expected.get(i).v2, actual.get(i).v2, 0.0);
+        }
+    }
+
+    @Test
+    public void sameRanking()
+    {
+        FastGraph<Long> graph = graph();
+        UserFastRankingRecommender<Long> accumulator = new AccumulatorRecommender(graph);
+        UserFastRankingRecommender<Long> map = new MapRecommender(graph);
+
+        IntPredicate[] filters = new IntPredicate[]{vidx -> true, vidx -> vidx % 3 != 0, vidx -> false};
+        for (IntPredicate filter : filters)
+        {
+            for (int maxLength : new int[]{1, 7, 50, NUM_USERS})
+            {
+                for (int uidx = 0; uidx < NUM_USERS; ++uidx)
+                {
+                    FastRecommendation expected = map.getRecommendation(uidx, maxLength, filter);
+                    FastRecommendation actual = accumulator.getRecommendation(uidx, maxLength, filter);
+                    check(expected.getIidxs(), actual.getIidxs());
+                }
+            }
+        }
+
+        // The IntDoubleTopN of RankSys cannot be empty, but the accumulator admits empty recommendations.
+        assertTrue(accumulator.getRecommendation(1, 0, vidx -> true).getIidxs().isEmpty());
+    }
+
+    @Test
+    public void sameScoresMap()
+    {
+        FastGraph<Long> graph = graph();
+        UserFastRankingRecommender<Long> accumulator = new AccumulatorRecommender(graph);
+        UserFastRankingRecommender<Long> map = new MapRecommender(graph);
+
+        for (int uidx = 0; uidx < NUM_USERS; ++uidx)
+        {
+            assertEquals(map.getScoresMap(uidx), accumulator.getScoresMap(uidx));
+        }
+    }
+
+    @Test
+    public void resetBetweenUsers()
+    {
+        FastGraph<Long> graph = graph();
+        UserFastRankingRecommender<Long> accumulator = new AccumulatorRecommender(graph);
+
+        // A user with candidates, followed by a user without them.
+        assertFalse(accumulator.getRecommendation(1, NUM_USERS, vidx -> true).getIidxs().isEmpty());
+        assertTrue(accumulator.getRecommendation(5, NUM_USERS, vidx -> true).getIidxs().isEmpty());
+        assertTrue(accumulator.getScoresMap(5).isEmpty());
+
+        // Scores do not leak between the users of a thread, nor between threads.
+        UserFastRankingRecommender<Long> fresh = new MapRecommender(graph);
+        List<List<Tuple2id>> parallel = IntStream.range(0, NUM_USERS).parallel().mapToObj(uidx -> accumulator.getRecommendation(uidx, 20, vidx -> true).getIidxs()).collect(Collectors.toList());
+        for (int uidx = 0; uidx < NUM_USERS; ++uidx)
+        {
+            check(fresh.getRecommendation(uidx, 20, vidx -> true).getIidxs(), parallel.get(uidx));
+        }
+    }
+}
@@ -0,0 +1,503 @@
+/*
+ *  Copyright (C) 2021 Information Retrieval Group at Universidad Autónoma
+ *  de Madrid, http://ir.ii.uam.es
+ *
+ *  This Source Code Form is subject to the terms of the Mozilla Public
+ *  License, v. 2.0. If a copy of the MPL was not distributed with this
+ *  file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package es.uam.eps.ir.relison.sna.community.detection.modularity;
+
+import es.uam.eps.ir.relison.graph.Graph;
+import es.uam.eps.ir.relison.index.Index;
+import es.uam.eps.ir.relison.sna.community.Communities;
+import es.uam.eps.ir.relison.sna.community.detection.CommunityDetectionAlgorithm;
+import it.unimi.dsi.fastutil.ints.IntArrays;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+/**
+ * Multi-level modularity optimization over integer arrays, shared by the fast Louvain and the Leiden algorithms. Each
+ * level moves the nodes of a compact weighted network between communities to increase modularity (local moving), and
+ * then aggregates the communities into the nodes of the network of the next level. The algorithm stops when no
+ * further aggregation is possible. Finally, communities which are not connected are split into their connected
+ * components, which never decreases modularity.
+ *
+ * <p>
+ * The network is considered as undirected: the weight between two nodes is the sum of the weights of the edges
+ * between them, in both directions. Local moving can be sequential (nodes visited in random order, as in the original
+ * algorithm) or parallel: in every round, all nodes choose their best community simultaneously, and a node does not
+ * leave a singleton community for another singleton community with a greater identifier, so pairs of nodes do not
+ * swap their communities forever. A parallel round which decreases modularity is undone.
+ * </p>
+ *
+ * @param <U> type of the users.
+ *
+ * @author Javier Sanz-Cruzado (javier.sanz-cruzado@uam.es)
+ * @author Pablo Castells (pablo.castells@uam.es)
+ */
+public abstract class AbstractLouvain<U> implements CommunityDetectionAlgorithm<U>
+{
+    /**
+     * Variations of modularity below this value are considered as rounding errors.
+     */
+    private static final double TOLERANCE = 1E-12;
+    /**
+     * Seed for the random number generator.
+     */
+    protected final int rngSeed;
+    /**
+     * The minimum variation of modularity for another round of local moving.
+     */
+    protected final double threshold;
+    /**
+     * The resolution parameter of modularity.
+     */
+    protected final double resolution;
+    /**
+     * Whether the local moving phase is run in parallel.
+     */
+    protected final boolean parallel;
+
+    /**
+     * Constructor.
+     *
+     * @param rngSeed    seed for the random number generator.
+     * @param threshold  the minimum variation of modularity for another round of local moving.
+     * @param resolution the resolution parameter of modularity (1.0 for the usual definition).
+     * @param parallel   whether the local moving phase is run in parallel.
+     */
+    public AbstractLouvain(int rngSeed, double threshold, double resolution, boolean parallel)
+    {
+        this.rngSeed = rngSeed;
+        this.threshold = threshold;
+        this.resolution = resolution;
+        this.parallel = parallel;
+    }
+
+    @Override
+    public Communities<U> detectCommunities(Graph<U> graph)
+    {
+        Index<U> index = graph.getAdjacencyMatrixMap();
+        Network net = Network.of(graph, index);
+        Random rng = new Random(rngSeed);
+
+        int numNodes = net.numNodes;
+        int[] membership = IntStream.range(0, numNodes).toArray();
+        int[] comm = IntStream.range(0, numNodes).toArray();
+
+        while (net.total > 0.0)
+        {
+            if (parallel)
+            {
+                this.moveParallel(net, comm);
+            }
+            else
+            {
+                this.moveSequential(net, comm, rng);
+            }
+            int numComms = renumber(comm);
+            int[] refined = this.refine(net, comm, numComms, rng);
+            int numRefined = refined == comm ? numComms : renumber(refined);
+            if (numRefined == net.numNodes)
+            {
+                break;
+            }
+
+            // The nodes of the next level are the refined communities, which start in their original community.
+            Network aggregated = net.aggregate(refined, numRefined);
+            int[] aggComm = new int[numRefined];
+            for (int v = 0; v < net.numNodes; ++v)
+            {
+                aggComm[refined[v]] = comm[v];
+            }
+            for (int uidx = 0; uidx < numNodes; ++uidx)
+            {
+                membership[uidx] = refined[membership[uidx]];
+            }
+            net = aggregated;
+            comm = aggComm;
+        }
+
+        // Splitting a disconnected community never decreases modularity.
+        split(net, comm);
+
+        // Communities are numbered by their first node in the index.
+        int[] labels = new int[comm.length];
+        Arrays.fill(labels, -1);
+        Communities<U> communities = new Communities<>();
+        for (int uidx = 0; uidx < numNodes; ++uidx)
+        {
+            int c = comm[membership[uidx]];
+            if (labels[c] < 0)
+            {
+                labels[c] = communities.getNumCommunities();
+                communities.addCommunity();
+            }
+            communities.add(index.idx2object(uidx), labels[c]);
+        }
+        return communities;
+    }
+
+    /**
+     * Refines the communities found by the local moving phase. The nodes of the network of the next level are the
+     * refined communities.
+     *
+     * @param net      the network.
+     * @param comm     the communities of the nodes, numbered from 0 to numComms-1.
+     * @param numComms the number of communities.
+     * @param rng      the random number generator.
+     *
+     * @return the refined communities of the nodes (the same array if no refinement is done). Every refined community
+     * must be contained in a community.
+     */
+    protected abstract int[] refine(Network net, int[] comm, int numComms, Random rng);
+
+    /**
+     * Sequential local moving: nodes are visited in random order, and each one is moved to the neighbouring
+     * community which most increases modularity, until a round does not increase it above the threshold.
+     *
+     * @param net  the network.
+     * @param comm the communities of the nodes (modified by the method).
+     * @param rng  the random number generator.
+     */
+    private void moveSequential(Network net, int[] comm, Random rng)
+    {
+        int n = net.numNodes;
+        double[] tot = net.totals(comm);
+        int[] order = IntStream.range(0, n).toArray();
+        IntArrays.shuffle(order, rng);
+        WeightAccumulator acc = new WeightAccumulator(n);
+
+        boolean moved = true;
+        double variation = Double.POSITIVE_INFINITY;
+        while (moved && variation >= threshold && variation > TOLERANCE)
+        {
+            moved = false;
+            double gain = 0.0;
+            for (int u : order)
+            {
+                int cu = comm[u];
+                tot[cu] -= net.degrees[u];
+                net.accumulate(u, comm, acc);
+                int best = this.best(net, u, cu, tot, acc);
+                gain += this.gain(net, u, best, tot, acc) - this.gain(net, u, cu, tot, acc);
+                tot[best] += net.degrees[u];
+                acc.clear();
+                if (best != cu)
+                {
+                    comm[u] = best;
+                    moved = true;
+                }
+            }
+            variation = 2.0 * gain / net.total;
+        }
+    }
+
+    /**
+     * Parallel local moving: in every round, all nodes choose their best community simultaneously, and then, the
+     * moves are applied. It stops when a round does not increase modularity above the threshold.
+     *
+     * @param net  the network.
+     * @param comm the communities of the nodes (modified by the method).
+     */
+    private void moveParallel(Network net, int[] comm)
+    {
+        int n = net.numNodes;
+        double current = this.modularity(net, comm);
+        int[] target = new int[n];
+        ThreadLocal<WeightAccumulator> local = ThreadLocal.withInitial(() -> new WeightAccumulator(n));
+
+        while (true)
+        {
+            double[] tot = net.totals(comm);
+            int[] sizes = new int[n];
+            for (int u = 0; u < n; ++u)
+            {
+                sizes[comm[u]]++;
+            }
+
+            IntStream.range(0, n).parallel().forEach(u ->
+            {
+                WeightAccumulator acc = local.get();
+                int cu = comm[u];
+                net.accumulate(u, comm, acc);
+                // The node is taken out of its community, without modifying the shared totals.
+                double ku = net.degrees[u];
+                int best = cu;
+                double bestGain = acc.get(cu) - resolution * ku * (tot[cu] - ku) / net.total;
+                for (int i = 0; i < acc.touched.size(); ++i)
+                {
+                    int c = acc.touched.getInt(i);
+                    double g = acc.values[c] - resolution * ku * tot[c] / net.total;
+                    if (c != cu && g > bestGain)
+                    {
+                        best = c;
+                        bestGain = g;
+                    }
+                }
+                acc.clear();
+                // Conflict resolution between singleton communities.
+                if (best != cu && sizes[cu] == 1 && sizes[best] == 1 && best > cu)
+                {
+                    best = cu;
+                }
+                target[u] = best;
+            });
+
+            int[] previous = Arrays.copyOf(comm, n);
+            boolean moved = false;
+            for (int u = 0; u < n; ++u)
+            {
+                if (target[u] != comm[u])
+                {
+                    comm[u] = target[u];
+                    moved = true;
+                }
+            }
+            if (!moved)
+            {
+                return;
+            }
+
+            double next = this.modularity(net, comm);
+            if (next < current)
+            {
+                System.arraycopy(previous, 0, comm, 0, n);
+                return;
+            }
+            if (next - current < threshold || next - current <= TOLERANCE)
+            {
+                return;
+            }
+            current = next;
+        }
+    }
+
+    /**
+     * Finds the community which most increases modularity when a node (which has been taken out of its community)
+     * is inserted in it.
+     *
+     * @param net the network.
+     * @param u   the node.
+     * @param cu  the community of the node.
+     * @param tot the sum of the degrees of the nodes in each community (without the node).
+     * @param acc the weights of the edges between the node and the neighbouring communities.
+     *
+     * @return the best community.
+     */
+    private int best(Network net, int u, int cu, double[] tot, WeightAccumulator acc)
+    {
+        int best = cu;
+        double bestGain = this.gain(net, u, cu, tot, acc);
+        for (int i = 0; i < acc.touched.size(); ++i)
+        {
+            int c = acc.touched.getInt(i);
+            double g = this.gain(net, u, c, tot, acc);
+            if (g > bestGain)
+            {
+                best = c;
+                bestGain = g;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Computes the gain of inserting a node in a community, up to a constant factor 2/total.
+     *
+     * @param net the network.
+     * @param u   the node.
+     * @param c   the community.
+     * @param tot the sum of the degrees of the nodes in each community (without the node).
+     * @param acc the weights of the edges between the node and the neighbouring communities.
+     *
+     * @return the gain.
+     */
+    private double gain(Network net, int u, int c, double[] tot, WeightAccumulator acc)
+    {
+        return acc.get(c) - resolution * net.degrees[u] * tot[c] / net.total;
+    }
+
+    /**
+     * Computes the modularity of a partition of the network.
+     *
+     * @param net  the network.
+     * @param comm the communities of the nodes.
+     *
+     * @return the modularity.
+     */
+    protected double modularity(Network net, int[] comm)
+    {
+        double internal = IntStream.range(0, net.numNodes).parallel().mapToDouble(u ->
+        {
+            double sum = net.self[u];
+            for (int j = net.offsets[u]; j < net.offsets[u + 1]; ++j)
+            {
+                if (comm[net.targets[j]] == comm[u])
+                {
+                    sum += net.weights[j];
+                }
+            }
+            return sum;
+        }).sum();
+        double expected = Arrays.stream(net.totals(comm)).map(x -> x * x).sum();
+        return internal / net.total - resolution * expected / (net.total * net.total);
+    }
+
+    /**
+     * Splits the communities into their connected components.
+     *
+     * @param net  the network.
+     * @param comm the communities of the nodes (modified by the method).
+     */
+    private static void split(Network net, int[] comm)
+    {
+        int n = net.numNodes;
+        int[] components = new int[n];
+        Arrays.fill(components, -1);
+        int[] queue = new int[n];
+        int count = 0;
+        for (int root = 0; root < n; ++root)
+        {
+            if (components[root] >= 0)
+            {
+                continue;
+            }
+            components[root] = count;
+            int head = 0;
+            int tail = 0;
+            queue[tail++] = root;
+            while (head < tail)
+            {
+                int u = queue[head++];
+                for (int j = net.offsets[u]; j < net.offsets[u + 1]; ++j)
+                {
+                    int v = net.targets[j];
+                    if (components[v] < 0 && comm[v] == comm[root])
+                    {
+                        components[v] = count;
+                        queue[tail++] = v;
+                    }
+                }
+            }
+            ++count;
+        }
+        System.arraycopy(components, 0, comm, 0, n);
+    }
+
+    /**
+     * Renumbers the communities, so they are numbered from 0 to the number of communities minus one, in order of
+     * appearance.
+     *
+     * @param comm the communities of the nodes (modified by the method).
+     *
+     * @return the number of communities.
+     */
+    protected static int renumber(int[] comm)
+    {
+        int[] labels = new int[comm.length];
+        Arrays.fill(labels, -1);
+        int count = 0;
+        for (int u = 0; u < comm.length; ++u)
+        {
+            int c = comm[u];
+            if (labels[c] < 0)
+            {
+                labels[c] = count++;
+            }
+            comm[u] = labels[c];
+        }
+        return count;
+    }
+
+    /**
+     * Compact weighted undirected network, stored in compressed sparse rows, with the weighted degrees of the nodes.
+     */
+    protected static class Network extends CommunityNetwork
+    {
+        /**
+         * Weighted degree of each node.
+         */
+        final double[] degrees;
+        /**
+         * Sum of the degrees of all nodes (twice the total weight of the edges).
+         */
+        final double total;
+
+        /**
+         * Constructor.
+         *
+         * @param net the undirected network (where self-loops are counted twice).
+         */
+        Network(CommunityNetwork net)
+        {
+            super(net);
+            this.degrees = new double[numNodes];
+            for (int u = 0; u < numNodes; ++u)
+            {
+                double degree = self[u];
+                for (int j = offsets[u]; j < offsets[u + 1]; ++j)
+                {
+                    degree += weights[j];
+                }
+                degrees[u] = degree;
+            }
+            this.total = Arrays.stream(degrees).sum();
+        }
+
+        /**
+         * Builds the network from a graph. Edges are considered as undirected.
+         *
+         * @param graph the graph.
+         * @param index the index of the nodes.
+         * @param <U>   type of the users.
+         *
+         * @return the network.
+         */
+        static <U> Network of(Graph<U> graph, Index<U> index)
+        {
+            return new Network(CommunityNetwork.of(graph, index, true, false));
+        }
+
+        /**
+         * Adds the weights of the edges between a node and the communities of its neighbours.
+         *
+         * @param u    the node.
+         * @param comm the communities of the nodes.
+         * @param acc  the accumulator.
+         */
+        void accumulate(int u, int[] comm, WeightAccumulator acc)
+        {
+            for (int j = offsets[u]; j < offsets[u + 1]; ++j)
+            {
+                acc.add(comm[targets[j]], weights[j]);
+            }
+        }
+
+        /**
+         * Obtains the sum of the degrees of the nodes in each community.
+         *
+         * @param comm the communities of the nodes.
+         *
+         * @return the sums, indexed by community.
+         */
+        double[] totals(int[] comm)
+        {
+            double[] tot = new double[numNodes];
+            for (int u = 0; u < numNodes; ++u)
+            {
+                tot[comm[u]] += degrees[u];
+            }
+            return tot;
+        }
+
+        @Override
+        Network aggregate(int[] comm, int numComms)
+        {
+            return new Network(super.aggregate(comm, numComms));
+        }
+    }
+}
@@ -0,0 +1,240 @@
+/*
+ *  Copyright (C) 2021 Information Retrieval Group at Universidad Autónoma
+ *  de Madrid, http://ir.ii.uam.es
+ *
+ *  This Source Code Form is subject to the terms of the Mozilla Public
+ *  License, v. 2.0. If a copy of the MPL was not distributed with this
+ *  file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package es.uam.eps.ir.relison.sna.community.detection.modularity;
+
+import es.uam.eps.ir.relison.graph.Graph;
+import es.uam.eps.ir.relison.graph.edges.EdgeOrientation;
+import es.uam.eps.ir.relison.graph.fast.FastGraph;
+import es.uam.eps.ir.relison.index.Index;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * Compact weighted network over integer identifiers, stored in compressed sparse rows, for the multi-level community
+ * detection algorithms (Louvain, Leiden and Infomap). It takes snapshots of graphs, and aggregates communities into
+ * the nodes of a new network. The links of each node are sorted by target, and self-loops are stored apart.
+ *
+ * @author Javier Sanz-Cruzado (javier.sanz-cruzado@uam.es)
+ * @author Pablo Castells (pablo.castells@uam.es)
+ */
+class CommunityNetwork
+{
+    /**
+     * Number of nodes.
+     */
+    final int numNodes;
+    /**
+     * Position of the first neighbour of each node.
+     */
+    final int[] offsets;
+    /**
+     * Neighbours of the nodes (different from the node itself).
+     */
+    final int[] targets;
+    /**
+     * Weights of the edges towards the neighbours.
+     */
+    final double[] weights;
+    /**
+     * Weight of the self-loop of each node.
+     */
+    final double[] self;
+
+    /**
+     * Constructor.
+     *
+     * @param neighs  the neighbours of each node.
+     * @param weights the weights of the edges towards the neighbours.
+     * @param self    the weight of the self-loop of each node.
+     */
+    CommunityNetwork(int[][] neighs, double[][] weights, double[] self)
+    {
+        this.numNodes = neighs.length;
+        this.offsets = new int[numNodes + 1];
+        for (int u = 0; u < numNodes; ++u)
+        {
+            offsets[u + 1] = offsets[u] + neighs[u].length;
+        }
+        this.targets = new int[offsets[numNodes]];
+        this.weights = new double[offsets[numNodes]];
+        this.self = self;
+        for (int u = 0; u < numNodes; ++u)
+        {
+            System.arraycopy(neighs[u], 0, targets, offsets[u], neighs[u].length);
+            System.arraycopy(weights[u], 0, this.weights, offsets[u], weights[u].length);
+        }
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param offsets position of the first neighbour of each node.
+     * @param targets neighbours of the nodes (different from the node itself).
+     * @param weights weights of the edges towards the neighbours.
+     * @param self    the weight of the self-loop of each node.
+     */
+    CommunityNetwork(int[] offsets, int[] targets, double[] weights, double[] self)
+    {
+        this.numNodes = self.length;
+        this.offsets = offsets;
+        this.targets = targets;
+        this.weights = weights;
+        this.self = self;
+    }
+
+    /**
+     * Copy constructor. The arrays are shared.
+     *
+     * @param net the network.
+     */
+    CommunityNetwork(CommunityNetwork net)
+    {
+        this(net.offsets, net.targets, net.weights, net.self);
+    }
+
+    /**
+     * Builds the network from a graph. The weights of the parallel edges between two nodes are added.
+     *
+     * @param graph      the graph.
+     * @param index      the index of the nodes.
+     * @param undirected whether the edges are considered as undirected. In that case, the edges of directed graphs
+     *                   are considered in both directions, and self-loops are counted twice. Otherwise, only the
+     *                   outgoing edges are considered.
+     * @param positive   whether only the edges with positive weight are kept.
+     * @param <U>        type of the users.
+     *
+     * @return the network.
+     */
+    static <U> CommunityNetwork of(Graph<U> graph, Index<U> index, boolean undirected, boolean positive)
+    {
+        int n = index.numObjects();
+        int[][] neighs = new int[n][];
+        double[][] weights = new double[n][];
+        double[] self = new double[n];
+        ThreadLocal<WeightAccumulator> local = ThreadLocal.withInitial(() -> new WeightAccumulator(n));
+        List<EdgeOrientation> orients = undirected && graph.isDirected() ? Arrays.asList(EdgeOrientation.OUT, EdgeOrientation.IN) : List.of(EdgeOrientation.OUT);
+        IntStream.range(0, n).parallel().forEach(uidx ->
+        {
+            WeightAccumulator acc = local.get();
+            for (EdgeOrientation orient : orients)
+            {
+                if (graph instanceof FastGraph)
+                {
+                    ((FastGraph<U>) graph).forEachWeightedNeighbor(uidx, orient, acc::add);
+                }
+                else
+                {
+                    graph.getNeighbourhoodWeights(index.idx2object(uidx), orient).forEach(w -> acc.add(index.object2idx(w.getIdx()), w.getValue()));
+                }
+            }
+            // Self-loops of undirected graphs are only found once.
+            self[uidx] = undirected && !graph.isDirected() ? 2.0 * acc.get(uidx) : acc.get(uidx);
+            store(uidx, acc, positive, neighs, weights);
+        });
+        return new CommunityNetwork(neighs, weights, self);
+    }
+
+    /**
+     * Stores the accumulated neighbours of a node (except the node itself), and clears the accumulator.
+     *
+     * @param u        the node.
+     * @param acc      the accumulator.
+     * @param positive whether only the neighbours with positive weight are stored.
+     * @param neighs   where to store the neighbours.
+     * @param weights  where to store the weights.
+     */
+    private static void store(int u, WeightAccumulator acc, boolean positive, int[][] neighs, double[][] weights)
+    {
+        IntArrayList ids = new IntArrayList(acc.touched.size());
+        for (int i = 0; i < acc.touched.size(); ++i)
+        {
+            int v = acc.touched.getInt(i);
+            if (v != u && (!positive || acc.get(v) > 0.0))
+            {
+                ids.add(v);
+            }
+        }
+        int[] ns = ids.toIntArray();
+        Arrays.sort(ns);
+        double[] ws = new double[ns.length];
+        for (int i = 0; i < ns.length; ++i)
+        {
+            ws[i] = acc.get(ns[i]);
+        }
+        neighs[u] = ns;
+        weights[u] = ws;
+        acc.clear();
+    }
+
+    /**
+     * Aggregates the communities into the nodes of a new network. The weight between two communities is the sum of
+     * the weights of the edges between their nodes, and the self-loop of a community is the sum of the self-loops of
+     * its nodes and the weights of the edges between them.
+     *
+     * @param comm     the communities of the nodes, numbered from 0 to numComms-1.
+     * @param numComms the number of communities.
+     *
+     * @return the aggregated network.
+     */
+    CommunityNetwork aggregate(int[] comm, int numComms)
+    {
+        int[][] members = members(comm, numComms);
+        int[][] neighs = new int[numComms][];
+        double[][] ws = new double[numComms][];
+        double[] selfLoops = new double[numComms];
+        ThreadLocal<WeightAccumulator> local = ThreadLocal.withInitial(() -> new WeightAccumulator(numComms));
+        IntStream.range(0, numComms).parallel().forEach(c ->
+        {
+            WeightAccumulator acc = local.get();
+            double selfLoop = 0.0;
+            for (int u : members[c])
+            {
+                selfLoop += self[u];
+                for (int j = offsets[u]; j < offsets[u + 1]; ++j)
+                {
+                    acc.add(comm[targets[j]], weights[j]);
+                }
+            }
+            selfLoops[c] = selfLoop + acc.get(c);
+            store(c, acc, false, neighs, ws);
+        });
+        return new CommunityNetwork(neighs, ws, selfLoops);
+    }
+
+    /**
+     * Finds the members of each community.
+     *
+     * @param comm     the communities of the nodes, numbered from 0 to numComms-1.
+     * @param numComms the number of communities.
+     *
+     * @return the members of each community, in increasing order.
+     */
+    static int[][] members(int[] comm, int numComms)
+    {
+        int[] sizes = new int[numComms];
+        for (int c : comm)
+        {
+            sizes[c]++;
+        }
+        int[][] members = new int[numComms][];
+        for (int c = 0; c < numComms; ++c)
+        {
+            members[c] = new int[sizes[c]];
+        }
+        int[] pos = new int[numComms];
+        for (int u = 0; u < comm.length; ++u)
+        {
+            members[comm[u]][pos[comm[u]]++] = u;
+        }
+        return members;
+    }
+}
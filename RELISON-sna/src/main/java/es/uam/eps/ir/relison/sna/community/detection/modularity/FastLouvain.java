@@ -0,0 +1,73 @@
+/*
+ *  Copyright (C) 2021 Information Retrieval Group at Universidad Autónoma
+ *  de Madrid, http://ir.ii.uam.es
+ *
+ *  This Source Code Form is subject to the terms of the Mozilla Public
+ *  License, v. 2.0. If a copy of the MPL was not distributed with this
+ *  file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package es.uam.eps.ir.relison.sna.community.detection.modularity;
+
+import java.util.Random;
+
+/**
+ * Implementation of the Louvain community detection algorithm over integer arrays. At each level, nodes are moved
+ * between communities to increase modularity, and the communities are then aggregated into the nodes of a compact
+ * weighted network, until no further aggregation is possible. Unlike {@link Louvain}, it does not use maps indexed
+ * by users or communities, and the local moving phase can be run in parallel.
+ *
+ * <p>
+ * <b>References:</b>
+ * </p>
+ * <ol>
+ *     <li>V. Blondel, J. Guillaume, R. Lambiotte, E. Lefebvre, Fast unfolding of communities in large networks. Journal of Statistical Mechanics 10 (2008)</li>
+ *     <li>H. Lu, M. Halappanavar, A. Kalyanaraman. Parallel heuristics for scalable community detection. Parallel Computing 47, pp. 19-37 (2015)</li>
+ * </ol>
+ *
+ * @param <U> type of the users.
+ *
+ * @author Javier Sanz-Cruzado (javier.sanz-cruzado@uam.es)
+ * @author Pablo Castells (pablo.castells@uam.es)
+ */
+public class FastLouvain<U> extends AbstractLouvain<U>
+{
+    /**
+     * Constructor.
+     *
+     * @param rngSeed    seed for the random number generator.
+     * @param threshold  the minimum variation of modularity for another round of local moving.
+     * @param resolution the resolution parameter of modularity (1.0 for the usual definition).
+     * @param parallel   whether the local moving phase is run in parallel.
+     */
+    public FastLouvain(int rngSeed, double threshold, double resolution, boolean parallel)
+    {
+        super(rngSeed, threshold, resolution, parallel);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param threshold the minimum variation of modularity for another round of local moving.
+     * @param parallel  whether the local moving phase is run in parallel.
+     */
+    public FastLouvain(double threshold, boolean parallel)
+    {
+        this(0, threshold, 1.0, parallel);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param threshold the minimum variation of modularity for another round of local moving.
+     */
+    public FastLouvain(double threshold)
+    {
+        this(threshold, false);
+    }
+
+    @Override
+    protected int[] refine(Network net, int[] comm, int numComms, Random rng)
+    {
+        return comm;
+    }
+}
@@ -1,30 +1,28 @@
 package es.uam.eps.ir.relison.sna.community.detection.modularity;
 
+import es.uam.eps.ir.relison.graph.Graph;
+import es.uam.eps.ir.relison.index.fast.FastIndex;
 import es.uam.eps.ir.relison.sna.community.Communities;
+import es.uam.eps.ir.relison.sna.community.Dendogram;
 import es.uam.eps.ir.relison.sna.community.detection.CommunityDetectionAlgorithm;
 import es.uam.eps.ir.relison.sna.community.detection.DendogramCommunityDetectionAlgorithm;
-import es.uam.eps.ir.relison.sna.community.detection.connectedness.WeaklyConnectedComponents;
-import es.uam.eps.ir.relison.sna.metrics.distance.pair.EdgeBetweenness;
-import es.uam.eps.ir.relison.sna.community.Dendogram;
-import es.uam.eps.ir.relison.graph.Graph;
-import es.uam.eps.ir.relison.graph.generator.GraphCloneGenerator;
-import es.uam.eps.ir.relison.graph.generator.SubGraphGenerator;
-import es.uam.eps.ir.relison.graph.generator.exception.GeneratorBadConfiguredException;
-import es.uam.eps.ir.relison.graph.generator.exception.GeneratorNotConfiguredException;
-import es.uam.eps.ir.relison.index.fast.FastIndex;
-import es.uam.eps.ir.relison.sna.metrics.communities.graph.Modularity;
-import es.uam.eps.ir.relison.utils.datatypes.Pair;
-import org.jooq.lambda.tuple.Tuple2;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
 import org.jooq.lambda.tuple.Tuple3;
 
 import java.util.*;
-import java.util.stream.Collectors;
 
 /**
  * Implementation of the Girvan-Newman community detection algorithm, based on removing edges with the highest
  * betweenness value.
  *
+ * <p>After removing an edge, the betweenness is only recomputed for the edges in the connected component which
+ * contained it, since the shortest paths in the rest of the network do not change. Two optional approximations
+ * are also available: removing, in each round, a batch with the edges with the highest betweenness (before
+ * recomputing it), and estimating the betweenness from the shortest paths starting at a random sample of the nodes
+ * of each component.</p>
+ *
  * <p><b>Reference: </b>M. Girvan, M.E.J. Newman. Community structure in social and biological networks, Proc. Natl. Acad. Sci. USA 99, 7821–7826 (2002)</p>
+ * <p><b>Reference: </b>U. Brandes, C. Pich. Centrality estimation in large networks. International Journal of Bifurcation and Chaos 17(7), pp. 2303-2318 (2007)</p>
  *
  * @author Javier Sanz-Cruzado (javier.sanz-cruzado@uam.es)
  * @author Pablo Castells (pablo.castells@uam.es)
@@ -33,11 +31,46 @@ import java.util.stream.Collectors;
  */
 public class GirvanNewman<U> implements CommunityDetectionAlgorithm<U>, DendogramCommunityDetectionAlgorithm<U>
 {
+    /**
+     * Number of edges to remove in each round, before recomputing the betweenness.
+     */
+    private final int batchSize;
+    /**
+     * Number of source nodes to sample in each component for estimating the betweenness (all of them if zero).
+     */
+    private final int numSamples;
+    /**
+     * The seed for the random number generator.
+     */
+    private final int seed;
     /**
      * The optimal number of communities.
      */
     private int optimalNumComms;
 
+    /**
+     * Constructor. Removes edges one by one, using the exact betweenness values.
+     */
+    public GirvanNewman()
+    {
+        this(1, 0, 0);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param batchSize  the number of edges to remove in each round, before recomputing the betweenness.
+     * @param numSamples the number of source nodes to sample in each component for estimating the betweenness (if
+     *                   zero or negative, all the nodes are used, and the exact betweenness is computed).
+     * @param seed       the seed for the random number generator (only used when sampling).
+     */
+    public GirvanNewman(int batchSize, int numSamples, int seed)
+    {
+        this.batchSize = Math.max(batchSize, 1);
+        this.numSamples = Math.max(numSamples, 0);
+        this.seed = seed;
+    }
+
     @Override
     public Communities<U> detectCommunities(Graph<U> graph)
     {
@@ -48,199 +81,723 @@ public class GirvanNewman<U> implements CommunityDetectionAlgorithm<U>, Dendogra
     @Override
     public Dendogram<U> detectCommunityDendogram(Graph<U> graph)
     {
-        Graph<U> clone;
-        try
-        {
-            GraphCloneGenerator<U> ggen = new GraphCloneGenerator<>();
-            ggen.configure(graph);
-            clone = ggen.generate();
-        }
-        catch (GeneratorNotConfiguredException | GeneratorBadConfiguredException e)
-        {
-            return null; // Although this might never happen.
-        }
-
-        // We have to build the dendogram. The dendogram has, as leaves, the different nodes in the
-        // graph. So:
+        // The dendogram has, as leaves, the different nodes in the graph.
         FastIndex<U> fastIndex = new FastIndex<>();
+        graph.getAllNodes().forEach(fastIndex::addObject);
+        Network net = new Network(graph, fastIndex);
+        int n = net.numNodes;
+
+        Division division = new Division(net);
+        double maxq = division.modularity();
+        this.optimalNumComms = division.numComms;
 
-        List<Tuple3<Integer, Integer, Integer>> triplets = new ArrayList<>();
+        Random rng = new Random(seed);
+        double[] betweenness = new double[net.numEdges];
+        Brandes brandes = new Brandes(net);
+        for (int c = 0; c < division.numComms; ++c)
+        {
+            brandes.compute(division.members.get(c), betweenness, numSamples, rng);
+        }
 
-        Communities<U> aux;
-        Map<Integer, Integer> clusterMap = new HashMap<>();
+        IntArrayList affected = new IntArrayList();
+        boolean[] isAffected = new boolean[n];
+        while (division.numComms < n && net.numAlive > 0)
+        {
+            // We take the edges with the highest betweenness in the network:
+            int[] batch = top(net, betweenness, batchSize);
 
-        graph.getAllNodes().forEach(fastIndex::addObject);
+            // We remove them, one by one, checking whether they divide their component.
+            for (int e : batch)
+            {
+                net.remove(e);
+                int comm = division.comm[net.src[e]];
+                int newComm = division.split(net.src[e], net.dst[e]);
+                if (newComm >= 0)
+                {
+                    double q = division.modularity();
+                    if (q > maxq)
+                    {
+                        this.optimalNumComms = division.numComms;
+                        maxq = q;
+                    }
+                }
 
-        int minCluster = 2*fastIndex.numObjects()-2;
-        clusterMap.put(0, minCluster);
+                for (int c : newComm >= 0 ? new int[]{comm, newComm} : new int[]{comm})
+                {
+                    if (!isAffected[c])
+                    {
+                        isAffected[c] = true;
+                        affected.add(c);
+                    }
+                }
+            }
 
-        // We first compute the edge betweenness of the edges in the original network:
-        EdgeBetweenness<U> edgeBetweenness = new EdgeBetweenness<>(false);
-        Map<Pair<U>, Double> betweenness = edgeBetweenness.compute(graph);
+            // Then, we update the betweenness values in the affected components.
+            for (int c : affected)
+            {
+                brandes.compute(division.members.get(c), betweenness, numSamples, rng);
+                isAffected[c] = false;
+            }
+            affected.clear();
+        }
 
-        Comparator<Tuple2<Pair<U>, Double>> comparator = (o1, o2) -> Double.compare(o2.v2, o1.v2);
+        return new Dendogram<>(fastIndex, graph, division.triplets().stream());
+    }
 
-        // As a first step, we find the connected components of the network.
-        CommunityDetectionAlgorithm<U> connectedness = new WeaklyConnectedComponents<>();
-        aux = connectedness.detectCommunities(graph);
+    /**
+     * Finds the alive edges with the highest betweenness.
+     *
+     * @param net         the network.
+     * @param betweenness the betweenness of the edges.
+     * @param k           the maximum number of edges to find.
+     *
+     * @return the edges, sorted by decreasing betweenness.
+     */
+    private static int[] top(Network net, double[] betweenness, int k)
+    {
+        if (k == 1)
+        {
+            int best = -1;
+            for (int e = 0; e < net.numEdges; ++e)
+            {
+                if (net.alive[e] && (best < 0 || betweenness[e] > betweenness[best]))
+                {
+                    best = e;
+                }
+            }
+            return new int[]{best};
+        }
 
-        // As a first step, we find the dendogram for the wcc:
-        if(aux.getNumCommunities() > 1)
+        // Min-heap containing the best edges found so far.
+        PriorityQueue<Integer> heap = new PriorityQueue<>(k, (e1, e2) -> betweenness[e1] != betweenness[e2] ? Double.compare(betweenness[e1], betweenness[e2]) : Integer.compare(e2, e1));
+        for (int e = 0; e < net.numEdges; ++e)
         {
-            for(int i = 0; i < aux.getNumCommunities() - 2; ++i)
+            if (net.alive[e])
             {
-                int parent = minCluster;
-                int leftChild;
-                if(aux.getCommunitySize(0) == 1)
+                if (heap.size() < k)
                 {
-                    U u = aux.getUsers(i).collect(Collectors.toList()).get(0);
-                    leftChild = fastIndex.object2idx(u);
+                    heap.add(e);
                 }
-                else
+                else if (betweenness[e] > betweenness[heap.peek()])
                 {
-                    leftChild = --minCluster;
+                    heap.poll();
+                    heap.add(e);
                 }
+            }
+        }
 
-                int rightChild = --minCluster;
+        int[] batch = new int[heap.size()];
+        for (int i = batch.length - 1; i >= 0; --i)
+        {
+            batch[i] = heap.poll();
+        }
+        return batch;
+    }
 
-                clusterMap.put(i, leftChild);
-                triplets.add(new Tuple3<>(leftChild, rightChild, parent));
-            }
+    /**
+     * Network, stored as arrays of edges, and the edges incident to each node in compressed sparse rows.
+     */
+    private static class Network
+    {
+        /**
+         * Number of nodes.
+         */
+        final int numNodes;
+        /**
+         * Number of edges.
+         */
+        final int numEdges;
+        /**
+         * Whether the network is directed or not.
+         */
+        final boolean directed;
+        /**
+         * Origin of each edge.
+         */
+        final int[] src;
+        /**
+         * Destination of each edge.
+         */
+        final int[] dst;
+        /**
+         * Whether each edge has not been removed.
+         */
+        final boolean[] alive;
+        /**
+         * Offsets of the edges leaving each node (all the incident edges, if the network is undirected).
+         */
+        final int[] outOffsets;
+        /**
+         * Edges leaving each node (all the incident edges, if the network is undirected).
+         */
+        final int[] outEdges;
+        /**
+         * Offsets of the edges reaching each node (empty if the network is undirected).
+         */
+        final int[] inOffsets;
+        /**
+         * Edges reaching each node (empty if the network is undirected).
+         */
+        final int[] inEdges;
+        /**
+         * Number of edges which have not been removed.
+         */
+        int numAlive;
+
+        /**
+         * Constructor.
+         *
+         * @param graph the graph.
+         * @param index the index of the nodes.
+         * @param <U>   type of the users.
+         */
+        <U> Network(Graph<U> graph, FastIndex<U> index)
+        {
+            this.numNodes = index.numObjects();
+            this.directed = graph.isDirected();
 
-            // Now we test the final two:
-            int parent = minCluster;
-            int leftChild;
-            int index = aux.getNumCommunities()-2;
-            if(aux.getCommunitySize(index) == 1)
+            IntArrayList srcList = new IntArrayList();
+            IntArrayList dstList = new IntArrayList();
+            for (int u = 0; u < numNodes; ++u)
             {
-                U u = aux.getUsers(index).collect(Collectors.toList()).get(0);
-                leftChild = fastIndex.object2idx(u);
+                int uidx = u;
+                graph.getAdjacentNodes(index.idx2object(u)).mapToInt(index::object2idx).forEach(v ->
+                {
+                    if (directed || uidx <= v)
+                    {
+                        srcList.add(uidx);
+                        dstList.add(v);
+                    }
+                });
             }
-            else
+            this.src = srcList.toIntArray();
+            this.dst = dstList.toIntArray();
+            this.numEdges = src.length;
+            this.numAlive = numEdges;
+            this.alive = new boolean[numEdges];
+            Arrays.fill(alive, true);
+
+            this.outOffsets = new int[numNodes + 1];
+            this.inOffsets = new int[numNodes + 1];
+            for (int e = 0; e < numEdges; ++e)
             {
-                leftChild = --minCluster;
+                outOffsets[src[e] + 1]++;
+                if (directed)
+                {
+                    inOffsets[dst[e] + 1]++;
+                }
+                else if (src[e] != dst[e])
+                {
+                    outOffsets[dst[e] + 1]++;
+                }
             }
-
-            clusterMap.put(index, leftChild);
-
-            int rightChild;
-            ++index;
-            if(aux.getCommunitySize(index) == 1)
+            for (int u = 0; u < numNodes; ++u)
             {
-                U u = aux.getUsers(index).collect(Collectors.toList()).get(0);
-                rightChild = fastIndex.object2idx(u);
+                outOffsets[u + 1] += outOffsets[u];
+                inOffsets[u + 1] += inOffsets[u];
             }
-            else
+            this.outEdges = new int[outOffsets[numNodes]];
+            this.inEdges = new int[inOffsets[numNodes]];
+            int[] outPos = Arrays.copyOf(outOffsets, numNodes);
+            int[] inPos = Arrays.copyOf(inOffsets, numNodes);
+            for (int e = 0; e < numEdges; ++e)
             {
-                rightChild = --minCluster;
+                outEdges[outPos[src[e]]++] = e;
+                if (directed)
+                {
+                    inEdges[inPos[dst[e]]++] = e;
+                }
+                else if (src[e] != dst[e])
+                {
+                    outEdges[outPos[dst[e]]++] = e;
+                }
             }
+        }
 
-            clusterMap.put(index, rightChild);
+        /**
+         * Obtains the other endpoint of an edge.
+         *
+         * @param e the edge.
+         * @param u one of the endpoints of the edge.
+         *
+         * @return the other endpoint.
+         */
+        int other(int e, int u)
+        {
+            return src[e] == u ? dst[e] : src[e];
+        }
 
-            triplets.add(new Tuple3<>(leftChild, rightChild, parent));
+        /**
+         * Removes an edge from the network.
+         *
+         * @param e the edge.
+         */
+        void remove(int e)
+        {
+            alive[e] = false;
+            numAlive--;
         }
+    }
 
-        Modularity<U> mod = new Modularity<>();
-        double maxq = mod.compute(graph, aux);
+    /**
+     * Computes the (possibly estimated) edge betweenness in a connected component of the network, following the
+     * algorithm by Brandes.
+     */
+    private static class Brandes
+    {
+        /**
+         * The network.
+         */
+        private final Network net;
+        /**
+         * Distances from the source node (-1 if not reached).
+         */
+        private final int[] dist;
+        /**
+         * Number of shortest paths from the source node.
+         */
+        private final double[] sigma;
+        /**
+         * Dependency of the source node on each node.
+         */
+        private final double[] delta;
+        /**
+         * Nodes, in order of visit.
+         */
+        private final int[] stack;
+
+        /**
+         * Constructor.
+         *
+         * @param net the network.
+         */
+        Brandes(Network net)
+        {
+            this.net = net;
+            this.dist = new int[net.numNodes];
+            this.sigma = new double[net.numNodes];
+            this.delta = new double[net.numNodes];
+            this.stack = new int[net.numNodes];
+            Arrays.fill(dist, -1);
+        }
 
-        while(aux.getNumCommunities() < graph.getVertexCount())
+        /**
+         * Computes the betweenness of the alive edges in a connected component.
+         *
+         * @param members     the nodes in the component.
+         * @param betweenness the betweenness of the edges (the values for the component are overwritten).
+         * @param numSamples  the number of source nodes to sample (all the nodes if zero).
+         * @param rng         the random number generator.
+         */
+        void compute(IntArrayList members, double[] betweenness, int numSamples, Random rng)
         {
-            try
+            for (int u : members)
             {
-                // First step: we sort the links by betweenness value:
-                List<Tuple2<Pair<U>, Double>> list = new ArrayList<>();
-                betweenness.forEach((key, value) -> list.add(new Tuple2<>(key, value)));
-                list.sort(comparator);
-
-                // We take the edge with the highest betweenness in the network:
-                Pair<U> p = list.get(0).v1;
-
-                // Then
-                // a) we remove the edge
-                clone.removeEdge(p.v1(), p.v2());
-
-                // b) we find a subgraph for the connected component the edge belonged to:
-                int comm = aux.getCommunity(p.v1());
-                SubGraphGenerator<U> subGraphGenerator = new SubGraphGenerator<>();
-                subGraphGenerator.configure(clone, aux.getUsers(aux.getCommunity(p.v1())).collect(Collectors.toCollection(HashSet::new)));
-                Graph<U> subgraph = subGraphGenerator.generate();
+                for (int j = net.outOffsets[u]; j < net.outOffsets[u + 1]; ++j)
+                {
+                    betweenness[net.outEdges[j]] = 0.0;
+                }
+            }
+            if (members.size() <= 1)
+            {
+                return;
+            }
 
-                // c) we update the edge betweenness values for such subgraph
-                EdgeBetweenness<U> betw = new EdgeBetweenness<>(false);
-                Map<Pair<U>, Double> newBetw = betw.compute(subgraph);
-                newBetw.forEach(betweenness::put);
-                betweenness.remove(p);
+            int[] sources = members.toIntArray();
+            int numSources = sources.length;
+            double scale = 1.0;
+            if (numSamples > 0 && numSamples < sources.length)
+            {
+                // Partial Fisher-Yates shuffle: the first positions contain the sample.
+                for (int i = 0; i < numSamples; ++i)
+                {
+                    int j = i + rng.nextInt(sources.length - i);
+                    int aux = sources[i];
+                    sources[i] = sources[j];
+                    sources[j] = aux;
+                }
+                numSources = numSamples;
+                scale = sources.length / (numSamples + 0.0);
+            }
 
-                // d) we check whether removing that edge has lead us to a new community division.
-                Communities<U> scc = connectedness.detectCommunities(subgraph);
+            for (int i = 0; i < numSources; ++i)
+            {
+                this.accumulate(sources[i], betweenness, scale);
+            }
+        }
 
-                // if the component is divided in two:
-                if (scc.getNumCommunities() > 1)
+        /**
+         * Adds the dependencies of a source node to the betweenness of the edges.
+         *
+         * @param s           the source node.
+         * @param betweenness the betweenness of the edges.
+         * @param scale       the factor to multiply the dependencies.
+         */
+        private void accumulate(int s, double[] betweenness, double scale)
+        {
+            int top = 0;
+            int head = 0;
+            stack[top++] = s;
+            dist[s] = 0;
+            sigma[s] = 1.0;
+            while (head < top)
+            {
+                int u = stack[head++];
+                for (int j = net.outOffsets[u]; j < net.outOffsets[u + 1]; ++j)
                 {
-                    // We first obtain the new community partition
-                    Communities<U> aux2 = new Communities<>();
-                    for (int i = 0; i < aux.getNumCommunities(); ++i)
+                    int e = net.outEdges[j];
+                    if (!net.alive[e])
                     {
-                        int j = i;
-                        aux2.addCommunity();
-                        if (i == comm)
-                        {
-                            scc.getUsers(0).forEach(u -> aux2.add(u, j));
-                        }
-                        else
-                        {
-                            aux.getUsers(i).forEach(u -> aux2.add(u, j));
-                        }
+                        continue;
                     }
-
-                    aux2.addCommunity();
-                    Communities<U> finalAux = aux;
-                    scc.getUsers(1).forEach(u -> aux2.add(u, finalAux.getNumCommunities()));
-
-                    // We find the corresponding modularity, to see whether the division is the optimal one:
-                    double q = mod.compute(graph, aux2);
-                    if (q > maxq)
+                    int v = net.other(e, u);
+                    if (dist[v] < 0)
                     {
-                        this.optimalNumComms = aux2.getNumCommunities();
-                        maxq = q;
+                        dist[v] = dist[u] + 1;
+                        stack[top++] = v;
                     }
-
-                    // Then, we find the new edges for the dendogram:
-                    int parent = clusterMap.get(comm);
-                    int childrenA;
-                    if (scc.getCommunitySize(0) == 1)
+                    if (dist[v] == dist[u] + 1)
                     {
-                        U u = scc.getCommunity(p.v1()) == 0 ? p.v1() : p.v2();
-                        childrenA = fastIndex.object2idx(u);
+                        sigma[v] += sigma[u];
                     }
-                    else
+                }
+            }
+
+            // Nodes are visited in order of non-increasing distance from the source.
+            for (int i = top - 1; i >= 0; --i)
+            {
+                int w = stack[i];
+                int offset = net.directed ? net.inOffsets[w] : net.outOffsets[w];
+                int end = net.directed ? net.inOffsets[w + 1] : net.outOffsets[w + 1];
+                for (int j = offset; j < end; ++j)
+                {
+                    int e = net.directed ? net.inEdges[j] : net.outEdges[j];
+                    if (!net.alive[e])
                     {
-                        childrenA = --minCluster;
+                        continue;
                     }
-
-                    int childrenB;
-                    if (scc.getCommunitySize(1) == 1)
+                    int v = net.other(e, w);
+                    if (dist[v] >= 0 && dist[v] == dist[w] - 1)
                     {
-                        U u = scc.getCommunity(p.v1()) == 1 ? p.v1() : p.v2();
-                        childrenB = fastIndex.object2idx(u);
+                        double c = sigma[v] / sigma[w] * (1.0 + delta[w]);
+                        betweenness[e] += scale * c;
+                        delta[v] += c;
                     }
-                    else
+                }
+            }
+
+            for (int i = 0; i < top; ++i)
+            {
+                int w = stack[i];
+                dist[w] = -1;
+                sigma[w] = 0.0;
+                delta[w] = 0.0;
+            }
+        }
+    }
+
+    /**
+     * Division of the network into weakly connected components, which keeps the hierarchy of divisions and the
+     * quantities needed for computing the modularity.
+     */
+    private static class Division
+    {
+        /**
+         * The network.
+         */
+        private final Network net;
+        /**
+         * Component of each node.
+         */
+        final int[] comm;
+        /**
+         * Nodes in each component.
+         */
+        final List<IntArrayList> members;
+        /**
+         * Node of the dendogram representing each component (for components of a single node, the node itself;
+         * otherwise, a temporal identifier greater or equal than the number of nodes).
+         */
+        private final IntArrayList clusters;
+        /**
+         * Divisions of the dendogram, as (left child, right child, parent) triplets, using temporal identifiers.
+         */
+        private final List<int[]> divisions;
+        /**
+         * Degree of each node (out-degree, if the network is directed).
+         */
+        private final int[] outDegree;
+        /**
+         * In-degree of each node (only if the network is directed).
+         */
+        private final int[] inDegree;
+        /**
+         * Number of edges of the original network, counting undirected edges twice.
+         */
+        private final double numEdges;
+        /**
+         * Number of edges of the original network between different components.
+         */
+        private double interEdges;
+        /**
+         * Sum, over the components, of the product of the total out-degree and in-degree of its nodes.
+         */
+        private double degreeProduct;
+        /**
+         * Number of components.
+         */
+        int numComms;
+        /**
+         * Next temporal identifier for the dendogram nodes.
+         */
+        private int nextCluster;
+        /**
+         * Marks for the nodes visited by the search.
+         */
+        private final boolean[] visited;
+
+        /**
+         * Constructor. Finds the weakly connected components of the network.
+         *
+         * @param net the network.
+         */
+        Division(Network net)
+        {
+            int n = net.numNodes;
+            this.net = net;
+            this.comm = new int[n];
+            this.members = new ArrayList<>();
+            this.clusters = new IntArrayList();
+            this.divisions = new ArrayList<>();
+            this.visited = new boolean[n];
+            this.nextCluster = n;
+
+            this.outDegree = new int[n];
+            this.inDegree = new int[n];
+            for (int e = 0; e < net.numEdges; ++e)
+            {
+                outDegree[net.src[e]]++;
+                inDegree[net.dst[e]]++;
+                if (!net.directed && net.src[e] != net.dst[e])
+                {
+                    outDegree[net.dst[e]]++;
+                    inDegree[net.src[e]]++;
+                }
+            }
+            this.numEdges = net.directed ? net.numEdges : 2.0 * net.numEdges;
+
+            // Find the connected components.
+            Arrays.fill(comm, -1);
+            for (int u = 0; u < n; ++u)
+            {
+                if (comm[u] < 0)
+                {
+                    IntArrayList component = this.search(u, -1);
+                    for (int v : component)
                     {
-                        childrenB = --minCluster;
+                        comm[v] = numComms;
+                        visited[v] = false;
                     }
+                    members.add(component);
+                    clusters.add(component.size() == 1 ? u : nextCluster++);
+                    degreeProduct += this.degreeProduct(component);
+                    numComms++;
+                }
+            }
 
-                    triplets.add(new Tuple3<>(childrenA, childrenB, parent));
-                    clusterMap.put(parent, childrenA);
-                    clusterMap.put(aux2.getNumCommunities() - 1, childrenB);
-                    aux = aux2;
+            // In the dendogram, the root is divided into the first component and the rest, the rest into the second
+            // component and the rest, and so on.
+            if (numComms > 1)
+            {
+                int parent = nextCluster++;
+                for (int c = 0; c < numComms - 1; ++c)
+                {
+                    int right = c == numComms - 2 ? clusters.getInt(numComms - 1) : nextCluster++;
+                    divisions.add(new int[]{clusters.getInt(c), right, parent});
+                    parent = right;
                 }
             }
-            catch (GeneratorNotConfiguredException | GeneratorBadConfiguredException e)
+        }
+
+        /**
+         * Checks whether the component containing the endpoints of a removed edge has been divided, and, in that
+         * case, updates the division.
+         *
+         * @param u one endpoint of the removed edge.
+         * @param v the other endpoint of the removed edge.
+         *
+         * @return the identifier of the new component if the component has been divided, -1 otherwise.
+         */
+        int split(int u, int v)
+        {
+            IntArrayList side = this.search(u, v);
+            if (side.isEmpty())
+            {
+                return -1;
+            }
+
+            // The nodes reachable from u form a new component, and the rest remain in the old one.
+            int old = comm[u];
+            IntArrayList rest = new IntArrayList();
+            for (int w : members.get(old))
+            {
+                if (!visited[w])
+                {
+                    rest.add(w);
+                }
+            }
+            int newComm = numComms++;
+            for (int w : side)
+            {
+                comm[w] = newComm;
+                visited[w] = false;
+            }
+
+            // Update the quantities for the modularity: the edges of the original network between both parts are
+            // now between communities.
+            for (int w : side)
+            {
+                interEdges += this.count(w, net.outOffsets, net.outEdges, old);
+                if (net.directed)
+                {
+                    interEdges += this.count(w, net.inOffsets, net.inEdges, old);
+                }
+            }
+            degreeProduct += this.degreeProduct(side) + this.degreeProduct(rest) - this.degreeProduct(members.get(old));
+
+            int parent = clusters.getInt(old);
+            int left = rest.size() == 1 ? rest.getInt(0) : nextCluster++;
+            int right = side.size() == 1 ? side.getInt(0) : nextCluster++;
+            divisions.add(new int[]{left, right, parent});
+            members.set(old, rest);
+            clusters.set(old, left);
+            members.add(side);
+            clusters.add(right);
+            return newComm;
+        }
+
+        /**
+         * Counts the edges of the original network between a node and the nodes of a component.
+         *
+         * @param u       the node.
+         * @param offsets the offsets of the incident edges.
+         * @param edges   the incident edges.
+         * @param c       the component.
+         *
+         * @return the number of edges.
+         */
+        private int count(int u, int[] offsets, int[] edges, int c)
+        {
+            int count = 0;
+            for (int j = offsets[u]; j < offsets[u + 1]; ++j)
+            {
+                if (comm[net.other(edges[j], u)] == c)
+                {
+                    count++;
+                }
+            }
+            return count;
+        }
+
+        /**
+         * Computes the product of the total out-degree and the total in-degree of a set of nodes.
+         *
+         * @param nodes the nodes.
+         *
+         * @return the product.
+         */
+        private double degreeProduct(IntArrayList nodes)
+        {
+            double out = 0.0;
+            double in = 0.0;
+            for (int u : nodes)
+            {
+                out += outDegree[u];
+                in += inDegree[u];
+            }
+            return out * in;
+        }
+
+        /**
+         * Searches the nodes reachable from a node through alive edges (in any direction).
+         *
+         * @param u      the node to start the search.
+         * @param target a node which stops the search when found (-1 to find the whole component).
+         *
+         * @return the nodes reachable from u, marked as visited, or an empty list (without marks) if the target has
+         *         been found.
+         */
+        private IntArrayList search(int u, int target)
+        {
+            IntArrayList found = new IntArrayList();
+            found.add(u);
+            visited[u] = true;
+            for (int head = 0; head < found.size(); ++head)
             {
-                e.printStackTrace(); // This should never happen
+                int w = found.getInt(head);
+                for (int k = 0; k < 2; ++k)
+                {
+                    int[] offsets = k == 0 ? net.outOffsets : net.inOffsets;
+                    int[] edges = k == 0 ? net.outEdges : net.inEdges;
+                    for (int j = offsets[w]; j < offsets[w + 1]; ++j)
+                    {
+                        int e = edges[j];
+                        int x = net.other(e, w);
+                        if (net.alive[e] && !visited[x])
+                        {
+                            if (x == target)
+                            {
+                                for (int y : found)
+                                {
+                                    visited[y] = false;
+                                }
+                                return new IntArrayList();
+                            }
+                            visited[x] = true;
+                            found.add(x);
+                        }
+                    }
+                }
             }
+            return found;
+        }
+
+        /**
+         * Computes the modularity of the current division, as the {@link es.uam.eps.ir.relison.sna.metrics.communities.graph.Modularity}
+         * metric does. When every edge lies in the same component, the modularity is zero.
+         *
+         * @return the modularity.
+         */
+        double modularity()
+        {
+            double expected = degreeProduct / numEdges;
+            return numEdges - expected > 0.0 ? (numEdges - interEdges - expected) / (numEdges - expected) : 0.0;
         }
 
-        return new Dendogram<>(fastIndex, graph, triplets.stream());
+        /**
+         * Obtains the triplets defining the dendogram. The node of the dendogram representing the i-th divided
+         * component receives the identifier 2n-2-i, as the dendogram expects.
+         *
+         * @return the (left child, right child, parent) triplets.
+         */
+        List<Tuple3<Integer, Integer, Integer>> triplets()
+        {
+            int n = net.numNodes;
+            int[] ids = new int[Math.max(nextCluster - n, 0)];
+            int next = 2 * n - 2;
+            for (int[] division : divisions)
+            {
+                ids[division[2] - n] = next--;
+            }
+
+            List<Tuple3<Integer, Integer, Integer>> triplets = new ArrayList<>();
+            for (int[] division : divisions)
+            {
+                int left = division[0] < n ? division[0] : ids[division[0] - n];
+                int right = division[1] < n ? division[1] : ids[division[1] - n];
+                triplets.add(new Tuple3<>(left, right, ids[division[2] - n]));
+            }
+            return triplets;
+        }
     }
-}
\ No newline at end of file
+}
@@ -18,14 +18,14 @@ import es.uam.eps.ir.relison.io.graph.PajekGraphWriter;
 import org.ranksys.formats.parsing.Parsers;
 
 import java.io.*;
-import java.util.HashMap;
-import java.util.Map;
-import java.util.Objects;
-import java.util.Scanner;
+import java.util.*;
+import java.util.stream.IntStream;
 
 /**
- * Community detection algorithm using the Infomap algorithm.
- * Uses the Infomap C++ implementation by Rosvall and Bergstrom (<a href="http://www.mapequation.org/code.html">link</a>), downloaded at 06 November 2018.
+ * Community detection algorithm using the Infomap algorithm. By default, the two-level map equation is optimized
+ * in-process, running several trials in parallel and keeping the partition with the shortest description length.
+ * If the location of an executable of the Infomap C++ implementation by Rosvall and Bergstrom
+ * (<a href="http://www.mapequation.org/code.html">link</a>) is provided, it is used instead.
  *
  * <p>
  * <b>Reference:</b>  M. Rosvall and C. Bergstrom. Maps of random walks on complex networks reveal community structure. Proceedings of the National Academy of Sciences 105(4), pp. 1118-1123 (2008)
@@ -39,14 +39,10 @@ import java.util.Scanner;
  */
 public class Infomap<U extends Serializable> implements CommunityDetectionAlgorithm<U>
 {
-    /**
-     * Download link for the Infomap C++ library.
-     */
-    private final static String DOWNLOADLINK = "http://www.mapequation.org/code.html#Download-and-compile";
     /**
      * Pre-fixed random seed
      */
-    private final static int RANDOMSEED = 345234;
+    public final static int RANDOMSEED = 345234;
     /**
      * Pre-fixed number of trials.
      */
@@ -56,9 +52,9 @@ public class Infomap<U extends Serializable> implements CommunityDetectionAlgori
      */
     public final int seed;
     /**
-     * Executable path.
+     * Executable path (null if communities are found in-process).
      */
-    private String exec;
+    private final String exec;
     /**
      * Temporary path where we want to store the auxiliar networks.
      */
@@ -79,7 +75,6 @@ public class Infomap<U extends Serializable> implements CommunityDetectionAlgori
     public Infomap(String exec, String temp, int numTrials, int seed)
     {
         this.exec = exec;
-
         this.temp = temp;
         this.numTrials = numTrials;
         this.seed = seed;
@@ -110,10 +105,9 @@ public class Infomap<U extends Serializable> implements CommunityDetectionAlgori
 
     /**
      * Constructor. Sets the number of trials and the random seed at a prefixed value.
-     * It copies the executable from the resources folder into the temporary files
-     * folder.
+     * Communities are found in-process.
      *
-     * @param temp temporary path where we want to store all the auxiliar networks.
+     * @param temp temporary path (not used, as no auxiliar network is stored).
      */
     public Infomap(String temp)
     {
@@ -121,11 +115,10 @@ public class Infomap<U extends Serializable> implements CommunityDetectionAlgori
     }
 
     /**
-     * Constructor. Sets the number of trials and the random seed at a prefixed value.
-     * It copies the executable from the resources folder into the temporary files
-     * folder.
+     * Constructor. Sets the random seed at a prefixed value.
+     * Communities are found in-process.
      *
-     * @param temp      temporary path where we want to store all the auxiliar networks.
+     * @param temp      temporary path (not used, as no auxiliar network is stored).
      * @param numTrials number of trials before obtaining the communities.
      */
     public Infomap(String temp, int numTrials)
@@ -134,11 +127,9 @@ public class Infomap<U extends Serializable> implements CommunityDetectionAlgori
     }
 
     /**
-     * Constructor. Sets the number of trials and the random seed at a prefixed value.
-     * It copies the executable from the resources folder into the temporary files
-     * folder.
+     * Constructor. Communities are found in-process.
      *
-     * @param temp      temporary path where we want to store all the auxiliar networks.
+     * @param temp      temporary path (not used, as no auxiliar network is stored).
      * @param numTrials number of trials before obtaining the communities.
      * @param seed      the random seed.
      */
@@ -147,63 +138,76 @@ public class Infomap<U extends Serializable> implements CommunityDetectionAlgori
         this(null, temp, numTrials, seed);
     }
 
+    /**
+     * Constructor. Communities are found in-process, with the prefixed number of trials and random seed.
+     */
+    public Infomap()
+    {
+        this(null, null, NUMTRIALS, RANDOMSEED);
+    }
+
+    /**
+     * Constructor. Communities are found in-process.
+     *
+     * @param numTrials number of trials before obtaining the communities.
+     * @param seed      the random seed.
+     */
+    public Infomap(int numTrials, int seed)
+    {
+        this(null, null, numTrials, seed);
+    }
+
     @Override
     public Communities<U> detectCommunities(Graph<U> graph)
     {
-        boolean modexec = false;
-
+        // If an executable is provided, it is used.
+        if(exec != null)
+        {
+            // First, we configure an auxiliar path for storing the Pajek graph.
+            String network = "tmpNet", path = temp;
+            new File(path).mkdir();
 
+            // Write the Pajek graph.
+            GraphWriter<U> graphWriter = new PajekGraphWriter<>();
+            graphWriter.write(graph, path + "/" + network + ".net");
 
-        // First, we configure an auxiliar path for storing the Pajek graph.
-        String network = "tmpNet", path = temp;
-        new File(path).mkdir();
+            System.out.println("File written");
+            return this.detectCommunities(graph, network, path);
+        }
 
-        // If exec does not exist, then, we copy it from the resources file:
-        if(exec == null)
+        // Otherwise, the map equation is optimized in-process. Trials run in parallel, and the shortest description wins.
+        Index<U> index = graph.getAdjacencyMatrixMap();
+        MapEquation mapEquation = new MapEquation(graph, index);
+        int trials = Math.max(numTrials, 1);
+        int[][] partitions = new int[trials][];
+        double[] lengths = new double[trials];
+        IntStream.range(0, trials).parallel().forEach(trial ->
         {
-            try
-            {
-                InputStream stream = getClass().getClassLoader().getResourceAsStream("Infomap");
-                assert stream != null;
-                stream = new BufferedInputStream(stream);
-
-                File outputfile = new File(temp + File.separator + "Infomap");
-                outputfile.setReadable(true, false);
-                outputfile.setWritable(true, false);
-                outputfile.setExecutable(true, false);
+            partitions[trial] = mapEquation.partition(new Random(seed + trial));
+            lengths[trial] = mapEquation.codelength(partitions[trial]);
+        });
 
-                OutputStream out = new BufferedOutputStream(new FileOutputStream(outputfile));
-
-                byte[] buffer = new byte[1024];
-                int lengthRead;
-                while((lengthRead = stream.read(buffer)) > 0)
-                {
-                    out.write(buffer, 0, lengthRead);
-                    out.flush();
-                }
-                this.exec = temp + File.separator + "Infomap";
-                modexec = true;
-                out.close();
-            }
-            catch (IOException e)
+        int best = 0;
+        for(int trial = 1; trial < trials; ++trial)
+        {
+            if(lengths[trial] < lengths[best])
             {
-                e.printStackTrace();
+                best = trial;
             }
         }
 
-        // Write the Pajek graph.
-        GraphWriter<U> graphWriter = new PajekGraphWriter<>();
-        graphWriter.write(graph, path + "/" + network + ".net");
-
-        System.out.println("File written");
-
-        Communities<U> communities = this.detectCommunities(graph, network, path);
-        // Detect communities
-        if(modexec)
+        Communities<U> comms = new Communities<>();
+        int[] modules = partitions[best];
+        int numComms = Arrays.stream(modules).max().orElse(-1) + 1;
+        for(int c = 0; c < numComms; ++c)
+        {
+            comms.addCommunity();
+        }
+        for(int uidx = 0; uidx < modules.length; ++uidx)
         {
-            exec = null;
+            comms.add(index.idx2object(uidx), modules[uidx]);
         }
-        return communities;
+        return comms;
     }
 
     /**
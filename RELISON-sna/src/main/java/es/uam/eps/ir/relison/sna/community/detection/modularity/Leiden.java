@@ -0,0 +1,191 @@
+/*
+ *  Copyright (C) 2021 Information Retrieval Group at Universidad Autónoma
+ *  de Madrid, http://ir.ii.uam.es
+ *
+ *  This Source Code Form is subject to the terms of the Mozilla Public
+ *  License, v. 2.0. If a copy of the MPL was not distributed with this
+ *  file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package es.uam.eps.ir.relison.sna.community.detection.modularity;
+
+import it.unimi.dsi.fastutil.ints.IntArrays;
+
+import java.util.Random;
+import java.util.stream.IntStream;
+
+/**
+ * Implementation of the Leiden community detection algorithm. It extends the Louvain algorithm with a refinement
+ * phase: before aggregating, each community is split into well-connected subcommunities, built by merging singleton
+ * nodes with the subcommunities of the same community, with a probability which grows with the increase of
+ * modularity. The subcommunities become the nodes of the next level, but they start in the community they were
+ * found in. This guarantees that communities are connected.
+ *
+ * <p>
+ * <b>Reference:</b> V.A. Traag, L. Waltman, N.J. van Eck. From Louvain to Leiden: guaranteeing well-connected communities. Scientific Reports 9: 5233 (2019)
+ * </p>
+ *
+ * @param <U> type of the users.
+ *
+ * @author Javier Sanz-Cruzado (javier.sanz-cruzado@uam.es)
+ * @author Pablo Castells (pablo.castells@uam.es)
+ */
+public class Leiden<U> extends AbstractLouvain<U>
+{
+    /**
+     * Default randomness of the refinement phase.
+     */
+    public static final double DEFAULT_RANDOMNESS = 0.01;
+    /**
+     * Randomness of the refinement phase: the higher, the more uniform the choice of the subcommunity.
+     */
+    private final double randomness;
+
+    /**
+     * Constructor.
+     *
+     * @param rngSeed    seed for the random number generator.
+     * @param threshold  the minimum variation of modularity for another round of local moving.
+     * @param resolution the resolution parameter of modularity (1.0 for the usual definition).
+     * @param randomness randomness of the refinement phase.
+     * @param parallel   whether the local moving phase is run in parallel.
+     */
+    public Leiden(int rngSeed, double threshold, double resolution, double randomness, boolean parallel)
+    {
+        super(rngSeed, threshold, resolution, parallel);
+        this.randomness = randomness;
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param threshold the minimum variation of modularity for another round of local moving.
+     * @param parallel  whether the local moving phase is run in parallel.
+     */
+    public Leiden(double threshold, boolean parallel)
+    {
+        this(0, threshold, 1.0, DEFAULT_RANDOMNESS, parallel);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param threshold the minimum variation of modularity for another round of local moving.
+     */
+    public Leiden(double threshold)
+    {
+        this(threshold, false);
+    }
+
+    @Override
+    protected int[] refine(Network net, int[] comm, int numComms, Random rng)
+    {
+        int n = net.numNodes;
+        double total = net.total;
+
+        // Sum of degrees of each community, and weight from each node to the rest of its community.
+        double[] totComm = new double[numComms];
+        double[] external = new double[n];
+        for (int v = 0; v < n; ++v)
+        {
+            totComm[comm[v]] += net.degrees[v];
+            for (int j = net.offsets[v]; j < net.offsets[v + 1]; ++j)
+            {
+                if (comm[net.targets[j]] == comm[v])
+                {
+                    external[v] += net.weights[j];
+                }
+            }
+        }
+
+        // Every node starts in its own subcommunity.
+        int[] refined = IntStream.range(0, n).toArray();
+        int[] sizes = new int[n];
+        double[] tot = new double[n];
+        double[] externalSub = new double[n];
+        for (int v = 0; v < n; ++v)
+        {
+            sizes[v] = 1;
+            tot[v] = net.degrees[v];
+            externalSub[v] = external[v];
+        }
+
+        int[] order = IntStream.range(0, n).toArray();
+        IntArrays.shuffle(order, rng);
+        WeightAccumulator acc = new WeightAccumulator(n);
+        double[] probs = new double[n];
+        int[] candidates = new int[n];
+        for (int v : order)
+        {
+            int s = comm[v];
+            double kv = net.degrees[v];
+            // Only well-connected singletons are merged.
+            if (sizes[refined[v]] != 1 || external[v] < resolution * kv * (totComm[s] - kv) / total)
+            {
+                continue;
+            }
+
+            for (int j = net.offsets[v]; j < net.offsets[v + 1]; ++j)
+            {
+                int w = net.targets[j];
+                if (comm[w] == s)
+                {
+                    acc.add(refined[w], net.weights[j]);
+                }
+            }
+
+            // Candidate subcommunities: the current one, and the well-connected ones with non-negative gain.
+            int cv = refined[v];
+            int numCandidates = 0;
+            double maxGain = 0.0;
+            candidates[numCandidates] = cv;
+            probs[numCandidates++] = 0.0;
+            for (int i = 0; i < acc.touched.size(); ++i)
+            {
+                int c = acc.touched.getInt(i);
+                if (c == cv || externalSub[c] < resolution * tot[c] * (totComm[s] - tot[c]) / total)
+                {
+                    continue;
+                }
+                double gain = 2.0 * (acc.get(c) - resolution * kv * tot[c] / total) / total;
+                if (gain >= 0.0)
+                {
+                    candidates[numCandidates] = c;
+                    probs[numCandidates++] = gain;
+                    maxGain = Math.max(maxGain, gain);
+                }
+            }
+
+            int chosen = cv;
+            if (numCandidates > 1)
+            {
+                double sum = 0.0;
+                for (int i = 0; i < numCandidates; ++i)
+                {
+                    probs[i] = Math.exp((probs[i] - maxGain) / randomness);
+                    sum += probs[i];
+                }
+                double r = rng.nextDouble() * sum;
+                int i = 0;
+                while (i < numCandidates - 1 && r >= probs[i])
+                {
+                    r -= probs[i];
+                    ++i;
+                }
+                chosen = candidates[i];
+            }
+
+            if (chosen != cv)
+            {
+                double weight = acc.get(chosen);
+                refined[v] = chosen;
+                sizes[cv] = 0;
+                tot[cv] = 0.0;
+                sizes[chosen]++;
+                tot[chosen] += kv;
+                externalSub[chosen] += external[v] - 2.0 * weight;
+            }
+            acc.clear();
+        }
+        return refined;
+    }
+}
@@ -0,0 +1,750 @@
+/*
+ *  Copyright (C) 2021 Information Retrieval Group at Universidad Autónoma
+ *  de Madrid, http://ir.ii.uam.es
+ *
+ *  This Source Code Form is subject to the terms of the Mozilla Public
+ *  License, v. 2.0. If a copy of the MPL was not distributed with this
+ *  file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package es.uam.eps.ir.relison.sna.community.detection.modularity;
+
+import es.uam.eps.ir.relison.graph.Graph;
+import es.uam.eps.ir.relison.index.Index;
+import it.unimi.dsi.fastutil.doubles.DoubleArrayList;
+import it.unimi.dsi.fastutil.ints.Int2IntOpenHashMap;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.ints.IntArrays;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+/**
+ * In-process optimizer of the two-level map equation, used by {@link Infomap}. Given the flow of a random walker over
+ * the network, the map equation measures the description length of its movements for a partition of the nodes into
+ * modules:
+ * <br>
+ * L(M) = plogp(q) - 2 sum_i plogp(q_i) - sum_a plogp(p_a) + sum_i plogp(q_i + p_i)
+ * <br>
+ * where q_i is the flow exiting module i, q is the sum of the exit flows, p_a is the flow of node a and p_i is the
+ * flow of the nodes in module i.
+ *
+ * <p>
+ * In undirected networks, the flow of a node is proportional to its weighted degree. In directed networks, it is
+ * given by PageRank, and the flow through the links excludes teleportation. The optimization follows the Infomap
+ * scheme: the core loop moves the nodes to the neighbouring module which most reduces the description length, and
+ * then aggregates the modules into the nodes of the next level, until no move improves it. Then, fine-tune and
+ * coarse-tune phases (re-optimizing the nodes from the current modules, and moving the submodules found inside each
+ * module) are alternated while they reduce the description length.
+ * </p>
+ *
+ * @author Javier Sanz-Cruzado (javier.sanz-cruzado@uam.es)
+ * @author Pablo Castells (pablo.castells@uam.es)
+ */
+class MapEquation
+{
+    /**
+     * Teleportation probability for computing the flow of directed networks.
+     */
+    static final double TELEPORTATION = 0.15;
+    /**
+     * Variations of the description length below this value are considered as rounding errors.
+     */
+    private static final double TOLERANCE = 1E-10;
+    /**
+     * Maximum number of iterations of the power method for computing the flow.
+     */
+    private static final int MAX_ITER = 500;
+    /**
+     * Maximum number of fine-tune / coarse-tune iterations.
+     */
+    private static final int MAX_TUNE = 10;
+    /**
+     * Maximum number of passes over the nodes when moving them between modules.
+     */
+    private static final int MAX_PASSES = 10;
+
+    /**
+     * The network.
+     */
+    private final Network net;
+    /**
+     * The sum of plogp over the flow of the nodes of the network.
+     */
+    private final double nodeEntropy;
+
+    /**
+     * Constructor.
+     *
+     * @param graph the graph.
+     * @param index the index of the nodes.
+     * @param <U>   type of the users.
+     */
+    <U> MapEquation(Graph<U> graph, Index<U> index)
+    {
+        this.net = Network.of(graph, index);
+        this.nodeEntropy = Arrays.stream(net.flow).map(MapEquation::plogp).sum();
+    }
+
+    /**
+     * Computes x log2(x).
+     *
+     * @param x the value.
+     *
+     * @return x log2(x), or 0 if x is not positive.
+     */
+    static double plogp(double x)
+    {
+        return x > 0.0 ? x * Math.log(x) / Math.log(2.0) : 0.0;
+    }
+
+    /**
+     * Finds a partition of the network into modules.
+     *
+     * @param rng the random number generator.
+     *
+     * @return the modules of the nodes.
+     */
+    int[] partition(Random rng)
+    {
+        int[] modules = optimize(net, IntStream.range(0, net.numNodes).toArray(), rng);
+        double length = codelength(net, modules);
+
+        // Coarse and fine tune are alternated until both fail to improve the partition.
+        int failures = 0;
+        for (int iter = 0; iter < MAX_TUNE && failures < 2; ++iter)
+        {
+            int[] candidate = iter % 2 == 0 ? coarseTune(net, modules, rng) : optimize(net, modules, rng);
+            double candLength = codelength(net, candidate);
+            if (candLength < length - TOLERANCE)
+            {
+                modules = candidate;
+                length = candLength;
+                failures = 0;
+            }
+            else
+            {
+                ++failures;
+            }
+        }
+
+        // A single module (for the nodes with flow) describes the walk better than the partition.
+        if (length >= -TOLERANCE)
+        {
+            int first = -1;
+            for (int u = 0; u < net.numNodes; ++u)
+            {
+                first = first < 0 && net.flow[u] > 0.0 ? u : first;
+                modules[u] = net.flow[u] > 0.0 ? first : u;
+            }
+        }
+        AbstractLouvain.renumber(modules);
+        return modules;
+    }
+
+    /**
+     * Computes the description length of a partition.
+     *
+     * @param modules the modules of the nodes.
+     *
+     * @return the description length.
+     */
+    double codelength(int[] modules)
+    {
+        return codelength(net, modules) - nodeEntropy;
+    }
+
+    /**
+     * Computes the part of the description length which depends on the partition.
+     *
+     * @param net     the network.
+     * @param modules the modules of the nodes.
+     *
+     * @return the module terms of the description length.
+     */
+    private static double codelength(Network net, int[] modules)
+    {
+        int[] comm = Arrays.copyOf(modules, modules.length);
+        int numComms = AbstractLouvain.renumber(comm);
+        Partition part = new Partition(net, comm, numComms);
+        return part.codelength();
+    }
+
+    /**
+     * Core algorithm: moves the nodes between modules, and aggregates the modules into the nodes of the next level,
+     * until no node is moved.
+     *
+     * @param net     the network.
+     * @param initial the initial modules of the nodes.
+     * @param rng     the random number generator.
+     *
+     * @return the modules of the nodes.
+     */
+    private static int[] optimize(Network net, int[] initial, Random rng)
+    {
+        int[] membership = IntStream.range(0, net.numNodes).toArray();
+        int[] comm = Arrays.copyOf(initial, initial.length);
+        Network current = net;
+        while (true)
+        {
+            int numComms = AbstractLouvain.renumber(comm);
+            Partition part = new Partition(current, comm, numComms);
+            part.move(rng);
+            numComms = AbstractLouvain.renumber(comm);
+            for (int u = 0; u < net.numNodes; ++u)
+            {
+                membership[u] = comm[membership[u]];
+            }
+            if (numComms == current.numNodes)
+            {
+                return membership;
+            }
+            current = current.aggregate(comm, numComms);
+            comm = IntStream.range(0, numComms).toArray();
+        }
+    }
+
+    /**
+     * Coarse tune: splits each module into submodules, and moves the submodules between the modules.
+     *
+     * @param net     the network.
+     * @param modules the modules of the nodes.
+     * @param rng     the random number generator.
+     *
+     * @return the new modules of the nodes.
+     */
+    private static int[] coarseTune(Network net, int[] modules, Random rng)
+    {
+        int[] comm = Arrays.copyOf(modules, modules.length);
+        int numComms = AbstractLouvain.renumber(comm);
+        int[][] members = CommunityNetwork.members(comm, numComms);
+
+        int[] subs = new int[net.numNodes];
+        int numSubs = 0;
+        for (int c = 0; c < numComms; ++c)
+        {
+            int[] local = optimize(net.subnetwork(members[c]), IntStream.range(0, members[c].length).toArray(), rng);
+            int max = 0;
+            for (int i = 0; i < members[c].length; ++i)
+            {
+                subs[members[c][i]] = numSubs + local[i];
+                max = Math.max(max, local[i]);
+            }
+            numSubs += max + 1;
+        }
+
+        // Submodules start in their module.
+        Network aggregated = net.aggregate(subs, numSubs);
+        int[] initial = new int[numSubs];
+        for (int u = 0; u < net.numNodes; ++u)
+        {
+            initial[subs[u]] = comm[u];
+        }
+        int[] aggModules = optimize(aggregated, initial, rng);
+        int[] result = new int[net.numNodes];
+        for (int u = 0; u < net.numNodes; ++u)
+        {
+            result[u] = aggModules[subs[u]];
+        }
+        return result;
+    }
+
+    /**
+     * Partition of the nodes of a network into modules, with the flows needed for computing the description length.
+     */
+    private static class Partition
+    {
+        /**
+         * The network.
+         */
+        private final Network net;
+        /**
+         * The modules of the nodes.
+         */
+        private final int[] comm;
+        /**
+         * Flow of the nodes in each module.
+         */
+        private final double[] flow;
+        /**
+         * Flow exiting each module.
+         */
+        private final double[] exit;
+        /**
+         * Number of nodes in each module.
+         */
+        private final int[] sizes;
+        /**
+         * Identifiers of the empty modules.
+         */
+        private final IntArrayList empty;
+        /**
+         * Sum of the exit flows.
+         */
+        private double sumExit;
+        /**
+         * Sum of plogp over the exit flows.
+         */
+        private double sumExitLog;
+        /**
+         * Sum of plogp over the exit flows plus the flows of the modules.
+         */
+        private double sumTotalLog;
+
+        /**
+         * Constructor.
+         *
+         * @param net      the network.
+         * @param comm     the modules of the nodes, numbered from 0 to numComms-1 (modified by the moves).
+         * @param numComms the number of modules.
+         */
+        Partition(Network net, int[] comm, int numComms)
+        {
+            int n = net.numNodes;
+            this.net = net;
+            this.comm = comm;
+            this.flow = new double[n];
+            this.exit = new double[n];
+            this.sizes = new int[n];
+            for (int u = 0; u < n; ++u)
+            {
+                int c = comm[u];
+                flow[c] += net.flow[u];
+                exit[c] += net.outFlow[u];
+                sizes[c]++;
+                for (int j = net.outOffsets[u]; j < net.outOffsets[u + 1]; ++j)
+                {
+                    if (comm[net.outTargets[j]] == c)
+                    {
+                        exit[c] -= net.outWeights[j];
+                    }
+                }
+            }
+            this.empty = new IntArrayList();
+            for (int c = n - 1; c >= numComms; --c)
+            {
+                empty.add(c);
+            }
+            for (int c = 0; c < numComms; ++c)
+            {
+                exit[c] = Math.max(exit[c], 0.0);
+                sumExit += exit[c];
+                sumExitLog += plogp(exit[c]);
+                sumTotalLog += plogp(exit[c] + flow[c]);
+            }
+        }
+
+        /**
+         * Obtains the module terms of the description length.
+         *
+         * @return the module terms of the description length.
+         */
+        double codelength()
+        {
+            return plogp(sumExit) - 2.0 * sumExitLog + sumTotalLog;
+        }
+
+        /**
+         * Moves the nodes, in random order, to the module which most reduces the description length, until no node
+         * is moved.
+         *
+         * @param rng the random number generator.
+         */
+        void move(Random rng)
+        {
+            int n = net.numNodes;
+            int[] order = IntStream.range(0, n).toArray();
+            IntArrays.shuffle(order, rng);
+            double[] outTo = new double[n];
+            double[] inFrom = new double[n];
+            boolean[] used = new boolean[n];
+            IntArrayList touched = new IntArrayList();
+
+            boolean moved = true;
+            for (int pass = 0; moved && pass < MAX_PASSES; ++pass)
+            {
+                moved = false;
+                for (int u : order)
+                {
+                    int cu = comm[u];
+                    for (int j = net.outOffsets[u]; j < net.outOffsets[u + 1]; ++j)
+                    {
+                        int c = comm[net.outTargets[j]];
+                        outTo[c] += net.outWeights[j];
+                        if (!used[c])
+                        {
+                            used[c] = true;
+                            touched.add(c);
+                        }
+                    }
+                    for (int j = net.inOffsets[u]; j < net.inOffsets[u + 1]; ++j)
+                    {
+                        int c = comm[net.inTargets[j]];
+                        inFrom[c] += net.inWeights[j];
+                        if (!used[c])
+                        {
+                            used[c] = true;
+                            touched.add(c);
+                        }
+                    }
+
+                    // Flows of the current module, once the node is removed.
+                    double pu = net.flow[u];
+                    double oldExitU = exit[cu];
+                    double newExitU = Math.max(oldExitU - (net.outFlow[u] - outTo[cu]) + inFrom[cu], 0.0);
+                    double newFlowU = flow[cu] - pu;
+
+                    // Terms of the variation which do not depend on the destination module.
+                    double baseDelta = -plogp(sumExit) - 2.0 * (plogp(newExitU) - plogp(oldExitU))
+                            + plogp(newExitU + newFlowU) - plogp(oldExitU + flow[cu]);
+
+                    int best = cu;
+                    double bestDelta = -TOLERANCE;
+                    double bestExit = 0.0;
+                    for (int i = 0; i <= touched.size(); ++i)
+                    {
+                        int c;
+                        if (i < touched.size())
+                        {
+                            c = touched.getInt(i);
+                        }
+                        else if (sizes[cu] > 1 && !empty.isEmpty())
+                        {
+                            c = empty.getInt(empty.size() - 1);
+                        }
+                        else
+                        {
+                            break;
+                        }
+                        if (c == cu)
+                        {
+                            continue;
+                        }
+                        double newExitC = Math.max(exit[c] + (net.outFlow[u] - outTo[c]) - inFrom[c], 0.0);
+                        double newSumExit = sumExit - oldExitU - exit[c] + newExitU + newExitC;
+                        double delta = baseDelta + plogp(newSumExit)
+                                - 2.0 * (plogp(newExitC) - plogp(exit[c]))
+                                + plogp(newExitC + flow[c] + pu) - plogp(exit[c] + flow[c]);
+                        if (delta < bestDelta)
+                        {
+                            best = c;
+                            bestDelta = delta;
+                            bestExit = newExitC;
+                        }
+                    }
+
+                    if (best != cu)
+                    {
+                        if (sizes[best] == 0)
+                        {
+                            empty.popInt();
+                        }
+                        sumExit += newExitU + bestExit - oldExitU - exit[best];
+                        sumExitLog += plogp(newExitU) + plogp(bestExit) - plogp(oldExitU) - plogp(exit[best]);
+                        sumTotalLog += plogp(newExitU + newFlowU) + plogp(bestExit + flow[best] + pu) - plogp(oldExitU + flow[cu]) - plogp(exit[best] + flow[best]);
+                        exit[cu] = newExitU;
+                        flow[cu] = newFlowU;
+                        sizes[cu]--;
+                        exit[best] = bestExit;
+                        flow[best] += pu;
+                        sizes[best]++;
+                        comm[u] = best;
+                        if (sizes[cu] == 0)
+                        {
+                            empty.add(cu);
+                        }
+                        moved = true;
+                    }
+
+                    for (int i = 0; i < touched.size(); ++i)
+                    {
+                        int c = touched.getInt(i);
+                        outTo[c] = 0.0;
+                        inFrom[c] = 0.0;
+                        used[c] = false;
+                    }
+                    touched.clear();
+                }
+            }
+        }
+    }
+
+    /**
+     * Network of flows, stored in compressed sparse rows. The total flow leaving a node may include links which are
+     * not stored (when the network is a part of a larger one).
+     */
+    private static class Network
+    {
+        /**
+         * Number of nodes.
+         */
+        final int numNodes;
+        /**
+         * Flow of each node.
+         */
+        final double[] flow;
+        /**
+         * Total flow of the links leaving each node.
+         */
+        final double[] outFlow;
+        /**
+         * Position of the first outgoing link of each node.
+         */
+        final int[] outOffsets;
+        /**
+         * Targets of the outgoing links.
+         */
+        final int[] outTargets;
+        /**
+         * Flows of the outgoing links.
+         */
+        final double[] outWeights;
+        /**
+         * Position of the first incoming link of each node.
+         */
+        final int[] inOffsets;
+        /**
+         * Sources of the incoming links.
+         */
+        final int[] inTargets;
+        /**
+         * Flows of the incoming links.
+         */
+        final double[] inWeights;
+
+        /**
+         * Constructor.
+         *
+         * @param flow       flow of each node.
+         * @param outFlow    total flow of the links leaving each node.
+         * @param outOffsets position of the first outgoing link of each node.
+         * @param outTargets targets of the outgoing links (without self-links).
+         * @param outWeights flows of the outgoing links.
+         */
+        Network(double[] flow, double[] outFlow, int[] outOffsets, int[] outTargets, double[] outWeights)
+        {
+            this.numNodes = flow.length;
+            this.flow = flow;
+            this.outFlow = outFlow;
+            this.outOffsets = outOffsets;
+            this.outTargets = outTargets;
+            this.outWeights = outWeights;
+
+            // Transposition of the outgoing links.
+            this.inOffsets = new int[numNodes + 1];
+            for (int v : outTargets)
+            {
+                inOffsets[v + 1]++;
+            }
+            for (int v = 0; v < numNodes; ++v)
+            {
+                inOffsets[v + 1] += inOffsets[v];
+            }
+            this.inTargets = new int[outTargets.length];
+            this.inWeights = new double[outTargets.length];
+            int[] pos = Arrays.copyOf(inOffsets, numNodes);
+            for (int u = 0; u < numNodes; ++u)
+            {
+                for (int j = outOffsets[u]; j < outOffsets[u + 1]; ++j)
+                {
+                    int p = pos[outTargets[j]]++;
+                    inTargets[p] = u;
+                    inWeights[p] = outWeights[j];
+                }
+            }
+        }
+
+        /**
+         * Builds the flow network of a graph.
+         *
+         * @param graph the graph.
+         * @param index the index of the nodes.
+         * @param <U>   type of the users.
+         *
+         * @return the flow network.
+         */
+        static <U> Network of(Graph<U> graph, Index<U> index)
+        {
+            CommunityNetwork links = CommunityNetwork.of(graph, index, false, true);
+            int n = links.numNodes;
+            int[] offsets = links.offsets;
+            int[] targets = links.targets;
+            double[] linkFlows = links.weights;
+            double[] outWeight = new double[n];
+            for (int u = 0; u < n; ++u)
+            {
+                outWeight[u] = Arrays.stream(linkFlows, offsets[u], offsets[u + 1]).sum();
+            }
+
+            double[] flow;
+            if (graph.isDirected())
+            {
+                flow = pageRank(n, offsets, targets, linkFlows, outWeight);
+                for (int u = 0; u < n; ++u)
+                {
+                    for (int j = offsets[u]; j < offsets[u + 1]; ++j)
+                    {
+                        linkFlows[j] = (1.0 - TELEPORTATION) * flow[u] * linkFlows[j] / outWeight[u];
+                    }
+                }
+            }
+            else
+            {
+                double total = Arrays.stream(outWeight).sum();
+                flow = new double[n];
+                for (int u = 0; u < n; ++u)
+                {
+                    flow[u] = total > 0.0 ? outWeight[u] / total : 0.0;
+                    for (int j = offsets[u]; j < offsets[u + 1]; ++j)
+                    {
+                        linkFlows[j] /= total;
+                    }
+                }
+            }
+
+            double[] outFlow = new double[n];
+            for (int u = 0; u < n; ++u)
+            {
+                for (int j = offsets[u]; j < offsets[u + 1]; ++j)
+                {
+                    outFlow[u] += linkFlows[j];
+                }
+            }
+            return new Network(flow, outFlow, offsets, targets, linkFlows);
+        }
+
+        /**
+         * Computes the PageRank of the nodes, with uniform teleportation.
+         *
+         * @param n         the number of nodes.
+         * @param offsets   position of the first outgoing link of each node.
+         * @param targets   targets of the outgoing links.
+         * @param weights   weights of the outgoing links.
+         * @param outWeight total weight of the outgoing links of each node.
+         *
+         * @return the PageRank of the nodes.
+         */
+        private static double[] pageRank(int n, int[] offsets, int[] targets, double[] weights, double[] outWeight)
+        {
+            double[] rank = new double[n];
+            Arrays.fill(rank, 1.0 / n);
+            for (int iter = 0; iter < MAX_ITER; ++iter)
+            {
+                double dangling = 0.0;
+                double[] next = new double[n];
+                for (int u = 0; u < n; ++u)
+                {
+                    if (outWeight[u] > 0.0)
+                    {
+                        for (int j = offsets[u]; j < offsets[u + 1]; ++j)
+                        {
+                            next[targets[j]] += (1.0 - TELEPORTATION) * rank[u] * weights[j] / outWeight[u];
+                        }
+                    }
+                    else
+                    {
+                        dangling += rank[u];
+                    }
+                }
+                double base = (TELEPORTATION + (1.0 - TELEPORTATION) * dangling) / n;
+                double diff = 0.0;
+                for (int u = 0; u < n; ++u)
+                {
+                    next[u] += base;
+                    diff += Math.abs(next[u] - rank[u]);
+                }
+                rank = next;
+                if (diff < 1E-15)
+                {
+                    break;
+                }
+            }
+            return rank;
+        }
+
+        /**
+         * Aggregates the modules into the nodes of a new network.
+         *
+         * @param comm     the modules of the nodes, numbered from 0 to numComms-1.
+         * @param numComms the number of modules.
+         *
+         * @return the aggregated network.
+         */
+        Network aggregate(int[] comm, int numComms)
+        {
+            // The flow of the links inside a module does not exit it.
+            CommunityNetwork links = new CommunityNetwork(outOffsets, outTargets, outWeights, new double[numNodes]).aggregate(comm, numComms);
+            double[] aggFlow = new double[numComms];
+            double[] aggOut = new double[numComms];
+            for (int u = 0; u < numNodes; ++u)
+            {
+                aggFlow[comm[u]] += flow[u];
+                aggOut[comm[u]] += outFlow[u];
+            }
+            for (int c = 0; c < numComms; ++c)
+            {
+                aggOut[c] -= links.self[c];
+            }
+            return new Network(aggFlow, aggOut, links.offsets, links.targets, links.weights);
+        }
+
+        /**
+         * Obtains the network induced by a set of nodes. The nodes keep their total outgoing and incoming flows, so
+         * the links towards the rest of the network are considered as exits.
+         *
+         * @param nodes the nodes.
+         *
+         * @return the induced network, where node i is nodes[i].
+         */
+        Network subnetwork(int[] nodes)
+        {
+            int size = nodes.length;
+            Int2IntOpenHashMap positions = new Int2IntOpenHashMap(size);
+            positions.defaultReturnValue(-1);
+            for (int i = 0; i < size; ++i)
+            {
+                positions.put(nodes[i], i);
+            }
+            double[] subFlow = new double[size];
+            double[] subOut = new double[size];
+            int[][] neighs = new int[size][];
+            double[][] ws = new double[size][];
+            for (int i = 0; i < size; ++i)
+            {
+                int u = nodes[i];
+                subFlow[i] = flow[u];
+                subOut[i] = outFlow[u];
+                IntArrayList ids = new IntArrayList();
+                DoubleArrayList w = new DoubleArrayList();
+                for (int j = outOffsets[u]; j < outOffsets[u + 1]; ++j)
+                {
+                    int p = positions.get(outTargets[j]);
+                    if (p >= 0)
+                    {
+                        ids.add(p);
+                        w.add(outWeights[j]);
+                    }
+                }
+                neighs[i] = ids.toIntArray();
+                ws[i] = w.toDoubleArray();
+            }
+            return build(subFlow, subOut, neighs, ws);
+        }
+
+        /**
+         * Builds a network from the lists of outgoing links of the nodes.
+         *
+         * @param flow    flow of each node.
+         * @param outFlow total flow of the links leaving each node.
+         * @param neighs  targets of the outgoing links of each node.
+         * @param ws      flows of the outgoing links of each node.
+         *
+         * @return the network.
+         */
+        private static Network build(double[] flow, double[] outFlow, int[][] neighs, double[][] ws)
+        {
+            CommunityNetwork links = new CommunityNetwork(neighs, ws, new double[flow.length]);
+            return new Network(flow, outFlow, links.offsets, links.targets, links.weights);
+        }
+    }
+}
@@ -0,0 +1,88 @@
+/*
+ *  Copyright (C) 2021 Information Retrieval Group at Universidad Autónoma
+ *  de Madrid, http://ir.ii.uam.es
+ *
+ *  This Source Code Form is subject to the terms of the Mozilla Public
+ *  License, v. 2.0. If a copy of the MPL was not distributed with this
+ *  file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package es.uam.eps.ir.relison.sna.community.detection.modularity;
+
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+
+/**
+ * Dense accumulator of weights over a set of identifiers, which keeps track of the modified identifiers, so it can
+ * be traversed and cleared in time proportional to their number.
+ *
+ * @author Javier Sanz-Cruzado (javier.sanz-cruzado@uam.es)
+ * @author Pablo Castells (pablo.castells@uam.es)
+ */
+class WeightAccumulator
+{
+    /**
+     * Accumulated values.
+     */
+    final double[] values;
+    /**
+     * Whether each identifier has been modified.
+     */
+    private final boolean[] used;
+    /**
+     * The modified identifiers.
+     */
+    final IntArrayList touched;
+
+    /**
+     * Constructor.
+     *
+     * @param size the number of identifiers.
+     */
+    WeightAccumulator(int size)
+    {
+        this.values = new double[size];
+        this.used = new boolean[size];
+        this.touched = new IntArrayList();
+    }
+
+    /**
+     * Adds a value.
+     *
+     * @param id    the identifier.
+     * @param value the value.
+     */
+    void add(int id, double value)
+    {
+        if (!used[id])
+        {
+            used[id] = true;
+            touched.add(id);
+        }
+        values[id] += value;
+    }
+
+    /**
+     * Obtains an accumulated value.
+     *
+     * @param id the identifier.
+     *
+     * @return the value (0.0 if it has not been modified).
+     */
+    double get(int id)
+    {
+        return values[id];
+    }
+
+    /**
+     * Resets the modified values.
+     */
+    void clear()
+    {
+        for (int i = 0; i < touched.size(); ++i)
+        {
+            int id = touched.getInt(i);
+            values[id] = 0.0;
+            used[id] = false;
+        }
+        touched.clear();
+    }
+}
@@ -0,0 +1,301 @@
+/*
+ *  Copyright (C) 2021 Information Retrieval Group at Universidad Autónoma
+ *  de Madrid, http://ir.ii.uam.es
+ *
+ *  This Source Code Form is subject to the terms of the Mozilla Public
+ *  License, v. 2.0. If a copy of the MPL was not distributed with this
+ *  file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package es.uam.eps.ir.relison.sna.metrics;
+
+import es.uam.eps.ir.relison.graph.Graph;
+import es.uam.eps.ir.relison.graph.multigraph.MultiGraph;
+import it.unimi.dsi.fastutil.longs.Long2IntOpenHashMap;
+import it.unimi.dsi.fastutil.objects.Object2IntMap;
+import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
+
+/**
+ * Base implementation of the structures keeping the value of an incremental graph metric. Nodes are identified
+ * by integers, and the number of edges between every pair of nodes is stored, so that changes which do not modify
+ * the network (adding an existing edge to a simple graph, or removing a missing one) are ignored.
+ *
+ * <p>Subclasses only have to update their values when an edge is added or removed: the variation of the metric
+ * for a candidate edge is found by adding it, reading the value, and removing it again. Therefore, the values
+ * of the subclasses must be exactly restored when a change is undone.</p>
+ *
+ * @param <U> type of the users.
+ *
+ * @author Javier Sanz-Cruzado (javier.sanz-cruzado@uam.es)
+ * @author Pablo Castells (pablo.castells@uam.es)
+ */
+public abstract class AbstractIncrementalState<U> implements IncrementalGraphMetric.State<U>
+{
+    /**
+     * Map from users to their identifiers.
+     */
+    private final Object2IntMap<U> uIndex;
+    /**
+     * Number of edges between each pair of nodes, indexed by {@link #key(int, int)}.
+     */
+    private final Long2IntOpenHashMap pairs;
+    /**
+     * Number of nodes.
+     */
+    protected final int numNodes;
+    /**
+     * True if the network is directed, false otherwise.
+     */
+    protected final boolean directed;
+    /**
+     * True if the network is a multigraph, false otherwise.
+     */
+    protected final boolean multigraph;
+    /**
+     * Number of edges in the network.
+     */
+    protected long numEdges;
+
+    /**
+     * Constructor.
+     *
+     * @param graph the network.
+     */
+    public AbstractIncrementalState(Graph<U> graph)
+    {
+        this.numNodes = Math.toIntExact(graph.getVertexCount());
+        this.directed = graph.isDirected();
+        this.multigraph = graph.isMultigraph();
+
+        this.uIndex = new Object2IntOpenHashMap<>();
+        this.uIndex.defaultReturnValue(-1);
+        graph.getAllNodes().forEach(u -> uIndex.put(u, uIndex.size()));
+
+        this.pairs = new Long2IntOpenHashMap();
+        this.pairs.defaultReturnValue(0);
+        this.numEdges = 0L;
+        graph.getAllNodes().forEach(u ->
+        {
+            int a = uIndex.getInt(u);
+            graph.getAdjacentNodes(u).distinct().forEach(v ->
+            {
+                int b = uIndex.getInt(v);
+                if (directed || a <= b)
+                {
+                    int count = multigraph ? ((MultiGraph<U>) graph).getNumEdges(u, v) : 1;
+                    pairs.put(this.key(a, b), count);
+                    numEdges += count;
+                }
+            });
+        });
+    }
+
+    @Override
+    public double addEdgeDelta(U orig, U dest)
+    {
+        int a = this.uIndex.getInt(orig);
+        int b = this.uIndex.getInt(dest);
+        if (!this.canAdd(a, b))
+        {
+            return 0.0;
+        }
+
+        double value = this.getValue();
+        this.add(a, b);
+        double delta = this.getValue() - value;
+        this.remove(a, b);
+        return delta;
+    }
+
+    @Override
+    public double removeEdgeDelta(U orig, U dest)
+    {
+        int a = this.uIndex.getInt(orig);
+        int b = this.uIndex.getInt(dest);
+        if (!this.canRemove(a, b))
+        {
+            return 0.0;
+        }
+
+        double value = this.getValue();
+        this.remove(a, b);
+        double delta = this.getValue() - value;
+        this.add(a, b);
+        return delta;
+    }
+
+    @Override
+    public void addEdge(U orig, U dest)
+    {
+        int a = this.uIndex.getInt(orig);
+        int b = this.uIndex.getInt(dest);
+        if (this.canAdd(a, b))
+        {
+            this.add(a, b);
+        }
+    }
+
+    @Override
+    public void removeEdge(U orig, U dest)
+    {
+        int a = this.uIndex.getInt(orig);
+        int b = this.uIndex.getInt(dest);
+        if (this.canRemove(a, b))
+        {
+            this.remove(a, b);
+        }
+    }
+
+    /**
+     * Checks whether adding an edge modifies the network.
+     *
+     * @param a the identifier of the origin node.
+     * @param b the identifier of the destination node.
+     *
+     * @return true if both nodes exist, and the network is a multigraph or does not contain the edge.
+     */
+    private boolean canAdd(int a, int b)
+    {
+        return a >= 0 && b >= 0 && (this.multigraph || !this.containsEdge(a, b));
+    }
+
+    /**
+     * Checks whether removing an edge modifies the network.
+     *
+     * @param a the identifier of the origin node.
+     * @param b the identifier of the destination node.
+     *
+     * @return true if both nodes exist, and the network contains the edge.
+     */
+    private boolean canRemove(int a, int b)
+    {
+        return a >= 0 && b >= 0 && this.containsEdge(a, b);
+    }
+
+    /**
+     * Adds an edge to the structure.
+     *
+     * @param a the identifier of the origin node.
+     * @param b the identifier of the destination node.
+     */
+    private void add(int a, int b)
+    {
+        this.update(a, b, true);
+        this.pairs.addTo(this.key(a, b), 1);
+        ++this.numEdges;
+    }
+
+    /**
+     * Removes an edge from the structure.
+     *
+     * @param a the identifier of the origin node.
+     * @param b the identifier of the destination node.
+     */
+    private void remove(int a, int b)
+    {
+        this.update(a, b, false);
+        long key = this.key(a, b);
+        if (this.pairs.addTo(key, -1) == 1)
+        {
+            this.pairs.remove(key);
+        }
+        --this.numEdges;
+    }
+
+    /**
+     * Obtains the key of a pair of nodes in the map of edges. In undirected networks, the key does not depend
+     * on the order of the nodes.
+     *
+     * @param a the identifier of the first node.
+     * @param b the identifier of the second node.
+     *
+     * @return the key.
+     */
+    private long key(int a, int b)
+    {
+        if (!this.directed && a > b)
+        {
+            return (long) b * this.numNodes + a;
+        }
+        return (long) a * this.numNodes + b;
+    }
+
+    /**
+     * Obtains the identifier of a node.
+     *
+     * @param u the node.
+     *
+     * @return the identifier of the node, -1 if it does not exist.
+     */
+    protected int getIdx(U u)
+    {
+        return this.uIndex.getInt(u);
+    }
+
+    /**
+     * Obtains the number of edges between two nodes.
+     *
+     * @param a the identifier of the origin node.
+     * @param b the identifier of the destination node.
+     *
+     * @return the number of edges.
+     */
+    protected int getNumEdges(int a, int b)
+    {
+        return this.pairs.get(this.key(a, b));
+    }
+
+    /**
+     * Checks whether there is an edge between two nodes.
+     *
+     * @param a the identifier of the origin node.
+     * @param b the identifier of the destination node.
+     *
+     * @return true if the edge exists, false otherwise.
+     */
+    protected boolean containsEdge(int a, int b)
+    {
+        return this.pairs.get(this.key(a, b)) > 0;
+    }
+
+    /**
+     * Runs over the pairs of nodes connected by, at least, one edge. In undirected networks, every pair is
+     * visited once, with the smallest identifier first.
+     *
+     * @param consumer the function receiving the identifiers of the nodes and the number of edges between them.
+     */
+    protected void forEachPair(PairConsumer consumer)
+    {
+        this.pairs.long2IntEntrySet().forEach(entry ->
+        {
+            int a = (int) (entry.getLongKey() / this.numNodes);
+            int b = (int) (entry.getLongKey() % this.numNodes);
+            consumer.accept(a, b, entry.getIntValue());
+        });
+    }
+
+    /**
+     * Updates the values of the metric when an edge is added or removed. When this method is called, the number of
+     * edges between the nodes still takes the value previous to the change.
+     *
+     * @param a   the identifier of the origin node.
+     * @param b   the identifier of the destination node.
+     * @param add true if the edge is added, false if it is removed.
+     */
+    protected abstract void update(int a, int b, boolean add);
+
+    /**
+     * Function receiving a pair of nodes and the number of edges between them.
+     */
+    @FunctionalInterface
+    protected interface PairConsumer
+    {
+        /**
+         * Receives a pair of nodes.
+         *
+         * @param a     the identifier of the first node.
+         * @param b     the identifier of the second node.
+         * @param count the number of edges between them.
+         */
+        void accept(int a, int b, int count);
+    }
+}
@@ -0,0 +1,90 @@
+/*
+ *  Copyright (C) 2021 Information Retrieval Group at Universidad Autónoma
+ *  de Madrid, http://ir.ii.uam.es
+ *
+ *  This Source Code Form is subject to the terms of the Mozilla Public
+ *  License, v. 2.0. If a copy of the MPL was not distributed with this
+ *  file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package es.uam.eps.ir.relison.sna.metrics;
+
+import es.uam.eps.ir.relison.graph.Graph;
+
+/**
+ * Interface for global graph metrics whose value can be maintained while edges are added to or removed from the
+ * network. The value is kept in a {@link State} object, which stores its own copy of the information it needs, so
+ * the variation of the metric caused by adding or removing a single edge is found by visiting only the
+ * surroundings of that edge, instead of computing the metric again over the whole network.
+ *
+ * @param <U> type of the users.
+ *
+ * @author Javier Sanz-Cruzado (javier.sanz-cruzado@uam.es)
+ * @author Pablo Castells (pablo.castells@uam.es)
+ */
+public interface IncrementalGraphMetric<U> extends GraphMetric<U>
+{
+    /**
+     * Builds the structure which keeps the value of the metric for a network. The network is only read, and
+     * later changes on it are not reflected on the structure: they have to be notified by calling
+     * {@link State#addEdge(Object, Object)} or {@link State#removeEdge(Object, Object)}.
+     *
+     * @param graph the network.
+     *
+     * @return the structure, or null if the metric cannot be incrementally maintained for the network.
+     */
+    State<U> initialize(Graph<U> graph);
+
+    /**
+     * Structure which keeps the value of a graph metric for a network which changes over time. It is not
+     * thread-safe.
+     *
+     * @param <U> type of the users.
+     */
+    interface State<U>
+    {
+        /**
+         * Obtains the current value of the metric.
+         *
+         * @return the value of the metric.
+         */
+        double getValue();
+
+        /**
+         * Computes the variation of the metric if an edge is added to the network, without modifying the
+         * structure. If the network is not a multigraph and the edge already exists, the variation is zero.
+         *
+         * @param orig the origin of the edge.
+         * @param dest the destination of the edge.
+         *
+         * @return the variation of the value of the metric.
+         */
+        double addEdgeDelta(U orig, U dest);
+
+        /**
+         * Computes the variation of the metric if an edge is removed from the network, without modifying the
+         * structure. If the edge does not exist, the variation is zero.
+         *
+         * @param orig the origin of the edge.
+         * @param dest the destination of the edge.
+         *
+         * @return the variation of the value of the metric.
+         */
+        double removeEdgeDelta(U orig, U dest);
+
+        /**
+         * Updates the structure when an edge is added to the network.
+         *
+         * @param orig the origin of the edge.
+         * @param dest the destination of the edge.
+         */
+        void addEdge(U orig, U dest);
+
+        /**
+         * Updates the structure when an edge is removed from the network.
+         *
+         * @param orig the origin of the edge.
+         * @param dest the destination of the edge.
+         */
+        void removeEdge(U orig, U dest);
+    }
+}
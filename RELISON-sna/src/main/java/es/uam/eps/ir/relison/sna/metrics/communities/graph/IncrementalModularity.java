@@ -0,0 +1,166 @@
+/*
+ *  Copyright (C) 2021 Information Retrieval Group at Universidad Autónoma
+ *  de Madrid, http://ir.ii.uam.es
+ *
+ *  This Source Code Form is subject to the terms of the Mozilla Public
+ *  License, v. 2.0. If a copy of the MPL was not distributed with this
+ *  file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package es.uam.eps.ir.relison.sna.metrics.communities.graph;
+
+import es.uam.eps.ir.relison.graph.DirectedGraph;
+import es.uam.eps.ir.relison.graph.Graph;
+import es.uam.eps.ir.relison.sna.community.Communities;
+import es.uam.eps.ir.relison.sna.metrics.AbstractIncrementalState;
+import es.uam.eps.ir.relison.sna.metrics.IncrementalGraphMetric;
+
+/**
+ * Modularity of a graph for a fixed community partition, as a graph metric which can be incrementally maintained.
+ * It takes the same value as {@link Modularity}. Since the communities do not change, the value only depends on
+ * the number of edges, the number of edges between communities, and the sum of the degrees of the nodes in each
+ * community, so the variation caused by an edge is found in constant time.
+ *
+ * <p>
+ * <b>Reference: </b> M.E.J. Newman, M. Girvan. Finding and evaluating community structure in networks. Physical Review E 69(2), pp. 1-16 (2004)
+ * </p>
+ *
+ * @param <U> The type of the users.
+ *
+ * @author Javier Sanz-Cruzado (javier.sanz-cruzado@uam.es)
+ * @author Pablo Castells (pablo.castells@uam.es)
+ */
+public class IncrementalModularity<U> implements IncrementalGraphMetric<U>
+{
+    /**
+     * The community partition.
+     */
+    private final Communities<U> communities;
+
+    /**
+     * Constructor.
+     *
+     * @param communities the community partition.
+     */
+    public IncrementalModularity(Communities<U> communities)
+    {
+        this.communities = communities;
+    }
+
+    @Override
+    public double compute(Graph<U> graph)
+    {
+        return new Modularity<U>().compute(graph, communities);
+    }
+
+    /**
+     * Builds the structure which keeps the value of the modularity. Multigraphs are not supported.
+     *
+     * @param graph the network.
+     *
+     * @return the structure, or null if the network is a multigraph.
+     */
+    @Override
+    public State<U> initialize(Graph<U> graph)
+    {
+        return graph.isMultigraph() ? null : new ModularityState(graph);
+    }
+
+    /**
+     * Structure which keeps the sums of the degrees of the communities, and the number of edges between communities.
+     */
+    private class ModularityState extends AbstractIncrementalState<U>
+    {
+        /**
+         * Community of each node (nodes without community share an extra one).
+         */
+        private final int[] comm;
+        /**
+         * Sum of the out-degrees (or the degrees, in undirected networks) of the nodes in each community.
+         */
+        private final long[] out;
+        /**
+         * Sum of the in-degrees (or the degrees, in undirected networks) of the nodes in each community.
+         */
+        private final long[] in;
+        /**
+         * The value of \sum_c |\Gamma_out(c)||\Gamma_in(c)|, where |\Gamma_out(c)| and |\Gamma_in(c)| are the sums of
+         * the degrees of the nodes in community c.
+         */
+        private long k;
+        /**
+         * Number of edges between different communities.
+         */
+        private long inter;
+
+        /**
+         * Constructor.
+         *
+         * @param graph the network.
+         */
+        ModularityState(Graph<U> graph)
+        {
+            super(graph);
+            int numComms = communities.getNumCommunities();
+            this.comm = new int[numNodes];
+            this.out = new long[numComms + 1];
+            this.in = directed ? new long[numComms + 1] : out;
+            graph.getAllNodes().forEach(u ->
+            {
+                int a = this.getIdx(u);
+                int c = communities.getCommunity(u);
+                comm[a] = c < 0 ? numComms : c;
+                if (directed)
+                {
+                    out[comm[a]] += ((DirectedGraph<U>) graph).outDegree(u);
+                    in[comm[a]] += ((DirectedGraph<U>) graph).inDegree(u);
+                }
+                else
+                {
+                    out[comm[a]] += graph.degree(u);
+                }
+            });
+
+            for (int c = 0; c <= numComms; ++c)
+            {
+                k += out[c] * in[c];
+            }
+            this.forEachPair((a, b, count) -> inter += comm[a] != comm[b] ? 1 : 0);
+        }
+
+        @Override
+        public double getValue()
+        {
+            double edges = directed ? numEdges : 2.0 * numEdges;
+            double expected = k / edges;
+            return (edges - inter - expected) / (edges - expected);
+        }
+
+        @Override
+        protected void update(int a, int b, boolean add)
+        {
+            int ca = comm[a];
+            int cb = comm[b];
+            int value = add ? 1 : -1;
+
+            k -= out[ca] * in[ca];
+            if (ca != cb)
+            {
+                k -= out[cb] * in[cb];
+            }
+
+            out[ca] += value;
+            if (directed || a != b)
+            {
+                in[cb] += value;
+            }
+
+            k += out[ca] * in[ca];
+            if (ca != cb)
+            {
+                k += out[cb] * in[cb];
+            }
+
+            inter += ca != cb ? value : 0;
+        }
+    }
+}
@@ -0,0 +1,704 @@
+/*
+ *  Copyright (C) 2021 Information Retrieval Group at Universidad Autónoma
+ *  de Madrid, http://ir.ii.uam.es
+ *
+ *  This Source Code Form is subject to the terms of the Mozilla Public
+ *  License, v. 2.0. If a copy of the MPL was not distributed with this
+ *  file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package es.uam.eps.ir.relison.sna.metrics.distance;
+
+import es.uam.eps.ir.relison.graph.Graph;
+import es.uam.eps.ir.relison.graph.edges.EdgeOrientation;
+import es.uam.eps.ir.relison.graph.fast.FastGraph;
+import es.uam.eps.ir.relison.graph.fast.SortedNeighborhoods;
+import es.uam.eps.ir.relison.index.Index;
+import es.uam.eps.ir.relison.index.fast.FastIndex;
+import es.uam.eps.ir.relison.sna.community.Communities;
+import es.uam.eps.ir.relison.sna.community.detection.connectedness.StronglyConnectedComponents;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+
+import java.util.*;
+import java.util.stream.IntStream;
+
+/**
+ * Distance calculator which computes the node and edge betweenness of the network using the Brandes algorithm
+ * over primitive arrays. The shortest path counts are computed from the different source nodes in parallel: each
+ * thread accumulates the dependencies of its sources in its own arrays, which are added up at the end.
+ *
+ * When exact betweenness is too expensive, the calculator can estimate it from a sample of the source nodes, scaling
+ * the accumulated dependencies by the inverse of the sampling ratio. Two sampling strategies are provided:
+ * <ul>
+ *     <li><b>Uniform:</b> a fixed number of sources is selected uniformly at random.</li>
+ *     <li><b>Adaptive:</b> sources are sampled in rounds of increasing size, until the empirical Bernstein bound
+ *     guarantees, with probability 1-&delta;, that the betweenness of every node, divided by n(n-2), is estimated with
+ *     an additive error smaller than &epsilon;. The number of sources never exceeds the one given by the Hoeffding bound
+ *     for the same error.</li>
+ * </ul>
+ *
+ * The raw values follow the conventions of {@link CompleteDistanceCalculator}: the betweenness of a node sums the
+ * dependencies over all ordered pairs of nodes, and the betweenness of an edge (u,v) only counts the shortest paths
+ * which traverse it from u to v. Only betweenness, strongly connected components and average shortest path lengths
+ * are supported: distances and geodesics are not stored.
+ *
+ * <p>
+ * <b>References: </b>
+ * </p>
+ * <ol>
+ *     <li>U. Brandes. A faster algorithm for betweenness centrality. Journal of Mathematical Sociology 25(2), pp. 163-177 (2001)</li>
+ *     <li>U. Brandes, C. Pich. Centrality estimation in large networks. International Journal of Bifurcation and Chaos 17(7), pp. 2303-2318 (2007)</li>
+ *     <li>A. Maurer, M. Pontil. Empirical Bernstein bounds and sample variance penalization. 22nd Conference on Learning Theory (COLT 2009)</li>
+ * </ol>
+ *
+ * @param <U> type of the users.
+ *
+ * @author Javier Sanz-Cruzado (javier.sanz-cruzado@uam.es)
+ * @author Pablo Castells (pablo.castells@uam.es)
+ */
+public class BrandesDistanceCalculator<U> implements DistanceCalculator<U>
+{
+    /**
+     * Minimum number of sources in the first round of the adaptive sampling.
+     */
+    private static final int MIN_ROUND = 64;
+
+    /**
+     * Number of sources to sample (a non-positive value if betweenness is exact, or sampling is adaptive).
+     */
+    private final int numSources;
+    /**
+     * Maximum additive error of the adaptive sampling.
+     */
+    private final double epsilon;
+    /**
+     * Probability of exceeding the maximum error in the adaptive sampling.
+     */
+    private final double delta;
+    /**
+     * Seed for the random number generator.
+     */
+    private final long seed;
+
+    /**
+     * Graph for which we compute the betweenness.
+     */
+    private Graph<U> graph;
+    /**
+     * Index of the nodes of the graph.
+     */
+    private Index<U> index;
+    /**
+     * Offsets of the neighborhoods of the nodes in the targets array.
+     */
+    private int[] offsets;
+    /**
+     * Adjacent nodes of each node, sorted within each neighborhood.
+     */
+    private int[] targets;
+    /**
+     * Betweenness of the nodes.
+     */
+    private double[] nodeBetweenness;
+    /**
+     * Betweenness of the edges (aligned with the targets array).
+     */
+    private double[] edgeBetweenness;
+    /**
+     * Number of sources used for computing the betweenness.
+     */
+    private int sampledSources;
+    /**
+     * Strongly connected components of the network.
+     */
+    private Communities<U> scc;
+    /**
+     * The average shortest path length.
+     */
+    private double asl;
+    /**
+     * The number of pairs of users at infinite distance from each other.
+     */
+    private double infiniteDist;
+
+    /**
+     * Constructor. Computes exact betweenness values.
+     */
+    public BrandesDistanceCalculator()
+    {
+        this(0, Double.NaN, Double.NaN, 0L);
+    }
+
+    /**
+     * Constructor. Estimates the betweenness values from a uniform sample of source nodes.
+     *
+     * @param numSources number of source nodes to sample.
+     * @param seed       seed for the random number generator.
+     */
+    public BrandesDistanceCalculator(int numSources, long seed)
+    {
+        this(numSources, Double.NaN, Double.NaN, seed);
+        if (numSources <= 0)
+        {
+            throw new IllegalArgumentException("The number of sources must be positive");
+        }
+    }
+
+    /**
+     * Constructor. Estimates the betweenness values by adaptively sampling source nodes, until the estimation error is
+     * bounded.
+     *
+     * @param epsilon maximum additive error of the betweenness values divided by n(n-2).
+     * @param delta   probability of exceeding the maximum error.
+     * @param seed    seed for the random number generator.
+     */
+    public BrandesDistanceCalculator(double epsilon, double delta, long seed)
+    {
+        this(0, epsilon, delta, seed);
+        if (!(epsilon > 0.0) || !(delta > 0.0 && delta < 1.0))
+        {
+            throw new IllegalArgumentException("The error must be positive, and the probability must be in (0,1)");
+        }
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param numSources number of source nodes to sample (non-positive if it is not fixed).
+     * @param epsilon    maximum additive error of the adaptive sampling (NaN if it is not adaptive).
+     * @param delta      probability of exceeding the maximum error (NaN if it is not adaptive).
+     * @param seed       seed for the random number generator.
+     */
+    private BrandesDistanceCalculator(int numSources, double epsilon, double delta, long seed)
+    {
+        this.numSources = numSources;
+        this.epsilon = epsilon;
+        this.delta = delta;
+        this.seed = seed;
+        this.graph = null;
+    }
+
+    @Override
+    public boolean computeDistances(Graph<U> graph)
+    {
+        if (this.graph != null && this.graph.equals(graph))
+        {
+            return true;
+        }
+
+        this.graph = null;
+        this.scc = null;
+        this.buildAdjacency(graph);
+
+        int numNodes = this.offsets.length - 1;
+        Accumulator acc;
+        if (!Double.isNaN(this.epsilon))
+        {
+            acc = this.adaptive(numNodes);
+        }
+        else
+        {
+            int count = this.numSources > 0 ? Math.min(this.numSources, numNodes) : numNodes;
+            acc = this.run(this.sources(numNodes, count), 0, count, false);
+        }
+
+        // Scale the dependencies by the inverse of the sampling ratio.
+        double scale = acc.count == 0 ? 0.0 : numNodes / (acc.count + 0.0);
+        this.sampledSources = acc.count;
+        this.nodeBetweenness = acc.nodes;
+        this.edgeBetweenness = acc.edges;
+        if (acc.count < numNodes)
+        {
+            Arrays.setAll(this.nodeBetweenness, i -> this.nodeBetweenness[i] * scale);
+            Arrays.setAll(this.edgeBetweenness, i -> this.edgeBetweenness[i] * scale);
+        }
+
+        this.asl = acc.reached == 0.0 ? 0.0 : acc.distances / acc.reached;
+        this.infiniteDist = numNodes * (numNodes - 1.0) - acc.reached * scale;
+
+        this.graph = graph;
+        return true;
+    }
+
+    /**
+     * Builds the adjacency arrays of the graph.
+     *
+     * @param graph the graph.
+     */
+    private void buildAdjacency(Graph<U> graph)
+    {
+        if (graph instanceof FastGraph)
+        {
+            this.index = null;
+        }
+        else
+        {
+            this.index = new FastIndex<>();
+            graph.getAllNodes().forEach(this.index::addObject);
+        }
+
+        int numNodes = (int) graph.getVertexCount();
+        this.offsets = new int[numNodes + 1];
+        IntArrayList list = new IntArrayList();
+        for (int uidx = 0; uidx < numNodes; ++uidx)
+        {
+            list.addElements(list.size(), SortedNeighborhoods.of(graph, this.index, uidx, EdgeOrientation.OUT, true));
+            this.offsets[uidx + 1] = list.size();
+        }
+        this.targets = list.toIntArray();
+    }
+
+    /**
+     * Selects a set of source nodes uniformly at random.
+     *
+     * @param numNodes the number of nodes in the network.
+     * @param count    the number of sources to select.
+     *
+     * @return the identifiers of the nodes, in random order (all nodes, in order, if count equals numNodes).
+     */
+    private int[] sources(int numNodes, int count)
+    {
+        int[] sources = IntStream.range(0, numNodes).toArray();
+        if (count < numNodes || !Double.isNaN(this.epsilon))
+        {
+            Random rng = new Random(this.seed);
+            for (int i = 0; i < Math.min(count, numNodes - 1); ++i)
+            {
+                int j = i + rng.nextInt(numNodes - i);
+                int aux = sources[i];
+                sources[i] = sources[j];
+                sources[j] = aux;
+            }
+        }
+        return sources;
+    }
+
+    /**
+     * Estimates the betweenness through adaptive source sampling. The number of sources is doubled in every round,
+     * until the error bound is reached for every node.
+     *
+     * @param numNodes the number of nodes in the network.
+     *
+     * @return the accumulated (unscaled) dependencies.
+     */
+    private Accumulator adaptive(int numNodes)
+    {
+        // Hoeffding bound: maximum number of sources needed for bounding the error of all the nodes.
+        double maxSamples = Math.ceil(Math.log(2.0 * numNodes / this.delta) / (2.0 * this.epsilon * this.epsilon));
+        int max = (int) Math.min(numNodes, maxSamples);
+        int first = Math.min(max, MIN_ROUND);
+        int numRounds = 1;
+        for (long k = first; k < max; k *= 2)
+        {
+            ++numRounds;
+        }
+        double logTerm = Math.log(2.0 * numRounds * numNodes / this.delta);
+        double range = Math.max(numNodes - 2.0, 1.0);
+
+        int[] sources = this.sources(numNodes, max);
+        Accumulator acc = new Accumulator(numNodes, this.targets.length, true);
+        int from = 0;
+        int to = first;
+        while (true)
+        {
+            acc.merge(this.run(sources, from, to, true));
+            if (to >= max)
+            {
+                return acc;
+            }
+
+            // Empirical Bernstein bound over the dependencies of every node, scaled to [0,1].
+            int k = to;
+            boolean stop = true;
+            for (int vidx = 0; vidx < numNodes && stop; ++vidx)
+            {
+                double mean = acc.nodes[vidx] / (k * range);
+                double variance = Math.max(0.0, (acc.squares[vidx] / (range * range) - k * mean * mean) / (k - 1.0));
+                double bound = Math.sqrt(2.0 * variance * logTerm / k) + 7.0 * logTerm / (3.0 * (k - 1.0));
+                stop = bound <= this.epsilon;
+            }
+            if (stop)
+            {
+                return acc;
+            }
+
+            from = to;
+            to = (int) Math.min(max, 2L * to);
+        }
+    }
+
+    /**
+     * Runs the Brandes algorithm from a range of sources, in parallel.
+     *
+     * @param sources the array of sources.
+     * @param from    the first position of the range (inclusive).
+     * @param to      the last position of the range (exclusive).
+     * @param squares whether the squares of the node dependencies have to be accumulated.
+     *
+     * @return the accumulated (unscaled) dependencies of the sources.
+     */
+    private Accumulator run(int[] sources, int from, int to, boolean squares)
+    {
+        int numNodes = this.offsets.length - 1;
+        List<Accumulator> accumulators = Collections.synchronizedList(new ArrayList<>());
+        ThreadLocal<Accumulator> local = ThreadLocal.withInitial(() ->
+        {
+            Accumulator acc = new Accumulator(numNodes, this.targets.length, squares);
+            accumulators.add(acc);
+            return acc;
+        });
+
+        IntStream.range(from, to).parallel().forEach(i -> local.get().accumulate(sources[i]));
+
+        Accumulator total = new Accumulator(numNodes, this.targets.length, squares);
+        accumulators.forEach(total::merge);
+        return total;
+    }
+
+    /**
+     * Per-thread workspace of the Brandes algorithm, which accumulates the dependencies of the sources it processes.
+     */
+    private class Accumulator
+    {
+        /**
+         * Accumulated betweenness of the nodes.
+         */
+        private final double[] nodes;
+        /**
+         * Accumulated squares of the node dependencies (null if they are not needed).
+         */
+        private final double[] squares;
+        /**
+         * Accumulated betweenness of the edges.
+         */
+        private final double[] edges;
+        /**
+         * Distances from the current source (-1 if the node has not been reached).
+         */
+        private final int[] dist;
+        /**
+         * Number of shortest paths from the current source.
+         */
+        private final double[] sigma;
+        /**
+         * Dependencies of the current source on the nodes.
+         */
+        private final double[] dependency;
+        /**
+         * Nodes reached from the current source, in non-decreasing distance order.
+         */
+        private final int[] order;
+        /**
+         * Number of processed sources.
+         */
+        private int count;
+        /**
+         * Sum of the distances between the sources and the nodes they reach.
+         */
+        private double distances;
+        /**
+         * Number of pairs formed by a source and a node reachable from it.
+         */
+        private double reached;
+
+        /**
+         * Constructor.
+         *
+         * @param numNodes number of nodes.
+         * @param numEdges number of edges.
+         * @param squares  whether the squares of the node dependencies have to be accumulated.
+         */
+        Accumulator(int numNodes, int numEdges, boolean squares)
+        {
+            this.nodes = new double[numNodes];
+            this.squares = squares ? new double[numNodes] : null;
+            this.edges = new double[numEdges];
+            this.dist = new int[numNodes];
+            this.sigma = new double[numNodes];
+            this.dependency = new double[numNodes];
+            this.order = new int[numNodes];
+            Arrays.fill(this.dist, -1);
+        }
+
+        /**
+         * Accumulates the dependencies of a single source.
+         *
+         * @param source the source node.
+         */
+        void accumulate(int source)
+        {
+            int[] offsets = BrandesDistanceCalculator.this.offsets;
+            int[] targets = BrandesDistanceCalculator.this.targets;
+
+            // STEP 1: Breadth-first search, counting the shortest paths.
+            int tail = 0;
+            order[tail++] = source;
+            dist[source] = 0;
+            sigma[source] = 1.0;
+            for (int head = 0; head < tail; ++head)
+            {
+                int u = order[head];
+                int next = dist[u] + 1;
+                for (int j = offsets[u]; j < offsets[u + 1]; ++j)
+                {
+                    int v = targets[j];
+                    if (dist[v] < 0)
+                    {
+                        dist[v] = next;
+                        order[tail++] = v;
+                    }
+                    if (dist[v] == next)
+                    {
+                        sigma[v] += sigma[u];
+                    }
+                }
+                this.distances += dist[u];
+            }
+            this.reached += tail - 1;
+
+            // STEP 2: Back-propagation of the dependencies, in non-increasing distance order.
+            for (int i = tail - 1; i >= 0; --i)
+            {
+                int w = order[i];
+                int next = dist[w] + 1;
+                double value = 0.0;
+                for (int j = offsets[w]; j < offsets[w + 1]; ++j)
+                {
+                    int v = targets[j];
+                    if (dist[v] == next)
+                    {
+                        double c = sigma[w] / sigma[v] * (1.0 + dependency[v]);
+                        edges[j] += c;
+                        value += c;
+                    }
+                }
+                dependency[w] = value;
+                if (w != source)
+                {
+                    nodes[w] += value;
+                    if (squares != null)
+                    {
+                        squares[w] += value * value;
+                    }
+                }
+            }
+
+            // Clean the workspace.
+            for (int i = 0; i < tail; ++i)
+            {
+                int v = order[i];
+                dist[v] = -1;
+                sigma[v] = 0.0;
+                dependency[v] = 0.0;
+            }
+            ++this.count;
+        }
+
+        /**
+         * Adds the values of another accumulator to this one.
+         *
+         * @param other the other accumulator.
+         */
+        void merge(Accumulator other)
+        {
+            for (int i = 0; i < nodes.length; ++i)
+            {
+                nodes[i] += other.nodes[i];
+                if (squares != null)
+                {
+                    squares[i] += other.squares[i];
+                }
+            }
+            for (int j = 0; j < edges.length; ++j)
+            {
+                edges[j] += other.edges[j];
+            }
+            this.count += other.count;
+            this.distances += other.distances;
+            this.reached += other.reached;
+        }
+    }
+
+    /**
+     * Obtains the number of source nodes used for computing the betweenness values of the last graph.
+     *
+     * @return the number of sources.
+     */
+    public int getNumSources()
+    {
+        return this.sampledSources;
+    }
+
+    /**
+     * Finds the identifier of a node.
+     *
+     * @param node the node.
+     *
+     * @return the identifier of the node, -1 if it does not exist.
+     */
+    private int idx(U node)
+    {
+        if (this.index != null)
+        {
+            return this.index.object2idx(node);
+        }
+        return ((FastGraph<U>) this.graph).object2idx(node);
+    }
+
+    /**
+     * Finds the node with a given identifier.
+     *
+     * @param idx the identifier.
+     *
+     * @return the node.
+     */
+    private U object(int idx)
+    {
+        if (this.index != null)
+        {
+            return this.index.idx2object(idx);
+        }
+        return ((FastGraph<U>) this.graph).idx2object(idx);
+    }
+
+    /**
+     * Finds the position of an edge in the adjacency arrays.
+     *
+     * @param uidx the origin of the edge.
+     * @param vidx the destination of the edge.
+     *
+     * @return the position of the edge, a negative value if it does not exist.
+     */
+    private int edge(int uidx, int vidx)
+    {
+        if (uidx < 0 || vidx < 0)
+        {
+            return -1;
+        }
+        int pos = Arrays.binarySearch(this.targets, this.offsets[uidx], this.offsets[uidx + 1], vidx);
+        return Math.max(pos, -1);
+    }
+
+    @Override
+    public Map<U, Double> getNodeBetweenness()
+    {
+        Map<U, Double> values = new HashMap<>();
+        for (int uidx = 0; uidx < this.nodeBetweenness.length; ++uidx)
+        {
+            values.put(this.object(uidx), this.nodeBetweenness[uidx]);
+        }
+        return values;
+    }
+
+    @Override
+    public double getNodeBetweenness(U node)
+    {
+        int uidx = this.idx(node);
+        return uidx >= 0 ? this.nodeBetweenness[uidx] : 0.0;
+    }
+
+    @Override
+    public Map<U, Map<U, Double>> getEdgeBetweenness()
+    {
+        Map<U, Map<U, Double>> values = new HashMap<>();
+        for (int uidx = 0; uidx < this.nodeBetweenness.length; ++uidx)
+        {
+            values.put(this.object(uidx), this.getEdgeBetweenness(uidx));
+        }
+        return values;
+    }
+
+    @Override
+    public Map<U, Double> getEdgeBetweenness(U node)
+    {
+        int uidx = this.idx(node);
+        return uidx >= 0 ? this.getEdgeBetweenness(uidx) : new HashMap<>();
+    }
+
+    /**
+     * Obtains the betweenness of the edges starting in a node.
+     *
+     * @param uidx the identifier of the node.
+     *
+     * @return a map containing the betweenness of the edges, indexed by their destination.
+     */
+    private Map<U, Double> getEdgeBetweenness(int uidx)
+    {
+        Map<U, Double> values = new HashMap<>();
+        for (int j = this.offsets[uidx]; j < this.offsets[uidx + 1]; ++j)
+        {
+            values.put(this.object(this.targets[j]), this.edgeBetweenness[j]);
+        }
+        return values;
+    }
+
+    @Override
+    public double getEdgeBetweenness(U orig, U dest)
+    {
+        int pos = this.edge(this.idx(orig), this.idx(dest));
+        return pos >= 0 ? this.edgeBetweenness[pos] : -1.0;
+    }
+
+    @Override
+    public Map<U, Map<U, Double>> getDistances()
+    {
+        throw new UnsupportedOperationException("Unsupported method");
+    }
+
+    @Override
+    public Map<U, Double> getDistancesFrom(U node)
+    {
+        throw new UnsupportedOperationException("Unsupported method");
+    }
+
+    @Override
+    public Map<U, Double> getDistancesTo(U node)
+    {
+        throw new UnsupportedOperationException("Unsupported method");
+    }
+
+    @Override
+    public double getDistances(U orig, U dest)
+    {
+        throw new UnsupportedOperationException("Unsupported method");
+    }
+
+    @Override
+    public Map<U, Map<U, Double>> getGeodesics()
+    {
+        throw new UnsupportedOperationException("Unsupported method");
+    }
+
+    @Override
+    public Map<U, Double> getGeodesics(U node)
+    {
+        throw new UnsupportedOperationException("Unsupported method");
+    }
+
+    @Override
+    public double getGeodesics(U orig, U dest)
+    {
+        throw new UnsupportedOperationException("Unsupported method");
+    }
+
+    @Override
+    public Communities<U> getSCC()
+    {
+        if (this.scc == null && this.graph != null)
+        {
+            this.scc = new StronglyConnectedComponents<U>().detectCommunities(this.graph);
+        }
+        return this.scc;
+    }
+
+    @Override
+    public double getASL()
+    {
+        return this.asl;
+    }
+
+    @Override
+    public double getInfiniteDistances()
+    {
+        return this.infiniteDist;
+    }
+}
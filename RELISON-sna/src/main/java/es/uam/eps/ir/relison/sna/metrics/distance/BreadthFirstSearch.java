@@ -0,0 +1,274 @@
+/*
+ *  Copyright (C) 2021 Information Retrieval Group at Universidad Autónoma
+ *  de Madrid, http://ir.ii.uam.es
+ *
+ *  This Source Code Form is subject to the terms of the Mozilla Public
+ *  License, v. 2.0. If a copy of the MPL was not distributed with this
+ *  file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package es.uam.eps.ir.relison.sna.metrics.distance;
+
+import es.uam.eps.ir.relison.graph.edges.EdgeOrientation;
+import es.uam.eps.ir.relison.graph.fast.FastGraph;
+import es.uam.eps.ir.relison.utils.functions.IntIntConsumer;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+
+/**
+ * Breadth-first search engine over the identifiers of a fast graph. It computes unweighted distances from a single
+ * source on demand (optionally, up to a maximum depth), without storing the distances between every pair of nodes.
+ * The search structures (the queue containing the frontier and the bitset of visited nodes) are allocated once per
+ * thread and reused between searches, so every search only costs time proportional to the explored part of the
+ * network. Searches can be run concurrently from different threads.
+ *
+ * <p>
+ * <b>References: </b> M.E.J. Newman. Networks: an introduction (2010)
+ * </p>
+ *
+ * @param <U> type of the users.
+ *
+ * @author Javier Sanz-Cruzado (javier.sanz-cruzado@uam.es)
+ * @author Pablo Castells (pablo.castells@uam.es)
+ */
+public class BreadthFirstSearch<U>
+{
+    /**
+     * Value indicating that a node cannot be reached.
+     */
+    public static final int UNREACHABLE = -1;
+
+    /**
+     * The graph.
+     */
+    private final FastGraph<U> graph;
+    /**
+     * The orientation of the edges to follow.
+     */
+    private final EdgeOrientation orientation;
+    /**
+     * The number of nodes in the graph.
+     */
+    private final int numNodes;
+    /**
+     * The search structures of each thread.
+     */
+    private final ThreadLocal<Workspace> workspaces;
+
+    /**
+     * Constructor.
+     *
+     * @param graph       the graph. It must not be modified while it is being searched.
+     * @param orientation the orientation of the edges to follow from each node (OUT for the usual distances in
+     *                    directed networks, UND for ignoring the direction of the edges).
+     */
+    public BreadthFirstSearch(FastGraph<U> graph, EdgeOrientation orientation)
+    {
+        this.graph = graph;
+        this.orientation = orientation;
+        this.numNodes = Long.valueOf(graph.getVertexCount()).intValue();
+        this.workspaces = ThreadLocal.withInitial(Workspace::new);
+    }
+
+    /**
+     * Runs a search from a source node, visiting every node at distance smaller than or equal to a given depth.
+     *
+     * @param source   the identifier of the source node.
+     * @param maxDepth the maximum distance to explore (Integer.MAX_VALUE for an unbounded search).
+     * @param visitor  receives every reached node (including the source) with its distance, in order of distance.
+     *
+     * @return the number of reached nodes (including the source).
+     */
+    public int search(int source, int maxDepth, IntIntConsumer visitor)
+    {
+        Workspace ws = this.workspaces.get();
+        int reached = ws.run(source, maxDepth);
+        for (int i = 0; i < reached; ++i)
+        {
+            visitor.accept(ws.queue[i], ws.depths[i]);
+        }
+        return reached;
+    }
+
+    /**
+     * Finds the nodes at distance smaller than or equal to a given depth from a source node.
+     *
+     * @param source   the identifier of the source node.
+     * @param maxDepth the maximum distance.
+     *
+     * @return the identifiers of the reached nodes (including the source), sorted by distance.
+     */
+    public int[] reachable(int source, int maxDepth)
+    {
+        Workspace ws = this.workspaces.get();
+        int reached = ws.run(source, maxDepth);
+        return Arrays.copyOf(ws.queue, reached);
+    }
+
+    /**
+     * Computes the distances from a source node to the rest of the network.
+     *
+     * @param source the identifier of the source node.
+     *
+     * @return an array containing the distance to each node ({@link #UNREACHABLE} if the node cannot be reached).
+     */
+    public int[] distances(int source)
+    {
+        int[] distances = new int[this.numNodes];
+        Arrays.fill(distances, UNREACHABLE);
+        this.search(source, Integer.MAX_VALUE, (vidx, dist) -> distances[vidx] = dist);
+        return distances;
+    }
+
+    /**
+     * Computes the distance between two nodes. The search stops as soon as the target is found.
+     *
+     * @param source   the identifier of the source node.
+     * @param target   the identifier of the target node.
+     * @param maxDepth the maximum distance to explore.
+     *
+     * @return the distance between the nodes, {@link #UNREACHABLE} if the target is farther than the maximum depth.
+     */
+    public int distance(int source, int target, int maxDepth)
+    {
+        Workspace ws = this.workspaces.get();
+        ws.target = target;
+        try
+        {
+            int reached = ws.run(source, maxDepth);
+            return ws.queue[reached - 1] == target ? ws.depths[reached - 1] : UNREACHABLE;
+        }
+        finally
+        {
+            ws.target = UNREACHABLE;
+        }
+    }
+
+    /**
+     * Computes distance-based statistics of the network (average shortest path length, eccentricity, closeness)
+     * by running a search from every node in parallel. Only the aggregated values are kept, so the memory
+     * required is linear in the number of nodes.
+     *
+     * @return the statistics.
+     */
+    public DistanceStatistics statistics()
+    {
+        int[] reached = new int[this.numNodes];
+        long[] sums = new long[this.numNodes];
+        double[] harmonic = new double[this.numNodes];
+        int[] eccentricity = new int[this.numNodes];
+
+        IntStream.range(0, this.numNodes).parallel().forEach(uidx ->
+        {
+            Workspace ws = this.workspaces.get();
+            int count = ws.run(uidx, Integer.MAX_VALUE);
+            long sum = 0L;
+            double harm = 0.0;
+            for (int i = 1; i < count; ++i)
+            {
+                sum += ws.depths[i];
+                harm += 1.0 / ws.depths[i];
+            }
+            reached[uidx] = count - 1;
+            sums[uidx] = sum;
+            harmonic[uidx] = harm;
+            eccentricity[uidx] = ws.depths[count - 1];
+        });
+
+        return new DistanceStatistics(reached, sums, harmonic, eccentricity);
+    }
+
+    /**
+     * Search structures used by a single thread.
+     */
+    private class Workspace
+    {
+        /**
+         * Queue of nodes to explore. When a search finishes, it contains the reached nodes, sorted by distance.
+         */
+        private final int[] queue = new int[numNodes];
+        /**
+         * Distance from the source to each node in the queue.
+         */
+        private final int[] depths = new int[numNodes];
+        /**
+         * Bitset indicating the visited nodes.
+         */
+        private final long[] visited = new long[(numNodes + 63) >>> 6];
+        /**
+         * Adds a node to the queue if it has not been previously visited.
+         */
+        private final IntConsumer neighborVisitor = this::enqueue;
+        /**
+         * Number of nodes in the queue.
+         */
+        private int tail;
+        /**
+         * Distance to the nodes currently added to the queue.
+         */
+        private int depth;
+        /**
+         * Target of the search ({@link #UNREACHABLE} if the search has to explore the whole network).
+         */
+        private int target = UNREACHABLE;
+        /**
+         * Indicates whether the target has been found.
+         */
+        private boolean found;
+
+        /**
+         * Runs a search.
+         *
+         * @param source   the source node.
+         * @param maxDepth the maximum distance to explore.
+         *
+         * @return the number of reached nodes.
+         */
+        private int run(int source, int maxDepth)
+        {
+            this.tail = 0;
+            this.depth = 0;
+            this.found = false;
+            this.enqueue(source);
+
+            int head = 0;
+            while (head < this.tail && this.depth < maxDepth && !this.found)
+            {
+                // Explore the current frontier.
+                int levelEnd = this.tail;
+                ++this.depth;
+                while (head < levelEnd && !this.found)
+                {
+                    graph.forEachNeighbor(this.queue[head++], orientation, this.neighborVisitor);
+                }
+            }
+
+            // Clean the bitset, so it can be reused.
+            for (int i = 0; i < this.tail; ++i)
+            {
+                int vidx = this.queue[i];
+                this.visited[vidx >>> 6] &= ~(1L << vidx);
+            }
+            return this.tail;
+        }
+
+        /**
+         * Adds a node to the queue, if it has not been visited before.
+         *
+         * @param vidx the node.
+         */
+        private void enqueue(int vidx)
+        {
+            if (this.found || (this.visited[vidx >>> 6] & (1L << vidx)) != 0L)
+            {
+                return;
+            }
+            this.visited[vidx >>> 6] |= 1L << vidx;
+            this.queue[this.tail] = vidx;
+            this.depths[this.tail] = this.depth;
+            ++this.tail;
+            this.found = vidx == this.target;
+        }
+    }
+}
@@ -0,0 +1,138 @@
+/*
+ *  Copyright (C) 2021 Information Retrieval Group at Universidad Autónoma
+ *  de Madrid, http://ir.ii.uam.es
+ *
+ *  This Source Code Form is subject to the terms of the Mozilla Public
+ *  License, v. 2.0. If a copy of the MPL was not distributed with this
+ *  file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package es.uam.eps.ir.relison.sna.metrics.distance;
+
+import java.util.Arrays;
+
+/**
+ * Distance-based statistics of a network, aggregated from single-source searches. For each node, it just stores
+ * the number of reachable nodes, the sum of the distances and of the inverse distances to them, and its
+ * eccentricity, so the memory it requires is linear in the number of nodes.
+ *
+ * @author Javier Sanz-Cruzado (javier.sanz-cruzado@uam.es)
+ * @author Pablo Castells (pablo.castells@uam.es)
+ *
+ * @see BreadthFirstSearch#statistics()
+ */
+public class DistanceStatistics
+{
+    /**
+     * Number of nodes (different from the source) reachable from each node.
+     */
+    private final int[] reached;
+    /**
+     * Sum of the distances from each node to the reachable nodes.
+     */
+    private final long[] sums;
+    /**
+     * Sum of the inverse distances from each node to the rest.
+     */
+    private final double[] harmonic;
+    /**
+     * Eccentricity of each node (maximum finite distance to another node).
+     */
+    private final int[] eccentricity;
+
+    /**
+     * Constructor.
+     *
+     * @param reached      number of nodes (different from the source) reachable from each node.
+     * @param sums         sum of the distances from each node to the reachable nodes.
+     * @param harmonic     sum of the inverse distances from each node to the rest.
+     * @param eccentricity eccentricity of each node.
+     */
+    public DistanceStatistics(int[] reached, long[] sums, double[] harmonic, int[] eccentricity)
+    {
+        this.reached = reached;
+        this.sums = sums;
+        this.harmonic = harmonic;
+        this.eccentricity = eccentricity;
+    }
+
+    /**
+     * Obtains the average shortest path length, averaged over the pairs of distinct nodes at finite distance.
+     *
+     * @return the average shortest path length.
+     */
+    public double getASL()
+    {
+        long pairs = Arrays.stream(this.reached).asLongStream().sum();
+        return pairs > 0L ? Arrays.stream(this.sums).sum() / (pairs + 0.0) : 0.0;
+    }
+
+    /**
+     * Obtains the number of (ordered) pairs of distinct nodes at infinite distance.
+     *
+     * @return the number of pairs at infinite distance.
+     */
+    public double getInfiniteDistances()
+    {
+        double n = this.reached.length;
+        return n * (n - 1.0) - Arrays.stream(this.reached).asLongStream().sum();
+    }
+
+    /**
+     * Obtains the diameter of the network (the maximum finite distance between two nodes).
+     *
+     * @return the diameter.
+     */
+    public int getDiameter()
+    {
+        return Arrays.stream(this.eccentricity).max().orElse(0);
+    }
+
+    /**
+     * Obtains the eccentricity of a node (the maximum finite distance from the node to another one).
+     *
+     * @param uidx the identifier of the node.
+     *
+     * @return the eccentricity.
+     */
+    public int getEccentricity(int uidx)
+    {
+        return this.eccentricity[uidx];
+    }
+
+    /**
+     * Obtains the closeness of a node, considering only the nodes it can reach: the inverse of the average
+     * distance to them.
+     *
+     * @param uidx the identifier of the node.
+     *
+     * @return the closeness of the node, 0 if it cannot reach any other node.
+     */
+    public double getCloseness(int uidx)
+    {
+        return this.sums[uidx] > 0L ? this.reached[uidx] / (this.sums[uidx] + 0.0) : 0.0;
+    }
+
+    /**
+     * Obtains the harmonic closeness of a node: the average inverse distance to the rest of the nodes.
+     *
+     * @param uidx the identifier of the node.
+     *
+     * @return the harmonic closeness.
+     */
+    public double getHarmonicCloseness(int uidx)
+    {
+        return this.reached.length > 1 ? this.harmonic[uidx] / (this.reached.length - 1.0) : 0.0;
+    }
+
+    /**
+     * Obtains the number of nodes reachable from a node (not counting itself).
+     *
+     * @param uidx the identifier of the node.
+     *
+     * @return the number of reachable nodes.
+     */
+    public int getReachable(int uidx)
+    {
+        return this.reached[uidx];
+    }
+}
@@ -12,6 +12,8 @@ import es.uam.eps.ir.relison.sna.community.Communities;
 import es.uam.eps.ir.relison.sna.community.detection.CommunityDetectionAlgorithm;
 import es.uam.eps.ir.relison.sna.community.detection.connectedness.StronglyConnectedComponents;
 import es.uam.eps.ir.relison.graph.Graph;
+import es.uam.eps.ir.relison.graph.edges.EdgeOrientation;
+import es.uam.eps.ir.relison.graph.fast.FastGraph;
 import es.uam.eps.ir.relison.graph.generator.EmptyGraphGenerator;
 import es.uam.eps.ir.relison.graph.generator.GraphGenerator;
 import es.uam.eps.ir.relison.utils.datatypes.Pair;
@@ -115,7 +117,59 @@ public class FastDistanceCalculator<U> implements DistanceCalculator<U>
         AtomicInteger atom = new AtomicInteger();
         atom.set(0);
         // Compute the distances from each node to the rest.
-        Pair<Double> allAsl = graph.getAllNodes().parallel().map(u ->
+        Pair<Double> allAsl;
+        if (graph instanceof FastGraph)
+        {
+            FastGraph<U> fastGraph = (FastGraph<U>) graph;
+            BreadthFirstSearch<U> bfs = new BreadthFirstSearch<>(fastGraph, EdgeOrientation.OUT);
+            allAsl = fastGraph.getAllNodesIds().parallel().mapToObj(uidx ->
+            {
+                U u = fastGraph.idx2object(uidx);
+                Map<U, Double> distFrom = distancesFrom.get(u);
+                double[] sum = new double[1];
+                int reached = bfs.search(uidx, Integer.MAX_VALUE, (vidx, dist) ->
+                {
+                    U v = fastGraph.idx2object(vidx);
+                    distFrom.put(v, dist + 0.0);
+                    synchronized (this)
+                    {
+                        distancesTo.get(v).put(u, dist + 0.0);
+                    }
+                    sum[0] += dist;
+                });
+
+                int count = atom.incrementAndGet();
+                if(count % 1000 == 0)
+                {
+                    System.err.println("Run over " + count + " users." );
+                }
+
+                return new Pair<>(sum[0] / reached, reached + 0.0);
+            }).reduce(new Pair<>(0.0,0.0), FastDistanceCalculator::combine);
+        }
+        else
+        {
+            allAsl = this.computeDistances(graph, atom);
+        }
+
+        this.asl = allAsl.v1();
+        this.infiniteDist = graph.getVertexCount()*(graph.getVertexCount()-1.0) - allAsl.v2();
+
+        this.graph = graph;
+        return true;
+    }
+
+    /**
+     * Computes the distances from each node to the rest, for graphs which are not fast graphs.
+     *
+     * @param graph the graph.
+     * @param atom  counter of the number of explored nodes.
+     *
+     * @return a pair containing the average distance and the number of pairs at finite distance.
+     */
+    private Pair<Double> computeDistances(Graph<U> graph, AtomicInteger atom)
+    {
+        return graph.getAllNodes().parallel().map(u ->
         {
             Map<U, Double> distFrom = distancesFrom.get(u);
 
@@ -161,19 +215,23 @@ public class FastDistanceCalculator<U> implements DistanceCalculator<U>
             }
 
             return new Pair<>(asl, current);
-        }).reduce(new Pair<>(0.0,0.0), (x,y) ->
-        {
-            double total = x.v2() + y.v2();
-            if(total == 0) return new Pair<>(0.0,0.0);
-            double asl = (x.v2()/total)*x.v1() + (y.v2()/total)*y.v1();
-            return new Pair<>(asl, total);
-        });
-
-        this.asl = allAsl.v1();
-        this.infiniteDist = graph.getVertexCount()*(graph.getVertexCount()-1.0) - allAsl.v2();
+        }).reduce(new Pair<>(0.0,0.0), FastDistanceCalculator::combine);
+    }
 
-        this.graph = graph;
-        return true;
+    /**
+     * Combines the average distances computed over two sets of pairs.
+     *
+     * @param x the average distance and number of pairs of the first set.
+     * @param y the average distance and number of pairs of the second set.
+     *
+     * @return the average distance and number of pairs of the union of both sets.
+     */
+    private static Pair<Double> combine(Pair<Double> x, Pair<Double> y)
+    {
+        double total = x.v2() + y.v2();
+        if(total == 0) return new Pair<>(0.0,0.0);
+        double asl = (x.v2()/total)*x.v1() + (y.v2()/total)*y.v1();
+        return new Pair<>(asl, total);
     }
 
     @Override
@@ -9,7 +9,7 @@
 package es.uam.eps.ir.relison.sna.metrics.distance.pair;
 
 import es.uam.eps.ir.relison.graph.Graph;
-import es.uam.eps.ir.relison.sna.metrics.distance.CompleteDistanceCalculator;
+import es.uam.eps.ir.relison.sna.metrics.distance.BrandesDistanceCalculator;
 import es.uam.eps.ir.relison.sna.metrics.distance.DistanceCalculator;
 import es.uam.eps.ir.relison.sna.metrics.PairMetric;
 import es.uam.eps.ir.relison.utils.datatypes.Pair;
@@ -66,7 +66,7 @@ public class EdgeBetweenness<U> implements PairMetric<U>
      */
     public EdgeBetweenness(boolean normalize)
     {
-        this.dc = new CompleteDistanceCalculator<>();
+        this.dc = new BrandesDistanceCalculator<>();
         this.normalize = normalize;
     }
 
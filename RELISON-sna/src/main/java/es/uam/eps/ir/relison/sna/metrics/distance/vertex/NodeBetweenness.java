@@ -9,7 +9,7 @@
 package es.uam.eps.ir.relison.sna.metrics.distance.vertex;
 
 import es.uam.eps.ir.relison.graph.Graph;
-import es.uam.eps.ir.relison.sna.metrics.distance.CompleteDistanceCalculator;
+import es.uam.eps.ir.relison.sna.metrics.distance.BrandesDistanceCalculator;
 import es.uam.eps.ir.relison.sna.metrics.distance.DistanceCalculator;
 import es.uam.eps.ir.relison.sna.metrics.VertexMetric;
 
@@ -46,7 +46,7 @@ public class NodeBetweenness<U> implements VertexMetric<U>
      */
     public NodeBetweenness(boolean normalize)
     {
-        this.dc = new CompleteDistanceCalculator<>();
+        this.dc = new BrandesDistanceCalculator<>();
         this.normalize = normalize;
     }
 
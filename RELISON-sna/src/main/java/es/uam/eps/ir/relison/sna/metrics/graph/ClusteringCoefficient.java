@@ -10,10 +10,20 @@ package es.uam.eps.ir.relison.sna.metrics.graph;
 
 import es.uam.eps.ir.relison.graph.Graph;
 import es.uam.eps.ir.relison.graph.edges.EdgeOrientation;
-import es.uam.eps.ir.relison.sna.metrics.GraphMetric;
+import es.uam.eps.ir.relison.sna.metrics.AbstractIncrementalState;
+import es.uam.eps.ir.relison.sna.metrics.IncrementalGraphMetric;
+import it.unimi.dsi.fastutil.ints.IntOpenHashSet;
+import it.unimi.dsi.fastutil.ints.IntSet;
+
+import static es.uam.eps.ir.relison.sna.metrics.graph.TriangleCounter.BACKWARD;
+import static es.uam.eps.ir.relison.sna.metrics.graph.TriangleCounter.FORWARD;
+import static es.uam.eps.ir.relison.sna.metrics.graph.TriangleCounter.selects;
+import static es.uam.eps.ir.relison.sna.metrics.graph.TriangleCounter.swap;
 
 /**
- * Computes the global clustering coefficient of a graph.
+ * Computes the global clustering coefficient of a graph. Unless the graph is a multigraph, the triangles are
+ * counted by a {@link TriangleCounter}. In simple graphs, it can be incrementally maintained: the variation caused
+ * by an edge only depends on the neighbourhoods of its endpoints.
  *
  * <p>
  * <b>Reference:</b> M.E.J. Newman. Networks: an introduction (2010)
@@ -24,7 +34,7 @@ import es.uam.eps.ir.relison.sna.metrics.GraphMetric;
  * @author Javier Sanz-Cruzado (javier.sanz-cruzado@uam.es)
  * @author Pablo Castells (pablo.castells@uam.es)
  */
-public class ClusteringCoefficient<U> implements GraphMetric<U>
+public class ClusteringCoefficient<U> implements IncrementalGraphMetric<U>
 {
     /**
      * Orientation for selecting the neighbours of the studied node.
@@ -35,16 +45,6 @@ public class ClusteringCoefficient<U> implements GraphMetric<U>
      */
     private final EdgeOrientation wSel;
 
-    /**
-     * Number of triangles in the graph.
-     */
-    private int triangles;
-
-    /**
-     * Number of triplets in the graph.
-     */
-    private int triplets;
-
     /**
      * Constructor. Applies the usual directed clustering coefficient of
      * a graph.
@@ -70,25 +70,232 @@ public class ClusteringCoefficient<U> implements GraphMetric<U>
     @Override
     public double compute(Graph<U> graph)
     {
-        this.triangles = 0;
-        this.triplets = 0;
+        if (!graph.isMultigraph())
+        {
+            return new TriangleCounter<U>(vSel, wSel).count(graph).getGlobalClustering();
+        }
 
+        // In multigraphs, every pair of edges defines a different triplet.
+        long[] triangles = new long[1];
+        long[] triplets = new long[1];
         graph.getAllNodes().forEach((u) -> graph.getNeighbourhood(u, vSel).forEach(v -> graph.getNeighbourhood(u, wSel).forEach(w ->
         {
             if (!w.equals(v) && !u.equals(v) && !u.equals(w))
             {
-                ++this.triplets;
+                ++triplets[0];
                 if (graph.containsEdge(v, w))
                 {
-                    ++this.triangles;
+                    ++triangles[0];
                 }
             }
         })));
 
-        if (triplets > 0)
+        if (triplets[0] > 0)
         {
-            return (triangles + 0.0) / (triplets + 0.0);
+            return (triangles[0] + 0.0) / (triplets[0] + 0.0);
         }
         return 0.0;
     }
+
+    /**
+     * Builds the structure which keeps the value of the clustering coefficient. Multigraphs are not supported.
+     *
+     * @param graph the network.
+     *
+     * @return the structure, or null if the network is a multigraph.
+     */
+    @Override
+    public State<U> initialize(Graph<U> graph)
+    {
+        return graph.isMultigraph() ? null : new IncrementalClustering(graph);
+    }
+
+    /**
+     * Structure which keeps the number of closed triplets and triplets of a simple graph.
+     */
+    private class IncrementalClustering extends AbstractIncrementalState<U>
+    {
+        /**
+         * Neighbours of each node in the underlying undirected network (excluding the node itself).
+         */
+        private final IntSet[] neighs;
+        /**
+         * Number of neighbours of each node selected by the first orientation.
+         */
+        private final long[] numV;
+        /**
+         * Number of neighbours of each node selected by the second orientation.
+         */
+        private final long[] numW;
+        /**
+         * Number of neighbours of each node selected by both orientations.
+         */
+        private final long[] numVW;
+        /**
+         * Total number of closed triplets.
+         */
+        private long triangles;
+        /**
+         * Total number of triplets.
+         */
+        private long triplets;
+
+        /**
+         * Constructor.
+         *
+         * @param graph the network.
+         */
+        IncrementalClustering(Graph<U> graph)
+        {
+            super(graph);
+            this.neighs = new IntSet[numNodes];
+            this.numV = new long[numNodes];
+            this.numW = new long[numNodes];
+            this.numVW = new long[numNodes];
+            for (int a = 0; a < numNodes; ++a)
+            {
+                neighs[a] = new IntOpenHashSet();
+            }
+            this.forEachPair((a, b, count) ->
+            {
+                if (a != b)
+                {
+                    neighs[a].add(b);
+                    neighs[b].add(a);
+                }
+            });
+            for (int a = 0; a < numNodes; ++a)
+            {
+                for (int b : neighs[a])
+                {
+                    this.select(a, this.flags(a, b), 1);
+                }
+            }
+
+            TriangleCounter.Result<U> result = new TriangleCounter<U>(vSel, wSel).count(graph);
+            this.triangles = result.getTotalTriangles();
+            this.triplets = result.getTotalTriplets();
+        }
+
+        @Override
+        public double getValue()
+        {
+            return triplets > 0 ? (triangles + 0.0) / (triplets + 0.0) : 0.0;
+        }
+
+        @Override
+        protected void update(int a, int b, boolean add)
+        {
+            if (a == b)
+            {
+                return;
+            }
+
+            int f = this.flags(a, b);
+            int nf;
+            if (directed)
+            {
+                nf = add ? f | FORWARD : f & ~FORWARD;
+            }
+            else
+            {
+                nf = add ? FORWARD | BACKWARD : 0;
+            }
+
+            // Closed triplets centred on a third node u, where the edge closes the pair (a,b) or (b,a).
+            int df = (nf & FORWARD) - (f & FORWARD);
+            int db = ((nf & BACKWARD) - (f & BACKWARD)) / BACKWARD;
+            IntSet small = neighs[a].size() <= neighs[b].size() ? neighs[a] : neighs[b];
+            IntSet large = small == neighs[a] ? neighs[b] : neighs[a];
+            for (int u : small)
+            {
+                if (u != a && u != b && large.contains(u))
+                {
+                    int fua = this.flags(u, a);
+                    int fub = this.flags(u, b);
+                    triangles += selects(vSel, fua) && selects(wSel, fub) ? df : 0;
+                    triangles += selects(vSel, fub) && selects(wSel, fua) ? db : 0;
+                }
+            }
+
+            // Triplets and closed triplets centred on the endpoints.
+            this.updateApex(a, b, f, nf);
+            this.updateApex(b, a, swap(f), swap(nf));
+
+            if (nf == 0)
+            {
+                neighs[a].remove(b);
+                neighs[b].remove(a);
+            }
+            else
+            {
+                neighs[a].add(b);
+                neighs[b].add(a);
+            }
+        }
+
+        /**
+         * Updates the triplets and closed triplets centred on a node when the edges with one of its neighbours
+         * change.
+         *
+         * @param x  the identifier of the central node.
+         * @param y  the identifier of the neighbour.
+         * @param f  the directions of the edges between both nodes before the change.
+         * @param nf the directions of the edges between both nodes after the change.
+         */
+        private void updateApex(int x, int y, int f, int nf)
+        {
+            int dv = (selects(vSel, nf) ? 1 : 0) - (selects(vSel, f) ? 1 : 0);
+            int dw = (selects(wSel, nf) ? 1 : 0) - (selects(wSel, f) ? 1 : 0);
+            if (dv == 0 && dw == 0)
+            {
+                return;
+            }
+
+            // Pairs (y,w) are closed by the edge y->w, and pairs (v,y) by the edge v->y.
+            for (int z : neighs[x])
+            {
+                if (z != y)
+                {
+                    int fz = this.flags(x, z);
+                    triangles += dv != 0 && selects(wSel, fz) && this.containsEdge(y, z) ? dv : 0;
+                    triangles += dw != 0 && selects(vSel, fz) && this.containsEdge(z, y) ? dw : 0;
+                }
+            }
+
+            triplets -= numV[x] * numW[x] - numVW[x];
+            this.select(x, f, -1);
+            this.select(x, nf, 1);
+            triplets += numV[x] * numW[x] - numVW[x];
+        }
+
+        /**
+         * Updates the number of selected neighbours of a node.
+         *
+         * @param x     the identifier of the node.
+         * @param f     the directions of the edges between the node and a neighbour.
+         * @param value 1 for adding the neighbour, -1 for removing it.
+         */
+        private void select(int x, int f, int value)
+        {
+            boolean inV = selects(vSel, f);
+            boolean inW = selects(wSel, f);
+            numV[x] += inV ? value : 0;
+            numW[x] += inW ? value : 0;
+            numVW[x] += inV && inW ? value : 0;
+        }
+
+        /**
+         * Obtains the directions of the edges between two nodes.
+         *
+         * @param a the identifier of the first node.
+         * @param b the identifier of the second node.
+         *
+         * @return the directions of the edges, from the point of view of the first node.
+         */
+        private int flags(int a, int b)
+        {
+            return (this.containsEdge(a, b) ? FORWARD : 0) | (this.containsEdge(b, a) ? BACKWARD : 0);
+        }
+    }
 }
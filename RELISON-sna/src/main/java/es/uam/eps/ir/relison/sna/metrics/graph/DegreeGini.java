@@ -12,10 +12,12 @@ import es.uam.eps.ir.relison.graph.DirectedGraph;
 import es.uam.eps.ir.relison.graph.Graph;
 import es.uam.eps.ir.relison.graph.UndirectedGraph;
 import es.uam.eps.ir.relison.graph.edges.EdgeOrientation;
-import es.uam.eps.ir.relison.sna.metrics.GraphMetric;
+import es.uam.eps.ir.relison.sna.metrics.AbstractIncrementalState;
+import es.uam.eps.ir.relison.sna.metrics.IncrementalGraphMetric;
 import es.uam.eps.ir.relison.utils.indexes.GiniIndex;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -24,12 +26,16 @@ import java.util.stream.Collectors;
  * not taken into account). This metric tries to see how equally the degree is
  * distributed between the different nodes.
  *
+ * <p>It can be incrementally maintained: nodes are kept sorted by degree, and, when the degree of a node grows
+ * (or decreases) by one, it is exchanged with the last (or first) node with its same degree, so the variation
+ * of the index is found in constant time.</p>
+ *
  * @param <U> Type of the users.
  *
  * @author Javier Sanz-Cruzado (javier.sanz-cruzado@uam.es)
  * @author Pablo Castells (pablo.castells@uam.es)
  */
-public class DegreeGini<U> implements GraphMetric<U>
+public class DegreeGini<U> implements IncrementalGraphMetric<U>
 {
 
     /**
@@ -126,4 +132,186 @@ public class DegreeGini<U> implements GraphMetric<U>
         double value = gi.compute(degrees, false, vertexCount, sum);
         return 1.0 - value;
     }
+
+    @Override
+    public State<U> initialize(Graph<U> graph)
+    {
+        return new IncrementalDegreeGini(graph);
+    }
+
+    /**
+     * Structure which keeps the nodes sorted by degree, and the value of the Gini index.
+     */
+    private class IncrementalDegreeGini extends AbstractIncrementalState<U>
+    {
+        /**
+         * The degree of each node.
+         */
+        private final int[] degrees;
+        /**
+         * The position of each node in the sorted list of nodes.
+         */
+        private final int[] positions;
+        /**
+         * The nodes, sorted by degree.
+         */
+        private final int[] sorted;
+        /**
+         * The first position of the nodes with each degree value in the sorted list.
+         */
+        private int[] first;
+        /**
+         * The number of nodes with each degree value.
+         */
+        private int[] size;
+        /**
+         * The sum of the degrees.
+         */
+        private long sum;
+        /**
+         * The value of \sum_{i=1}^|U| (2i - |U| - 1) |\Gamma(u_i)|, where the nodes are sorted by degree.
+         */
+        private long weighted;
+
+        /**
+         * Constructor.
+         *
+         * @param graph the network.
+         */
+        IncrementalDegreeGini(Graph<U> graph)
+        {
+            super(graph);
+            this.degrees = new int[numNodes];
+            if (graph.isDirected())
+            {
+                DirectedGraph<U> dgraph = (DirectedGraph<U>) graph;
+                switch (orientation)
+                {
+                    case IN -> graph.getAllNodes().forEach(u -> degrees[this.getIdx(u)] = dgraph.inDegree(u));
+                    case OUT -> graph.getAllNodes().forEach(u -> degrees[this.getIdx(u)] = dgraph.outDegree(u));
+                    default -> graph.getAllNodes().forEach(u -> degrees[this.getIdx(u)] = dgraph.inDegree(u) + dgraph.outDegree(u));
+                }
+            }
+            else
+            {
+                graph.getAllNodes().forEach(u -> degrees[this.getIdx(u)] = (int) graph.degree(u));
+            }
+
+            // Sort the nodes by degree (counting sort).
+            int max = Arrays.stream(degrees).max().orElse(0);
+            this.first = new int[max + 2];
+            this.size = new int[max + 2];
+            for (int d : degrees)
+            {
+                size[d]++;
+            }
+            for (int d = 1; d < size.length; ++d)
+            {
+                first[d] = first[d - 1] + size[d - 1];
+            }
+
+            this.sorted = new int[numNodes];
+            this.positions = new int[numNodes];
+            int[] next = first.clone();
+            for (int u = 0; u < numNodes; ++u)
+            {
+                int q = next[degrees[u]]++;
+                sorted[q] = u;
+                positions[u] = q;
+                sum += degrees[u];
+                weighted += (2L * q + 1 - numNodes) * degrees[u];
+            }
+        }
+
+        @Override
+        public double getValue()
+        {
+            if (numNodes < 1)
+            {
+                return Double.NaN;
+            }
+            if (numEdges == 0 || numNodes == 1 || sum == 0)
+            {
+                return 1.0;
+            }
+            return 1.0 - weighted / ((numNodes - 1.0) * sum);
+        }
+
+        @Override
+        protected void update(int a, int b, boolean add)
+        {
+            int da = add ? 1 : -1;
+            if (!directed)
+            {
+                this.apply(a, da);
+                if (a != b)
+                {
+                    this.apply(b, da);
+                }
+            }
+            else
+            {
+                switch (orientation)
+                {
+                    case IN -> this.apply(b, da);
+                    case OUT -> this.apply(a, da);
+                    default ->
+                    {
+                        this.apply(a, da);
+                        this.apply(b, da);
+                    }
+                }
+            }
+        }
+
+        /**
+         * Changes the degree of a node by one, and updates the sorted list of nodes.
+         *
+         * @param a  the node.
+         * @param da the variation of the degree (1 or -1).
+         */
+        private void apply(int a, int da)
+        {
+            int d = degrees[a];
+            int q;
+            if (da > 0)
+            {
+                if (d + 2 > first.length)
+                {
+                    first = Arrays.copyOf(first, 2 * (d + 2));
+                    size = Arrays.copyOf(size, 2 * (d + 2));
+                }
+
+                // The node takes the last position of the nodes with its degree.
+                q = first[d] + size[d] - 1;
+                weighted += 2L * q + 1 - numNodes;
+                size[d]--;
+                first[d + 1] = q;
+                size[d + 1]++;
+            }
+            else
+            {
+                // The node takes the first position of the nodes with its degree.
+                q = first[d];
+                weighted -= 2L * q + 1 - numNodes;
+                first[d]++;
+                size[d]--;
+                if (size[d - 1] == 0)
+                {
+                    first[d - 1] = q;
+                }
+                size[d - 1]++;
+            }
+
+            int p = positions[a];
+            int other = sorted[q];
+            sorted[p] = other;
+            positions[other] = p;
+            sorted[q] = a;
+            positions[a] = q;
+
+            degrees[a] += da;
+            sum += da;
+        }
+    }
 }
@@ -11,21 +11,27 @@ package es.uam.eps.ir.relison.sna.metrics.graph;
 import es.uam.eps.ir.relison.graph.Graph;
 import es.uam.eps.ir.relison.graph.multigraph.DirectedMultiGraph;
 import es.uam.eps.ir.relison.graph.multigraph.UndirectedMultiGraph;
-import es.uam.eps.ir.relison.sna.metrics.GraphMetric;
+import es.uam.eps.ir.relison.sna.metrics.AbstractIncrementalState;
+import es.uam.eps.ir.relison.sna.metrics.IncrementalGraphMetric;
 import es.uam.eps.ir.relison.utils.indexes.GiniIndex;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 /**
  * Computes the value for Gini for the different pairs of nodes.
  *
+ * <p>It can be incrementally maintained: only the number of pairs with each number of edges is stored, and,
+ * when the number of edges of a pair grows (or decreases) by one, the pair is moved to the last (or first)
+ * position among the pairs with its same value, so the variation of the index is found in constant time.</p>
+ *
  * @param <U> Type of the users.
  *
  * @author Javier Sanz-Cruzado (javier.sanz-cruzado@uam.es)
  * @author Pablo Castells (pablo.castells@uam.es)
  */
-public class EdgeGini<U> implements GraphMetric<U>
+public class EdgeGini<U> implements IncrementalGraphMetric<U>
 {
 
     private final EdgeGiniMode mode;
@@ -183,4 +189,177 @@ public class EdgeGini<U> implements GraphMetric<U>
         double value = gi.compute(degrees, true, vertexCount, edgeCount);
         return 1.0 - value;
     }
+
+    /**
+     * Builds the structure which keeps the value of the metric. Only multigraphs are supported.
+     *
+     * @param graph the network.
+     *
+     * @return the structure, or null if the network is not a multigraph.
+     */
+    @Override
+    public State<U> initialize(Graph<U> graph)
+    {
+        return graph.isMultigraph() ? new IncrementalEdgeGini(graph) : null;
+    }
+
+    /**
+     * Structure which keeps the number of pairs of nodes with each number of edges, and the value of the Gini index.
+     */
+    private class IncrementalEdgeGini extends AbstractIncrementalState<U>
+    {
+        /**
+         * Number of pairs considered by the index.
+         */
+        private final long numItems;
+        /**
+         * The first position of the pairs with each number of edges, when the pairs are sorted.
+         */
+        private long[] first;
+        /**
+         * The number of pairs with each number of edges.
+         */
+        private long[] size;
+        /**
+         * Total number of autoloops.
+         */
+        private long autoloops;
+        /**
+         * Sum of the values of the pairs.
+         */
+        private long sum;
+        /**
+         * The value of \sum_{i=1}^n (2i - n - 1) x_i, where x_i are the sorted values of the pairs.
+         */
+        private long weighted;
+
+        /**
+         * Constructor.
+         *
+         * @param graph the network.
+         */
+        IncrementalEdgeGini(Graph<U> graph)
+        {
+            super(graph);
+            long n = numNodes;
+            this.numItems = switch (mode)
+            {
+                case COMPLETE -> directed ? n * n : n * (n + 1) / 2;
+                case SEMICOMPLETE -> directed ? n * (n - 1) + 1 : n * (n - 1) / 2 + 1;
+                default -> directed ? n * (n - 1) : n * (n - 1) / 2;
+            };
+
+            // Values of the pairs which contain, at least, one edge.
+            List<Integer> values = new ArrayList<>();
+            this.forEachPair((a, b, count) ->
+            {
+                if (a != b)
+                {
+                    values.add(count);
+                }
+                else
+                {
+                    autoloops += count;
+                    if (mode == EdgeGiniMode.COMPLETE)
+                    {
+                        values.add(count);
+                    }
+                }
+            });
+            if (mode == EdgeGiniMode.SEMICOMPLETE && autoloops > 0)
+            {
+                values.add((int) autoloops);
+            }
+
+            int max = values.stream().mapToInt(x -> x).max().orElse(0);
+            this.first = new long[max + 2];
+            this.size = new long[max + 2];
+            size[0] = numItems - values.size();
+            values.forEach(x -> size[x]++);
+            for (int k = 1; k < size.length; ++k)
+            {
+                first[k] = first[k - 1] + size[k - 1];
+            }
+            for (int k = 1; k < size.length; ++k)
+            {
+                weighted += k * size[k] * (2 * first[k] + size[k] - numItems);
+            }
+            this.sum = mode == EdgeGiniMode.INTERLINKS ? numEdges - autoloops : numEdges;
+        }
+
+        @Override
+        public double getValue()
+        {
+            if (numItems <= 1 || sum == 0)
+            {
+                return 1.0;
+            }
+            return 1.0 - weighted / ((numItems - 1.0) * sum);
+        }
+
+        @Override
+        protected void update(int a, int b, boolean add)
+        {
+            int value;
+            if (a != b)
+            {
+                value = this.getNumEdges(a, b);
+            }
+            else
+            {
+                switch (mode)
+                {
+                    case COMPLETE -> value = this.getNumEdges(a, b);
+                    case SEMICOMPLETE -> value = (int) autoloops;
+                    default -> value = -1;
+                }
+                autoloops += add ? 1 : -1;
+            }
+
+            if (value >= 0)
+            {
+                this.apply(value, add ? 1 : -1);
+                sum += add ? 1 : -1;
+            }
+        }
+
+        /**
+         * Changes the value of a pair by one.
+         *
+         * @param k  the current value of the pair.
+         * @param dk the variation of the value (1 or -1).
+         */
+        private void apply(int k, int dk)
+        {
+            long q;
+            if (dk > 0)
+            {
+                if (k + 2 > first.length)
+                {
+                    first = Arrays.copyOf(first, 2 * (k + 2));
+                    size = Arrays.copyOf(size, 2 * (k + 2));
+                }
+
+                // The pair takes the last position of the pairs with its value.
+                q = first[k] + size[k] - 1;
+                weighted += 2 * q + 1 - numItems;
+                size[k]--;
+                first[k + 1] = q;
+                size[k + 1]++;
+            }
+            else
+            {
+                // The pair takes the first position of the pairs with its value.
+                q = first[k];
+                weighted -= 2 * q + 1 - numItems;
+                first[k]++;
+                size[k]--;
+                if (size[k - 1] == 0)
+                {
+                    first[k - 1] = q;
+                }
+                size[k - 1]++;
+            }
+        }
+    }
 }
@@ -9,7 +9,8 @@
 package es.uam.eps.ir.relison.sna.metrics.graph;
 
 import es.uam.eps.ir.relison.graph.Graph;
-import es.uam.eps.ir.relison.sna.metrics.GraphMetric;
+import es.uam.eps.ir.relison.sna.metrics.AbstractIncrementalState;
+import es.uam.eps.ir.relison.sna.metrics.IncrementalGraphMetric;
 
 /**
  * Reciprocity rate of the graph (proportion of reciprocal links)
@@ -19,7 +20,7 @@ import es.uam.eps.ir.relison.sna.metrics.GraphMetric;
  * @author Javier Sanz-Cruzado (javier.sanz-cruzado@uam.es)
  * @author Pablo Castells (pablo.castells@uam.es)
  */
-public class ReciprocityRate<U> implements GraphMetric<U>
+public class ReciprocityRate<U> implements IncrementalGraphMetric<U>
 {
     @Override
     public double compute(Graph<U> graph)
@@ -34,4 +35,71 @@ public class ReciprocityRate<U> implements GraphMetric<U>
         return num / den;
     }
 
+    /**
+     * Builds the structure which keeps the value of the reciprocity rate. Multigraphs are not supported.
+     *
+     * @param graph the network.
+     *
+     * @return the structure, or null if the network is a multigraph.
+     */
+    @Override
+    public State<U> initialize(Graph<U> graph)
+    {
+        return graph.isMultigraph() ? null : new IncrementalReciprocityRate(graph);
+    }
+
+    /**
+     * Structure which keeps the number of reciprocated edges of the network.
+     */
+    private class IncrementalReciprocityRate extends AbstractIncrementalState<U>
+    {
+        /**
+         * Number of edges whose reciprocal edge also exists.
+         */
+        private long reciprocated;
+
+        /**
+         * Constructor.
+         *
+         * @param graph the network.
+         */
+        IncrementalReciprocityRate(Graph<U> graph)
+        {
+            super(graph);
+            if (directed)
+            {
+                this.forEachPair((a, b, count) -> reciprocated += this.containsEdge(b, a) ? 1 : 0);
+            }
+        }
+
+        @Override
+        public double getValue()
+        {
+            if (!directed)
+            {
+                return 1.0;
+            }
+            return reciprocated / (numEdges + 0.0);
+        }
+
+        @Override
+        protected void update(int a, int b, boolean add)
+        {
+            if (!directed)
+            {
+                return;
+            }
+
+            // An autoloop is its own reciprocal edge.
+            int value = add ? 1 : -1;
+            if (a == b)
+            {
+                reciprocated += value;
+            }
+            else if (this.containsEdge(b, a))
+            {
+                reciprocated += 2 * value;
+            }
+        }
+    }
 }
@@ -0,0 +1,490 @@
+/*
+ *  Copyright (C) 2021 Information Retrieval Group at Universidad Autónoma
+ *  de Madrid, http://ir.ii.uam.es
+ *
+ *  This Source Code Form is subject to the terms of the Mozilla Public
+ *  License, v. 2.0. If a copy of the MPL was not distributed with this
+ *  file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package es.uam.eps.ir.relison.sna.metrics.graph;
+
+import es.uam.eps.ir.relison.graph.Graph;
+import es.uam.eps.ir.relison.graph.edges.EdgeOrientation;
+import es.uam.eps.ir.relison.graph.fast.SortedNeighborhoods;
+import es.uam.eps.ir.relison.index.Index;
+import it.unimi.dsi.fastutil.bytes.ByteArrayList;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.ints.IntArrays;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * Counts the triangles and the triplets around the nodes of a network, for computing global and local clustering
+ * coefficients. Given two neighbourhood selections (vSel, wSel), a triplet centred on a node u is a pair of distinct
+ * nodes (v,w), different from u, such that v is in the vSel neighbourhood of u and w is in its wSel neighbourhood.
+ * The triplet is closed (it forms a triangle) if the network contains the edge (v,w).
+ *
+ * <p>
+ * Each triangle of the underlying undirected network is enumerated once with the compact-forward algorithm: nodes are
+ * ranked by degree, every edge is oriented from the lower to the higher ranked node, and the triangles are found by
+ * intersecting the sorted forward neighbourhoods of the endpoints of each edge. The directions of the three edges of
+ * the triangle determine how many closed triplets it contributes to each of its nodes. Nodes are processed in
+ * parallel, and all counts are stored as long values.
+ * </p>
+ *
+ * <p>
+ * Self-loops are ignored, and multiple edges between the same pair of nodes are considered as a single edge.
+ * </p>
+ *
+ * <p>
+ * <b>Reference:</b> M. Latapy. Main-memory triangle computations for very large (sparse (power-law)) graphs. Theoretical Computer Science 407(1-3), pp. 458-473 (2008).
+ * </p>
+ *
+ * @param <U> type of the users.
+ *
+ * @author Javier Sanz-Cruzado (javier.sanz-cruzado@uam.es)
+ * @author Pablo Castells (pablo.castells@uam.es)
+ */
+public class TriangleCounter<U>
+{
+    /**
+     * Flag indicating that an edge goes from the first node of a pair to the second one.
+     */
+    static final int FORWARD = 1;
+    /**
+     * Flag indicating that an edge goes from the second node of a pair to the first one.
+     */
+    static final int BACKWARD = 2;
+    /**
+     * Orientation for selecting the first node of the triplets.
+     */
+    private final EdgeOrientation vSel;
+    /**
+     * Orientation for selecting the second node of the triplets.
+     */
+    private final EdgeOrientation wSel;
+    /**
+     * Number of closed triplets contributed to the apex of a triangle, indexed by the directions of the edges
+     * between the apex and the other two nodes, and between those nodes.
+     */
+    private final int[] closed;
+
+    /**
+     * Constructor.
+     *
+     * @param vSel orientation for selecting the first node of the triplets.
+     * @param wSel orientation for selecting the second node of the triplets.
+     */
+    public TriangleCounter(EdgeOrientation vSel, EdgeOrientation wSel)
+    {
+        this.vSel = vSel;
+        this.wSel = wSel;
+        this.closed = new int[64];
+        for (int fuv = 0; fuv < 4; ++fuv)
+        {
+            for (int fuw = 0; fuw < 4; ++fuw)
+            {
+                for (int fvw = 0; fvw < 4; ++fvw)
+                {
+                    int count = 0;
+                    if (selects(vSel, fuv) && selects(wSel, fuw) && (fvw & FORWARD) != 0)
+                    {
+                        ++count;
+                    }
+                    if (selects(vSel, fuw) && selects(wSel, fuv) && (fvw & BACKWARD) != 0)
+                    {
+                        ++count;
+                    }
+                    this.closed[fuv | (fuw << 2) | (fvw << 4)] = count;
+                }
+            }
+        }
+    }
+
+    /**
+     * Checks whether a neighbour of a node belongs to a neighbourhood selection.
+     *
+     * @param orient the neighbourhood selection.
+     * @param flags  the directions of the edges between the node and the neighbour.
+     *
+     * @return true if the neighbour is selected, false otherwise.
+     */
+    static boolean selects(EdgeOrientation orient, int flags)
+    {
+        return switch (orient)
+        {
+            case OUT -> (flags & FORWARD) != 0;
+            case IN -> (flags & BACKWARD) != 0;
+            case UND -> flags != 0;
+            case MUTUAL -> flags == (FORWARD | BACKWARD);
+        };
+    }
+
+    /**
+     * Swaps the directions of the edges of a pair of nodes.
+     *
+     * @param flags the directions.
+     *
+     * @return the directions when the order of the pair is inverted.
+     */
+    static int swap(int flags)
+    {
+        return ((flags & FORWARD) << 1) | ((flags & BACKWARD) >> 1);
+    }
+
+    /**
+     * Counts the triangles and triplets of the network.
+     *
+     * @param graph the network.
+     *
+     * @return the counts. Nodes are identified by their position in {@link Graph#getAdjacencyMatrixMap()}.
+     */
+    public Result<U> count(Graph<U> graph)
+    {
+        return this.count(graph, null);
+    }
+
+    /**
+     * Counts the triangles and triplets of the network, orienting the edges by a given ordering of the nodes. A
+     * degeneracy ordering (see {@link es.uam.eps.ir.relison.sna.metrics.vertex.KCoreDecomposition}) bounds the number
+     * of forward neighbours of every node by the degeneracy of the network.
+     *
+     * @param graph the network.
+     * @param order the ordering of the nodes, as identifiers in {@link Graph#getAdjacencyMatrixMap()}. If null, nodes
+     *              are ordered by degree.
+     *
+     * @return the counts. Nodes are identified by their position in {@link Graph#getAdjacencyMatrixMap()}.
+     */
+    public Result<U> count(Graph<U> graph, int[] order)
+    {
+        Index<U> index = graph.getAdjacencyMatrixMap();
+        int numNodes = index.numObjects();
+
+        // Neighbourhoods of the underlying undirected network, with the direction of the edges.
+        int[][] neighs = new int[numNodes][];
+        byte[][] flags = new byte[numNodes][];
+        long[] triplets = new long[numNodes];
+        IntStream.range(0, numNodes).parallel().forEach(uidx ->
+        {
+            int[] out = SortedNeighborhoods.of(graph, index, uidx, EdgeOrientation.OUT, true);
+            int[] in = SortedNeighborhoods.of(graph, index, uidx, EdgeOrientation.IN, true);
+            IntArrayList ids = new IntArrayList(out.length + in.length);
+            ByteArrayList aux = new ByteArrayList(out.length + in.length);
+            int i = 0;
+            int j = 0;
+            while (i < out.length || j < in.length)
+            {
+                int next = j >= in.length || (i < out.length && out[i] <= in[j]) ? out[i] : in[j];
+                int f = 0;
+                if (i < out.length && out[i] == next)
+                {
+                    f |= FORWARD;
+                    ++i;
+                }
+                if (j < in.length && in[j] == next)
+                {
+                    f |= BACKWARD;
+                    ++j;
+                }
+                if (next != uidx)
+                {
+                    ids.add(next);
+                    aux.add((byte) f);
+                }
+            }
+
+            neighs[uidx] = ids.toIntArray();
+            byte[] fs = aux.toByteArray();
+            long a = 0;
+            long b = 0;
+            long c = 0;
+            for (int k = 0; k < fs.length; ++k)
+            {
+                boolean inV = selects(vSel, fs[k]);
+                boolean inW = selects(wSel, fs[k]);
+                a += inV ? 1 : 0;
+                b += inW ? 1 : 0;
+                c += inV && inW ? 1 : 0;
+            }
+            flags[uidx] = fs;
+            triplets[uidx] = a * b - c;
+        });
+
+        // Rank the nodes by degree (unless an ordering is given), and keep only the neighbours with a higher rank.
+        if (order == null)
+        {
+            order = IntStream.range(0, numNodes).toArray();
+            IntArrays.quickSort(order, (x, y) ->
+            {
+                int cmp = Integer.compare(neighs[x].length, neighs[y].length);
+                return cmp != 0 ? cmp : Integer.compare(x, y);
+            });
+        }
+        int[] rank = new int[numNodes];
+        for (int r = 0; r < numNodes; ++r)
+        {
+            rank[order[r]] = r;
+        }
+
+        int[][] forward = new int[numNodes][];
+        byte[][] forwardFlags = new byte[numNodes][];
+        IntStream.range(0, numNodes).parallel().forEach(uidx ->
+        {
+            int[] ns = neighs[uidx];
+            byte[] fs = flags[uidx];
+            int size = 0;
+            for (int vidx : ns)
+            {
+                if (rank[vidx] > rank[uidx])
+                {
+                    ++size;
+                }
+            }
+            int[] fwd = new int[size];
+            byte[] fwdFlags = new byte[size];
+            int pos = 0;
+            for (int k = 0; k < ns.length; ++k)
+            {
+                if (rank[ns[k]] > rank[uidx])
+                {
+                    fwd[pos] = ns[k];
+                    fwdFlags[pos] = fs[k];
+                    ++pos;
+                }
+            }
+            forward[uidx] = fwd;
+            forwardFlags[uidx] = fwdFlags;
+        });
+
+        // Enumerate the triangles: each one is found from its lowest ranked node.
+        List<Accumulator> accumulators = new ArrayList<>();
+        ThreadLocal<Accumulator> local = ThreadLocal.withInitial(() ->
+        {
+            Accumulator acc = new Accumulator(numNodes);
+            synchronized (accumulators)
+            {
+                accumulators.add(acc);
+            }
+            return acc;
+        });
+        IntStream.range(0, numNodes).parallel().forEach(aidx -> local.get().enumerate(aidx, forward, forwardFlags));
+
+        long[] triangles = new long[numNodes];
+        long total = 0;
+        for (Accumulator acc : accumulators)
+        {
+            for (int uidx = 0; uidx < numNodes; ++uidx)
+            {
+                triangles[uidx] += acc.closedTriplets[uidx];
+            }
+            total += acc.triangles;
+        }
+        return new Result<>(index, triangles, triplets, total);
+    }
+
+    /**
+     * Counts of closed triplets found by a single thread.
+     */
+    private class Accumulator
+    {
+        /**
+         * Number of closed triplets centred on each node.
+         */
+        private final long[] closedTriplets;
+        /**
+         * Number of triangles in the underlying undirected network.
+         */
+        private long triangles;
+
+        /**
+         * Constructor.
+         *
+         * @param numNodes the number of nodes in the network.
+         */
+        Accumulator(int numNodes)
+        {
+            this.closedTriplets = new long[numNodes];
+            this.triangles = 0L;
+        }
+
+        /**
+         * Finds the triangles whose lowest ranked node is a given one.
+         *
+         * @param aidx         the identifier of the node.
+         * @param forward      the neighbours of each node with a higher rank, sorted by identifier.
+         * @param forwardFlags the directions of the edges towards those neighbours.
+         */
+        void enumerate(int aidx, int[][] forward, byte[][] forwardFlags)
+        {
+            int[] aNeighs = forward[aidx];
+            byte[] aFlags = forwardFlags[aidx];
+            for (int i = 0; i < aNeighs.length; ++i)
+            {
+                int bidx = aNeighs[i];
+                int fab = aFlags[i];
+                int[] bNeighs = forward[bidx];
+                byte[] bFlags = forwardFlags[bidx];
+
+                // Merge intersection of the sorted forward neighbourhoods.
+                int j = 0;
+                int k = 0;
+                while (j < aNeighs.length && k < bNeighs.length)
+                {
+                    if (aNeighs[j] < bNeighs[k])
+                    {
+                        ++j;
+                    }
+                    else if (aNeighs[j] > bNeighs[k])
+                    {
+                        ++k;
+                    }
+                    else
+                    {
+                        int cidx = aNeighs[j];
+                        int fac = aFlags[j];
+                        int fbc = bFlags[k];
+                        this.closedTriplets[aidx] += closed[fab | (fac << 2) | (fbc << 4)];
+                        this.closedTriplets[bidx] += closed[swap(fab) | (fbc << 2) | (fac << 4)];
+                        this.closedTriplets[cidx] += closed[swap(fac) | (swap(fbc) << 2) | (fab << 4)];
+                        ++this.triangles;
+                        ++j;
+                        ++k;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Triangle and triplet counts of a network.
+     *
+     * @param <U> type of the users.
+     */
+    public static class Result<U>
+    {
+        /**
+         * Index of the nodes.
+         */
+        private final Index<U> index;
+        /**
+         * Number of closed triplets centred on each node.
+         */
+        private final long[] triangles;
+        /**
+         * Number of triplets centred on each node.
+         */
+        private final long[] triplets;
+        /**
+         * Number of triangles in the underlying undirected network.
+         */
+        private final long undirectedTriangles;
+        /**
+         * Total number of closed triplets.
+         */
+        private final long totalTriangles;
+        /**
+         * Total number of triplets.
+         */
+        private final long totalTriplets;
+
+        /**
+         * Constructor.
+         *
+         * @param index               index of the nodes.
+         * @param triangles           number of closed triplets centred on each node.
+         * @param triplets            number of triplets centred on each node.
+         * @param undirectedTriangles number of triangles in the underlying undirected network.
+         */
+        Result(Index<U> index, long[] triangles, long[] triplets, long undirectedTriangles)
+        {
+            this.index = index;
+            this.triangles = triangles;
+            this.triplets = triplets;
+            this.undirectedTriangles = undirectedTriangles;
+            this.totalTriangles = Arrays.stream(triangles).sum();
+            this.totalTriplets = Arrays.stream(triplets).sum();
+        }
+
+        /**
+         * Obtains the number of closed triplets centred on a node.
+         *
+         * @param node the node.
+         *
+         * @return the number of closed triplets.
+         */
+        public long getTriangles(U node)
+        {
+            return this.triangles[this.index.object2idx(node)];
+        }
+
+        /**
+         * Obtains the number of triplets centred on a node.
+         *
+         * @param node the node.
+         *
+         * @return the number of triplets.
+         */
+        public long getTriplets(U node)
+        {
+            return this.triplets[this.index.object2idx(node)];
+        }
+
+        /**
+         * Obtains the total number of closed triplets in the network.
+         *
+         * @return the number of closed triplets.
+         */
+        public long getTotalTriangles()
+        {
+            return this.totalTriangles;
+        }
+
+        /**
+         * Obtains the total number of triplets in the network.
+         *
+         * @return the number of triplets.
+         */
+        public long getTotalTriplets()
+        {
+            return this.totalTriplets;
+        }
+
+        /**
+         * Obtains the number of triangles of the underlying undirected network, regardless of the directions of
+         * their edges.
+         *
+         * @return the number of triangles.
+         */
+        public long getUndirectedTriangles()
+        {
+            return this.undirectedTriangles;
+        }
+
+        /**
+         * Obtains the global clustering coefficient of the network: the fraction of triplets which are closed.
+         *
+         * @return the global clustering coefficient (0.0 if there are no triplets).
+         */
+        public double getGlobalClustering()
+        {
+            return this.totalTriplets > 0 ? (this.totalTriangles + 0.0) / (this.totalTriplets + 0.0) : 0.0;
+        }
+
+        /**
+         * Obtains the local clustering coefficient of a node: the fraction of the triplets centred on the node
+         * which are closed.
+         *
+         * @param node the node.
+         *
+         * @return the local clustering coefficient (0.0 if there are no triplets centred on the node).
+         */
+        public double getLocalClustering(U node)
+        {
+            int idx = this.index.object2idx(node);
+            return this.triplets[idx] > 0 ? (this.triangles[idx] + 0.0) / (this.triplets[idx] + 0.0) : 0.0;
+        }
+    }
+}
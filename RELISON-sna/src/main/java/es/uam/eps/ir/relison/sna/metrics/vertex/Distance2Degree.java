@@ -10,7 +10,10 @@ package es.uam.eps.ir.relison.sna.metrics.vertex;
 
 import es.uam.eps.ir.relison.graph.Graph;
 import es.uam.eps.ir.relison.graph.edges.EdgeOrientation;
+import es.uam.eps.ir.relison.graph.fast.FastGraph;
 import es.uam.eps.ir.relison.sna.metrics.VertexMetric;
+import it.unimi.dsi.fastutil.ints.IntOpenHashSet;
+import it.unimi.dsi.fastutil.ints.IntSet;
 
 import java.util.HashSet;
 import java.util.Set;
@@ -49,6 +52,14 @@ public class Distance2Degree<U> implements VertexMetric<U>
     @Override
     public double compute(Graph<U> graph, U user)
     {
+        if (graph instanceof FastGraph)
+        {
+            FastGraph<U> fastGraph = (FastGraph<U>) graph;
+            IntSet d2neighs = new IntOpenHashSet();
+            fastGraph.forEachNeighbor(fastGraph.object2idx(user), first, neigh -> fastGraph.forEachNeighbor(neigh, second, d2neighs::add));
+            return d2neighs.size();
+        }
+
         Set<U> d2neighs = new HashSet<>();
         graph.getNeighbourhood(user, first).forEach(neigh -> graph.getNeighbourhood(neigh, second).forEach(d2neighs::add));
         return d2neighs.size();
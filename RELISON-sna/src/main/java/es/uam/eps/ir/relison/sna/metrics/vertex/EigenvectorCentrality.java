@@ -14,7 +14,9 @@ import cern.colt.matrix.impl.SparseDoubleMatrix2D;
 import cern.colt.matrix.linalg.EigenvalueDecomposition;
 import es.uam.eps.ir.relison.graph.Graph;
 import es.uam.eps.ir.relison.graph.edges.EdgeOrientation;
+import es.uam.eps.ir.relison.utils.matrix.CSRMatrix;
 import es.uam.eps.ir.relison.utils.matrix.MatrixLibrary;
+import es.uam.eps.ir.relison.utils.matrix.PowerIteration;
 import no.uib.cipr.matrix.DenseMatrix;
 import no.uib.cipr.matrix.EVD;
 import no.uib.cipr.matrix.Matrix;
@@ -24,12 +26,20 @@ import org.jblas.ComplexDoubleMatrix;
 import org.jblas.DoubleMatrix;
 import org.jblas.Eigen;
 
+import java.util.Arrays;
+
 /**
  * Finds the eigenvector centrality of the network, which measures the importance of a node
  * based on the importance of its neighbors. It is the solution to equation Ax = kx, where
  * k is the largest eigenvalue of the adjacency matrix A.
  *
  * <p>
+ * With the sparse library, the eigenvector is found with the power method over the matrix
+ * A + I (which has the same eigenvectors, but avoids oscillations on periodic networks), and
+ * it is normalized so its Euclidean norm is one.
+ * </p>
+ *
+ * <p>
  * <b>Reference: </b> Bonacich, P.F. Power and centrality: A family of measures. American Journal of Sociology 92 (5), pp. 1170-1182 (1987)
  * </p>
  *
@@ -240,4 +250,77 @@ public class EigenvectorCentrality<U> extends MatrixBasedVertexMetric<U>
             return eig.getV().viewColumn(index).toArray();
         }
     }
-}
\ No newline at end of file
+
+    @Override
+    protected double[] getSparseScores(Graph<U> graph)
+    {
+        CSRMatrix adj = CSRMatrix.adjacency(graph, orient, true);
+        int n = adj.numRows();
+
+        // If the graph is acyclic, the maximum eigenvalue is zero, and all the centralities should be zero.
+        if (graph.isDirected() && orient != EdgeOrientation.UND && orient != EdgeOrientation.MUTUAL && isAcyclic(adj))
+        {
+            return new double[n];
+        }
+
+        double[] initial = new double[n];
+        Arrays.fill(initial, 1.0 / Math.sqrt(n));
+        PowerIteration engine = new PowerIteration(SPARSE_TOLERANCE, SPARSE_MAX_ITER);
+        return engine.run(initial, (x, y) ->
+        {
+            adj.parallelMultiply(x, y);
+            double norm = Math.sqrt(PowerIteration.sum(n, i ->
+            {
+                y[i] += x[i];
+                return y[i] * y[i];
+            }));
+            PowerIteration.forEachRange(n, (begin, end) ->
+            {
+                for (int i = begin; i < end; ++i)
+                {
+                    y[i] /= norm;
+                }
+            });
+        }).getValues();
+    }
+
+    /**
+     * Checks whether the graph represented by an adjacency matrix is acyclic (Kahn's algorithm).
+     *
+     * @param adj the adjacency matrix.
+     *
+     * @return true if the graph is acyclic, false otherwise.
+     */
+    private static boolean isAcyclic(CSRMatrix adj)
+    {
+        int n = adj.numRows();
+        int[] indegree = new int[n];
+        for (int i = 0; i < n; ++i)
+        {
+            adj.forEachInRow(i, (j, value) -> ++indegree[j]);
+        }
+
+        int[] queue = new int[n];
+        int tail = 0;
+        for (int i = 0; i < n; ++i)
+        {
+            if (indegree[i] == 0)
+            {
+                queue[tail++] = i;
+            }
+        }
+        for (int head = 0; head < tail; ++head)
+        {
+            int[] aux = {tail};
+            adj.forEachInRow(queue[head], (j, value) ->
+            {
+                if (--indegree[j] == 0)
+                {
+                    queue[aux[0]++] = j;
+                }
+            });
+            tail = aux[0];
+        }
+        return tail == n;
+    }
+}
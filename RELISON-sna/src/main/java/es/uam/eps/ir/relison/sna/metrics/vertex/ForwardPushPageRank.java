@@ -0,0 +1,381 @@
+/*
+ *  Copyright (C) 2021 Information Retrieval Group at Universidad Autónoma
+ *  de Madrid, http://ir.ii.uam.es
+ *
+ *  This Source Code Form is subject to the terms of the Mozilla Public
+ *  License, v. 2.0. If a copy of the MPL was not distributed with this
+ *  file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package es.uam.eps.ir.relison.sna.metrics.vertex;
+
+import es.uam.eps.ir.relison.graph.edges.EdgeOrientation;
+import es.uam.eps.ir.relison.graph.fast.FastGraph;
+import es.uam.eps.ir.relison.utils.functions.IntDoubleConsumer;
+import it.unimi.dsi.fastutil.ints.Int2DoubleMap;
+import it.unimi.dsi.fastutil.ints.Int2DoubleOpenHashMap;
+
+import java.util.Arrays;
+
+/**
+ * Local (forward push) approximation of the personalized PageRank vector of a node. The random walker starts at a
+ * source node and, at every step, teleports back to the source with probability r, or moves to one of the
+ * out-neighbors of its current node (chosen uniformly at random) otherwise. Instead of iterating over the whole
+ * network, the algorithm pushes probability mass from the source to its vicinity, and it stops once the
+ * unpropagated mass (the residual) of every node is smaller than epsilon times its out-degree. Then, every
+ * estimation is at most epsilon times the out-degree of the node below its actual value, and the cost of
+ * each computation is O(1/(r &middot; epsilon)), independently of the size of the network.
+ *
+ * <p>
+ * When the walker reaches a sink (a node without out-neighbors), it either restarts from the source (so the
+ * personalized PageRank values sum to one) or it stops (so the values are the probabilities of the walk
+ * finishing at each node, which relate to the expected number of visits before the first teleport).
+ * </p>
+ *
+ * <p>
+ * The computation structures (residual and estimate arrays, queue) are allocated once per thread and reused
+ * between computations, so different source nodes can be processed concurrently from different threads.
+ * </p>
+ *
+ * <p>
+ * <b>References: </b>
+ * </p>
+ * <ol>
+ *     <li>R. Andersen, F. Chung, K. Lang. Local graph partitioning using PageRank vectors. 47th Annual IEEE Symposium on Foundations of Computer Science (FOCS 2006), pp. 475-486 (2006)</li>
+ *     <li>S. White, P. Smyth. Algorithms for Estimating Relative Importance in Networks. 9th Annual ACM SIGKDD International Conference on Knowledge Discovery and Data Mining (KDD 2003)</li>
+ * </ol>
+ *
+ * @param <U> type of the users.
+ *
+ * @author Javier Sanz-Cruzado (javier.sanz-cruzado@uam.es)
+ * @author Pablo Castells (pablo.castells@uam.es)
+ */
+public class ForwardPushPageRank<U>
+{
+    /**
+     * Teleport probability.
+     */
+    private final double r;
+    /**
+     * Maximum residual per out-edge of each node.
+     */
+    private final double epsilon;
+    /**
+     * Weight of the edges pointing to the source node, relative to the rest of edges (which have weight one).
+     */
+    private final double sourceWeight;
+    /**
+     * Whether the walker restarts from the source (true) or stops (false) when it reaches a sink.
+     */
+    private final boolean restartOnSinks;
+    /**
+     * Number of nodes in the network.
+     */
+    private final int numNodes;
+    /**
+     * Offsets of the out-neighborhoods in the neighbors array (length numNodes + 1).
+     */
+    private final int[] offsets;
+    /**
+     * Out-neighbors of each node (sorted).
+     */
+    private final int[] neighbors;
+    /**
+     * The computation structures of each thread.
+     */
+    private final ThreadLocal<Workspace> workspaces;
+
+    /**
+     * Constructor for the usual personalized PageRank, where the walker restarts from the source on sinks.
+     *
+     * @param graph   the graph. A snapshot of its out-neighborhoods is taken, so later modifications are not considered.
+     * @param r       the teleport probability.
+     * @param epsilon the maximum residual per out-edge (the smaller, the more accurate and expensive).
+     */
+    public ForwardPushPageRank(FastGraph<U> graph, double r, double epsilon)
+    {
+        this(graph, r, epsilon, 1.0, true);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param graph          the graph. A snapshot of its out-neighborhoods is taken, so later modifications are not
+     *                       considered.
+     * @param r              the teleport probability.
+     * @param epsilon        the maximum residual per out-edge (the smaller, the more accurate and expensive).
+     * @param sourceWeight   the weight of the edges pointing to the source, relative to the rest of edges. A value of
+     *                       zero means that the source can only be reached by teleporting.
+     * @param restartOnSinks true if the walker restarts from the source when it reaches a sink, false if it stops.
+     */
+    public ForwardPushPageRank(FastGraph<U> graph, double r, double epsilon, double sourceWeight, boolean restartOnSinks)
+    {
+        this.r = r;
+        this.epsilon = epsilon;
+        this.sourceWeight = sourceWeight;
+        this.restartOnSinks = restartOnSinks;
+        this.numNodes = Long.valueOf(graph.getVertexCount()).intValue();
+
+        this.offsets = new int[this.numNodes + 1];
+        for (int uidx = 0; uidx < this.numNodes; ++uidx)
+        {
+            this.offsets[uidx + 1] = this.offsets[uidx] + graph.getNeighborhoodSize(uidx, EdgeOrientation.OUT);
+        }
+        this.neighbors = new int[this.offsets[this.numNodes]];
+        for (int uidx = 0; uidx < this.numNodes; ++uidx)
+        {
+            int[] pos = {this.offsets[uidx]};
+            graph.forEachNeighbor(uidx, EdgeOrientation.OUT, vidx -> this.neighbors[pos[0]++] = vidx);
+            Arrays.sort(this.neighbors, this.offsets[uidx], this.offsets[uidx + 1]);
+        }
+
+        this.workspaces = ThreadLocal.withInitial(Workspace::new);
+    }
+
+    /**
+     * Computes the personalized PageRank values for a source node.
+     *
+     * @param source  the identifier of the source node.
+     * @param visitor receives every node with a positive estimation, along with the estimation.
+     *
+     * @return the probability mass lost on sinks (always zero if the walker restarts from the source on sinks).
+     */
+    public double compute(int source, IntDoubleConsumer visitor)
+    {
+        Workspace ws = this.workspaces.get();
+        double lost = ws.run(source);
+        for (int i = 0; i < ws.numTouched; ++i)
+        {
+            int vidx = ws.touched[i];
+            if (ws.estimate[vidx] > 0.0)
+            {
+                visitor.accept(vidx, ws.estimate[vidx]);
+            }
+        }
+        ws.clear();
+        return lost;
+    }
+
+    /**
+     * Computes the personalized PageRank values for a source node.
+     *
+     * @param source the identifier of the source node.
+     *
+     * @return a map containing the nodes with positive estimations.
+     */
+    public Int2DoubleMap compute(int source)
+    {
+        Int2DoubleMap map = new Int2DoubleOpenHashMap();
+        this.compute(source, map::put);
+        return map;
+    }
+
+    /**
+     * Computes the personalized PageRank value of the source node itself.
+     *
+     * @param source the identifier of the source node.
+     *
+     * @return the estimation.
+     */
+    public double computeSelf(int source)
+    {
+        Workspace ws = this.workspaces.get();
+        ws.run(source);
+        double value = ws.estimate[source];
+        ws.clear();
+        return value;
+    }
+
+    /**
+     * Computes, for every node, the expected number of steps of a random walk starting at the node until it
+     * teleports (or reaches a sink, where it is stopped), i.e., the sum of the personalized PageRank values of the
+     * node divided by r, when the walker stops on sinks. All the edges are considered to have weight one, and it is
+     * computed by iterating over the whole network.
+     *
+     * @param tolerance the maximum change of any value between two iterations.
+     * @param maxIter   the maximum number of iterations.
+     *
+     * @return an array containing the expected length of the walks.
+     */
+    public double[] walkLengths(double tolerance, int maxIter)
+    {
+        double[] lengths = new double[this.numNodes];
+        double[] aux = new double[this.numNodes];
+        Arrays.fill(lengths, 1.0);
+        for (int iter = 0; iter < maxIter; ++iter)
+        {
+            double diff = 0.0;
+            for (int uidx = 0; uidx < this.numNodes; ++uidx)
+            {
+                int degree = this.offsets[uidx + 1] - this.offsets[uidx];
+                double sum = 0.0;
+                for (int j = this.offsets[uidx]; j < this.offsets[uidx + 1]; ++j)
+                {
+                    sum += lengths[this.neighbors[j]];
+                }
+                aux[uidx] = 1.0 + (degree > 0 ? (1.0 - r) * sum / degree : 0.0);
+                diff = Math.max(diff, Math.abs(aux[uidx] - lengths[uidx]));
+            }
+            double[] swap = lengths;
+            lengths = aux;
+            aux = swap;
+            if (diff <= tolerance)
+            {
+                break;
+            }
+        }
+        return lengths;
+    }
+
+    /**
+     * Obtains the number of nodes in the network.
+     *
+     * @return the number of nodes.
+     */
+    public int numNodes()
+    {
+        return this.numNodes;
+    }
+
+    /**
+     * Computation structures used by a single thread.
+     */
+    private class Workspace
+    {
+        /**
+         * Estimated personalized PageRank of each node.
+         */
+        private final double[] estimate = new double[numNodes];
+        /**
+         * Probability mass which has not been propagated from each node yet.
+         */
+        private final double[] residual = new double[numNodes];
+        /**
+         * Circular queue containing the nodes whose residual exceeds the threshold.
+         */
+        private final int[] queue = new int[numNodes];
+        /**
+         * Bitset indicating the nodes in the queue.
+         */
+        private final long[] queued = new long[(numNodes + 63) >>> 6];
+        /**
+         * Bitset indicating the nodes which have received some mass.
+         */
+        private final long[] reached = new long[(numNodes + 63) >>> 6];
+        /**
+         * Nodes which have received some mass.
+         */
+        private final int[] touched = new int[numNodes];
+        /**
+         * Number of nodes which have received some mass.
+         */
+        private int numTouched;
+        /**
+         * Position of the first element in the queue.
+         */
+        private int head;
+        /**
+         * Number of elements in the queue.
+         */
+        private int size;
+
+        /**
+         * Runs the forward push algorithm.
+         *
+         * @param source the source node.
+         *
+         * @return the probability mass lost on sinks.
+         */
+        private double run(int source)
+        {
+            double lost = 0.0;
+            this.add(source, 1.0);
+            while (this.size > 0)
+            {
+                int uidx = this.queue[this.head];
+                this.head = (this.head + 1) % numNodes;
+                --this.size;
+                this.queued[uidx >>> 6] &= ~(1L << uidx);
+
+                double mass = this.residual[uidx];
+                this.residual[uidx] = 0.0;
+                this.estimate[uidx] += r * mass;
+                mass *= (1.0 - r);
+
+                int begin = offsets[uidx];
+                int end = offsets[uidx + 1];
+                boolean linksSource = sourceWeight != 1.0 && Arrays.binarySearch(neighbors, begin, end, source) >= 0;
+                double total = (end - begin) + (linksSource ? sourceWeight - 1.0 : 0.0);
+                if (total <= 0.0)
+                {
+                    if (restartOnSinks)
+                    {
+                        this.add(source, mass);
+                    }
+                    else
+                    {
+                        lost += mass;
+                    }
+                }
+                else
+                {
+                    double unit = mass / total;
+                    for (int j = begin; j < end; ++j)
+                    {
+                        int vidx = neighbors[j];
+                        if (vidx != source || sourceWeight == 1.0)
+                        {
+                            this.add(vidx, unit);
+                        }
+                        else if (sourceWeight > 0.0)
+                        {
+                            this.add(vidx, unit * sourceWeight);
+                        }
+                    }
+                }
+            }
+            return lost;
+        }
+
+        /**
+         * Adds mass to the residual of a node, and enqueues the node if its residual exceeds the threshold.
+         *
+         * @param vidx the node.
+         * @param mass the mass.
+         */
+        private void add(int vidx, double mass)
+        {
+            long bit = 1L << vidx;
+            int word = vidx >>> 6;
+            if ((this.reached[word] & bit) == 0L)
+            {
+                this.reached[word] |= bit;
+                this.touched[this.numTouched++] = vidx;
+            }
+
+            this.residual[vidx] += mass;
+            if ((this.queued[word] & bit) == 0L && this.residual[vidx] >= epsilon * Math.max(1, offsets[vidx + 1] - offsets[vidx]))
+            {
+                this.queued[word] |= bit;
+                this.queue[(this.head + this.size) % numNodes] = vidx;
+                ++this.size;
+            }
+        }
+
+        /**
+         * Cleans the structures, so they can be reused.
+         */
+        private void clear()
+        {
+            for (int i = 0; i < this.numTouched; ++i)
+            {
+                int vidx = this.touched[i];
+                this.estimate[vidx] = 0.0;
+                this.residual[vidx] = 0.0;
+                this.reached[vidx >>> 6] &= ~(1L << vidx);
+            }
+            this.numTouched = 0;
+            this.head = 0;
+            this.size = 0;
+        }
+    }
+}
@@ -9,9 +9,11 @@
 package es.uam.eps.ir.relison.sna.metrics.vertex;
 
 import es.uam.eps.ir.relison.graph.Graph;
+import es.uam.eps.ir.relison.graph.edges.EdgeOrientation;
+import es.uam.eps.ir.relison.index.Index;
 import es.uam.eps.ir.relison.sna.metrics.VertexMetric;
-import it.unimi.dsi.fastutil.objects.Object2DoubleMap;
-import it.unimi.dsi.fastutil.objects.Object2DoubleOpenHashMap;
+import es.uam.eps.ir.relison.utils.matrix.CSRMatrix;
+import es.uam.eps.ir.relison.utils.matrix.PowerIteration;
 
 import java.util.HashMap;
 import java.util.Map;
@@ -32,9 +34,9 @@ public class HITS<U> implements VertexMetric<U>
 {
 
     /**
-     * Maximum number of iterations.
+     * Default maximum number of iterations.
      */
-    private final int MAXITER = 50;
+    private static final int MAXITER = 50;
     /**
      * Indicates if we want to return authorities or hubs.
      */
@@ -55,17 +57,35 @@ public class HITS<U> implements VertexMetric<U>
      * Hubs values.
      */
     private Map<U, Double> hubs;
+    /**
+     * The power iteration engine.
+     */
+    private final PowerIteration engine;
 
     /**
-     * Constructor for not personalized PageRank.
+     * Constructor. It runs a fixed number of iterations.
      *
      * @param authorities true if we want to compute the authorities, false if not.
      */
     public HITS(boolean authorities)
+    {
+        this(authorities, 0.0, MAXITER);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param authorities true if we want to compute the authorities, false if not.
+     * @param tolerance   the maximum change of a hub or authority score between two iterations for considering
+     *                    that the values have converged.
+     * @param maxIter     the maximum number of iterations.
+     */
+    public HITS(boolean authorities, double tolerance, int maxIter)
     {
         this.authorities = authorities;
         this.oldGraph = null;
         this.computed = false;
+        this.engine = new PowerIteration(tolerance, maxIter);
     }
 
     @Override
@@ -77,7 +97,7 @@ public class HITS<U> implements VertexMetric<U>
     @Override
     public Map<U, Double> compute(Graph<U> graph)
     {
-        if (graph != null && !graph.equals(oldGraph) && computed)
+        if (graph != null && graph.equals(oldGraph) && computed)
         {
             if (this.authorities)
             {
@@ -96,62 +116,19 @@ public class HITS<U> implements VertexMetric<U>
 
         computed = false;
         oldGraph = graph;
-        Object2DoubleMap<U> hubScore = new Object2DoubleOpenHashMap<>();
-        Object2DoubleMap<U> authScore = new Object2DoubleOpenHashMap<>();
 
-        /*
-         * Initialize
-         */
-        graph.getAllNodes().forEach(u ->
+        Index<U> index = graph.getAdjacencyMatrixMap();
+        double[] values = this.run(graph).getValues();
+        int n = values.length / 2;
+        Map<U, Double> hubScore = new HashMap<>();
+        Map<U, Double> authScore = new HashMap<>();
+        for (int i = 0; i < n; ++i)
         {
-            if (graph.getAdjacentNodesCount(u) > 0)
-            {
-                hubScore.put(u, 1.0);
-            }
-            else
-            {
-                hubScore.put(u, 0.0);
-            }
-
-            if (graph.getIncidentNodesCount(u) > 0)
-            {
-                authScore.put(u, 1.0);
-            }
-            else
-            {
-                authScore.put(u, 0.0);
-            }
-        });
-
-        /*
-         * Compute the metric
-         */
-        for (int i = 0; i < MAXITER; ++i)
-        {
-            // Compute the hubs scores
-            double hubsSum = graph.getAllNodes().mapToDouble(hub ->
-            {
-                double score = graph.getAdjacentNodes(hub).mapToDouble(authScore::getDouble).sum();
-                hubScore.put(hub, score);
-                return score * score;
-            }).sum();
-
-            // Normalize the hubs scores
-            graph.getAllNodes().forEach(hub -> hubScore.put(hub, hubScore.getDouble(hub) / Math.sqrt(hubsSum + 0.0)));
-
-            // Compute the authorities scores
-            double authSum = graph.getAllNodes().mapToDouble(auth ->
-            {
-                double score = graph.getIncidentNodes(auth).mapToDouble(hubScore::getDouble).sum();
-                authScore.put(auth, score);
-                return score * score;
-            }).sum();
-
-            // Normalize the authorities scores
-            graph.getAllNodes().forEach(auth -> authScore.put(auth, authScore.getDouble(auth) / Math.sqrt(authSum + 0.0)));
+            U u = index.idx2object(i);
+            hubScore.put(u, values[i]);
+            authScore.put(u, values[n + i]);
         }
 
-
         auths = authScore;
         hubs = hubScore;
         computed = true;
@@ -164,7 +141,62 @@ public class HITS<U> implements VertexMetric<U>
         {
             return hubScore;
         }
+    }
+
+    /**
+     * Runs the power iteration over the network. The resulting vector contains the hub scores of the nodes
+     * in its first half, and the authority scores in the second half. Both follow the index of
+     * {@link Graph#getAdjacencyMatrixMap()}.
+     *
+     * @param graph the network.
+     *
+     * @return the outcome of the iteration, containing the scores and the convergence information.
+     */
+    public PowerIteration.Result run(Graph<U> graph)
+    {
+        CSRMatrix out = CSRMatrix.adjacency(graph, graph.isDirected() ? EdgeOrientation.OUT : EdgeOrientation.UND, false);
+        CSRMatrix in = graph.isDirected() ? CSRMatrix.adjacency(graph, EdgeOrientation.IN, false) : out;
+        int n = out.numRows();
+
+        // Initialize: nodes with adjacent (incident) edges start with hub (authority) score equal to one.
+        double[] initial = new double[2 * n];
+        double[] outDegrees = out.rowSums();
+        double[] inDegrees = in.rowSums();
+        for (int i = 0; i < n; ++i)
+        {
+            initial[i] = outDegrees[i] > 0.0 ? 1.0 : 0.0;
+            initial[n + i] = inDegrees[i] > 0.0 ? 1.0 : 0.0;
+        }
 
+        double[] auth = new double[n];
+        double[] hub = new double[n];
+        return this.engine.run(initial, (current, next) ->
+        {
+            // Compute the hubs scores from the authorities, and then, the authorities from the new hubs.
+            System.arraycopy(current, n, auth, 0, n);
+            out.parallelMultiply(auth, hub);
+            normalize(hub);
+            in.parallelMultiply(hub, auth);
+            normalize(auth);
+            System.arraycopy(hub, 0, next, 0, n);
+            System.arraycopy(auth, 0, next, n, n);
+        });
+    }
 
+    /**
+     * Normalizes a vector, so its Euclidean norm is equal to one.
+     *
+     * @param x the vector.
+     */
+    private static void normalize(double[] x)
+    {
+        double norm = Math.sqrt(PowerIteration.sum(x.length, i -> x[i] * x[i]));
+        PowerIteration.forEachRange(x.length, (begin, end) ->
+        {
+            for (int i = begin; i < end; ++i)
+            {
+                x[i] /= norm;
+            }
+        });
     }
 }
@@ -0,0 +1,401 @@
+/*
+ *  Copyright (C) 2021 Information Retrieval Group at Universidad Autónoma
+ *  de Madrid, http://ir.ii.uam.es
+ *
+ *  This Source Code Form is subject to the terms of the Mozilla Public
+ *  License, v. 2.0. If a copy of the MPL was not distributed with this
+ *  file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package es.uam.eps.ir.relison.sna.metrics.vertex;
+
+import es.uam.eps.ir.relison.graph.Graph;
+import es.uam.eps.ir.relison.graph.edges.EdgeOrientation;
+import es.uam.eps.ir.relison.graph.fast.SortedNeighborhoods;
+import es.uam.eps.ir.relison.graph.multigraph.MultiGraph;
+import es.uam.eps.ir.relison.index.Index;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Computes the k-core decomposition of a network, that is, the coreness (or core number) of every node, along with a
+ * degeneracy ordering of the nodes. The degree of the nodes is the one given by {@link Graph#degree(Object, EdgeOrientation)}
+ * for the chosen orientation. When a node is removed, each neighbour which still has a greater degree loses as many
+ * units of degree as edges it shared with the removed node, without falling below the current core value.
+ *
+ * <p>
+ * Two algorithms are available. The sequential one is the bucket-based algorithm by Batagelj and Zaversnik, which runs
+ * in O(n+m) time over integer identifiers. The parallel one peels the network level by level: all the nodes whose degree
+ * does not exceed the current level are removed at once, and the degrees of their neighbours are decreased in parallel
+ * with atomic operations. Both return the same core values, and both orderings are degeneracy orderings: every node has,
+ * at most, as many neighbours after it in the ordering as its core value.
+ * </p>
+ *
+ * <p>
+ * <b>References:</b>
+ * </p>
+ * <ol>
+ *     <li>V. Batagelj, M. Zaversnik. An O(m) Algorithm for Cores Decomposition of networks. arXiv (2003)</li>
+ *     <li>H. Kabir, K. Madduri. Parallel k-core decomposition on multicore platforms. IPDPSW 2017, pp. 1482-1491 (2017)</li>
+ * </ol>
+ *
+ * @param <U> type of the users.
+ *
+ * @author Javier Sanz-Cruzado (javier.sanz-cruzado@uam.es)
+ * @author Pablo Castells (pablo.castells@uam.es)
+ */
+public class KCoreDecomposition<U>
+{
+    /**
+     * The orientation to choose for the edges.
+     */
+    private final EdgeOrientation orient;
+    /**
+     * Whether the nodes are peeled in parallel.
+     */
+    private final boolean parallel;
+
+    /**
+     * Constructor.
+     *
+     * @param orient   the orientation to choose for the edges.
+     * @param parallel whether the nodes are peeled in parallel (true) or by the sequential bucket algorithm (false).
+     */
+    public KCoreDecomposition(EdgeOrientation orient, boolean parallel)
+    {
+        this.orient = orient;
+        this.parallel = parallel;
+    }
+
+    /**
+     * Computes the k-core decomposition of the network.
+     *
+     * @param graph the network.
+     *
+     * @return the decomposition. Nodes are identified by their position in {@link Graph#getAdjacencyMatrixMap()}.
+     */
+    public Result<U> decompose(Graph<U> graph)
+    {
+        Index<U> index = graph.getAdjacencyMatrixMap();
+        int numNodes = index.numObjects();
+
+        int[] degrees = new int[numNodes];
+        int[][] neighs = new int[numNodes][];
+        int[][] mults = new int[numNodes][];
+        IntStream.range(0, numNodes).parallel().forEach(uidx ->
+        {
+            degrees[uidx] = graph.degree(index.idx2object(uidx), orient);
+            this.adjacency(graph, index, uidx, neighs, mults);
+        });
+
+        int[] core = new int[numNodes];
+        int[] order = parallel ? peel(degrees, neighs, mults, core) : buckets(degrees, neighs, mults, core);
+        return new Result<>(index, core, order);
+    }
+
+    /**
+     * Finds the nodes whose degree decreases when a node is removed, and the number of edges each of them shares with
+     * the removed node.
+     *
+     * @param graph the network.
+     * @param index the index of the nodes.
+     * @param uidx  the identifier of the node.
+     * @param neighs where to store the neighbours of each node.
+     * @param mults  where to store the number of edges shared with each neighbour.
+     */
+    private void adjacency(Graph<U> graph, Index<U> index, int uidx, int[][] neighs, int[][] mults)
+    {
+        // The degree of v counts the edges between u and v which are in the inverse selection from u.
+        EdgeOrientation inv = orient.invertSelection();
+        if (!graph.isDirected())
+        {
+            inv = EdgeOrientation.UND;
+        }
+
+        if (graph.isMultigraph())
+        {
+            int[] ns = SortedNeighborhoods.of(graph, index, uidx, inv, false);
+            int[] ms = new int[ns.length];
+            MultiGraph<U> multiGraph = (MultiGraph<U>) graph;
+            U u = index.idx2object(uidx);
+            for (int k = 0; k < ns.length; ++k)
+            {
+                U v = index.idx2object(ns[k]);
+                if (graph.isDirected())
+                {
+                    ms[k] = switch (inv)
+                    {
+                        case IN -> multiGraph.getNumEdges(v, u);
+                        case OUT -> multiGraph.getNumEdges(u, v);
+                        default -> multiGraph.getNumEdges(u, v) + multiGraph.getNumEdges(v, u);
+                    };
+                }
+                else
+                {
+                    ms[k] = multiGraph.getNumEdges(v, u);
+                }
+            }
+            neighs[uidx] = ns;
+            mults[uidx] = ms;
+        }
+        else if (inv == EdgeOrientation.UND && graph.isDirected())
+        {
+            // Reciprocal edges count twice.
+            int[] out = SortedNeighborhoods.of(graph, index, uidx, EdgeOrientation.OUT, false);
+            int[] in = SortedNeighborhoods.of(graph, index, uidx, EdgeOrientation.IN, false);
+            IntArrayList ids = new IntArrayList(out.length + in.length);
+            IntArrayList counts = new IntArrayList(out.length + in.length);
+            int i = 0;
+            int j = 0;
+            while (i < out.length || j < in.length)
+            {
+                int next = j >= in.length || (i < out.length && out[i] <= in[j]) ? out[i] : in[j];
+                int count = 0;
+                if (i < out.length && out[i] == next)
+                {
+                    ++count;
+                    ++i;
+                }
+                if (j < in.length && in[j] == next)
+                {
+                    ++count;
+                    ++j;
+                }
+                ids.add(next);
+                counts.add(count);
+            }
+            neighs[uidx] = ids.toIntArray();
+            mults[uidx] = counts.toIntArray();
+        }
+        else
+        {
+            int[] ns = SortedNeighborhoods.of(graph, index, uidx, inv, false);
+            int[] ms = new int[ns.length];
+            Arrays.fill(ms, 1);
+            neighs[uidx] = ns;
+            mults[uidx] = ms;
+        }
+    }
+
+    /**
+     * Sequential bucket-based decomposition (Batagelj and Zaversnik).
+     *
+     * @param degrees the degrees of the nodes (modified by the algorithm).
+     * @param neighs  the neighbours of each node.
+     * @param mults   the number of edges shared with each neighbour.
+     * @param core    where to store the core values.
+     *
+     * @return the degeneracy ordering.
+     */
+    private static int[] buckets(int[] degrees, int[][] neighs, int[][] mults, int[] core)
+    {
+        int numNodes = degrees.length;
+        int maxDegree = 0;
+        for (int degree : degrees)
+        {
+            maxDegree = Math.max(maxDegree, degree);
+        }
+
+        // Nodes sorted by degree, the position of each node, and the start of each bucket.
+        int[] start = new int[maxDegree + 2];
+        for (int degree : degrees)
+        {
+            ++start[degree + 1];
+        }
+        for (int d = 1; d <= maxDegree + 1; ++d)
+        {
+            start[d] += start[d - 1];
+        }
+        int[] vert = new int[numNodes];
+        int[] pos = new int[numNodes];
+        int[] next = Arrays.copyOf(start, maxDegree + 1);
+        for (int uidx = 0; uidx < numNodes; ++uidx)
+        {
+            pos[uidx] = next[degrees[uidx]]++;
+            vert[pos[uidx]] = uidx;
+        }
+
+        for (int i = 0; i < numNodes; ++i)
+        {
+            int uidx = vert[i];
+            int du = degrees[uidx];
+            core[uidx] = du;
+            int[] ns = neighs[uidx];
+            int[] ms = mults[uidx];
+            for (int k = 0; k < ns.length; ++k)
+            {
+                int vidx = ns[k];
+                int dv = degrees[vidx];
+                int target = Math.max(du, dv - ms[k]);
+                // Moves the node to the previous bucket, once per unit of degree.
+                while (dv > target)
+                {
+                    int pw = start[dv];
+                    int widx = vert[pw];
+                    if (widx != vidx)
+                    {
+                        int pv = pos[vidx];
+                        vert[pv] = widx;
+                        pos[widx] = pv;
+                        vert[pw] = vidx;
+                        pos[vidx] = pw;
+                    }
+                    ++start[dv];
+                    --dv;
+                }
+                degrees[vidx] = dv;
+            }
+        }
+        return vert;
+    }
+
+    /**
+     * Parallel level-by-level peeling.
+     *
+     * @param degrees the degrees of the nodes.
+     * @param neighs  the neighbours of each node.
+     * @param mults   the number of edges shared with each neighbour.
+     * @param core    where to store the core values.
+     *
+     * @return the degeneracy ordering.
+     */
+    private static int[] peel(int[] degrees, int[][] neighs, int[][] mults, int[] core)
+    {
+        int numNodes = degrees.length;
+        AtomicIntegerArray current = new AtomicIntegerArray(degrees);
+        Arrays.fill(core, -1);
+        int[] order = new int[numNodes];
+        int removed = 0;
+
+        while (removed < numNodes)
+        {
+            // The next level is the minimum degree among the remaining nodes.
+            int level = IntStream.range(0, numNodes).parallel().filter(uidx -> core[uidx] < 0).map(current::get).min().orElse(0);
+            int[] frontier = IntStream.range(0, numNodes).parallel().filter(uidx -> core[uidx] < 0 && current.get(uidx) <= level).toArray();
+            while (frontier.length > 0)
+            {
+                for (int uidx : frontier)
+                {
+                    core[uidx] = level;
+                }
+                System.arraycopy(frontier, 0, order, removed, frontier.length);
+                removed += frontier.length;
+
+                // Nodes reaching the level are removed in the next round.
+                frontier = Arrays.stream(frontier).parallel().flatMap(uidx ->
+                {
+                    IntArrayList reached = new IntArrayList();
+                    int[] ns = neighs[uidx];
+                    int[] ms = mults[uidx];
+                    for (int k = 0; k < ns.length; ++k)
+                    {
+                        int vidx = ns[k];
+                        if (core[vidx] < 0)
+                        {
+                            int dv;
+                            int target;
+                            do
+                            {
+                                dv = current.get(vidx);
+                                target = Math.max(level, dv - ms[k]);
+                            }
+                            while (dv > level && !current.compareAndSet(vidx, dv, target));
+
+                            if (dv > level && target == level)
+                            {
+                                reached.add(vidx);
+                            }
+                        }
+                    }
+                    return IntStream.of(reached.toIntArray());
+                }).toArray();
+            }
+        }
+        return order;
+    }
+
+    /**
+     * The k-core decomposition of a network.
+     *
+     * @param <U> type of the users.
+     */
+    public static class Result<U>
+    {
+        /**
+         * Index of the nodes.
+         */
+        private final Index<U> index;
+        /**
+         * Coreness of each node.
+         */
+        private final int[] core;
+        /**
+         * Degeneracy ordering of the nodes.
+         */
+        private final int[] order;
+        /**
+         * Maximum coreness.
+         */
+        private final int degeneracy;
+
+        /**
+         * Constructor.
+         *
+         * @param index index of the nodes.
+         * @param core  coreness of each node.
+         * @param order degeneracy ordering of the nodes.
+         */
+        Result(Index<U> index, int[] core, int[] order)
+        {
+            this.index = index;
+            this.core = core;
+            this.order = order;
+            this.degeneracy = Arrays.stream(core).max().orElse(0);
+        }
+
+        /**
+         * Obtains the coreness of a node.
+         *
+         * @param node the node.
+         *
+         * @return the coreness of the node.
+         */
+        public int getCoreness(U node)
+        {
+            return this.core[index.object2idx(node)];
+        }
+
+        /**
+         * Obtains the degeneracy of the network, that is, the maximum coreness of its nodes.
+         *
+         * @return the degeneracy.
+         */
+        public int getDegeneracy()
+        {
+            return this.degeneracy;
+        }
+
+        /**
+         * Obtains the degeneracy ordering of the nodes, in removal order.
+         *
+         * @return the identifiers of the nodes in {@link Graph#getAdjacencyMatrixMap()}, in removal order.
+         */
+        public int[] getOrdering()
+        {
+            return Arrays.copyOf(this.order, this.order.length);
+        }
+
+        /**
+         * Obtains the nodes, in removal order.
+         *
+         * @return a stream containing the nodes, in removal order.
+         */
+        public Stream<U> getOrderedNodes()
+        {
+            return Arrays.stream(this.order).mapToObj(index::idx2object);
+        }
+    }
+}
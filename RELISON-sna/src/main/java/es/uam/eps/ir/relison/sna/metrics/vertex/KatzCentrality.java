@@ -17,7 +17,9 @@ import cern.colt.matrix.linalg.Algebra;
 import cern.colt.matrix.linalg.LUDecompositionQuick;
 import es.uam.eps.ir.relison.graph.Graph;
 import es.uam.eps.ir.relison.graph.edges.EdgeOrientation;
+import es.uam.eps.ir.relison.utils.matrix.CSRMatrix;
 import es.uam.eps.ir.relison.utils.matrix.MatrixLibrary;
+import es.uam.eps.ir.relison.utils.matrix.PowerIteration;
 import no.uib.cipr.matrix.*;
 import org.jblas.DoubleMatrix;
 import org.jblas.Solve;
@@ -142,4 +144,32 @@ public class KatzCentrality<U> extends MatrixBasedVertexMetric<U>
         ones = alg.mult(eye, ones);
         return ones.toArray();
     }
-}
\ No newline at end of file
+
+    @Override
+    protected double[] getSparseScores(Graph<U> graph)
+    {
+        // The scores are the sum over k >= 1 of alpha^k A^k 1, found as the fixed point of x = alpha A (1 + x).
+        CSRMatrix adj = CSRMatrix.adjacency(graph, orient, true);
+        int n = adj.numRows();
+        double[] aux = new double[n];
+        PowerIteration engine = new PowerIteration(SPARSE_TOLERANCE, SPARSE_MAX_ITER);
+        return engine.run(new double[n], (x, y) ->
+        {
+            PowerIteration.forEachRange(n, (begin, end) ->
+            {
+                for (int i = begin; i < end; ++i)
+                {
+                    aux[i] = 1.0 + x[i];
+                }
+            });
+            adj.parallelMultiply(aux, y);
+            PowerIteration.forEachRange(n, (begin, end) ->
+            {
+                for (int i = begin; i < end; ++i)
+                {
+                    y[i] *= alpha;
+                }
+            });
+        }).getValues();
+    }
+}
@@ -10,14 +10,26 @@ package es.uam.eps.ir.relison.sna.metrics.vertex;
 
 import es.uam.eps.ir.relison.graph.Graph;
 import es.uam.eps.ir.relison.graph.edges.EdgeOrientation;
+import es.uam.eps.ir.relison.graph.fast.FastGraph;
 import es.uam.eps.ir.relison.sna.metrics.VertexMetric;
+import es.uam.eps.ir.relison.sna.metrics.graph.TriangleCounter;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.ints.IntList;
+import it.unimi.dsi.fastutil.ints.IntOpenHashSet;
+import it.unimi.dsi.fastutil.ints.IntSet;
 
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Map;
+import java.util.OptionalDouble;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
 
 /**
- * Computes the local clustering coefficient of a node.
+ * Computes the local clustering coefficient of a node. When the coefficients of all the nodes are computed at once,
+ * the triangles are counted by a {@link TriangleCounter} (unless the graph is a multigraph, or it contains
+ * self-loops).
  *
  * <p>
  * <b>Reference:</b> D.J. Watts, S.H. Strogatz. Collective dynamics of 'small-world' networks. Nature 393(6684), pp. 440-442 (1998)
@@ -62,6 +74,11 @@ public class LocalClusteringCoefficient<U> implements VertexMetric<U>
     @Override
     public double compute(Graph<U> graph, U user)
     {
+        if (graph instanceof FastGraph && !graph.isMultigraph())
+        {
+            return this.compute((FastGraph<U>) graph, ((FastGraph<U>) graph).object2idx(user));
+        }
+
         Set<U> vSelSet = graph.getNeighbourhood(user, this.vSel).collect(Collectors.toCollection(HashSet::new));
         Set<U> wSelSet = graph.getNeighbourhood(user, this.wSel).collect(Collectors.toCollection(HashSet::new));
 
@@ -85,4 +102,93 @@ public class LocalClusteringCoefficient<U> implements VertexMetric<U>
 
         return (counter + 0.0) / (graph.getNeighbourhoodSize(user, vSel) * graph.getNeighbourhoodSize(user, wSel) - intersize + 0.0);
     }
+
+    @Override
+    public Map<U, Double> compute(Graph<U> graph)
+    {
+        if (!this.isCountable(graph))
+        {
+            return VertexMetric.super.compute(graph);
+        }
+
+        TriangleCounter.Result<U> result = new TriangleCounter<U>(vSel, wSel).count(graph);
+        Map<U, Double> res = new HashMap<>();
+        graph.getAllNodes().forEach(u -> res.put(u, result.getLocalClustering(u)));
+        return res;
+    }
+
+    @Override
+    public double averageValue(Graph<U> graph)
+    {
+        if (!this.isCountable(graph))
+        {
+            return VertexMetric.super.averageValue(graph);
+        }
+
+        TriangleCounter.Result<U> result = new TriangleCounter<U>(vSel, wSel).count(graph);
+        OptionalDouble optional = graph.getAllNodes().mapToDouble(result::getLocalClustering).average();
+        return optional.isPresent() ? optional.getAsDouble() : 0.0;
+    }
+
+    /**
+     * Checks whether the coefficients of a graph can be obtained from the triangle counts, i.e. whether
+     * the graph contains neither multiple edges between the same pair of nodes nor self-loops.
+     *
+     * @param graph the graph.
+     *
+     * @return true if the triangle counts can be used, false otherwise.
+     */
+    private boolean isCountable(Graph<U> graph)
+    {
+        return !graph.isMultigraph() && graph.getAllNodes().noneMatch(u -> graph.containsEdge(u, u));
+    }
+
+    /**
+     * Computes the local clustering coefficient of a node in a fast graph, without boxing the node identifiers.
+     * Instead of checking every pair of neighbours, it traverses the outgoing neighbourhood of the nodes
+     * in the first neighbourhood of the target user, looking for the nodes in the second one.
+     *
+     * @param graph the graph.
+     * @param uidx  the identifier of the target user.
+     *
+     * @return the value of the metric.
+     */
+    private double compute(FastGraph<U> graph, int uidx)
+    {
+        IntList vSelList = new IntArrayList();
+        graph.forEachNeighbor(uidx, this.vSel, vSelList::add);
+        IntSet wSelSet = new IntOpenHashSet();
+        graph.forEachNeighbor(uidx, this.wSel, wSelSet::add);
+
+        long vSelSize = vSelList.size();
+        long wSelSize = wSelSet.size();
+        if (vSelSize == 0 || wSelSize == 0)
+        {
+            return 0.0;
+        }
+
+        int intersize = 0;
+        AtomicLong counter = new AtomicLong();
+        for (int vidx : vSelList)
+        {
+            if (wSelSet.contains(vidx))
+            {
+                ++intersize;
+            }
+            graph.forEachNeighbor(vidx, EdgeOrientation.OUT, widx ->
+            {
+                if (wSelSet.contains(widx))
+                {
+                    counter.incrementAndGet();
+                }
+            });
+        }
+
+        if ((vSelSize * wSelSize - intersize) == 0)
+        {
+            return 0.0;
+        }
+
+        return (counter.get() + 0.0) / (vSelSize * wSelSize - intersize + 0.0);
+    }
 }
@@ -11,6 +11,7 @@ package es.uam.eps.ir.relison.sna.metrics.vertex;
 import es.uam.eps.ir.relison.graph.DirectedGraph;
 import es.uam.eps.ir.relison.graph.Graph;
 import es.uam.eps.ir.relison.graph.edges.EdgeOrientation;
+import es.uam.eps.ir.relison.graph.fast.FastGraph;
 import es.uam.eps.ir.relison.sna.metrics.VertexMetric;
 
 /**
@@ -45,6 +46,29 @@ public class LocalReciprocityRate<U> implements VertexMetric<U>
         {
             return 1.0;
         }
+        else if (graph instanceof FastGraph && !graph.isMultigraph())
+        {
+            // Every reciprocal neighbour is both an incident and an adjacent neighbour.
+            FastGraph<U> fastGraph = (FastGraph<U>) graph;
+            int uidx = fastGraph.object2idx(user);
+            double mutual = fastGraph.getNeighborhoodSize(uidx, EdgeOrientation.MUTUAL);
+            double num = 0.0;
+            double denom = 0.0;
+
+            if (orient.equals(EdgeOrientation.IN) || orient.equals(EdgeOrientation.UND))
+            {
+                denom += fastGraph.getNeighborhoodSize(uidx, EdgeOrientation.IN);
+                num += mutual;
+            }
+
+            if (orient.equals(EdgeOrientation.OUT) || orient.equals(EdgeOrientation.UND))
+            {
+                denom += fastGraph.getNeighborhoodSize(uidx, EdgeOrientation.OUT);
+                num += mutual;
+            }
+
+            return num / denom;
+        }
         else
         {
             DirectedGraph<U> dgraph = (DirectedGraph<U>) graph;
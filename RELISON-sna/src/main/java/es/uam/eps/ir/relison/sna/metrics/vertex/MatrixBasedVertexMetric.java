@@ -11,7 +11,6 @@ package es.uam.eps.ir.relison.sna.metrics.vertex;
 import es.uam.eps.ir.relison.graph.Graph;
 import es.uam.eps.ir.relison.index.Index;
 import es.uam.eps.ir.relison.sna.metrics.VertexMetric;
-import es.uam.eps.ir.relison.utils.matrix.MatrixChecker;
 import es.uam.eps.ir.relison.utils.matrix.MatrixLibrary;
 
 import java.util.HashMap;
@@ -29,6 +28,15 @@ import java.util.stream.Stream;
  */
 public abstract class MatrixBasedVertexMetric<U> implements VertexMetric<U>
 {
+    /**
+     * Maximum change of a single value between two iterations for the sparse library.
+     */
+    protected static final double SPARSE_TOLERANCE = 1E-10;
+    /**
+     * Maximum number of iterations for the sparse library.
+     */
+    protected static final int SPARSE_MAX_ITER = 1000;
+
     /**
      * The matrix library to use.
      */
@@ -45,15 +53,11 @@ public abstract class MatrixBasedVertexMetric<U> implements VertexMetric<U>
     }
 
     /**
-     * Default constructor. If possible, uses the JBLAS library. Otherwise,
-     * it takes the COLT library.
-     *
+     * Default constructor. It uses the sparse library, which never builds dense matrices.
      */
     public MatrixBasedVertexMetric()
     {
-        MatrixChecker.init();
-        if (MatrixChecker.fast) this.library = MatrixLibrary.JBLAS;
-        else this.library = MatrixLibrary.COLT;
+        this.library = MatrixLibrary.SPARSE;
     }
 
     @Override
@@ -98,9 +102,21 @@ public abstract class MatrixBasedVertexMetric<U> implements VertexMetric<U>
             case JBLAS -> getJBLASScores(graph);
             case MTJ -> getMTJScores(graph);
             case COLT -> getCOLTScores(graph);
+            case SPARSE -> getSparseScores(graph);
         };
     }
 
+    /**
+     * Obtains the values of the metric for the different users without building dense matrices. By default,
+     * metrics without a sparse implementation use the COLT library.
+     * @param graph the network.
+     * @return an array containing the value of the metric for each user.
+     */
+    protected double[] getSparseScores(Graph<U> graph)
+    {
+        return getCOLTScores(graph);
+    }
+
     /**
      * Obtains the values of the metric for the different users using the JBLAS library.
      * @param graph the network.
@@ -9,14 +9,16 @@
 package es.uam.eps.ir.relison.sna.metrics.vertex;
 
 import es.uam.eps.ir.relison.graph.Graph;
+import es.uam.eps.ir.relison.graph.edges.EdgeOrientation;
+import es.uam.eps.ir.relison.index.Index;
 import es.uam.eps.ir.relison.sna.metrics.VertexMetric;
+import es.uam.eps.ir.relison.utils.matrix.CSRMatrix;
+import es.uam.eps.ir.relison.utils.matrix.PowerIteration;
 
+import java.util.Arrays;
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.Map;
-import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 /**
@@ -34,13 +36,13 @@ import java.util.stream.Stream;
 public class PageRank<U> implements VertexMetric<U>
 {
     /**
-     * Maximum number of iterations
+     * Default maximum number of iterations
      */
-    private final int MAXITER = 50;
+    private static final int MAXITER = 50;
     /**
-     * Threshold
+     * Default threshold
      */
-    private final double THRESHOLD = 0.00001;
+    private static final double THRESHOLD = 0.00001;
     /**
      * Teleport parameter.
      */
@@ -49,6 +51,10 @@ public class PageRank<U> implements VertexMetric<U>
      * Original node (if PageRank is personalized).
      */
     private final U u;
+    /**
+     * The power iteration engine.
+     */
+    private final PowerIteration engine;
 
     /**
      * Constructor (for not personalized PageRank).
@@ -57,8 +63,7 @@ public class PageRank<U> implements VertexMetric<U>
      */
     public PageRank(double r)
     {
-        this.r = r;
-        this.u = null;
+        this(r, null);
     }
 
     /**
@@ -68,9 +73,24 @@ public class PageRank<U> implements VertexMetric<U>
      * @param u the original user.
      */
     public PageRank(double r, U u)
+    {
+        this(r, u, THRESHOLD, MAXITER);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param r         the teleport parameter.
+     * @param u         the original user (null for not personalized PageRank).
+     * @param tolerance the maximum change of the PageRank of a node between two iterations for considering that
+     *                  the values have converged.
+     * @param maxIter   the maximum number of iterations.
+     */
+    public PageRank(double r, U u, double tolerance, int maxIter)
     {
         this.r = r;
         this.u = u;
+        this.engine = new PowerIteration(tolerance, maxIter);
     }
 
     @Override
@@ -82,110 +102,69 @@ public class PageRank<U> implements VertexMetric<U>
     @Override
     public Map<U, Double> compute(Graph<U> graph)
     {
-        Set<U> users = new HashSet<>();
-        Map<U, Integer> ids = new HashMap<>();
-        graph.getAllNodes().forEach(node ->
-        {
-            users.add(node);
-            ids.put(node, ids.size());
-        });
-
-        int N = users.size();
-
-        // data
-        Map<Integer, Map<U, Double>> in = new HashMap<>();
-        Double[] out = new Double[N];
-        Double[] pr = new Double[N];
-        Double[] prAux = new Double[N];
+        Index<U> index = graph.getAdjacencyMatrixMap();
+        double[] pr = this.run(graph).getValues();
 
-        // ini
-        for (U v : users)
+        Map<U, Double> pagerank = new HashMap<>();
+        for (int i = 0; i < pr.length; ++i)
         {
-            int index = ids.get(v);
-            Map<U, Double> inWeights = new HashMap<>();
-            double outSum = 0.0;
-
-            Set<U> inUsers = graph.getIncidentNodes(v).collect(Collectors.toCollection(HashSet::new));
-            if (!inUsers.isEmpty())
-            {
-                for (U w : inUsers)
-                {
-                    inWeights.put(w, 1.0);
-                }
-            }
-            Set<U> outUsers = graph.getAdjacentNodes(v).collect(Collectors.toCollection(HashSet::new));
-            if (!outUsers.isEmpty())
-            {
-                outSum = outUsers.size() * 1.0;
-            }
-
-            in.put(index, inWeights);
-            out[index] = outSum;
+            pagerank.put(index.idx2object(i), pr[i]);
+        }
+        return pagerank;
+    }
 
-            pr[index] = 1.0 / (N + 0.0);
+    /**
+     * Runs the power iteration over the network. The values follow the index of
+     * {@link Graph#getAdjacencyMatrixMap()}.
+     *
+     * @param graph the network.
+     *
+     * @return the outcome of the iteration, containing the PageRank values and the convergence information.
+     */
+    public PowerIteration.Result run(Graph<U> graph)
+    {
+        // Incoming neighbors of each node (the PageRank values are pulled from them).
+        CSRMatrix in = CSRMatrix.adjacency(graph, graph.isDirected() ? EdgeOrientation.IN : EdgeOrientation.UND, false);
+        int n = in.numRows();
+        Index<U> index = graph.getAdjacencyMatrixMap();
+        int source = (this.u == null || !index.containsObject(this.u)) ? -1 : index.object2idx(this.u);
+
+        // Inverse of the out-degree of each node (zero for sinks).
+        double[] invOut = graph.isDirected() ? CSRMatrix.adjacency(graph, EdgeOrientation.OUT, false).rowSums() : in.rowSums();
+        for (int i = 0; i < n; ++i)
+        {
+            invOut[i] = invOut[i] > 0.0 ? 1.0 / invOut[i] : 0.0;
         }
 
-        // iterations
-        boolean hasConverged = false;
-        for (int i = 0; i < MAXITER && !hasConverged; i++)
+        double[] initial = new double[n];
+        Arrays.fill(initial, 1.0 / n);
+        double[] aux = new double[n];
+        return this.engine.run(initial, (pr, next) ->
         {
-            if (this.u == null || !ids.containsKey(this.u))
+            PowerIteration.forEachRange(n, (begin, end) ->
             {
-                for (int w = 0; w < N; w++)
+                for (int i = begin; i < end; ++i)
                 {
-                    prAux[w] = r / (N + 0.0);
+                    aux[i] = (1.0 - r) * pr[i] * invOut[i];
                 }
-                // perso
-            }
-            else
-            {
-                for (int w = 0; w < N; w++)
-                {
-                    prAux[w] = 0.0;
-                }
-                int index = ids.get(u);
-                prAux[index] = r;
-            }
+            });
+            in.parallelMultiply(aux, next);
 
-            // calculate
-            for (int u : in.keySet())
+            // Teleport and handle sinks: the mass lost in sinks is uniformly distributed.
+            double sum = PowerIteration.sum(n, i -> next[i]) + r;
+            double teleport = (source < 0 ? r : 0.0) / n + (1.0 - sum) / n;
+            PowerIteration.forEachRange(n, (begin, end) ->
             {
-                for (U vId : in.get(u).keySet())
+                for (int i = begin; i < end; ++i)
                 {
-                    int v = ids.get(vId);
-                    prAux[u] += (1 - r) * pr[v] * in.get(u).get(vId) / out[v];
+                    next[i] += teleport;
                 }
-            }
-
-            // make sum
-            double sum = 0.0;
-            for (int x = 0; x < N; x++)
-            {
-                sum += prAux[x];
-            }
-
-            // handle sinks
-            for (int y = 0; y < N; y++)
+            });
+            if (source >= 0)
             {
-                prAux[y] += ((1.0 - sum) / (N + 0.0));
+                next[source] += r;
             }
-
-            // check convergency
-            hasConverged = true;
-            for (int z = 0; z < N; z++)
-            {
-                hasConverged = hasConverged && (Math.abs(prAux[z] - pr[z]) < THRESHOLD);
-                pr[z] = prAux[z];
-            }
-        }
-
-        Map<U, Double> pagerank = new HashMap<>();
-        for (U u : users)
-        {
-            pagerank.put(u, pr[ids.get(u)]);
-        }
-
-        return pagerank;
+        });
     }
 
     @Override
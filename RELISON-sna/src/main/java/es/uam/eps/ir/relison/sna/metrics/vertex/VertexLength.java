@@ -8,9 +8,11 @@
  */
 package es.uam.eps.ir.relison.sna.metrics.vertex;
 
+import com.google.common.util.concurrent.AtomicDouble;
 import es.uam.eps.ir.relison.graph.Graph;
 import es.uam.eps.ir.relison.graph.Weight;
 import es.uam.eps.ir.relison.graph.edges.EdgeOrientation;
+import es.uam.eps.ir.relison.graph.fast.FastGraph;
 import es.uam.eps.ir.relison.sna.metrics.VertexMetric;
 
 /**
@@ -39,6 +41,20 @@ public class VertexLength<U> implements VertexMetric<U>
     @Override
     public double compute(Graph<U> graph, U user)
     {
+        if (graph instanceof FastGraph && !graph.isMultigraph())
+        {
+            FastGraph<U> fastGraph = (FastGraph<U>) graph;
+            int uidx = fastGraph.object2idx(user);
+            if (!graph.isWeighted())
+            {
+                return fastGraph.getNeighborhoodSize(uidx, uSel);
+            }
+
+            AtomicDouble length = new AtomicDouble();
+            fastGraph.forEachWeightedNeighbor(uidx, uSel, (vidx, weight) -> length.addAndGet(weight));
+            return length.get();
+        }
+
         return graph.isWeighted() ? graph.getNeighbourhoodWeights(user, uSel).mapToDouble(Weight::getValue).sum() :
                 graph.getNeighbourhoodSize(user, uSel);
     }
@@ -0,0 +1,132 @@
+/*
+ *  Copyright (C) 2021 Information Retrieval Group at Universidad Autónoma
+ *  de Madrid, http://ir.ii.uam.es
+ *
+ *  This Source Code Form is subject to the terms of the Mozilla Public
+ *  License, v. 2.0. If a copy of the MPL was not distributed with this
+ *  file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package es.uam.eps.ir.relison.community;
+
+import es.uam.eps.ir.relison.graph.fast.FastDirectedUnweightedGraph;
+import es.uam.eps.ir.relison.graph.fast.FastGraph;
+import es.uam.eps.ir.relison.graph.fast.FastUndirectedUnweightedGraph;
+import es.uam.eps.ir.relison.sna.community.Communities;
+import es.uam.eps.ir.relison.sna.community.Dendogram;
+import es.uam.eps.ir.relison.sna.community.detection.modularity.GirvanNewman;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Automated unit tests for the Girvan-Newman community detection algorithm.
+ *
+ * @author Javier Sanz-Cruzado (javier.sanz-cruzado@uam.es)
+ * @author Pablo Castells (pablo.castells@uam.es)
+ */
+public class GirvanNewmanTest
+{
+    /**
+     * Number of planted communities.
+     */
+    private static final int NUM_COMMS = 4;
+    /**
+     * Size of the planted communities.
+     */
+    private static final int SIZE = 10;
+
+    /**
+     * Builds a network with dense planted communities, connected by a few edges.
+     *
+     * @param graph an empty graph.
+     * @param seed  the seed of the random number generator.
+     *
+     * @return the graph.
+     */
+    private static FastGraph<Integer> planted(FastGraph<Integer> graph, long seed)
+    {
+        Random rnd = new Random(seed);
+        int n = NUM_COMMS * SIZE;
+        for (int i = 0; i < n; ++i)
+        {
+            graph.addNode(i);
+        }
+        for (int u = 0; u < n; ++u)
+        {
+            for (int v = 0; v < n; ++v)
+            {
+                boolean same = u / SIZE == v / SIZE;
+                if (u != v && rnd.nextDouble() < (same ? 0.7 : 0.01))
+                {
+                    graph.addEdge(u, v);
+                }
+            }
+        }
+        // Connect the communities in a ring, so that the network is connected.
+        for (int c = 0; c < NUM_COMMS; ++c)
+        {
+            graph.addEdge(c * SIZE, ((c + 1) % NUM_COMMS) * SIZE + 1);
+        }
+        return graph;
+    }
+
+    /**
+     * Obtains the algorithms to test.
+     *
+     * @return the algorithms.
+     */
+    private static List<GirvanNewman<Integer>> algorithms()
+    {
+        return Arrays.asList(new GirvanNewman<>(), new GirvanNewman<>(3, 0, 0), new GirvanNewman<>(1, SIZE, 0));
+    }
+
+    /**
+     * Checks that the planted communities are found in the dendogram.
+     */
+    @Test
+    public void planted()
+    {
+        for (FastGraph<Integer> graph : Arrays.asList(planted(new FastUndirectedUnweightedGraph<>(), 0), planted(new FastDirectedUnweightedGraph<>(), 1)))
+        {
+            for (GirvanNewman<Integer> algorithm : algorithms())
+            {
+                Communities<Integer> comms = algorithm.detectCommunityDendogram(graph).getCommunitiesByNumber(NUM_COMMS);
+                assertEquals(NUM_COMMS, comms.getNumCommunities());
+                for (int u = 0; u < NUM_COMMS * SIZE; ++u)
+                {
+                    assertEquals(comms.getCommunity(u - u % SIZE), comms.getCommunity(u));
+                }
+            }
+        }
+    }
+
+    /**
+     * Checks that the dendogram provides partitions with every number of communities, including a network with
+     * several connected components.
+     */
+    @Test
+    public void dendogram()
+    {
+        FastGraph<Integer> graph = planted(new FastUndirectedUnweightedGraph<>(), 2);
+        int n = NUM_COMMS * SIZE;
+        graph.addNode(n);
+        graph.addNode(n + 1);
+        graph.addNode(n + 2);
+        graph.addEdge(n + 1, n + 2);
+
+        for (GirvanNewman<Integer> algorithm : algorithms())
+        {
+            Dendogram<Integer> dendogram = algorithm.detectCommunityDendogram(graph);
+            for (int k = 1; k <= n + 3; ++k)
+            {
+                Communities<Integer> comms = dendogram.getCommunitiesByNumber(k);
+                assertEquals(k, comms.getNumCommunities());
+                assertEquals(n + 3, comms.getCommunities().mapToLong(comms::getCommunitySize).sum());
+            }
+        }
+    }
+}
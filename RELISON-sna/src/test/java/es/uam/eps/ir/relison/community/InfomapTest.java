@@ -0,0 +1,127 @@
+/*
+ *  Copyright (C) 2021 Information Retrieval Group at Universidad Autónoma
+ *  de Madrid, http://ir.ii.uam.es
+ *
+ *  This Source Code Form is subject to the terms of the Mozilla Public
+ *  License, v. 2.0. If a copy of the MPL was not distributed with this
+ *  file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package es.uam.eps.ir.relison.community;
+
+import es.uam.eps.ir.relison.graph.Graph;
+import es.uam.eps.ir.relison.graph.fast.FastDirectedUnweightedGraph;
+import es.uam.eps.ir.relison.graph.fast.FastGraph;
+import es.uam.eps.ir.relison.graph.fast.FastUndirectedUnweightedGraph;
+import es.uam.eps.ir.relison.sna.community.Communities;
+import es.uam.eps.ir.relison.sna.community.detection.modularity.Infomap;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Automated unit tests for the in-process Infomap community detection algorithm.
+ *
+ * @author Javier Sanz-Cruzado (javier.sanz-cruzado@uam.es)
+ * @author Pablo Castells (pablo.castells@uam.es)
+ */
+public class InfomapTest
+{
+    /**
+     * Number of planted communities.
+     */
+    private static final int NUM_COMMS = 6;
+    /**
+     * Size of the planted communities.
+     */
+    private static final int SIZE = 10;
+
+    /**
+     * Builds a network with dense planted communities, connected in a ring by single edges.
+     *
+     * @param graph an empty graph.
+     * @param seed  the seed of the random number generator.
+     *
+     * @return the graph.
+     */
+    private static FastGraph<Integer> planted(FastGraph<Integer> graph, long seed)
+    {
+        Random rnd = new Random(seed);
+        int n = NUM_COMMS * SIZE;
+        for (int i = 0; i < n; ++i)
+        {
+            graph.addNode(i);
+        }
+        for (int u = 0; u < n; ++u)
+        {
+            for (int v = u - u % SIZE; v < u - u % SIZE + SIZE; ++v)
+            {
+                if (u != v && rnd.nextDouble() < 0.8)
+                {
+                    graph.addEdge(u, v);
+                }
+            }
+        }
+        for (int c = 0; c < NUM_COMMS; ++c)
+        {
+            int u = c * SIZE;
+            int v = ((c + 1) % NUM_COMMS) * SIZE + 1;
+            graph.addEdge(u, v);
+            if (graph.isDirected())
+            {
+                graph.addEdge(v, u);
+            }
+        }
+        return graph;
+    }
+
+    /**
+     * Checks that the planted communities are found, whatever the number of trials.
+     */
+    @Test
+    public void planted()
+    {
+        for (FastGraph<Integer> graph : Arrays.asList(planted(new FastUndirectedUnweightedGraph<>(), 0), planted(new FastDirectedUnweightedGraph<>(), 1)))
+        {
+            for (int trials : new int[]{1, 4})
+            {
+                Communities<Integer> comms = new Infomap<Integer>(trials, 0).detectCommunities(graph);
+                assertEquals(NUM_COMMS, comms.getNumCommunities());
+                for (int u = 0; u < NUM_COMMS * SIZE; ++u)
+                {
+                    assertEquals(comms.getCommunity(u - u % SIZE), comms.getCommunity(u));
+                }
+            }
+        }
+    }
+
+    /**
+     * Checks that a network without structure is described by a single module, and isolated nodes by their own.
+     */
+    @Test
+    public void singleModule()
+    {
+        Graph<Integer> graph = new FastUndirectedUnweightedGraph<>();
+        for (int i = 0; i < 12; ++i)
+        {
+            graph.addNode(i);
+        }
+        for (int u = 0; u < 10; ++u)
+        {
+            for (int v = u + 1; v < 10; ++v)
+            {
+                graph.addEdge(u, v);
+            }
+        }
+        Communities<Integer> comms = new Infomap<Integer>().detectCommunities(graph);
+        assertEquals(3, comms.getNumCommunities());
+        for (int u = 1; u < 10; ++u)
+        {
+            assertEquals(comms.getCommunity(0), comms.getCommunity(u));
+        }
+        assertEquals(1, comms.getCommunitySize(comms.getCommunity(10)));
+        assertEquals(1, comms.getCommunitySize(comms.getCommunity(11)));
+    }
+}
@@ -0,0 +1,154 @@
+/*
+ *  Copyright (C) 2021 Information Retrieval Group at Universidad Autónoma
+ *  de Madrid, http://ir.ii.uam.es
+ *
+ *  This Source Code Form is subject to the terms of the Mozilla Public
+ *  License, v. 2.0. If a copy of the MPL was not distributed with this
+ *  file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package es.uam.eps.ir.relison.community;
+
+import es.uam.eps.ir.relison.graph.Graph;
+import es.uam.eps.ir.relison.graph.fast.FastDirectedUnweightedGraph;
+import es.uam.eps.ir.relison.graph.fast.FastGraph;
+import es.uam.eps.ir.relison.graph.fast.FastUndirectedUnweightedGraph;
+import es.uam.eps.ir.relison.sna.community.Communities;
+import es.uam.eps.ir.relison.sna.community.detection.CommunityDetectionAlgorithm;
+import es.uam.eps.ir.relison.sna.community.detection.connectedness.WeaklyConnectedComponents;
+import es.uam.eps.ir.relison.sna.community.detection.modularity.FastLouvain;
+import es.uam.eps.ir.relison.sna.community.detection.modularity.Leiden;
+import es.uam.eps.ir.relison.sna.metrics.communities.graph.Modularity;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Automated unit tests for the fast Louvain and Leiden community detection algorithms.
+ *
+ * @author Javier Sanz-Cruzado (javier.sanz-cruzado@uam.es)
+ * @author Pablo Castells (pablo.castells@uam.es)
+ */
+public class LouvainTest
+{
+    /**
+     * Number of planted communities.
+     */
+    private static final int NUM_COMMS = 8;
+    /**
+     * Size of the planted communities.
+     */
+    private static final int SIZE = 12;
+
+    /**
+     * Builds a network with dense planted communities, connected by a few edges.
+     *
+     * @param graph an empty graph.
+     * @param seed  the seed of the random number generator.
+     *
+     * @return the graph.
+     */
+    private static FastGraph<Integer> planted(FastGraph<Integer> graph, long seed)
+    {
+        Random rnd = new Random(seed);
+        int n = NUM_COMMS * SIZE;
+        for (int i = 0; i < n; ++i)
+        {
+            graph.addNode(i);
+        }
+        for (int u = 0; u < n; ++u)
+        {
+            for (int v = 0; v < n; ++v)
+            {
+                boolean same = u / SIZE == v / SIZE;
+                if (u != v && rnd.nextDouble() < (same ? 0.7 : 0.005))
+                {
+                    graph.addEdge(u, v);
+                }
+            }
+        }
+        return graph;
+    }
+
+    /**
+     * Obtains the algorithms to test.
+     *
+     * @return the algorithms.
+     */
+    private static List<CommunityDetectionAlgorithm<Integer>> algorithms()
+    {
+        return Arrays.asList(new FastLouvain<>(0.0), new FastLouvain<>(0.0, true), new Leiden<>(0.0), new Leiden<>(0.0, true));
+    }
+
+    /**
+     * Checks that the planted communities are found.
+     */
+    @Test
+    public void planted()
+    {
+        for (FastGraph<Integer> graph : Arrays.asList(planted(new FastUndirectedUnweightedGraph<>(), 0), planted(new FastDirectedUnweightedGraph<>(), 1)))
+        {
+            for (CommunityDetectionAlgorithm<Integer> algorithm : algorithms())
+            {
+                Communities<Integer> comms = algorithm.detectCommunities(graph);
+                assertEquals(NUM_COMMS, comms.getNumCommunities());
+                for (int u = 0; u < NUM_COMMS * SIZE; ++u)
+                {
+                    assertEquals(comms.getCommunity(u - u % SIZE), comms.getCommunity(u));
+                }
+            }
+        }
+    }
+
+    /**
+     * Checks that the communities are valid on a random network: every node has a community, modularity is positive,
+     * and the communities found by Leiden are connected.
+     */
+    @Test
+    public void random()
+    {
+        Random rnd = new Random(2);
+        Graph<Integer> graph = new FastUndirectedUnweightedGraph<>();
+        int n = 300;
+        for (int i = 0; i < n; ++i)
+        {
+            graph.addNode(i);
+        }
+        for (int i = 0; i < 3 * n; ++i)
+        {
+            int u = rnd.nextInt(n);
+            int v = (int) (n * Math.pow(rnd.nextDouble(), 2));
+            if (u != v)
+            {
+                graph.addEdge(u, v);
+            }
+        }
+
+        Modularity<Integer> modularity = new Modularity<>();
+        for (CommunityDetectionAlgorithm<Integer> algorithm : algorithms())
+        {
+            Communities<Integer> comms = algorithm.detectCommunities(graph);
+            for (int u = 0; u < n; ++u)
+            {
+                assertTrue(comms.getCommunity(u) >= 0);
+            }
+            assertTrue(modularity.compute(graph, comms) > 0.3);
+
+            if (algorithm instanceof Leiden)
+            {
+                WeaklyConnectedComponents<Integer> wcc = new WeaklyConnectedComponents<>();
+                comms.getCommunities().forEach(c ->
+                {
+                    Graph<Integer> sub = new FastUndirectedUnweightedGraph<>();
+                    comms.getUsers(c).forEach(sub::addNode);
+                    comms.getUsers(c).forEach(u -> graph.getAdjacentNodes(u).filter(v -> comms.getCommunity(v) == c).forEach(v -> sub.addEdge(u, v)));
+                    assertEquals(1, wcc.detectCommunities(sub).getNumCommunities());
+                });
+            }
+        }
+    }
+}
@@ -0,0 +1,120 @@
+/*
+ *  Copyright (C) 2021 Information Retrieval Group at Universidad Autónoma
+ *  de Madrid, http://ir.ii.uam.es
+ *
+ *  This Source Code Form is subject to the terms of the Mozilla Public
+ *  License, v. 2.0. If a copy of the MPL was not distributed with this
+ *  file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package es.uam.eps.ir.relison.metrics;
+
+import es.uam.eps.ir.relison.graph.fast.FastDirectedUnweightedGraph;
+import es.uam.eps.ir.relison.graph.fast.FastGraph;
+import es.uam.eps.ir.relison.graph.fast.FastUndirectedUnweightedGraph;
+import es.uam.eps.ir.relison.sna.metrics.distance.BrandesDistanceCalculator;
+import es.uam.eps.ir.relison.sna.metrics.distance.CompleteDistanceCalculator;
+import es.uam.eps.ir.relison.sna.metrics.distance.DistanceCalculator;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Automatic unit tests for the Brandes betweenness calculator.
+ *
+ * @author Javier Sanz-Cruzado (javier.sanz-cruzado@uam.es)
+ * @author Pablo Castells (pablo.castells@uam.es)
+ */
+public class BrandesBetweennessTest
+{
+    /**
+     * Builds a random graph.
+     *
+     * @param graph    an empty graph.
+     * @param n        the number of nodes.
+     * @param numEdges the number of edges to add.
+     * @param seed     the seed of the random number generator.
+     *
+     * @return the graph.
+     */
+    private static FastGraph<Integer> random(FastGraph<Integer> graph, int n, int numEdges, long seed)
+    {
+        Random rnd = new Random(seed);
+        for (int i = 0; i < n; ++i)
+        {
+            graph.addNode(i);
+        }
+        for (int i = 0; i < numEdges; ++i)
+        {
+            graph.addEdge(rnd.nextInt(n), rnd.nextInt(n));
+        }
+        return graph;
+    }
+
+    /**
+     * Compares the exact betweenness values with those of the complete distance calculator.
+     *
+     * @param graph the graph.
+     */
+    private static void checkExact(FastGraph<Integer> graph)
+    {
+        DistanceCalculator<Integer> expected = new CompleteDistanceCalculator<>();
+        expected.computeDistances(graph);
+        BrandesDistanceCalculator<Integer> brandes = new BrandesDistanceCalculator<>();
+        brandes.computeDistances(graph);
+
+        assertEquals(graph.getVertexCount(), brandes.getNumSources());
+        assertEquals(expected.getASL(), brandes.getASL(), 0.00001);
+        assertEquals(expected.getInfiniteDistances(), brandes.getInfiniteDistances(), 0.00001);
+        graph.getAllNodes().forEach(u ->
+        {
+            assertEquals(expected.getNodeBetweenness(u), brandes.getNodeBetweenness(u), 0.00001);
+            graph.getAllNodes().forEach(v -> assertEquals(expected.getEdgeBetweenness(u, v), brandes.getEdgeBetweenness(u, v), 0.00001));
+        });
+        graph.getAllNodes().forEach(u -> assertEquals(expected.getEdgeBetweenness(u).keySet(), brandes.getEdgeBetweenness(u).keySet()));
+    }
+
+    @Test
+    public void directed()
+    {
+        checkExact(random(new FastDirectedUnweightedGraph<>(), 150, 600, 0));
+    }
+
+    @Test
+    public void undirected()
+    {
+        checkExact(random(new FastUndirectedUnweightedGraph<>(), 150, 300, 1));
+    }
+
+    @Test
+    public void sampling()
+    {
+        int n = 300;
+        FastGraph<Integer> graph = random(new FastUndirectedUnweightedGraph<>(), n, 900, 2);
+        BrandesDistanceCalculator<Integer> exact = new BrandesDistanceCalculator<>();
+        exact.computeDistances(graph);
+
+        // Sampling every node gives the exact values.
+        BrandesDistanceCalculator<Integer> all = new BrandesDistanceCalculator<>(2 * n, 0);
+        all.computeDistances(graph);
+        assertEquals(n, all.getNumSources());
+        graph.getAllNodes().forEach(u -> assertEquals(exact.getNodeBetweenness(u), all.getNodeBetweenness(u), 0.00001));
+
+        // The same seed gives the same estimation.
+        BrandesDistanceCalculator<Integer> uniform = new BrandesDistanceCalculator<>(100, 3);
+        BrandesDistanceCalculator<Integer> other = new BrandesDistanceCalculator<>(100, 3);
+        uniform.computeDistances(graph);
+        other.computeDistances(graph);
+        assertEquals(100, uniform.getNumSources());
+        graph.getAllNodes().forEach(u -> assertEquals(uniform.getNodeBetweenness(u), other.getNodeBetweenness(u), 0.00001));
+
+        // Adaptive sampling: the error is bounded.
+        double epsilon = 0.2;
+        BrandesDistanceCalculator<Integer> adaptive = new BrandesDistanceCalculator<>(epsilon, 0.1, 4);
+        adaptive.computeDistances(graph);
+        assertTrue(adaptive.getNumSources() < n);
+        double norm = n * (n - 2.0);
+        graph.getAllNodes().forEach(u -> assertEquals(exact.getNodeBetweenness(u) / norm, adaptive.getNodeBetweenness(u) / norm, epsilon));
+    }
+}
@@ -0,0 +1,117 @@
+/*
+ *  Copyright (C) 2021 Information Retrieval Group at Universidad Autónoma
+ *  de Madrid, http://ir.ii.uam.es
+ *
+ *  This Source Code Form is subject to the terms of the Mozilla Public
+ *  License, v. 2.0. If a copy of the MPL was not distributed with this
+ *  file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package es.uam.eps.ir.relison.metrics;
+
+import es.uam.eps.ir.relison.graph.edges.EdgeOrientation;
+import es.uam.eps.ir.relison.graph.fast.FastDirectedUnweightedGraph;
+import es.uam.eps.ir.relison.graph.fast.FastGraph;
+import es.uam.eps.ir.relison.graph.fast.FastUndirectedUnweightedGraph;
+import es.uam.eps.ir.relison.sna.metrics.distance.BreadthFirstSearch;
+import es.uam.eps.ir.relison.sna.metrics.distance.CompleteDistanceCalculator;
+import es.uam.eps.ir.relison.sna.metrics.distance.DistanceCalculator;
+import es.uam.eps.ir.relison.sna.metrics.distance.DistanceStatistics;
+import es.uam.eps.ir.relison.sna.metrics.distance.vertex.Eccentricity;
+import it.unimi.dsi.fastutil.ints.IntOpenHashSet;
+import it.unimi.dsi.fastutil.ints.IntSet;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Automatic unit tests for the breadth-first search engine.
+ *
+ * @author Javier Sanz-Cruzado (javier.sanz-cruzado@uam.es)
+ * @author Pablo Castells (pablo.castells@uam.es)
+ */
+public class BreadthFirstSearchTest
+{
+    /**
+     * Compares the distances found by the search engine with those of the complete distance calculator.
+     *
+     * @param graph the graph.
+     */
+    private static void check(FastGraph<Integer> graph)
+    {
+        DistanceCalculator<Integer> dc = new CompleteDistanceCalculator<>();
+        dc.computeDistances(graph);
+        BreadthFirstSearch<Integer> bfs = new BreadthFirstSearch<>(graph, EdgeOrientation.OUT);
+        DistanceStatistics stats = bfs.statistics();
+        Eccentricity<Integer> ecc = new Eccentricity<>(dc);
+
+        int n = (int) graph.getVertexCount();
+        long pairs = 0L;
+        double sum = 0.0;
+        for (int uidx = 0; uidx < n; ++uidx)
+        {
+            Integer u = graph.idx2object(uidx);
+            int[] distances = bfs.distances(uidx);
+            IntSet reachable = new IntOpenHashSet(bfs.reachable(uidx, 2));
+            int reached = 0;
+            for (int vidx = 0; vidx < n; ++vidx)
+            {
+                double expected = dc.getDistances(u, graph.idx2object(vidx));
+                if (Double.isInfinite(expected))
+                {
+                    assertEquals(BreadthFirstSearch.UNREACHABLE, distances[vidx]);
+                }
+                else
+                {
+                    assertEquals(expected, distances[vidx], 0.00001);
+                    if (vidx != uidx)
+                    {
+                        pairs++;
+                        reached++;
+                        sum += expected;
+                    }
+                }
+                assertEquals(distances[vidx] != BreadthFirstSearch.UNREACHABLE && distances[vidx] <= 2, reachable.contains(vidx));
+                assertEquals(distances[vidx] <= 3 ? distances[vidx] : BreadthFirstSearch.UNREACHABLE, bfs.distance(uidx, vidx, 3));
+            }
+            assertEquals(reached, stats.getReachable(uidx));
+            assertEquals(ecc.compute(graph, u), stats.getEccentricity(uidx), 0.00001);
+        }
+
+        assertEquals(pairs > 0 ? sum / pairs : 0.0, stats.getASL(), 0.00001);
+        assertEquals(n * (n - 1.0) - pairs, stats.getInfiniteDistances(), 0.00001);
+    }
+
+    @Test
+    public void directed()
+    {
+        Random rnd = new Random(0);
+        FastGraph<Integer> graph = new FastDirectedUnweightedGraph<>();
+        for (int i = 0; i < 100; ++i)
+        {
+            graph.addNode(i);
+        }
+        for (int i = 0; i < 180; ++i)
+        {
+            graph.addEdge(rnd.nextInt(100), rnd.nextInt(100));
+        }
+        check(graph);
+    }
+
+    @Test
+    public void undirected()
+    {
+        Random rnd = new Random(1);
+        FastGraph<Integer> graph = new FastUndirectedUnweightedGraph<>();
+        for (int i = 0; i < 100; ++i)
+        {
+            graph.addNode(i);
+        }
+        for (int i = 0; i < 90; ++i)
+        {
+            graph.addEdge(rnd.nextInt(100), rnd.nextInt(100));
+        }
+        check(graph);
+    }
+}
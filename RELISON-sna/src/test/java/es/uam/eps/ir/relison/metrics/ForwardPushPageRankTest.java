@@ -0,0 +1,164 @@
+/*
+ *  Copyright (C) 2021 Information Retrieval Group at Universidad Autónoma
+ *  de Madrid, http://ir.ii.uam.es
+ *
+ *  This Source Code Form is subject to the terms of the Mozilla Public
+ *  License, v. 2.0. If a copy of the MPL was not distributed with this
+ *  file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package es.uam.eps.ir.relison.metrics;
+
+import es.uam.eps.ir.relison.graph.edges.EdgeOrientation;
+import es.uam.eps.ir.relison.graph.fast.FastDirectedUnweightedGraph;
+import es.uam.eps.ir.relison.graph.fast.FastGraph;
+import es.uam.eps.ir.relison.sna.metrics.vertex.ForwardPushPageRank;
+import it.unimi.dsi.fastutil.ints.Int2DoubleMap;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Automatic unit tests for the forward push approximation of the personalized PageRank.
+ *
+ * @author Javier Sanz-Cruzado (javier.sanz-cruzado@uam.es)
+ * @author Pablo Castells (pablo.castells@uam.es)
+ */
+public class ForwardPushPageRankTest
+{
+    /**
+     * Number of nodes of the test network.
+     */
+    private static final int N = 80;
+    /**
+     * Teleport probability.
+     */
+    private static final double R = 0.2;
+
+    /**
+     * Builds a random directed graph, where one in every ten nodes is a sink.
+     *
+     * @return the graph.
+     */
+    private static FastGraph<Integer> random()
+    {
+        Random rnd = new Random(0);
+        FastGraph<Integer> graph = new FastDirectedUnweightedGraph<>();
+        for (int i = 0; i < N; ++i)
+        {
+            graph.addNode(i);
+        }
+        for (int i = 0; i < 300; ++i)
+        {
+            int u = rnd.nextInt(N);
+            if (u % 10 != 0)
+            {
+                graph.addEdge(u, rnd.nextInt(N));
+            }
+        }
+        return graph;
+    }
+
+    /**
+     * Computes the personalized PageRank by iterating over the whole network.
+     *
+     * @param graph          the graph.
+     * @param source         the source node.
+     * @param sourceWeight   the weight of the edges pointing to the source.
+     * @param restartOnSinks whether the walker restarts from the source on sinks.
+     *
+     * @return the personalized PageRank vector.
+     */
+    private static double[] powerIteration(FastGraph<Integer> graph, int source, double sourceWeight, boolean restartOnSinks)
+    {
+        double[] pr = new double[N];
+        for (int iter = 0; iter < 2000; ++iter)
+        {
+            double[] aux = new double[N];
+            aux[source] = R;
+            for (int uidx = 0; uidx < N; ++uidx)
+            {
+                double mass = (1.0 - R) * pr[uidx];
+                double total = graph.getNeighborhoodSize(uidx, EdgeOrientation.OUT) + (graph.containsEdge(uidx, source) ? sourceWeight - 1.0 : 0.0);
+                if (total <= 0.0)
+                {
+                    aux[source] += restartOnSinks ? mass : 0.0;
+                }
+                else
+                {
+                    graph.forEachNeighbor(uidx, EdgeOrientation.OUT, vidx -> aux[vidx] += mass * (vidx == source ? sourceWeight : 1.0) / total);
+                }
+            }
+            pr = aux;
+        }
+        return pr;
+    }
+
+    /**
+     * Compares the approximation with the exact values.
+     *
+     * @param sourceWeight   the weight of the edges pointing to the source.
+     * @param restartOnSinks whether the walker restarts from the source on sinks.
+     */
+    private static void check(double sourceWeight, boolean restartOnSinks)
+    {
+        FastGraph<Integer> graph = random();
+        ForwardPushPageRank<Integer> push = new ForwardPushPageRank<>(graph, R, 1E-10, sourceWeight, restartOnSinks);
+        for (int source : new int[]{1, 22, 57})
+        {
+            double[] expected = powerIteration(graph, source, sourceWeight, restartOnSinks);
+            Int2DoubleMap values = push.compute(source);
+            for (int vidx = 0; vidx < N; ++vidx)
+            {
+                assertEquals(expected[vidx], values.getOrDefault(vidx, 0.0), 0.000001);
+            }
+            assertEquals(expected[source], push.computeSelf(source), 0.000001);
+        }
+    }
+
+    @Test
+    public void restart()
+    {
+        check(1.0, true);
+    }
+
+    @Test
+    public void stop()
+    {
+        check(1.0, false);
+
+        // The expected length of the walks is the sum of the personalized PageRank values divided by r.
+        FastGraph<Integer> graph = random();
+        ForwardPushPageRank<Integer> push = new ForwardPushPageRank<>(graph, R, 1E-10, 1.0, false);
+        double[] lengths = push.walkLengths(1E-12, 10000);
+        for (int source = 0; source < N; source += 7)
+        {
+            double sum = 0.0;
+            for (double value : powerIteration(graph, source, 1.0, false))
+            {
+                sum += value;
+            }
+            assertEquals(sum / R, lengths[source], 0.000001);
+        }
+    }
+
+    @Test
+    public void sourceWeight()
+    {
+        check(0.0, true);
+        check(R, true);
+    }
+
+    @Test
+    public void locality()
+    {
+        // With a large epsilon, only the vicinity of the source is explored.
+        FastGraph<Integer> graph = random();
+        ForwardPushPageRank<Integer> push = new ForwardPushPageRank<>(graph, R, 0.01);
+        Int2DoubleMap values = push.compute(1);
+        assertTrue(values.size() < N / 2);
+        double[] expected = powerIteration(graph, 1, 1.0, true);
+        values.forEach((vidx, value) -> assertTrue(value <= expected[vidx] + 0.000001));
+    }
+}
@@ -0,0 +1,226 @@
+/*
+ *  Copyright (C) 2021 Information Retrieval Group at Universidad Autónoma
+ *  de Madrid, http://ir.ii.uam.es
+ *
+ *  This Source Code Form is subject to the terms of the Mozilla Public
+ *  License, v. 2.0. If a copy of the MPL was not distributed with this
+ *  file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package es.uam.eps.ir.relison.metrics;
+
+import es.uam.eps.ir.relison.graph.Graph;
+import es.uam.eps.ir.relison.graph.edges.EdgeOrientation;
+import es.uam.eps.ir.relison.graph.fast.FastDirectedUnweightedGraph;
+import es.uam.eps.ir.relison.graph.fast.FastUndirectedUnweightedGraph;
+import es.uam.eps.ir.relison.graph.multigraph.MultiGraph;
+import es.uam.eps.ir.relison.graph.multigraph.fast.FastDirectedUnweightedMultiGraph;
+import es.uam.eps.ir.relison.graph.multigraph.fast.FastUndirectedUnweightedMultiGraph;
+import es.uam.eps.ir.relison.sna.community.Communities;
+import es.uam.eps.ir.relison.sna.metrics.IncrementalGraphMetric;
+import es.uam.eps.ir.relison.sna.metrics.communities.graph.IncrementalModularity;
+import es.uam.eps.ir.relison.sna.metrics.graph.*;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Supplier;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+/**
+ * Automatic unit tests for the incrementally maintained graph metrics: after every change on the network, the
+ * maintained value, and the predicted variation, are compared with the metric computed from scratch.
+ *
+ * @author Javier Sanz-Cruzado (javier.sanz-cruzado@uam.es)
+ * @author Pablo Castells (pablo.castells@uam.es)
+ */
+public class IncrementalGraphMetricTest
+{
+    /**
+     * Number of nodes of the test networks.
+     */
+    private static final int N = 40;
+    /**
+     * Number of changes applied to each network.
+     */
+    private static final int CHANGES = 150;
+    /**
+     * Tolerance for the comparisons.
+     */
+    private static final double EPSILON = 1E-9;
+
+    /**
+     * Builds a random graph, where a few nodes concentrate many edges.
+     *
+     * @param graph an empty graph.
+     * @param seed  the seed of the random number generator.
+     *
+     * @return the graph.
+     */
+    private static Graph<Integer> random(Graph<Integer> graph, long seed)
+    {
+        Random rnd = new Random(seed);
+        for (int i = 0; i < N; ++i)
+        {
+            graph.addNode(i);
+        }
+        for (int i = 0; i < 4 * N; ++i)
+        {
+            int u = rnd.nextInt(N);
+            int v = (int) (N * Math.pow(rnd.nextDouble(), 2));
+            if (u != v)
+            {
+                graph.addEdge(u, v);
+            }
+        }
+        return graph;
+    }
+
+    /**
+     * Randomly adds and removes edges, checking the maintained value of a metric after every change.
+     *
+     * @param graph  the network.
+     * @param metric the metric.
+     * @param seed   the seed of the random number generator.
+     * @param loops  true if autoloops can be added.
+     */
+    private static void check(Graph<Integer> graph, IncrementalGraphMetric<Integer> metric, long seed, boolean loops)
+    {
+        IncrementalGraphMetric.State<Integer> state = metric.initialize(graph);
+        assertEquals(metric.compute(graph), state.getValue(), EPSILON);
+
+        // Undirected multigraphs share the list of edges of both directions of a pair, so edges are only added.
+        boolean removals = graph.isDirected() || !graph.isMultigraph();
+        Random rnd = new Random(seed);
+        for (int i = 0; i < CHANGES; ++i)
+        {
+            int u = rnd.nextInt(N);
+            int v = rnd.nextInt(N);
+            if (u == v && !loops)
+            {
+                continue;
+            }
+
+            double before = metric.compute(graph);
+            if (removals && rnd.nextDouble() < 0.4)
+            {
+                // Remove an existing edge of the node (other than an autoloop), if any.
+                int orig = u;
+                v = graph.getAdjacentNodes(u).filter(w -> w != orig).findFirst().orElse(v);
+                if (u == v)
+                {
+                    continue;
+                }
+                double delta = state.removeEdgeDelta(u, v);
+                if (!graph.isMultigraph())
+                {
+                    graph.removeEdge(u, v);
+                }
+                else if (graph.containsEdge(u, v))
+                {
+                    ((MultiGraph<Integer>) graph).removeEdge(u, v, 0);
+                }
+                state.removeEdge(u, v);
+                double after = metric.compute(graph);
+                assertEquals(after - before, delta, EPSILON);
+                assertEquals(after, state.getValue(), EPSILON);
+            }
+            else
+            {
+                double delta = state.addEdgeDelta(u, v);
+                graph.addEdge(u, v);
+                state.addEdge(u, v);
+                double after = metric.compute(graph);
+                assertEquals(after - before, delta, EPSILON);
+                assertEquals(after, state.getValue(), EPSILON);
+            }
+        }
+    }
+
+    /**
+     * Checks a metric over directed and undirected simple graphs.
+     *
+     * @param metric the metric.
+     */
+    private static void checkSimple(IncrementalGraphMetric<Integer> metric)
+    {
+        List<Supplier<Graph<Integer>>> graphs = Arrays.asList(FastDirectedUnweightedGraph::new, FastUndirectedUnweightedGraph::new);
+        for (int i = 0; i < graphs.size(); ++i)
+        {
+            check(random(graphs.get(i).get(), i), metric, 10 + i, false);
+        }
+    }
+
+    /**
+     * Checks a metric over directed and undirected multigraphs.
+     *
+     * @param metric the metric.
+     */
+    private static void checkMulti(IncrementalGraphMetric<Integer> metric)
+    {
+        List<Supplier<Graph<Integer>>> graphs = Arrays.asList(FastDirectedUnweightedMultiGraph::new, FastUndirectedUnweightedMultiGraph::new);
+        for (int i = 0; i < graphs.size(); ++i)
+        {
+            check(random(graphs.get(i).get(), i), metric, 20 + i, true);
+        }
+    }
+
+    @Test
+    public void clusteringCoefficient()
+    {
+        EdgeOrientation[] orients = {EdgeOrientation.OUT, EdgeOrientation.IN, EdgeOrientation.UND, EdgeOrientation.MUTUAL};
+        for (EdgeOrientation vSel : orients)
+        {
+            for (EdgeOrientation wSel : orients)
+            {
+                checkSimple(new ClusteringCoefficient<>(vSel, wSel));
+            }
+        }
+        assertNull(new ClusteringCoefficient<Integer>().initialize(random(new FastDirectedUnweightedMultiGraph<>(), 0)));
+    }
+
+    @Test
+    public void degreeGini()
+    {
+        for (EdgeOrientation orient : new EdgeOrientation[]{EdgeOrientation.IN, EdgeOrientation.OUT, EdgeOrientation.UND})
+        {
+            checkSimple(new DegreeGini<>(orient));
+            checkMulti(new DegreeGini<>(orient));
+        }
+    }
+
+    @Test
+    public void edgeGini()
+    {
+        checkMulti(new CompleteEdgeGini<>());
+        checkMulti(new SemiCompleteEdgeGini<>());
+        checkMulti(new InterEdgeGini<>());
+        assertNull(new CompleteEdgeGini<Integer>().initialize(random(new FastDirectedUnweightedGraph<>(), 0)));
+    }
+
+    @Test
+    public void reciprocityRate()
+    {
+        checkSimple(new ReciprocityRate<>());
+        assertNull(new ReciprocityRate<Integer>().initialize(random(new FastDirectedUnweightedMultiGraph<>(), 0)));
+    }
+
+    @Test
+    public void modularity()
+    {
+        Communities<Integer> comms = new Communities<>();
+        for (int c = 0; c < 4; ++c)
+        {
+            comms.addCommunity();
+        }
+        Random rnd = new Random(0);
+        for (int i = 0; i < N; ++i)
+        {
+            comms.add(i, rnd.nextInt(4));
+        }
+        checkSimple(new IncrementalModularity<>(comms));
+        assertNull(new IncrementalModularity<>(comms).initialize(random(new FastDirectedUnweightedMultiGraph<>(), 0)));
+    }
+}
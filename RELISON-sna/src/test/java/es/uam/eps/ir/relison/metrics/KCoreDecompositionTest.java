@@ -0,0 +1,186 @@
+/*
+ *  Copyright (C) 2021 Information Retrieval Group at Universidad Autónoma
+ *  de Madrid, http://ir.ii.uam.es
+ *
+ *  This Source Code Form is subject to the terms of the Mozilla Public
+ *  License, v. 2.0. If a copy of the MPL was not distributed with this
+ *  file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package es.uam.eps.ir.relison.metrics;
+
+import es.uam.eps.ir.relison.graph.Graph;
+import es.uam.eps.ir.relison.graph.edges.EdgeOrientation;
+import es.uam.eps.ir.relison.graph.fast.FastDirectedUnweightedGraph;
+import es.uam.eps.ir.relison.graph.fast.FastGraph;
+import es.uam.eps.ir.relison.graph.fast.FastUndirectedUnweightedGraph;
+import es.uam.eps.ir.relison.sna.metrics.graph.TriangleCounter;
+import es.uam.eps.ir.relison.sna.metrics.vertex.KCoreDecomposition;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Automatic unit tests for the k-core decomposition.
+ *
+ * @author Javier Sanz-Cruzado (javier.sanz-cruzado@uam.es)
+ * @author Pablo Castells (pablo.castells@uam.es)
+ */
+public class KCoreDecompositionTest
+{
+    /**
+     * Number of nodes of the test networks.
+     */
+    private static final int N = 120;
+
+    /**
+     * Builds a random graph, where a few nodes concentrate many edges.
+     *
+     * @param graph an empty graph.
+     * @param seed  the seed of the random number generator.
+     *
+     * @return the graph.
+     */
+    private static FastGraph<Integer> random(FastGraph<Integer> graph, long seed)
+    {
+        Random rnd = new Random(seed);
+        for (int i = 0; i < N; ++i)
+        {
+            graph.addNode(i);
+        }
+        for (int i = 0; i < 5 * N; ++i)
+        {
+            int u = rnd.nextInt(N);
+            int v = (int) (N * Math.pow(rnd.nextDouble(), 2));
+            if (u != v)
+            {
+                graph.addEdge(u, v);
+            }
+        }
+        return graph;
+    }
+
+    /**
+     * Counts the edges of a node towards a set of nodes.
+     *
+     * @param graph  the graph.
+     * @param u      the node.
+     * @param nodes  the set of nodes.
+     * @param orient the orientation of the edges.
+     *
+     * @return the number of edges.
+     */
+    private static int degree(Graph<Integer> graph, int u, Set<Integer> nodes, EdgeOrientation orient)
+    {
+        int count = 0;
+        for (int v : nodes)
+        {
+            boolean out = graph.containsEdge(u, v);
+            boolean in = graph.containsEdge(v, u);
+            if (v == u)
+            {
+                continue;
+            }
+            if (!graph.isDirected())
+            {
+                count += out ? 1 : 0;
+                continue;
+            }
+            count += switch (orient)
+            {
+                case OUT -> out ? 1 : 0;
+                case IN -> in ? 1 : 0;
+                case UND -> (out ? 1 : 0) + (in ? 1 : 0);
+                case MUTUAL -> out && in ? 1 : 0;
+            };
+        }
+        return count;
+    }
+
+    /**
+     * Computes the coreness of the nodes by removing, for each value of k, the nodes with degree lower than k.
+     *
+     * @param graph  the graph.
+     * @param orient the orientation of the edges.
+     *
+     * @return the coreness of each node.
+     */
+    private static int[] bruteForce(Graph<Integer> graph, EdgeOrientation orient)
+    {
+        int[] core = new int[N];
+        for (int level = 1; ; ++level)
+        {
+            int k = level;
+            Set<Integer> remaining = new HashSet<>();
+            graph.getAllNodes().forEach(remaining::add);
+            boolean changed = true;
+            while (changed)
+            {
+                changed = remaining.removeIf(u -> degree(graph, u, remaining, orient) < k);
+            }
+            if (remaining.isEmpty())
+            {
+                return core;
+            }
+            for (int u : remaining)
+            {
+                core[u] = level;
+            }
+        }
+    }
+
+    @Test
+    public void coreness()
+    {
+        EdgeOrientation[] orients = {EdgeOrientation.OUT, EdgeOrientation.IN, EdgeOrientation.UND, EdgeOrientation.MUTUAL};
+        for (FastGraph<Integer> graph : Arrays.asList(random(new FastDirectedUnweightedGraph<>(), 0), random(new FastUndirectedUnweightedGraph<>(), 1)))
+        {
+            for (EdgeOrientation orient : orients)
+            {
+                int[] expected = bruteForce(graph, orient);
+                for (boolean parallel : new boolean[]{false, true})
+                {
+                    KCoreDecomposition.Result<Integer> result = new KCoreDecomposition<Integer>(orient, parallel).decompose(graph);
+                    int max = 0;
+                    for (int u = 0; u < N; ++u)
+                    {
+                        assertEquals(expected[u], result.getCoreness(u));
+                        max = Math.max(max, expected[u]);
+                    }
+                    assertEquals(max, result.getDegeneracy());
+
+                    // Every node has, at most, as many edges towards the nodes after it as its coreness.
+                    int[] order = result.getOrdering();
+                    assertEquals(N, order.length);
+                    Set<Integer> later = new HashSet<>();
+                    for (int i = order.length - 1; i >= 0; --i)
+                    {
+                        int u = graph.getAdjacencyMatrixMap().idx2object(order[i]);
+                        assertTrue(degree(graph, u, later, orient) <= result.getCoreness(u));
+                        later.add(u);
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void degeneracyOrdering()
+    {
+        FastGraph<Integer> graph = random(new FastUndirectedUnweightedGraph<>(), 2);
+        KCoreDecomposition.Result<Integer> cores = new KCoreDecomposition<Integer>(EdgeOrientation.UND, false).decompose(graph);
+        TriangleCounter<Integer> counter = new TriangleCounter<>(EdgeOrientation.UND, EdgeOrientation.UND);
+        TriangleCounter.Result<Integer> byDegree = counter.count(graph);
+        TriangleCounter.Result<Integer> byCore = counter.count(graph, cores.getOrdering());
+        assertEquals(byDegree.getUndirectedTriangles(), byCore.getUndirectedTriangles());
+        for (int u = 0; u < N; ++u)
+        {
+            assertEquals(byDegree.getTriangles(u), byCore.getTriangles(u));
+        }
+    }
+}
@@ -0,0 +1,244 @@
+/*
+ *  Copyright (C) 2021 Information Retrieval Group at Universidad Autónoma
+ *  de Madrid, http://ir.ii.uam.es
+ *
+ *  This Source Code Form is subject to the terms of the Mozilla Public
+ *  License, v. 2.0. If a copy of the MPL was not distributed with this
+ *  file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package es.uam.eps.ir.relison.metrics;
+
+import es.uam.eps.ir.relison.graph.edges.EdgeOrientation;
+import es.uam.eps.ir.relison.graph.fast.FastDirectedUnweightedGraph;
+import es.uam.eps.ir.relison.graph.fast.FastDirectedWeightedGraph;
+import es.uam.eps.ir.relison.graph.fast.FastGraph;
+import es.uam.eps.ir.relison.graph.fast.FastUndirectedUnweightedGraph;
+import es.uam.eps.ir.relison.sna.metrics.vertex.EigenvectorCentrality;
+import es.uam.eps.ir.relison.sna.metrics.vertex.HITS;
+import es.uam.eps.ir.relison.sna.metrics.vertex.KatzCentrality;
+import es.uam.eps.ir.relison.sna.metrics.vertex.PageRank;
+import es.uam.eps.ir.relison.utils.matrix.MatrixLibrary;
+import es.uam.eps.ir.relison.utils.matrix.PowerIteration;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Automatic unit tests for the vertex metrics computed by power iteration.
+ *
+ * @author Javier Sanz-Cruzado (javier.sanz-cruzado@uam.es)
+ * @author Pablo Castells (pablo.castells@uam.es)
+ */
+public class PowerIterationTest
+{
+    /**
+     * Number of nodes of the test networks.
+     */
+    private static final int N = 60;
+
+    /**
+     * Builds a random graph. In directed graphs, a cycle over all the nodes is added, so the graph is strongly
+     * connected. Some nodes are sinks otherwise.
+     *
+     * @param graph an empty graph.
+     * @param cycle whether to add a cycle over all the nodes.
+     * @param seed  the seed of the random number generator.
+     *
+     * @return the graph.
+     */
+    private static FastGraph<Integer> random(FastGraph<Integer> graph, boolean cycle, long seed)
+    {
+        Random rnd = new Random(seed);
+        for (int i = 0; i < N; ++i)
+        {
+            graph.addNode(i);
+        }
+        for (int i = 0; i < N; ++i)
+        {
+            if (cycle)
+            {
+                graph.addEdge(i, (i + 1) % N, 0.5 + rnd.nextDouble(), 0);
+            }
+        }
+        for (int i = 0; i < 3 * N; ++i)
+        {
+            int u = rnd.nextInt(N);
+            if (cycle || u % 7 != 0)
+            {
+                graph.addEdge(u, rnd.nextInt(N), 0.5 + rnd.nextDouble(), 0);
+            }
+        }
+        return graph;
+    }
+
+    /**
+     * Normalizes a vector, so its values are positive and its Euclidean norm is equal to one.
+     *
+     * @param x the vector.
+     *
+     * @return the normalized vector.
+     */
+    private static double[] normalize(double[] x)
+    {
+        double norm = Math.sqrt(Arrays.stream(x).map(v -> v * v).sum());
+        return Arrays.stream(x).map(v -> Math.abs(v) / norm).toArray();
+    }
+
+    @Test
+    public void pageRank()
+    {
+        FastGraph<Integer> graph = random(new FastDirectedUnweightedGraph<>(), false, 0);
+        double r = 0.15;
+
+        // Reference: PageRank where the mass of the sinks is uniformly distributed.
+        double[] expected = new double[N];
+        Arrays.fill(expected, 1.0 / N);
+        for (int iter = 0; iter < 1000; ++iter)
+        {
+            double[] aux = new double[N];
+            double sinks = 0.0;
+            for (int u = 0; u < N; ++u)
+            {
+                int out = graph.getNeighborhoodSize(u, EdgeOrientation.OUT);
+                if (out == 0)
+                {
+                    sinks += expected[u];
+                }
+                for (int v = 0; v < N; ++v)
+                {
+                    if (graph.containsEdge(u, v))
+                    {
+                        aux[v] += (1.0 - r) * expected[u] / out;
+                    }
+                }
+            }
+            for (int v = 0; v < N; ++v)
+            {
+                aux[v] += r / N + (1.0 - r) * sinks / N;
+            }
+            expected = aux;
+        }
+
+        PageRank<Integer> pageRank = new PageRank<>(r, null, 1E-12, 1000);
+        PowerIteration.Result result = pageRank.run(graph);
+        assertTrue(result.hasConverged());
+        assertTrue(result.getError() < 1E-12);
+        Map<Integer, Double> values = pageRank.compute(graph);
+        for (int u = 0; u < N; ++u)
+        {
+            assertEquals(expected[u], values.get(u), 0.000001);
+        }
+        assertEquals(1.0, values.values().stream().mapToDouble(x -> x).sum(), 0.000001);
+
+        // The default configuration stops after a few iterations, but it is close to the fixed point.
+        Map<Integer, Double> defValues = new PageRank<Integer>(r).compute(graph);
+        for (int u = 0; u < N; ++u)
+        {
+            assertEquals(expected[u], defValues.get(u), 0.0001);
+        }
+    }
+
+    @Test
+    public void hits()
+    {
+        FastGraph<Integer> graph = random(new FastDirectedUnweightedGraph<>(), false, 1);
+
+        // Reference: the original iterations (hubs from authorities, authorities from hubs).
+        double[] hubs = new double[N];
+        double[] auths = new double[N];
+        for (int u = 0; u < N; ++u)
+        {
+            hubs[u] = graph.getNeighborhoodSize(u, EdgeOrientation.OUT) > 0 ? 1.0 : 0.0;
+            auths[u] = graph.getNeighborhoodSize(u, EdgeOrientation.IN) > 0 ? 1.0 : 0.0;
+        }
+        for (int iter = 0; iter < 50; ++iter)
+        {
+            double[] newHubs = new double[N];
+            double[] newAuths = new double[N];
+            for (int u = 0; u < N; ++u)
+            {
+                for (int v = 0; v < N; ++v)
+                {
+                    if (graph.containsEdge(u, v))
+                    {
+                        newHubs[u] += auths[v];
+                    }
+                }
+            }
+            hubs = normalize(newHubs);
+            for (int u = 0; u < N; ++u)
+            {
+                for (int v = 0; v < N; ++v)
+                {
+                    if (graph.containsEdge(v, u))
+                    {
+                        newAuths[u] += hubs[v];
+                    }
+                }
+            }
+            auths = normalize(newAuths);
+        }
+
+        Map<Integer, Double> hubValues = new HITS<Integer>(false).compute(graph);
+        Map<Integer, Double> authValues = new HITS<Integer>(true).compute(graph);
+        for (int u = 0; u < N; ++u)
+        {
+            assertEquals(hubs[u], hubValues.get(u), 0.000001);
+            assertEquals(auths[u], authValues.get(u), 0.000001);
+        }
+
+        // A new graph is not mistaken for the cached one.
+        HITS<Integer> hits = new HITS<>(true);
+        hits.compute(graph);
+        FastGraph<Integer> other = random(new FastDirectedUnweightedGraph<>(), true, 2);
+        Map<Integer, Double> otherValues = hits.compute(other);
+        Map<Integer, Double> fresh = new HITS<Integer>(true).compute(other);
+        for (int u = 0; u < N; ++u)
+        {
+            assertEquals(fresh.get(u), otherValues.get(u), 0.000001);
+        }
+    }
+
+    @Test
+    public void eigenvector()
+    {
+        for (FastGraph<Integer> graph : Arrays.asList(random(new FastDirectedWeightedGraph<>(), true, 3), random(new FastUndirectedUnweightedGraph<>(), false, 4)))
+        {
+            for (EdgeOrientation orient : new EdgeOrientation[]{EdgeOrientation.IN, EdgeOrientation.OUT, EdgeOrientation.UND})
+            {
+                double[] expected = normalize(new EigenvectorCentrality<Integer>(MatrixLibrary.COLT, orient).getScores(graph));
+                double[] sparse = new EigenvectorCentrality<Integer>(MatrixLibrary.SPARSE, orient).getScores(graph);
+                assertArrayEquals(expected, sparse, 0.00001);
+            }
+        }
+
+        // Acyclic graphs have null centralities.
+        FastGraph<Integer> dag = new FastDirectedUnweightedGraph<>();
+        for (int i = 0; i < 5; ++i)
+        {
+            dag.addNode(i);
+        }
+        dag.addEdge(0, 1);
+        dag.addEdge(1, 2);
+        dag.addEdge(0, 3);
+        assertArrayEquals(new double[5], new EigenvectorCentrality<Integer>(MatrixLibrary.SPARSE).getScores(dag), 0.0);
+    }
+
+    @Test
+    public void katz()
+    {
+        for (FastGraph<Integer> graph : Arrays.asList(random(new FastDirectedWeightedGraph<>(), true, 5), random(new FastUndirectedUnweightedGraph<>(), false, 6)))
+        {
+            for (EdgeOrientation orient : new EdgeOrientation[]{EdgeOrientation.IN, EdgeOrientation.OUT, EdgeOrientation.UND})
+            {
+                double[] expected = new KatzCentrality<Integer>(MatrixLibrary.COLT, orient, 0.05).getScores(graph);
+                double[] sparse = new KatzCentrality<Integer>(MatrixLibrary.SPARSE, orient, 0.05).getScores(graph);
+                assertArrayEquals(expected, sparse, 0.000001);
+            }
+        }
+    }
+}
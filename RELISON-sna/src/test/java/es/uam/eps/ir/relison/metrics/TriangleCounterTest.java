@@ -0,0 +1,167 @@
+/*
+ *  Copyright (C) 2021 Information Retrieval Group at Universidad Autónoma
+ *  de Madrid, http://ir.ii.uam.es
+ *
+ *  This Source Code Form is subject to the terms of the Mozilla Public
+ *  License, v. 2.0. If a copy of the MPL was not distributed with this
+ *  file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package es.uam.eps.ir.relison.metrics;
+
+import es.uam.eps.ir.relison.graph.Graph;
+import es.uam.eps.ir.relison.graph.edges.EdgeOrientation;
+import es.uam.eps.ir.relison.graph.fast.FastDirectedUnweightedGraph;
+import es.uam.eps.ir.relison.graph.fast.FastGraph;
+import es.uam.eps.ir.relison.graph.fast.FastUndirectedUnweightedGraph;
+import es.uam.eps.ir.relison.sna.metrics.graph.ClusteringCoefficient;
+import es.uam.eps.ir.relison.sna.metrics.graph.TriangleCounter;
+import es.uam.eps.ir.relison.sna.metrics.vertex.LocalClusteringCoefficient;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Automatic unit tests for the triangle counting engine.
+ *
+ * @author Javier Sanz-Cruzado (javier.sanz-cruzado@uam.es)
+ * @author Pablo Castells (pablo.castells@uam.es)
+ */
+public class TriangleCounterTest
+{
+    /**
+     * Number of nodes of the test networks.
+     */
+    private static final int N = 80;
+
+    /**
+     * Builds a random graph, where a few nodes concentrate many edges.
+     *
+     * @param graph an empty graph.
+     * @param seed  the seed of the random number generator.
+     *
+     * @return the graph.
+     */
+    private static FastGraph<Integer> random(FastGraph<Integer> graph, long seed)
+    {
+        Random rnd = new Random(seed);
+        for (int i = 0; i < N; ++i)
+        {
+            graph.addNode(i);
+        }
+        for (int i = 0; i < 6 * N; ++i)
+        {
+            int u = rnd.nextInt(N);
+            int v = (int) (N * Math.pow(rnd.nextDouble(), 2));
+            if (u != v)
+            {
+                graph.addEdge(u, v);
+            }
+        }
+        return graph;
+    }
+
+    /**
+     * Counts the closed triplets and the triplets centred on a node by checking every pair of neighbours.
+     *
+     * @param graph the graph.
+     * @param u     the node.
+     * @param vSel  the orientation for selecting the first node of the triplets.
+     * @param wSel  the orientation for selecting the second node of the triplets.
+     *
+     * @return an array containing the number of closed triplets and the number of triplets.
+     */
+    private static long[] bruteForce(Graph<Integer> graph, int u, EdgeOrientation vSel, EdgeOrientation wSel)
+    {
+        Set<Integer> vs = graph.getNeighbourhood(u, vSel).collect(Collectors.toSet());
+        Set<Integer> ws = graph.getNeighbourhood(u, wSel).collect(Collectors.toSet());
+        long[] counts = new long[2];
+        for (int v : vs)
+        {
+            for (int w : ws)
+            {
+                if (v != w && v != u && w != u)
+                {
+                    ++counts[1];
+                    if (graph.containsEdge(v, w))
+                    {
+                        ++counts[0];
+                    }
+                }
+            }
+        }
+        return counts;
+    }
+
+    @Test
+    public void counts()
+    {
+        EdgeOrientation[] orients = {EdgeOrientation.OUT, EdgeOrientation.IN, EdgeOrientation.UND, EdgeOrientation.MUTUAL};
+        for (FastGraph<Integer> graph : Arrays.asList(random(new FastDirectedUnweightedGraph<>(), 0), random(new FastUndirectedUnweightedGraph<>(), 1)))
+        {
+            for (EdgeOrientation vSel : orients)
+            {
+                for (EdgeOrientation wSel : orients)
+                {
+                    TriangleCounter.Result<Integer> result = new TriangleCounter<Integer>(vSel, wSel).count(graph);
+                    long triangles = 0;
+                    long triplets = 0;
+                    for (int u = 0; u < N; ++u)
+                    {
+                        long[] expected = bruteForce(graph, u, vSel, wSel);
+                        assertEquals(expected[0], result.getTriangles(u));
+                        assertEquals(expected[1], result.getTriplets(u));
+                        assertEquals(expected[1] > 0 ? (expected[0] + 0.0) / expected[1] : 0.0, result.getLocalClustering(u), 1E-12);
+                        triangles += expected[0];
+                        triplets += expected[1];
+                    }
+                    assertEquals(triangles, result.getTotalTriangles());
+                    assertEquals(triplets, result.getTotalTriplets());
+                    assertEquals((triangles + 0.0) / triplets, new ClusteringCoefficient<Integer>(vSel, wSel).compute(graph), 1E-12);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void local()
+    {
+        FastGraph<Integer> graph = random(new FastDirectedUnweightedGraph<>(), 2);
+        LocalClusteringCoefficient<Integer> metric = new LocalClusteringCoefficient<>();
+        Map<Integer, Double> values = metric.compute(graph);
+        double sum = 0.0;
+        for (int u = 0; u < N; ++u)
+        {
+            assertEquals(metric.compute(graph, u), values.get(u), 1E-12);
+            sum += values.get(u);
+        }
+        assertEquals(sum / N, metric.averageValue(graph), 1E-12);
+    }
+
+    @Test
+    public void undirectedTriangles()
+    {
+        // A complete graph with four nodes contains four triangles.
+        FastGraph<Integer> graph = new FastUndirectedUnweightedGraph<>();
+        for (int i = 0; i < 4; ++i)
+        {
+            graph.addNode(i);
+        }
+        for (int i = 0; i < 4; ++i)
+        {
+            for (int j = i + 1; j < 4; ++j)
+            {
+                graph.addEdge(i, j);
+            }
+        }
+        TriangleCounter.Result<Integer> result = new TriangleCounter<Integer>(EdgeOrientation.UND, EdgeOrientation.UND).count(graph);
+        assertEquals(4, result.getUndirectedTriangles());
+        assertEquals(24, result.getTotalTriangles());
+        assertEquals(1.0, result.getGlobalClustering(), 0.0);
+    }
+}